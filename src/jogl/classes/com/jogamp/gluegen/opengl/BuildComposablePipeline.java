@@ -85,6 +85,16 @@ public class BuildComposablePipeline {
      * <p>Default: false</p>
      */
     public static final int GEN_GL_IDENTITY_BY_ASSIGNABLE_CLASS = 1 << 4;
+    /**
+     * By command-line arguments w/o custom output class, i.e. only <code>classToComposeAround outputDir</code>,
+     * same as {@link #GEN_DEBUG} and {@link #GEN_TRACE}.
+     * <p>
+     * If true, the <code>Profile*</code> pipeline is generated, counting each call
+     * and optionally sampling its wall time with a <code>GLCallProfiler</code>.
+     * </p>
+     * <p>Default: true</p>
+     */
+    public static final int GEN_PROFILE = 1 << 5;
 
     private static final HashMap<String, String> addedGLHooks = new HashMap<String, String>();
     private static final String[] addedGLHookMethodNames = new String[] {
@@ -158,7 +168,7 @@ public class BuildComposablePipeline {
             outputName = null; // TBD ..
             classPrologOpt = null;
             classDownstream = classToComposeAround;
-            mode = GEN_DEBUG | GEN_TRACE ;
+            mode = GEN_DEBUG | GEN_TRACE | GEN_PROFILE ;
         }
 
         final BuildComposablePipeline composer =
@@ -241,6 +251,9 @@ public class BuildComposablePipeline {
         if (0 != (mode & GEN_TRACE)) {
             (new TracePipeline(outputDir, outputPackage, classToComposeAround, classDownstream)).emit(publicMethodsPlainSorted.iterator());
         }
+        if (0 != (mode & GEN_PROFILE)) {
+            (new ProfilePipeline(outputDir, outputPackage, classToComposeAround, classDownstream)).emit(publicMethodsPlainSorted.iterator());
+        }
         if (0 != (mode & GEN_CUSTOM)) {
             (new CustomPipeline(mode, outputDir, outputPackage, outputName, classToComposeAround, classPrologOpt, classDownstream)).emit(publicMethodsPlainSorted.iterator());
         }
@@ -1179,6 +1192,126 @@ public class BuildComposablePipeline {
         }
     } // end class TracePipeline
 
+    //-------------------------------------------------------
+    protected class ProfilePipeline extends PipelineEmitter {
+
+        String className;
+        /** Profiled method names in emission order, their index is the profiler counter index. */
+        final ArrayList<String> methodNames = new ArrayList<String>();
+
+        ProfilePipeline(final String outputDir, final String outputPackage, final Class<?> baseInterfaceClass, final Class<?> downstreamClass) {
+            super(outputDir, outputPackage, baseInterfaceClass, null, downstreamClass);
+            className = "Profile" + getBaseInterfaceName();
+        }
+
+        @Override
+        protected String getOutputName() {
+            return className;
+        }
+
+        @Override
+        protected int getMode() {
+            return 0;
+        }
+
+        @Override
+        protected boolean emptyMethodAllowed() {
+            return false;
+        }
+
+        @Override
+        protected boolean emptyDownstreamAllowed() {
+            return false;
+        }
+
+        @Override
+        protected void preMethodEmissionHook(final PrintWriter output) {
+            super.preMethodEmissionHook(output);
+        }
+
+        @Override
+        protected void constructorHook(final PrintWriter output) {
+            output.print("  public " + getOutputName() + "(");
+            output.println(downstreamName + " " + getDownstreamObjectName() + ", GLCallProfiler " + getProfilerName() + ")");
+            output.println("  {");
+            output.println("    if (" + getDownstreamObjectName() + " == null) {");
+            output.println("      throw new IllegalArgumentException(\"null " + getDownstreamObjectName() + "\");");
+            output.println("    }");
+            output.println("    if (" + getProfilerName() + " == null) {");
+            output.println("      throw new IllegalArgumentException(\"null " + getProfilerName() + "\");");
+            output.println("    }");
+            output.print("    this." + getDownstreamObjectName());
+            output.println(" = " + getDownstreamObjectName() + ";");
+            output.println("    " + getProfilerName() + ".attach(methodNames);");
+            output.print("    this." + getProfilerName());
+            output.println(" = " + getProfilerName() + ";");
+            output.println("  }");
+            output.println();
+            output.println("  /** Returns the {@link GLCallProfiler} counting the calls of this pipeline. */");
+            output.println("  public final GLCallProfiler getProfiler() {");
+            output.println("    return " + getProfilerName() + ";");
+            output.println("  }");
+            output.println();
+        }
+
+        @Override
+        protected void postMethodEmissionHook(final PrintWriter output) {
+            super.postMethodEmissionHook(output);
+            output.println("  private final GLCallProfiler " + getProfilerName() + ";");
+            output.println("  /** Profiled method names, indexed by their {@link GLCallProfiler} counter index. */");
+            output.println("  private static final String[] methodNames = {");
+            for (int i = 0; i < methodNames.size(); i++) {
+                output.print("    \"" + methodNames.get(i) + "\"");
+                output.println(i < methodNames.size() - 1 ? "," : "");
+            }
+            output.println("  };");
+        }
+
+        @Override
+        protected void emitClassDocComment(final PrintWriter output) {
+            output.println("/**");
+            output.println(" * <p>");
+            output.println(" * Composable pipeline which wraps an underlying {@link GL} implementation,");
+            output.println(" * counting each OpenGL method call and optionally sampling its wall time");
+            output.println(" * with a user-specified {@link GLCallProfiler}.");
+            output.println(" * </p>");
+            output.println(" * <p>");
+            output.println(" * Sample code which installs this pipeline:");
+            output.println(" * <pre>");
+            output.println(" *   gl = drawable.setGL(new ProfileGL(drawable.getGL(), new GLCallProfiler()));");
+            output.println(" * </pre>");
+            output.println(" * For automatic instantiation see {@link GLPipelineFactory#create(String, Class, GL, Object[])}");
+            output.println(" * or {@link GLCallProfiler#install(GLAutoDrawable)}.");
+            output.println(" * </p>");
+            output.println(" */");
+        }
+
+        @Override
+        protected boolean hasPreDownstreamCallHook(final PlainMethod pm) {
+            return !pm.isSynthetic();
+        }
+
+        @Override
+        protected void preDownstreamCallHook(final PrintWriter output, final PlainMethod pm) {
+            output.println("    final long _t0 = " + getProfilerName() + ".enter(" + methodNames.size() + ");");
+        }
+
+        @Override
+        protected boolean hasPostDownstreamCallHook(final PlainMethod pm) {
+            return !pm.isSynthetic();
+        }
+
+        @Override
+        protected void postDownstreamCallHook(final PrintWriter output, final PlainMethod pm) {
+            output.println("    " + getProfilerName() + ".exit(" + methodNames.size() + ", _t0);");
+            methodNames.add(pm.getWrappedMethod().getName());
+        }
+
+        private String getProfilerName() {
+            return "profiler";
+        }
+    } // end class ProfilePipeline
+
     public static final void printFunctionCallString(final PrintWriter output, final Method m) {
         final Class<?>[] params = m.getParameterTypes();
         output.print("    \"" + m.getName() + "(\"");
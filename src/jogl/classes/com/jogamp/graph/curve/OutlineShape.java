@@ -44,7 +44,9 @@ import com.jogamp.math.Vert2fImmutable;
 import com.jogamp.math.geom.AABBox;
 import com.jogamp.math.geom.plane.AffineTransform;
 import com.jogamp.math.geom.plane.Path2F;
+import com.jogamp.math.geom.plane.Stroker2F;
 import com.jogamp.math.geom.plane.Winding;
+import com.jogamp.math.geom.plane.WindingRule;
 
 import jogamp.opengl.Debug;
 
@@ -737,6 +739,58 @@ public final class OutlineShape implements Comparable<OutlineShape> {
         }
     }
 
+    /**
+     * Append the stroke of the given path geometry to this outline shape,
+     * each stroke piece as a separate closed {@link Winding#CCW} and {@link Outline#setSolid(boolean) solid} {@link Outline}.
+     *
+     * @param path the {@link Path2F} to be stroked
+     * @param stroker the {@link Stroker2F} defining the stroke
+     * @see Stroker2F#stroke(Path2F.Iterator, Path2F)
+     */
+    public final void addStroke(final Path2F path, final Stroker2F stroker) {
+        addStroke(path.iterator(null), stroker);
+    }
+
+    /**
+     * Append the stroke of the given {@link Path2F.Iterator} to this outline shape,
+     * each stroke piece as a separate closed {@link Winding#CCW} and {@link Outline#setSolid(boolean) solid} {@link Outline}.
+     *
+     * @param pathI the {@link Path2F.Iterator} to be stroked
+     * @param stroker the {@link Stroker2F} defining the stroke
+     * @see Stroker2F#stroke(Path2F.Iterator, Path2F)
+     */
+    public final void addStroke(final Path2F.Iterator pathI, final Stroker2F stroker) {
+        addSolidPath(stroker.stroke(pathI, new Path2F(pathI.getWindingRule(), 256)));
+    }
+
+    /**
+     * Append the stroke of the given polyline to this outline shape,
+     * each stroke piece as a separate closed {@link Winding#CCW} and {@link Outline#setSolid(boolean) solid} {@link Outline}.
+     *
+     * @param xy the packed x/y coordinates
+     * @param off offset of the first point within {@code xy}
+     * @param count number of points
+     * @param closed pass {@code true} to connect the last with the first point
+     * @param stroker the {@link Stroker2F} defining the stroke
+     * @see Stroker2F#stroke(float[], int, int, boolean, Path2F)
+     */
+    public final void addStroke(final float[] xy, final int off, final int count, final boolean closed, final Stroker2F stroker) {
+        addSolidPath(stroker.stroke(xy, off, count, closed, new Path2F(WindingRule.NON_ZERO, 256)));
+    }
+
+    /** Appends the given path via {@link #addPath(Path2F, boolean)} and marks all its {@link Outline}s {@link Outline#setSolid(boolean) solid}. */
+    private void addSolidPath(final Path2F path) {
+        final int first = getLastOutline().isEmpty() ? getOutlineCount() - 1 : getOutlineCount();
+        addPath(path, false);
+        final int count = getOutlineCount();
+        for(int i=first; i<count; ++i) {
+            final Outline o = getOutline(i);
+            if( !o.isEmpty() ) {
+                o.setSolid(true);
+            }
+        }
+    }
+
     /**
      * Start a new position for the next line segment at given point x/y (P1).
      *
@@ -1031,8 +1085,22 @@ public final class OutlineShape implements Comparable<OutlineShape> {
             triangles.clear();
             final Triangulator triangulator2d = Triangulation.create();
             triangulator2d.setComplexShape( isComplex() );
+            Triangulator solid2d = null;
             for(int index = 0; index<outlines.size(); index++) {
-                triangulator2d.addCurve(triangles, outlines.get(index), sharpness);
+                final Outline outline = outlines.get(index);
+                if( outline.isSolid() ) {
+                    // triangulated on its own, neither a hole nor containing holes
+                    if( null == solid2d ) {
+                        solid2d = Triangulation.create();
+                    }
+                    solid2d.setComplexShape( outline.isComplex() );
+                    solid2d.addCurve(triangles, outline, sharpness);
+                    solid2d.generate(triangles);
+                    addedVerticeCount += solid2d.getAddedVerticeCount();
+                    solid2d.reset();
+                } else {
+                    triangulator2d.addCurve(triangles, outline, sharpness);
+                }
             }
             triangulator2d.generate(triangles);
             addedVerticeCount += triangulator2d.getAddedVerticeCount();
@@ -58,6 +58,7 @@ public class Outline implements Comparable<Outline> {
     private boolean dirtyBBox;
     private Winding winding;
     private boolean complexShape;
+    private boolean solid;
     private int dirtyBits;
 
     private static final int DIRTY_WINDING = 1 << 0;
@@ -74,6 +75,7 @@ public class Outline implements Comparable<Outline> {
         dirtyBBox = false;
         winding = Winding.CCW;
         complexShape = false;
+        solid = false;
         dirtyBits = 0;
     }
 
@@ -98,6 +100,7 @@ public class Outline implements Comparable<Outline> {
             vertices.add( src.vertices.get(i).copy() );
         }
         closed = src.closed;
+        solid = src.solid;
         bbox = new AABBox(src.bbox);
         dirtyBBox = src.dirtyBBox;
     }
@@ -132,6 +135,7 @@ public class Outline implements Comparable<Outline> {
             dirtyBits &= ~DIRTY_COMPLEXSHAPE;
         }
         closed = src.closed;
+        solid = src.solid;
         bbox = new AABBox(src.bbox);
         dirtyBBox = src.dirtyBBox;
     }
@@ -196,6 +200,26 @@ public class Outline implements Comparable<Outline> {
         return complexShape;
     }
 
+    /**
+     * Returns whether this {@link Outline} is triangulated on its own, see {@link #setSolid(boolean)}.
+     */
+    public final boolean isSolid() {
+        return solid;
+    }
+
+    /**
+     * Marks this {@link Outline} to be triangulated on its own, defaults to {@code false}.
+     * <p>
+     * A solid outline is neither classified as a hole of an enclosing outline
+     * nor does it take any other outline as its hole.
+     * Hence solid outlines may overlap each other and all other outlines of an {@link com.jogamp.graph.curve.OutlineShape OutlineShape},
+     * as produced by {@link com.jogamp.graph.curve.OutlineShape#addStroke(com.jogamp.math.geom.plane.Path2F, com.jogamp.math.geom.plane.Stroker2F) OutlineShape.addStroke(..)}.
+     * </p>
+     */
+    public final void setSolid(final boolean solid) {
+        this.solid = solid;
+    }
+
     public final int getVertexCount() {
         return vertices.size();
     }
@@ -333,6 +357,7 @@ public class Outline implements Comparable<Outline> {
             newOutline.addVertex(t.transform(v, new Vertex()));
         }
         newOutline.closed = this.closed;
+        newOutline.solid = this.solid;
         return newOutline;
     }
 
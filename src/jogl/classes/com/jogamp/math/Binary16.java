@@ -28,11 +28,20 @@
 
 package com.jogamp.math;
 
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+
 /**
  * <p>
  * Functions to convert values to/from the <code>binary16</code> format
  * specified in <code>IEEE 754 2008</code>.
  * </p>
+ * <p>
+ * The bulk conversions {@link #packFloats(float[], int, short[], int, int, boolean)}
+ * and {@link #unpackFloats(short[], int, float[], int, int, boolean)}
+ * use {@link #packFloatRounded(float)} and {@link #unpackFloatExact(char)},
+ * e.g. to store vertex attributes or textures as <code>GL_HALF_FLOAT</code>.
+ * </p>
  */
 
 public final class Binary16
@@ -562,6 +571,258 @@ public final class Binary16
     return k & Binary16.MASK_SIGNIFICAND;
   }
 
+  /**
+   * <p>
+   * Convert a single precision floating point value to the nearest packed
+   * <code>binary16</code> value, rounding ties to even.
+   * </p>
+   * <p>
+   * Unlike {@link #packFloat(float)}, which truncates the significand,
+   * values beyond the <code>binary16</code> range round to an infinity and
+   * small values round to subnormals. <code>NaN</code> maps to a quiet
+   * <code>NaN</code>.
+   * </p>
+   *
+   * @see #unpackFloatExact(char)
+   */
+
+  public static char packFloatRounded(
+    final float k)
+  {
+    final int x = Float.floatToRawIntBits(k);
+    final int sign = (x >>> 16) & 0x8000;
+    final int a = x & 0x7FFFFFFF;
+    final int h;
+    if (a >= 0x47800000) {
+      /**
+       * At least 2^16, infinite or NaN.
+       */
+      h = a > 0x7F800000 ? 0x7E00 : 0x7C00;
+    } else if (a < 0x38800000) {
+      /**
+       * Below 2^-14, subnormal or zero: let the FPU round the significand
+       * by aligning it to the ulp of 0.5f, i.e. 2^-24.
+       */
+      h = Float.floatToRawIntBits(Float.intBitsToFloat(a) + 0.5f) - 0x3F000000;
+    } else {
+      /**
+       * Normal: rebias the exponent and round the 13 dropped bits to even,
+       * a carry into the exponent yields the next power of two or infinity.
+       */
+      h = (a + 0xC8000FFF + ((a >>> 13) & 1)) >>> 13;
+    }
+    return (char) (sign | h);
+  }
+
+  /**
+   * <p>
+   * Convert a packed <code>binary16</code> value to the exactly equal single
+   * precision floating point value, including subnormals.
+   * </p>
+   *
+   * @see #packFloatRounded(float)
+   */
+
+  public static float unpackFloatExact(
+    final char k)
+  {
+    final int sign = (k & 0x8000) << 16;
+    final int e = k & 0x7C00;
+    if (e == 0x7C00) {
+      return Float.intBitsToFloat(sign | 0x7F800000 | ((k & 0x03FF) << 13));
+    }
+    if (e == 0) {
+      return Float.intBitsToFloat(sign | Float.floatToRawIntBits((k & 0x03FF) * 0x1p-24f));
+    }
+    return Float.intBitsToFloat(sign | (((k & 0x7FFF) << 13) + 0x38000000));
+  }
+
+  /**
+   * <p>
+   * Minimum number of values for which a bulk conversion is split into
+   * parallel chunks, if requested.
+   * </p>
+   */
+
+  public static final int BULK_PARALLEL_THRESHOLD = BulkRange.PARALLEL_THRESHOLD;
+
+  /**
+   * <p>
+   * Convert <code>count</code> single precision values to packed
+   * <code>binary16</code> values via {@link #packFloatRounded(float)}.
+   * </p>
+   * <p>
+   * If <code>parallel</code> is <code>true</code> and <code>count</code>
+   * &ge; {@link #BULK_PARALLEL_THRESHOLD}, the range is split into chunks
+   * executed on the common pool.
+   * </p>
+   *
+   * @throws IndexOutOfBoundsException if a range exceeds its array
+   */
+
+  public static void packFloats(
+    final float[] src,
+    final int srcOff,
+    final short[] dst,
+    final int dstOff,
+    final int count,
+    final boolean parallel)
+  {
+    BulkRange.checkRange("source", src.length, srcOff, count);
+    BulkRange.checkRange("destination", dst.length, dstOff, count);
+    new BulkRange() {
+      @Override void run(final int off, final int n) {
+        packRange(src, srcOff + off, dst, dstOff + off, n);
+      }
+    }.invoke(count, parallel);
+  }
+
+  /**
+   * <p>
+   * Buffer variant of
+   * {@link #packFloats(float[], int, short[], int, int, boolean)}.
+   * Offsets are absolute buffer indices, buffer positions and limits are
+   * not used nor modified. Array backed buffers are processed via their
+   * backing arrays, direct buffers are staged block-wise.
+   * </p>
+   *
+   * @throws IndexOutOfBoundsException if a range exceeds its buffer's capacity
+   */
+
+  public static void packFloats(
+    final FloatBuffer src,
+    final int srcOff,
+    final ShortBuffer dst,
+    final int dstOff,
+    final int count,
+    final boolean parallel)
+  {
+    BulkRange.checkRange("source", src.capacity(), srcOff, count);
+    BulkRange.checkRange("destination", dst.capacity(), dstOff, count);
+    if (src.hasArray() && dst.hasArray()) {
+      packFloats(src.array(), src.arrayOffset() + srcOff, dst.array(), dst.arrayOffset() + dstOff, count, parallel);
+      return;
+    }
+    new BulkRange() {
+      @Override void run(final int off, final int n) {
+        final float[] s = new float[Math.min(n, BulkRange.BLOCK)];
+        final short[] d = new short[s.length];
+        final FloatBuffer sb = src.duplicate();
+        final ShortBuffer db = dst.duplicate();
+        for (int i = 0; i < n; i += s.length) {
+          final int m = Math.min(s.length, n - i);
+          sb.limit(sb.capacity());
+          sb.position(srcOff + off + i);
+          sb.get(s, 0, m);
+          packRange(s, 0, d, 0, m);
+          db.limit(db.capacity());
+          db.position(dstOff + off + i);
+          db.put(d, 0, m);
+        }
+      }
+    }.invoke(count, parallel);
+  }
+
+  /**
+   * <p>
+   * Convert <code>count</code> packed <code>binary16</code> values to single
+   * precision values via {@link #unpackFloatExact(char)}.
+   * </p>
+   * <p>
+   * If <code>parallel</code> is <code>true</code> and <code>count</code>
+   * &ge; {@link #BULK_PARALLEL_THRESHOLD}, the range is split into chunks
+   * executed on the common pool.
+   * </p>
+   *
+   * @throws IndexOutOfBoundsException if a range exceeds its array
+   */
+
+  public static void unpackFloats(
+    final short[] src,
+    final int srcOff,
+    final float[] dst,
+    final int dstOff,
+    final int count,
+    final boolean parallel)
+  {
+    BulkRange.checkRange("source", src.length, srcOff, count);
+    BulkRange.checkRange("destination", dst.length, dstOff, count);
+    new BulkRange() {
+      @Override void run(final int off, final int n) {
+        unpackRange(src, srcOff + off, dst, dstOff + off, n);
+      }
+    }.invoke(count, parallel);
+  }
+
+  /**
+   * <p>
+   * Buffer variant of
+   * {@link #unpackFloats(short[], int, float[], int, int, boolean)},
+   * see {@link #packFloats(FloatBuffer, int, ShortBuffer, int, int, boolean)}
+   * for buffer semantics.
+   * </p>
+   *
+   * @throws IndexOutOfBoundsException if a range exceeds its buffer's capacity
+   */
+
+  public static void unpackFloats(
+    final ShortBuffer src,
+    final int srcOff,
+    final FloatBuffer dst,
+    final int dstOff,
+    final int count,
+    final boolean parallel)
+  {
+    BulkRange.checkRange("source", src.capacity(), srcOff, count);
+    BulkRange.checkRange("destination", dst.capacity(), dstOff, count);
+    if (src.hasArray() && dst.hasArray()) {
+      unpackFloats(src.array(), src.arrayOffset() + srcOff, dst.array(), dst.arrayOffset() + dstOff, count, parallel);
+      return;
+    }
+    new BulkRange() {
+      @Override void run(final int off, final int n) {
+        final short[] s = new short[Math.min(n, BulkRange.BLOCK)];
+        final float[] d = new float[s.length];
+        final ShortBuffer sb = src.duplicate();
+        final FloatBuffer db = dst.duplicate();
+        for (int i = 0; i < n; i += s.length) {
+          final int m = Math.min(s.length, n - i);
+          sb.limit(sb.capacity());
+          sb.position(srcOff + off + i);
+          sb.get(s, 0, m);
+          unpackRange(s, 0, d, 0, m);
+          db.limit(db.capacity());
+          db.position(dstOff + off + i);
+          db.put(d, 0, m);
+        }
+      }
+    }.invoke(count, parallel);
+  }
+
+  private static void packRange(
+    final float[] src,
+    final int srcOff,
+    final short[] dst,
+    final int dstOff,
+    final int count)
+  {
+    for (int i = 0; i < count; ++i) {
+      dst[dstOff + i] = (short) packFloatRounded(src[srcOff + i]);
+    }
+  }
+
+  private static void unpackRange(
+    final short[] src,
+    final int srcOff,
+    final float[] dst,
+    final int dstOff,
+    final int count)
+  {
+    for (int i = 0; i < count; ++i) {
+      dst[dstOff + i] = unpackFloatExact((char) src[srcOff + i]);
+    }
+  }
+
   private Binary16()
   {
     throw new AssertionError("Unreachable code, report this bug!");
@@ -0,0 +1,97 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.math;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Package private chunked execution of element-wise bulk conversions,
+ * used by {@link Binary16} and {@link FixedPoint}.
+ * <p>
+ * Large ranges may be split into chunks executed on the {@link ForkJoinPool#commonPool() common pool},
+ * while the first chunk is processed on the current thread.
+ * </p>
+ */
+/* pp */ abstract class BulkRange {
+    /** Minimum number of elements for which a bulk conversion is split into parallel chunks, if requested. */
+    static final int PARALLEL_THRESHOLD = 256 * 1024;
+
+    /** Minimum number of elements per parallel chunk. */
+    private static final int MIN_CHUNK = 64 * 1024;
+
+    /** Number of elements staged per block for direct buffers. */
+    static final int BLOCK = 1024;
+
+    /** Converts {@code count} elements starting at the relative element {@code off}. */
+    abstract void run(int off, int count);
+
+    /** Runs this conversion for elements [0..count), split into parallel chunks if {@code parallel} and large enough. */
+    final void invoke(final int count, final boolean parallel) {
+        final int chunks = !parallel || count < PARALLEL_THRESHOLD ? 1 :
+                           Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism(), count / MIN_CHUNK));
+        if( 1 >= chunks ) {
+            run(0, count);
+            return;
+        }
+        final int chunkSize = ( count + chunks - 1 ) / chunks;
+        final Future<?>[] tasks = new Future<?>[chunks-1];
+        for(int i=1; i<chunks; i++) {
+            final int i0 = i * chunkSize;
+            final int n = Math.min(count, i0 + chunkSize) - i0;
+            tasks[i-1] = ForkJoinPool.commonPool().submit(new Runnable() {
+                @Override
+                public void run() {
+                    BulkRange.this.run(i0, n);
+                } });
+        }
+        run(0, chunkSize);
+        for(int i=0; i<tasks.length; i++) {
+            try {
+                tasks[i].get();
+            } catch (final ExecutionException e) {
+                final Throwable t = e.getCause();
+                if( t instanceof RuntimeException ) {
+                    throw (RuntimeException)t;
+                }
+                throw new RuntimeException(t);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /** Validates the element range of an array or buffer of the given capacity. */
+    static void checkRange(final String name, final int capacity, final int off, final int count) throws IndexOutOfBoundsException {
+        if( 0 > off || 0 > count || off + count > capacity ) {
+            throw new IndexOutOfBoundsException(name+" range [off "+off+", count "+count+"] exceeds capacity "+capacity);
+        }
+    }
+}
@@ -33,6 +33,17 @@
 
 package com.jogamp.math;
 
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Signed 16.16 fixed point conversion and arithmetic, e.g. for <code>GL_FIXED</code> data.
+ * <p>
+ * The bulk conversions {@link #toFixed(float[], int, int[], int, int, boolean)}
+ * and {@link #toFloat(int[], int, float[], int, int, boolean)} round to nearest,
+ * unlike the truncating {@link #toFixed(float)}.
+ * </p>
+ */
 public class FixedPoint {
   public static final int toFixed(int value) {
     if (value < -32768) value = -32768;
@@ -57,5 +68,125 @@ public class FixedPoint {
   public static final int div(final int x1, final int x2) {
     return (int) ( (((long)x1)<<16)/x2 );
   }
-}
 
+  /**
+   * Converts a float to 16.16 fixed point, rounding to nearest with ties to even.
+   * Values beyond the fixed point range saturate, NaN maps to zero.
+   */
+  public static final int toFixedRounded(final float value) {
+    // Math.rint is exact, the long cast saturates and maps NaN to 0
+    final long v = (long) Math.rint(value * 65536.0);
+    return v > Integer.MAX_VALUE ? Integer.MAX_VALUE : ( v < Integer.MIN_VALUE ? Integer.MIN_VALUE : (int)v );
+  }
+
+  /**
+   * Converts {@code count} floats to 16.16 fixed point via {@link #toFixedRounded(float)}.
+   * <p>
+   * If {@code parallel} and {@code count} &ge; {@link Binary16#BULK_PARALLEL_THRESHOLD},
+   * the range is split into chunks executed on the common pool.
+   * </p>
+   * @throws IndexOutOfBoundsException if a range exceeds its array
+   */
+  public static void toFixed(final float[] src, final int srcOff, final int[] dst, final int dstOff, final int count, final boolean parallel) {
+    BulkRange.checkRange("source", src.length, srcOff, count);
+    BulkRange.checkRange("destination", dst.length, dstOff, count);
+    new BulkRange() {
+      @Override void run(final int off, final int n) {
+        toFixedRange(src, srcOff + off, dst, dstOff + off, n);
+      }
+    }.invoke(count, parallel);
+  }
+
+  /**
+   * Buffer variant of {@link #toFixed(float[], int, int[], int, int, boolean)}.
+   * <p>
+   * Offsets are absolute buffer indices, buffer positions and limits are not used nor modified.
+   * Array backed buffers are processed via their backing arrays, direct buffers are staged block-wise.
+   * </p>
+   * @throws IndexOutOfBoundsException if a range exceeds its buffer's capacity
+   */
+  public static void toFixed(final FloatBuffer src, final int srcOff, final IntBuffer dst, final int dstOff, final int count, final boolean parallel) {
+    BulkRange.checkRange("source", src.capacity(), srcOff, count);
+    BulkRange.checkRange("destination", dst.capacity(), dstOff, count);
+    if( src.hasArray() && dst.hasArray() ) {
+      toFixed(src.array(), src.arrayOffset() + srcOff, dst.array(), dst.arrayOffset() + dstOff, count, parallel);
+      return;
+    }
+    new BulkRange() {
+      @Override void run(final int off, final int n) {
+        final float[] s = new float[Math.min(n, BulkRange.BLOCK)];
+        final int[] d = new int[s.length];
+        final FloatBuffer sb = src.duplicate();
+        final IntBuffer db = dst.duplicate();
+        for(int i = 0; i < n; i += s.length) {
+          final int m = Math.min(s.length, n - i);
+          sb.limit(sb.capacity()).position(srcOff + off + i);
+          sb.get(s, 0, m);
+          toFixedRange(s, 0, d, 0, m);
+          db.limit(db.capacity()).position(dstOff + off + i);
+          db.put(d, 0, m);
+        }
+      }
+    }.invoke(count, parallel);
+  }
+
+  /**
+   * Converts {@code count} 16.16 fixed point values to floats via {@link #toFloat(int)}.
+   * <p>
+   * If {@code parallel} and {@code count} &ge; {@link Binary16#BULK_PARALLEL_THRESHOLD},
+   * the range is split into chunks executed on the common pool.
+   * </p>
+   * @throws IndexOutOfBoundsException if a range exceeds its array
+   */
+  public static void toFloat(final int[] src, final int srcOff, final float[] dst, final int dstOff, final int count, final boolean parallel) {
+    BulkRange.checkRange("source", src.length, srcOff, count);
+    BulkRange.checkRange("destination", dst.length, dstOff, count);
+    new BulkRange() {
+      @Override void run(final int off, final int n) {
+        toFloatRange(src, srcOff + off, dst, dstOff + off, n);
+      }
+    }.invoke(count, parallel);
+  }
+
+  /**
+   * Buffer variant of {@link #toFloat(int[], int, float[], int, int, boolean)},
+   * see {@link #toFixed(FloatBuffer, int, IntBuffer, int, int, boolean)} for buffer semantics.
+   * @throws IndexOutOfBoundsException if a range exceeds its buffer's capacity
+   */
+  public static void toFloat(final IntBuffer src, final int srcOff, final FloatBuffer dst, final int dstOff, final int count, final boolean parallel) {
+    BulkRange.checkRange("source", src.capacity(), srcOff, count);
+    BulkRange.checkRange("destination", dst.capacity(), dstOff, count);
+    if( src.hasArray() && dst.hasArray() ) {
+      toFloat(src.array(), src.arrayOffset() + srcOff, dst.array(), dst.arrayOffset() + dstOff, count, parallel);
+      return;
+    }
+    new BulkRange() {
+      @Override void run(final int off, final int n) {
+        final int[] s = new int[Math.min(n, BulkRange.BLOCK)];
+        final float[] d = new float[s.length];
+        final IntBuffer sb = src.duplicate();
+        final FloatBuffer db = dst.duplicate();
+        for(int i = 0; i < n; i += s.length) {
+          final int m = Math.min(s.length, n - i);
+          sb.limit(sb.capacity()).position(srcOff + off + i);
+          sb.get(s, 0, m);
+          toFloatRange(s, 0, d, 0, m);
+          db.limit(db.capacity()).position(dstOff + off + i);
+          db.put(d, 0, m);
+        }
+      }
+    }.invoke(count, parallel);
+  }
+
+  private static void toFixedRange(final float[] src, final int srcOff, final int[] dst, final int dstOff, final int count) {
+    for(int i = 0; i < count; ++i) {
+      dst[dstOff + i] = toFixedRounded(src[srcOff + i]);
+    }
+  }
+
+  private static void toFloatRange(final int[] src, final int srcOff, final float[] dst, final int dstOff, final int count) {
+    for(int i = 0; i < count; ++i) {
+      dst[dstOff + i] = src[srcOff + i] * ( 1.0f / 65536.0f );
+    }
+  }
+}
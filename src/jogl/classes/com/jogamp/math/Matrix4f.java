@@ -29,6 +29,9 @@
 package com.jogamp.math;
 
 import java.nio.FloatBuffer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import com.jogamp.math.geom.AABBox;
 import com.jogamp.math.geom.Frustum;
@@ -683,6 +686,91 @@ public final class Matrix4f {
         return true;
     }
 
+    /**
+     * Returns {@code true} if this matrix is affine, i.e. its last row equals {@code 0 0 0 1}.
+     * @see #invertAffine(Matrix4f)
+     */
+    public final boolean isAffine() {
+        return 0f == m30 && 0f == m31 && 0f == m32 && 1f == m33;
+    }
+
+    /**
+     * Invert the {@link #isAffine() affine} {@code src} matrix values into this matrix.
+     * <p>
+     * Only the upper 3x3 matrix is inverted via its adjugate, the translation
+     * is derived from the latter. This is considerably cheaper than {@link #invert(Matrix4f)}.
+     * The result is undefined if {@code src} is not affine.
+     * </p>
+     * @param src the affine source matrix, which values are to be inverted, may be this matrix
+     * @return false if {@code src} matrix is singular and inversion not possible, otherwise true
+     * @see #isAffine()
+     */
+    public boolean invertAffine(final Matrix4f src) {
+        final float a00 = src.m00, a01 = src.m01, a02 = src.m02;
+        final float a10 = src.m10, a11 = src.m11, a12 = src.m12;
+        final float a20 = src.m20, a21 = src.m21, a22 = src.m22;
+        final float tx = src.m03, ty = src.m13, tz = src.m23;
+
+        final float c00 = a11*a22 - a12*a21;
+        final float c10 = a12*a20 - a10*a22;
+        final float c20 = a10*a21 - a11*a20;
+        final float det = a00*c00 + a01*c10 + a02*c20;
+        if( 0 == det ) {
+            return false;
+        }
+        final float invdet = 1.0f / det;
+
+        m00 = c00 * invdet;
+        m01 = ( a02*a21 - a01*a22 ) * invdet;
+        m02 = ( a01*a12 - a02*a11 ) * invdet;
+
+        m10 = c10 * invdet;
+        m11 = ( a00*a22 - a02*a20 ) * invdet;
+        m12 = ( a02*a10 - a00*a12 ) * invdet;
+
+        m20 = c20 * invdet;
+        m21 = ( a01*a20 - a00*a21 ) * invdet;
+        m22 = ( a00*a11 - a01*a10 ) * invdet;
+
+        m03 = -( m00*tx + m01*ty + m02*tz );
+        m13 = -( m10*tx + m11*ty + m12*tz );
+        m23 = -( m20*tx + m21*ty + m22*tz );
+
+        m30 = m31 = m32 = 0f;
+        m33 = 1f;
+        return true;
+    }
+
+    /**
+     * Invert the rigid-body {@code src} matrix values into this matrix,
+     * i.e. an {@link #isAffine() affine} matrix with an orthonormal upper 3x3 rotation matrix and a translation.
+     * <p>
+     * The inverse is computed by transposing the rotation and applying it to the negated translation,
+     * which is the cheapest inversion available and never fails.
+     * The result is undefined if {@code src} is not a rigid-body transformation.
+     * </p>
+     * @param src the rigid-body source matrix, which values are to be inverted, may be this matrix
+     * @return this matrix for chaining
+     */
+    public Matrix4f invertOrthonormal(final Matrix4f src) {
+        final float a01 = src.m01, a02 = src.m02;
+        final float a10 = src.m10, a12 = src.m12;
+        final float a20 = src.m20, a21 = src.m21;
+        final float tx = src.m03, ty = src.m13, tz = src.m23;
+
+        m00 = src.m00; m01 = a10;     m02 = a20;
+        m10 = a01;     m11 = src.m11; m12 = a21;
+        m20 = a02;     m21 = a12;     m22 = src.m22;
+
+        m03 = -( m00*tx + m01*ty + m02*tz );
+        m13 = -( m10*tx + m11*ty + m12*tz );
+        m23 = -( m20*tx + m21*ty + m22*tz );
+
+        m30 = m31 = m32 = 0f;
+        m33 = 1f;
+        return this;
+    }
+
     private final float mulScale() {
         /**
         // No Hotspot intrinsic Math.* optimization for at least Math.max(),
@@ -866,6 +954,357 @@ public final class Matrix4f {
         return v_inout;
     }
 
+    //
+    // Bulk vector transformation
+    //
+
+    /**
+     * Minimum number of vectors for which the {@code parallel} bulk transformation
+     * splits the range into concurrent chunks, see {@link #mulVec3f(float[], int, int, float[], int, int, int, boolean)}.
+     */
+    public static final int BULK_PARALLEL_THRESHOLD = 128 * 1024;
+
+    /** Minimum number of vectors per parallel chunk. */
+    private static final int BULK_MIN_CHUNK = 32 * 1024;
+
+    private static final int BULK_POINT3 = 0;
+    private static final int BULK_DIR3   = 1;
+    private static final int BULK_VEC4   = 2;
+
+    /**
+     * Affine 3f-point bulk transformation by 4x4 matrix, i.e. {@link #mulVec3f(Vec3f, Vec3f)} for {@code count} points.
+     * <p>
+     * Each point {@code i} is read from {@code src[srcOff + i*srcStride + 0..2]}
+     * and written to {@code dst[dstOff + i*dstStride + 0..2]}, using {@code 1} for {@code w}.
+     * Components in between a stride are left untouched, allowing interleaved vertex attributes.
+     * </p>
+     * <p>
+     * In-place transformation is supported if {@code src} and {@code dst} are the same
+     * array using the same offset and stride.
+     * </p>
+     * <p>
+     * If {@code parallel} is {@code true} and {@code count} &ge; {@link #BULK_PARALLEL_THRESHOLD},
+     * chunks are transformed concurrently using the {@link ForkJoinPool#commonPool() common pool}.
+     * </p>
+     * @param src source array of 3-component points
+     * @param srcOff offset of the first source point
+     * @param srcStride distance between two source points in floats, &ge; 3
+     * @param dst destination array, may be {@code src}
+     * @param dstOff offset of the first destination point
+     * @param dstStride distance between two destination points in floats, &ge; 3
+     * @param count number of points
+     * @param parallel if {@code true}, allow concurrent transformation of large ranges
+     * @throws IllegalArgumentException if a stride is less than 3
+     * @throws IndexOutOfBoundsException if a range exceeds its array
+     */
+    public final void mulVec3f(final float[] src, final int srcOff, final int srcStride,
+                               final float[] dst, final int dstOff, final int dstStride,
+                               final int count, final boolean parallel)
+            throws IllegalArgumentException, IndexOutOfBoundsException
+    {
+        mulBulk(BULK_POINT3, src, srcOff, srcStride, dst, dstOff, dstStride, count, parallel);
+    }
+
+    /**
+     * 3f-direction bulk transformation by 4x4 matrix, i.e. using {@code 0} for {@code w},
+     * dropping the translation.
+     * <p>
+     * Layout, in-place and parallel semantics equal {@link #mulVec3f(float[], int, int, float[], int, int, int, boolean)}.
+     * </p>
+     * <p>
+     * Use the inverse-transpose matrix to transform normals under non-uniform scaling.
+     * </p>
+     * @param src source array of 3-component directions
+     * @param srcOff offset of the first source direction
+     * @param srcStride distance between two source directions in floats, &ge; 3
+     * @param dst destination array, may be {@code src}
+     * @param dstOff offset of the first destination direction
+     * @param dstStride distance between two destination directions in floats, &ge; 3
+     * @param count number of directions
+     * @param parallel if {@code true}, allow concurrent transformation of large ranges
+     * @throws IllegalArgumentException if a stride is less than 3
+     * @throws IndexOutOfBoundsException if a range exceeds its array
+     */
+    public final void mulVec3fDir(final float[] src, final int srcOff, final int srcStride,
+                                  final float[] dst, final int dstOff, final int dstStride,
+                                  final int count, final boolean parallel)
+            throws IllegalArgumentException, IndexOutOfBoundsException
+    {
+        mulBulk(BULK_DIR3, src, srcOff, srcStride, dst, dstOff, dstStride, count, parallel);
+    }
+
+    /**
+     * 4f-vector bulk transformation by 4x4 matrix, i.e. {@link #mulVec4f(Vec4f, Vec4f)} for {@code count} vectors.
+     * <p>
+     * Layout, in-place and parallel semantics equal {@link #mulVec3f(float[], int, int, float[], int, int, int, boolean)},
+     * with a minimum stride of 4.
+     * </p>
+     * @param src source array of 4-component vectors
+     * @param srcOff offset of the first source vector
+     * @param srcStride distance between two source vectors in floats, &ge; 4
+     * @param dst destination array, may be {@code src}
+     * @param dstOff offset of the first destination vector
+     * @param dstStride distance between two destination vectors in floats, &ge; 4
+     * @param count number of vectors
+     * @param parallel if {@code true}, allow concurrent transformation of large ranges
+     * @throws IllegalArgumentException if a stride is less than 4
+     * @throws IndexOutOfBoundsException if a range exceeds its array
+     */
+    public final void mulVec4f(final float[] src, final int srcOff, final int srcStride,
+                               final float[] dst, final int dstOff, final int dstStride,
+                               final int count, final boolean parallel)
+            throws IllegalArgumentException, IndexOutOfBoundsException
+    {
+        mulBulk(BULK_VEC4, src, srcOff, srcStride, dst, dstOff, dstStride, count, parallel);
+    }
+
+    /**
+     * Affine 3f-point bulk transformation by 4x4 matrix on {@link FloatBuffer}s,
+     * see {@link #mulVec3f(float[], int, int, float[], int, int, int, boolean)}.
+     * <p>
+     * Offsets are absolute buffer indices, buffer positions and limits are not used nor modified.
+     * Array backed buffers are processed via their backing arrays.
+     * </p>
+     * @param src source buffer of 3-component points
+     * @param srcOff absolute index of the first source point
+     * @param srcStride distance between two source points in floats, &ge; 3
+     * @param dst destination buffer, may be {@code src}
+     * @param dstOff absolute index of the first destination point
+     * @param dstStride distance between two destination points in floats, &ge; 3
+     * @param count number of points
+     * @param parallel if {@code true}, allow concurrent transformation of large ranges
+     * @throws IllegalArgumentException if a stride is less than 3
+     * @throws IndexOutOfBoundsException if a range exceeds its buffer's capacity
+     */
+    public final void mulVec3f(final FloatBuffer src, final int srcOff, final int srcStride,
+                               final FloatBuffer dst, final int dstOff, final int dstStride,
+                               final int count, final boolean parallel)
+            throws IllegalArgumentException, IndexOutOfBoundsException
+    {
+        mulBulk(BULK_POINT3, src, srcOff, srcStride, dst, dstOff, dstStride, count, parallel);
+    }
+
+    /**
+     * 3f-direction bulk transformation by 4x4 matrix on {@link FloatBuffer}s,
+     * see {@link #mulVec3fDir(float[], int, int, float[], int, int, int, boolean)}
+     * and {@link #mulVec3f(FloatBuffer, int, int, FloatBuffer, int, int, int, boolean)} for buffer semantics.
+     * @param src source buffer of 3-component directions
+     * @param srcOff absolute index of the first source direction
+     * @param srcStride distance between two source directions in floats, &ge; 3
+     * @param dst destination buffer, may be {@code src}
+     * @param dstOff absolute index of the first destination direction
+     * @param dstStride distance between two destination directions in floats, &ge; 3
+     * @param count number of directions
+     * @param parallel if {@code true}, allow concurrent transformation of large ranges
+     * @throws IllegalArgumentException if a stride is less than 3
+     * @throws IndexOutOfBoundsException if a range exceeds its buffer's capacity
+     */
+    public final void mulVec3fDir(final FloatBuffer src, final int srcOff, final int srcStride,
+                                  final FloatBuffer dst, final int dstOff, final int dstStride,
+                                  final int count, final boolean parallel)
+            throws IllegalArgumentException, IndexOutOfBoundsException
+    {
+        mulBulk(BULK_DIR3, src, srcOff, srcStride, dst, dstOff, dstStride, count, parallel);
+    }
+
+    /**
+     * 4f-vector bulk transformation by 4x4 matrix on {@link FloatBuffer}s,
+     * see {@link #mulVec4f(float[], int, int, float[], int, int, int, boolean)}
+     * and {@link #mulVec3f(FloatBuffer, int, int, FloatBuffer, int, int, int, boolean)} for buffer semantics.
+     * @param src source buffer of 4-component vectors
+     * @param srcOff absolute index of the first source vector
+     * @param srcStride distance between two source vectors in floats, &ge; 4
+     * @param dst destination buffer, may be {@code src}
+     * @param dstOff absolute index of the first destination vector
+     * @param dstStride distance between two destination vectors in floats, &ge; 4
+     * @param count number of vectors
+     * @param parallel if {@code true}, allow concurrent transformation of large ranges
+     * @throws IllegalArgumentException if a stride is less than 4
+     * @throws IndexOutOfBoundsException if a range exceeds its buffer's capacity
+     */
+    public final void mulVec4f(final FloatBuffer src, final int srcOff, final int srcStride,
+                               final FloatBuffer dst, final int dstOff, final int dstStride,
+                               final int count, final boolean parallel)
+            throws IllegalArgumentException, IndexOutOfBoundsException
+    {
+        mulBulk(BULK_VEC4, src, srcOff, srcStride, dst, dstOff, dstStride, count, parallel);
+    }
+
+    private static void checkBulkRange(final String name, final int capacity, final int off, final int stride,
+                                       final int components, final int count)
+            throws IllegalArgumentException, IndexOutOfBoundsException
+    {
+        if( stride < components ) {
+            throw new IllegalArgumentException("Invalid "+name+" stride "+stride+", must be >= "+components);
+        }
+        if( 0 > off || 0 > count || ( 0 < count && (long)off + (long)(count-1) * stride + components > capacity ) ) {
+            throw new IndexOutOfBoundsException(name+" range [off "+off+", stride "+stride+", count "+count+
+                                                "] exceeds capacity "+capacity);
+        }
+    }
+
+    private static int bulkChunks(final int count, final boolean parallel) {
+        if( !parallel || count < BULK_PARALLEL_THRESHOLD ) {
+            return 1;
+        }
+        return Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism(), count / BULK_MIN_CHUNK));
+    }
+
+    private static void joinBulk(final Future<?>[] tasks) {
+        for(int i=0; i<tasks.length; i++) {
+            try {
+                tasks[i].get();
+            } catch (final ExecutionException e) {
+                final Throwable t = e.getCause();
+                if( t instanceof RuntimeException ) {
+                    throw (RuntimeException)t;
+                }
+                throw new RuntimeException(t);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private void mulBulk(final int kind, final float[] src, final int srcOff, final int srcStride,
+                         final float[] dst, final int dstOff, final int dstStride,
+                         final int count, final boolean parallel)
+    {
+        final int components = BULK_VEC4 == kind ? 4 : 3;
+        checkBulkRange("source", src.length, srcOff, srcStride, components, count);
+        checkBulkRange("destination", dst.length, dstOff, dstStride, components, count);
+        final int chunks = bulkChunks(count, parallel);
+        if( 1 >= chunks ) {
+            mulBulkRange(kind, src, srcOff, srcStride, dst, dstOff, dstStride, count);
+            return;
+        }
+        final int chunkSize = ( count + chunks - 1 ) / chunks;
+        final Future<?>[] tasks = new Future<?>[chunks-1];
+        for(int i=1; i<chunks; i++) {
+            final int i0 = i * chunkSize;
+            final int n = Math.min(count, i0 + chunkSize) - i0;
+            tasks[i-1] = ForkJoinPool.commonPool().submit(new Runnable() {
+                @Override
+                public void run() {
+                    mulBulkRange(kind, src, srcOff + i0 * srcStride, srcStride, dst, dstOff + i0 * dstStride, dstStride, n);
+                } });
+        }
+        mulBulkRange(kind, src, srcOff, srcStride, dst, dstOff, dstStride, chunkSize);
+        joinBulk(tasks);
+    }
+
+    private void mulBulk(final int kind, final FloatBuffer src, final int srcOff, final int srcStride,
+                         final FloatBuffer dst, final int dstOff, final int dstStride,
+                         final int count, final boolean parallel)
+    {
+        final int components = BULK_VEC4 == kind ? 4 : 3;
+        checkBulkRange("source", src.capacity(), srcOff, srcStride, components, count);
+        checkBulkRange("destination", dst.capacity(), dstOff, dstStride, components, count);
+        if( src.hasArray() && dst.hasArray() ) {
+            mulBulk(kind, src.array(), src.arrayOffset() + srcOff, srcStride,
+                          dst.array(), dst.arrayOffset() + dstOff, dstStride, count, parallel);
+            return;
+        }
+        final int chunks = bulkChunks(count, parallel);
+        if( 1 >= chunks ) {
+            mulBulkRange(kind, src, srcOff, srcStride, dst, dstOff, dstStride, count);
+            return;
+        }
+        final int chunkSize = ( count + chunks - 1 ) / chunks;
+        final Future<?>[] tasks = new Future<?>[chunks-1];
+        for(int i=1; i<chunks; i++) {
+            final int i0 = i * chunkSize;
+            final int n = Math.min(count, i0 + chunkSize) - i0;
+            tasks[i-1] = ForkJoinPool.commonPool().submit(new Runnable() {
+                @Override
+                public void run() {
+                    mulBulkRange(kind, src, srcOff + i0 * srcStride, srcStride, dst, dstOff + i0 * dstStride, dstStride, n);
+                } });
+        }
+        mulBulkRange(kind, src, srcOff, srcStride, dst, dstOff, dstStride, chunkSize);
+        joinBulk(tasks);
+    }
+
+    /**
+     * Bulk kernels on validated ranges, copying the matrix into locals
+     * and reading all components of a vector before writing to allow in-place operation.
+     * Loops are kept free of calls and branches for the JIT to unroll.
+     */
+    private void mulBulkRange(final int kind, final float[] src, final int srcOff, final int srcStride,
+                              final float[] dst, final int dstOff, final int dstStride, final int count)
+    {
+        final float a00 = m00, a01 = m01, a02 = m02, a03 = m03;
+        final float a10 = m10, a11 = m11, a12 = m12, a13 = m13;
+        final float a20 = m20, a21 = m21, a22 = m22, a23 = m23;
+        final float a30 = m30, a31 = m31, a32 = m32, a33 = m33;
+        int s = srcOff, d = dstOff;
+        switch( kind ) {
+            case BULK_POINT3:
+                for(int i=0; i<count; i++, s+=srcStride, d+=dstStride) {
+                    final float x = src[s], y = src[s+1], z = src[s+2];
+                    dst[d  ] = x * a00 + y * a01 + z * a02 + a03;
+                    dst[d+1] = x * a10 + y * a11 + z * a12 + a13;
+                    dst[d+2] = x * a20 + y * a21 + z * a22 + a23;
+                }
+                break;
+            case BULK_DIR3:
+                for(int i=0; i<count; i++, s+=srcStride, d+=dstStride) {
+                    final float x = src[s], y = src[s+1], z = src[s+2];
+                    dst[d  ] = x * a00 + y * a01 + z * a02;
+                    dst[d+1] = x * a10 + y * a11 + z * a12;
+                    dst[d+2] = x * a20 + y * a21 + z * a22;
+                }
+                break;
+            default:
+                for(int i=0; i<count; i++, s+=srcStride, d+=dstStride) {
+                    final float x = src[s], y = src[s+1], z = src[s+2], w = src[s+3];
+                    dst[d  ] = x * a00 + y * a01 + z * a02 + w * a03;
+                    dst[d+1] = x * a10 + y * a11 + z * a12 + w * a13;
+                    dst[d+2] = x * a20 + y * a21 + z * a22 + w * a23;
+                    dst[d+3] = x * a30 + y * a31 + z * a32 + w * a33;
+                }
+                break;
+        }
+    }
+
+    private void mulBulkRange(final int kind, final FloatBuffer src, final int srcOff, final int srcStride,
+                              final FloatBuffer dst, final int dstOff, final int dstStride, final int count)
+    {
+        final float a00 = m00, a01 = m01, a02 = m02, a03 = m03;
+        final float a10 = m10, a11 = m11, a12 = m12, a13 = m13;
+        final float a20 = m20, a21 = m21, a22 = m22, a23 = m23;
+        final float a30 = m30, a31 = m31, a32 = m32, a33 = m33;
+        int s = srcOff, d = dstOff;
+        switch( kind ) {
+            case BULK_POINT3:
+                for(int i=0; i<count; i++, s+=srcStride, d+=dstStride) {
+                    final float x = src.get(s), y = src.get(s+1), z = src.get(s+2);
+                    dst.put(d  , x * a00 + y * a01 + z * a02 + a03);
+                    dst.put(d+1, x * a10 + y * a11 + z * a12 + a13);
+                    dst.put(d+2, x * a20 + y * a21 + z * a22 + a23);
+                }
+                break;
+            case BULK_DIR3:
+                for(int i=0; i<count; i++, s+=srcStride, d+=dstStride) {
+                    final float x = src.get(s), y = src.get(s+1), z = src.get(s+2);
+                    dst.put(d  , x * a00 + y * a01 + z * a02);
+                    dst.put(d+1, x * a10 + y * a11 + z * a12);
+                    dst.put(d+2, x * a20 + y * a21 + z * a22);
+                }
+                break;
+            default:
+                for(int i=0; i<count; i++, s+=srcStride, d+=dstStride) {
+                    final float x = src.get(s), y = src.get(s+1), z = src.get(s+2), w = src.get(s+3);
+                    dst.put(d  , x * a00 + y * a01 + z * a02 + w * a03);
+                    dst.put(d+1, x * a10 + y * a11 + z * a12 + w * a13);
+                    dst.put(d+2, x * a20 + y * a21 + z * a22 + w * a23);
+                    dst.put(d+3, x * a30 + y * a31 + z * a32 + w * a33);
+                }
+                break;
+        }
+    }
+
     //
     // Matrix setTo...(), affine + basic
     //
@@ -975,8 +1414,16 @@ public final class Matrix4f {
         final float ic= 1.0f - c;
         final float s = FloatUtil.sin(ang_rad);
 
-        final Vec3f tmp = new Vec3f(x, y, z).normalize();
-        x = tmp.x(); y = tmp.y(); z = tmp.z();
+        {
+            // normalize axis in place, see Vec3f.normalize()
+            final float lengthSq = x*x + y*y + z*z;
+            if ( FloatUtil.isZero( lengthSq ) ) {
+                x = 0.0f; y = 0.0f; z = 0.0f;
+            } else {
+                final float invSqr = 1.0f / (float)Math.sqrt(lengthSq);
+                x *= invSqr; y *= invSqr; z *= invSqr;
+            }
+        }
 
         final float xy = x*y;
         final float xz = x*z;
@@ -1559,6 +2006,24 @@ public final class Matrix4f {
         return mul( tmp.setToTranslation(x, y, z) );
     }
 
+    /**
+     * Translate this matrix w/o temporary storage, i.e. multiply by {@link #setToTranslation(float, float, float) translation matrix}.
+     * <p>
+     * Only the last column is modified, resulting in the same values as {@link #translate(float, float, float, Matrix4f)}.
+     * </p>
+     * @param x x translation
+     * @param y y translation
+     * @param z z translation
+     * @return this matrix for chaining
+     */
+    public final Matrix4f translate(final float x, final float y, final float z) {
+        m03 = m00 * x + m01 * y + m02 * z + m03;
+        m13 = m10 * x + m11 * y + m12 * z + m13;
+        m23 = m20 * x + m21 * y + m22 * z + m23;
+        m33 = m30 * x + m31 * y + m32 * z + m33;
+        return this;
+    }
+
     /**
      * Translate this matrix, i.e. multiply by {@link #setToTranslation(Vec3f) translation matrix}.
      * @param t translation Vec3f
@@ -0,0 +1,126 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.math.geom;
+
+import com.jogamp.math.Vec3f;
+
+/**
+ * Packed array of axis aligned bounding boxes in structure-of-arrays layout,
+ * i.e. one {@code float[]} per {@link AABBox#getLow() low} and {@link AABBox#getHigh() high} component.
+ * <p>
+ * Intended as the input of the batch culling via
+ * {@link Frustum#cull(AABBoxArray, int, int, long[], byte[], boolean)},
+ * where the unit-stride component arrays allow the JIT to vectorize the plane-major loops.
+ * </p>
+ * <p>
+ * The component arrays are exposed for bulk updates, e.g. after transforming all boxes per frame.
+ * </p>
+ */
+public final class AABBoxArray {
+    private final int size;
+    /** Low x-component of all boxes */
+    public final float[] loX;
+    /** Low y-component of all boxes */
+    public final float[] loY;
+    /** Low z-component of all boxes */
+    public final float[] loZ;
+    /** High x-component of all boxes */
+    public final float[] hiX;
+    /** High y-component of all boxes */
+    public final float[] hiY;
+    /** High z-component of all boxes */
+    public final float[] hiZ;
+
+    /**
+     * Creates an array of {@code size} empty boxes, i.e. all components zero.
+     * @param size number of boxes
+     */
+    public AABBoxArray(final int size) {
+        if( 0 > size ) {
+            throw new IllegalArgumentException("Negative size "+size);
+        }
+        this.size = size;
+        loX = new float[size];
+        loY = new float[size];
+        loZ = new float[size];
+        hiX = new float[size];
+        hiY = new float[size];
+        hiZ = new float[size];
+    }
+
+    /** Returns the number of boxes. */
+    public int size() { return size; }
+
+    /**
+     * Sets the box at index {@code i}.
+     * @return this instance for chaining
+     */
+    public AABBoxArray set(final int i, final float lx, final float ly, final float lz,
+                           final float hx, final float hy, final float hz) {
+        loX[i] = lx; loY[i] = ly; loZ[i] = lz;
+        hiX[i] = hx; hiY[i] = hy; hiZ[i] = hz;
+        return this;
+    }
+
+    /**
+     * Sets the box at index {@code i} to the given {@link AABBox}.
+     * @return this instance for chaining
+     */
+    public AABBoxArray set(final int i, final AABBox box) {
+        final Vec3f lo = box.getLow();
+        final Vec3f hi = box.getHigh();
+        return set(i, lo.x(), lo.y(), lo.z(), hi.x(), hi.y(), hi.z());
+    }
+
+    /**
+     * Sets {@code count} boxes starting at index {@code first}
+     * from the packed xyz {@code low} and {@code high} arrays, i.e. 3 floats per box.
+     * @return this instance for chaining
+     */
+    public AABBoxArray set(final int first, final int count, final float[] low, final int lowOff, final float[] high, final int highOff) {
+        for(int i=0; i<count; i++) {
+            final int l = lowOff + i*3;
+            final int h = highOff + i*3;
+            set(first+i, low[l], low[l+1], low[l+2], high[h], high[h+1], high[h+2]);
+        }
+        return this;
+    }
+
+    /**
+     * Stores the box at index {@code i} in the given {@link AABBox}.
+     * @return the given {@code out} for chaining
+     */
+    public AABBox get(final int i, final AABBox out) {
+        return out.setSize(loX[i], loY[i], loZ[i], hiX[i], hiY[i], hiZ[i]);
+    }
+
+    @Override
+    public String toString() {
+        return "AABBoxArray[size "+size+"]";
+    }
+}
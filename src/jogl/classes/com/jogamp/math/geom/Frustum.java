@@ -27,6 +27,14 @@
  */
 package com.jogamp.math.geom;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
 import com.jogamp.math.FovHVHalves;
 import com.jogamp.math.Matrix4f;
 import com.jogamp.math.Vec3f;
@@ -46,6 +54,11 @@ import com.jogamp.math.Vec4f;
  *   <li> {@link #isOutside(AABBox) bounding-box} </li>
  *   <li> {@link #isOutside(Cube) cube} </li>
  * </ul>
+ * as well as batch culling many bounding-boxes into a visibility bitset
+ * <ul>
+ *   <li> {@link #cull(AABBoxArray, int, int, long[], byte[], boolean) AABBoxArray} </li>
+ *   <li> {@link #cull(float[], float[], int, int, long[], byte[], boolean) packed low/high arrays} </li>
+ * </ul>
  *
  * <p>
  * Extracting the world-frustum planes from the P*Mv:
@@ -457,6 +470,253 @@ public final class Frustum {
     }
 
 
+    //
+    // Batch culling
+    //
+
+    /**
+     * Minimum number of boxes for which {@link #cull(AABBoxArray, int, int, long[], byte[], boolean) batch culling}
+     * is split into parallel chunks, if requested.
+     */
+    public static final int CULL_PARALLEL_THRESHOLD = 64 * 1024;
+
+    /** Minimum number of boxes per parallel chunk, a multiple of 64 to keep chunks on disjoint bitset words. */
+    private static final int CULL_MIN_CHUNK = 16 * 1024;
+
+    /** Number of boxes per block, i.e. one visibility bitset word. */
+    private static final int CULL_BLOCK = 64;
+
+    /**
+     * Batch variant of {@link #isOutside(AABBox)}, culling {@code count} boxes starting at index {@code first}.
+     * <p>
+     * Box {@code i} is visible, i.e. not {@link #isOutside(AABBox) outside}, if bit {@code i % 64}
+     * of {@code visible[i / 64]} is set. Bits outside of the given range are left untouched.
+     * The result is identical to {@link #isOutside(AABBox)} for each box.
+     * </p>
+     * <p>
+     * W/o {@code planeCache} the boxes are tested plane-major in blocks of 64,
+     * using the <i>positive vertex</i> of each box per plane, which allows the JIT to vectorize the inner loop.
+     * </p>
+     * <p>
+     * With {@code planeCache}, each box is tested starting with its last rejecting plane stored at index {@code i},
+     * which is updated on rejection. This temporal coherency pays off for scenes with many
+     * boxes being outside over consecutive frames. Initialize the cache with {@code -1},
+     * any value outside of [0..5] is treated as no cached plane.
+     * </p>
+     * <p>
+     * If {@code parallel} is {@code true} and {@code count} &ge; {@link #CULL_PARALLEL_THRESHOLD},
+     * the range is split into chunks aligned to disjoint bitset words
+     * executed on the {@link ForkJoinPool#commonPool() common pool}, while the first chunk is processed on the current thread.
+     * </p>
+     * @param boxes the source boxes
+     * @param first index of the first box
+     * @param count number of boxes
+     * @param visible visibility bitset, at least {@code (first + count + 63) / 64} words
+     * @param planeCache optional last rejecting plane per box, at least {@code first + count} elements, may be {@code null}
+     * @param parallel pass {@code true} to allow parallel chunks
+     * @return number of visible boxes within the range
+     * @throws IndexOutOfBoundsException if the range exceeds {@code boxes}, {@code visible} or {@code planeCache}
+     */
+    public final int cull(final AABBoxArray boxes, final int first, final int count,
+                          final long[] visible, final byte[] planeCache, final boolean parallel) throws IndexOutOfBoundsException {
+        checkCullRange(boxes.size(), first, count, visible, planeCache);
+        return cullImpl(boxes.loX, boxes.loY, boxes.loZ, boxes.hiX, boxes.hiY, boxes.hiZ, null, null,
+                        first, count, visible, planeCache, parallel);
+    }
+
+    /**
+     * Batch variant of {@link #isOutside(AABBox)} for boxes given by packed xyz {@code low} and {@code high} arrays,
+     * i.e. box {@code i} spans {@code low[3*i .. 3*i+2]} and {@code high[3*i .. 3*i+2]}.
+     * <p>
+     * The boxes are staged block-wise into structure-of-arrays layout,
+     * otherwise see {@link #cull(AABBoxArray, int, int, long[], byte[], boolean)}.
+     * </p>
+     * @param low packed low xyz coordinates
+     * @param high packed high xyz coordinates
+     * @param first index of the first box
+     * @param count number of boxes
+     * @param visible visibility bitset, at least {@code (first + count + 63) / 64} words
+     * @param planeCache optional last rejecting plane per box, at least {@code first + count} elements, may be {@code null}
+     * @param parallel pass {@code true} to allow parallel chunks
+     * @return number of visible boxes within the range
+     * @throws IndexOutOfBoundsException if the range exceeds {@code low}, {@code high}, {@code visible} or {@code planeCache}
+     */
+    public final int cull(final float[] low, final float[] high, final int first, final int count,
+                          final long[] visible, final byte[] planeCache, final boolean parallel) throws IndexOutOfBoundsException {
+        checkCullRange(Math.min(low.length, high.length) / 3, first, count, visible, planeCache);
+        return cullImpl(null, null, null, null, null, null, low, high,
+                        first, count, visible, planeCache, parallel);
+    }
+
+    private static void checkCullRange(final int size, final int first, final int count,
+                                       final long[] visible, final byte[] planeCache) throws IndexOutOfBoundsException {
+        if( 0 > first || 0 > count || first + count > size ) {
+            throw new IndexOutOfBoundsException("Range [first "+first+", count "+count+"] exceeds box count "+size);
+        }
+        if( ( first + count + 63 ) >>> 6 > visible.length ) {
+            throw new IndexOutOfBoundsException("Range [first "+first+", count "+count+"] exceeds bitset of "+visible.length+" words");
+        }
+        if( null != planeCache && first + count > planeCache.length ) {
+            throw new IndexOutOfBoundsException("Range [first "+first+", count "+count+"] exceeds plane cache of "+planeCache.length);
+        }
+    }
+
+    private int cullImpl(final float[] lx, final float[] ly, final float[] lz,
+                         final float[] hx, final float[] hy, final float[] hz,
+                         final float[] low, final float[] high,
+                         final int first, final int count,
+                         final long[] visible, final byte[] planeCache, final boolean parallel)
+    {
+        final float[] p = new float[4*6];
+        getPlanes(p, 0);
+        final int chunks = !parallel || count < CULL_PARALLEL_THRESHOLD ? 1 :
+                           Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism(), count / CULL_MIN_CHUNK));
+        if( 1 >= chunks ) {
+            return cullRange(p, lx, ly, lz, hx, hy, hz, low, high, first, first + count, visible, planeCache);
+        }
+        final int end = first + count;
+        final int chunkSize = ( ( count + chunks - 1 ) / chunks + CULL_BLOCK - 1 ) & ~( CULL_BLOCK - 1 );
+        final int firstEnd = Math.min(end, ( first + chunkSize ) & ~( CULL_BLOCK - 1 ));
+        final List<Future<Integer>> tasks = new ArrayList<Future<Integer>>(chunks);
+        for(int i0 = firstEnd; i0 < end; i0 += chunkSize) {
+            final int c0 = i0, c1 = Math.min(end, i0 + chunkSize);
+            tasks.add(ForkJoinPool.commonPool().submit(new Callable<Integer>() {
+                @Override
+                public Integer call() {
+                    return Integer.valueOf(cullRange(p, lx, ly, lz, hx, hy, hz, low, high, c0, c1, visible, planeCache));
+                } }));
+        }
+        int res = cullRange(p, lx, ly, lz, hx, hy, hz, low, high, first, firstEnd, visible, planeCache);
+        for(final Future<Integer> t : tasks) {
+            try {
+                res += t.get().intValue();
+            } catch (final ExecutionException e) {
+                final Throwable t0 = e.getCause();
+                if( t0 instanceof RuntimeException ) {
+                    throw (RuntimeException)t0;
+                }
+                throw new RuntimeException(t0);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Culls boxes [i0..i1) block-wise, each block covering one bitset word.
+     * If packed {@code low} and {@code high} are given, each block is staged into local component arrays.
+     */
+    private static int cullRange(final float[] p,
+                                 float[] lx, float[] ly, float[] lz, float[] hx, float[] hy, float[] hz,
+                                 final float[] low, final float[] high,
+                                 final int i0, final int i1, final long[] visible, final byte[] planeCache)
+    {
+        final boolean staged = null != low;
+        if( staged ) {
+            lx = new float[CULL_BLOCK]; ly = new float[CULL_BLOCK]; lz = new float[CULL_BLOCK];
+            hx = new float[CULL_BLOCK]; hy = new float[CULL_BLOCK]; hz = new float[CULL_BLOCK];
+        }
+        final float[] dmin = null == planeCache ? new float[CULL_BLOCK] : null;
+        int res = 0;
+        for(int b = i0; b < i1; ) {
+            final int e = Math.min(i1, ( b | ( CULL_BLOCK - 1 ) ) + 1);
+            final int n = e - b;
+            final int base;
+            if( staged ) {
+                for(int j=0, o=b*3; j<n; j++, o+=3) {
+                    lx[j] = low[o]; ly[j] = low[o+1]; lz[j] = low[o+2];
+                    hx[j] = high[o]; hy[j] = high[o+1]; hz[j] = high[o+2];
+                }
+                base = 0;
+            } else {
+                base = b;
+            }
+            final long mask;
+            if( null == planeCache ) {
+                mask = cullBlock(p, lx, ly, lz, hx, hy, hz, base, n, dmin);
+            } else {
+                mask = cullBlockCached(p, lx, ly, lz, hx, hy, hz, base, n, planeCache, b);
+            }
+            final int shift = b & ( CULL_BLOCK - 1 );
+            final long range = ( CULL_BLOCK == n ? -1L : ( 1L << n ) - 1L ) << shift;
+            final int w = b >>> 6;
+            visible[w] = ( visible[w] & ~range ) | ( mask << shift );
+            res += Long.bitCount(mask);
+            b = e;
+        }
+        return res;
+    }
+
+    /**
+     * Plane-major test of {@code n} boxes, returning the visibility mask.
+     * <p>
+     * Per plane only the positive vertex, i.e. the corner furthest along the plane normal, is tested.
+     * Its distance equals the maximum distance of all 8 corners as used in {@link #isOutside(AABBox)}.
+     * The minimum of these distances over all planes is accumulated per box.
+     * </p>
+     */
+    private static long cullBlock(final float[] p,
+                                  final float[] lx, final float[] ly, final float[] lz,
+                                  final float[] hx, final float[] hy, final float[] hz,
+                                  final int base, final int n, final float[] dmin)
+    {
+        Arrays.fill(dmin, 0, n, Float.POSITIVE_INFINITY);
+        for(int k=0; k<4*6; k+=4) {
+            final float nx = p[k], ny = p[k+1], nz = p[k+2], d = p[k+3];
+            final float[] x = nx > 0f ? hx : lx;
+            final float[] y = ny > 0f ? hy : ly;
+            final float[] z = nz > 0f ? hz : lz;
+            for(int j=0; j<n; j++) {
+                dmin[j] = Math.min(dmin[j], nx * x[base+j] + ny * y[base+j] + nz * z[base+j] + d);
+            }
+        }
+        long mask = 0;
+        for(int j=0; j<n; j++) {
+            if( dmin[j] > 0f ) {
+                mask |= 1L << j;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Box-major test of {@code n} boxes starting with each box's cached rejecting plane, returning the visibility mask.
+     */
+    private static long cullBlockCached(final float[] p,
+                                        final float[] lx, final float[] ly, final float[] lz,
+                                        final float[] hx, final float[] hy, final float[] hz,
+                                        final int base, final int n, final byte[] planeCache, final int cacheOff)
+    {
+        long mask = 0;
+        for(int j=0; j<n; j++) {
+            final int i = base + j;
+            final int c = planeCache[cacheOff+j];
+            boolean outside = 0 <= c && c < 6 && !isPVertexInside(p, c*4, lx[i], ly[i], lz[i], hx[i], hy[i], hz[i]);
+            if( !outside ) {
+                for(int k=0; k<6; k++) {
+                    if( k != c && !isPVertexInside(p, k*4, lx[i], ly[i], lz[i], hx[i], hy[i], hz[i]) ) {
+                        planeCache[cacheOff+j] = (byte)k;
+                        outside = true;
+                        break;
+                    }
+                }
+            }
+            if( !outside ) {
+                mask |= 1L << j;
+            }
+        }
+        return mask;
+    }
+
+    private static boolean isPVertexInside(final float[] p, final int k,
+                                           final float lx, final float ly, final float lz,
+                                           final float hx, final float hy, final float hz) {
+        final float nx = p[k], ny = p[k+1], nz = p[k+2];
+        return nx * ( nx > 0f ? hx : lx ) + ny * ( ny > 0f ? hy : ly ) + nz * ( nz > 0f ? hz : lz ) + p[k+3] > 0f;
+    }
+
     public static enum Location { OUTSIDE, INSIDE, INTERSECT };
 
     /**
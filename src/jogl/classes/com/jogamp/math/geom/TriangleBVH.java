@@ -0,0 +1,663 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.math.geom;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.jogamp.math.Ray;
+import com.jogamp.math.Vec3f;
+
+/**
+ * Bounding volume hierarchy over an indexed triangle soup for CPU {@link Ray} casting,
+ * e.g. picking into meshes.
+ * <p>
+ * The hierarchy is built via a surface area heuristic (SAH) binned along the largest centroid extent,
+ * optionally in parallel for large meshes, see {@link #build(float[], int, int, int[], int, int, boolean)}.
+ * {@link #intersect(Ray, float, Hit)} returns the nearest hit incl. its barycentric coordinates
+ * and {@link #refit(boolean)} updates the bounds of deforming geometry w/o rebuilding the topology.
+ * </p>
+ * <p>
+ * Vertices are given as xyz positions, {@code vStride} floats apart, and triangles as three vertex indices each.
+ * Array input is referenced w/o copy, i.e. vertex positions may be modified in place followed by {@link #refit(boolean)}.
+ * </p>
+ * <p>
+ * Nodes are stored in flat arrays, each with its bounds and either its two consecutive children or its range of triangles.
+ * A built instance is immutable apart from {@link #refit(boolean)}, hence may be queried concurrently
+ * using one {@link Hit} instance per thread.
+ * </p>
+ */
+public final class TriangleBVH {
+    /** Minimum number of triangles for which a build or refit is executed in parallel, if requested. */
+    public static final int PARALLEL_THRESHOLD = 64 * 1024;
+
+    /** Maximum number of triangles per leaf. */
+    public static final int MAX_LEAF_SIZE = 4;
+
+    /** Minimum number of triangles of a subtree built by a separate task. */
+    private static final int PARALLEL_MIN_SUBTREE = 8 * 1024;
+    /** Minimum number of nodes per parallel refit chunk. */
+    private static final int PARALLEL_MIN_CHUNK = 16 * 1024;
+    /** Maximum number of triangles of a leaf, if splitting isn't beneficial per SAH. */
+    private static final int MAX_SAH_LEAF_SIZE = 16;
+    /** Depth beyond which nodes are split in halves by count, limiting the depth of degenerate input. */
+    private static final int MAX_SAH_DEPTH = 64;
+    private static final int BINS = 16;
+    /** Traversal cost relative to one triangle intersection. */
+    private static final float COST_TRAVERSAL = 1f;
+
+    /**
+     * Nearest hit result of {@link TriangleBVH#intersect(Ray, float, Hit)},
+     * also holding the traversal stack to be reused by subsequent queries.
+     */
+    public static final class Hit {
+        /** Index of the hit triangle, i.e. its vertex indices start at {@code indices[iOff + 3 * triangle]}, or {@code -1}. */
+        public int triangle = -1;
+        /** Ray parameter of the hit, i.e. {@code orig + t * dir}. */
+        public float t;
+        /** Barycentric coordinate of the triangle's 2nd vertex. */
+        public float u;
+        /** Barycentric coordinate of the triangle's 3rd vertex, the 1st vertex' coordinate is {@code 1 - u - v}. */
+        public float v;
+
+        private int[] stack = new int[64];
+        private float[] stackT = new float[64];
+
+        /**
+         * Returns the hit position {@code orig + t * dir} of the given ray.
+         * @return the given {@code result} for chaining
+         */
+        public Vec3f getPosition(final Ray ray, final Vec3f result) {
+            return result.set(ray.orig.x() + t * ray.dir.x(), ray.orig.y() + t * ray.dir.y(), ray.orig.z() + t * ray.dir.z());
+        }
+
+        @Override
+        public String toString() {
+            return "Hit[tri "+triangle+", t "+t+", u "+u+", v "+v+"]";
+        }
+    }
+
+    private final float[] vertices;
+    private final int vOff;
+    private final int vStride;
+    private final int[] indices;
+    private final int iOff;
+    private final int triCount;
+    /** Triangle order, leaves reference ranges of it. */
+    private final int[] tris;
+    /** Per node low xyz and high xyz. */
+    private final float[] nodeBounds;
+    /** Per node {@code first triangle, count} of leaves or {@code left child, 0} of inner nodes, the right child follows the left. */
+    private final int[] nodeData;
+    private final int nodeCount;
+
+    private TriangleBVH(final float[] vertices, final int vOff, final int vStride, final int[] indices, final int iOff, final int triCount,
+                        final int[] tris, final float[] nodeBounds, final int[] nodeData, final int nodeCount) {
+        this.vertices = vertices;
+        this.vOff = vOff;
+        this.vStride = vStride;
+        this.indices = indices;
+        this.iOff = iOff;
+        this.triCount = triCount;
+        this.tris = tris;
+        this.nodeBounds = nodeBounds;
+        this.nodeData = nodeData;
+        this.nodeCount = nodeCount;
+    }
+
+    /**
+     * Builds a hierarchy over {@code triCount} indexed triangles, referencing the given arrays w/o copy.
+     * @param vertices vertex positions, the xyz position of vertex {@code k} starts at {@code vOff + k * vStride}
+     * @param vOff offset of the first vertex position
+     * @param vStride number of floats between consecutive vertex positions, at least 3
+     * @param indices triangle vertex indices, triangle {@code i} uses {@code indices[iOff + 3*i .. iOff + 3*i + 2]}
+     * @param iOff offset of the first triangle's indices
+     * @param triCount number of triangles
+     * @param parallel if {@code true} and {@code triCount} &ge; {@link #PARALLEL_THRESHOLD}, build on the common pool
+     * @throws IllegalArgumentException if {@code vStride < 3} or {@code triCount < 0}
+     * @throws IndexOutOfBoundsException if indices or vertices exceed their arrays
+     */
+    public static TriangleBVH build(final float[] vertices, final int vOff, final int vStride,
+                                    final int[] indices, final int iOff, final int triCount, final boolean parallel)
+        throws IllegalArgumentException, IndexOutOfBoundsException
+    {
+        if( 3 > vStride ) {
+            throw new IllegalArgumentException("Vertex stride "+vStride+" < 3");
+        }
+        if( 0 > triCount ) {
+            throw new IllegalArgumentException("Negative triangle count "+triCount);
+        }
+        if( 0 > iOff || iOff + 3 * triCount > indices.length ) {
+            throw new IndexOutOfBoundsException("Index range [off "+iOff+", triangles "+triCount+"] exceeds length "+indices.length);
+        }
+        final int vertexCount = 0 > vOff || vOff + 3 > vertices.length ? 0 : ( vertices.length - vOff - 3 ) / vStride + 1;
+        for(int i=iOff; i<iOff + 3 * triCount; i++) {
+            if( 0 > indices[i] || indices[i] >= vertexCount ) {
+                throw new IndexOutOfBoundsException("Vertex index "+indices[i]+" @ "+i+" exceeds vertex count "+vertexCount);
+            }
+        }
+        final int[] tris = new int[triCount];
+        final int maxNodes = Math.max(1, 2 * triCount - 1);
+        final float[] nodeBounds = new float[maxNodes * 6];
+        final int[] nodeData = new int[maxNodes * 2];
+        if( 0 == triCount ) {
+            Arrays.fill(nodeBounds, 0, 3, Float.POSITIVE_INFINITY);
+            Arrays.fill(nodeBounds, 3, 6, Float.NEGATIVE_INFINITY);
+            return new TriangleBVH(vertices, vOff, vStride, indices, iOff, 0, tris, nodeBounds, nodeData, 1);
+        }
+        final boolean par = parallel && triCount >= PARALLEL_THRESHOLD;
+        final Builder b = new Builder(vertices, vOff, vStride, indices, iOff, triCount, tris, nodeBounds, nodeData, par);
+        if( par ) {
+            ForkJoinPool.commonPool().invoke(b.new Task(0, 0, triCount, 0));
+        } else {
+            b.buildNode(0, 0, triCount, 0, new float[BINS * 6 + BINS], new int[BINS]);
+        }
+        final int nodeCount = b.nodeCounter.get();
+        return new TriangleBVH(vertices, vOff, vStride, indices, iOff, triCount, tris,
+                               Arrays.copyOf(nodeBounds, nodeCount * 6), Arrays.copyOf(nodeData, nodeCount * 2), nodeCount);
+    }
+
+    /**
+     * Builds a hierarchy over {@code triCount} indexed triangles given as NIO buffers,
+     * copying their content from the absolute offsets {@code vOff} and {@code iOff} on.
+     * Buffer positions and limits are not used nor modified.
+     * <p>
+     * Use {@link #refit(FloatBuffer, boolean)} after modifying the vertex positions.
+     * </p>
+     * @see #build(float[], int, int, int[], int, int, boolean)
+     */
+    public static TriangleBVH build(final FloatBuffer vertices, final int vOff, final int vStride,
+                                    final IntBuffer indices, final int iOff, final int triCount, final boolean parallel)
+        throws IllegalArgumentException, IndexOutOfBoundsException
+    {
+        if( 0 > triCount ) {
+            throw new IllegalArgumentException("Negative triangle count "+triCount);
+        }
+        if( 0 > iOff || iOff + 3 * triCount > indices.capacity() ) {
+            throw new IndexOutOfBoundsException("Index range [off "+iOff+", triangles "+triCount+"] exceeds capacity "+indices.capacity());
+        }
+        if( 0 > vOff || vOff > vertices.capacity() ) {
+            throw new IndexOutOfBoundsException("Vertex offset "+vOff+" exceeds capacity "+vertices.capacity());
+        }
+        final int[] idx = new int[3 * triCount];
+        final IntBuffer ib = indices.duplicate();
+        ib.limit(ib.capacity()).position(iOff);
+        ib.get(idx);
+        final float[] pos = new float[vertices.capacity() - vOff];
+        final FloatBuffer vb = vertices.duplicate();
+        vb.limit(vb.capacity()).position(vOff);
+        vb.get(pos);
+        return build(pos, 0, vStride, idx, 0, triCount, parallel);
+    }
+
+    /** Returns the number of triangles. */
+    public int getTriangleCount() { return triCount; }
+
+    /** Returns the number of nodes. */
+    public int getNodeCount() { return nodeCount; }
+
+    /** Returns the maximum depth of the hierarchy, the root being at depth 0. */
+    public int getDepth() {
+        final int[] depth = new int[nodeCount];
+        int max = 0;
+        for(int n=0; n<nodeCount; n++) {
+            if( 0 == nodeData[n*2+1] && 0 < triCount ) {
+                final int l = nodeData[n*2];
+                depth[l] = depth[l+1] = depth[n] + 1;
+                max = Math.max(max, depth[n] + 1);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Stores the bounds of all triangles in the given {@link AABBox}.
+     * @return the given {@code result} for chaining
+     */
+    public AABBox getBounds(final AABBox result) {
+        if( 0 == triCount ) {
+            return result.reset();
+        }
+        return result.setSize(nodeBounds[0], nodeBounds[1], nodeBounds[2], nodeBounds[3], nodeBounds[4], nodeBounds[5]);
+    }
+
+    /**
+     * Finds the nearest intersection of the given {@link Ray} with all triangles,
+     * i.e. the smallest ray parameter {@code 0 < t <= tMax} of {@code orig + t * dir}.
+     * <p>
+     * Triangles are intersected two-sided, degenerate triangles are never hit.
+     * The ray's direction doesn't need to be normalized, {@link Hit#t} is given in its units.
+     * </p>
+     * @param ray the ray
+     * @param tMax maximum ray parameter, may be {@link Float#POSITIVE_INFINITY}
+     * @param hit receives the nearest hit, {@link Hit#triangle} is set to {@code -1} if none
+     * @return {@code true} if a triangle was hit
+     */
+    public boolean intersect(final Ray ray, final float tMax, final Hit hit) {
+        hit.triangle = -1;
+        if( 0 == triCount ) {
+            return false;
+        }
+        final float ox = ray.orig.x(), oy = ray.orig.y(), oz = ray.orig.z();
+        final float dx = ray.dir.x(), dy = ray.dir.y(), dz = ray.dir.z();
+        // finite reciprocals avoid NaN for rays parallel to and touching a slab
+        final float ix = 1f / ( 0f != dx ? dx : Float.MIN_NORMAL );
+        final float iy = 1f / ( 0f != dy ? dy : Float.MIN_NORMAL );
+        final float iz = 1f / ( 0f != dz ? dz : Float.MIN_NORMAL );
+        final float[] nb = nodeBounds;
+        final int[] nd = nodeData;
+        final float[] vs = vertices;
+        float best = tMax;
+        int bestTri = -1;
+        float bestU = 0f, bestV = 0f;
+
+        int[] stack = hit.stack;
+        float[] stackT = hit.stackT;
+        int sp = 0;
+        if( 0f > boxEntry(nb, 0, ox, oy, oz, ix, iy, iz, best) ) {
+            return false;
+        }
+        int node = 0;
+        while( true ) {
+            final int count = nd[node*2+1];
+            if( 0 < count ) {
+                final int first = nd[node*2];
+                for(int k=first; k<first+count; k++) {
+                    final int tri = tris[k];
+                    final int ti = iOff + tri * 3;
+                    final int a = vOff + indices[ti  ] * vStride;
+                    final int b = vOff + indices[ti+1] * vStride;
+                    final int c = vOff + indices[ti+2] * vStride;
+                    final float ax = vs[a], ay = vs[a+1], az = vs[a+2];
+                    final float e1x = vs[b] - ax, e1y = vs[b+1] - ay, e1z = vs[b+2] - az;
+                    final float e2x = vs[c] - ax, e2y = vs[c+1] - ay, e2z = vs[c+2] - az;
+                    // Möller-Trumbore
+                    final float px = dy * e2z - dz * e2y, py = dz * e2x - dx * e2z, pz = dx * e2y - dy * e2x;
+                    final float det = e1x * px + e1y * py + e1z * pz;
+                    if( 0f == det ) {
+                        continue;
+                    }
+                    final float inv = 1f / det;
+                    final float sx = ox - ax, sy = oy - ay, sz = oz - az;
+                    final float u = ( sx * px + sy * py + sz * pz ) * inv;
+                    if( 0f > u || u > 1f ) {
+                        continue;
+                    }
+                    final float qx = sy * e1z - sz * e1y, qy = sz * e1x - sx * e1z, qz = sx * e1y - sy * e1x;
+                    final float v = ( dx * qx + dy * qy + dz * qz ) * inv;
+                    if( 0f > v || u + v > 1f ) {
+                        continue;
+                    }
+                    final float t = ( e2x * qx + e2y * qy + e2z * qz ) * inv;
+                    if( 0f < t && t <= best ) {
+                        best = t; bestTri = tri; bestU = u; bestV = v;
+                    }
+                }
+            } else {
+                // visit the nearer child first
+                final int l = nd[node*2];
+                final float tl = boxEntry(nb, l, ox, oy, oz, ix, iy, iz, best);
+                final float tr = boxEntry(nb, l+1, ox, oy, oz, ix, iy, iz, best);
+                final boolean hl = 0f <= tl, hr = 0f <= tr;
+                if( hl && hr ) {
+                    if( sp == stack.length ) {
+                        hit.stack = stack = Arrays.copyOf(stack, sp * 2);
+                        hit.stackT = stackT = Arrays.copyOf(stackT, sp * 2);
+                    }
+                    if( tl <= tr ) {
+                        stack[sp] = l+1; stackT[sp++] = tr;
+                        node = l;
+                    } else {
+                        stack[sp] = l; stackT[sp++] = tl;
+                        node = l+1;
+                    }
+                    continue;
+                } else if( hl ) {
+                    node = l;
+                    continue;
+                } else if( hr ) {
+                    node = l+1;
+                    continue;
+                }
+            }
+            // pop the next node still closer than the best hit
+            do {
+                if( 0 == sp ) {
+                    if( 0 <= bestTri ) {
+                        hit.triangle = bestTri; hit.t = best; hit.u = bestU; hit.v = bestV;
+                        return true;
+                    }
+                    return false;
+                }
+                node = stack[--sp];
+            } while( stackT[sp] > best );
+        }
+    }
+
+    /** Returns the entry ray parameter of the node's box, or {@code -1} if missed within [0..{@code tMax}]. */
+    private static float boxEntry(final float[] nb, final int node, final float ox, final float oy, final float oz,
+                                  final float ix, final float iy, final float iz, final float tMax) {
+        final int o = node * 6;
+        final float x0 = ( nb[o  ] - ox ) * ix, x1 = ( nb[o+3] - ox ) * ix;
+        final float y0 = ( nb[o+1] - oy ) * iy, y1 = ( nb[o+4] - oy ) * iy;
+        final float z0 = ( nb[o+2] - oz ) * iz, z1 = ( nb[o+5] - oz ) * iz;
+        final float tNear = Math.max(Math.max(Math.min(x0, x1), Math.min(y0, y1)), Math.max(Math.min(z0, z1), 0f));
+        final float tFar = Math.min(Math.min(Math.max(x0, x1), Math.max(y0, y1)), Math.min(Math.max(z0, z1), tMax));
+        return tNear <= tFar ? tNear : -1f;
+    }
+
+    /**
+     * Updates all node bounds after vertex positions have been modified in place, keeping the topology.
+     * <p>
+     * Query performance degrades the more the geometry deviates from the state at {@link #build(float[], int, int, int[], int, int, boolean) build} time.
+     * </p>
+     * @param parallel if {@code true} and the triangle count &ge; {@link #PARALLEL_THRESHOLD}, refit leaves on the common pool
+     * @return this instance for chaining
+     */
+    public TriangleBVH refit(final boolean parallel) {
+        if( 0 == triCount ) {
+            return this;
+        }
+        final int chunks = !parallel || triCount < PARALLEL_THRESHOLD ? 1 :
+                           Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism(), nodeCount / PARALLEL_MIN_CHUNK));
+        if( 1 >= chunks ) {
+            refitLeaves(0, nodeCount);
+        } else {
+            final int chunkSize = ( nodeCount + chunks - 1 ) / chunks;
+            final Future<?>[] tasks = new Future<?>[chunks-1];
+            for(int i=1; i<chunks; i++) {
+                final int n0 = i * chunkSize;
+                final int n1 = Math.min(nodeCount, n0 + chunkSize);
+                tasks[i-1] = ForkJoinPool.commonPool().submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        refitLeaves(n0, n1);
+                    } });
+            }
+            refitLeaves(0, chunkSize);
+            for(int i=0; i<tasks.length; i++) {
+                try {
+                    tasks[i].get();
+                } catch (final ExecutionException e) {
+                    final Throwable t = e.getCause();
+                    if( t instanceof RuntimeException ) {
+                        throw (RuntimeException)t;
+                    }
+                    throw new RuntimeException(t);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+        // children always follow their parent
+        final float[] nb = nodeBounds;
+        for(int n=nodeCount-1; n>=0; n--) {
+            if( 0 == nodeData[n*2+1] ) {
+                final int l = nodeData[n*2] * 6, r = l + 6, o = n * 6;
+                nb[o  ] = Math.min(nb[l  ], nb[r  ]); nb[o+1] = Math.min(nb[l+1], nb[r+1]); nb[o+2] = Math.min(nb[l+2], nb[r+2]);
+                nb[o+3] = Math.max(nb[l+3], nb[r+3]); nb[o+4] = Math.max(nb[l+4], nb[r+4]); nb[o+5] = Math.max(nb[l+5], nb[r+5]);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Copies the vertex positions from the given buffer into the vertex storage of an instance
+     * {@link #build(FloatBuffer, int, int, IntBuffer, int, int, boolean) built from buffers},
+     * followed by {@link #refit(boolean)}.
+     * @param vertices vertex positions in the same layout as used at build time
+     * @param vOff absolute offset of the first vertex position
+     * @param parallel see {@link #refit(boolean)}
+     * @return this instance for chaining
+     */
+    public TriangleBVH refit(final FloatBuffer vertices, final int vOff, final boolean parallel) {
+        final FloatBuffer vb = vertices.duplicate();
+        vb.limit(vb.capacity()).position(vOff);
+        vb.get(this.vertices, this.vOff, Math.min(vb.remaining(), this.vertices.length - this.vOff));
+        return refit(parallel);
+    }
+
+    private void refitLeaves(final int n0, final int n1) {
+        for(int n=n0; n<n1; n++) {
+            final int count = nodeData[n*2+1];
+            if( 0 < count ) {
+                final int first = nodeData[n*2];
+                float lx = Float.POSITIVE_INFINITY, ly = Float.POSITIVE_INFINITY, lz = Float.POSITIVE_INFINITY;
+                float hx = Float.NEGATIVE_INFINITY, hy = Float.NEGATIVE_INFINITY, hz = Float.NEGATIVE_INFINITY;
+                for(int k=first; k<first+count; k++) {
+                    final int ti = iOff + tris[k] * 3;
+                    for(int j=0; j<3; j++) {
+                        final int p = vOff + indices[ti+j] * vStride;
+                        final float x = vertices[p], y = vertices[p+1], z = vertices[p+2];
+                        lx = Math.min(lx, x); ly = Math.min(ly, y); lz = Math.min(lz, z);
+                        hx = Math.max(hx, x); hy = Math.max(hy, y); hz = Math.max(hz, z);
+                    }
+                }
+                final int o = n * 6;
+                nodeBounds[o  ] = lx; nodeBounds[o+1] = ly; nodeBounds[o+2] = lz;
+                nodeBounds[o+3] = hx; nodeBounds[o+4] = hy; nodeBounds[o+5] = hz;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TriangleBVH[triangles "+triCount+", nodes "+nodeCount+"]";
+    }
+
+    /** Binned SAH build state, shared by all tasks of one build. */
+    private static final class Builder {
+        final int[] tris;
+        final float[] nodeBounds;
+        final int[] nodeData;
+        final boolean parallel;
+        /** Per triangle low xyz and high xyz, kept in the order of {@link #tris} for sequential access */
+        final float[] triBounds;
+        final AtomicInteger nodeCounter = new AtomicInteger(1);
+
+        Builder(final float[] vertices, final int vOff, final int vStride, final int[] indices, final int iOff, final int triCount,
+                final int[] tris, final float[] nodeBounds, final int[] nodeData, final boolean parallel) {
+            this.tris = tris;
+            this.nodeBounds = nodeBounds;
+            this.nodeData = nodeData;
+            this.parallel = parallel;
+            this.triBounds = new float[triCount * 6];
+            for(int i=0; i<triCount; i++) {
+                tris[i] = i;
+                final int ti = iOff + i * 3;
+                final int a = vOff + indices[ti] * vStride, b = vOff + indices[ti+1] * vStride, c = vOff + indices[ti+2] * vStride;
+                final int o = i * 6;
+                for(int j=0; j<3; j++) {
+                    triBounds[o+j]   = Math.min(vertices[a+j], Math.min(vertices[b+j], vertices[c+j]));
+                    triBounds[o+3+j] = Math.max(vertices[a+j], Math.max(vertices[b+j], vertices[c+j]));
+                }
+            }
+        }
+
+        final class Task extends RecursiveAction {
+            private static final long serialVersionUID = 1L;
+            private final int node, first, count, depth;
+
+            Task(final int node, final int first, final int count, final int depth) {
+                this.node = node; this.first = first; this.count = count; this.depth = depth;
+            }
+
+            @Override
+            protected void compute() {
+                buildNode(node, first, count, depth, new float[BINS * 6 + BINS], new int[BINS]);
+            }
+        }
+
+        private static float halfArea(final float dx, final float dy, final float dz) {
+            return dx * dy + dy * dz + dz * dx;
+        }
+
+        /**
+         * Builds the subtree of {@code node} over triangles [{@code first}..{@code first+count}[ using the given scratch arrays,
+         * {@code binBounds} holding the bounds of all bins followed by the swept right side areas of one axis.
+         */
+        void buildNode(final int node, final int first, final int count, final int depth, final float[] binBounds, final int[] binCount) {
+            // node bounds and centroid bounds, centroids given doubled as lo + hi
+            float lx = Float.POSITIVE_INFINITY, ly = Float.POSITIVE_INFINITY, lz = Float.POSITIVE_INFINITY;
+            float hx = Float.NEGATIVE_INFINITY, hy = Float.NEGATIVE_INFINITY, hz = Float.NEGATIVE_INFINITY;
+            float clx = Float.POSITIVE_INFINITY, cly = Float.POSITIVE_INFINITY, clz = Float.POSITIVE_INFINITY;
+            float chx = Float.NEGATIVE_INFINITY, chy = Float.NEGATIVE_INFINITY, chz = Float.NEGATIVE_INFINITY;
+            final float[] tb = triBounds;
+            for(int k=first; k<first+count; k++) {
+                final int o = k * 6;
+                lx = Math.min(lx, tb[o  ]); ly = Math.min(ly, tb[o+1]); lz = Math.min(lz, tb[o+2]);
+                hx = Math.max(hx, tb[o+3]); hy = Math.max(hy, tb[o+4]); hz = Math.max(hz, tb[o+5]);
+                final float cx = tb[o] + tb[o+3], cy = tb[o+1] + tb[o+4], cz = tb[o+2] + tb[o+5];
+                clx = Math.min(clx, cx); cly = Math.min(cly, cy); clz = Math.min(clz, cz);
+                chx = Math.max(chx, cx); chy = Math.max(chy, cy); chz = Math.max(chz, cz);
+            }
+            final int no = node * 6;
+            nodeBounds[no  ] = lx; nodeBounds[no+1] = ly; nodeBounds[no+2] = lz;
+            nodeBounds[no+3] = hx; nodeBounds[no+4] = hy; nodeBounds[no+5] = hz;
+            if( count <= MAX_LEAF_SIZE ) {
+                makeLeaf(node, first, count);
+                return;
+            }
+            int mid = -1;
+            final float ex = chx - clx, ey = chy - cly, ez = chz - clz;
+            if( depth < MAX_SAH_DEPTH ) {
+                // bin along the axis of the largest centroid extent
+                final int axis = ex >= ey && ex >= ez ? 0 : ( ey >= ez ? 1 : 2 );
+                final float ext = 0 == axis ? ex : ( 1 == axis ? ey : ez );
+                final float c0 = 0 == axis ? clx : ( 1 == axis ? cly : clz );
+                final float scale = 0f < ext ? BINS * 0.9999f / ext : 0f;
+                Arrays.fill(binCount, 0);
+                for(int i=0; i<BINS; i++) {
+                    final int o = i * 6;
+                    binBounds[o  ] = binBounds[o+1] = binBounds[o+2] = Float.POSITIVE_INFINITY;
+                    binBounds[o+3] = binBounds[o+4] = binBounds[o+5] = Float.NEGATIVE_INFINITY;
+                }
+                for(int k=first; k<first+count; k++) {
+                    final int o = k * 6;
+                    addToBin(binBounds, binCount, (int)( ( tb[o+axis] + tb[o+3+axis] - c0 ) * scale ), tb, o);
+                }
+                // sweep for the cheapest split plane
+                float bestCost = Float.POSITIVE_INFINITY;
+                int bestBin = -1;
+                final int rightArea = BINS * 6;
+                if( 0f < ext ) {
+                    float rlx = Float.POSITIVE_INFINITY, rly = Float.POSITIVE_INFINITY, rlz = Float.POSITIVE_INFINITY;
+                    float rhx = Float.NEGATIVE_INFINITY, rhy = Float.NEGATIVE_INFINITY, rhz = Float.NEGATIVE_INFINITY;
+                    for(int b=BINS-1; b>0; b--) {
+                        final int o = b * 6;
+                        rlx = Math.min(rlx, binBounds[o  ]); rly = Math.min(rly, binBounds[o+1]); rlz = Math.min(rlz, binBounds[o+2]);
+                        rhx = Math.max(rhx, binBounds[o+3]); rhy = Math.max(rhy, binBounds[o+4]); rhz = Math.max(rhz, binBounds[o+5]);
+                        binBounds[rightArea + b] = rlx <= rhx ? halfArea(rhx - rlx, rhy - rly, rhz - rlz) : 0f;
+                    }
+                    float llx = Float.POSITIVE_INFINITY, lly = Float.POSITIVE_INFINITY, llz = Float.POSITIVE_INFINITY;
+                    float lhx = Float.NEGATIVE_INFINITY, lhy = Float.NEGATIVE_INFINITY, lhz = Float.NEGATIVE_INFINITY;
+                    int leftCount = 0;
+                    for(int b=0; b<BINS-1; b++) {
+                        final int o = b * 6;
+                        llx = Math.min(llx, binBounds[o  ]); lly = Math.min(lly, binBounds[o+1]); llz = Math.min(llz, binBounds[o+2]);
+                        lhx = Math.max(lhx, binBounds[o+3]); lhy = Math.max(lhy, binBounds[o+4]); lhz = Math.max(lhz, binBounds[o+5]);
+                        leftCount += binCount[b];
+                        final int rightCount = count - leftCount;
+                        if( 0 == leftCount || 0 == rightCount ) {
+                            continue;
+                        }
+                        final float cost = halfArea(lhx - llx, lhy - lly, lhz - llz) * leftCount + binBounds[rightArea + b + 1] * rightCount;
+                        if( cost < bestCost ) {
+                            bestCost = cost; bestBin = b;
+                        }
+                    }
+                }
+                if( 0 <= bestBin ) {
+                    final float area = halfArea(hx - lx, hy - ly, hz - lz);
+                    final float splitCost = COST_TRAVERSAL + ( 0f < area ? bestCost / area : count );
+                    if( splitCost >= count && count <= MAX_SAH_LEAF_SIZE ) {
+                        makeLeaf(node, first, count);
+                        return;
+                    }
+                    // partition by bin of the best split
+                    int i = first, j = first + count - 1;
+                    while( i <= j ) {
+                        final int o = i * 6;
+                        if( (int)( ( tb[o+axis] + tb[o+3+axis] - c0 ) * scale ) <= bestBin ) {
+                            i++;
+                        } else {
+                            final int t = tris[i]; tris[i] = tris[j]; tris[j] = t;
+                            final int p = j * 6;
+                            for(int q=0; q<6; q++) {
+                                final float f = tb[o+q]; tb[o+q] = tb[p+q]; tb[p+q] = f;
+                            }
+                            j--;
+                        }
+                    }
+                    mid = i;
+                }
+            }
+            if( 0 > mid || first == mid || first + count == mid ) {
+                if( count <= MAX_SAH_LEAF_SIZE && depth < MAX_SAH_DEPTH ) {
+                    // coincident centroids
+                    makeLeaf(node, first, count);
+                    return;
+                }
+                mid = first + count / 2;
+            }
+            final int left = nodeCounter.getAndAdd(2);
+            nodeData[node*2] = left;
+            nodeData[node*2+1] = 0;
+            final int leftCount = mid - first, rightCount = first + count - mid;
+            if( parallel && leftCount >= PARALLEL_MIN_SUBTREE && rightCount >= PARALLEL_MIN_SUBTREE ) {
+                RecursiveAction.invokeAll(new Task(left, first, leftCount, depth + 1), new Task(left + 1, mid, rightCount, depth + 1));
+            } else {
+                buildNode(left, first, leftCount, depth + 1, binBounds, binCount);
+                buildNode(left + 1, mid, rightCount, depth + 1, binBounds, binCount);
+            }
+        }
+
+        private static void addToBin(final float[] binBounds, final int[] binCount, final int bin, final float[] tb, final int o) {
+            binCount[bin]++;
+            final int b = bin * 6;
+            binBounds[b  ] = Math.min(binBounds[b  ], tb[o  ]);
+            binBounds[b+1] = Math.min(binBounds[b+1], tb[o+1]);
+            binBounds[b+2] = Math.min(binBounds[b+2], tb[o+2]);
+            binBounds[b+3] = Math.max(binBounds[b+3], tb[o+3]);
+            binBounds[b+4] = Math.max(binBounds[b+4], tb[o+4]);
+            binBounds[b+5] = Math.max(binBounds[b+5], tb[o+5]);
+        }
+
+        private void makeLeaf(final int node, final int first, final int count) {
+            nodeData[node*2] = first;
+            nodeData[node*2+1] = count;
+        }
+    }
+}
@@ -300,7 +300,7 @@ public final class Path2F {
     }
 
     /**
-     * Checks points and types buffer size to add pointCount points. If necessary realloc buffers to enlarge size.
+     * Checks points and types buffer size to add pointCount points. If necessary realloc buffers to enlarge size by at least 50%.
      * @param pointCount - the point count to be added in buffer
      */
     private void checkBuf(final int pointCount, final boolean checkMove) {
@@ -308,12 +308,12 @@ public final class Path2F {
             throw new IllegalPathStateException("First segment should be SEG_MOVETO type");
         }
         if (m_typeSize == m_types.length) {
-            final byte tmp[] = new byte[m_typeSize + BUFFER_CAPACITY];
+            final byte tmp[] = new byte[m_typeSize + Math.max(BUFFER_CAPACITY, m_typeSize >> 1)];
             System.arraycopy(m_types, 0, tmp, 0, m_typeSize);
             m_types = tmp;
         }
         if (m_pointSize + pointCount > m_points.length) {
-            final float tmp[] = new float[m_pointSize + Math.max(BUFFER_CAPACITY * 2, pointCount)];
+            final float tmp[] = new float[m_pointSize + Math.max(Math.max(BUFFER_CAPACITY * 2, m_pointSize >> 1), pointCount)];
             System.arraycopy(m_points, 0, tmp, 0, m_pointSize);
             m_points = tmp;
         }
@@ -0,0 +1,332 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.math.geom.plane;
+
+import java.util.Arrays;
+
+import com.jogamp.math.FloatUtil;
+import com.jogamp.math.geom.AABBox;
+
+/**
+ * Immutable flattened representation of a {@link Path2F} for fast repeated point-in-path queries.
+ * <p>
+ * Unlike {@link Path2F#contains(float, float)}, which solves all quadratic and cubic segments
+ * via {@link Crossing2F} for each query, curves are flattened once within the given tolerance
+ * into an edge table bucketed by uniform horizontal bands.
+ * A query only walks the edges overlapping the band of its y-coordinate,
+ * i.e. costs O(1 + k) for k such edges.
+ * </p>
+ * <p>
+ * Each sub-path is implicitly closed. Points on the boundary or within the tolerance of a curve
+ * may be classified differently than by {@link Path2F#contains(float, float)}.
+ * </p>
+ * <p>
+ * Intended for hit testing many points against the same path, e.g. glyph shapes.
+ * Instances are immutable and thread safe.
+ * </p>
+ */
+public final class PreparedPath2F {
+    /** Maximum number of bands */
+    private static final int MAX_BANDS = 4096;
+    /** Maximum average number of band entries per edge */
+    private static final int MAX_BAND_ENTRIES_PER_EDGE = 8;
+
+    private final WindingRule rule;
+    private final float minX, minY, maxX, maxY;
+    private final int edgeCount;
+    /** Lower y-coordinate of each edge, inclusive */
+    private final float[] eyMin;
+    /** Upper y-coordinate of each edge, exclusive */
+    private final float[] eyMax;
+    /** x-coordinate of each edge at {@link #eyMin} */
+    private final float[] ex;
+    /** Inverse slope dx/dy of each edge */
+    private final float[] edxdy;
+    /** Winding direction of each edge, +1 upwards and -1 downwards */
+    private final byte[] edir;
+    private final float bandScale;
+    private final int bandCount;
+    /** Start index within {@link #bandEdges} per band, {@code bandCount+1} elements */
+    private final int[] bandStart;
+    private final int[] bandEdges;
+
+    /**
+     * Prepares the given path using its {@link Path2F#getWindingRule() winding rule}.
+     * @param path the source path
+     * @param tolerance maximum distance of the flattened edges to the curves in path units
+     */
+    public PreparedPath2F(final Path2F path, final float tolerance) {
+        this(path.iterator(null), tolerance);
+    }
+
+    /**
+     * Prepares the given path iteration using its {@link Path2F.Iterator#getWindingRule() winding rule}.
+     * @param pathI the source path iterator
+     * @param tolerance maximum distance of the flattened edges to the curves in path units
+     * @throws IllegalArgumentException if {@code tolerance} is not positive
+     */
+    public PreparedPath2F(final Path2F.Iterator pathI, final float tolerance) throws IllegalArgumentException {
+        if( !( 0f < tolerance ) ) {
+            throw new IllegalArgumentException("Tolerance "+tolerance+" not positive");
+        }
+        rule = pathI.getWindingRule();
+        final EdgeBuilder eb = new EdgeBuilder();
+        final float[] p = pathI.points();
+        float sx = 0f, sy = 0f, cx = 0f, cy = 0f;
+        boolean started = false; // sub-path started, closing line required
+        while( pathI.hasNext() ) {
+            final int idx = pathI.index();
+            final Path2F.SegmentType type = pathI.next();
+            if( !started && Path2F.SegmentType.CLOSE != type ) {
+                started = true;
+            } else if( Path2F.SegmentType.MOVETO == type ) {
+                eb.line(cx, cy, sx, sy);
+            }
+            switch( type ) {
+                case MOVETO:
+                    sx = cx = p[idx];
+                    sy = cy = p[idx+1];
+                    eb.include(cx, cy);
+                    break;
+                case LINETO:
+                    eb.line(cx, cy, p[idx], p[idx+1]);
+                    cx = p[idx]; cy = p[idx+1];
+                    break;
+                case QUADTO: {
+                    final float x0 = cx, y0 = cy, x1 = p[idx], y1 = p[idx+1], x2 = p[idx+2], y2 = p[idx+3];
+                    final float ddx = x0 - 2f*x1 + x2, ddy = y0 - 2f*y1 + y2;
+                    final int n = Stroker2F.subdivisions(FloatUtil.sqrt(ddx*ddx + ddy*ddy) / 4f, tolerance);
+                    for(int i=1; i<n; i++) {
+                        final float t = (float)i / n, mt = 1f - t;
+                        final float x = mt*mt*x0 + 2f*mt*t*x1 + t*t*x2, y = mt*mt*y0 + 2f*mt*t*y1 + t*t*y2;
+                        eb.line(cx, cy, x, y);
+                        cx = x; cy = y;
+                    }
+                    eb.line(cx, cy, x2, y2);
+                    cx = x2; cy = y2;
+                    break;
+                }
+                case CUBICTO: {
+                    final float x0 = cx, y0 = cy, x1 = p[idx], y1 = p[idx+1], x2 = p[idx+2], y2 = p[idx+3], x3 = p[idx+4], y3 = p[idx+5];
+                    final float ax = x0 - 2f*x1 + x2, ay = y0 - 2f*y1 + y2;
+                    final float bx = x1 - 2f*x2 + x3, by = y1 - 2f*y2 + y3;
+                    final float dd = FloatUtil.sqrt(Math.max(ax*ax + ay*ay, bx*bx + by*by));
+                    final int n = Stroker2F.subdivisions(3f * dd / 4f, tolerance);
+                    for(int i=1; i<n; i++) {
+                        final float t = (float)i / n, mt = 1f - t;
+                        final float c0 = mt*mt*mt, c1 = 3f*mt*mt*t, c2 = 3f*mt*t*t, c3 = t*t*t;
+                        final float x = c0*x0 + c1*x1 + c2*x2 + c3*x3, y = c0*y0 + c1*y1 + c2*y2 + c3*y3;
+                        eb.line(cx, cy, x, y);
+                        cx = x; cy = y;
+                    }
+                    eb.line(cx, cy, x3, y3);
+                    cx = x3; cy = y3;
+                    break;
+                }
+                case CLOSE:
+                    eb.line(cx, cy, sx, sy);
+                    cx = sx; cy = sy;
+                    break;
+            }
+        }
+        if( started ) {
+            eb.line(cx, cy, sx, sy);
+        }
+
+        edgeCount = eb.count;
+        eyMin = eb.eyMin; eyMax = eb.eyMax; ex = eb.ex; edxdy = eb.edxdy; edir = eb.edir;
+        if( eb.empty ) {
+            minX = minY = maxX = maxY = 0f;
+        } else {
+            minX = eb.minX; minY = eb.minY; maxX = eb.maxX; maxY = eb.maxY;
+        }
+
+        // bands: shrink until the total entries stay bounded
+        final float height = maxY - minY;
+        int bands = Math.max(1, Math.min(MAX_BANDS, edgeCount));
+        int entries;
+        while( true ) {
+            entries = 0;
+            final float scale = 0f < height ? bands / height : 0f;
+            for(int e=0; e<edgeCount; e++) {
+                entries += band(eyMax[e], scale, bands) - band(eyMin[e], scale, bands) + 1;
+            }
+            if( 1 == bands || entries <= MAX_BAND_ENTRIES_PER_EDGE * edgeCount ) {
+                break;
+            }
+            bands /= 2;
+        }
+        bandCount = bands;
+        bandScale = 0f < height ? bands / height : 0f;
+        bandStart = new int[bands + 1];
+        bandEdges = new int[entries];
+        for(int e=0; e<edgeCount; e++) {
+            final int b1 = band(eyMax[e], bandScale, bands);
+            for(int b = band(eyMin[e], bandScale, bands); b <= b1; b++) {
+                ++bandStart[b+1];
+            }
+        }
+        for(int b=0; b<bands; b++) {
+            bandStart[b+1] += bandStart[b];
+        }
+        final int[] fill = new int[bands];
+        for(int e=0; e<edgeCount; e++) {
+            final int b1 = band(eyMax[e], bandScale, bands);
+            for(int b = band(eyMin[e], bandScale, bands); b <= b1; b++) {
+                bandEdges[bandStart[b] + fill[b]++] = e;
+            }
+        }
+    }
+
+    private int band(final float y, final float scale, final int bands) {
+        return Math.max(0, Math.min(bands - 1, (int)( ( y - minY ) * scale )));
+    }
+
+    /** Growing edge arrays while flattening, skipping horizontal edges. */
+    private static final class EdgeBuilder {
+        float[] eyMin = new float[16], eyMax = new float[16], ex = new float[16], edxdy = new float[16];
+        byte[] edir = new byte[16];
+        int count = 0;
+        boolean empty = true;
+        float minX, minY, maxX, maxY;
+
+        void include(final float x, final float y) {
+            if( empty ) {
+                minX = maxX = x;
+                minY = maxY = y;
+                empty = false;
+            } else {
+                minX = Math.min(minX, x); maxX = Math.max(maxX, x);
+                minY = Math.min(minY, y); maxY = Math.max(maxY, y);
+            }
+        }
+
+        void line(final float x0, final float y0, final float x1, final float y1) {
+            include(x1, y1);
+            if( y0 == y1 ) {
+                return;
+            }
+            if( count == eyMin.length ) {
+                final int n = count * 2;
+                eyMin = Arrays.copyOf(eyMin, n);
+                eyMax = Arrays.copyOf(eyMax, n);
+                ex = Arrays.copyOf(ex, n);
+                edxdy = Arrays.copyOf(edxdy, n);
+                edir = Arrays.copyOf(edir, n);
+            }
+            final float dxdy = ( x1 - x0 ) / ( y1 - y0 );
+            if( y0 < y1 ) {
+                eyMin[count] = y0; eyMax[count] = y1; ex[count] = x0; edir[count] = 1;
+            } else {
+                eyMin[count] = y1; eyMax[count] = y0; ex[count] = x1; edir[count] = -1;
+            }
+            edxdy[count] = dxdy;
+            ++count;
+        }
+    }
+
+    /** Return the {@link WindingRule} used by {@link #contains(float, float)}. */
+    public WindingRule getWindingRule() { return rule; }
+
+    /** Returns the number of non-horizontal flattened edges. */
+    public int getEdgeCount() { return edgeCount; }
+
+    /** Returns the number of horizontal bands of the edge table. */
+    public int getBandCount() { return bandCount; }
+
+    /** Returns a new {@link AABBox} of the flattened path. */
+    public AABBox getBounds() {
+        return new AABBox(minX, minY, 0f, maxX, maxY, 0f);
+    }
+
+    /**
+     * Returns the winding number of the given point, i.e. the signed number of edges crossing the ray
+     * from the point towards positive x, counting upward edges positive.
+     */
+    public int winding(final float x, final float y) {
+        if( !( minY <= y && y < maxY && x < maxX ) ) {
+            return 0;
+        }
+        final int b = (int)( ( y - minY ) * bandScale );
+        final int end = bandStart[Math.min(b, bandCount - 1) + 1];
+        int w = 0;
+        for(int i = bandStart[Math.min(b, bandCount - 1)]; i < end; i++) {
+            final int e = bandEdges[i];
+            final float y0 = eyMin[e];
+            if( y0 <= y && y < eyMax[e] && ex[e] + ( y - y0 ) * edxdy[e] > x ) {
+                w += edir[e];
+            }
+        }
+        return w;
+    }
+
+    /** Returns whether the given point is inside the path according to its {@link #getWindingRule() winding rule}. */
+    public boolean contains(final float x, final float y) {
+        final int w = winding(x, y);
+        return WindingRule.NON_ZERO == rule ? Crossing2F.isInsideNonZero(w) : Crossing2F.isInsideEvenOdd(w);
+    }
+
+    /**
+     * Batch variant of {@link #contains(float, float)} for {@code count} packed x/y points.
+     * <p>
+     * Point {@code i} is inside if bit {@code i % 64} of {@code inside[i / 64]} is set,
+     * all bits of the covered words are written.
+     * </p>
+     * @param xy the packed x/y coordinates
+     * @param off offset of the first point within {@code xy}
+     * @param count number of points
+     * @param inside bitset receiving the result, at least {@code (count + 63) / 64} words
+     * @return number of points inside
+     * @throws IndexOutOfBoundsException if the range exceeds {@code xy} or {@code inside}
+     */
+    public int contains(final float[] xy, final int off, final int count, final long[] inside) throws IndexOutOfBoundsException {
+        if( 0 > off || 0 > count || off + count * 2 > xy.length || ( count + 63 ) >>> 6 > inside.length ) {
+            throw new IndexOutOfBoundsException("Range [off "+off+", count "+count+"] exceeds points "+xy.length+" or bitset of "+inside.length+" words");
+        }
+        final boolean nonZero = WindingRule.NON_ZERO == rule;
+        int res = 0;
+        for(int w=0; w<( count + 63 ) >>> 6; w++) {
+            long bits = 0;
+            final int i0 = w << 6, i1 = Math.min(count, i0 + 64);
+            for(int i=i0; i<i1; i++) {
+                final int wn = winding(xy[off+i*2], xy[off+i*2+1]);
+                if( nonZero ? 0 != wn : 0 != ( wn & 1 ) ) {
+                    bits |= 1L << i;
+                }
+            }
+            inside[w] = bits;
+            res += Long.bitCount(bits);
+        }
+        return res;
+    }
+
+    @Override
+    public String toString() {
+        return "PreparedPath2F[edges "+edgeCount+", bands "+bandCount+", "+rule+", bounds ["+minX+"/"+minY+" .. "+maxX+"/"+maxY+"]]";
+    }
+}
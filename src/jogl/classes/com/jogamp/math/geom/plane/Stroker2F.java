@@ -0,0 +1,649 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.math.geom.plane;
+
+import com.jogamp.math.FloatUtil;
+
+/**
+ * Converts the stroke of a {@link Path2F} or a polyline into filled geometry,
+ * i.e. closed {@link Winding#CCW} polygons appended to a {@link Path2F}
+ * ready for {@link com.jogamp.graph.curve.OutlineShape#addPath(Path2F, boolean) OutlineShape.addPath(..)}.
+ * <p>
+ * Quadratic and cubic segments are flattened adaptively using the {@link #setTolerance(float) tolerance}.
+ * Each line segment, {@link Join join} and {@link Cap cap} is emitted as its own convex polygon,
+ * which keeps each resulting {@link com.jogamp.graph.geom.Outline Outline} trivial to triangulate
+ * even for self-intersecting strokes. Overlapping pieces are covered multiple times,
+ * which is only visible with translucent colors.
+ * {@link com.jogamp.graph.curve.OutlineShape#addStroke(Path2F, Stroker2F) OutlineShape.addStroke(..)}
+ * marks the pieces {@link com.jogamp.graph.geom.Outline#setSolid(boolean) solid},
+ * since overlapping pieces would otherwise be classified as holes of each other.
+ * </p>
+ * <p>
+ * Optional {@link #setDash(float[], float) dashes} are applied to the flattened geometry,
+ * each dash being stroked as an open path incl. its caps.
+ * </p>
+ * <p>
+ * Scratch buffers are reused across invocations, hence an instance is not thread safe.
+ * </p>
+ */
+public final class Stroker2F {
+    /** End decoration of open sub-paths and dashes. */
+    public static enum Cap {
+        /** Ends with no decoration. */
+        BUTT,
+        /** Ends with a semicircle of half the stroke width. */
+        ROUND,
+        /** Ends with a square projecting half the stroke width. */
+        SQUARE
+    }
+
+    /** Decoration of the outer side of two connected segments. */
+    public static enum Join {
+        /** Extends the outer edges until they meet, falls back to {@link #BEVEL} beyond the {@link Stroker2F#getMiterLimit() miter limit}. */
+        MITER,
+        /** Rounds the outer corner with a circular arc of half the stroke width. */
+        ROUND,
+        /** Connects the outer edges with a straight line. */
+        BEVEL
+    }
+
+    /** Maximum subdivisions of a single quadratic or cubic segment. */
+    private static final int MAX_SUBDIVISIONS = 256;
+
+    private float halfWidth;
+    private Cap cap;
+    private Join join;
+    private float miterLimit;
+    private float[] dash;
+    private float dashPhase;
+    private float tolerance;
+
+    /** Flattened points of the current sub-path */
+    private float[] pts = new float[64];
+    private int ptCount;
+    /** Points of the current dash */
+    private float[] dpts = new float[64];
+    private int dptCount;
+    /** Polygon of the current join or cap */
+    private float[] poly = new float[64];
+    private Path2F dst;
+    /** Maximum angle per arc step and its cosine, derived from the tolerance per stroke */
+    private float arcStep, arcStepCos;
+
+    /**
+     * Creates a stroker with {@link Cap#SQUARE}, {@link Join#MITER} and a miter limit of 10.
+     * @param width the stroke width
+     */
+    public Stroker2F(final float width) {
+        this(width, Cap.SQUARE, Join.MITER, 10f);
+    }
+
+    /**
+     * Creates a solid stroker.
+     * @param width the stroke width
+     * @param cap end decoration of open sub-paths and dashes
+     * @param join decoration of connected segments
+     * @param miterLimit limit of the miter length relative to half the stroke width, must be &ge; 1
+     * @throws IllegalArgumentException if {@code width} is negative or {@code miterLimit} &lt; 1
+     */
+    public Stroker2F(final float width, final Cap cap, final Join join, final float miterLimit) throws IllegalArgumentException {
+        setWidth(width);
+        setMiterLimit(miterLimit);
+        this.cap = cap;
+        this.join = join;
+        this.dash = null;
+        this.dashPhase = 0f;
+        this.tolerance = 0f;
+    }
+
+    /** Returns the stroke width. */
+    public float getWidth() { return 2f * halfWidth; }
+
+    /**
+     * Sets the stroke width.
+     * @throws IllegalArgumentException if {@code width} is negative
+     */
+    public Stroker2F setWidth(final float width) throws IllegalArgumentException {
+        if( 0f > width ) {
+            throw new IllegalArgumentException("Negative width "+width);
+        }
+        halfWidth = width / 2f;
+        return this;
+    }
+
+    public Cap getCap() { return cap; }
+
+    public Stroker2F setCap(final Cap cap) { this.cap = cap; return this; }
+
+    public Join getJoin() { return join; }
+
+    public Stroker2F setJoin(final Join join) { this.join = join; return this; }
+
+    public float getMiterLimit() { return miterLimit; }
+
+    /**
+     * Sets the limit of the {@link Join#MITER} length relative to half the stroke width.
+     * @throws IllegalArgumentException if {@code miterLimit} &lt; 1
+     */
+    public Stroker2F setMiterLimit(final float miterLimit) throws IllegalArgumentException {
+        if( !( 1f <= miterLimit ) ) {
+            throw new IllegalArgumentException("Miter limit "+miterLimit+" < 1");
+        }
+        this.miterLimit = miterLimit;
+        return this;
+    }
+
+    /** Returns the dash lengths or {@code null} for a solid stroke. */
+    public float[] getDash() { return dash; }
+
+    public float getDashPhase() { return dashPhase; }
+
+    /**
+     * Sets the dash pattern of alternating opaque and transparent lengths, starting with an opaque one.
+     * @param dash the dash lengths or {@code null} for a solid stroke, copied
+     * @param phase offset into the dash pattern applied at the start of each sub-path
+     * @throws IllegalArgumentException if a length is negative or all lengths are zero
+     */
+    public Stroker2F setDash(final float[] dash, final float phase) throws IllegalArgumentException {
+        if( null != dash ) {
+            float sum = 0f;
+            for(int i=0; i<dash.length; i++) {
+                if( !( 0f <= dash[i] ) ) {
+                    throw new IllegalArgumentException("Negative dash length "+dash[i]+" @ "+i);
+                }
+                sum += dash[i];
+            }
+            if( !( 0f < sum ) ) {
+                throw new IllegalArgumentException("Dash lengths sum up to zero");
+            }
+            this.dash = dash.clone();
+        } else {
+            this.dash = null;
+        }
+        this.dashPhase = phase;
+        return this;
+    }
+
+    /** Returns the flattening tolerance as set, zero denotes automatic. */
+    public float getTolerance() { return tolerance; }
+
+    /**
+     * Sets the flattening tolerance, i.e. the maximum distance of the flattened geometry
+     * to the curves and round decorations in path units.
+     * <p>
+     * Zero, the default, uses 1/16 of the stroke width.
+     * </p>
+     */
+    public Stroker2F setTolerance(final float tolerance) {
+        this.tolerance = Math.max(0f, tolerance);
+        return this;
+    }
+
+    private float tolerance() {
+        return 0f < tolerance ? tolerance : Math.max(FloatUtil.EPSILON, halfWidth / 8f);
+    }
+
+    @Override
+    public String toString() {
+        return "Stroker2F[width "+getWidth()+", "+cap+", "+join+", miter "+miterLimit+
+               ", dash "+(null != dash ? dash.length+"/"+dashPhase : "none")+", tolerance "+tolerance()+"]";
+    }
+
+    /**
+     * Appends the stroke of the given path geometry to {@code dst}.
+     * @param src the source path
+     * @param dst the destination receiving the closed {@link Winding#CCW} stroke polygons
+     * @return {@code dst} for chaining
+     */
+    public Path2F stroke(final Path2F src, final Path2F dst) {
+        return stroke(src.iterator(null), dst);
+    }
+
+    /**
+     * Appends the stroke of the given path geometry to {@code dst}.
+     * @param src the source path iterator
+     * @param dst the destination receiving the closed {@link Winding#CCW} stroke polygons
+     * @return {@code dst} for chaining
+     */
+    public Path2F stroke(final Path2F.Iterator src, final Path2F dst) {
+        begin(dst);
+        try {
+            final float[] p = src.points();
+            final float tol = tolerance();
+            float sx = 0f, sy = 0f, cx = 0f, cy = 0f;
+            boolean drawn = false;
+            ptCount = 0;
+            while( src.hasNext() ) {
+                final int idx = src.index();
+                final Path2F.SegmentType type = src.next();
+                if( Path2F.SegmentType.MOVETO != type && Path2F.SegmentType.CLOSE != type && 0 == ptCount ) {
+                    addPoint(cx, cy);
+                }
+                switch( type ) {
+                    case MOVETO:
+                        strokeSubPath(false, drawn);
+                        drawn = false;
+                        ptCount = 0;
+                        sx = cx = p[idx];
+                        sy = cy = p[idx+1];
+                        addPoint(cx, cy);
+                        break;
+                    case LINETO:
+                        cx = p[idx]; cy = p[idx+1];
+                        addPoint(cx, cy);
+                        drawn = true;
+                        break;
+                    case QUADTO:
+                        flattenQuad(cx, cy, p[idx], p[idx+1], p[idx+2], p[idx+3], tol);
+                        cx = p[idx+2]; cy = p[idx+3];
+                        drawn = true;
+                        break;
+                    case CUBICTO:
+                        flattenCubic(cx, cy, p[idx], p[idx+1], p[idx+2], p[idx+3], p[idx+4], p[idx+5], tol);
+                        cx = p[idx+4]; cy = p[idx+5];
+                        drawn = true;
+                        break;
+                    case CLOSE:
+                        strokeSubPath(true, drawn);
+                        drawn = false;
+                        ptCount = 0;
+                        cx = sx; cy = sy;
+                        break;
+                }
+            }
+            strokeSubPath(false, drawn);
+            ptCount = 0;
+        } finally {
+            this.dst = null;
+        }
+        return dst;
+    }
+
+    /**
+     * Appends the stroke of the given polyline to {@code dst}.
+     * @param xy the packed x/y coordinates
+     * @param off offset of the first point within {@code xy}
+     * @param count number of points
+     * @param closed pass {@code true} to connect the last with the first point
+     * @param dst the destination receiving the closed {@link Winding#CCW} stroke polygons
+     * @return {@code dst} for chaining
+     */
+    public Path2F stroke(final float[] xy, final int off, final int count, final boolean closed, final Path2F dst) {
+        if( 0 > off || 0 > count || off + count * 2 > xy.length ) {
+            throw new IndexOutOfBoundsException("Range [off "+off+", count "+count+"] exceeds "+xy.length);
+        }
+        begin(dst);
+        try {
+            ptCount = 0;
+            for(int i=0; i<count; i++) {
+                addPoint(xy[off+i*2], xy[off+i*2+1]);
+            }
+            strokeSubPath(closed, 1 < count);
+            ptCount = 0;
+        } finally {
+            this.dst = null;
+        }
+        return dst;
+    }
+
+    private void begin(final Path2F dst) {
+        this.dst = dst;
+        if( 0f < halfWidth ) {
+            final float tol = Math.min(tolerance(), halfWidth);
+            arcStep = 2f * (float)Math.acos(1f - tol / halfWidth);
+            arcStepCos = FloatUtil.cos(arcStep);
+        }
+    }
+
+    //
+    // Flattening
+    //
+
+    private void addPoint(final float x, final float y) {
+        if( 0 < ptCount && pts[ptCount*2-2] == x && pts[ptCount*2-1] == y ) {
+            return;
+        }
+        if( ptCount*2 + 2 > pts.length ) {
+            final float[] tmp = new float[pts.length * 2];
+            System.arraycopy(pts, 0, tmp, 0, ptCount*2);
+            pts = tmp;
+        }
+        pts[ptCount*2] = x;
+        pts[ptCount*2+1] = y;
+        ++ptCount;
+    }
+
+    /** Returns the number of uniform steps keeping the chord error bound {@code dd / n^2} within {@code tol}. */
+    /* pp */ static int subdivisions(final float dd, final float tol) {
+        return Math.max(1, Math.min(MAX_SUBDIVISIONS, (int)Math.ceil(Math.sqrt(dd / tol))));
+    }
+
+    /**
+     * Flattens a quadratic segment, the chord error of {@code n} uniform steps is bounded by {@code |p0 - 2p1 + p2| / (4 n^2)}.
+     */
+    private void flattenQuad(final float x0, final float y0, final float x1, final float y1, final float x2, final float y2, final float tol) {
+        final float ddx = x0 - 2f*x1 + x2, ddy = y0 - 2f*y1 + y2;
+        final int n = subdivisions(FloatUtil.sqrt(ddx*ddx + ddy*ddy) / 4f, tol);
+        final float dt = 1f / n;
+        for(int i=1; i<n; i++) {
+            final float t = i * dt, mt = 1f - t;
+            addPoint(mt*mt*x0 + 2f*mt*t*x1 + t*t*x2, mt*mt*y0 + 2f*mt*t*y1 + t*t*y2);
+        }
+        addPoint(x2, y2);
+    }
+
+    /**
+     * Flattens a cubic segment, the chord error of {@code n} uniform steps is bounded by
+     * {@code 3 max(|p0 - 2p1 + p2|, |p1 - 2p2 + p3|) / (4 n^2)}.
+     */
+    private void flattenCubic(final float x0, final float y0, final float x1, final float y1,
+                              final float x2, final float y2, final float x3, final float y3, final float tol) {
+        final float ax = x0 - 2f*x1 + x2, ay = y0 - 2f*y1 + y2;
+        final float bx = x1 - 2f*x2 + x3, by = y1 - 2f*y2 + y3;
+        final float dd = FloatUtil.sqrt(Math.max(ax*ax + ay*ay, bx*bx + by*by));
+        final int n = subdivisions(3f * dd / 4f, tol);
+        final float dt = 1f / n;
+        for(int i=1; i<n; i++) {
+            final float t = i * dt, mt = 1f - t;
+            final float c0 = mt*mt*mt, c1 = 3f*mt*mt*t, c2 = 3f*mt*t*t, c3 = t*t*t;
+            addPoint(c0*x0 + c1*x1 + c2*x2 + c3*x3, c0*y0 + c1*y1 + c2*y2 + c3*y3);
+        }
+        addPoint(x3, y3);
+    }
+
+    //
+    // Stroking
+    //
+
+    private void strokeSubPath(boolean closed, final boolean drawn) {
+        int n = ptCount;
+        if( 0 == n || 0f >= halfWidth ) {
+            return;
+        }
+        if( 1 < n && pts[0] == pts[n*2-2] && pts[1] == pts[n*2-1] ) {
+            --n; // explicit closing point
+        }
+        if( 3 > n ) {
+            closed = false;
+        }
+        if( null == dash ) {
+            strokeRun(pts, n, closed, drawn);
+        } else {
+            dashRun(n, closed);
+        }
+    }
+
+    private void addDashPoint(final float x, final float y) {
+        if( 0 < dptCount && dpts[dptCount*2-2] == x && dpts[dptCount*2-1] == y ) {
+            return;
+        }
+        if( dptCount*2 + 2 > dpts.length ) {
+            final float[] tmp = new float[dpts.length * 2];
+            System.arraycopy(dpts, 0, tmp, 0, dptCount*2);
+            dpts = tmp;
+        }
+        dpts[dptCount*2] = x;
+        dpts[dptCount*2+1] = y;
+        ++dptCount;
+    }
+
+    private void dashRun(final int n, final boolean closed) {
+        float sum = 0f;
+        for(int i=0; i<dash.length; i++) {
+            sum += dash[i];
+        }
+        float phase = dashPhase % sum;
+        if( 0f > phase ) {
+            phase += sum;
+        }
+        int di = 0;
+        while( phase >= dash[di] ) {
+            phase -= dash[di];
+            di = ( di + 1 ) % dash.length;
+        }
+        float remain = dash[di] - phase;
+        boolean on = 0 == ( di & 1 );
+
+        dptCount = 0;
+        if( on ) {
+            addDashPoint(pts[0], pts[1]);
+        }
+        final int segs = closed ? n : n - 1;
+        for(int s=0; s<segs; s++) {
+            final int i1 = ( s + 1 ) % n;
+            final float x0 = pts[s*2], y0 = pts[s*2+1];
+            final float x1 = pts[i1*2], y1 = pts[i1*2+1];
+            final float dx = x1 - x0, dy = y1 - y0;
+            final float len = FloatUtil.sqrt(dx*dx + dy*dy);
+            float t = 0f;
+            while( len - t > remain ) {
+                t += remain;
+                final float qx = x0 + dx * ( t / len ), qy = y0 + dy * ( t / len );
+                if( on ) {
+                    addDashPoint(qx, qy);
+                    strokeRun(dpts, dptCount, false, true);
+                    dptCount = 0;
+                } else {
+                    dptCount = 0;
+                    addDashPoint(qx, qy);
+                }
+                on = !on;
+                di = ( di + 1 ) % dash.length;
+                remain = dash[di];
+            }
+            remain -= len - t;
+            if( on ) {
+                addDashPoint(x1, y1);
+            }
+        }
+        if( on && 0 < dptCount ) {
+            strokeRun(dpts, dptCount, false, true);
+        }
+        dptCount = 0;
+    }
+
+    /**
+     * Strokes the polyline {@code a} of {@code n} distinct consecutive points,
+     * a single point is decorated by the caps if {@code drawn}.
+     */
+    private void strokeRun(final float[] a, final int n, final boolean closed, final boolean drawn) {
+        final float hw = halfWidth;
+        if( 1 == n ) {
+            if( drawn ) {
+                emitDot(a[0], a[1]);
+            }
+            return;
+        }
+        if( 0 == n ) {
+            return;
+        }
+        final int segs = closed ? n : n - 1;
+        float fux = 0f, fuy = 0f, pux = 0f, puy = 0f;
+        for(int s=0; s<segs; s++) {
+            final int i1 = ( s + 1 ) % n;
+            final float x0 = a[s*2], y0 = a[s*2+1];
+            final float x1 = a[i1*2], y1 = a[i1*2+1];
+            final float dx = x1 - x0, dy = y1 - y0;
+            final float il = 1f / FloatUtil.sqrt(dx*dx + dy*dy);
+            final float ux = dx * il, uy = dy * il;
+            // right side forward, left side backward: CCW
+            final float ox = uy * hw, oy = -ux * hw;
+            dst.moveTo(x0 + ox, y0 + oy);
+            dst.lineTo(x1 + ox, y1 + oy);
+            dst.lineTo(x1 - ox, y1 - oy);
+            dst.lineTo(x0 - ox, y0 - oy);
+            dst.closePath();
+            if( 0 < s ) {
+                emitJoin(x0, y0, pux, puy, ux, uy);
+            } else {
+                fux = ux; fuy = uy;
+            }
+            pux = ux; puy = uy;
+        }
+        if( closed ) {
+            emitJoin(a[0], a[1], pux, puy, fux, fuy);
+        } else {
+            emitCap(a[0], a[1], -fux, -fuy);
+            emitCap(a[n*2-2], a[n*2-1], pux, puy);
+        }
+    }
+
+    private void emitJoin(final float px, final float py, final float u0x, final float u0y, final float u1x, final float u1y) {
+        final float cross = u0x * u1y - u0y * u1x;
+        final float dot = u0x * u1x + u0y * u1y;
+        if( FloatUtil.isZero(cross) && 0f < dot ) {
+            return; // straight
+        }
+        final float hw = halfWidth;
+        // outer side: right for left turns, left for right turns and reversals
+        final float side = 0f < cross ? 1f : -1f;
+        final float o0x = side * u0y, o0y = side * -u0x;
+        final float o1x = side * u1y, o1y = side * -u1x;
+        int pc = 0;
+        poly[pc++] = px; poly[pc++] = py;
+        poly[pc++] = px + o0x * hw; poly[pc++] = py + o0y * hw;
+        switch( join ) {
+            case MITER: {
+                final float mx = o0x + o1x, my = o0y + o1y;
+                final float ml2 = mx*mx + my*my; // (2 cos(a/2))^2
+                if( 4f <= ml2 * miterLimit * miterLimit && !FloatUtil.isZero(ml2) ) {
+                    final float s = 2f * hw / ml2;
+                    poly[pc++] = px + mx * s; poly[pc++] = py + my * s;
+                }
+                break;
+            }
+            case ROUND: {
+                final float odot = o0x * o1x + o0y * o1y;
+                if( odot < arcStepCos ) { // more than one arc step
+                    final float angle = FloatUtil.isZero(cross) ? FloatUtil.PI * side :
+                                        (float)Math.atan2(o0x * o1y - o0y * o1x, odot);
+                    pc = addArc(pc, px, py, o0x, o0y, angle);
+                }
+                break;
+            }
+            default:
+                break;
+        }
+        poly[pc++] = px + o1x * hw; poly[pc++] = py + o1y * hw;
+        emitPolygon(pc / 2);
+    }
+
+    /** Emits the cap at end point {@code p} with outward direction {@code u}. */
+    private void emitCap(final float px, final float py, final float ux, final float uy) {
+        final float hw = halfWidth;
+        int pc = 0;
+        switch( cap ) {
+            case SQUARE: {
+                final float ox = uy * hw, oy = -ux * hw;
+                poly[pc++] = px + ox; poly[pc++] = py + oy;
+                poly[pc++] = px + ox + ux * hw; poly[pc++] = py + oy + uy * hw;
+                poly[pc++] = px - ox + ux * hw; poly[pc++] = py - oy + uy * hw;
+                poly[pc++] = px - ox; poly[pc++] = py - oy;
+                break;
+            }
+            case ROUND: {
+                // from right side across u to the left side
+                poly[pc++] = px + uy * hw; poly[pc++] = py - ux * hw;
+                pc = addArc(pc, px, py, uy, -ux, FloatUtil.PI);
+                poly[pc++] = px - uy * hw; poly[pc++] = py + ux * hw;
+                break;
+            }
+            default:
+                return;
+        }
+        emitPolygon(pc / 2);
+    }
+
+    /** Emits the caps of a zero-length stroke at {@code p}. */
+    private void emitDot(final float px, final float py) {
+        final float hw = halfWidth;
+        int pc = 0;
+        switch( cap ) {
+            case SQUARE:
+                poly[pc++] = px - hw; poly[pc++] = py - hw;
+                poly[pc++] = px + hw; poly[pc++] = py - hw;
+                poly[pc++] = px + hw; poly[pc++] = py + hw;
+                poly[pc++] = px - hw; poly[pc++] = py + hw;
+                break;
+            case ROUND:
+                poly[pc++] = px + hw; poly[pc++] = py;
+                pc = addArc(pc, px, py, 1f, 0f, FloatUtil.TWO_PI);
+                break;
+            default:
+                return;
+        }
+        emitPolygon(pc / 2);
+    }
+
+    /**
+     * Adds the inner points of the arc around {@code p} with radius of half the stroke width,
+     * starting at unit direction {@code o} rotating by {@code angle}, excluding both end points.
+     */
+    private int addArc(int pc, final float px, final float py, final float ox, final float oy, final float angle) {
+        final float hw = halfWidth;
+        final int n = Math.max(1, Math.min(MAX_SUBDIVISIONS, (int)Math.ceil(Math.abs(angle) / arcStep)));
+        final float step = angle / n, c = FloatUtil.cos(step), s = FloatUtil.sin(step);
+        if( pc + ( n + 1 ) * 2 > poly.length ) {
+            final float[] tmp = new float[pc + ( n + 1 ) * 2];
+            System.arraycopy(poly, 0, tmp, 0, pc);
+            poly = tmp;
+        }
+        float rx = ox, ry = oy;
+        for(int i=1; i<n; i++) {
+            final float tx = rx * c - ry * s;
+            ry = rx * s + ry * c;
+            rx = tx;
+            poly[pc++] = px + rx * hw; poly[pc++] = py + ry * hw;
+        }
+        return pc;
+    }
+
+    /** Emits the polygon of {@code n} points in {@link #poly} as {@link Winding#CCW}, dropping degenerated ones. */
+    private void emitPolygon(final int n) {
+        final float[] p = poly;
+        float area = 0f;
+        for(int i=0, j=n-1; i<n; j=i++) {
+            area += p[j*2] * p[i*2+1] - p[i*2] * p[j*2+1];
+        }
+        if( Math.abs(area) <= halfWidth * halfWidth * FloatUtil.EPSILON ) {
+            return;
+        }
+        if( 0f < area ) {
+            dst.moveTo(p[0], p[1]);
+            for(int i=1; i<n; i++) {
+                dst.lineTo(p[i*2], p[i*2+1]);
+            }
+        } else {
+            dst.moveTo(p[n*2-2], p[n*2-1]);
+            for(int i=n-2; i>=0; i--) {
+                dst.lineTo(p[i*2], p[i*2+1]);
+            }
+        }
+        dst.closePath();
+    }
+}
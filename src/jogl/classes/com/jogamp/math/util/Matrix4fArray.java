@@ -0,0 +1,455 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.math.util;
+
+import java.nio.FloatBuffer;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.math.FloatUtil;
+import com.jogamp.math.Matrix4f;
+
+/**
+ * Packed array of 4x4 float matrices in column-major order, stored contiguously in one {@link FloatBuffer}.
+ * <p>
+ * Intended for thousands of instance transforms, where individual heap {@link Matrix4f} instances
+ * scatter memory and cause one upload per matrix. Bulk operations work in place on the packed storage:
+ * <ul>
+ *   <li>{@link #setToTRS(int, int, float[], int, float[], int, float[], int) Composition} from separate translation, rotation and scale arrays,
+ *       with rotations optionally given as {@link QuaternionArray}</li>
+ *   <li>{@link #mul(Matrix4f, Matrix4fArray, int, int, int) Multiplication} by a parent matrix</li>
+ *   <li>{@link #mulHierarchy(Matrix4fArray, int[], int, int) Hierarchy} resolution of local into world transforms</li>
+ * </ul>
+ * </p>
+ * <p>
+ * The {@link #getBuffer() buffer} may be passed to the GPU w/o copy, e.g. via
+ * {@link com.jogamp.opengl.util.GLArrayDataServer#createGLSLMatrices(String, Matrix4fArray, int) GLArrayDataServer.createGLSLMatrices(..)}
+ * as per-instance attributes or via {@link com.jogamp.opengl.util.GLArrayDataServer#createData(int, int, int, java.nio.Buffer, int, int) GLArrayDataServer.createData(..)}
+ * using {@code GL_UNIFORM_BUFFER} as a uniform buffer of {@code mat4}.
+ * </p>
+ * <p>
+ * Storage is either a direct NIO buffer, see {@link #Matrix4fArray(int)}, or a user given buffer, see {@link #Matrix4fArray(FloatBuffer)}.
+ * Array backed buffers are processed via their backing array.
+ * </p>
+ * <p>
+ * Instances are not thread safe.
+ * </p>
+ */
+public final class Matrix4fArray {
+    private final FloatBuffer buffer;
+    private final float[] array;
+    private final int arrayOff;
+    private final int count;
+
+    /** Number of matrices per block when staging direct buffer content through heap arrays. */
+    private static final int BLOCK = 64;
+
+    /**
+     * Creates a new array of {@code count} identity matrices backed by a direct NIO {@link FloatBuffer}.
+     * @param count number of matrices
+     */
+    public Matrix4fArray(final int count) {
+        this(Buffers.newDirectFloatBuffer(count * 16));
+        setToIdentity(0, count);
+    }
+
+    /**
+     * Creates a new array using the given {@link FloatBuffer} as storage w/o copy,
+     * holding {@code buffer.capacity() / 16} matrices.
+     * <p>
+     * The buffer content is left untouched, as are the given buffer's position and limit.
+     * {@link #getBuffer()} returns a {@link FloatBuffer#duplicate() duplicate} sharing its content.
+     * </p>
+     * @param buffer direct or array backed storage, absolute indices are used
+     */
+    public Matrix4fArray(final FloatBuffer buffer) {
+        this.buffer = buffer.duplicate();
+        this.count = buffer.capacity() / 16;
+        if( buffer.hasArray() ) {
+            array = buffer.array();
+            arrayOff = buffer.arrayOffset();
+        } else {
+            array = null;
+            arrayOff = 0;
+        }
+        this.buffer.clear();
+        this.buffer.limit(count * 16);
+    }
+
+    /** Returns the number of matrices. */
+    public int size() { return count; }
+
+    /**
+     * Returns the underlying storage covering all {@link #size()} matrices,
+     * i.e. position {@code 0} and limit {@code 16 * size()}.
+     */
+    public FloatBuffer getBuffer() { return buffer; }
+
+    private float g(final int i) {
+        return null != array ? array[arrayOff + i] : buffer.get(i);
+    }
+    private void p(final int i, final float v) {
+        if( null != array ) {
+            array[arrayOff + i] = v;
+        } else {
+            buffer.put(i, v);
+        }
+    }
+
+    private void checkRange(final int first, final int n) throws IndexOutOfBoundsException {
+        if( 0 > first || 0 > n || first + n > count ) {
+            throw new IndexOutOfBoundsException("Range [first "+first+", count "+n+"] exceeds size "+count);
+        }
+    }
+
+    /**
+     * Gets the {@code i}-th matrix.
+     * @param i matrix index
+     * @param dst destination matrix
+     * @return {@code dst} for chaining
+     */
+    public Matrix4f get(final int i, final Matrix4f dst) {
+        checkRange(i, 1);
+        if( null != array ) {
+            return dst.load(array, arrayOff + i * 16);
+        }
+        final float[] tmp = new float[16];
+        final int o = i * 16;
+        for(int j=0; j<16; j++) {
+            tmp[j] = buffer.get(o + j);
+        }
+        return dst.load(tmp);
+    }
+
+    /**
+     * Sets the {@code i}-th matrix.
+     * @param i matrix index
+     * @param src source matrix
+     * @return this instance for chaining
+     */
+    public Matrix4fArray set(final int i, final Matrix4f src) {
+        checkRange(i, 1);
+        if( null != array ) {
+            src.get(array, arrayOff + i * 16);
+        } else {
+            final float[] tmp = src.get(new float[16]);
+            final int o = i * 16;
+            for(int j=0; j<16; j++) {
+                buffer.put(o + j, tmp[j]);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Sets matrices [{@code first}..{@code first+n}[ to identity.
+     * @return this instance for chaining
+     */
+    public Matrix4fArray setToIdentity(final int first, final int n) {
+        checkRange(first, n);
+        for(int i=first; i<first+n; i++) {
+            final int o = i * 16;
+            for(int j=0; j<16; j++) {
+                p(o + j, 0 == j % 5 ? 1f : 0f);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Sets matrices [{@code first}..{@code first+n}[ to the composition {@code T * R * S}
+     * of translation, rotation and scale, given as separate packed arrays.
+     * <p>
+     * Matrix {@code first+i} uses translation {@code t[tOff+3*i..+2]},
+     * unit quaternion {@code q[qOff+4*i..+3]} in {@code x, y, z, w} order
+     * and scale {@code s[sOff+3*i..+2]}.
+     * Each of the three arrays may be {@code null} to skip the respective component.
+     * </p>
+     * <p>
+     * The result equals {@link Matrix4f#setToTranslation(float, float, float)}
+     * followed by {@link Matrix4f#rotate(com.jogamp.math.Quaternion, Matrix4f)}
+     * and {@link Matrix4f#scale(float, float, float, Matrix4f)},
+     * computed directly w/o intermediate matrices.
+     * </p>
+     * @param first index of the first matrix
+     * @param n number of matrices
+     * @param t optional translations, 3 floats per matrix
+     * @param tOff offset in {@code t}
+     * @param q optional rotations as quaternions, 4 floats per matrix
+     * @param qOff offset in {@code q}
+     * @param s optional scales, 3 floats per matrix
+     * @param sOff offset in {@code s}
+     * @return this instance for chaining
+     */
+    public Matrix4fArray setToTRS(final int first, final int n,
+                                  final float[] t, final int tOff,
+                                  final float[] q, final int qOff,
+                                  final float[] s, final int sOff)
+    {
+        checkRange(first, n);
+        final float[] block = null != array ? array : new float[Math.min(n, BLOCK) * 16];
+        for(int b=0; b<n; b+=BLOCK) {
+            final int bn = Math.min(BLOCK, n - b);
+            final int o = null != array ? arrayOff + ( first + b ) * 16 : 0;
+            setToTRS(block, o, bn, t, tOff + b * 3, q, q, q, q, qOff + b * 4, 4, 1, s, sOff + b * 3);
+            if( null == array ) {
+                store(first + b, bn, block);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Sets matrices [{@code first}..{@code first+n}[ to the composition {@code T * R * S}
+     * as {@link #setToTRS(int, int, float[], int, float[], int, float[], int)},
+     * using the rotations [{@code qFirst}..{@code qFirst+n}[ of the given {@link QuaternionArray}.
+     * @param q rotations as unit quaternions
+     * @param qFirst index of the first quaternion in {@code q}
+     * @param first index of the first matrix
+     * @param n number of matrices
+     * @param t optional translations, 3 floats per matrix
+     * @param tOff offset in {@code t}
+     * @param s optional scales, 3 floats per matrix
+     * @param sOff offset in {@code s}
+     * @return this instance for chaining
+     */
+    public Matrix4fArray setToTRS(final QuaternionArray q, final int qFirst,
+                                  final int first, final int n,
+                                  final float[] t, final int tOff,
+                                  final float[] s, final int sOff)
+    {
+        checkRange(first, n);
+        if( 0 > qFirst || qFirst + n > q.size() ) {
+            throw new IndexOutOfBoundsException("Range [first "+qFirst+", count "+n+"] exceeds size "+q.size());
+        }
+        final float[] block = null != array ? array : new float[Math.min(n, BLOCK) * 16];
+        for(int b=0; b<n; b+=BLOCK) {
+            final int bn = Math.min(BLOCK, n - b);
+            final int o = null != array ? arrayOff + ( first + b ) * 16 : 0;
+            setToTRS(block, o, bn, t, tOff + b * 3, q.x, q.y, q.z, q.w, qFirst + b, 1, 0, s, sOff + b * 3);
+            if( null == array ) {
+                store(first + b, bn, block);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Composition kernel, reading quaternion {@code i} components at
+     * {@code qx[k], qy[k+qComp], qz[k+2*qComp], qw[k+3*qComp]} with {@code k = qOff + i * qStride},
+     * covering packed {@code xyzw} ({@code qStride 4, qComp 1}) and structure-of-arrays ({@code qStride 1, qComp 0}) layouts.
+     */
+    private static void setToTRS(final float[] d, final int dOff, final int n,
+                                 final float[] t, final int tOff,
+                                 final float[] qx, final float[] qy, final float[] qz, final float[] qw,
+                                 final int qOff, final int qStride, final int qComp,
+                                 final float[] s, final int sOff)
+    {
+        for(int i=0; i<n; i++) {
+            float r00 = 1f, r01 = 0f, r02 = 0f;
+            float r10 = 0f, r11 = 1f, r12 = 0f;
+            float r20 = 0f, r21 = 0f, r22 = 1f;
+            if( null != qx ) {
+                final int k = qOff + i * qStride;
+                final float x = qx[k], y = qy[k+qComp], z = qz[k+2*qComp], w = qw[k+3*qComp];
+                final float norm = x * x + y * y + z * z + w * w;
+                if( !FloatUtil.isZero(norm) ) {
+                    final float srecip = FloatUtil.isEqual(1f, norm) ? 2f : 2f / norm;
+                    final float xs = srecip * x, ys = srecip * y, zs = srecip * z;
+                    final float xx = x  * xs, xy = x  * ys, xz = x  * zs, xw = xs * w;
+                    final float yy = y  * ys, yz = y  * zs, yw = ys * w;
+                    final float zz = z  * zs, zw = zs * w;
+                    r00 = 1f - ( yy + zz ); r01 =      ( xy - zw ); r02 =      ( xz + yw );
+                    r10 =      ( xy + zw ); r11 = 1f - ( xx + zz ); r12 =      ( yz - xw );
+                    r20 =      ( xz - yw ); r21 =      ( yz + xw ); r22 = 1f - ( xx + yy );
+                }
+            }
+            float sx = 1f, sy = 1f, sz = 1f;
+            if( null != s ) {
+                final int k = sOff + i * 3;
+                sx = s[k]; sy = s[k+1]; sz = s[k+2];
+            }
+            float tx = 0f, ty = 0f, tz = 0f;
+            if( null != t ) {
+                final int k = tOff + i * 3;
+                tx = t[k]; ty = t[k+1]; tz = t[k+2];
+            }
+            final int o = dOff + i * 16;
+            // column 0..2: rotation columns scaled, column 3: translation
+            d[o   ] = r00 * sx; d[o+ 1] = r10 * sx; d[o+ 2] = r20 * sx; d[o+ 3] = 0f;
+            d[o+ 4] = r01 * sy; d[o+ 5] = r11 * sy; d[o+ 6] = r21 * sy; d[o+ 7] = 0f;
+            d[o+ 8] = r02 * sz; d[o+ 9] = r12 * sz; d[o+10] = r22 * sz; d[o+11] = 0f;
+            d[o+12] = tx;       d[o+13] = ty;       d[o+14] = tz;       d[o+15] = 1f;
+        }
+    }
+
+    /**
+     * Multiplies matrices [{@code first}..{@code first+n}[ of this array with the given {@code parent} from the left,
+     * i.e. {@code this[i] = parent * this[i]}.
+     * @param parent the parent matrix
+     * @param first index of the first matrix
+     * @param n number of matrices
+     * @return this instance for chaining
+     */
+    public Matrix4fArray mul(final Matrix4f parent, final int first, final int n) {
+        return mul(parent, this, first, first, n);
+    }
+
+    /**
+     * Stores {@code parent * src[srcFirst+i]} in {@code this[first+i]} for {@code n} matrices.
+     * <p>
+     * {@code src} may be this instance, in-place operation is supported for {@code srcFirst == first}.
+     * </p>
+     * @param parent the parent matrix
+     * @param src source matrices
+     * @param srcFirst index of the first source matrix
+     * @param first index of the first destination matrix
+     * @param n number of matrices
+     * @return this instance for chaining
+     */
+    public Matrix4fArray mul(final Matrix4f parent, final Matrix4fArray src, final int srcFirst, final int first, final int n) {
+        src.checkRange(srcFirst, n);
+        checkRange(first, n);
+        final float[] a = parent.get(new float[16]);
+        final float[] srcBlock = null != src.array ? null : new float[Math.min(n, BLOCK) * 16];
+        final float[] dstBlock = null != array ? null : new float[Math.min(n, BLOCK) * 16];
+        for(int b=0; b<n; b+=BLOCK) {
+            final int bn = Math.min(BLOCK, n - b);
+            final float[] sa, da;
+            final int so, dO;
+            if( null != src.array ) {
+                sa = src.array;
+                so = src.arrayOff + ( srcFirst + b ) * 16;
+            } else {
+                src.load(srcFirst + b, bn, srcBlock);
+                sa = srcBlock;
+                so = 0;
+            }
+            if( null != array ) {
+                da = array;
+                dO = arrayOff + ( first + b ) * 16;
+            } else {
+                da = dstBlock;
+                dO = 0;
+            }
+            mul(a, 0, sa, so, da, dO, bn);
+            if( null == array ) {
+                store(first + b, bn, dstBlock);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Resolves a transform hierarchy, storing the world transforms of the given {@code local} transforms in this array.
+     * <p>
+     * For {@code i} in [{@code first}..{@code first+n}[, {@code this[i] = this[parents[i]] * local[i]}
+     * or {@code this[i] = local[i]} if {@code parents[i] < 0}.
+     * Parents must be ordered before their children, i.e. {@code parents[i] < i},
+     * allowing a single linear pass. Parents before {@code first} must already be resolved in this array.
+     * </p>
+     * <p>
+     * {@code local} may be this instance, transforming it in place.
+     * </p>
+     * @param local local transforms, at least as large as this array's used range
+     * @param parents parent index per matrix
+     * @param first index of the first matrix
+     * @param n number of matrices
+     * @return this instance for chaining
+     * @throws IllegalArgumentException if a parent index is not less than its child's index
+     */
+    public Matrix4fArray mulHierarchy(final Matrix4fArray local, final int[] parents, final int first, final int n)
+            throws IllegalArgumentException
+    {
+        local.checkRange(first, n);
+        checkRange(first, n);
+        final float[] a = new float[16];
+        final float[] b = new float[16];
+        for(int i=first; i<first+n; i++) {
+            final int parent = parents[i];
+            final int o = i * 16;
+            if( 0 > parent ) {
+                if( local != this ) {
+                    for(int j=0; j<16; j++) {
+                        p(o + j, local.g(o + j));
+                    }
+                }
+            } else if( parent >= i ) {
+                throw new IllegalArgumentException("Parent "+parent+" not ordered before child "+i);
+            } else {
+                final int po = parent * 16;
+                for(int j=0; j<16; j++) {
+                    a[j] = g(po + j);
+                    b[j] = local.g(o + j);
+                }
+                mul(a, 0, b, 0, b, 0, 1);
+                for(int j=0; j<16; j++) {
+                    p(o + j, b[j]);
+                }
+            }
+        }
+        return this;
+    }
+
+    /** Copies {@code n} matrices starting at {@code first} from the buffer into {@code dst}. */
+    private void load(final int first, final int n, final float[] dst) {
+        final FloatBuffer b = buffer.duplicate();
+        b.position(first * 16);
+        b.get(dst, 0, n * 16);
+    }
+
+    /** Copies {@code n} matrices from {@code src} into the buffer starting at {@code first}. */
+    private void store(final int first, final int n, final float[] src) {
+        final FloatBuffer b = buffer.duplicate();
+        b.position(first * 16);
+        b.put(src, 0, n * 16);
+    }
+
+    /**
+     * Column-major multiplication {@code d[i] = a * s[i]} for {@code n} packed matrices,
+     * reading each source column before writing it to allow in-place operation.
+     */
+    private static void mul(final float[] a, final int aOff, final float[] s, final int sOff,
+                            final float[] d, final int dOff, final int n) {
+        final float a00 = a[aOff   ], a10 = a[aOff+ 1], a20 = a[aOff+ 2], a30 = a[aOff+ 3];
+        final float a01 = a[aOff+ 4], a11 = a[aOff+ 5], a21 = a[aOff+ 6], a31 = a[aOff+ 7];
+        final float a02 = a[aOff+ 8], a12 = a[aOff+ 9], a22 = a[aOff+10], a32 = a[aOff+11];
+        final float a03 = a[aOff+12], a13 = a[aOff+13], a23 = a[aOff+14], a33 = a[aOff+15];
+        for(int c=0, so=sOff, dO=dOff; c<n*4; c++, so+=4, dO+=4) {
+            final float b0 = s[so], b1 = s[so+1], b2 = s[so+2], b3 = s[so+3];
+            d[dO  ] = a00 * b0 + a01 * b1 + a02 * b2 + a03 * b3;
+            d[dO+1] = a10 * b0 + a11 * b1 + a12 * b2 + a13 * b3;
+            d[dO+2] = a20 * b0 + a21 * b1 + a22 * b2 + a23 * b3;
+            d[dO+3] = a30 * b0 + a31 * b1 + a32 * b2 + a33 * b3;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Matrix4fArray[size "+count+", "+(null != array ? "array" : "direct")+"]";
+    }
+}
@@ -29,6 +29,7 @@ package com.jogamp.math.util;
 
 import java.nio.Buffer;
 import java.nio.FloatBuffer;
+import java.util.Arrays;
 
 import com.jogamp.common.nio.Buffers;
 import com.jogamp.math.FloatUtil;
@@ -249,6 +250,9 @@ public class PMVMatrix4f {
         matPMviOK = false;
         frustum = null; // on demand
 
+        mvStack = new float[MV_STACK_DEPTH*16];
+        mvStackRigid = new boolean[MV_STACK_DEPTH];
+
         reset();
     }
 
@@ -259,6 +263,7 @@ public class PMVMatrix4f {
         matP.loadIdentity();
         matMv.loadIdentity();
         matTex.loadIdentity();
+        mvRigid = true;
 
         modifiedBits = MODIFIED_ALL;
         dirtyBits = requestBits | MANUAL_BITS;
@@ -521,7 +526,7 @@ public class PMVMatrix4f {
      */
     public final PMVMatrix4f loadMv(final float[] values, final int offset) {
         matMv.load(values, offset);
-        setModelviewDirty();
+        setMvDirty(false);
         return this;
     }
     /**
@@ -530,7 +535,7 @@ public class PMVMatrix4f {
     public final PMVMatrix4f loadMv(final java.nio.FloatBuffer m) {
         final int spos = m.position();
         matMv.load(m);
-        setModelviewDirty();
+        setMvDirty(false);
         m.position(spos);
         return this;
     }
@@ -539,7 +544,7 @@ public class PMVMatrix4f {
      */
     public final PMVMatrix4f loadMv(final Matrix4f m) {
         matMv.load(m);
-        setModelviewDirty();
+        setMvDirty(false);
         return this;
     }
     /**
@@ -547,7 +552,7 @@ public class PMVMatrix4f {
      */
     public final PMVMatrix4f loadMv(final Quaternion quat) {
         matMv.setToRotation(quat);
-        setModelviewDirty();
+        setMvDirty(true);
         return this;
     }
 
@@ -626,7 +631,7 @@ public class PMVMatrix4f {
      */
     public final PMVMatrix4f loadMvIdentity() {
         matMv.loadIdentity();
-        setModelviewDirty();
+        setMvDirty(true);
         return this;
     }
 
@@ -655,7 +660,7 @@ public class PMVMatrix4f {
      */
     public final PMVMatrix4f mulMv(final Matrix4f m) {
         matMv.mul( m );
-        setModelviewDirty();
+        setMvDirty(false);
         return this;
     }
 
@@ -689,7 +694,36 @@ public class PMVMatrix4f {
      * @return this instance of chaining
      */
     public final PMVMatrix4f translateMv(final float x, final float y, final float z) {
-        return mulMv( mat4Tmp1.setToTranslation(x, y, z) );
+        final boolean affine = mvRigid || matMv.isAffine();
+        matMv.translate(x, y, z);
+        // Fuse the translation into still valid derived matrices instead of marking them dirty
+        int valid = 0;
+        if( 0 == ( dirtyBits & PREMUL_PMV ) ) {
+            matPMv.translate(x, y, z);
+            valid |= PREMUL_PMV;
+        }
+        if( 0 == ( dirtyBits & PREMUL_PMVI ) && matPMviOK ) {
+            preTranslate(matPMvi, -x, -y, -z);
+            valid |= PREMUL_PMVI;
+        }
+        if( affine ) {
+            // Mvi' = T(-t) * Mvi, affine Mvi only changes its translation column
+            if( 0 != ( requestBits & INVERSE_MODELVIEW ) && 0 == ( dirtyBits & ( INVERSE_MODELVIEW | INVERSE_TRANSPOSED_MODELVIEW ) ) ) {
+                matMvi.set(12, matMvi.get(12) - x);
+                matMvi.set(13, matMvi.get(13) - y);
+                matMvi.set(14, matMvi.get(14) - z);
+                valid |= INVERSE_MODELVIEW;
+                if( 0 != ( requestBits & INVERSE_TRANSPOSED_MODELVIEW ) ) {
+                    matMvit.set( 3, matMvi.get(12));
+                    matMvit.set( 7, matMvi.get(13));
+                    matMvit.set(11, matMvi.get(14));
+                    valid |= INVERSE_TRANSPOSED_MODELVIEW;
+                }
+            }
+        }
+        dirtyBits = ( dirtyBits | requestBits | MANUAL_BITS ) & ~valid;
+        modifiedBits |= MODIFIED_MODELVIEW;
+        return this;
     }
     /**
      * Translate the {@link #getMv() modelview matrix}.
@@ -697,7 +731,7 @@ public class PMVMatrix4f {
      * @return this instance of chaining
      */
     public final PMVMatrix4f translateMv(final Vec3f t) {
-        return mulMv( mat4Tmp1.setToTranslation(t) );
+        return translateMv(t.x(), t.y(), t.z());
     }
 
     /**
@@ -727,7 +761,9 @@ public class PMVMatrix4f {
      * @return this instance of chaining
      */
     public final PMVMatrix4f scaleMv(final float x, final float y, final float z) {
-        return mulMv( mat4Tmp1.setToScale(x, y, z) );
+        matMv.mul( mat4Tmp1.setToScale(x, y, z) );
+        setMvDirty( mvRigid && 1f == Math.abs(x) && 1f == Math.abs(y) && 1f == Math.abs(z) );
+        return this;
     }
     /**
      * Scale the {@link #getMv() modelview matrix}.
@@ -735,7 +771,7 @@ public class PMVMatrix4f {
      * @return this instance of chaining
      */
     public final PMVMatrix4f scaleMv(final Vec3f s) {
-        return mulMv( mat4Tmp1.setToScale(s) );
+        return scaleMv(s.x(), s.y(), s.z());
     }
 
     /**
@@ -768,7 +804,9 @@ public class PMVMatrix4f {
      * @see #rotateMv(Quaternion)
      */
     public final PMVMatrix4f rotateMv(final float ang_rad, final float x, final float y, final float z) {
-        return mulMv( mat4Tmp1.setToRotationAxis(ang_rad, x, y, z) );
+        matMv.mul( mat4Tmp1.setToRotationAxis(ang_rad, x, y, z) );
+        setMvDirty( mvRigid && !FloatUtil.isZero( x*x + y*y + z*z ) );
+        return this;
     }
     /**
      * Rotate the {@link #getMv() modelview matrix} by the given axis and angle in radians.
@@ -781,7 +819,7 @@ public class PMVMatrix4f {
      * @see #rotateMv(Quaternion)
      */
     public final PMVMatrix4f rotateMv(final float ang_rad, final Vec3f axis) {
-        return mulMv( mat4Tmp1.setToRotationAxis(ang_rad, axis) );
+        return rotateMv(ang_rad, axis.x(), axis.y(), axis.z());
     }
     /**
      * Rotate the {@link #getMv() modelview matrix} with the given {@link Quaternion}'s rotation {@link Matrix4f#setToRotation(Quaternion) matrix representation}.
@@ -789,7 +827,9 @@ public class PMVMatrix4f {
      * @return this instance of chaining
      */
     public final PMVMatrix4f rotateMv(final Quaternion quat) {
-        return mulMv( mat4Tmp1.setToRotation(quat) );
+        matMv.mul( mat4Tmp1.setToRotation(quat) );
+        setMvDirty(mvRigid);
+        return this;
     }
 
     /**
@@ -827,10 +867,17 @@ public class PMVMatrix4f {
         return mulP( mat4Tmp1.setToRotation(quat) );
     }
 
-    /** Pop the {@link #getMv() modelview matrix} from its stack. */
-    public final PMVMatrix4f popMv() {
-        matMv.pop();
-        setModelviewDirty();
+    /**
+     * Pop the {@link #getMv() modelview matrix} from its preallocated stack.
+     * @throws IndexOutOfBoundsException if the stack is empty
+     */
+    public final PMVMatrix4f popMv() throws IndexOutOfBoundsException {
+        if( 0 >= mvStackPos ) {
+            throw new IndexOutOfBoundsException("Mv stack underflow");
+        }
+        --mvStackPos;
+        matMv.load(mvStack, mvStackPos*16);
+        setMvDirty(mvStackRigid[mvStackPos]);
         return this;
     }
     /** Pop the {@link #getP() projection matrix} from its stack. */
@@ -845,9 +892,20 @@ public class PMVMatrix4f {
         setTextureDirty();
         return this;
     }
-    /** Push the {@link #getMv() modelview matrix} to its stack, while preserving its values. */
+    /**
+     * Push the {@link #getMv() modelview matrix} to its stack, while preserving its values.
+     * <p>
+     * The stack is preallocated for a depth of {@code 32} and grows if exceeded.
+     * </p>
+     */
     public final PMVMatrix4f pushMv() {
-        matMv.push();
+        if( mvStackPos >= mvStackRigid.length ) {
+            mvStack = Arrays.copyOf(mvStack, mvStack.length*2);
+            mvStackRigid = Arrays.copyOf(mvStackRigid, mvStackRigid.length*2);
+        }
+        matMv.get(mvStack, mvStackPos*16);
+        mvStackRigid[mvStackPos] = mvRigid;
+        ++mvStackPos;
         return this;
     }
     /** Push the {@link #getP() projection matrix} to its stack, while preserving its values. */
@@ -1149,10 +1207,42 @@ public class PMVMatrix4f {
      * @see #isReqDirty()
      */
     public final void setModelviewDirty() {
+        setMvDirty(false);
+    }
+
+    /**
+     * Returns {@code true} if the {@link #getMv() modelview matrix (Mv)} is known to be a rigid-body transformation,
+     * i.e. only composed of rotations and translations by this instance's operations.
+     * <p>
+     * In this case, {@link #getMvi() Mvi} is computed via {@link Matrix4f#invertOrthonormal(Matrix4f)}.
+     * Otherwise {@link Matrix4f#invertAffine(Matrix4f)} is used for {@link Matrix4f#isAffine() affine} Mv
+     * and the general {@link Matrix4f#invert(Matrix4f)} for all others.
+     * </p>
+     * <p>
+     * {@link #setModelviewDirty()}, {@link #mulMv(Matrix4f)} and loading an arbitrary matrix clear this state,
+     * while {@link #loadMvIdentity()}, {@link #loadMv(Quaternion)} and {@link #reset()} set it.
+     * </p>
+     */
+    public final boolean isMvRigid() {
+        return mvRigid;
+    }
+
+    private final void setMvDirty(final boolean rigid) {
+        mvRigid = rigid;
         dirtyBits |= requestBits | MANUAL_BITS ;
         modifiedBits |= MODIFIED_MODELVIEW;
     }
 
+    /** m = T(x, y, z) * m, i.e. pre-multiply the translation matrix. */
+    private static void preTranslate(final Matrix4f m, final float x, final float y, final float z) {
+        for(int c=0; c<16; c+=4) {
+            final float w = m.get(c+3);
+            m.set(c  , m.get(c  ) + x * w);
+            m.set(c+1, m.get(c+1) + y * w);
+            m.set(c+2, m.get(c+2) + z * w);
+        }
+    }
+
     /**
      * Sets the {@link #getP() Projection (P)} matrix dirty and modified,
      * i.e. adds {@link #MANUAL_BITS} to {@link #getDirtyBits() dirty bits}.
@@ -1325,7 +1415,9 @@ public class PMVMatrix4f {
             modifiedBits = 0;
         }
         if( 0 != ( requestBits & ( ( dirtyBits & ( INVERSE_MODELVIEW | INVERSE_TRANSPOSED_MODELVIEW ) ) ) ) ) { // only if dirt requested & dirty
-            if( !matMvi.invert(matMv) ) {
+            if( mvRigid ) {
+                matMvi.invertOrthonormal(matMv);
+            } else if( !( matMv.isAffine() ? matMvi.invertAffine(matMv) : matMvi.invert(matMv) ) ) {
                 throw new RuntimeException("Invalid source Mv matrix, can't compute inverse");
             }
             dirtyBits &= ~INVERSE_MODELVIEW;
@@ -1361,6 +1453,13 @@ public class PMVMatrix4f {
     protected final Matrix4f mat4Tmp1;
     private Matrix4f mat4Tmp2;
 
+    /** Initial {@link #pushMv()} stack depth, i.e. the minimum GL_MAX_MODELVIEW_STACK_DEPTH. */
+    private static final int MV_STACK_DEPTH = 32;
+    private float[] mvStack;
+    private boolean[] mvStackRigid;
+    private int mvStackPos;
+    private boolean mvRigid;
+
     private int modifiedBits = MODIFIED_ALL;
     private int dirtyBits = 0; // contains the dirty bits, i.e. hinting for update operation
     private final int requestBits; // may contain the requested bits: INVERSE_MODELVIEW | INVERSE_TRANSPOSED_MODELVIEW
@@ -0,0 +1,346 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.math.util;
+
+import com.jogamp.math.FloatUtil;
+import com.jogamp.math.Quaternion;
+
+/**
+ * Packed array of quaternions in structure-of-arrays layout,
+ * i.e. one {@code float[]} per {@link Quaternion} component.
+ * <p>
+ * Intended for skeleton and keyframe animation over thousands of joints,
+ * where per joint {@link Quaternion} instances cause allocation and dispatch per element.
+ * Bulk operations work in place on unit-stride component arrays w/o allocation:
+ * <ul>
+ *   <li>{@link #normalize(int, int) Normalization}</li>
+ *   <li>{@link #setSlerp(int, int, QuaternionArray, QuaternionArray, float) Spherical} and
+ *       {@link #setNlerp(int, int, QuaternionArray, QuaternionArray, float) normalized linear} interpolation</li>
+ *   <li>{@link #rotateVectors(int, int, float[], int, float[], int) Rotation} of packed vectors</li>
+ * </ul>
+ * Results may be composed with translation and scale into packed matrices via
+ * {@link Matrix4fArray#setToTRS(QuaternionArray, int, int, int, float[], int, float[], int)}.
+ * </p>
+ * <p>
+ * The component arrays are exposed for bulk updates.
+ * Instances are not thread safe.
+ * </p>
+ */
+public final class QuaternionArray {
+    private final int size;
+    /** x-component of all quaternions */
+    public final float[] x;
+    /** y-component of all quaternions */
+    public final float[] y;
+    /** z-component of all quaternions */
+    public final float[] z;
+    /** w-component of all quaternions */
+    public final float[] w;
+
+    /**
+     * Creates an array of {@code size} identity quaternions.
+     * @param size number of quaternions
+     */
+    public QuaternionArray(final int size) {
+        if( 0 > size ) {
+            throw new IllegalArgumentException("Negative size "+size);
+        }
+        this.size = size;
+        x = new float[size];
+        y = new float[size];
+        z = new float[size];
+        w = new float[size];
+        setIdentity(0, size);
+    }
+
+    /** Returns the number of quaternions. */
+    public int size() { return size; }
+
+    private void checkRange(final int first, final int n) throws IndexOutOfBoundsException {
+        if( 0 > first || 0 > n || first + n > size ) {
+            throw new IndexOutOfBoundsException("Range [first "+first+", count "+n+"] exceeds size "+size);
+        }
+    }
+
+    /**
+     * Sets the quaternion at index {@code i}.
+     * @return this instance for chaining
+     */
+    public QuaternionArray set(final int i, final float qx, final float qy, final float qz, final float qw) {
+        x[i] = qx; y[i] = qy; z[i] = qz; w[i] = qw;
+        return this;
+    }
+
+    /**
+     * Sets the quaternion at index {@code i} to the given {@link Quaternion}.
+     * @return this instance for chaining
+     */
+    public QuaternionArray set(final int i, final Quaternion q) {
+        return set(i, q.x(), q.y(), q.z(), q.w());
+    }
+
+    /**
+     * Sets {@code n} quaternions starting at index {@code first}
+     * from the packed array {@code xyzw}, i.e. 4 floats per quaternion in {@code x, y, z, w} order.
+     * @return this instance for chaining
+     */
+    public QuaternionArray set(final int first, final int n, final float[] xyzw, final int off) {
+        checkRange(first, n);
+        for(int i=0; i<n; i++) {
+            final int k = off + i*4;
+            set(first+i, xyzw[k], xyzw[k+1], xyzw[k+2], xyzw[k+3]);
+        }
+        return this;
+    }
+
+    /**
+     * Stores the quaternion at index {@code i} in the given {@link Quaternion}.
+     * @return the given {@code out} for chaining
+     */
+    public Quaternion get(final int i, final Quaternion out) {
+        return out.set(x[i], y[i], z[i], w[i]);
+    }
+
+    /**
+     * Stores {@code n} quaternions starting at index {@code first}
+     * in the packed array {@code xyzw}, i.e. 4 floats per quaternion in {@code x, y, z, w} order.
+     * @return the given {@code xyzw} for chaining
+     */
+    public float[] get(final int first, final int n, final float[] xyzw, final int off) {
+        checkRange(first, n);
+        for(int i=0; i<n; i++) {
+            final int k = off + i*4;
+            xyzw[k] = x[first+i]; xyzw[k+1] = y[first+i]; xyzw[k+2] = z[first+i]; xyzw[k+3] = w[first+i];
+        }
+        return xyzw;
+    }
+
+    /**
+     * Sets quaternions [{@code first}..{@code first+n}[ to identity.
+     * @return this instance for chaining
+     */
+    public QuaternionArray setIdentity(final int first, final int n) {
+        checkRange(first, n);
+        for(int i=first; i<first+n; i++) {
+            x[i] = 0f; y[i] = 0f; z[i] = 0f; w[i] = 1f;
+        }
+        return this;
+    }
+
+    /**
+     * Normalizes quaternions [{@code first}..{@code first+n}[,
+     * equal to {@link Quaternion#normalize()} per element.
+     * @return this instance for chaining
+     */
+    public QuaternionArray normalize(final int first, final int n) {
+        checkRange(first, n);
+        for(int i=first; i<first+n; i++) {
+            final float qx = x[i], qy = y[i], qz = z[i], qw = w[i];
+            final float norm2 = qw * qw + qx * qx + qy * qy + qz * qz;
+            if( FloatUtil.isZero(norm2) ) {
+                x[i] = 0f; y[i] = 0f; z[i] = 0f; w[i] = 1f;
+            } else if( !FloatUtil.isEqual(1f, norm2) ) {
+                final float invNorm = 1f / FloatUtil.sqrt(norm2);
+                x[i] = qx * invNorm; y[i] = qy * invNorm; z[i] = qz * invNorm; w[i] = qw * invNorm;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Sets quaternions [{@code first}..{@code first+n}[ to the normalized linear interpolation
+     * of {@code a} and {@code b} at the same indices using the uniform amount {@code t}.
+     * <p>
+     * The shortest path is used, i.e. {@code b} is negated if its dot product with {@code a} is negative.
+     * Nlerp is not of constant angular velocity as {@link #setSlerp(int, int, QuaternionArray, QuaternionArray, float) slerp},
+     * but considerably cheaper and commutative, hence suitable for blending animation poses.
+     * </p>
+     * <p>
+     * {@code a} and {@code b} may be this instance.
+     * </p>
+     * @param first index of the first quaternion
+     * @param n number of quaternions
+     * @param a start quaternions at {@code t == 0}
+     * @param b end quaternions at {@code t == 1}
+     * @param t interpolation amount in [0..1]
+     * @return this instance for chaining
+     */
+    public QuaternionArray setNlerp(final int first, final int n, final QuaternionArray a, final QuaternionArray b, final float t) {
+        return setNlerp(first, n, a, b, null, 0, t);
+    }
+
+    /**
+     * Variant of {@link #setNlerp(int, int, QuaternionArray, QuaternionArray, float)}
+     * using the individual amount {@code t[tOff+i]} for quaternion {@code first+i}.
+     * @return this instance for chaining
+     */
+    public QuaternionArray setNlerp(final int first, final int n, final QuaternionArray a, final QuaternionArray b, final float[] t, final int tOff) {
+        return setNlerp(first, n, a, b, t, tOff, 0f);
+    }
+
+    private QuaternionArray setNlerp(final int first, final int n, final QuaternionArray a, final QuaternionArray b,
+                                     final float[] ts, final int tOff, final float t0) {
+        checkRange(first, n);
+        a.checkRange(first, n);
+        b.checkRange(first, n);
+        final float[] ax = a.x, ay = a.y, az = a.z, aw = a.w;
+        final float[] bx = b.x, by = b.y, bz = b.z, bw = b.w;
+        for(int i=first, j=tOff; i<first+n; i++, j++) {
+            final float t = null != ts ? ts[j] : t0;
+            final float dot = ax[i] * bx[i] + ay[i] * by[i] + az[i] * bz[i] + aw[i] * bw[i];
+            final float s0 = 1f - t;
+            final float s1 = dot < 0f ? -t : t;
+            final float qx = ax[i] * s0 + bx[i] * s1;
+            final float qy = ay[i] * s0 + by[i] * s1;
+            final float qz = az[i] * s0 + bz[i] * s1;
+            final float qw = aw[i] * s0 + bw[i] * s1;
+            final float norm2 = qx * qx + qy * qy + qz * qz + qw * qw;
+            if( FloatUtil.isZero(norm2) ) {
+                x[i] = 0f; y[i] = 0f; z[i] = 0f; w[i] = 1f;
+            } else {
+                final float invNorm = 1f / FloatUtil.sqrt(norm2);
+                x[i] = qx * invNorm; y[i] = qy * invNorm; z[i] = qz * invNorm; w[i] = qw * invNorm;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Sets quaternions [{@code first}..{@code first+n}[ to the spherical linear interpolation
+     * of {@code a} and {@code b} at the same indices using the uniform amount {@code t},
+     * equal to {@link Quaternion#setSlerp(Quaternion, Quaternion, float)} per element.
+     * <p>
+     * {@code a} and {@code b} may be this instance.
+     * </p>
+     * @param first index of the first quaternion
+     * @param n number of quaternions
+     * @param a start quaternions at {@code t == 0}
+     * @param b end quaternions at {@code t == 1}
+     * @param t interpolation amount in [0..1]
+     * @return this instance for chaining
+     */
+    public QuaternionArray setSlerp(final int first, final int n, final QuaternionArray a, final QuaternionArray b, final float t) {
+        return setSlerp(first, n, a, b, null, 0, t);
+    }
+
+    /**
+     * Variant of {@link #setSlerp(int, int, QuaternionArray, QuaternionArray, float)}
+     * using the individual amount {@code t[tOff+i]} for quaternion {@code first+i}.
+     * @return this instance for chaining
+     */
+    public QuaternionArray setSlerp(final int first, final int n, final QuaternionArray a, final QuaternionArray b, final float[] t, final int tOff) {
+        return setSlerp(first, n, a, b, t, tOff, 0f);
+    }
+
+    private QuaternionArray setSlerp(final int first, final int n, final QuaternionArray a, final QuaternionArray b,
+                                     final float[] ts, final int tOff, final float t0) {
+        checkRange(first, n);
+        a.checkRange(first, n);
+        b.checkRange(first, n);
+        final float[] ax = a.x, ay = a.y, az = a.z, aw = a.w;
+        final float[] bx = b.x, by = b.y, bz = b.z, bw = b.w;
+        for(int i=first, j=tOff; i<first+n; i++, j++) {
+            final float t = null != ts ? ts[j] : t0;
+            // see Quaternion.setSlerp(..)
+            float scale0, scale1;
+            float cosHalfTheta = ax[i] * bx[i] + ay[i] * by[i] + az[i] * bz[i] + aw[i] * bw[i];
+            if( 0f == t ) {
+                scale0 = 1f; scale1 = 0f;
+            } else if( 1f == t ) {
+                scale0 = 0f; scale1 = 1f;
+            } else if( cosHalfTheta >= 0.95f ) {
+                // close, linear interpolation
+                scale0 = 1f - t; scale1 = t;
+            } else if( cosHalfTheta <= -0.99f ) {
+                // nearly opposite
+                scale0 = 0.5f; scale1 = 0.5f;
+            } else {
+                final float sign;
+                if( cosHalfTheta <= -FloatUtil.EPSILON ) {
+                    // invert b
+                    sign = -1f;
+                    cosHalfTheta = -cosHalfTheta;
+                } else {
+                    sign = 1f;
+                }
+                final float halfTheta = FloatUtil.acos(cosHalfTheta);
+                final float sinHalfTheta = FloatUtil.sqrt(1f - cosHalfTheta*cosHalfTheta);
+                if( Math.abs(sinHalfTheta) < 0.001f ) {
+                    scale0 = 0.5f; scale1 = 0.5f * sign;
+                } else {
+                    scale0 = FloatUtil.sin((1f - t) * halfTheta) / sinHalfTheta;
+                    scale1 = FloatUtil.sin(t * halfTheta) / sinHalfTheta * sign;
+                }
+            }
+            final float qx = ax[i] * scale0 + bx[i] * scale1;
+            final float qy = ay[i] * scale0 + by[i] * scale1;
+            final float qz = az[i] * scale0 + bz[i] * scale1;
+            final float qw = aw[i] * scale0 + bw[i] * scale1;
+            x[i] = qx; y[i] = qy; z[i] = qz; w[i] = qw;
+        }
+        return this;
+    }
+
+    /**
+     * Rotates {@code n} packed xyz vectors, vector {@code i} by unit quaternion {@code first+i},
+     * equal to {@link Quaternion#rotateVector(com.jogamp.math.Vec3f, com.jogamp.math.Vec3f)} per element.
+     * <p>
+     * {@code src} and {@code dst} may be the same array at the same offset.
+     * </p>
+     * @param first index of the first quaternion
+     * @param n number of vectors
+     * @param src source vectors, 3 floats per vector
+     * @param srcOff offset in {@code src}
+     * @param dst destination vectors, 3 floats per vector
+     * @param dstOff offset in {@code dst}
+     * @return the given {@code dst} for chaining
+     */
+    public float[] rotateVectors(final int first, final int n, final float[] src, final int srcOff, final float[] dst, final int dstOff) {
+        checkRange(first, n);
+        for(int i=0; i<n; i++) {
+            final int q = first + i;
+            final float qx = x[q], qy = y[q], qz = z[q], qw = w[q];
+            final int s = srcOff + i*3;
+            final float vx = src[s], vy = src[s+1], vz = src[s+2];
+            // v' = v + 2 * r x ( r x v + w * v ), r = (qx, qy, qz)
+            final float cx = qy * vz - qz * vy + qw * vx;
+            final float cy = qz * vx - qx * vz + qw * vy;
+            final float cz = qx * vy - qy * vx + qw * vz;
+            final int d = dstOff + i*3;
+            dst[d  ] = vx + 2f * ( qy * cz - qz * cy );
+            dst[d+1] = vy + 2f * ( qz * cx - qx * cz );
+            dst[d+2] = vz + 2f * ( qx * cy - qy * cx );
+        }
+        return dst;
+    }
+
+    @Override
+    public String toString() {
+        return "QuaternionArray[size "+size+"]";
+    }
+}
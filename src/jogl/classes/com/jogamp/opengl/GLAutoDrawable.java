@@ -45,6 +45,7 @@ import java.util.List;
 import com.jogamp.nativewindow.NativeSurface;
 
 import com.jogamp.common.util.locks.RecursiveLock;
+import com.jogamp.opengl.util.GLFrameTiming;
 
 import jogamp.opengl.Debug;
 
@@ -548,6 +549,23 @@ public interface GLAutoDrawable extends GLDrawable {
       drawable. See {@link #setAutoSwapBufferMode}. */
   public boolean getAutoSwapBufferMode();
 
+  /**
+   * Attaches the given {@link GLFrameTiming} instrumentation or detaches the current one if {@code null}.
+   * <p>
+   * While attached, the durations of makeCurrent, each {@link GLEventListener#display(GLAutoDrawable)},
+   * queued {@link GLRunnable}s and {@link #swapBuffers()} are recorded, see {@link GLFrameTiming}.
+   * </p>
+   * <p>
+   * Method may be called from any thread at any time, the change takes effect with the next frame.
+   * </p>
+   * @param frameTiming the {@link GLFrameTiming} to attach or {@code null}
+   * @return the previously attached {@link GLFrameTiming} or {@code null}
+   */
+  public GLFrameTiming setFrameTiming(GLFrameTiming frameTiming);
+
+  /** Returns the attached {@link GLFrameTiming} or {@code null}, see {@link #setFrameTiming(GLFrameTiming)}. */
+  public GLFrameTiming getFrameTiming();
+
   /**
    * @param flags Additional context creation flags.
    *
@@ -0,0 +1,341 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Low overhead OpenGL call profiler, counting calls per entry point
+ * of the composable {@code ProfileGL*} pipelines, e.g. {@link ProfileGL4bc} and {@link ProfileGLES3}.
+ * <p>
+ * Each call merely increments a primitive counter.
+ * If a {@link #setSampleInterval(int) sample interval} is set, every n-th call
+ * of each entry point is timed via {@link System#nanoTime()} as well
+ * and accumulated per call family, see {@link #getFamilyName(String)}.
+ * </p>
+ * <p>
+ * The profiler can be switched on and off on a live {@link GLAutoDrawable}
+ * via {@link #install(GLAutoDrawable)} and {@link #uninstall(GLAutoDrawable)},
+ * or installed manually:
+ * <pre>
+ *     final GLCallProfiler profiler = new GLCallProfiler();
+ *     gl = drawable.setGL( GLPipelineFactory.create("com.jogamp.opengl.Profile", null, drawable.getGL(), new Object[] { profiler } ) );
+ * </pre>
+ * </p>
+ * <p>
+ * Counters are updated by the rendering thread without synchronization,
+ * hence reports and {@link #reset()} issued from another thread are a close approximation only.
+ * One instance can only be used with pipelines of the same type.
+ * </p>
+ */
+public class GLCallProfiler {
+    /** Pipeline class base name for {@link GLPipelineFactory#create(String, Class, GL, Object[])}. */
+    public static final String PIPELINE_BASE_NAME = "com.jogamp.opengl.Profile";
+
+    /** Strips the parameter type suffix of an entry point, e.g. <code>glUniform4fv</code> -> <code>glUniform</code>. */
+    private static final Pattern familySuffix = Pattern.compile("[1-4](x[234])?N?(b|s|i|f|d|x|ub|us|ui|i64|ui64)v?$");
+
+    private String[] methodNames = null;
+    private long[] calls;
+    private long[] sampledCalls;
+    private long[] sampledNanos;
+    /** sample interval minus one or -1 if sampling is disabled, i.e. <code>0 != ( count & sampleMask )</code> always */
+    private volatile int sampleMask = -1;
+    private volatile GL pipeline = null;
+
+    /** Creates a profiler w/o time sampling. */
+    public GLCallProfiler() {
+    }
+
+    /**
+     * Creates a profiler.
+     * @param sampleInterval see {@link #setSampleInterval(int)}
+     */
+    public GLCallProfiler(final int sampleInterval) {
+        setSampleInterval(sampleInterval);
+    }
+
+    /**
+     * Sets the wall time sampling interval per entry point.
+     * @param interval zero to disable time sampling, otherwise a power of two,
+     *                 where one times each call.
+     * @throws IllegalArgumentException if interval is neither zero nor a power of two
+     */
+    public final void setSampleInterval(final int interval) throws IllegalArgumentException {
+        if( 0 > interval || 0 != ( interval & ( interval - 1 ) ) ) {
+            throw new IllegalArgumentException("Sample interval neither zero nor a power of two: "+interval);
+        }
+        sampleMask = 0 == interval ? -1 : interval - 1;
+    }
+
+    /** Returns the wall time sampling interval, zero if disabled. See {@link #setSampleInterval(int)}. */
+    public final int getSampleInterval() {
+        final int m = sampleMask;
+        return -1 == m ? 0 : m + 1;
+    }
+
+    /**
+     * Attaches the pipeline's method name table, called by the {@code ProfileGL*} constructor.
+     * @param methodNames the method names indexed by counter index
+     * @throws IllegalStateException if already attached to a different method name table, i.e. pipeline type
+     */
+    public final synchronized void attach(final String[] methodNames) throws IllegalStateException {
+        if( null == this.methodNames ) {
+            calls = new long[methodNames.length];
+            sampledCalls = new long[methodNames.length];
+            sampledNanos = new long[methodNames.length];
+            this.methodNames = methodNames;
+        } else if( this.methodNames != methodNames ) {
+            throw new IllegalStateException("Already attached to a different pipeline type");
+        }
+    }
+
+    /**
+     * Counts a call of the entry point at given index, called by the {@code ProfileGL*} pipeline.
+     * @return the start time in nanoseconds if this call shall be sampled, otherwise zero
+     */
+    public final long enter(final int idx) {
+        if( 0 == ( ++calls[idx] & sampleMask ) ) {
+            return System.nanoTime();
+        }
+        return 0;
+    }
+
+    /**
+     * Completes a call of the entry point at given index, called by the {@code ProfileGL*} pipeline.
+     * @param t0 the value returned by {@link #enter(int)}
+     */
+    public final void exit(final int idx, final long t0) {
+        if( 0 != t0 ) {
+            sampledNanos[idx] += System.nanoTime() - t0;
+            sampledCalls[idx]++;
+        }
+    }
+
+    /** Resets all counters to zero. */
+    public final synchronized void reset() {
+        if( null != methodNames ) {
+            for(int i=0; i<methodNames.length; i++) {
+                calls[i] = 0;
+                sampledCalls[i] = 0;
+                sampledNanos[i] = 0;
+            }
+        }
+    }
+
+    /** Returns the total number of counted calls. */
+    public final synchronized long getCallCount() {
+        long n = 0;
+        for(int i=0; null != methodNames && i<methodNames.length; i++) {
+            n += calls[i];
+        }
+        return n;
+    }
+
+    /** Returns the number of counted calls of the given entry point, summing up all its overloads. */
+    public final synchronized long getCallCount(final String methodName) {
+        long n = 0;
+        for(int i=0; null != methodNames && i<methodNames.length; i++) {
+            if( methodNames[i].equals(methodName) ) {
+                n += calls[i];
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Returns the call family of the given entry point,
+     * i.e. its name w/o parameter type suffix, e.g.
+     * <code>glUniform4fv</code> -> <code>glUniform</code>, <code>glVertexAttrib3f</code> -> <code>glVertexAttrib</code>
+     * or <code>glUniformMatrix4fv</code> -> <code>glUniformMatrix</code>.
+     */
+    public static String getFamilyName(final String methodName) {
+        return familySuffix.matcher(methodName).replaceFirst("");
+    }
+
+    /** Aggregated counters of one entry point or call family. */
+    public static class Entry {
+        /** Entry point or call family name */
+        public final String name;
+        /** Number of calls */
+        public long calls;
+        /** Number of timed calls */
+        public long sampledCalls;
+        /** Accumulated wall time of timed calls in nanoseconds */
+        public long sampledNanos;
+
+        Entry(final String name) {
+            this.name = name;
+        }
+
+        /** Returns the estimated wall time of all calls in nanoseconds, extrapolated from the timed calls. */
+        public final long getEstimatedNanos() {
+            return 0 < sampledCalls ? (long) ( (double)sampledNanos * calls / sampledCalls ) : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-32s %,12d calls, %,10.3f ms est (%d sampled)", name, calls, getEstimatedNanos()/1e6, sampledCalls);
+        }
+    }
+
+    private static final Comparator<Entry> byCalls = new Comparator<Entry>() {
+        @Override
+        public int compare(final Entry a, final Entry b) {
+            return Long.compare(b.calls, a.calls);
+        }
+    };
+
+    private static final Comparator<Entry> byTime = new Comparator<Entry>() {
+        @Override
+        public int compare(final Entry a, final Entry b) {
+            final int r = Long.compare(b.getEstimatedNanos(), a.getEstimatedNanos());
+            return 0 != r ? r : Long.compare(b.calls, a.calls);
+        }
+    };
+
+    private synchronized List<Entry> aggregate(final boolean family) {
+        final HashMap<String, Entry> map = new HashMap<String, Entry>();
+        final ArrayList<Entry> res = new ArrayList<Entry>();
+        for(int i=0; null != methodNames && i<methodNames.length; i++) {
+            if( 0 == calls[i] ) {
+                continue;
+            }
+            final String name = family ? getFamilyName(methodNames[i]) : methodNames[i];
+            Entry e = map.get(name);
+            if( null == e ) {
+                e = new Entry(name);
+                map.put(name, e);
+                res.add(e);
+            }
+            e.calls += calls[i];
+            e.sampledCalls += sampledCalls[i];
+            e.sampledNanos += sampledNanos[i];
+        }
+        return res;
+    }
+
+    private static List<Entry> top(final List<Entry> list, final Comparator<Entry> order, final int n) {
+        Collections.sort(list, order);
+        return n < list.size() ? new ArrayList<Entry>(list.subList(0, n)) : list;
+    }
+
+    /**
+     * Returns the top n called entry points by call count, overloads are summed up.
+     * @param n maximum number of returned entries
+     */
+    public final List<Entry> getTopCalls(final int n) {
+        return top(aggregate(false), byCalls, n);
+    }
+
+    /**
+     * Returns the top n call families by estimated wall time, or by call count if not sampled.
+     * @param n maximum number of returned entries
+     * @see #getFamilyName(String)
+     */
+    public final List<Entry> getTopFamilies(final int n) {
+        return top(aggregate(true), byTime, n);
+    }
+
+    /**
+     * Returns a report of the top n entry points by call count
+     * and the top n call families by estimated wall time.
+     */
+    public final String getReport(final int n) {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("GLCallProfiler: ").append(String.format("%,d", getCallCount())).append(" calls, sample interval ").append(getSampleInterval()).append(System.lineSeparator());
+        sb.append("Top ").append(n).append(" calls:").append(System.lineSeparator());
+        for(final Entry e : getTopCalls(n)) {
+            sb.append("  ").append(e).append(System.lineSeparator());
+        }
+        sb.append("Top ").append(n).append(" call families:").append(System.lineSeparator());
+        for(final Entry e : getTopFamilies(n)) {
+            sb.append("  ").append(e).append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Installs a {@code ProfileGL*} pipeline using this profiler on the given live {@link GLAutoDrawable},
+     * on top of its current {@link GL} pipeline.
+     * <p>
+     * The pipeline is installed on the drawable's GL thread via {@link GLAutoDrawable#invoke(boolean, GLRunnable)}.
+     * </p>
+     * @return true if installed, false if the drawable is not realized or the profiler is already installed
+     */
+    public final boolean install(final GLAutoDrawable drawable) {
+        if( null != pipeline ) {
+            return false;
+        }
+        final boolean[] res = { false };
+        drawable.invoke(true, new GLRunnable() {
+            @Override
+            public boolean run(final GLAutoDrawable glad) {
+                final GL gl = GLPipelineFactory.create(PIPELINE_BASE_NAME, null, glad.getGL(), new Object[] { GLCallProfiler.this });
+                glad.setGL(gl);
+                pipeline = gl;
+                res[0] = true;
+                return true;
+            } } );
+        return res[0];
+    }
+
+    /**
+     * Removes the {@code ProfileGL*} pipeline {@link #install(GLAutoDrawable) installed} by this profiler
+     * from the given live {@link GLAutoDrawable}, keeping the counters.
+     * @return true if removed, false if not installed or no more the top most pipeline
+     */
+    public final boolean uninstall(final GLAutoDrawable drawable) {
+        if( null == pipeline ) {
+            return false;
+        }
+        final boolean[] res = { false };
+        drawable.invoke(true, new GLRunnable() {
+            @Override
+            public boolean run(final GLAutoDrawable glad) {
+                final GL gl = pipeline;
+                if( null != gl && glad.getGL() == gl ) {
+                    glad.setGL(gl.getDownstreamGL());
+                    pipeline = null;
+                    res[0] = true;
+                }
+                return true;
+            } } );
+        return res[0];
+    }
+
+    @Override
+    public String toString() {
+        return "GLCallProfiler[calls "+getCallCount()+", sample interval "+getSampleInterval()+", installed "+(null != pipeline)+"]";
+    }
+}
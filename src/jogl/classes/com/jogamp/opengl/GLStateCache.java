@@ -0,0 +1,506 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl;
+
+import java.nio.IntBuffer;
+
+import com.jogamp.common.util.IntIntHashMap;
+
+/**
+ * Redundant OpenGL state call elimination, shadowing bindings and capabilities
+ * of one OpenGL context.
+ * <p>
+ * A GLStateCache is the <em>prolog</em> of the composable pipelines
+ * {@link StateCacheGL4bc}, {@link StateCacheGLES3} and {@link StateCacheGLES1}.
+ * The intercepted <code>gl*</code> methods below are only issued downstream
+ * if they would change the shadowed state, otherwise they are dropped and counted.
+ * All other OpenGL methods are passed through unchanged.
+ * </p>
+ * <p>
+ * Shadowed state:
+ * <ul>
+ *   <li>{@link #PROGRAM}: {@link GL2ES2#glUseProgram(int)}</li>
+ *   <li>{@link #TEXTURE}: {@link GL#glActiveTexture(int)} and {@link GL#glBindTexture(int, int)} per texture unit and target</li>
+ *   <li>{@link #BUFFER}: {@link GL#glBindBuffer(int, int)} per target and {@link GL2ES3#glBindVertexArray(int)}</li>
+ *   <li>{@link #CAPABILITY}: {@link GL#glEnable(int)} and {@link GL#glDisable(int)},
+ *       except the per texture unit fixed function texture enables</li>
+ *   <li>{@link #BLEND}: {@link GL#glBlendFunc(int, int)}, {@link GL#glBlendFuncSeparate(int, int, int, int)},
+ *       {@link GL#glBlendEquation(int)} and {@link GL#glBlendEquationSeparate(int, int)}</li>
+ *   <li>{@link #DEPTH}: {@link GL#glDepthFunc(int)} and {@link GL#glDepthMask(boolean)}</li>
+ * </ul>
+ * All state starts out as unknown, i.e. the first call of each kind is always issued.
+ * Hence the pipeline can be installed at any time, not only on a fresh context.
+ * </p>
+ * <p>
+ * The cache assumes error free usage and must see all state changes of its context.
+ * Deleting bound objects and {@link GL2#glPopAttrib()} are handled.
+ * State modified by other means, e.g. indexed, direct state access or multi-bind commands,
+ * by native code or via another {@link GL} instance of the same context,
+ * requires a call to {@link #invalidate()} afterwards.
+ * </p>
+ * <p>
+ * Instances are not thread safe, as they are bound to one OpenGL context.
+ * </p>
+ * <p>
+ * Sample code which installs this pipeline:
+ * <pre>
+ *     final GLStateCache stateCache = new GLStateCache(drawable.getGL());
+ *     gl = drawable.setGL( GLPipelineFactory.create("com.jogamp.opengl.StateCache", null, drawable.getGL(), new Object[] { stateCache } ) );
+ * </pre>
+ * </p>
+ */
+public class GLStateCache {
+    /** Counter category of program changes, see {@link #getDroppedCount(int)}. */
+    public static final int PROGRAM = 0;
+    /** Counter category of texture unit and texture binding changes, see {@link #getDroppedCount(int)}. */
+    public static final int TEXTURE = 1;
+    /** Counter category of buffer and vertex array binding changes, see {@link #getDroppedCount(int)}. */
+    public static final int BUFFER = 2;
+    /** Counter category of capability changes, see {@link #getDroppedCount(int)}. */
+    public static final int CAPABILITY = 3;
+    /** Counter category of blend function and equation changes, see {@link #getDroppedCount(int)}. */
+    public static final int BLEND = 4;
+    /** Counter category of depth function and mask changes, see {@link #getDroppedCount(int)}. */
+    public static final int DEPTH = 5;
+    private static final int CATEGORY_COUNT = 6;
+    private static final String[] categoryNames = { "program", "texture", "buffer", "capability", "blend", "depth" };
+
+    /** Unknown state marker */
+    private static final int UNKNOWN = -1;
+    /** avoid rehash of usual binding and capability maps */
+    private static final int MAP_CAPACITY = 32;
+
+    private final GL downstream;
+    private final GL2ES2 gl2es2;
+    private final GL2ES3 gl2es3;
+    private final GL2 gl2;
+
+    private final long[] issued = new long[CATEGORY_COUNT];
+    private final long[] dropped = new long[CATEGORY_COUNT];
+    private boolean enabled = true;
+
+    private int program;
+    private int activeTexture;
+    /** (texture unit index << 16) | target -> texture name */
+    private final IntIntHashMap textures;
+    /** target -> buffer name */
+    private final IntIntHashMap buffers;
+    private int vertexArray;
+    /** capability -> 0 disabled, 1 enabled */
+    private final IntIntHashMap caps;
+    private int blendSrcRGB, blendDstRGB, blendSrcAlpha, blendDstAlpha;
+    private int blendEqRGB, blendEqAlpha;
+    private int depthFunc;
+    private int depthMask;
+
+    /**
+     * Creates a state cache for the given downstream {@link GL},
+     * which must be the downstream of the pipeline using this instance as its prolog.
+     * @param downstream the {@link GL} instance intercepted calls are issued to
+     */
+    public GLStateCache(final GL downstream) {
+        if( null == downstream ) {
+            throw new IllegalArgumentException("null downstream");
+        }
+        this.downstream = downstream;
+        // resolve by type, not by profile: an ES2 context's GLES3Impl is no GL2ES3 profile,
+        // but dispatches glBindVertexArray etc if available, e.g. via OES_vertex_array_object
+        this.gl2es2 = downstream instanceof GL2ES2 ? (GL2ES2)downstream : null;
+        this.gl2es3 = downstream instanceof GL2ES3 ? (GL2ES3)downstream : null;
+        this.gl2 = downstream instanceof GL2 ? (GL2)downstream : null;
+        textures = new IntIntHashMap(MAP_CAPACITY, 0.75f);
+        textures.setKeyNotFoundValue(UNKNOWN);
+        buffers = new IntIntHashMap(MAP_CAPACITY, 0.75f);
+        buffers.setKeyNotFoundValue(UNKNOWN);
+        caps = new IntIntHashMap(MAP_CAPACITY, 0.75f);
+        caps.setKeyNotFoundValue(UNKNOWN);
+        invalidate();
+    }
+
+    /** Returns the downstream {@link GL} intercepted calls are issued to. */
+    public final GL getDownstreamGL() { return downstream; }
+
+    /**
+     * Enables or disables redundant call elimination, enabled by default.
+     * <p>
+     * While disabled all calls are issued and no state is shadowed,
+     * hence re-enabling starts with {@link #invalidate() unknown state}.
+     * </p>
+     */
+    public final void setEnabled(final boolean on) {
+        if( on != enabled ) {
+            enabled = on;
+            invalidate();
+        }
+    }
+
+    /** Returns true if redundant call elimination is enabled, see {@link #setEnabled(boolean)}. */
+    public final boolean isEnabled() { return enabled; }
+
+    /**
+     * Marks all shadowed state as unknown, to be called after the context state
+     * has been modified bypassing this cache.
+     */
+    public final void invalidate() {
+        program = UNKNOWN;
+        activeTexture = UNKNOWN;
+        textures.clear();
+        buffers.clear();
+        vertexArray = UNKNOWN;
+        caps.clear();
+        invalidateBlend();
+        depthFunc = UNKNOWN;
+        depthMask = UNKNOWN;
+    }
+    private final void invalidateBlend() {
+        blendSrcRGB = UNKNOWN; blendDstRGB = UNKNOWN; blendSrcAlpha = UNKNOWN; blendDstAlpha = UNKNOWN;
+        blendEqRGB = UNKNOWN; blendEqAlpha = UNKNOWN;
+    }
+
+    /**
+     * Returns the number of dropped redundant calls of the given category.
+     * @param category one of {@link #PROGRAM}, {@link #TEXTURE}, {@link #BUFFER}, {@link #CAPABILITY}, {@link #BLEND} or {@link #DEPTH}
+     */
+    public final long getDroppedCount(final int category) { return dropped[category]; }
+
+    /**
+     * Returns the number of issued intercepted calls of the given category.
+     * @param category see {@link #getDroppedCount(int)}
+     */
+    public final long getIssuedCount(final int category) { return issued[category]; }
+
+    /** Returns the number of dropped redundant calls of all categories. */
+    public final long getDroppedCount() {
+        long n = 0;
+        for(int i=0; i<CATEGORY_COUNT; i++) { n += dropped[i]; }
+        return n;
+    }
+
+    /** Returns the number of issued intercepted calls of all categories. */
+    public final long getIssuedCount() {
+        long n = 0;
+        for(int i=0; i<CATEGORY_COUNT; i++) { n += issued[i]; }
+        return n;
+    }
+
+    /** Resets all issued and dropped counter to zero. */
+    public final void resetCounter() {
+        for(int i=0; i<CATEGORY_COUNT; i++) {
+            issued[i] = 0;
+            dropped[i] = 0;
+        }
+    }
+
+    //
+    // Program
+    //
+
+    public void glUseProgram(final int program) {
+        if( enabled && program == this.program ) {
+            dropped[PROGRAM]++;
+            return;
+        }
+        issued[PROGRAM]++;
+        gl2es2.glUseProgram(program);
+        if( enabled ) {
+            this.program = program;
+        }
+    }
+
+    //
+    // Textures
+    //
+
+    public void glActiveTexture(final int texture) {
+        if( enabled && texture == activeTexture ) {
+            dropped[TEXTURE]++;
+            return;
+        }
+        issued[TEXTURE]++;
+        downstream.glActiveTexture(texture);
+        if( enabled ) {
+            activeTexture = texture;
+        }
+    }
+
+    public void glBindTexture(final int target, final int texture) {
+        final int key = enabled ? getTextureKey(target) : UNKNOWN;
+        if( UNKNOWN != key && texture == textures.get(key) ) {
+            dropped[TEXTURE]++;
+            return;
+        }
+        issued[TEXTURE]++;
+        downstream.glBindTexture(target, texture);
+        if( UNKNOWN != key ) {
+            textures.put(key, texture);
+        }
+    }
+
+    /** Returns the texture binding key of the active texture unit, queried once if unknown, or {@link #UNKNOWN}. */
+    private final int getTextureKey(final int target) {
+        if( UNKNOWN == activeTexture ) {
+            final int[] tmp = { 0 };
+            downstream.glGetIntegerv(GL.GL_ACTIVE_TEXTURE, tmp, 0);
+            if( GL.GL_TEXTURE0 > tmp[0] ) {
+                return UNKNOWN;
+            }
+            activeTexture = tmp[0];
+        }
+        return ( ( activeTexture - GL.GL_TEXTURE0 ) << 16 ) | ( target & 0xFFFF );
+    }
+
+    public void glDeleteTextures(final int n, final int[] textures, final int textures_offset) {
+        downstream.glDeleteTextures(n, textures, textures_offset);
+        this.textures.clear(); // deleted bound textures revert to zero
+    }
+
+    public void glDeleteTextures(final int n, final IntBuffer textures) {
+        downstream.glDeleteTextures(n, textures);
+        this.textures.clear();
+    }
+
+    //
+    // Buffers and vertex arrays
+    //
+
+    public void glBindBuffer(final int target, final int buffer) {
+        if( enabled && buffer == buffers.get(target) ) {
+            dropped[BUFFER]++;
+            return;
+        }
+        issued[BUFFER]++;
+        downstream.glBindBuffer(target, buffer);
+        if( enabled ) {
+            buffers.put(target, buffer);
+        }
+    }
+
+    public void glBindBufferBase(final int target, final int index, final int buffer) {
+        issued[BUFFER]++;
+        gl2es3.glBindBufferBase(target, index, buffer);
+        if( enabled ) {
+            buffers.put(target, buffer); // also binds the generic binding point
+        }
+    }
+
+    public void glBindBufferRange(final int target, final int index, final int buffer, final long offset, final long size) {
+        issued[BUFFER]++;
+        gl2es3.glBindBufferRange(target, index, buffer, offset, size);
+        if( enabled ) {
+            buffers.put(target, buffer);
+        }
+    }
+
+    public void glDeleteBuffers(final int n, final int[] buffers, final int buffers_offset) {
+        downstream.glDeleteBuffers(n, buffers, buffers_offset);
+        this.buffers.clear(); // deleted bound buffers revert to zero
+    }
+
+    public void glDeleteBuffers(final int n, final IntBuffer buffers) {
+        downstream.glDeleteBuffers(n, buffers);
+        this.buffers.clear();
+    }
+
+    public void glBindVertexArray(final int array) {
+        if( enabled && array == vertexArray ) {
+            dropped[BUFFER]++;
+            return;
+        }
+        issued[BUFFER]++;
+        gl2es3.glBindVertexArray(array);
+        if( enabled ) {
+            vertexArray = array;
+        }
+        buffers.remove(GL.GL_ELEMENT_ARRAY_BUFFER); // part of the vertex array state
+    }
+
+    public void glDeleteVertexArrays(final int n, final int[] arrays, final int arrays_offset) {
+        gl2es3.glDeleteVertexArrays(n, arrays, arrays_offset);
+        vertexArray = UNKNOWN; // a deleted bound vertex array reverts to zero
+        buffers.remove(GL.GL_ELEMENT_ARRAY_BUFFER);
+    }
+
+    public void glDeleteVertexArrays(final int n, final IntBuffer arrays) {
+        gl2es3.glDeleteVertexArrays(n, arrays);
+        vertexArray = UNKNOWN;
+        buffers.remove(GL.GL_ELEMENT_ARRAY_BUFFER);
+    }
+
+    //
+    // Capabilities
+    //
+
+    public void glEnable(final int cap) {
+        if( setCap(cap, 1) ) {
+            downstream.glEnable(cap);
+        }
+    }
+
+    public void glDisable(final int cap) {
+        if( setCap(cap, 0) ) {
+            downstream.glDisable(cap);
+        }
+    }
+
+    /** Returns true if the capability change shall be issued, otherwise counts it as dropped. */
+    private final boolean setCap(final int cap, final int value) {
+        if( enabled && !isTextureUnitCap(cap) ) {
+            if( value == caps.put(cap, value) ) {
+                dropped[CAPABILITY]++;
+                return false;
+            }
+        }
+        issued[CAPABILITY]++;
+        return true;
+    }
+
+    /** Fixed function texture enables are per texture unit and hence not shadowed. */
+    private static boolean isTextureUnitCap(final int cap) {
+        switch( cap ) {
+            case GL.GL_TEXTURE_2D:
+            case GL.GL_TEXTURE_CUBE_MAP:
+            case GL2ES2.GL_TEXTURE_3D:
+            case GL2GL3.GL_TEXTURE_1D:
+            case GL2GL3.GL_TEXTURE_RECTANGLE:
+            case GLES2.GL_TEXTURE_EXTERNAL_OES:
+            case GL2.GL_TEXTURE_GEN_S:
+            case GL2.GL_TEXTURE_GEN_T:
+            case GL2.GL_TEXTURE_GEN_R:
+            case GL2.GL_TEXTURE_GEN_Q:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    //
+    // Blending
+    //
+
+    public void glBlendFunc(final int sfactor, final int dfactor) {
+        if( enabled && sfactor == blendSrcRGB && dfactor == blendDstRGB && sfactor == blendSrcAlpha && dfactor == blendDstAlpha ) {
+            dropped[BLEND]++;
+            return;
+        }
+        issued[BLEND]++;
+        downstream.glBlendFunc(sfactor, dfactor);
+        if( enabled ) {
+            blendSrcRGB = sfactor; blendDstRGB = dfactor; blendSrcAlpha = sfactor; blendDstAlpha = dfactor;
+        }
+    }
+
+    public void glBlendFuncSeparate(final int sfactorRGB, final int dfactorRGB, final int sfactorAlpha, final int dfactorAlpha) {
+        if( enabled && sfactorRGB == blendSrcRGB && dfactorRGB == blendDstRGB && sfactorAlpha == blendSrcAlpha && dfactorAlpha == blendDstAlpha ) {
+            dropped[BLEND]++;
+            return;
+        }
+        issued[BLEND]++;
+        downstream.glBlendFuncSeparate(sfactorRGB, dfactorRGB, sfactorAlpha, dfactorAlpha);
+        if( enabled ) {
+            blendSrcRGB = sfactorRGB; blendDstRGB = dfactorRGB; blendSrcAlpha = sfactorAlpha; blendDstAlpha = dfactorAlpha;
+        }
+    }
+
+    public void glBlendEquation(final int mode) {
+        if( enabled && mode == blendEqRGB && mode == blendEqAlpha ) {
+            dropped[BLEND]++;
+            return;
+        }
+        issued[BLEND]++;
+        downstream.glBlendEquation(mode);
+        if( enabled ) {
+            blendEqRGB = mode; blendEqAlpha = mode;
+        }
+    }
+
+    public void glBlendEquationSeparate(final int modeRGB, final int modeAlpha) {
+        if( enabled && modeRGB == blendEqRGB && modeAlpha == blendEqAlpha ) {
+            dropped[BLEND]++;
+            return;
+        }
+        issued[BLEND]++;
+        downstream.glBlendEquationSeparate(modeRGB, modeAlpha);
+        if( enabled ) {
+            blendEqRGB = modeRGB; blendEqAlpha = modeAlpha;
+        }
+    }
+
+    //
+    // Depth
+    //
+
+    public void glDepthFunc(final int func) {
+        if( enabled && func == depthFunc ) {
+            dropped[DEPTH]++;
+            return;
+        }
+        issued[DEPTH]++;
+        downstream.glDepthFunc(func);
+        if( enabled ) {
+            depthFunc = func;
+        }
+    }
+
+    public void glDepthMask(final boolean flag) {
+        final int value = flag ? 1 : 0;
+        if( enabled && value == depthMask ) {
+            dropped[DEPTH]++;
+            return;
+        }
+        issued[DEPTH]++;
+        downstream.glDepthMask(flag);
+        if( enabled ) {
+            depthMask = value;
+        }
+    }
+
+    //
+    // Attribute stack
+    //
+
+    public void glPopAttrib() {
+        gl2.glPopAttrib();
+        invalidate();
+    }
+
+    public void glPopClientAttrib() {
+        gl2.glPopClientAttrib();
+        invalidate();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("GLStateCache[enabled ").append(enabled).append(", dropped/issued ").append(getDroppedCount()).append("/").append(getIssuedCount());
+        for(int i=0; i<CATEGORY_COUNT; i++) {
+            sb.append(", ").append(categoryNames[i]).append(" ").append(dropped[i]).append("/").append(issued[i]);
+        }
+        sb.append("]");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,22 @@
+package com.jogamp.opengl;
+
+/**
+ * <p>
+ * Composable pipeline which wraps an underlying {@link GL} implementation,
+ * counting each OpenGL method call and optionally sampling its wall time
+ * with a user-specified {@link GLCallProfiler}.
+ * </p>
+ * <p>
+ * Sample code which installs this pipeline, manual:
+ * <pre>
+ *     gl = drawable.setGL(new ProfileGL(drawable.getGL(), new GLCallProfiler()));
+ * </pre>
+ * For automatic instantiation see {@link GLPipelineFactory#create(String, Class, GL, Object[])}
+ * or {@link GLCallProfiler#install(GLAutoDrawable)}.
+ * </p>
+ */
+public class ProfileGL3bc extends ProfileGL4bc {
+    public ProfileGL3bc(final GL3bc downstream, final GLCallProfiler profiler) {
+        super((GL4bc)downstream, profiler);
+    }
+}
@@ -100,6 +100,7 @@ import com.jogamp.nativewindow.awt.AWTWindowClosingProtocol;
 import com.jogamp.nativewindow.awt.JAWTWindow;
 import com.jogamp.opengl.JoglVersion;
 import com.jogamp.opengl.util.GLDrawableUtil;
+import com.jogamp.opengl.util.GLFrameTiming;
 import com.jogamp.opengl.util.TileRenderer;
 
 import jogamp.nativewindow.SurfaceScaleUtils;
@@ -1197,6 +1198,16 @@ public class GLCanvas extends Canvas implements AWTGLAutoDrawable, WindowClosing
     return helper.getAutoSwapBufferMode();
   }
 
+  @Override
+  public GLFrameTiming setFrameTiming(final GLFrameTiming frameTiming) {
+    return helper.setFrameTiming(frameTiming);
+  }
+
+  @Override
+  public GLFrameTiming getFrameTiming() {
+    return helper.getFrameTiming();
+  }
+
   @Override
   public void swapBuffers() {
     Threading.invoke(true, swapBuffersOnEDTAction, getTreeLock());
@@ -110,6 +110,7 @@ import com.jogamp.opengl.GLRendererQuirks;
 import com.jogamp.opengl.util.GLPixelBuffer.GLPixelAttributes;
 import com.jogamp.opengl.util.GLPixelBuffer.SingletonGLPixelBufferProvider;
 import com.jogamp.opengl.util.GLDrawableUtil;
+import com.jogamp.opengl.util.GLFrameTiming;
 import com.jogamp.opengl.util.GLPixelStorageModes;
 import com.jogamp.opengl.util.TileRenderer;
 import com.jogamp.opengl.util.awt.AWTGLPixelBuffer;
@@ -1177,6 +1178,22 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
     return autoSwapBufferMode;
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The swap time is not recorded, since this implementation handles swapping itself.
+   * </p>
+   */
+  @Override
+  public GLFrameTiming setFrameTiming(final GLFrameTiming frameTiming) {
+    return helper.setFrameTiming(frameTiming);
+  }
+
+  @Override
+  public GLFrameTiming getFrameTiming() {
+    return helper.getFrameTiming();
+  }
+
   @Override
   public void swapBuffers() {
     if( isInitialized ) {
@@ -54,6 +54,7 @@ import com.jogamp.opengl.GLProfile;
 import com.jogamp.opengl.GLRunnable;
 import com.jogamp.opengl.GLSharedContextSetter;
 import com.jogamp.opengl.Threading;
+import com.jogamp.opengl.util.GLFrameTiming;
 
 import jogamp.nativewindow.macosx.OSXUtil;
 import jogamp.nativewindow.x11.X11Util;
@@ -779,6 +780,16 @@ public class GLCanvas extends Canvas implements GLAutoDrawable, GLSharedContextS
       return helper.getAutoSwapBufferMode();
    }
 
+   @Override
+   public GLFrameTiming setFrameTiming(final GLFrameTiming frameTiming) {
+      return helper.setFrameTiming(frameTiming);
+   }
+
+   @Override
+   public GLFrameTiming getFrameTiming() {
+      return helper.getFrameTiming();
+   }
+
    @Override
    public final GLDrawable getDelegatedDrawable() {
       return drawable;
@@ -584,12 +584,27 @@ public abstract class AnimatorBase implements GLAnimatorControl {
         boolean eval();
     }
 
+    /**
+     * Returns <code>true</code> if the given thread is driven by this animator and hence
+     * must not block in {@link #finishLifecycleAction(Condition, long)}, otherwise <code>false</code>.
+     * <p>
+     * Default implementation only matches the {@link #getThread() animator thread}.
+     * </p>
+     * <p>
+     * Method is called while holding this animator's lock.
+     * </p>
+     */
+    protected boolean isAnimatorThread(final Thread thread) {
+        return thread == animThread;
+    }
+
     /**
      * @param waitCondition method will wait until TO is reached or {@link Condition#eval() waitCondition.eval()} returns <code>false</code>.
      * @param pollPeriod if <code>0</code>, method will wait until TO is reached or being notified.
      *                   if &gt; <code>0</code>, method will wait for the given <code>pollPeriod</code> in milliseconds.
      * @return <code>true</code> if {@link Condition#eval() waitCondition.eval()} returned <code>false</code>
-     *         or if {@link AnimatorImpl#blockUntilDone(Thread) non-blocking}. Otherwise returns <code>false</code>.
+     *         or if {@link AnimatorImpl#blockUntilDone(Thread) non-blocking} or called by an {@link #isAnimatorThread(Thread) animator thread}.
+     *         Otherwise returns <code>false</code>.
      */
     protected final synchronized boolean finishLifecycleAction(final Condition waitCondition, long pollPeriod) {
         /**
@@ -603,7 +618,7 @@ public abstract class AnimatorBase implements GLAnimatorControl {
         long remaining;
         boolean nok;
 
-        if( impl.blockUntilDone(animThread) ) {
+        if( impl.blockUntilDone(animThread) && !isAnimatorThread(Thread.currentThread()) ) {
             blocking = true;
             remaining = TO_WAIT_FOR_FINISH_LIFECYCLE_ACTION;
             if( 0 >= pollPeriod ) {
@@ -0,0 +1,565 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import com.jogamp.common.util.InterruptSource;
+import com.jogamp.common.util.InterruptedRuntimeException;
+import com.jogamp.nativewindow.util.PixelFormat;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2ES3;
+import com.jogamp.opengl.GL3ES3;
+import com.jogamp.opengl.GLBufferStorage;
+import com.jogamp.opengl.GLDrawable;
+import com.jogamp.opengl.GLException;
+import com.jogamp.opengl.util.GLPixelBuffer.GLPixelAttributes;
+import com.jogamp.opengl.util.GLPixelBuffer.GLPixelBufferProvider;
+import com.jogamp.opengl.util.texture.TextureData;
+
+import jogamp.opengl.Debug;
+
+/**
+ * {@link GLReadBufferUtil} specialization reading out the framebuffer asynchronously,
+ * avoiding a pipeline stall per captured frame, e.g. for video encoding or remote streaming.
+ * <p>
+ * Each {@link #readPixelsAsync(GL, int, int, int, int, boolean) readPixelsAsync(..)} call issues {@link GL#glReadPixels(int, int, int, int, int, int, long) glReadPixels}
+ * into the next of a ring of pixel-pack buffers guarded by a {@link GL3ES3#glFenceSync(int, int) fence}
+ * and delivers all previously issued captures whose fence has been signaled.
+ * Hence a capture issued in frame N is typically delivered in frame N+1 or N+2,
+ * while the GPU transfers the pixels in parallel to rendering.
+ * If all ring buffers are still in flight, the oldest capture is waited for, see {@link #getStalledCount()}.
+ * </p>
+ * <p>
+ * The worker thread's queue holds at most {@link #getRingSize() ring size} captures.
+ * If the {@link Listener} can't keep up, the GL thread blocks until the worker has taken the oldest queued capture,
+ * see {@link #getStalledCount()}. Hence the number of client {@link GLPixelBuffer}s stays bounded.
+ * </p>
+ * <p>
+ * Delivered pixels are copied to a client {@link GLPixelBuffer} allocated via the {@link GLPixelBufferProvider}
+ * and passed to the {@link Listener} along with a referencing {@link TextureData}.
+ * With a worker thread, vertical flipping is performed on the pixels by the worker, which also invokes the {@link Listener}.
+ * Otherwise the {@link Listener} is invoked on the GL thread and flipping is propagated to the {@link TextureData}
+ * like {@link GLReadBufferUtil#readPixels(GL, int, int, int, int, boolean)} does.
+ * </p>
+ * <p>
+ * W/o {@link GL#isGL3ES3() GL3ES3}, i.e. fence sync, captures are read synchronously and delivered immediately on the GL thread.
+ * </p>
+ * <p>
+ * The synchronous {@link #readPixels(GL, boolean) readPixels(..)} methods of {@link GLReadBufferUtil} remain functional.
+ * </p>
+ */
+public class AsyncGLReadBufferUtil extends GLReadBufferUtil {
+    private static final boolean DEBUG = Debug.debug("AsyncGLReadBufferUtil");
+
+    /** Receives captured pixels, see {@link AsyncGLReadBufferUtil}. */
+    public static interface Listener {
+        /**
+         * The pixels of a capture are available.
+         * <p>
+         * The {@link GLPixelBuffer} and {@link TextureData} are only valid until this method returns,
+         * their memory is reused by subsequent captures.
+         * </p>
+         * @param frame the capture's sequence number, starting with {@code 0} for the first {@link AsyncGLReadBufferUtil#readPixelsAsync(GL, int, int, int, int, boolean) issued} capture
+         * @param pixels the captured pixels
+         * @param data {@link TextureData} referencing {@code pixels}
+         */
+        void pixelsRead(long frame, GLPixelBuffer pixels, TextureData data);
+    }
+
+    /** A pixel-pack buffer of the ring and its capture in flight, GL thread only. */
+    private static final class Slot {
+        int pbo = 0;
+        int capacity = 0;
+        long fence = 0;
+        long frame;
+        int width, height, byteSize, rowBytes, stride;
+        int internalFormat;
+        PixelFormat.Composition hostPixelComp;
+        GLPixelAttributes pixelAttribs;
+        boolean flipVertically;
+    }
+
+    /** A capture handed over to the worker thread. */
+    private static final class Delivery {
+        final long frame;
+        final GLPixelBuffer pixels;
+        final TextureData data;
+        final int rowBytes, stride;
+        final boolean flipVertically;
+        Delivery(final long frame, final GLPixelBuffer pixels, final TextureData data, final int rowBytes, final int stride, final boolean flipVertically) {
+            this.frame = frame;
+            this.pixels = pixels;
+            this.data = data;
+            this.rowBytes = rowBytes;
+            this.stride = stride;
+            this.flipVertically = flipVertically;
+        }
+    }
+    private static final Delivery END = new Delivery(-1, null, null, 0, 0, false);
+
+    private final Listener listener;
+    private final Slot[] ring;
+    private final ConcurrentLinkedQueue<GLPixelBuffer> freePixels = new ConcurrentLinkedQueue<GLPixelBuffer>();
+    private final LinkedBlockingQueue<Delivery> deliveries;
+    private final Worker worker;
+
+    // GL thread only
+    private boolean glInitialized = false;
+    private boolean async = false;
+    private int writeIdx = 0;
+    private int readIdx = 0;
+    private int inFlight = 0;
+    private long issued = 0;
+    private long delivered = 0;
+    private long stalled = 0;
+    private volatile boolean disposed = false;
+
+    /**
+     * Using the default {@link GLPixelBuffer}: {@link GLPixelBuffer#defaultProviderNoRowStride}.
+     * @param requestAlpha true for RGBA readPixels, otherwise RGB readPixels
+     * @param ringSize number of pixel-pack buffers, i.e. maximum captures in flight, minimum 2
+     * @param useWorker if true, vertical flipping and the {@link Listener} are performed on a worker thread, otherwise on the GL thread
+     * @param listener receiving the captured pixels
+     */
+    public AsyncGLReadBufferUtil(final boolean requestAlpha, final int ringSize, final boolean useWorker, final Listener listener) {
+        this(GLPixelBuffer.defaultProviderNoRowStride, requestAlpha, ringSize, useWorker, listener);
+    }
+
+    /**
+     * @param pixelBufferProvider custom {@link GLPixelBuffer}, producing {@link ByteBuffer} or {@link IntBuffer} backed buffers
+     * @param requestAlpha true for RGBA readPixels, otherwise RGB readPixels
+     * @param ringSize number of pixel-pack buffers, i.e. maximum captures in flight, minimum 2
+     * @param useWorker if true, vertical flipping and the {@link Listener} are performed on a worker thread, otherwise on the GL thread
+     * @param listener receiving the captured pixels
+     */
+    public AsyncGLReadBufferUtil(final GLPixelBufferProvider pixelBufferProvider, final boolean requestAlpha,
+                                 final int ringSize, final boolean useWorker, final Listener listener) {
+        super(pixelBufferProvider, requestAlpha, false);
+        if( null == listener ) {
+            throw new IllegalArgumentException("Null listener");
+        }
+        this.listener = listener;
+        ring = new Slot[Math.max(2, ringSize)];
+        for(int i=0; i<ring.length; i++) {
+            ring[i] = new Slot();
+        }
+        if( useWorker ) {
+            deliveries = new LinkedBlockingQueue<Delivery>(ring.length);
+            worker = new Worker();
+            worker.start();
+        } else {
+            deliveries = null;
+            worker = null;
+        }
+    }
+
+    /** Returns the number of pixel-pack buffers. */
+    public final int getRingSize() { return ring.length; }
+    /** Returns true if captures are read asynchronously. Only valid after the first {@link #readPixelsAsync(GL, int, int, int, int, boolean)} call. */
+    public final boolean isAsync() { return async; }
+    /** Returns the number of issued captures. */
+    public final long getIssuedCount() { return issued; }
+    /** Returns the number of captures read back from the GPU, i.e. handed to the {@link Listener} or the worker thread. */
+    public final long getDeliveredCount() { return delivered; }
+    /** Returns the number of captures currently in flight on the GPU. */
+    public final int getInFlightCount() { return inFlight; }
+    /** Returns the number of captures, which had to wait for a full ring's oldest capture or for the worker thread's full queue. */
+    public final long getStalledCount() { return stalled; }
+
+    /**
+     * Issues an asynchronous capture of the drawable's pixels and delivers all completed captures to the {@link Listener}.
+     * @see #readPixelsAsync(GL, int, int, int, int, boolean)
+     */
+    public boolean readPixelsAsync(final GL gl, final boolean mustFlipVertically) throws GLException {
+        return readPixelsAsync(gl, 0, 0, 0, 0, mustFlipVertically);
+    }
+
+    /**
+     * Issues an asynchronous capture of the drawable's pixels and delivers all completed captures to the {@link Listener}.
+     * <p>
+     * Must be called on the GL thread with a current context, e.g. at the end of {@code display(..)}.
+     * </p>
+     * <p>
+     * Blocks while the worker thread's queue is full.
+     * </p>
+     * @param gl the current GL context object. It's read drawable is being used as the pixel source.
+     * @param inX readPixel x offset
+     * @param inY readPixel y offset
+     * @param inWidth optional readPixel width value, used if [1 .. drawable.width], otherwise using drawable.width
+     * @param inHeight optional readPixel height, used if [1 .. drawable.height], otherwise using drawable.height
+     * @param mustFlipVertically indicates whether to flip the data vertically or not,
+     *                           the context's drawable {@link GLDrawable#isGLOriented()} state is taken into account.
+     * @return true if the capture has been issued, otherwise false due to a GL error
+     */
+    public boolean readPixelsAsync(final GL gl, final int inX, final int inY, final int inWidth, final int inHeight, final boolean mustFlipVertically) throws GLException {
+        if( disposed ) {
+            throw new GLException("AsyncGLReadBufferUtil disposed");
+        }
+        if( !glInitialized ) {
+            initGL(gl);
+        }
+        final GLDrawable drawable = gl.getContext().getGLReadDrawable();
+        final int width, height;
+        if( 0 >= inWidth || drawable.getSurfaceWidth() < inWidth ) {
+            width = drawable.getSurfaceWidth();
+        } else {
+            width = inWidth;
+        }
+        if( 0 >= inHeight || drawable.getSurfaceHeight() < inHeight ) {
+            height = drawable.getSurfaceHeight();
+        } else {
+            height= inHeight;
+        }
+        if( !async ) {
+            final long frame = issued++;
+            if( !readPixelsImpl(drawable, gl, inX, inY, width, height, mustFlipVertically) ) {
+                return false;
+            }
+            delivered++;
+            listener.pixelsRead(frame, readPixelBuffer, readTextureData);
+            readPixelBuffer.rewind();
+            return true;
+        }
+        collect(gl, false);
+        if( ring.length == inFlight ) {
+            stalled++;
+            collectOne(gl, true);
+        }
+        return issue(gl, drawable, ring[writeIdx], inX, inY, width, height, mustFlipVertically);
+    }
+
+    /**
+     * Delivers all captures in flight, blocking until the GPU has completed them.
+     * <p>
+     * Captures handed to the worker thread are still delivered asynchronously.
+     * Must be called on the GL thread with a current context.
+     * </p>
+     */
+    public void flush(final GL gl) throws GLException {
+        if( async ) {
+            collect(gl, true);
+        }
+    }
+
+    private void initGL(final GL gl) {
+        glInitialized = true;
+        async = gl.isGL2ES3() && gl.isGL3ES3();
+        if( DEBUG ) {
+            System.err.println("AsyncGLReadBufferUtil: async "+async+", ring "+ring.length+", worker "+(null != worker));
+        }
+    }
+
+    private boolean issue(final GL gl, final GLDrawable drawable, final Slot slot,
+                          final int inX, final int inY, final int width, final int height,
+                          final boolean mustFlipVertically) {
+        final int glerr0 = gl.glGetError();
+        if(GL.GL_NO_ERROR != glerr0) {
+            System.err.println("Info: AsyncGLReadBufferUtil.readPixelsAsync: pre-exisiting GL error 0x"+Integer.toHexString(glerr0));
+        }
+        final int reqCompCount = alphaRequested ? 4 : 3; // see Bug 1381
+        final PixelFormat.Composition hostPixelComp = pixelBufferProvider.getHostPixelComp(gl.getGLProfile(), reqCompCount);
+        final GLPixelAttributes pixelAttribs = pixelBufferProvider.getAttributes(gl, reqCompCount, true);
+        final int bytesPerPixel = pixelAttribs.pfmt.comp.bytesPerPixel();
+        final int componentCount = pixelAttribs.pfmt.comp.componentCount();
+        hasAlpha = 0 <= pixelAttribs.pfmt.comp.find(PixelFormat.CType.A);
+        final int alignment;
+        if( 4 == componentCount ) {
+            alignment = 4;
+            slot.internalFormat = GL.GL_RGBA;
+        } else {
+            alignment = 1;
+            slot.internalFormat = GL.GL_RGB;
+        }
+        slot.flipVertically = drawable.isGLOriented() ? mustFlipVertically : !mustFlipVertically;
+        slot.hostPixelComp = hostPixelComp;
+        slot.pixelAttribs = pixelAttribs;
+        slot.width = width;
+        slot.height = height;
+        slot.rowBytes = width * bytesPerPixel;
+        slot.stride = ( ( slot.rowBytes + alignment - 1 ) / alignment ) * alignment;
+
+        final GL2ES3 gl2es3 = gl.getGL2ES3();
+        psm.setPackAlignment(gl, alignment);
+        psm.setPackRowLength(gl2es3, width);
+        if( 0 > readBuffer ) {
+            gl2es3.glReadBuffer(gl2es3.getDefaultReadBuffer());
+        } else {
+            gl2es3.glReadBuffer(readBuffer);
+        }
+        final int tmp[] = new int[1];
+        slot.byteSize = GLBuffers.sizeof(gl, tmp, bytesPerPixel, width, height, 1, true);
+        boolean res = true;
+        try {
+            if( 0 == slot.pbo ) {
+                gl.glGenBuffers(1, tmp, 0);
+                slot.pbo = tmp[0];
+            }
+            gl.glBindBuffer(GL2ES3.GL_PIXEL_PACK_BUFFER, slot.pbo);
+            if( slot.capacity < slot.byteSize ) {
+                gl.glBufferData(GL2ES3.GL_PIXEL_PACK_BUFFER, slot.byteSize, null, GL2ES3.GL_STREAM_READ);
+                slot.capacity = slot.byteSize;
+            }
+            gl.glReadPixels(inX, inY, width, height, pixelAttribs.format, pixelAttribs.type, 0L);
+            slot.fence = gl.getGL3ES3().glFenceSync(GL3ES3.GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+        } catch(final GLException gle) {
+            res = false;
+            gle.printStackTrace();
+        } finally {
+            gl.glBindBuffer(GL2ES3.GL_PIXEL_PACK_BUFFER, 0);
+            psm.restore(gl);
+        }
+        final int glerr1 = gl.glGetError();
+        if( GL.GL_NO_ERROR != glerr1 ) {
+            System.err.println("AsyncGLReadBufferUtil.readPixelsAsync: readPixels error 0x"+Integer.toHexString(glerr1)+
+                               " "+width+"x"+height+", "+pixelAttribs+", sz "+slot.byteSize);
+            res = false;
+        }
+        if( !res ) {
+            if( 0 != slot.fence ) {
+                gl.getGL3ES3().glDeleteSync(slot.fence);
+                slot.fence = 0;
+            }
+            return false;
+        }
+        slot.frame = issued++;
+        writeIdx = ( writeIdx + 1 ) % ring.length;
+        inFlight++;
+        return true;
+    }
+
+    /** Delivers completed captures in issue order, optionally blocking until all are completed. */
+    private void collect(final GL gl, final boolean wait) {
+        while( 0 < inFlight && collectOne(gl, wait) ) { }
+    }
+
+    /**
+     * Delivers the oldest capture in flight if completed.
+     * @param wait if true, blocks until the capture is completed
+     * @return true if delivered, otherwise false
+     */
+    private boolean collectOne(final GL gl, final boolean wait) {
+        final Slot slot = ring[readIdx];
+        final GL3ES3 gl3 = gl.getGL3ES3();
+        int res = gl3.glClientWaitSync(slot.fence, GL3ES3.GL_SYNC_FLUSH_COMMANDS_BIT, 0);
+        while( wait && GL3ES3.GL_TIMEOUT_EXPIRED == res ) {
+            res = gl3.glClientWaitSync(slot.fence, GL3ES3.GL_SYNC_FLUSH_COMMANDS_BIT, 1000000L /* 1ms */);
+        }
+        if( GL3ES3.GL_TIMEOUT_EXPIRED == res ) {
+            return false;
+        }
+        gl3.glDeleteSync(slot.fence);
+        slot.fence = 0;
+        readIdx = ( readIdx + 1 ) % ring.length;
+        inFlight--;
+        if( GL3ES3.GL_WAIT_FAILED == res ) {
+            throw new GLException("AsyncGLReadBufferUtil: glClientWaitSync failed for frame "+slot.frame);
+        }
+
+        final GLPixelBuffer pixels = obtainPixelBuffer(gl, slot);
+        gl.glBindBuffer(GL2ES3.GL_PIXEL_PACK_BUFFER, slot.pbo);
+        try {
+            final GLBufferStorage storage = gl.mapBufferRange(GL2ES3.GL_PIXEL_PACK_BUFFER, 0, slot.byteSize, GL.GL_MAP_READ_BIT);
+            final ByteBuffer src = storage.getMappedBuffer().duplicate();
+            src.order(ByteOrder.nativeOrder()).clear().limit(slot.byteSize);
+            copy(src, pixels.buffer);
+            gl.glUnmapBuffer(GL2ES3.GL_PIXEL_PACK_BUFFER);
+        } finally {
+            gl.glBindBuffer(GL2ES3.GL_PIXEL_PACK_BUFFER, 0);
+        }
+        final boolean flipByWorker = null != worker && pixels.buffer instanceof ByteBuffer;
+        final TextureData data = new TextureData(gl.getGLProfile(), slot.internalFormat, slot.width, slot.height, 0,
+                                                 slot.pixelAttribs, false, false,
+                                                 slot.flipVertically && !flipByWorker,
+                                                 pixels.buffer, null /* Flusher */);
+        delivered++;
+        if( null != worker ) {
+            final Delivery d = new Delivery(slot.frame, pixels, data, slot.rowBytes, slot.stride, flipByWorker && slot.flipVertically);
+            if( !deliveries.offer(d) ) {
+                stalled++;
+                try {
+                    deliveries.put(d); // backpressure, wait for the worker
+                } catch (final InterruptedException ie) {
+                    recycle(pixels);
+                    throw new InterruptedRuntimeException(ie);
+                }
+            }
+        } else {
+            try {
+                listener.pixelsRead(slot.frame, pixels, data);
+            } finally {
+                recycle(pixels);
+            }
+        }
+        return true;
+    }
+
+    private GLPixelBuffer obtainPixelBuffer(final GL gl, final Slot slot) {
+        GLPixelBuffer pixels;
+        while( null != ( pixels = freePixels.poll() ) ) {
+            if( !pixels.requiresNewBuffer(gl, slot.width, slot.height, slot.byteSize) &&
+                pixels.pixelAttributes.equals(slot.pixelAttribs) ) {
+                pixels.clear();
+                return pixels;
+            }
+            pixels.dispose(); // stale size or format
+        }
+        pixels = pixelBufferProvider.allocate(gl, slot.hostPixelComp, slot.pixelAttribs, true, slot.width, slot.height, 1, slot.byteSize);
+        if( !( pixels.buffer instanceof ByteBuffer || pixels.buffer instanceof IntBuffer ) ) {
+            throw new GLException("AsyncGLReadBufferUtil: Unsupported pixel buffer "+pixels.buffer.getClass().getName());
+        }
+        return pixels;
+    }
+
+    private void recycle(final GLPixelBuffer pixels) {
+        if( disposed ) {
+            pixels.dispose();
+        } else {
+            pixels.rewind();
+            freePixels.add(pixels);
+        }
+    }
+
+    private static void copy(final ByteBuffer src, final Buffer dst) {
+        if( dst instanceof ByteBuffer ) {
+            final ByteBuffer d = (ByteBuffer) dst;
+            d.clear();
+            d.put(src);
+            d.flip();
+        } else {
+            final IntBuffer d = (IntBuffer) dst;
+            d.clear();
+            d.put(src.asIntBuffer());
+            d.flip();
+        }
+    }
+
+    /** Flips the rows of the given pixels in place. */
+    private static void flipRows(final ByteBuffer pixels, final int height, final int rowBytes, final int stride) {
+        final byte[] upper = new byte[rowBytes];
+        final byte[] lower = new byte[rowBytes];
+        final int base = pixels.position();
+        for(int top = 0, bottom = height - 1; top < bottom; top++, bottom--) {
+            final int t = base + top * stride;
+            final int b = base + bottom * stride;
+            pixels.position(t);
+            pixels.get(upper);
+            pixels.position(b);
+            pixels.get(lower);
+            pixels.position(b);
+            pixels.put(upper);
+            pixels.position(t);
+            pixels.put(lower);
+        }
+        pixels.position(base);
+    }
+
+    private final class Worker extends InterruptSource.Thread {
+        Worker() {
+            super(null, null, "AsyncGLReadBufferUtil-Worker");
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while( true ) {
+                final Delivery d;
+                try {
+                    d = deliveries.take();
+                } catch (final InterruptedException e) {
+                    break;
+                }
+                if( END == d ) {
+                    break;
+                }
+                try {
+                    if( d.flipVertically ) {
+                        flipRows((ByteBuffer) d.pixels.buffer, d.data.getHeight(), d.rowBytes, d.stride);
+                    }
+                    listener.pixelsRead(d.frame, d.pixels, d.data);
+                } catch (final Throwable t) {
+                    System.err.println("AsyncGLReadBufferUtil: Caught exception in listener of frame "+d.frame);
+                    t.printStackTrace();
+                } finally {
+                    recycle(d.pixels);
+                }
+            }
+        }
+    }
+
+    /**
+     * Releases all GL resources and stops the worker thread, captures in flight are dropped.
+     * <p>
+     * Must be called on the GL thread with a current context.
+     * </p>
+     */
+    @Override
+    public void dispose(final GL gl) {
+        disposed = true;
+        if( null != worker ) {
+            try {
+                deliveries.put(END); // after all queued captures
+            } catch (final InterruptedException ie) {
+                worker.interrupt();
+            }
+        }
+        if( null != gl && async ) {
+            final int[] tmp = { 0 };
+            for(int i=0; i<ring.length; i++) {
+                final Slot slot = ring[i];
+                if( 0 != slot.fence ) {
+                    gl.getGL3ES3().glDeleteSync(slot.fence);
+                    slot.fence = 0;
+                }
+                if( 0 != slot.pbo ) {
+                    tmp[0] = slot.pbo;
+                    gl.glDeleteBuffers(1, tmp, 0);
+                    slot.pbo = 0;
+                    slot.capacity = 0;
+                }
+            }
+        }
+        inFlight = 0;
+        GLPixelBuffer pixels;
+        while( null != ( pixels = freePixels.poll() ) ) {
+            pixels.dispose();
+        }
+        super.dispose(gl);
+    }
+
+    @Override
+    public String toString() {
+        return "AsyncGLReadBufferUtil[async "+async+", ring "+ring.length+", worker "+(null != worker)+
+               ", issued "+issued+", delivered "+delivered+", inFlight "+inFlight+", stalled "+stalled+"]";
+    }
+}
@@ -0,0 +1,223 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+/**
+ * Drift-free frame pacing on a virtual time grid, driving {@link PacedAnimator}.
+ * <p>
+ * Frame {@code n} is due at {@code t0 + n * period}, i.e. deadlines are derived from the
+ * grid instead of the previous frame's wake-up time, hence wake-up latency and display cost
+ * do not accumulate as drift.
+ * </p>
+ * <p>
+ * Usage per frame, w/ all times in nanoseconds from the same monotonic clock:
+ * <pre>
+ *   pacer.reset(now);
+ *   while( animating ) {
+ *      wait until pacer.getDeadline();
+ *      pacer.beginFrame(now);
+ *      display();
+ *      pacer.endFrame(now);
+ *   }
+ * </pre>
+ * </p>
+ * <p>
+ * Late frames are handled by the {@link Policy}. The pacer measures the display time
+ * and uses it to bound {@link Policy#CATCH_UP catch-up} bursts.
+ * Frame start jitter and display latency are recorded in {@link TimeHistogram}s.
+ * </p>
+ * <p>
+ * This class is not thread safe, except for reading its statistics.
+ * </p>
+ */
+public final class FramePacer {
+    /** Policy for late frames. */
+    public static enum Policy {
+        /**
+         * Frames missed by more than one period are dropped,
+         * the next deadline is the next grid slot after the current time.
+         * Keeps the animation phase, suitable for real time rendering.
+         */
+        SKIP_FRAMES,
+        /**
+         * Missed frames are rendered back-to-back until the grid is reached again,
+         * bounded by {@link FramePacer#setMaxCatchUpFrames(int)} and by the measured display time.
+         * Keeps the frame count, suitable for fixed step simulations.
+         */
+        CATCH_UP
+    }
+
+    /** Weight of the latest sample in the display time average, 1/8. */
+    private static final int AVG_SHIFT = 3;
+
+    private final TimeHistogram jitter = new TimeHistogram();
+    private final TimeHistogram latency = new TimeHistogram();
+    private long period;
+    private Policy policy;
+    private int maxCatchUpFrames = 4;
+
+    private long deadline;
+    private long frameStart;
+    private volatile long avgDisplayNanos;
+    private volatile long frames;
+    private volatile long skippedFrames;
+    private volatile long resyncs;
+
+    /**
+     * @param periodNanos frame period in nanoseconds, must be &gt; 0
+     * @param policy late frame policy
+     */
+    public FramePacer(final long periodNanos, final Policy policy) {
+        setPeriod(periodNanos);
+        setPolicy(policy);
+    }
+
+    /** Returns the period in nanoseconds for the given frames per second. */
+    public static long getPeriod(final float fps) {
+        if( !( fps > 0f ) ) {
+            throw new IllegalArgumentException("fps must be > 0: "+fps);
+        }
+        return Math.max(1L, Math.round(1e9 / fps));
+    }
+
+    /** Sets the frame period in nanoseconds, effective at the next {@link #reset(long)}. */
+    public void setPeriod(final long periodNanos) {
+        if( 0 >= periodNanos ) {
+            throw new IllegalArgumentException("period must be > 0: "+periodNanos);
+        }
+        period = periodNanos;
+    }
+    public long getPeriod() { return period; }
+
+    public void setPolicy(final Policy policy) {
+        if( null == policy ) {
+            throw new IllegalArgumentException("null policy");
+        }
+        this.policy = policy;
+    }
+    public Policy getPolicy() { return policy; }
+
+    /** Sets the maximum number of frames rendered back-to-back in {@link Policy#CATCH_UP} mode before re-syncing the grid, defaults to 4. */
+    public void setMaxCatchUpFrames(final int n) {
+        if( 0 > n ) {
+            throw new IllegalArgumentException("negative max catch-up frames: "+n);
+        }
+        maxCatchUpFrames = n;
+    }
+    public int getMaxCatchUpFrames() { return maxCatchUpFrames; }
+
+    /**
+     * Starts a new grid w/ the first frame due at {@code now}, e.g. at start or resume.
+     * Statistics are kept, see {@link #resetStats()}.
+     */
+    public void reset(final long now) {
+        deadline = now;
+    }
+
+    /** Clears frame counters and histograms. */
+    public void resetStats() {
+        frames = 0;
+        skippedFrames = 0;
+        resyncs = 0;
+        avgDisplayNanos = 0;
+        jitter.reset();
+        latency.reset();
+    }
+
+    /** Returns the time the next frame is due. */
+    public long getDeadline() { return deadline; }
+
+    /** Returns the nanoseconds to wait from {@code now} until the next frame is due, may be negative if late. */
+    public long getWaitNanos(final long now) { return deadline - now; }
+
+    /**
+     * Begins a frame at {@code now}, records its start jitter and applies the {@link Policy} if late.
+     * @return the number of frames dropped, if any.
+     */
+    public int beginFrame(final long now) {
+        frameStart = now;
+        final long late = now - deadline;
+        jitter.record(late);
+        if( late < period ) {
+            return 0;
+        }
+        final long missed = late / period;
+        switch( policy ) {
+            case CATCH_UP:
+                // Catch up only if it can succeed: the backlog must be bounded
+                // and rendering faster than the period, otherwise re-sync the grid.
+                if( missed <= maxCatchUpFrames && avgDisplayNanos < period ) {
+                    return 0;
+                }
+                resyncs++;
+                deadline = now;
+                skippedFrames += missed;
+                return (int)Math.min(Integer.MAX_VALUE, missed);
+            default:
+                deadline += missed * period;
+                skippedFrames += missed;
+                return (int)Math.min(Integer.MAX_VALUE, missed);
+        }
+    }
+
+    /**
+     * Ends the frame begun via {@link #beginFrame(long)} at {@code now},
+     * records its display latency and advances the deadline by one period.
+     */
+    public void endFrame(final long now) {
+        final long dt = Math.max(0, now - frameStart);
+        latency.record(dt);
+        avgDisplayNanos = 0 == frames ? dt : avgDisplayNanos + ( ( dt - avgDisplayNanos ) >> AVG_SHIFT );
+        frames++;
+        deadline += period;
+    }
+
+    /** Returns the number of displayed frames. */
+    public long getFrameCount() { return frames; }
+
+    /** Returns the number of dropped grid slots. */
+    public long getSkippedFrameCount() { return skippedFrames; }
+
+    /** Returns the number of {@link Policy#CATCH_UP} grid re-syncs. */
+    public long getResyncCount() { return resyncs; }
+
+    /** Returns the moving average of the display time in nanoseconds. */
+    public long getAverageDisplayNanos() { return avgDisplayNanos; }
+
+    /** Returns the histogram of frame start lateness versus the grid deadline. */
+    public TimeHistogram getJitterHistogram() { return jitter; }
+
+    /** Returns the histogram of the display duration per frame. */
+    public TimeHistogram getLatencyHistogram() { return latency; }
+
+    @Override
+    public String toString() {
+        return "FramePacer[period "+period/1e6+" ms, "+policy+", frames "+frames+", skipped "+skippedFrames+", resyncs "+resyncs+
+               ", avgDisplay "+avgDisplayNanos/1e6+" ms, jitter["+jitter+"], latency["+latency+"]]";
+    }
+}
@@ -36,6 +36,7 @@ import java.nio.IntBuffer;
 import java.nio.ShortBuffer;
 
 import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GLES2;
 import com.jogamp.opengl.GLException;
 import com.jogamp.opengl.fixedfunc.GLPointerFuncUtil;
 
@@ -44,6 +45,7 @@ import jogamp.opengl.util.GLFixedArrayHandler;
 import jogamp.opengl.util.glsl.GLSLArrayHandler;
 
 import com.jogamp.common.nio.Buffers;
+import com.jogamp.math.Binary16;
 import com.jogamp.opengl.util.glsl.ShaderState;
 
 
@@ -112,7 +114,7 @@ public class GLArrayDataClient extends GLArrayDataWrapper implements GLArrayData
    * and starting with a new created Buffer object with initialElementCount size
    * @param name  The custom name for the GL attribute.
    * @param comps The array component number
-   * @param dataType The array index GL data type
+   * @param dataType The array index GL data type, {@link GL#GL_HALF_FLOAT} stores float input as half-floats, see {@link #putf(float)}
    * @param normalized Whether the data shall be normalized
    * @param initialElementCount
    */
@@ -268,7 +270,9 @@ public class GLArrayDataClient extends GLArrayDataWrapper implements GLArrayData
   /**
    * Generic buffer relative put method.
    *
-   * This class buffer Class must match the arguments buffer class.
+   * This class buffer Class must match the arguments buffer class,
+   * except for a {@link FloatBuffer} argument to a {@link #isHalfFloat() half-float} array,
+   * which is converted to half-floats.
    * The arguments remaining elements must be a multiple of this arrays element stride.
    */
   @Override
@@ -278,8 +282,28 @@ public class GLArrayDataClient extends GLArrayDataWrapper implements GLArrayData
     if(0!=(v.remaining() % strideL)) {
         throw new GLException("Buffer length ("+v.remaining()+") is not a multiple of component-stride:\n\t"+this);
     } */
-    growIfNeeded(v.remaining());
-    Buffers.put(buffer, v);
+    final int length = v.remaining();
+    growIfNeeded(length);
+    if( v instanceof FloatBuffer && isHalfFloat() ) {
+        final ShortBuffer dst = (ShortBuffer)buffer;
+        Binary16.packFloats((FloatBuffer)v, v.position(), dst, dst.position(), length, true);
+        v.position(v.position() + length);
+        dst.position(dst.position() + length);
+    } else {
+        Buffers.put(buffer, v);
+    }
+  }
+
+  /**
+   * Returns true if this array's data type is {@link GL#GL_HALF_FLOAT} or {@link GLES2#GL_HALF_FLOAT_OES}.
+   * <p>
+   * The float put methods, e.g. {@link #putf(float)}, of a half-float array
+   * store their values as <code>binary16</code> via {@link Binary16#packFloatRounded(float)},
+   * halving the attribute memory footprint.
+   * </p>
+   */
+  public final boolean isHalfFloat() {
+    return GL.GL_HALF_FLOAT == compType || GLES2.GL_HALF_FLOAT_OES == compType;
   }
 
   @Override
@@ -375,28 +399,51 @@ public class GLArrayDataClient extends GLArrayDataWrapper implements GLArrayData
   public void putf(final float v) {
     if ( sealed ) return;
     growIfNeeded(1);
-    Buffers.putf(buffer, v);
+    if( isHalfFloat() ) {
+        ((ShortBuffer)buffer).put((short)Binary16.packFloatRounded(v));
+    } else {
+        Buffers.putf(buffer, v);
+    }
   }
 
   @Override
   public void put3f(final float v1, final float v2, final float v3) {
     if ( sealed ) return;
     growIfNeeded(3);
-    Buffers.put3f(buffer, v1, v2, v3);
+    if( isHalfFloat() ) {
+        ((ShortBuffer)buffer).put((short)Binary16.packFloatRounded(v1))
+                             .put((short)Binary16.packFloatRounded(v2))
+                             .put((short)Binary16.packFloatRounded(v3));
+    } else {
+        Buffers.put3f(buffer, v1, v2, v3);
+    }
   }
 
   @Override
   public void put4f(final float v1, final float v2, final float v3, final float v4) {
     if ( sealed ) return;
     growIfNeeded(4);
-    Buffers.put4f(buffer, v1, v2, v3, v4);
+    if( isHalfFloat() ) {
+        ((ShortBuffer)buffer).put((short)Binary16.packFloatRounded(v1))
+                             .put((short)Binary16.packFloatRounded(v2))
+                             .put((short)Binary16.packFloatRounded(v3))
+                             .put((short)Binary16.packFloatRounded(v4));
+    } else {
+        Buffers.put4f(buffer, v1, v2, v3, v4);
+    }
   }
 
   @Override
   public void putf(final float[] src, final int offset, final int length) {
     if ( sealed ) return;
     growIfNeeded(length);
-    Buffers.putf(buffer, src, offset, length);
+    if( isHalfFloat() ) {
+        final ShortBuffer dst = (ShortBuffer)buffer;
+        Binary16.packFloats(FloatBuffer.wrap(src), offset, dst, dst.position(), length, true);
+        dst.position(dst.position() + length);
+    } else {
+        Buffers.putf(buffer, src, offset, length);
+    }
   }
 
   @Override
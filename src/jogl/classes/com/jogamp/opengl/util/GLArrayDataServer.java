@@ -42,6 +42,7 @@ import com.jogamp.opengl.GLException;
 import com.jogamp.opengl.fixedfunc.GLPointerFuncUtil;
 
 import com.jogamp.common.nio.Buffers;
+import com.jogamp.math.util.Matrix4fArray;
 
 import jogamp.opengl.util.GLArrayHandler;
 import jogamp.opengl.util.GLArrayHandlerInterleaved;
@@ -441,6 +442,32 @@ public class GLArrayDataServer extends GLArrayDataClient implements GLArrayDataE
       return ad;
   }
 
+  /**
+   * Create a VBO for GLSL 4x4 float matrices using the given {@link Matrix4fArray}'s {@link Matrix4fArray#getBuffer() buffer} w/o copy,
+   * e.g. to pass per-instance transforms.
+   * <p>
+   * Each matrix is one interleaved element of 16 floats, exposed as four {@code vec4} column attributes
+   * named {@code name+"0"} .. {@code name+"3"}.
+   * The attribute divisor for instanced rendering is left to the user.
+   * </p>
+   * <p>
+   * After modifying the matrices, issue {@link #setVBOWritten(boolean) setVBOWritten(false)}
+   * to upload the whole array once with the next {@link #enableBuffer(GL, boolean)}.
+   * </p>
+   * @param name The GLSL attribute name prefix for the four matrix columns
+   * @param matrices the matrix storage, a direct buffer is required for VBO usage
+   * @param vboUsage {@link GL2ES2#GL_STREAM_DRAW}, {@link GL#GL_STATIC_DRAW} or {@link GL#GL_DYNAMIC_DRAW}
+   */
+  public static GLArrayDataServer createGLSLMatrices(final String name, final Matrix4fArray matrices, final int vboUsage)
+    throws GLException
+  {
+    final GLArrayDataServer ads = createGLSLInterleaved(16, GL.GL_FLOAT, false, 0, matrices.getBuffer(), vboUsage);
+    for(int i=0; i<4; i++) {
+        ads.addGLSLSubArray(name+i, 4, GL.GL_ARRAY_BUFFER);
+    }
+    return ads;
+  }
+
   public final void setInterleavedOffset(final int interleavedOffset) {
     this.interleavedOffset = interleavedOffset;
   }
@@ -462,13 +489,60 @@ public class GLArrayDataServer extends GLArrayDataClient implements GLArrayDataE
     // super.destroy(gl):
     // - GLArrayDataClient.destroy(gl): disables & clears client-side buffer
     //   - GLArrayDataWrapper.destroy(gl) (clears all values 'vboName' ..)
-    final int _vboName = vboName;
+    final int _vboName = null != streamingBuffer ? ownVBOName : vboName;
     super.destroy(gl);
     if(_vboName!=0) {
         final int[] tmp = new int[] { _vboName } ;
         gl.glDeleteBuffers(1, tmp, 0);
         vboName = 0;
     }
+    ownVBOName = 0;
+  }
+
+  @Override
+  public void enableBuffer(final GL gl, final boolean enable) {
+    if( enable && null != streamingBuffer && !bufferWritten && ( enableBufferAlways || !bufferEnabled ) ) {
+        checkSeal(true);
+        final Buffer data = streamData(gl);
+        try {
+            super.enableBuffer(gl, enable);
+        } finally {
+            buffer = data;
+        }
+    } else {
+        super.enableBuffer(gl, enable);
+    }
+  }
+
+  @Override
+  public boolean bindBuffer(final GL gl, final boolean bind) {
+    if( bind && null != streamingBuffer && !bufferWritten ) {
+        checkSeal(true);
+        final Buffer data = streamData(gl);
+        try {
+            return super.bindBuffer(gl, bind);
+        } finally {
+            buffer = data;
+        }
+    }
+    return super.bindBuffer(gl, bind);
+  }
+
+  /**
+   * Appends the sealed data to the streaming buffer and points this array to it.
+   * <p>
+   * Returns the data, detached from this array until the {@link GLArrayHandler} has bound the
+   * streaming buffer and set the array pointer, avoiding to upload the data again.
+   * </p>
+   */
+  private Buffer streamData(final GL gl) {
+      final Buffer data = buffer;
+      if( null != data ) {
+          vboOffset = streamingBuffer.write(gl, data);
+          vboName = streamingBuffer.getName();
+          buffer = null;
+      }
+      return data;
   }
 
   //
@@ -486,6 +560,99 @@ public class GLArrayDataServer extends GLArrayDataClient implements GLArrayDataE
     super.setVBOEnabled(vboUsage);
   }
 
+  /**
+   * Sets the {@link GLStreamingBuffer} used to upload this array's data, instead of re-specifying its own VBO.
+   * <p>
+   * With each {@link #enableBuffer(GL, boolean) enableBuffer(gl, true)} or {@link #bindBuffer(GL, boolean) bindBuffer(gl, true)}
+   * after {@link #seal(boolean) sealing} modified data, the data is appended to the streaming ring
+   * and the array pointer is set to its ring offset, see {@link #getVBOName()} and {@link #getVBOOffset()}.
+   * This array's own VBO remains unused while streaming.
+   * Suitable for dynamic data re-sealed and drawn each frame, see {@link GLStreamingBuffer}.
+   * </p>
+   * <p>
+   * Not supported for interleaved arrays and {@link #mapStorage(GL, int) mapped storage}.
+   * The streaming buffer is not destroyed by this array and may be shared by multiple arrays of the same context.
+   * </p>
+   * <p>
+   * If multiple arrays referenced by the same draw call share one streaming buffer,
+   * their space must be {@link #reserveStreaming(GL, GLArrayDataServer...) reserved} before enabling them.
+   * Otherwise a later array's upload may wrap around or grow the ring,
+   * invalidating the data of the arrays already uploaded for this draw call.
+   * </p>
+   * @param sb the streaming buffer w/ this array's {@link #getVBOTarget() target}, or {@code null} to use this array's own VBO again
+   * @throws IllegalStateException if this array is sealed, interleaved or mapped
+   */
+  public void setStreamingBuffer(final GLStreamingBuffer sb) throws IllegalStateException {
+      if( sealed ) {
+          throw new IllegalStateException("sealed: "+this);
+      }
+      if( 0 < interleavedOffset ) {
+          throw new IllegalStateException("interleaved array not supported: "+this);
+      }
+      if( null != mappedStorage ) {
+          throw new IllegalStateException("mapped storage not supported: "+this);
+      }
+      if( null != sb && sb.getTarget() != vboTarget ) {
+          throw new IllegalArgumentException("Streaming buffer target 0x"+Integer.toHexString(sb.getTarget())+
+                                             " != 0x"+Integer.toHexString(vboTarget)+": "+this);
+      }
+      if( null == streamingBuffer && null != sb ) {
+          ownVBOName = vboName;
+      } else if( null != streamingBuffer && null == sb ) {
+          vboName = ownVBOName;
+          vboOffset = 0;
+          ownVBOName = 0;
+      }
+      streamingBuffer = sb;
+      bufferWritten = false;
+  }
+
+  /** Returns the {@link GLStreamingBuffer} used to upload this array's data, may be {@code null}. */
+  public final GLStreamingBuffer getStreamingBuffer() { return streamingBuffer; }
+
+  /**
+   * Reserves the {@link GLStreamingBuffer} space of all given arrays referenced by the same draw call,
+   * see {@link GLStreamingBuffer#reserve(GL, int)}.
+   * <p>
+   * Hence the following uploads of the {@link #seal(boolean) sealed} arrays via {@link #enableBuffer(GL, boolean) enableBuffer(gl, true)}
+   * or {@link #bindBuffer(GL, boolean) bindBuffer(gl, true)} neither wrap around nor grow their streaming buffer,
+   * keeping all arrays of the draw call valid.
+   * </p>
+   * <p>
+   * Arrays w/o streaming buffer or w/o data pending to be uploaded are skipped.
+   * </p>
+   * @param gl the current GL
+   * @param arrays the arrays of one draw call, sealed
+   */
+  public static void reserveStreaming(final GL gl, final GLArrayDataServer... arrays) {
+      for(int i=0; i<arrays.length; i++) {
+          final GLStreamingBuffer sb = arrays[i].streamingBuffer;
+          boolean first = null != sb;
+          for(int j=0; first && j<i; j++) {
+              first = sb != arrays[j].streamingBuffer; // reserve each streaming buffer once
+          }
+          if( first ) {
+              int bytes = 0;
+              for(int j=i; j<arrays.length; j++) {
+                  if( sb == arrays[j].streamingBuffer ) {
+                      bytes += GLStreamingBuffer.getAlignedSize(arrays[j].getPendingStreamBytes());
+                  }
+              }
+              if( 0 < bytes ) {
+                  sb.reserve(gl, bytes);
+              }
+          }
+      }
+  }
+
+  /** Returns the number of bytes to be uploaded to the streaming buffer. */
+  private int getPendingStreamBytes() {
+      if( !sealed || bufferWritten || null == buffer ) {
+          return 0;
+      }
+      return buffer.remaining() * Buffers.sizeOfBufferElem(buffer);
+  }
+
   public GLBufferStorage mapStorage(final GL gl, final int access) {
       if( null != this.getBuffer() ) {
           throw new IllegalStateException("user buffer not null");
@@ -564,6 +731,7 @@ public class GLArrayDataServer extends GLArrayDataClient implements GLArrayDataE
                        ", mappedElemCount "+mappedElemCount+
                        ", "+elemStatsToString()+
                        ", mappedStorage "+mappedStorage+
+                       ", streaming "+(null != streamingBuffer)+
                        ", vboEnabled "+vboEnabled+
                        ", vboName "+vboName+
                        ", vboUsage 0x"+Integer.toHexString(vboUsage)+
@@ -595,7 +763,7 @@ public class GLArrayDataServer extends GLArrayDataClient implements GLArrayDataE
   @Override
   protected void init_vbo(final GL gl) {
     super.init_vbo(gl);
-    if(vboEnabled && vboName==0) {
+    if(vboEnabled && vboName==0 && null==streamingBuffer) {
         final int[] tmp = new int[1];
         gl.glGenBuffers(1, tmp, 0);
         vboName = tmp[0];
@@ -618,9 +786,14 @@ public class GLArrayDataServer extends GLArrayDataClient implements GLArrayDataE
     super(src);
     this.interleavedOffset = src.interleavedOffset;
     this.mappedStorage = src.mappedStorage;
+    this.streamingBuffer = src.streamingBuffer;
+    this.ownVBOName = src.ownVBOName;
   }
 
   private int interleavedOffset = 0;
   private GLBufferStorage mappedStorage = null;
+  private GLStreamingBuffer streamingBuffer = null;
+  /** This array's own VBO name while {@link #streamingBuffer} is used. */
+  private int ownVBOName = 0;
 }
 
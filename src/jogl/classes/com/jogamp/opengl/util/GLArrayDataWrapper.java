@@ -36,6 +36,7 @@ import java.nio.ShortBuffer;
 
 import com.jogamp.opengl.GL;
 import com.jogamp.opengl.GL2ES2;
+import com.jogamp.opengl.GLES2;
 import com.jogamp.opengl.GLArrayData;
 import com.jogamp.opengl.GLException;
 import com.jogamp.opengl.GLProfile;
@@ -397,6 +398,8 @@ public class GLArrayDataWrapper implements GLArrayData {
             return ByteBuffer.class;
         case GL.GL_SHORT:
         case GL.GL_UNSIGNED_SHORT:
+        case GL.GL_HALF_FLOAT:
+        case GLES2.GL_HALF_FLOAT_OES:
             return ShortBuffer.class;
         case GL.GL_UNSIGNED_INT:
         case GL.GL_FIXED:
@@ -435,6 +438,15 @@ public class GLArrayDataWrapper implements GLArrayData {
     setVBOEnabled(0!=vboName);
   }
 
+  /**
+   * Set the byte offset of this array's data within the VBO.
+   *
+   * @see #setVBOName(int)
+   */
+  public void setVBOOffset(final long vboOffset) {
+    this.vboOffset=vboOffset;
+  }
+
  /**
   * @param vboUsage {@link GL2ES2#GL_STREAM_DRAW}, {@link GL#GL_STATIC_DRAW} or {@link GL#GL_DYNAMIC_DRAW}
   */
@@ -0,0 +1,193 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import java.util.Map;
+
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLEventListener;
+import com.jogamp.opengl.GLRunnable;
+
+import jogamp.opengl.CopyOnWriteHashMap;
+
+/**
+ * Frame timing instrumentation of a {@link GLAutoDrawable}, breaking down where the frame time is spent.
+ * <p>
+ * Once {@link GLAutoDrawable#setFrameTiming(GLFrameTiming) attached}, the drawable records
+ * the following durations into lock-free {@link TimeHistogram}s:
+ * <ul>
+ *   <li>{@link #getMakeCurrentHistogram() makeCurrent}: claiming the GL context, omitted if already current, e.g. for an exclusive context thread</li>
+ *   <li>{@link #getListenerHistogram(GLEventListener) per listener display}: each {@link GLEventListener#display(GLAutoDrawable)} call</li>
+ *   <li>{@link #getDisplayHistogram() display}: all listeners' display calls of one frame</li>
+ *   <li>{@link #getRunnableHistogram() runnables}: executing the queued {@link GLRunnable}s of one frame</li>
+ *   <li>{@link #getRunnableWaitHistogram() runnable wait}: each queued {@link GLRunnable} from being enqueued until being executed</li>
+ *   <li>{@link #getSwapHistogram() swap}: {@link GLAutoDrawable#swapBuffers()} if {@link GLAutoDrawable#getAutoSwapBufferMode() auto swap} is enabled</li>
+ *   <li>{@link #getFrameHistogram() frame}: the whole GL invocation incl. makeCurrent and release</li>
+ * </ul>
+ * Durations are in nanoseconds.
+ * </p>
+ * <p>
+ * A detached drawable only tests for a {@code null} instance per frame,
+ * hence the instrumentation may stay compiled in for production use.
+ * An attached drawable reads the nanosecond clock about twice per phase and listener and does not allocate,
+ * except for the first display of a listener.
+ * </p>
+ * <p>
+ * The histograms may be queried and {@link #reset() reset} concurrently to recording at any time,
+ * use {@link #toString()} for a human readable report and {@link #toCSV(StringBuilder)} for export.
+ * One instance may be attached to multiple drawables, aggregating their timing.
+ * </p>
+ */
+public final class GLFrameTiming {
+    private final TimeHistogram makeCurrent = new TimeHistogram();
+    private final TimeHistogram display = new TimeHistogram();
+    private final TimeHistogram runnables = new TimeHistogram();
+    private final TimeHistogram runnableWait = new TimeHistogram();
+    private final TimeHistogram swap = new TimeHistogram();
+    private final TimeHistogram frame = new TimeHistogram();
+    private final CopyOnWriteHashMap<GLEventListener, TimeHistogram> listeners = new CopyOnWriteHashMap<GLEventListener, TimeHistogram>();
+
+    public GLFrameTiming() { }
+
+    /** Returns the histogram of GL context makeCurrent durations. */
+    public TimeHistogram getMakeCurrentHistogram() { return makeCurrent; }
+
+    /** Returns the histogram of display durations of all {@link GLEventListener}s per frame. */
+    public TimeHistogram getDisplayHistogram() { return display; }
+
+    /** Returns the histogram of execution durations of all queued {@link GLRunnable}s per frame. */
+    public TimeHistogram getRunnableHistogram() { return runnables; }
+
+    /** Returns the histogram of durations each queued {@link GLRunnable} waited for execution. */
+    public TimeHistogram getRunnableWaitHistogram() { return runnableWait; }
+
+    /** Returns the histogram of {@link GLAutoDrawable#swapBuffers()} durations. */
+    public TimeHistogram getSwapHistogram() { return swap; }
+
+    /** Returns the histogram of whole GL invocation durations, i.e. frames. */
+    public TimeHistogram getFrameHistogram() { return frame; }
+
+    /**
+     * Returns the display histogram of the given {@link GLEventListener},
+     * which is created if not yet existing.
+     * <p>
+     * Method is lock-free if the histogram exists.
+     * </p>
+     */
+    public TimeHistogram getListenerHistogram(final GLEventListener listener) {
+        final TimeHistogram h = listeners.get(listener);
+        if( null != h ) {
+            return h;
+        }
+        final TimeHistogram n = new TimeHistogram();
+        final TimeHistogram pre = listeners.putIfAbsent(listener, n);
+        return null != pre ? pre : n;
+    }
+
+    /** Returns an immutable snapshot of all per {@link GLEventListener} display histograms. */
+    public Map<GLEventListener, TimeHistogram> getListenerHistograms() {
+        return listeners.getSnapshot();
+    }
+
+    /** Removes the histogram of the given {@link GLEventListener}, e.g. after it has been removed from the drawable. */
+    public void removeListener(final GLEventListener listener) {
+        listeners.remove(listener);
+    }
+
+    /** Clears all histograms, keeping the per {@link GLEventListener} histograms. */
+    public void reset() {
+        makeCurrent.reset();
+        display.reset();
+        runnables.reset();
+        runnableWait.reset();
+        swap.reset();
+        frame.reset();
+        for(final TimeHistogram h : listeners.getSnapshot().values()) {
+            h.reset();
+        }
+    }
+
+    private static String getName(final GLEventListener l) {
+        return l.getClass().getName()+"@0x"+Integer.toHexString(System.identityHashCode(l));
+    }
+
+    /**
+     * Appends all histograms as comma separated values, one line per histogram led by a header line.
+     * <p>
+     * Columns are {@code phase,count,sum,min,mean,p50,p90,p99,max} with durations in nanoseconds,
+     * the phase of a listener histogram is {@code listener:<class>@<identity>}.
+     * </p>
+     */
+    public StringBuilder toCSV(StringBuilder sb) {
+        if( null == sb ) {
+            sb = new StringBuilder();
+        }
+        sb.append("phase,count,sum,min,mean,p50,p90,p99,max").append(System.lineSeparator());
+        appendCSV(sb, "frame", frame);
+        appendCSV(sb, "makeCurrent", makeCurrent);
+        appendCSV(sb, "display", display);
+        for(final Map.Entry<GLEventListener, TimeHistogram> e : listeners.getSnapshot().entrySet()) {
+            appendCSV(sb, "listener:"+getName(e.getKey()), e.getValue());
+        }
+        appendCSV(sb, "runnables", runnables);
+        appendCSV(sb, "runnableWait", runnableWait);
+        appendCSV(sb, "swap", swap);
+        return sb;
+    }
+    private static void appendCSV(final StringBuilder sb, final String phase, final TimeHistogram h) {
+        sb.append(phase).append(',').append(h.getCount()).append(',').append(h.getSum()).append(',')
+          .append(h.getMin()).append(',').append(h.getMean()).append(',')
+          .append(h.getPercentile(0.5f)).append(',').append(h.getPercentile(0.9f)).append(',')
+          .append(h.getPercentile(0.99f)).append(',').append(h.getMax()).append(System.lineSeparator());
+    }
+
+    /** Appends a multi-line report w/ durations in milliseconds. */
+    public StringBuilder toString(StringBuilder sb) {
+        if( null == sb ) {
+            sb = new StringBuilder();
+        }
+        sb.append("GLFrameTiming[").append(System.lineSeparator());
+        sb.append("  frame       : "); frame.toString(sb).append(System.lineSeparator());
+        sb.append("  makeCurrent : "); makeCurrent.toString(sb).append(System.lineSeparator());
+        sb.append("  display     : "); display.toString(sb).append(System.lineSeparator());
+        for(final Map.Entry<GLEventListener, TimeHistogram> e : listeners.getSnapshot().entrySet()) {
+            sb.append("    ").append(getName(e.getKey())).append(": ");
+            e.getValue().toString(sb).append(System.lineSeparator());
+        }
+        sb.append("  runnables   : "); runnables.toString(sb).append(System.lineSeparator());
+        sb.append("  runnableWait: "); runnableWait.toString(sb).append(System.lineSeparator());
+        sb.append("  swap        : "); swap.toString(sb).append(System.lineSeparator());
+        sb.append("]");
+        return sb;
+    }
+
+    @Override
+    public String toString() {
+        return toString(null).toString();
+    }
+}
@@ -0,0 +1,309 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2ES2;
+import com.jogamp.opengl.GL3ES3;
+import com.jogamp.opengl.GL4;
+import com.jogamp.opengl.GLBufferStorage;
+import com.jogamp.opengl.GLException;
+
+import jogamp.opengl.Debug;
+
+/**
+ * Ring buffer for streaming dynamic vertex data into a buffer object,
+ * avoiding a reallocation and a full re-specification of the buffer object per draw call.
+ * <p>
+ * Each {@link #write(GL, Buffer) write(..)} appends the data to the current segment of the ring
+ * and returns its byte offset within the {@link #getName() buffer object}, to be used as the
+ * vertex attribute pointer offset of the following draw call.
+ * If the current segment is exhausted, writing continues with the next segment:
+ * <ul>
+ *   <li>With {@link GL4#glBufferStorage(int, long, Buffer, int) buffer storage} available,
+ *       the ring is a single persistently and coherently mapped {@link GLBufferStorage},
+ *       where each segment is guarded by a {@link GL3ES3#glFenceSync(int, int) fence} placed when leaving it.
+ *       Entering a segment still in use by the GPU blocks until its fence is signaled, see {@link #getStallCount()}.</li>
+ *   <li>Otherwise data is written via {@link GL#glBufferSubData(int, long, long, Buffer) glBufferSubData(..)}
+ *       and the whole buffer object is orphaned when the ring wraps around, see {@link #getOrphanCount()}.</li>
+ * </ul>
+ * Data exceeding the segment size grows the ring, recreating the buffer object with a new {@link #getName() name}.
+ * </p>
+ * <p>
+ * Written data remains valid until the ring wraps around, i.e. it shall be drawn before the next
+ * {@link #getSegmentCount() segment count} segments are filled.
+ * Hence the ring is suitable for immediately drawn data, not for retained geometry.
+ * </p>
+ * <p>
+ * All methods must be called on the GL thread with a current context.
+ * </p>
+ * @see ImmModeSink#setStreamingBuffer(GLStreamingBuffer)
+ * @see GLArrayDataServer#setStreamingBuffer(GLStreamingBuffer)
+ */
+public class GLStreamingBuffer {
+    private static final boolean DEBUG = Debug.debug("GLStreamingBuffer");
+
+    /** Byte alignment of each written data block, satisfying all vertex attribute types. */
+    public static final int ALIGNMENT = 16;
+
+    private final int target;
+    private final int segmentCount;
+    private final boolean persistentRequested;
+    private int segmentSize;
+
+    // GL thread only
+    private boolean glInitialized = false;
+    private int name = 0;
+    private GLBufferStorage persistentStorage = null;
+    private long[] fences = null;
+    private int segment = 0;
+    private int segmentUsed = 0;
+    private long streamedBytes = 0;
+    private long stallCount = 0;
+    private long orphanCount = 0;
+    private int growCount = 0;
+
+    /**
+     * @param target the buffer object target, e.g. {@link GL#GL_ARRAY_BUFFER}
+     * @param segmentSize initial segment size in bytes, grows if a single write exceeds it
+     * @param segmentCount number of segments, minimum 2
+     * @param persistent if true, a persistently mapped ring is used if available, otherwise orphaning is always used
+     */
+    public GLStreamingBuffer(final int target, final int segmentSize, final int segmentCount, final boolean persistent) {
+        if( 0 >= segmentSize ) {
+            throw new IllegalArgumentException("Invalid segmentSize "+segmentSize);
+        }
+        this.target = target;
+        this.segmentSize = alignUp(segmentSize);
+        this.segmentCount = Math.max(2, segmentCount);
+        this.persistentRequested = persistent;
+    }
+
+    /** Returns the buffer object target. */
+    public final int getTarget() { return target; }
+    /** Returns the current buffer object name, {@code 0} before the first {@link #write(GL, Buffer) write}. The name changes when the ring grows. */
+    public final int getName() { return name; }
+    /** Returns the current segment size in bytes. */
+    public final int getSegmentSize() { return segmentSize; }
+    /** Returns the number of segments. */
+    public final int getSegmentCount() { return segmentCount; }
+    /** Returns true if the ring is persistently mapped. Only valid after the first {@link #write(GL, Buffer) write}. */
+    public final boolean isPersistent() { return null != persistentStorage; }
+    /** Returns the total number of written bytes. */
+    public final long getStreamedBytes() { return streamedBytes; }
+    /** Returns the number of times entering a segment had to wait for the GPU, persistent mode only. */
+    public final long getStallCount() { return stallCount; }
+    /** Returns the number of times the buffer object has been orphaned, orphaning mode only. */
+    public final long getOrphanCount() { return orphanCount; }
+    /** Returns the number of times the ring has grown. */
+    public final int getGrowCount() { return growCount; }
+
+    /**
+     * Writes the {@link Buffer#remaining() remaining} elements of the given buffer into the ring.
+     * <p>
+     * The buffer object is left bound to the {@link #getTarget() target},
+     * the position of {@code data} is not changed.
+     * </p>
+     * @param gl the current GL
+     * @param data a {@link ByteBuffer}, {@link ShortBuffer}, {@link IntBuffer} or {@link FloatBuffer}
+     * @return the byte offset of the written data within the buffer object {@link #getName() name}
+     * @throws GLException if the buffer type is not supported
+     */
+    public long write(final GL gl, final Buffer data) throws GLException {
+        final int bytes = data.remaining() * Buffers.sizeOfBufferElem(data);
+        reserve(gl, bytes);
+        final long offset = (long)segment * segmentSize + segmentUsed;
+        if( null != persistentStorage ) {
+            final ByteBuffer dst = persistentStorage.getMappedBuffer().duplicate();
+            dst.order(ByteOrder.nativeOrder());
+            dst.limit((int)offset + bytes).position((int)offset);
+            put(dst, data);
+        } else if( 0 < bytes ) {
+            gl.glBufferSubData(target, offset, bytes, data);
+        }
+        segmentUsed += alignUp(bytes);
+        streamedBytes += bytes;
+        return offset;
+    }
+
+    /**
+     * Ensures the given number of bytes fit into the current segment,
+     * hence the following {@link #write(GL, Buffer) writes} up to this size neither grow the ring nor change its {@link #getName() name}.
+     * <p>
+     * Use to write multiple arrays referenced by the same draw call, each array accounted w/ its {@link #getAlignedSize(int) aligned size}.
+     * The buffer object is left bound to the {@link #getTarget() target}.
+     * </p>
+     * @param gl the current GL
+     * @param bytes the sum of the {@link #getAlignedSize(int) aligned sizes} to be written
+     * @see GLArrayDataServer#reserveStreaming(GL, GLArrayDataServer...)
+     */
+    public void reserve(final GL gl, final int bytes) {
+        if( !glInitialized ) {
+            initGL(gl, Math.max(segmentSize, alignUp(bytes)));
+        } else if( bytes > segmentSize ) {
+            grow(gl, bytes);
+        } else {
+            gl.glBindBuffer(target, name);
+        }
+        if( segmentUsed + bytes > segmentSize ) {
+            nextSegment(gl);
+        }
+    }
+
+    /** Returns the given size in bytes aligned to {@link #ALIGNMENT}, i.e. the ring space taken by a {@link #write(GL, Buffer) write}. */
+    public static int getAlignedSize(final int bytes) {
+        return alignUp(bytes);
+    }
+
+    private static int alignUp(final int bytes) {
+        return ( ( bytes + ALIGNMENT - 1 ) / ALIGNMENT ) * ALIGNMENT;
+    }
+
+    private static void put(final ByteBuffer dst, final Buffer src) {
+        if( src instanceof ByteBuffer ) {
+            dst.put(((ByteBuffer)src).duplicate());
+        } else if( src instanceof FloatBuffer ) {
+            dst.asFloatBuffer().put(((FloatBuffer)src).duplicate());
+        } else if( src instanceof IntBuffer ) {
+            dst.asIntBuffer().put(((IntBuffer)src).duplicate());
+        } else if( src instanceof ShortBuffer ) {
+            dst.asShortBuffer().put(((ShortBuffer)src).duplicate());
+        } else {
+            throw new GLException("Given Buffer Class not supported: "+src.getClass());
+        }
+    }
+
+    private void initGL(final GL gl, final int segSize) {
+        glInitialized = true;
+        segmentSize = segSize;
+        segment = 0;
+        segmentUsed = 0;
+        final long size = (long)segmentCount * segmentSize;
+        final int[] tmp = { 0 };
+        gl.glGenBuffers(1, tmp, 0);
+        name = tmp[0];
+        gl.glBindBuffer(target, name);
+        if( persistentRequested && gl.isGL4() && gl.isGL3ES3() && gl.isFunctionAvailable("glBufferStorage") ) {
+            final int flags = GL.GL_MAP_WRITE_BIT | GL4.GL_MAP_PERSISTENT_BIT | GL4.GL_MAP_COHERENT_BIT;
+            gl.getGL4().glBufferStorage(target, size, null, flags);
+            persistentStorage = gl.mapBufferRange(target, 0, size, flags);
+            fences = new long[segmentCount];
+        } else {
+            gl.glBufferData(target, size, null, GL2ES2.GL_STREAM_DRAW);
+        }
+        if( DEBUG ) {
+            System.err.println("GLStreamingBuffer: "+this);
+        }
+    }
+
+    /** Recreates the ring w/ segments fitting at least {@code bytes}, the old buffer object is released by the GL when no more in use. */
+    private void grow(final GL gl, final int bytes) {
+        final int segSize = alignUp(Math.max(bytes, segmentSize * 2));
+        destroyGL(gl);
+        growCount++;
+        initGL(gl, segSize);
+    }
+
+    private void nextSegment(final GL gl) {
+        if( null != persistentStorage ) {
+            final GL3ES3 gl3 = gl.getGL3ES3();
+            fences[segment] = gl3.glFenceSync(GL3ES3.GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+            segment = ( segment + 1 ) % segmentCount;
+            final long sync = fences[segment];
+            if( 0 != sync ) {
+                int res = gl3.glClientWaitSync(sync, GL3ES3.GL_SYNC_FLUSH_COMMANDS_BIT, 0);
+                if( GL3ES3.GL_TIMEOUT_EXPIRED == res ) {
+                    stallCount++;
+                    do {
+                        res = gl3.glClientWaitSync(sync, GL3ES3.GL_SYNC_FLUSH_COMMANDS_BIT, 1000000L /* 1ms */);
+                    } while( GL3ES3.GL_TIMEOUT_EXPIRED == res );
+                }
+                gl3.glDeleteSync(sync);
+                fences[segment] = 0;
+                if( GL3ES3.GL_WAIT_FAILED == res ) {
+                    throw new GLException("GLStreamingBuffer: glClientWaitSync failed for segment "+segment);
+                }
+            }
+        } else {
+            segment = ( segment + 1 ) % segmentCount;
+            if( 0 == segment ) {
+                // orphan storage still in use by the GPU, avoiding to sync w/ pending draw calls
+                gl.glBufferData(target, (long)segmentCount * segmentSize, null, GL2ES2.GL_STREAM_DRAW);
+                orphanCount++;
+            }
+        }
+        segmentUsed = 0;
+    }
+
+    private void destroyGL(final GL gl) {
+        if( 0 == name ) {
+            return;
+        }
+        if( null != fences ) {
+            final GL3ES3 gl3 = gl.getGL3ES3();
+            for(int i=0; i<fences.length; i++) {
+                if( 0 != fences[i] ) {
+                    gl3.glDeleteSync(fences[i]);
+                    fences[i] = 0;
+                }
+            }
+            fences = null;
+        }
+        if( null != persistentStorage ) {
+            gl.glBindBuffer(target, name);
+            gl.glUnmapBuffer(target);
+            persistentStorage = null;
+        }
+        gl.glBindBuffer(target, 0);
+        gl.glDeleteBuffers(1, new int[] { name }, 0);
+        name = 0;
+    }
+
+    /**
+     * Releases the buffer object. A subsequent {@link #write(GL, Buffer) write} recreates it.
+     */
+    public void destroy(final GL gl) {
+        destroyGL(gl);
+        glInitialized = false;
+    }
+
+    @Override
+    public String toString() {
+        return "GLStreamingBuffer[target 0x"+Integer.toHexString(target)+", name "+name+", segments "+segmentCount+" x "+segmentSize+
+               ", persistent "+(null != persistentStorage)+", streamed "+streamedBytes+" bytes, stalls "+stallCount+
+               ", orphaned "+orphanCount+", grown "+growCount+"]";
+    }
+}
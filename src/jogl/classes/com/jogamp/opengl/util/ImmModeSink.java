@@ -48,6 +48,10 @@ import com.jogamp.opengl.util.glsl.ShaderState;
  * Note: Optional types, i.e. color, must be either not used or used w/ the same element count as vertex, etc.
  * This is a semantic constraint, same as in the original OpenGL spec.
  * </p>
+ * <p>
+ * Immediately rendered geometry may be streamed into a shared {@link GLStreamingBuffer},
+ * see {@link #setStreamingBuffer(GLStreamingBuffer)}.
+ * </p>
  */
 public class ImmModeSink {
   protected static final boolean DEBUG_BEGIN_END;
@@ -247,10 +251,12 @@ public class ImmModeSink {
         System.err.println("ImmModeSink START glEnd(immediate: "+immediateDraw+")");
     }
     if(immediateDraw) {
+        vboSet.setStreamingBuffer(streamingBuffer);
         vboSet.seal(gl, true);
         vboSet.draw(gl, indices, true, -1);
         reset(gl);
     } else {
+        vboSet.setStreamingBuffer(null);
         vboSet.seal(gl, true);
         vboSet.enableBuffer(gl, false);
         vboSetList.add(vboSet);
@@ -394,6 +400,30 @@ public class ImmModeSink {
    */
   public void setResizeElementCount(final int v) { vboSet.setResizeElementCount(v); }
 
+  /**
+   * Sets the {@link GLStreamingBuffer} used to upload immediately rendered geometry,
+   * i.e. via {@link #glEnd(GL)} or {@link #glEnd(GL, boolean) glEnd(gl, true)}.
+   * <p>
+   * Instead of re-specifying this sink's VBO via {@link GL#glBufferData(int, long, Buffer, int) glBufferData(..)} for each
+   * immediate draw, the used vertex, color, normal and texture-coord data is appended to the streaming ring.
+   * Geometry added to the display list via {@link #glEnd(GL, boolean) glEnd(gl, false)} still uses its own VBO.
+   * </p>
+   * <p>
+   * Only effective if this sink {@link #getUseVBO() uses VBOs}.
+   * The streaming buffer is not destroyed by this sink and may be shared by multiple sinks of the same context.
+   * </p>
+   * @param sb the streaming buffer with target {@link GL#GL_ARRAY_BUFFER}, or {@code null} to disable streaming
+   */
+  public void setStreamingBuffer(final GLStreamingBuffer sb) {
+      if( null != sb && GL.GL_ARRAY_BUFFER != sb.getTarget() ) {
+          throw new IllegalArgumentException("Streaming buffer target not GL_ARRAY_BUFFER: "+sb);
+      }
+      streamingBuffer = sb;
+  }
+
+  /** Returns the {@link GLStreamingBuffer} used to upload immediately rendered geometry, may be {@code null}. */
+  public GLStreamingBuffer getStreamingBuffer() { return streamingBuffer; }
+
   private void destroyList(final GL gl) {
     for(int i=0; i<vboSetList.size(); i++) {
         vboSetList.get(i).destroy(gl);
@@ -403,6 +433,7 @@ public class ImmModeSink {
 
   private VBOSet vboSet;
   private final ArrayList<VBOSet> vboSetList;
+  private GLStreamingBuffer streamingBuffer = null;
 
   protected static class VBOSet {
     protected VBOSet (final int initialElementCount,
@@ -471,6 +502,10 @@ public class ImmModeSink {
 
     protected boolean getUseVBO() { return useVBO; }
 
+    protected void setStreamingBuffer(final GLStreamingBuffer sb) {
+        streamingBuffer = useVBO ? sb : null;
+    }
+
     protected final VBOSet regenerate(final GL gl) {
         return new VBOSet(initialElementCount, vComps,
                           vDataType, cComps, cDataType, nComps, nDataType, tComps, tDataType,
@@ -950,18 +985,7 @@ public class ImmModeSink {
                     gl.glGenBuffers(1, tmp, 0);
                     vboName = tmp[0];
                 }
-                if(null!=vArrayData) {
-                    vArrayData.setVBOName(vboName);
-                }
-                if(null!=cArrayData) {
-                    cArrayData.setVBOName(vboName);
-                }
-                if(null!=nArrayData) {
-                    nArrayData.setVBOName(vboName);
-                }
-                if(null!=tArrayData) {
-                    tArrayData.setVBOName(vboName);
-                }
+                setArraysVBO(vboName, vOffset, cOffset, nOffset, tOffset);
             }
             enableBuffer(gl, true);
         } else {
@@ -998,6 +1022,70 @@ public class ImmModeSink {
     }
   }
 
+  private void setArraysVBO(final int name, final long vOff, final long cOff, final long nOff, final long tOff) {
+    if(null!=vArrayData) {
+        vArrayData.setVBOName(name);
+        vArrayData.setVBOOffset(vOff);
+    }
+    if(null!=cArrayData) {
+        cArrayData.setVBOName(name);
+        cArrayData.setVBOOffset(cOff);
+    }
+    if(null!=nArrayData) {
+        nArrayData.setVBOName(name);
+        nArrayData.setVBOOffset(nOff);
+    }
+    if(null!=tArrayData) {
+        tArrayData.setVBOName(name);
+        tArrayData.setVBOOffset(tOff);
+    }
+  }
+
+  /** Binds the VBO holding the arrays and writes them if not yet written. */
+  private final void bindAndWriteBuffer(final GL gl) {
+    if( null != streamingBuffer ) {
+        if(!bufferWritten) {
+            streamBuffer(gl);
+        } else {
+            gl.glBindBuffer(GL.GL_ARRAY_BUFFER, streamedVBOName);
+        }
+    } else {
+        if(0 == vboName) {
+            throw new InternalError("Using VBO but no vboName");
+        }
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, vboName);
+        if(!bufferWritten) {
+            writeBuffer(gl);
+        }
+    }
+  }
+
+  /** Appends the used part of each array to the streaming buffer, leaving it bound. */
+  private final void streamBuffer(final GL gl) {
+    final int vBytes  = vElems * vCompsBytes;
+    final int cBytes  = cElems * cCompsBytes;
+    final int nBytes  = nElems * nCompsBytes;
+    final int tBytes  = tElems * tCompsBytes;
+    // reserve all arrays within one buffer object
+    streamingBuffer.reserve(gl, GLStreamingBuffer.getAlignedSize(vBytes) + GLStreamingBuffer.getAlignedSize(cBytes) +
+                                GLStreamingBuffer.getAlignedSize(nBytes) + GLStreamingBuffer.getAlignedSize(tBytes));
+    final long vOff = streamArray(gl, vOffset, vBytes);
+    final long cOff = streamArray(gl, cOffset, cBytes);
+    final long nOff = streamArray(gl, nOffset, nBytes);
+    final long tOff = streamArray(gl, tOffset, tBytes);
+    streamedVBOName = streamingBuffer.getName();
+    setArraysVBO(streamedVBOName, vOff, cOff, nOff, tOff);
+  }
+
+  private final long streamArray(final GL gl, final int offset, final int bytes) {
+    if( 0 >= bytes ) {
+        return 0;
+    }
+    final ByteBuffer src = buffer.duplicate();
+    src.limit(offset + bytes).position(offset);
+    return streamingBuffer.write(gl, src);
+  }
+
   private final void writeBuffer(final GL gl) {
     final int vBytes  = vElems * vCompsBytes;
     final int cBytes  = cElems * cCompsBytes;
@@ -1037,14 +1125,7 @@ public class ImmModeSink {
 
     if(enable) {
         if(useVBO) {
-            if(0 == vboName) {
-                throw new InternalError("Using VBO but no vboName");
-            }
-            glf.glBindBuffer(GL.GL_ARRAY_BUFFER, vboName);
-
-            if(!bufferWritten) {
-                writeBuffer(gl);
-            }
+            bindAndWriteBuffer(gl);
         }
         bufferWritten=true;
     }
@@ -1105,13 +1186,7 @@ public class ImmModeSink {
 
     if(enable) {
         if(useVBO) {
-            if(0 == vboName) {
-                throw new InternalError("Using VBO but no vboName");
-            }
-            glsl.glBindBuffer(GL.GL_ARRAY_BUFFER, vboName);
-            if(!bufferWritten) {
-                writeBuffer(gl);
-            }
+            bindAndWriteBuffer(gl);
         }
         bufferWritten=true;
     }
@@ -1186,13 +1261,7 @@ public class ImmModeSink {
 
     if(enable) {
         if(useVBO) {
-            if(0 == vboName) {
-                throw new InternalError("Using VBO but no vboName");
-            }
-            glsl.glBindBuffer(GL.GL_ARRAY_BUFFER, vboName);
-            if(!bufferWritten) {
-                writeBuffer(gl);
-            }
+            bindAndWriteBuffer(gl);
         }
         bufferWritten=true;
     }
@@ -1254,6 +1323,7 @@ public class ImmModeSink {
                        ", bufferEnabled "+bufferEnabled+
                        ", bufferWritten "+bufferWritten+" (once "+bufferWrittenOnce+")"+
                        ", useVBO "+useVBO+", vboName "+vboName+
+                       ", streaming "+(null!=streamingBuffer)+
                        ", useGLSL "+useGLSL+
                        glslS+
                        ",\n\t"+vArrayData+
@@ -1478,6 +1548,8 @@ public class ImmModeSink {
 
     private ByteBuffer buffer;
     private int vboName;
+    private GLStreamingBuffer streamingBuffer;
+    private int streamedVBOName;
 
     private static final int VERTEX = 0;
     private static final int COLOR = 1;
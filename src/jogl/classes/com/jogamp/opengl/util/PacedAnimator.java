@@ -0,0 +1,412 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import java.util.concurrent.locks.LockSupport;
+
+import com.jogamp.common.ExceptionUtils;
+import com.jogamp.common.os.Clock;
+import com.jogamp.common.util.InterruptSource;
+import com.jogamp.common.util.SourcedInterruptedException;
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLException;
+import com.jogamp.opengl.GLProfile;
+
+/**
+ * An animator driving its {@link GLAutoDrawable}s at a target frame rate
+ * on a drift-free virtual time grid, see {@link FramePacer}.
+ * <p>
+ * Unlike {@link FPSAnimator}'s {@link java.util.Timer}, the animation thread waits for the next deadline
+ * via {@link LockSupport#parkNanos(Object, long)} followed by a short spin.
+ * The spin window adapts to the measured park overshoot of the platform,
+ * achieving sub-millisecond frame start jitter w/o burning a core.
+ * </p>
+ * <p>
+ * Late frames are either dropped or caught up, see {@link FramePacer.Policy}.
+ * Frame start jitter and display latency histograms are available via {@link #getFramePacer()}.
+ * </p>
+ * <p>
+ * The animation thread does not run as a daemon thread,
+ * call {@link #stop() } to terminate the animation and its execution thread.
+ * </p>
+ */
+public class PacedAnimator extends AnimatorBase {
+    /** Minimum spin window in nanoseconds, 50&micro;s. */
+    private static final long MIN_SPIN_NANOS =    50000L;
+    /** Maximum spin window in nanoseconds, 2ms. */
+    private static final long MAX_SPIN_NANOS =  2000000L;
+
+    private final FramePacer pacer;
+    private ThreadGroup threadGroup;
+    private Runnable runnable;
+    private boolean isAnimating;
+    private volatile boolean pauseIssued;
+    private volatile boolean stopIssued;
+    /** Spin window before a deadline, adapted to the park overshoot. Only accessed by the animation thread. */
+    private long spinNanos = MAX_SPIN_NANOS / 4;
+    private volatile long avgParkOvershoot = 0;
+
+    /**
+     * Creates a new, empty PacedAnimator w/ the given frame rate and {@link FramePacer.Policy#SKIP_FRAMES}.
+     * <p>
+     * This ctor variant expects an AWT rendering thread if AWT is available.
+     * </p>
+     * @see AnimatorBase#MODE_EXPECT_AWT_RENDERING_THREAD
+     * @see #PacedAnimator(int, GLAutoDrawable, float, FramePacer.Policy)
+     */
+    public PacedAnimator(final float fps) {
+        this(MODE_EXPECT_AWT_RENDERING_THREAD, null, fps, FramePacer.Policy.SKIP_FRAMES);
+    }
+
+    /**
+     * Creates a new PacedAnimator.
+     * <p>
+     * Passing {@link AnimatorBase#MODE_EXPECT_AWT_RENDERING_THREAD} is considered default.
+     * However, passing {@code 0} is recommended if not using AWT in your application.
+     * </p>
+     * @param modeBits pass {@link AnimatorBase#MODE_EXPECT_AWT_RENDERING_THREAD} if an AWT rendering thread is expected, otherwise {@code 0}.
+     * @param drawable {@link #add(GLAutoDrawable) added} {@link GLAutoDrawable} or {@code null}
+     * @param fps target frames per second
+     * @param policy late frame policy
+     * @see AnimatorBase#MODE_EXPECT_AWT_RENDERING_THREAD
+     * @see GLProfile#isAWTAvailable()
+     */
+    public PacedAnimator(final int modeBits, final GLAutoDrawable drawable, final float fps, final FramePacer.Policy policy) {
+        super(modeBits);
+        pacer = new FramePacer(FramePacer.getPeriod(fps), policy);
+        if( null != drawable ) {
+            add(drawable);
+        }
+        if(DEBUG) {
+            System.err.println("PacedAnimator created, modeBits 0x"+Integer.toHexString(modeBits)+", "+pacer+" and "+drawable);
+        }
+    }
+
+    @Override
+    protected final String getBaseName(final String prefix) {
+        return "Paced" + prefix + "Animator" ;
+    }
+
+    /**
+     * Returns the {@link FramePacer} for its statistics and histograms.
+     * Its configuration shall only be changed via this animator's setter while not {@link #isStarted() started}.
+     */
+    public final FramePacer getFramePacer() { return pacer; }
+
+    /**
+     * Sets the target frame rate.
+     * @throws GLException if the animator has already been started
+     */
+    public final synchronized void setFPS(final float fps) throws GLException {
+        if ( isStarted() ) {
+            throw new GLException("Animator already started.");
+        }
+        pacer.setPeriod(FramePacer.getPeriod(fps));
+    }
+    /** Returns the target frame rate. */
+    public final float getFPS() { return (float) ( 1e9 / pacer.getPeriod() ); }
+
+    /**
+     * Sets the late frame policy.
+     * @throws GLException if the animator has already been started
+     */
+    public final synchronized void setPolicy(final FramePacer.Policy policy) throws GLException {
+        if ( isStarted() ) {
+            throw new GLException("Animator already started.");
+        }
+        pacer.setPolicy(policy);
+    }
+
+    /**
+     * Sets the maximum frames caught up in {@link FramePacer.Policy#CATCH_UP} mode.
+     * @throws GLException if the animator has already been started
+     */
+    public final synchronized void setMaxCatchUpFrames(final int n) throws GLException {
+        if ( isStarted() ) {
+            throw new GLException("Animator already started.");
+        }
+        pacer.setMaxCatchUpFrames(n);
+    }
+
+    /** Returns the moving average of the {@link LockSupport#parkNanos(Object, long) park} overshoot in nanoseconds, determining the spin window. */
+    public final long getAverageParkOvershoot() { return avgParkOvershoot; }
+
+    /**
+     * Set a {@link ThreadGroup} for the {@link #getThread() animation thread}.
+     *
+     * @param tg the {@link ThreadGroup}
+     * @throws GLException if the animator has already been started
+     */
+    public final synchronized void setThreadGroup(final ThreadGroup tg) throws GLException {
+        if ( isStarted() ) {
+            throw new GLException("Animator already started.");
+        }
+        threadGroup = tg;
+    }
+
+    /**
+     * Waits until the {@link FramePacer#getDeadline() deadline} via park and spin.
+     * @return false if pause or stop has been issued meanwhile
+     */
+    private boolean waitForDeadline() {
+        while( !pauseIssued && !stopIssued ) {
+            final long t0 = Clock.currentNanos();
+            final long wait = pacer.getWaitNanos(t0);
+            if( 0 >= wait ) {
+                return true;
+            }
+            if( wait > spinNanos ) {
+                final long parkNanos = wait - spinNanos;
+                LockSupport.parkNanos(this, parkNanos);
+                final long overshoot = Clock.currentNanos() - t0 - parkNanos;
+                if( 0 <= overshoot ) { // not unparked early
+                    final long avg = avgParkOvershoot + ( ( overshoot - avgParkOvershoot ) >> 3 );
+                    avgParkOvershoot = avg;
+                    spinNanos = Math.max(MIN_SPIN_NANOS, Math.min(MAX_SPIN_NANOS, 2*avg));
+                }
+            } else {
+                Thread.yield();
+            }
+        }
+        return false;
+    }
+
+    class MainLoop implements Runnable {
+        @Override
+        public String toString() {
+            return "[started "+isStarted()+", animating "+isAnimating()+", paused "+isPaused()+", drawable "+drawables.size()+", drawablesEmpty "+drawablesEmpty+"]";
+        }
+
+        @Override
+        public void run() {
+            ThreadDeath caughtThreadDeath = null;
+            UncaughtAnimatorException caughtException = null;
+
+            try {
+                synchronized (PacedAnimator.this) {
+                    if(DEBUG) {
+                        System.err.println("PacedAnimator start on " + getThreadName() + ": " + toString());
+                    }
+                    fpsCounter.resetFPSCounter();
+                    animThread = Thread.currentThread();
+                    isAnimating = false;
+                    // 'waitForStartedCondition' wake-up is handled below!
+                }
+
+                while (!stopIssued) {
+                    synchronized (PacedAnimator.this) {
+                        // Pause; Also don't consume CPU unless there is work to be done and not paused
+                        boolean ectCleared = false;
+                        while ( !stopIssued && ( pauseIssued || drawablesEmpty ) ) {
+                            if( drawablesEmpty ) {
+                                pauseIssued = true;
+                            }
+                            final boolean wasPaused = pauseIssued;
+                            if (DEBUG) {
+                                System.err.println("PacedAnimator pause on " + animThread.getName() + ": " + toString());
+                            }
+                            if ( exclusiveContext && !drawablesEmpty && !ectCleared ) {
+                                ectCleared = true;
+                                setDrawablesExclCtxState(false);
+                                try {
+                                    display(); // propagate exclusive context -> off!
+                                } catch (final UncaughtAnimatorException dre) {
+                                    caughtException = dre;
+                                    stopIssued = true;
+                                    break; // end pause loop
+                                }
+                            }
+                            isAnimating = false;
+                            PacedAnimator.this.notifyAll();
+                            try {
+                                PacedAnimator.this.wait();
+                            } catch (final InterruptedException e) {
+                                caughtException = new UncaughtAnimatorException(null, SourcedInterruptedException.wrap(e));
+                                stopIssued = true;
+                                break; // end pause loop
+                            }
+                            if (wasPaused) {
+                                // resume from pause -> reset counter
+                                fpsCounter.resetFPSCounter();
+                                if (DEBUG) {
+                                    System.err.println("PacedAnimator resume on " + animThread.getName() + ": " + toString());
+                                }
+                            }
+                        }
+                        if (!stopIssued && !isAnimating) {
+                            // Wakes up 'waitForStartedCondition' sync
+                            // - and -
+                            // Resume from pause or drawablesEmpty,
+                            // implies !pauseIssued and !drawablesEmpty
+                            isAnimating = true;
+                            pacer.reset(Clock.currentNanos()); // new grid, no catch-up across pauses
+                            setDrawablesExclCtxState(exclusiveContext); // may re-enable exclusive context
+                            PacedAnimator.this.notifyAll();
+                        }
+                    } // sync PacedAnimator.this
+                    if ( waitForDeadline() ) {
+                        pacer.beginFrame(Clock.currentNanos());
+                        try {
+                            display();
+                        } catch (final UncaughtAnimatorException dre) {
+                            caughtException = dre;
+                            stopIssued = true;
+                            break; // end animation loop
+                        }
+                        pacer.endFrame(Clock.currentNanos());
+                    }
+                }
+            } catch(final ThreadDeath td) {
+                if(DEBUG) {
+                    ExceptionUtils.dumpThrowable("", td);
+                }
+                caughtThreadDeath = td;
+            }
+            if( exclusiveContext && !drawablesEmpty ) {
+                setDrawablesExclCtxState(false);
+                try {
+                    display(); // propagate exclusive context -> off!
+                } catch (final UncaughtAnimatorException dre) {
+                    if( null == caughtException ) {
+                        caughtException = dre;
+                    } else {
+                        ExceptionUtils.dumpThrowable("(setExclusiveContextThread)", dre);
+                    }
+                }
+            }
+            boolean flushGLRunnables = false;
+            boolean throwCaughtException = false;
+            synchronized (PacedAnimator.this) {
+                if(DEBUG) {
+                    System.err.println("PacedAnimator stop on " + animThread.getName() + ": " + toString()+", "+pacer);
+                    if( null != caughtException ) {
+                        ExceptionUtils.dumpThrowable("", caughtException);
+                    }
+                }
+                stopIssued = false;
+                pauseIssued = false;
+                isAnimating = false;
+                if( null != caughtException ) {
+                    flushGLRunnables = true;
+                    throwCaughtException = !handleUncaughtException(caughtException);
+                }
+                animThread = null;
+                PacedAnimator.this.notifyAll();
+            }
+            if( flushGLRunnables ) {
+                flushGLRunnables();
+            }
+            if( throwCaughtException ) {
+                throw caughtException;
+            }
+            if( null != caughtThreadDeath ) {
+                throw caughtThreadDeath;
+            }
+        }
+    }
+
+    @Override
+    public final synchronized boolean isAnimating() {
+        return animThread != null && isAnimating ;
+    }
+
+    @Override
+    public final synchronized boolean isPaused() {
+        return animThread != null && pauseIssued ;
+    }
+
+    @Override
+    public final synchronized boolean start() {
+        if ( isStarted() ) {
+            return false;
+        }
+        if (runnable == null) {
+            runnable = new MainLoop();
+        }
+        fpsCounter.resetFPSCounter();
+        final Thread thread = new InterruptSource.Thread(threadGroup, runnable, getThreadName()+"-"+baseName);
+        thread.setDaemon(false); // force to be non daemon, regardless of parent thread
+        if(DEBUG) {
+            final Thread ct = Thread.currentThread();
+            System.err.println("PacedAnimator "+ct.getName()+"[daemon "+ct.isDaemon()+"]: starting "+thread.getName()+"[daemon "+thread.isDaemon()+"]");
+        }
+        thread.start();
+        return finishLifecycleAction(waitForStartedCondition, 0);
+    }
+    private final Condition waitForStartedCondition = new Condition() {
+        @Override
+        public boolean eval() {
+            return !isStarted() || (!drawablesEmpty && !isAnimating) ;
+        } };
+
+    @Override
+    public final synchronized boolean stop() {
+        if ( !isStarted() ) {
+            return false;
+        }
+        stopIssued = true;
+        LockSupport.unpark(animThread); // wake up from pacing
+        return finishLifecycleAction(waitForStoppedCondition, 0);
+    }
+    private final Condition waitForStoppedCondition = new Condition() {
+        @Override
+        public boolean eval() {
+            return isStarted();
+        } };
+
+    @Override
+    public final synchronized boolean pause() {
+        if ( !isStarted() || pauseIssued ) {
+            return false;
+        }
+        pauseIssued = true;
+        LockSupport.unpark(animThread); // wake up from pacing
+        return finishLifecycleAction(waitForPausedCondition, 0);
+    }
+    private final Condition waitForPausedCondition = new Condition() {
+        @Override
+        public boolean eval() {
+            // end waiting if stopped as well
+            return isStarted() && isAnimating;
+        } };
+
+    @Override
+    public final synchronized boolean resume() {
+        if ( !isStarted() || !pauseIssued ) {
+            return false;
+        }
+        pauseIssued = false;
+        return finishLifecycleAction(waitForResumeCondition, 0);
+    }
+    private final Condition waitForResumeCondition = new Condition() {
+        @Override
+        public boolean eval() {
+            // end waiting if stopped as well
+            return isStarted() && ( !drawablesEmpty && !isAnimating || drawablesEmpty && !pauseIssued ) ;
+        } };
+}
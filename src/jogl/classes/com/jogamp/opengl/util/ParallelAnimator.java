@@ -0,0 +1,533 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import java.util.ArrayList;
+import java.util.concurrent.Phaser;
+
+import com.jogamp.common.ExceptionUtils;
+import com.jogamp.common.os.Clock;
+import com.jogamp.common.util.InterruptSource;
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLException;
+
+/**
+ * An animator rendering its independent {@link GLAutoDrawable}s concurrently,
+ * each on its own worker thread.
+ * <p>
+ * The animation thread drives ticks. Per tick all workers call {@link GLAutoDrawable#display()}
+ * on their drawable concurrently and the tick ends once all are done, i.e. a barrier per tick.
+ * Hence N offscreen drawables take about the time of the slowest one per tick instead of their sum.
+ * </p>
+ * <p>
+ * By default each worker claims its drawable's {@link GLAutoDrawable#setExclusiveContextThread(Thread) exclusive context thread},
+ * sparing the make-current/release per frame. The claims are released on {@link #pause()} and {@link #stop()},
+ * hence drawables may be added and removed at any time as usual.
+ * This per drawable exclusive context mode replaces the single thread {@link #setExclusiveContext(boolean)} mode,
+ * which shall not be used w/ this animator.
+ * </p>
+ * <p>
+ * Drawables shall not share a {@link com.jogamp.opengl.GLContext}, since a context can only be current on one thread.
+ * </p>
+ * <p>
+ * The FPS counter ticks once per tick. Tick durations and per drawable display durations are recorded
+ * in {@link TimeHistogram}s, see {@link #getTickHistogram()}, {@link #getDisplayHistogram()}
+ * and {@link #getDisplayHistogram(GLAutoDrawable)}.
+ * </p>
+ * <p>
+ * The animation and worker threads do not run as daemon threads,
+ * call {@link #stop() } to terminate the animation and its execution threads.
+ * </p>
+ */
+public class ParallelAnimator extends AnimatorBase {
+    private static final int TICK_DISPLAY = 0;
+    /** Release exclusive context threads, propagated via a final display. */
+    private static final int TICK_RELEASE = 1;
+    /** No display, only terminating workers act. */
+    private static final int TICK_NOP = 2;
+
+    private final boolean useExclusiveContext;
+    private final ArrayList<Worker> workers = new ArrayList<Worker>();
+    private final TimeHistogram tickHistogram = new TimeHistogram();
+    private final TimeHistogram displayHistogram = new TimeHistogram();
+    private ThreadGroup threadGroup;
+    private Runnable runnable;
+    private Phaser phaser;
+    private volatile int tickMode;
+    private boolean isAnimating;
+    private volatile boolean pauseIssued;
+    private volatile boolean stopIssued;
+
+    /**
+     * Creates a new, empty ParallelAnimator using per drawable exclusive context threads.
+     * @see #ParallelAnimator(ThreadGroup, boolean)
+     */
+    public ParallelAnimator() {
+        this(null, true);
+    }
+
+    /**
+     * Creates a new, empty ParallelAnimator.
+     * @param tg desired {@link ThreadGroup} of the animation and worker threads or {@code null}
+     * @param useExclusiveContext if {@code true}, each worker claims its drawable's exclusive context thread.
+     */
+    public ParallelAnimator(final ThreadGroup tg, final boolean useExclusiveContext) {
+        super(0); // workers call display() directly
+        this.threadGroup = tg;
+        this.useExclusiveContext = useExclusiveContext;
+        if(DEBUG) {
+            System.err.println("ParallelAnimator created, ThreadGroup: "+threadGroup+", exclusiveContext "+useExclusiveContext);
+        }
+    }
+
+    @Override
+    protected final String getBaseName(final String prefix) {
+        return "Parallel" + prefix + "Animator" ;
+    }
+
+    /**
+     * Set a {@link ThreadGroup} for the animation and worker threads.
+     *
+     * @param tg the {@link ThreadGroup}
+     * @throws GLException if the animator has already been started
+     */
+    public final synchronized void setThreadGroup(final ThreadGroup tg) throws GLException {
+        if ( isStarted() ) {
+            throw new GLException("Animator already started.");
+        }
+        threadGroup = tg;
+    }
+
+    /** Returns {@code true} if workers claim their drawable's exclusive context thread. */
+    public final boolean isPerDrawableExclusiveContext() { return useExclusiveContext; }
+
+    /** Returns the histogram of tick durations, i.e. from tick start until all drawables are displayed. */
+    public final TimeHistogram getTickHistogram() { return tickHistogram; }
+
+    /** Returns the histogram of display durations aggregated over all drawables. */
+    public final TimeHistogram getDisplayHistogram() { return displayHistogram; }
+
+    /** Returns the histogram of display durations of the given drawable while animated, or {@code null} if not animated. */
+    public final synchronized TimeHistogram getDisplayHistogram(final GLAutoDrawable drawable) {
+        final Worker w = getWorker(drawable);
+        return null != w ? w.displayHistogram : null;
+    }
+
+    /**
+     * Returns the achieved parallelism, i.e. the sum of all display durations
+     * divided by the sum of all tick durations, or zero if no tick has been recorded.
+     */
+    public final float getParallelism() {
+        final long ticks = tickHistogram.getSum();
+        return 0 < ticks ? (float) ( (double)displayHistogram.getSum() / ticks ) : 0f;
+    }
+
+    /** Clears all histograms. */
+    public final synchronized void resetStats() {
+        tickHistogram.reset();
+        displayHistogram.reset();
+        for(int i=0; i<workers.size(); i++) {
+            workers.get(i).displayHistogram.reset();
+        }
+    }
+
+    private Worker getWorker(final GLAutoDrawable drawable) {
+        for(int i=0; i<workers.size(); i++) {
+            final Worker w = workers.get(i);
+            if( w.drawable == drawable && !w.quit ) {
+                return w;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Matches the animation thread and all worker threads, since the animation thread
+     * waits for the workers each tick and vice versa.
+     * Hence lifecycle actions like {@link #stop()}, {@link #pause()} or {@link #remove(GLAutoDrawable)}
+     * issued within {@link GLAutoDrawable#display()} don't wait for their completion.
+     * </p>
+     */
+    @Override
+    protected final boolean isAnimatorThread(final Thread thread) {
+        if( thread == animThread ) {
+            return true;
+        }
+        for(int i=0; i<workers.size(); i++) {
+            if( workers.get(i).thread == thread ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Binds a worker to each drawable and retires workers of removed drawables.
+     * Called by the animation thread while holding the lock and not within a tick.
+     */
+    private void syncWorkers() {
+        for(int i=workers.size()-1; i>=0; i--) {
+            final Worker w = workers.get(i);
+            if( !drawables.contains(w.drawable) ) {
+                w.quit = true; // deregisters at next tick
+                workers.remove(i);
+            }
+        }
+        for(int i=0; i<drawables.size(); i++) {
+            final GLAutoDrawable d = drawables.get(i);
+            if( null == getWorker(d) ) {
+                final Worker w = new Worker(d, workers.size());
+                phaser.register();
+                workers.add(w);
+                w.thread.start();
+            }
+        }
+    }
+
+    private final class Worker implements Runnable {
+        final GLAutoDrawable drawable;
+        final Thread thread;
+        final TimeHistogram displayHistogram = new TimeHistogram();
+        volatile boolean quit = false;
+        boolean claimed = false;
+        volatile Throwable caught = null;
+
+        Worker(final GLAutoDrawable drawable, final int idx) {
+            this.drawable = drawable;
+            thread = new InterruptSource.Thread(threadGroup, this, animThread.getName()+"-Worker"+idx);
+            thread.setDaemon(false);
+        }
+
+        @Override
+        public void run() {
+            final Phaser p = phaser;
+            try {
+                while( true ) {
+                    p.arriveAndAwaitAdvance(); // tick start
+                    if( quit ) {
+                        if( claimed ) {
+                            // retired w/o passing the pause state, i.e. removed by a worker
+                            claimed = false;
+                            try {
+                                drawable.setExclusiveContextThread(null);
+                                drawable.display(); // propagate exclusive context -> off!
+                            } catch (final Throwable t) {
+                                if( printExceptions ) {
+                                    t.printStackTrace();
+                                }
+                            }
+                        }
+                        break;
+                    }
+                    final int mode = tickMode;
+                    if( TICK_NOP != mode ) {
+                        try {
+                            if( TICK_RELEASE == mode ) {
+                                if( claimed ) {
+                                    claimed = false;
+                                    drawable.setExclusiveContextThread(null);
+                                    drawable.display(); // propagate exclusive context -> off!
+                                }
+                            } else {
+                                if( useExclusiveContext && !claimed ) {
+                                    drawable.setExclusiveContextThread(thread);
+                                    claimed = true;
+                                }
+                                final long t0 = Clock.currentNanos();
+                                drawable.display();
+                                final long dt = Clock.currentNanos() - t0;
+                                displayHistogram.record(dt);
+                                ParallelAnimator.this.displayHistogram.record(dt);
+                            }
+                        } catch (final Throwable t) {
+                            caught = t;
+                        }
+                    }
+                    p.arriveAndAwaitAdvance(); // tick end
+                }
+            } finally {
+                p.arriveAndDeregister();
+            }
+        }
+    }
+
+    /**
+     * Runs one tick on all workers, returns once all are done.
+     * @return the first uncaught exception to be handled or {@code null}
+     */
+    private UncaughtAnimatorException tick(final int mode) {
+        tickMode = mode;
+        final long t0 = Clock.currentNanos();
+        phaser.arriveAndAwaitAdvance(); // tick start
+        phaser.arriveAndAwaitAdvance(); // tick end
+        if( TICK_DISPLAY == mode ) {
+            tickHistogram.record(Clock.currentNanos() - t0);
+            fpsCounter.tickFPS();
+        }
+        UncaughtAnimatorException res = null;
+        for(int i=0; i<workers.size(); i++) {
+            final Worker w = workers.get(i);
+            final Throwable t = w.caught;
+            if( null != t ) {
+                w.caught = null;
+                if( ignoreExceptions ) {
+                    if( printExceptions ) {
+                        t.printStackTrace();
+                    }
+                } else if( null == res ) {
+                    res = new UncaughtAnimatorException(w.drawable, t);
+                }
+            }
+        }
+        return res;
+    }
+
+    class MainLoop implements Runnable {
+        @Override
+        public String toString() {
+            return "[started "+isStarted()+", animating "+isAnimating()+", paused "+isPaused()+", drawable "+drawables.size()+", drawablesEmpty "+drawablesEmpty+", workers "+workers.size()+"]";
+        }
+
+        @Override
+        public void run() {
+            ThreadDeath caughtThreadDeath = null;
+            UncaughtAnimatorException caughtException = null;
+
+            try {
+                synchronized (ParallelAnimator.this) {
+                    if(DEBUG) {
+                        System.err.println("ParallelAnimator start on " + getThreadName() + ": " + toString());
+                    }
+                    fpsCounter.resetFPSCounter();
+                    animThread = Thread.currentThread();
+                    phaser = new Phaser(1); // animation thread
+                    isAnimating = false;
+                    // 'waitForStartedCondition' wake-up is handled below!
+                }
+
+                while (!stopIssued) {
+                    // Pause; Also don't consume CPU unless there is work to be done and not paused
+                    boolean released = false;
+                    while ( !stopIssued && ( pauseIssued || drawablesEmpty ) ) {
+                        if( useExclusiveContext && !released ) {
+                            released = true;
+                            final UncaughtAnimatorException e = tick(TICK_RELEASE);
+                            if( null != e ) {
+                                caughtException = e;
+                                stopIssued = true;
+                                break; // end pause loop
+                            }
+                        }
+                        synchronized (ParallelAnimator.this) {
+                            syncWorkers(); // retire workers of removed drawables
+                            if( drawablesEmpty ) {
+                                pauseIssued = true;
+                            }
+                            if( !stopIssued && pauseIssued ) {
+                                final boolean wasPaused = pauseIssued;
+                                if (DEBUG) {
+                                    System.err.println("ParallelAnimator pause on " + animThread.getName() + ": " + toString());
+                                }
+                                isAnimating = false;
+                                ParallelAnimator.this.notifyAll();
+                                try {
+                                    ParallelAnimator.this.wait();
+                                } catch (final InterruptedException e) {
+                                    caughtException = new UncaughtAnimatorException(null, e);
+                                    stopIssued = true;
+                                    break; // end pause loop
+                                }
+                                if (wasPaused) {
+                                    // resume from pause -> reset counter
+                                    fpsCounter.resetFPSCounter();
+                                    if (DEBUG) {
+                                        System.err.println("ParallelAnimator resume on " + animThread.getName() + ": " + toString());
+                                    }
+                                }
+                            }
+                        }
+                    }
+                    synchronized (ParallelAnimator.this) {
+                        if (!stopIssued && !isAnimating) {
+                            // Wakes up 'waitForStartedCondition' sync
+                            // - and -
+                            // Resume from pause or drawablesEmpty,
+                            // implies !pauseIssued and !drawablesEmpty
+                            syncWorkers();
+                            isAnimating = true;
+                            ParallelAnimator.this.notifyAll();
+                        } else {
+                            // add or remove issued by a worker w/o passing the pause state
+                            syncWorkers();
+                        }
+                    }
+                    if ( !pauseIssued && !stopIssued ) {
+                        final UncaughtAnimatorException e = tick(TICK_DISPLAY);
+                        if( null != e ) {
+                            caughtException = e;
+                            stopIssued = true;
+                            break; // end animation loop
+                        }
+                    }
+                }
+            } catch(final ThreadDeath td) {
+                if(DEBUG) {
+                    ExceptionUtils.dumpThrowable("", td);
+                }
+                caughtThreadDeath = td;
+            }
+            if( useExclusiveContext ) {
+                final UncaughtAnimatorException e = tick(TICK_RELEASE);
+                if( null != e ) {
+                    if( null == caughtException ) {
+                        caughtException = e;
+                    } else {
+                        ExceptionUtils.dumpThrowable("(setExclusiveContextThread)", e);
+                    }
+                }
+            }
+            synchronized (ParallelAnimator.this) {
+                for(int i=0; i<workers.size(); i++) {
+                    workers.get(i).quit = true;
+                }
+            }
+            tick(TICK_NOP); // all workers terminate
+            phaser.arriveAndDeregister();
+            boolean flushGLRunnables = false;
+            boolean throwCaughtException = false;
+            synchronized (ParallelAnimator.this) {
+                if(DEBUG) {
+                    System.err.println("ParallelAnimator stop on " + animThread.getName() + ": " + toString());
+                    if( null != caughtException ) {
+                        ExceptionUtils.dumpThrowable("", caughtException);
+                    }
+                }
+                workers.clear();
+                phaser = null;
+                stopIssued = false;
+                pauseIssued = false;
+                isAnimating = false;
+                if( null != caughtException ) {
+                    flushGLRunnables = true;
+                    throwCaughtException = !handleUncaughtException(caughtException);
+                }
+                animThread = null;
+                ParallelAnimator.this.notifyAll();
+            }
+            if( flushGLRunnables ) {
+                flushGLRunnables();
+            }
+            if( throwCaughtException ) {
+                throw caughtException;
+            }
+            if( null != caughtThreadDeath ) {
+                throw caughtThreadDeath;
+            }
+        }
+    }
+
+    @Override
+    public final synchronized boolean isAnimating() {
+        return animThread != null && isAnimating ;
+    }
+
+    @Override
+    public final synchronized boolean isPaused() {
+        return animThread != null && pauseIssued ;
+    }
+
+    @Override
+    public final synchronized boolean start() {
+        if ( isStarted() ) {
+            return false;
+        }
+        if (runnable == null) {
+            runnable = new MainLoop();
+        }
+        fpsCounter.resetFPSCounter();
+        final Thread thread = new InterruptSource.Thread(threadGroup, runnable, getThreadName()+"-"+baseName);
+        thread.setDaemon(false); // force to be non daemon, regardless of parent thread
+        if(DEBUG) {
+            final Thread ct = Thread.currentThread();
+            System.err.println("ParallelAnimator "+ct.getName()+"[daemon "+ct.isDaemon()+"]: starting "+thread.getName()+"[daemon "+thread.isDaemon()+"]");
+        }
+        thread.start();
+        return finishLifecycleAction(waitForStartedCondition, 0);
+    }
+    private final Condition waitForStartedCondition = new Condition() {
+        @Override
+        public boolean eval() {
+            return !isStarted() || (!drawablesEmpty && !isAnimating) ;
+        } };
+
+    @Override
+    public final synchronized boolean stop() {
+        if ( !isStarted() ) {
+            return false;
+        }
+        stopIssued = true;
+        return finishLifecycleAction(waitForStoppedCondition, 0);
+    }
+    private final Condition waitForStoppedCondition = new Condition() {
+        @Override
+        public boolean eval() {
+            return isStarted();
+        } };
+
+    @Override
+    public final synchronized boolean pause() {
+        if ( !isStarted() || pauseIssued ) {
+            return false;
+        }
+        pauseIssued = true;
+        return finishLifecycleAction(waitForPausedCondition, 0);
+    }
+    private final Condition waitForPausedCondition = new Condition() {
+        @Override
+        public boolean eval() {
+            // end waiting if stopped as well
+            return isStarted() && isAnimating;
+        } };
+
+    @Override
+    public final synchronized boolean resume() {
+        if ( !isStarted() || !pauseIssued ) {
+            return false;
+        }
+        pauseIssued = false;
+        return finishLifecycleAction(waitForResumeCondition, 0);
+    }
+    private final Condition waitForResumeCondition = new Condition() {
+        @Override
+        public boolean eval() {
+            // end waiting if stopped as well
+            return isStarted() && ( !drawablesEmpty && !isAnimating || drawablesEmpty && !pauseIssued ) ;
+        } };
+}
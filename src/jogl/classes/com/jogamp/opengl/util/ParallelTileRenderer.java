@@ -0,0 +1,538 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.jogamp.common.util.InterruptSource;
+import com.jogamp.common.util.IOUtil;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLCapabilities;
+import com.jogamp.opengl.GLCapabilitiesImmutable;
+import com.jogamp.opengl.GLContext;
+import com.jogamp.opengl.GLDrawableFactory;
+import com.jogamp.opengl.GLEventListener;
+import com.jogamp.opengl.GLException;
+import com.jogamp.opengl.GLOffscreenAutoDrawable;
+import com.jogamp.opengl.util.GLPixelBuffer.GLPixelAttributes;
+import com.jogamp.opengl.util.texture.TextureData;
+
+import jogamp.opengl.Debug;
+import jogamp.opengl.util.pngj.ImageInfo;
+import jogamp.opengl.util.pngj.ImageLine;
+import jogamp.opengl.util.pngj.PngWriter;
+import jogamp.opengl.util.pngj.chunks.PngChunkTextVar;
+
+/**
+ * Renders a large image in tiles, distributing the tiles across several offscreen {@link GLAutoDrawable}s
+ * rendered concurrently by one thread each, and streams the assembled image into a PNG file.
+ * <p>
+ * All offscreen drawables share their {@link GLContext} with the {@link #getSharedAutoDrawable() shared drawable},
+ * hence textures and buffers created once in the shared context are usable by all tile listeners.
+ * Each offscreen drawable uses its own {@link GLEventListener} created by the {@link ListenerFactory},
+ * which must implement {@link TileRendererBase.TileRendererListener} to reshape its PMV matrix per tile,
+ * see {@link RandomTileRenderer} and <a href="TileRendererBase.html#pmvmatrix">PMV Matrix Considerations</a>.
+ * </p>
+ * <p>
+ * Tiles are scheduled band by band from the top of the image, a band being one tile-row.
+ * Each rendered tile is read back via an {@link AsyncGLReadBufferUtil}, i.e. while the next tile is being rendered,
+ * and copied into a memory-mapped temporary file holding the assembled image.
+ * As soon as all tiles of the next band are assembled, the band is written to the {@link PngWriter}
+ * by the thread calling {@link #render(int, int, boolean, OutputStream) render(..)}.
+ * Hence Java heap usage is bounded by the tile readback buffers and one PNG row,
+ * independent of the image size, while the image itself is backed by the file system.
+ * </p>
+ * <p>
+ * PNG compression is a single stream, hence encoding is performed by one thread,
+ * pipelined with rendering, readback and assembly of the following bands.
+ * </p>
+ */
+public class ParallelTileRenderer {
+    private static final boolean DEBUG = Debug.debug("ParallelTileRenderer");
+
+    /** Creates the {@link GLEventListener} rendering the tiles of one offscreen drawable. */
+    public static interface ListenerFactory {
+        /**
+         * Returns a new {@link GLEventListener} for the offscreen drawable of the given index,
+         * which shall implement {@link TileRendererBase.TileRendererListener}.
+         * <p>
+         * Listener instances are not shared between offscreen drawables and are only called by its drawable's render thread.
+         * </p>
+         * @param index the offscreen drawable index, [0 .. {@link ParallelTileRenderer#getWorkerCount()}-1]
+         */
+        GLEventListener createListener(int index);
+    }
+
+    /** Always reading RGBA bytes, the assembled image format regardless of the GL implementation's preferred format. */
+    private static final GLPixelBuffer.GLPixelBufferProvider rgbaProvider = new GLPixelBuffer.DefaultGLPixelBufferProvider(false) {
+        @Override
+        public GLPixelAttributes getAttributes(final GL gl, final int componentCount, final boolean pack) {
+            return new GLPixelAttributes(GL.GL_RGBA, GL.GL_UNSIGNED_BYTE);
+        }
+    };
+    private static final int BYTES_PER_PIXEL = 4;
+
+    private static final class Tile {
+        final int band, x, y, width, height;
+        Tile(final int band, final int x, final int y, final int width, final int height) {
+            this.band = band;
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    private final GLCapabilitiesImmutable caps;
+    private final int tileWidth, tileHeight;
+    private final ListenerFactory listenerFactory;
+    private final GLAutoDrawable sharedDrawable;
+    private final Worker[] workers;
+    private volatile boolean destroyed = false;
+
+    /**
+     * Creates the {@link #getSharedAutoDrawable() shared drawable} and the offscreen drawables.
+     * @param caps the requested capabilities of the offscreen drawables
+     * @param workerCount number of offscreen drawables rendering concurrently, minimum 1
+     * @param tileWidth tile width, i.e. the offscreen drawable width
+     * @param tileHeight tile height, i.e. the offscreen drawable and band height
+     * @param listenerFactory creating the tile listener of each offscreen drawable
+     * @throws GLException if the drawables could not be created
+     */
+    public ParallelTileRenderer(final GLCapabilitiesImmutable caps, final int workerCount,
+                                final int tileWidth, final int tileHeight,
+                                final ListenerFactory listenerFactory) throws GLException {
+        if( 0 >= tileWidth || 0 >= tileHeight ) {
+            throw new IllegalArgumentException("Tile size must be > 0x0");
+        }
+        if( null == listenerFactory ) {
+            throw new IllegalArgumentException("Null listenerFactory");
+        }
+        final GLCapabilities offCaps = (GLCapabilities) caps.cloneMutable();
+        offCaps.setOnscreen(false);
+        this.caps = offCaps;
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+        this.listenerFactory = listenerFactory;
+
+        final GLDrawableFactory factory = GLDrawableFactory.getFactory(caps.getGLProfile());
+        sharedDrawable = factory.createDummyAutoDrawable(null, true, offCaps, null);
+        sharedDrawable.display(); // realize the shared context
+        workers = new Worker[Math.max(1, workerCount)];
+        try {
+            for(int i=0; i<workers.length; i++) {
+                workers[i] = new Worker(i, factory);
+            }
+        } catch (final GLException gle) {
+            destroy();
+            throw gle;
+        }
+    }
+
+    /** Returns the number of offscreen drawables rendering concurrently. */
+    public final int getWorkerCount() { return workers.length; }
+    /** Returns the tile width. */
+    public final int getTileWidth() { return tileWidth; }
+    /** Returns the tile height, i.e. the band height. */
+    public final int getTileHeight() { return tileHeight; }
+    /** Returns the requested capabilities of the offscreen drawables. */
+    public final GLCapabilitiesImmutable getRequestedGLCapabilities() { return caps; }
+
+    /**
+     * Returns the realized {@link GLAutoDrawable} all offscreen drawables share their {@link GLContext} with.
+     * <p>
+     * May be used to create shared GL objects before {@link #render(int, int, boolean, OutputStream) rendering},
+     * e.g. via {@link GLAutoDrawable#invoke(boolean, com.jogamp.opengl.GLRunnable) invoke(..)}.
+     * </p>
+     */
+    public final GLAutoDrawable getSharedAutoDrawable() { return sharedDrawable; }
+
+    /**
+     * Returns the offscreen {@link GLAutoDrawable} of the given index, having a {@link RandomTileRenderer} attached.
+     * @param index [0 .. {@link #getWorkerCount()}-1]
+     */
+    public final GLAutoDrawable getAutoDrawable(final int index) { return workers[index].drawable; }
+
+    /**
+     * Renders an image of the given size and writes it as PNG into the given stream.
+     * <p>
+     * Blocks until the image is completely written. The stream is not closed.
+     * Must not be called concurrently.
+     * </p>
+     * @param imageWidth the image width
+     * @param imageHeight the image height
+     * @param alpha if true, writes an RGBA PNG, otherwise an RGB PNG
+     * @param out the PNG output stream
+     * @throws IOException if creating the temporary image file or writing the PNG failed
+     * @throws InterruptedException if interrupted while waiting for tiles
+     * @throws GLException if rendering a tile failed
+     */
+    public synchronized void render(final int imageWidth, final int imageHeight, final boolean alpha, final OutputStream out)
+            throws IOException, InterruptedException, GLException
+    {
+        if( destroyed ) {
+            throw new IllegalStateException("ParallelTileRenderer destroyed");
+        }
+        if( 0 >= imageWidth || 0 >= imageHeight ) {
+            throw new IllegalArgumentException("Image size must be > 0x0");
+        }
+        final long rowBytes = (long)imageWidth * BYTES_PER_PIXEL;
+        if( (long)tileHeight * rowBytes > Integer.MAX_VALUE ) {
+            throw new IllegalArgumentException("Band of "+imageWidth+"x"+tileHeight+" exceeds 2GB");
+        }
+        final File file = File.createTempFile("jogl_ptr_", ".rgba");
+        final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            final Job job = new Job(raf.getChannel(), imageWidth, imageHeight, (int)rowBytes);
+            final Thread[] threads = new Thread[workers.length];
+            for(int i=0; i<workers.length; i++) {
+                threads[i] = workers[i].start(job);
+            }
+            try {
+                writePNG(job, alpha, out);
+            } finally {
+                job.abort(null); // no-op if completed
+                for(int i=0; i<threads.length; i++) {
+                    threads[i].join();
+                }
+            }
+            job.throwFailure();
+            if( DEBUG ) {
+                System.err.println("ParallelTileRenderer: rendered "+imageWidth+"x"+imageHeight+", "+job.bandCount+" bands, "+job.tileCount+" tiles, "+workers.length+" workers");
+            }
+        } finally {
+            IOUtil.close(raf, false);
+            if( !file.delete() ) {
+                file.deleteOnExit();
+            }
+        }
+    }
+
+    /** Writes all bands in order as soon as they are assembled. */
+    private void writePNG(final Job job, final boolean alpha, final OutputStream out) throws InterruptedException {
+        final int width = job.imageWidth;
+        final int height = job.imageHeight;
+        final ImageInfo imi = new ImageInfo(width, height, 8 /* bitdepth */, alpha, false /* grayscale */, false /* indexed */);
+        final PngWriter png = new PngWriter(out, imi);
+        png.setShouldCloseStream(false);
+        png.getMetadata().setTimeNow(0); // 0 seconds from now = now
+        png.getMetadata().setText(PngChunkTextVar.KEY_Title, "JogAmp ParallelTileRenderer");
+        final ImageLine line = new ImageLine(imi);
+        final byte[] src = new byte[job.rowBytes];
+        int row = 0;
+        for(int b=0; b<job.bandCount; b++) {
+            job.awaitBand(b);
+            final ByteBuffer band = job.takeBand(b);
+            final int rows = job.bandRows(b);
+            for(int r=0; r<rows; r++, row++) {
+                band.position(r * job.rowBytes);
+                band.get(src);
+                int lineOff = 0;
+                for(int i=0; i<src.length; i+=BYTES_PER_PIXEL) {
+                    line.scanline[lineOff++] = 0xff & src[i  ]; // R
+                    line.scanline[lineOff++] = 0xff & src[i+1]; // G
+                    line.scanline[lineOff++] = 0xff & src[i+2]; // B
+                    if( alpha ) {
+                        line.scanline[lineOff++] = 0xff & src[i+3]; // A
+                    }
+                }
+                png.writeRow(line, row);
+            }
+        }
+        png.end();
+    }
+
+    /**
+     * Destroys all drawables, including the {@link #getSharedAutoDrawable() shared drawable}.
+     */
+    public synchronized void destroy() {
+        if( destroyed ) {
+            return;
+        }
+        destroyed = true;
+        for(int i=0; i<workers.length; i++) {
+            if( null != workers[i] ) {
+                workers[i].destroy();
+                workers[i] = null;
+            }
+        }
+        sharedDrawable.destroy();
+    }
+
+    @Override
+    public String toString() {
+        return "ParallelTileRenderer[workers "+workers.length+", tile "+tileWidth+"x"+tileHeight+", destroyed "+destroyed+"]";
+    }
+
+    /** State of one {@link ParallelTileRenderer#render(int, int, boolean, OutputStream) render(..)} call. */
+    private final class Job {
+        final int imageWidth, imageHeight, rowBytes;
+        final int bandCount, tileCount;
+        final ConcurrentLinkedQueue<Tile> tiles = new ConcurrentLinkedQueue<Tile>();
+        /** Number of tiles per band not yet assembled. */
+        final AtomicIntegerArray pendingTiles;
+        /** Memory-mapped bands of the assembled image, released after being written. */
+        final MappedByteBuffer[] bands;
+        private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        private volatile boolean aborted = false;
+        private final Object sync = new Object();
+
+        Job(final FileChannel channel, final int imageWidth, final int imageHeight, final int rowBytes) throws IOException {
+            this.imageWidth = imageWidth;
+            this.imageHeight = imageHeight;
+            this.rowBytes = rowBytes;
+            bandCount = ( imageHeight + tileHeight - 1 ) / tileHeight;
+            final int columns = ( imageWidth + tileWidth - 1 ) / tileWidth;
+            tileCount = bandCount * columns;
+            pendingTiles = new AtomicIntegerArray(bandCount);
+            bands = new MappedByteBuffer[bandCount];
+            for(int b=0; b<bandCount; b++) {
+                // image rows top-down, i.e. band 0 is the top of the image
+                final int top = b * tileHeight;
+                final int rows = bandRows(b);
+                bands[b] = channel.map(FileChannel.MapMode.READ_WRITE, (long)top * rowBytes, (long)rows * rowBytes);
+                pendingTiles.set(b, columns);
+                final int y = imageHeight - top - rows; // GL bottom-up
+                for(int c=0; c<columns; c++) {
+                    final int x = c * tileWidth;
+                    tiles.add(new Tile(b, x, y, Math.min(tileWidth, imageWidth - x), rows));
+                }
+            }
+        }
+
+        final int bandRows(final int b) {
+            return Math.min(tileHeight, imageHeight - b * tileHeight);
+        }
+
+        /**
+         * Copies the bottom-up RGBA rows of a read back tile into its band.
+         * Called by the {@link AsyncGLReadBufferUtil} worker threads.
+         */
+        void assemble(final Tile tile, final ByteBuffer pixels) {
+            final ByteBuffer dst = bands[tile.band].duplicate();
+            final ByteBuffer src = pixels.duplicate();
+            final int tileRowBytes = tile.width * BYTES_PER_PIXEL;
+            final int base = src.position();
+            for(int r=0; r<tile.height; r++) {
+                final int bandRow = tile.height - 1 - r; // a tile spans its whole band
+                src.limit(base + ( r + 1 ) * tileRowBytes).position(base + r * tileRowBytes);
+                dst.position(bandRow * rowBytes + tile.x * BYTES_PER_PIXEL);
+                dst.put(src);
+            }
+            if( 0 == pendingTiles.decrementAndGet(tile.band) ) {
+                synchronized( sync ) {
+                    sync.notifyAll();
+                }
+            }
+        }
+
+        /** Waits until all tiles of band {@code b} are assembled. */
+        void awaitBand(final int b) throws InterruptedException {
+            synchronized( sync ) {
+                while( 0 < pendingTiles.get(b) ) {
+                    throwFailure();
+                    if( aborted ) {
+                        throw new GLException("ParallelTileRenderer: aborted");
+                    }
+                    sync.wait();
+                }
+            }
+        }
+
+        /** Returns band {@code b} for writing and drops its reference, allowing it to be unmapped. */
+        ByteBuffer takeBand(final int b) {
+            final ByteBuffer band = bands[b];
+            bands[b] = null;
+            return band;
+        }
+
+        /** Stops the workers, recording the first failure if not null. */
+        void abort(final Throwable t) {
+            if( null != t ) {
+                failure.compareAndSet(null, t);
+            }
+            aborted = true;
+            synchronized( sync ) {
+                sync.notifyAll();
+            }
+        }
+
+        boolean isAborted() { return aborted; }
+
+        void throwFailure() throws GLException {
+            final Throwable t = failure.get();
+            if( null != t ) {
+                throw new GLException("ParallelTileRenderer: Caught exception while rendering tiles", t);
+            }
+        }
+    }
+
+    /** An offscreen drawable with its tile renderer, rendered by its own thread during {@link ParallelTileRenderer#render(int, int, boolean, OutputStream) render(..)}. */
+    private final class Worker implements GLEventListener, AsyncGLReadBufferUtil.Listener {
+        final int index;
+        final GLOffscreenAutoDrawable drawable;
+        final RandomTileRenderer renderer = new RandomTileRenderer();
+        /** Tiles in flight by capture frame. */
+        final ConcurrentHashMap<Long, Tile> inFlight = new ConcurrentHashMap<Long, Tile>();
+        volatile Job job;
+        AsyncGLReadBufferUtil reader;
+        Tile tile;
+
+        Worker(final int index, final GLDrawableFactory factory) {
+            this.index = index;
+            drawable = factory.createOffscreenAutoDrawable(null, caps, null, tileWidth, tileHeight);
+            drawable.setSharedAutoDrawable(sharedDrawable);
+            drawable.addGLEventListener(listenerFactory.createListener(index));
+            renderer.attachAutoDrawable(drawable);
+            renderer.setGLEventListener(null, this);
+        }
+
+        Thread start(final Job job) {
+            this.job = job;
+            renderer.setImageSize(job.imageWidth, job.imageHeight);
+            reader = new AsyncGLReadBufferUtil(rgbaProvider, true, 3, true /* useWorker */, this);
+            final Thread t = new InterruptSource.Thread(null, new Runnable() {
+                @Override
+                public void run() {
+                    renderTiles();
+                } }, "ParallelTileRenderer-"+index);
+            t.setDaemon(true);
+            t.start();
+            return t;
+        }
+
+        void renderTiles() {
+            try {
+                Tile t;
+                while( !job.isAborted() && null != ( t = job.tiles.poll() ) ) {
+                    tile = t;
+                    renderer.display(t.x, t.y, t.width, t.height);
+                    if( null != tile ) {
+                        // display was skipped, e.g. context not current
+                        throw new GLException("ParallelTileRenderer: Tile "+t.x+"/"+t.y+" "+t.width+"x"+t.height+" not rendered by worker "+index);
+                    }
+                }
+            } catch (final Throwable t) {
+                job.abort(t);
+            } finally {
+                tile = null;
+                finishReader();
+            }
+        }
+
+        /**
+         * Delivers the remaining tiles in flight and releases the reader's GL resources.
+         * <p>
+         * If the context can't be made current, the tiles in flight are lost and the job is aborted,
+         * since their bands would never be completed.
+         * </p>
+         */
+        private void finishReader() {
+            final AsyncGLReadBufferUtil r = reader;
+            reader = null;
+            final GLContext ctx = drawable.getContext();
+            boolean current = false;
+            try {
+                current = null != ctx && GLContext.CONTEXT_NOT_CURRENT < ctx.makeCurrent();
+                if( current ) {
+                    final GL gl = ctx.getGL();
+                    if( !job.isAborted() ) {
+                        r.flush(gl);
+                    }
+                    r.dispose(gl);
+                }
+            } catch (final Throwable t) {
+                job.abort(t);
+            } finally {
+                if( current ) {
+                    ctx.release();
+                }
+            }
+            if( !current ) {
+                final int dropped = r.getInFlightCount();
+                r.dispose(null); // stops the reader's worker thread
+                if( 0 < dropped ) {
+                    job.abort(new GLException("ParallelTileRenderer: Worker "+index+" context not current, dropped "+dropped+" tiles in flight"));
+                }
+            }
+        }
+
+        @Override
+        public void init(final GLAutoDrawable drawable) { }
+
+        @Override
+        public void dispose(final GLAutoDrawable drawable) { }
+
+        /** Post tile hook, issuing the asynchronous readback of the rendered tile. */
+        @Override
+        public void display(final GLAutoDrawable drawable) {
+            final Tile t = tile;
+            if( null == t ) {
+                return; // not rendering
+            }
+            final Long frame = Long.valueOf(reader.getIssuedCount());
+            inFlight.put(frame, t);
+            if( !reader.readPixelsAsync(drawable.getGL(), 0, 0, t.width, t.height, false) ) {
+                inFlight.remove(frame);
+                throw new GLException("ParallelTileRenderer: Readback of tile "+t.x+"/"+t.y+" "+t.width+"x"+t.height+" failed");
+            }
+            tile = null; // issued
+        }
+
+        @Override
+        public void reshape(final GLAutoDrawable drawable, final int x, final int y, final int width, final int height) { }
+
+        @Override
+        public void pixelsRead(final long frame, final GLPixelBuffer pixels, final TextureData data) {
+            final Tile t = inFlight.remove(Long.valueOf(frame));
+            if( null != t && !job.isAborted() ) {
+                try {
+                    job.assemble(t, (ByteBuffer) pixels.buffer);
+                } catch (final Throwable e) {
+                    job.abort(e);
+                }
+            }
+        }
+
+        void destroy() {
+            renderer.detachAutoDrawable();
+            drawable.destroy();
+        }
+    }
+}
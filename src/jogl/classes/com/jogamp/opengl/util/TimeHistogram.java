@@ -0,0 +1,163 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of durations in nanoseconds using power of two microsecond buckets.
+ * <p>
+ * Bucket {@code 0} counts durations below 1&micro;s,
+ * bucket {@code i > 0} counts durations within [2<sup>i-1</sup>, 2<sup>i</sup>) &micro;s
+ * and the last bucket all longer durations.
+ * Exact minimum, maximum and sum are tracked as well.
+ * </p>
+ * <p>
+ * {@link #record(long)} may be called concurrently by any thread and does not allocate.
+ * Readers may observe a histogram concurrently being recorded,
+ * where the totals may lag behind individual buckets by the in-flight samples.
+ * </p>
+ */
+public final class TimeHistogram {
+    /** Number of buckets, the last one covering durations of &ge; 2<sup>{@code BUCKET_COUNT-2}</sup> &micro;s, i.e. ~8.4s. */
+    public static final int BUCKET_COUNT = 25;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+    public TimeHistogram() { }
+
+    /** Returns the bucket index for the given duration in nanoseconds. */
+    public static int getBucketIndex(final long nanos) {
+        final long us = nanos / 1000L;
+        if( 0 >= us ) {
+            return 0;
+        }
+        final int i = 64 - Long.numberOfLeadingZeros(us); // us in [2^(i-1), 2^i)
+        return Math.min(i, BUCKET_COUNT-1);
+    }
+
+    /** Returns the exclusive upper bound of the given bucket in nanoseconds, {@link Long#MAX_VALUE} for the last bucket. */
+    public static long getBucketUpperBound(final int bucket) {
+        if( BUCKET_COUNT-1 <= bucket ) {
+            return Long.MAX_VALUE;
+        }
+        return ( 1L << bucket ) * 1000L;
+    }
+
+    /** Records the given duration in nanoseconds, negative durations are counted as zero. */
+    public void record(long nanos) {
+        if( 0 > nanos ) {
+            nanos = 0;
+        }
+        buckets.incrementAndGet(getBucketIndex(nanos));
+        sum.addAndGet(nanos);
+        long m;
+        while( nanos < ( m = min.get() ) && !min.compareAndSet(m, nanos) ) { }
+        while( nanos > ( m = max.get() ) && !max.compareAndSet(m, nanos) ) { }
+        count.incrementAndGet();
+    }
+
+    /** Clears all samples. */
+    public void reset() {
+        count.set(0);
+        for(int i=0; i<BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        sum.set(0);
+        min.set(Long.MAX_VALUE);
+        max.set(Long.MIN_VALUE);
+    }
+
+    /** Returns the number of recorded samples. */
+    public long getCount() { return count.get(); }
+
+    /** Returns the number of samples in the given bucket. */
+    public long getCount(final int bucket) { return buckets.get(bucket); }
+
+    /** Returns the minimum duration in nanoseconds or zero if empty. */
+    public long getMin() { return 0 < count.get() ? min.get() : 0; }
+
+    /** Returns the maximum duration in nanoseconds or zero if empty. */
+    public long getMax() { return 0 < count.get() ? max.get() : 0; }
+
+    /** Returns the sum of all durations in nanoseconds. */
+    public long getSum() { return sum.get(); }
+
+    /** Returns the mean duration in nanoseconds or zero if empty. */
+    public long getMean() {
+        final long n = count.get();
+        return 0 < n ? sum.get() / n : 0;
+    }
+
+    /**
+     * Returns an upper bound of the given percentile in nanoseconds, i.e. the upper bound of the bucket
+     * containing the percentile clipped to {@link #getMax()}, or zero if empty.
+     * @param p percentile within [0..1]
+     */
+    public long getPercentile(final float p) {
+        long total = 0;
+        final long[] c = new long[BUCKET_COUNT];
+        for(int i=0; i<BUCKET_COUNT; i++) {
+            c[i] = buckets.get(i);
+            total += c[i];
+        }
+        if( 0 == total ) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long)Math.ceil(p * total));
+        long acc = 0;
+        for(int i=0; i<BUCKET_COUNT; i++) {
+            acc += c[i];
+            if( acc >= rank ) {
+                return Math.min(getBucketUpperBound(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /** Appends a one line summary w/ durations in milliseconds. */
+    public StringBuilder toString(StringBuilder sb) {
+        if( null == sb ) {
+            sb = new StringBuilder();
+        }
+        sb.append(String.format((Locale)null, "n %d, min %.3f, mean %.3f, p50 %.3f, p90 %.3f, p99 %.3f, max %.3f ms",
+                getCount(), getMin()/1e6, getMean()/1e6, getPercentile(0.5f)/1e6, getPercentile(0.9f)/1e6, getPercentile(0.99f)/1e6, getMax()/1e6));
+        return sb;
+    }
+
+    @Override
+    public String toString() {
+        return toString(null).toString();
+    }
+}
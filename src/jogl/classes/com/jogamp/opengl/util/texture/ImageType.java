@@ -219,6 +219,17 @@ public class ImageType {
      */
     public static final String T_DDS     = "dds";
 
+    /**
+     * Constant which can be used as a file suffix to indicate a Khronos KTX 2.0 texture stream, value {@value}.
+     * <p>
+     * '«' 'K' 'T' 'X' ' ' '2' '0' '»' '\r' '\n' '\x1A' '\n' ascii code
+     * </p>
+     * <ul>
+     * <li>{@code https://registry.khronos.org/KTX/specs/2.0/ktxspec.v2.html#_identifier}</li>
+     * </ul>
+     */
+    public static final String T_KTX2    = "ktx2";
+
     /**
      * Constant which can be used as a file suffix to indicate a Portable Arbitrary Map stream, NetPbm magic 7 - binary RGB and RGBA.
      * <ul>
@@ -1540,6 +1551,11 @@ public class ImageType {
                      b[6] == (byte)0x1A && b[7] == (byte)0x0A) {
                 return T_MNG;
             }
+            else if (b0 == (byte)0xAB && b1 == (byte)0x4B && b2 == (byte)0x54 && b3 == (byte)0x58 && /* 'K' 'T' 'X', ascii code */
+                     b4 == (byte)0x20 && b5 == (byte)0x32 && b[6] == (byte)0x30 && b[7] == (byte)0xBB &&
+                     b[8] == (byte)0x0D && b[9] == (byte)0x0A && b[10] == (byte)0x1A && b[11] == (byte)0x0A) {
+                return T_KTX2;
+            }
             else if (b0 == (byte)0xD0 && b1 == (byte)0xCF && b2 == (byte)0x11 && b3 == (byte)0xE0 &&
                      b4 == (byte)0xA1 && b5 == (byte)0xB1 &&
                      b[6] == (byte)0x1A && b[7] == (byte)0xE1 && b[8] == (byte)0x00) {
@@ -0,0 +1,545 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util.texture;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.URL;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.jogamp.common.util.IOUtil;
+import com.jogamp.opengl.GLProfile;
+
+import jogamp.opengl.Debug;
+
+/**
+ * Cache of decoded {@link TextureData}, keyed by source identity and decode options.
+ * <p>
+ * The key consists of the source identity and the decode options, i.e.
+ * {@link GLProfile}, internal- and pixel-format, mipmap and file suffix as passed to
+ * {@link TextureIO#newTextureData(GLProfile, File, int, int, boolean, String) TextureIO}.
+ * The source identity is
+ * <ul>
+ *   <li>the canonical path, length and modification time of a {@link File},</li>
+ *   <li>the external form of a {@link URL}, i.e. its content is assumed immutable,</li>
+ *   <li>the SHA-1 digest of the content of an {@link InputStream}.</li>
+ * </ul>
+ * </p>
+ * <p>
+ * Cached entries are accounted with their {@link TextureData#getEstimatedMemorySize() memory size},
+ * heap and direct (off-heap) buffers alike, against the byte budget.
+ * Exceeding the budget evicts the least recently used entries.
+ * If a spill directory is given, evicted {@link ByteBuffer} backed entries are written to it in raw form
+ * and memory-mapped back on their next request, skipping the decoder.
+ * </p>
+ * <p>
+ * Each request returns a new {@link TextureData} instance sharing the cached pixel storage,
+ * i.e. {@link TextureData#flush()} of the returned instance does not release the cached data.
+ * The pixel storage shall be treated as read-only.
+ * </p>
+ * <p>
+ * This class is thread safe, however, concurrent misses of the same key may decode the source twice.
+ * </p>
+ */
+public class TextureDataCache {
+    private static final boolean DEBUG = Debug.debug("TextureDataCache");
+
+    /** Spill file magic 'JTDC' */
+    private static final int SPILL_MAGIC = 0x4A544443;
+    private static final int SPILL_VERSION = 1;
+    private static final String SPILL_SUFFIX = ".tdc";
+
+    private static interface Decoder {
+        TextureData decode() throws IOException;
+    }
+
+    private final long byteBudget;
+    private final File spillDir;
+    /** LRU order, least recently used first. */
+    private final LinkedHashMap<String, TextureData> entries = new LinkedHashMap<String, TextureData>(64, 0.75f, true);
+    /** Keys of in-memory entries mapped from their unchanged spill file, not to be spilled again. */
+    private final HashSet<String> mappedFromSpill = new HashSet<String>();
+    private long usedBytes = 0;
+    private long usedDirectBytes = 0;
+
+    private long hitCount = 0;
+    private long spillHitCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+    private long spillCount = 0;
+
+    /**
+     * Creates a new cache.
+     * @param byteBudget maximum number of bytes held in memory by cached {@link TextureData}
+     * @param spillDir optional directory to spill evicted entries to, may be {@code null}
+     * @throws IOException if the spill directory could not be created
+     */
+    public TextureDataCache(final long byteBudget, final File spillDir) throws IOException {
+        if( 0 > byteBudget ) {
+            throw new IllegalArgumentException("Invalid byteBudget "+byteBudget);
+        }
+        this.byteBudget = byteBudget;
+        this.spillDir = spillDir;
+        if( null != spillDir && !spillDir.isDirectory() && !spillDir.mkdirs() ) {
+            throw new IOException("Could not create spill directory "+spillDir);
+        }
+    }
+
+    /**
+     * Returns the cached or newly decoded {@link TextureData} of the given file.
+     * <p>
+     * Parameter semantics are equal to {@link TextureIO#newTextureData(GLProfile, File, int, int, boolean, String)},
+     * however, {@code internalFormat} and {@code pixelFormat} may both be zero to infer them from the file content.
+     * </p>
+     * @return the texture data or null if none of the registered texture providers could read the file
+     */
+    public TextureData get(final GLProfile glp, final File file, final int internalFormat, final int pixelFormat,
+                           final boolean mipmap, final String fileSuffix) throws IOException {
+        final String source = "file:"+file.getCanonicalPath()+"#"+file.length()+"@"+file.lastModified();
+        return get(createKey(source, glp, internalFormat, pixelFormat, mipmap, fileSuffix), glp, new Decoder() {
+            @Override
+            public TextureData decode() throws IOException {
+                if( 0 == internalFormat && 0 == pixelFormat ) {
+                    return TextureIO.newTextureData(glp, file, mipmap, fileSuffix);
+                } else {
+                    return TextureIO.newTextureData(glp, file, internalFormat, pixelFormat, mipmap, fileSuffix);
+                }
+            } });
+    }
+
+    /**
+     * Returns the cached or newly decoded {@link TextureData} of the given URL.
+     * <p>
+     * Parameter semantics are equal to {@link TextureIO#newTextureData(GLProfile, URL, int, int, boolean, String)},
+     * however, {@code internalFormat} and {@code pixelFormat} may both be zero to infer them from the URL content.
+     * </p>
+     * @return the texture data or null if none of the registered texture providers could read the URL
+     */
+    public TextureData get(final GLProfile glp, final URL url, final int internalFormat, final int pixelFormat,
+                           final boolean mipmap, final String fileSuffix) throws IOException {
+        return get(createKey("url:"+url.toExternalForm(), glp, internalFormat, pixelFormat, mipmap, fileSuffix), glp, new Decoder() {
+            @Override
+            public TextureData decode() throws IOException {
+                if( 0 == internalFormat && 0 == pixelFormat ) {
+                    return TextureIO.newTextureData(glp, url, mipmap, fileSuffix);
+                } else {
+                    return TextureIO.newTextureData(glp, url, internalFormat, pixelFormat, mipmap, fileSuffix);
+                }
+            } });
+    }
+
+    /**
+     * Returns the cached or newly decoded {@link TextureData} of the given stream's content.
+     * <p>
+     * The stream is read completely to compute its content digest, but not closed.
+     * </p>
+     * <p>
+     * Parameter semantics are equal to {@link TextureIO#newTextureData(GLProfile, InputStream, int, int, boolean, String)},
+     * however, {@code internalFormat} and {@code pixelFormat} may both be zero to infer them from the stream content.
+     * </p>
+     * @return the texture data or null if none of the registered texture providers could read the stream
+     */
+    public TextureData get(final GLProfile glp, final InputStream stream, final int internalFormat, final int pixelFormat,
+                           final boolean mipmap, final String fileSuffix) throws IOException {
+        final byte[] content = IOUtil.copyStream2ByteArray(stream);
+        return get(createKey("sha1:"+digest(content), glp, internalFormat, pixelFormat, mipmap, fileSuffix), glp, new Decoder() {
+            @Override
+            public TextureData decode() throws IOException {
+                final InputStream bis = new ByteArrayInputStream(content);
+                if( 0 == internalFormat && 0 == pixelFormat ) {
+                    return TextureIO.newTextureData(glp, bis, mipmap, fileSuffix);
+                } else {
+                    return TextureIO.newTextureData(glp, bis, internalFormat, pixelFormat, mipmap, fileSuffix);
+                }
+            } });
+    }
+
+    private static String createKey(final String source, final GLProfile glp, final int internalFormat, final int pixelFormat,
+                                    final boolean mipmap, final String fileSuffix) {
+        return source+"|"+(null != glp ? glp.getName() : "")+"|0x"+Integer.toHexString(internalFormat)+"|0x"+Integer.toHexString(pixelFormat)+
+               "|"+mipmap+"|"+(null != fileSuffix ? fileSuffix.toLowerCase() : "");
+    }
+
+    private TextureData get(final String key, final GLProfile glp, final Decoder decoder) throws IOException {
+        synchronized( this ) {
+            final TextureData cached = entries.get(key);
+            if( null != cached ) {
+                hitCount++;
+                return newView(cached);
+            }
+        }
+        TextureData data = readSpill(key, glp);
+        final boolean fromSpill = null != data;
+        if( !fromSpill ) {
+            data = decoder.decode();
+            if( null == data ) {
+                synchronized( this ) {
+                    missCount++;
+                }
+                return null;
+            }
+        }
+        synchronized( this ) {
+            if( fromSpill ) {
+                spillHitCount++;
+            } else {
+                missCount++;
+            }
+            final TextureData cached = entries.get(key);
+            if( null != cached ) {
+                // concurrently decoded, keep the first
+                data.flush();
+                return newView(cached);
+            }
+            entries.put(key, data);
+            if( fromSpill ) {
+                mappedFromSpill.add(key);
+            }
+            account(data, +1);
+            evict();
+            return newView(data);
+        }
+    }
+
+    private void account(final TextureData data, final int sign) {
+        final long size = data.getEstimatedMemorySize();
+        usedBytes += sign * size;
+        if( isDirect(data) ) {
+            usedDirectBytes += sign * size;
+        }
+    }
+
+    private static boolean isDirect(final TextureData data) {
+        final Buffer b = null != data.getBuffer() ? data.getBuffer() :
+                         ( null != data.getMipmapData() && 0 < data.getMipmapData().length ? data.getMipmapData()[0] : null );
+        return null != b && b.isDirect();
+    }
+
+    /** Evicts least recently used entries until the budget is met. Caller holds the lock. */
+    private void evict() {
+        final Iterator<Map.Entry<String, TextureData>> it = entries.entrySet().iterator();
+        while( usedBytes > byteBudget && it.hasNext() ) {
+            final Map.Entry<String, TextureData> e = it.next();
+            final TextureData data = e.getValue();
+            it.remove();
+            account(data, -1);
+            evictionCount++;
+            // a spill-mapped entry is read-only, hence its spill file is still valid and
+            // must not be rewritten while the evicted buffer is still mapped from it
+            if( !mappedFromSpill.remove(e.getKey()) && null != spillDir ) {
+                try {
+                    if( writeSpill(e.getKey(), data) ) {
+                        spillCount++;
+                    }
+                } catch (final IOException ioe) {
+                    if( DEBUG ) {
+                        System.err.println("TextureDataCache: Spill failed: "+ioe.getMessage());
+                    }
+                }
+            }
+            data.flush();
+        }
+    }
+
+    /** Removes all cached entries from memory and deletes all spilled files. */
+    public synchronized void clear() {
+        for(final TextureData data : entries.values()) {
+            data.flush();
+        }
+        entries.clear();
+        mappedFromSpill.clear();
+        usedBytes = 0;
+        usedDirectBytes = 0;
+        if( null != spillDir ) {
+            final File[] files = spillDir.listFiles();
+            if( null != files ) {
+                for(final File f : files) {
+                    if( f.getName().endsWith(SPILL_SUFFIX) ) {
+                        f.delete();
+                    }
+                }
+            }
+        }
+    }
+
+    /** Returns the byte budget of the in-memory cache. */
+    public final long getByteBudget() { return byteBudget; }
+    /** Returns the spill directory or {@code null}. */
+    public final File getSpillDirectory() { return spillDir; }
+    /** Returns the number of entries held in memory. */
+    public synchronized int getEntryCount() { return entries.size(); }
+    /** Returns the number of bytes held in memory, heap and direct. */
+    public synchronized long getUsedBytes() { return usedBytes; }
+    /** Returns the number of bytes held in memory by direct buffers. */
+    public synchronized long getUsedDirectBytes() { return usedDirectBytes; }
+    /** Returns the number of requests served from memory. */
+    public synchronized long getHitCount() { return hitCount; }
+    /** Returns the number of requests served from the spill directory. */
+    public synchronized long getSpillHitCount() { return spillHitCount; }
+    /** Returns the number of requests which required decoding. */
+    public synchronized long getMissCount() { return missCount; }
+    /** Returns the number of entries evicted from memory. */
+    public synchronized long getEvictionCount() { return evictionCount; }
+    /** Returns the number of evicted entries written to the spill directory. */
+    public synchronized long getSpillCount() { return spillCount; }
+
+    /** Returns the ratio of requests served w/o decoding, i.e. from memory or spill directory, to all requests. */
+    public synchronized float getHitRate() {
+        final long total = hitCount + spillHitCount + missCount;
+        return 0 < total ? (float)(hitCount + spillHitCount) / (float)total : 0f;
+    }
+
+    /** Resets all request metrics. */
+    public synchronized void resetMetrics() {
+        hitCount = 0;
+        spillHitCount = 0;
+        missCount = 0;
+        evictionCount = 0;
+        spillCount = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "TextureDataCache[entries "+entries.size()+", used "+usedBytes+" / "+byteBudget+" bytes, direct "+usedDirectBytes+
+               ", hits "+hitCount+", spill-hits "+spillHitCount+", misses "+missCount+", hit-rate "+getHitRate()+
+               ", evictions "+evictionCount+", spills "+spillCount+", spillDir "+spillDir+"]";
+    }
+
+    //----------------------------------------------------------------------
+    // Internals only below this point
+    //
+
+    /** Returns a new {@link TextureData} sharing the pixel storage of the given cached instance. */
+    private static TextureData newView(final TextureData src) {
+        final TextureData dst;
+        final Buffer[] mipmapData = src.getMipmapData();
+        if( null != mipmapData ) {
+            final Buffer[] mipmapView = new Buffer[mipmapData.length];
+            for(int i=0; i<mipmapData.length; i++) {
+                mipmapView[i] = duplicate(mipmapData[i]);
+            }
+            dst = new TextureData(src.getGLProfile(), src.getInternalFormat(), src.getWidth(), src.getHeight(), src.getBorder(),
+                                  src.getPixelAttributes(), src.isDataCompressed(), src.getMustFlipVertically(), mipmapView, null);
+            dst.setMipmap(src.getMipmap());
+        } else {
+            dst = new TextureData(src.getGLProfile(), src.getInternalFormat(), src.getWidth(), src.getHeight(), src.getBorder(),
+                                  src.getPixelAttributes(), src.getMipmap(), src.isDataCompressed(), src.getMustFlipVertically(),
+                                  duplicate(src.getBuffer()), null);
+        }
+        dst.setAlignment(src.getAlignment());
+        dst.setRowLength(src.getRowLength());
+        dst.setColorSpace(src.getColorSpace());
+        dst.srcImageType = src.srcImageType;
+        return dst;
+    }
+
+    private static Buffer duplicate(final Buffer b) {
+        if( b instanceof ByteBuffer ) {
+            return ((ByteBuffer)b).duplicate().order(((ByteBuffer)b).order());
+        } else if( b instanceof IntBuffer ) {
+            return ((IntBuffer)b).duplicate();
+        } else if( b instanceof ShortBuffer ) {
+            return ((ShortBuffer)b).duplicate();
+        } else if( b instanceof FloatBuffer ) {
+            return ((FloatBuffer)b).duplicate();
+        } else {
+            return b;
+        }
+    }
+
+    private static String digest(final byte[] content) throws IOException {
+        try {
+            return toHex(MessageDigest.getInstance("SHA-1").digest(content));
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static String toHex(final byte[] bytes) {
+        final StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for(int i=0; i<bytes.length; i++) {
+            sb.append(Character.forDigit((bytes[i] >> 4) & 0x0f, 16));
+            sb.append(Character.forDigit(bytes[i] & 0x0f, 16));
+        }
+        return sb.toString();
+    }
+
+    private File getSpillFile(final String key) throws IOException {
+        try {
+            return new File(spillDir, toHex(MessageDigest.getInstance("SHA-1").digest(key.getBytes("UTF-8")))+SPILL_SUFFIX);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static ByteBuffer[] getLevels(final TextureData data) {
+        final Buffer[] mipmapData = data.getMipmapData();
+        final Buffer[] src = null != mipmapData ? mipmapData : new Buffer[] { data.getBuffer() };
+        final ByteBuffer[] levels = new ByteBuffer[src.length];
+        for(int i=0; i<src.length; i++) {
+            if( !( src[i] instanceof ByteBuffer ) ) {
+                return null;
+            }
+            levels[i] = (ByteBuffer)src[i];
+        }
+        return levels;
+    }
+
+    /**
+     * Writes the given {@link ByteBuffer} backed {@link TextureData} to its spill file.
+     * <pre>
+     *   int magic, version, keyLength, key[keyLength] (UTF-8)
+     *   int internalFormat, width, height, border, pixelFormat, pixelType, alignment, rowLength
+     *   int flags (1: compressed, 2: y-flip, 4: mipmap, 8: mipmap data), colorSpace
+     *   int levelCount, levelSize[levelCount], level[0] .. level[levelCount-1]
+     * </pre>
+     * Multibyte values are stored in native byte order, the spill directory is local.
+     * @return false if not spilled due to its buffer type
+     */
+    private boolean writeSpill(final String key, final TextureData data) throws IOException {
+        final ByteBuffer[] levels = getLevels(data);
+        if( null == levels ) {
+            return false;
+        }
+        final byte[] keyBytes = key.getBytes("UTF-8");
+        final ByteBuffer header = ByteBuffer.allocate(4*(3+10+1+levels.length) + keyBytes.length).order(ByteOrder.nativeOrder());
+        header.putInt(SPILL_MAGIC).putInt(SPILL_VERSION).putInt(keyBytes.length).put(keyBytes);
+        header.putInt(data.getInternalFormat()).putInt(data.getWidth()).putInt(data.getHeight()).putInt(data.getBorder());
+        header.putInt(data.getPixelFormat()).putInt(data.getPixelType()).putInt(data.getAlignment()).putInt(data.getRowLength());
+        header.putInt( ( data.isDataCompressed() ? 1 : 0 ) | ( data.getMustFlipVertically() ? 2 : 0 ) |
+                       ( data.getMipmap() ? 4 : 0 ) | ( null != data.getMipmapData() ? 8 : 0 ) );
+        header.putInt(data.getColorSpace().ordinal());
+        header.putInt(levels.length);
+        for(int i=0; i<levels.length; i++) {
+            header.putInt(levels[i].remaining());
+        }
+        header.flip();
+
+        final File file = getSpillFile(key);
+        final File tmp = new File(file.getPath()+".tmp");
+        final RandomAccessFile raf = new RandomAccessFile(tmp, "rw");
+        try {
+            raf.setLength(0);
+            final FileChannel chan = raf.getChannel();
+            while( header.hasRemaining() ) {
+                chan.write(header);
+            }
+            for(int i=0; i<levels.length; i++) {
+                final ByteBuffer level = levels[i].duplicate();
+                while( level.hasRemaining() ) {
+                    chan.write(level);
+                }
+            }
+        } finally {
+            raf.close();
+        }
+        if( ( file.exists() && !file.delete() ) || !tmp.renameTo(file) ) {
+            tmp.delete();
+            throw new IOException("Could not write spill file "+file);
+        }
+        return true;
+    }
+
+    /** Returns the memory-mapped {@link TextureData} of the key's spill file, or {@code null} if not available. */
+    private TextureData readSpill(final String key, final GLProfile glp) {
+        if( null == spillDir ) {
+            return null;
+        }
+        try {
+            final File file = getSpillFile(key);
+            if( !file.isFile() ) {
+                return null;
+            }
+            final RandomAccessFile raf = new RandomAccessFile(file, "r");
+            try {
+                final FileChannel chan = raf.getChannel();
+                final ByteBuffer buf = chan.map(FileChannel.MapMode.READ_ONLY, 0, chan.size()).order(ByteOrder.nativeOrder());
+                if( SPILL_MAGIC != buf.getInt() || SPILL_VERSION != buf.getInt() ) {
+                    return null;
+                }
+                final byte[] keyBytes = new byte[buf.getInt()];
+                buf.get(keyBytes);
+                if( !key.equals(new String(keyBytes, "UTF-8")) ) {
+                    return null; // digest collision
+                }
+                final int internalFormat = buf.getInt(), width = buf.getInt(), height = buf.getInt(), border = buf.getInt();
+                final int pixelFormat = buf.getInt(), pixelType = buf.getInt(), alignment = buf.getInt(), rowLength = buf.getInt();
+                final int flags = buf.getInt();
+                final int colorSpace = buf.getInt();
+                final ByteBuffer[] levels = new ByteBuffer[buf.getInt()];
+                final int[] sizes = new int[levels.length];
+                for(int i=0; i<levels.length; i++) {
+                    sizes[i] = buf.getInt();
+                }
+                for(int i=0; i<levels.length; i++) {
+                    final ByteBuffer level = buf.duplicate();
+                    level.limit(buf.position() + sizes[i]);
+                    levels[i] = level.slice().order(ByteOrder.nativeOrder());
+                    buf.position(buf.position() + sizes[i]);
+                }
+                final boolean compressed = 0 != ( flags & 1 );
+                final boolean flip = 0 != ( flags & 2 );
+                final TextureData data;
+                if( 0 != ( flags & 8 ) ) {
+                    data = new TextureData(glp, internalFormat, width, height, border, pixelFormat, pixelType,
+                                           compressed, flip, levels, null);
+                    data.setMipmap(0 != ( flags & 4 ));
+                } else {
+                    data = new TextureData(glp, internalFormat, width, height, border, pixelFormat, pixelType,
+                                           0 != ( flags & 4 ), compressed, flip, levels[0], null);
+                }
+                data.setAlignment(alignment);
+                data.setRowLength(rowLength);
+                data.setColorSpace(TextureData.ColorSpace.values()[colorSpace]);
+                return data;
+            } finally {
+                raf.close(); // mapping stays valid
+            }
+        } catch (final Exception e) {
+            if( DEBUG ) {
+                System.err.println("TextureDataCache: Reading spill file failed: "+e.getMessage());
+            }
+            return null;
+        }
+    }
+}
@@ -77,6 +77,7 @@ import com.jogamp.opengl.util.GLPixelBuffer.GLPixelAttributes;
 import com.jogamp.opengl.util.texture.ImageType;
 import com.jogamp.opengl.util.texture.spi.DDSImage;
 import com.jogamp.opengl.util.texture.spi.JPEGImage;
+import com.jogamp.opengl.util.texture.spi.KTX2Image;
 import com.jogamp.opengl.util.texture.spi.NetPbmTextureWriter;
 import com.jogamp.opengl.util.texture.spi.SGIImage;
 import com.jogamp.opengl.util.texture.spi.TGAImage;
@@ -142,6 +143,12 @@ public class TextureIO {
      */
     public static final String DDS     = ImageType.T_DDS;
 
+    /** Constant which can be used as a file suffix to indicate a
+        Khronos KTX 2.0 file, value {@value}.
+        <p>Alias for {@link ImageType#T_KTX2}.</p>
+     */
+    public static final String KTX2    = ImageType.T_KTX2;
+
     /**
      * Constant which can be used as a file suffix to indicate an SGI RGB file, value {@value}.
      * <p>
@@ -790,6 +797,7 @@ public class TextureIO {
         addTextureProvider(new TGATextureProvider());
         addTextureProvider(new JPGTextureProvider());
         addTextureProvider(new PNGTextureProvider());
+        addTextureProvider(new KTX2TextureProvider());
 
         // ImageIO writer, the fall-back, must be the first one added
         if(GLProfile.isAWTAvailable()) {
@@ -815,6 +823,7 @@ public class TextureIO {
         addTextureWriter(new TGATextureWriter());
         addTextureWriter(new NetPbmTextureWriter());
         addTextureWriter(new PNGTextureWriter());
+        addTextureWriter(new KTX2TextureWriter());
     }
 
     // Implementation methods
@@ -883,6 +892,23 @@ public class TextureIO {
         if (file == null) {
             throw new IOException("File was null");
         }
+        // First attempt to use a file based TextureProvider, e.g. memory mapping the file
+        final String lcFileSuffix = toLowerCase( (fileSuffix != null) ? fileSuffix : IOUtil.getFileSuffix(file) );
+        for (final Iterator<TextureProvider> iter = textureProviders.iterator(); iter.hasNext(); ) {
+            final TextureProvider provider = iter.next();
+            if( provider instanceof TextureProvider.SupportsFile ) {
+                final TextureData data = ((TextureProvider.SupportsFile)provider).newTextureData(glp, file,
+                                                                                                 internalFormat,
+                                                                                                 pixelFormat,
+                                                                                                 mipmap,
+                                                                                                 lcFileSuffix);
+                if (data != null) {
+                    final ImageType[] imageTypes = provider.getImageTypes();
+                    data.srcImageType = null != imageTypes ? imageTypes[0] : null;
+                    return data;
+                }
+            }
+        }
         final InputStream stream = new BufferedInputStream(new FileInputStream(file));
         try {
             return newTextureDataImpl( glp, stream, internalFormat, pixelFormat, mipmap,
@@ -1022,89 +1048,128 @@ public class TextureIO {
 
     //----------------------------------------------------------------------
     // SGI RGB image provider
-    static class SGITextureProvider implements TextureProvider {
+    static class SGITextureProvider implements TextureProvider, TextureProvider.SupportsFile {
         private static final ImageType[] imageTypes = new ImageType[] { new ImageType(ImageType.T_SGI_RGB) };
         @Override
         public final ImageType[] getImageTypes() {
             return imageTypes;
         }
 
+        @Override
+        public TextureData newTextureData(final GLProfile glp, final File file,
+                                          final int internalFormat,
+                                          final int pixelFormat,
+                                          final boolean mipmap,
+                                          final String fileSuffix) throws IOException {
+            if (SGI.equals(fileSuffix) ||
+                ImageType.T_SGI_RGB.equals(fileSuffix)) {
+                // memory mapped decoding
+                return newTextureData(glp, SGIImage.read(file), internalFormat, pixelFormat, mipmap);
+            }
+            return null;
+        }
+
         @Override
         public TextureData newTextureData(final GLProfile glp, final InputStream stream,
-                                          int internalFormat,
-                                          int pixelFormat,
+                                          final int internalFormat,
+                                          final int pixelFormat,
                                           final boolean mipmap,
                                           final String fileSuffix) throws IOException {
             if (SGI.equals(fileSuffix) ||
                 ImageType.T_SGI_RGB.equals(fileSuffix) ||
                 SGI.equals(ImageType.Util.getFileSuffix(stream)) ||
                 ImageType.T_SGI_RGB.equals(ImageType.Util.getFileSuffix(stream))) {
-                final SGIImage image = SGIImage.read(stream);
-                if (pixelFormat == 0) {
-                    pixelFormat = image.getFormat();
-                }
-                if (internalFormat == 0) {
-                    internalFormat = image.getFormat();
-                }
-                return new TextureData(glp, internalFormat,
-                                       image.getWidth(),
-                                       image.getHeight(),
-                                       0,
-                                       pixelFormat,
-                                       GL.GL_UNSIGNED_BYTE,
-                                       mipmap,
-                                       false,
-                                       false,
-                                       ByteBuffer.wrap(image.getData()),
-                                       null);
+                return newTextureData(glp, SGIImage.read(stream), internalFormat, pixelFormat, mipmap);
             }
 
             return null;
         }
+
+        private TextureData newTextureData(final GLProfile glp, final SGIImage image,
+                                           int internalFormat,
+                                           int pixelFormat,
+                                           final boolean mipmap) {
+            if (pixelFormat == 0) {
+                pixelFormat = image.getFormat();
+            }
+            if (internalFormat == 0) {
+                internalFormat = image.getFormat();
+            }
+            return new TextureData(glp, internalFormat,
+                                   image.getWidth(),
+                                   image.getHeight(),
+                                   0,
+                                   pixelFormat,
+                                   GL.GL_UNSIGNED_BYTE,
+                                   mipmap,
+                                   false,
+                                   false,
+                                   ByteBuffer.wrap(image.getData()),
+                                   null);
+        }
     }
 
     //----------------------------------------------------------------------
     // TGA (Targa) image provider
-    static class TGATextureProvider implements TextureProvider {
+    static class TGATextureProvider implements TextureProvider, TextureProvider.SupportsFile {
         private static final ImageType[] imageTypes = new ImageType[] { new ImageType(ImageType.T_TGA) };
         @Override
         public final ImageType[] getImageTypes() {
             return imageTypes;
         }
 
+        @Override
+        public TextureData newTextureData(final GLProfile glp, final File file,
+                                          final int internalFormat,
+                                          final int pixelFormat,
+                                          final boolean mipmap,
+                                          final String fileSuffix) throws IOException {
+            if (ImageType.T_TGA.equals(fileSuffix)) {
+                // memory mapped decoding
+                return newTextureData(glp, TGAImage.read(glp, file), internalFormat, pixelFormat, mipmap);
+            }
+            return null;
+        }
+
         @Override
         public TextureData newTextureData(final GLProfile glp, final InputStream stream,
-                                          int internalFormat,
-                                          int pixelFormat,
+                                          final int internalFormat,
+                                          final int pixelFormat,
                                           final boolean mipmap,
                                           final String fileSuffix) throws IOException {
             if (ImageType.T_TGA.equals(fileSuffix)) {
-                final TGAImage image = TGAImage.read(glp, stream);
-                if (pixelFormat == 0) {
-                    pixelFormat = image.getGLFormat();
-                }
-                if (internalFormat == 0) {
-                    if(glp.isGL2ES3()) {
-                        internalFormat = (image.getBytesPerPixel()==4)?GL.GL_RGBA8:GL.GL_RGB8;
-                    } else {
-                        internalFormat = (image.getBytesPerPixel()==4)?GL.GL_RGBA:GL.GL_RGB;
-                    }
-                }
-                return new TextureData(glp, internalFormat,
-                                       image.getWidth(),
-                                       image.getHeight(),
-                                       0,
-                                       pixelFormat,
-                                       GL.GL_UNSIGNED_BYTE,
-                                       mipmap,
-                                       false,
-                                       false,
-                                       image.getData(),
-                                       null);
+                return newTextureData(glp, TGAImage.read(glp, stream), internalFormat, pixelFormat, mipmap);
             }
 
             return null;
         }
+
+        private TextureData newTextureData(final GLProfile glp, final TGAImage image,
+                                           int internalFormat,
+                                           int pixelFormat,
+                                           final boolean mipmap) {
+            if (pixelFormat == 0) {
+                pixelFormat = image.getGLFormat();
+            }
+            if (internalFormat == 0) {
+                if(glp.isGL2ES3()) {
+                    internalFormat = (image.getBytesPerPixel()==4)?GL.GL_RGBA8:GL.GL_RGB8;
+                } else {
+                    internalFormat = (image.getBytesPerPixel()==4)?GL.GL_RGBA:GL.GL_RGB;
+                }
+            }
+            return new TextureData(glp, internalFormat,
+                                   image.getWidth(),
+                                   image.getHeight(),
+                                   0,
+                                   pixelFormat,
+                                   GL.GL_UNSIGNED_BYTE,
+                                   mipmap,
+                                   false,
+                                   false,
+                                   image.getData(),
+                                   null);
+        }
     }
 
     //----------------------------------------------------------------------
@@ -1199,6 +1264,118 @@ public class TextureIO {
         }
     }
 
+    //----------------------------------------------------------------------
+    // KTX2 image provider
+    static class KTX2TextureProvider implements TextureProvider, TextureProvider.SupportsFile {
+        private static final ImageType[] imageTypes = new ImageType[] { new ImageType(ImageType.T_KTX2) };
+        @Override
+        public final ImageType[] getImageTypes() {
+            return imageTypes;
+        }
+
+        @Override
+        public TextureData newTextureData(final GLProfile glp, final File file,
+                                          final int internalFormat,
+                                          final int pixelFormat,
+                                          final boolean mipmap,
+                                          final String fileSuffix) throws IOException {
+            if (ImageType.T_KTX2.equals(fileSuffix)) {
+                // memory mapped, zero-copy
+                final KTX2Image image = KTX2Image.read(file);
+                try {
+                    return newTextureData(glp, image, internalFormat, pixelFormat, mipmap);
+                } catch (final RuntimeException re) {
+                    image.close();
+                    throw re;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public TextureData newTextureData(final GLProfile glp, final InputStream stream,
+                                          final int internalFormat,
+                                          final int pixelFormat,
+                                          final boolean mipmap,
+                                          final String fileSuffix) throws IOException {
+            if (ImageType.T_KTX2.equals(fileSuffix) ||
+                ImageType.T_KTX2.equals(ImageType.Util.getFileSuffix(stream))) {
+                final byte[] data = IOUtil.copyStream2ByteArray(stream);
+                final KTX2Image image = KTX2Image.read(ByteBuffer.wrap(data));
+                return newTextureData(glp, image, internalFormat, pixelFormat, mipmap);
+            }
+            return null;
+        }
+
+        /**
+         * Returns the {@link TextureData} of a 2D texture,
+         * using zero-copy slices of all contained mipmap levels.
+         * <p>
+         * Mipmap generation is requested if either {@code mipmap} is {@code true}
+         * or the file's levelCount is zero, see {@link KTX2Image#isMipmapGenerationRequested()}.
+         * </p>
+         * <p>
+         * Array, cube-map and 3D textures are rejected, as {@link TextureData} only covers one 2D image.
+         * They are fully accessible via {@link KTX2Image}.
+         * </p>
+         */
+        private TextureData newTextureData(final GLProfile glp, final KTX2Image image,
+                                           int internalFormat,
+                                           int pixelFormat,
+                                           final boolean mipmap) throws IOException {
+            if ( !KTX2Image.isFormatSupported(image.getVkFormat()) ) {
+                throw new IOException("Unsupported KTX2 vkFormat "+image.getVkFormat());
+            }
+            if ( image.isArray() || image.isCubemap() || image.is3D() ) {
+                throw new IOException("KTX2 array, cube-map or 3D texture not supported via TextureData, use KTX2Image: layers "+
+                                      image.getLayerCount()+", faces "+image.getFaceCount()+", depth "+image.getDepth());
+            }
+            final boolean compressed = image.isCompressed();
+            final int pixelType = image.getGLPixelType();
+            if (pixelFormat == 0) {
+                pixelFormat = image.getGLPixelFormat();
+            }
+            if (internalFormat == 0) {
+                if( compressed || glp.isGL2ES3() || GL.GL_UNSIGNED_BYTE != pixelType ) {
+                    internalFormat = image.getGLInternalFormat();
+                } else {
+                    internalFormat = pixelFormat;
+                }
+            }
+            final TextureData.Flusher flusher = new TextureData.Flusher() {
+                    @Override
+                    public void flush() {
+                        image.close();
+                    }
+                };
+            final boolean mustFlipVertically = !image.isGLOriented();
+            if ( 1 < image.getNumLevels() ) {
+                return new TextureData(glp, internalFormat,
+                                       image.getWidth(),
+                                       Math.max(1, image.getHeight()),
+                                       0,
+                                       pixelFormat,
+                                       pixelType,
+                                       compressed,
+                                       mustFlipVertically,
+                                       image.getMipMaps(0, 0),
+                                       flusher);
+            } else {
+                return new TextureData(glp, internalFormat,
+                                       image.getWidth(),
+                                       Math.max(1, image.getHeight()),
+                                       0,
+                                       pixelFormat,
+                                       pixelType,
+                                       ( mipmap || image.isMipmapGenerationRequested() ) && !compressed,
+                                       compressed,
+                                       mustFlipVertically,
+                                       image.getImage(0, 0, 0),
+                                       flusher);
+            }
+        }
+    }
+
     //----------------------------------------------------------------------
     // DDS texture writer
     //
@@ -1398,6 +1575,47 @@ public class TextureIO {
         }
     }
 
+    //----------------------------------------------------------------------
+    // KTX2 texture writer
+
+    static class KTX2TextureWriter implements TextureWriter {
+        @Override
+        public boolean write(final File file, final TextureData data) throws IOException {
+            if (ImageType.T_KTX2.equals(IOUtil.getFileSuffix(file))) {
+                // See whether the KTX2 writer can handle this TextureData
+                final GLPixelAttributes pixelAttribs = data.getPixelAttributes();
+                final int vkFormat = KTX2Image.toVkFormat(data.getInternalFormat(), pixelAttribs.format, pixelAttribs.type);
+                if ( KTX2Image.VK_FORMAT_UNDEFINED == vkFormat ) {
+                    throw new IOException("KTX2 writer doesn't support internal format 0x"+Integer.toHexString(data.getInternalFormat())+
+                                          " / format 0x"+Integer.toHexString(pixelAttribs.format)+
+                                          " / type 0x"+Integer.toHexString(pixelAttribs.type));
+                }
+                final ByteBuffer[] levels;
+                if (data.getMipmapData() != null) {
+                    levels = new ByteBuffer[data.getMipmapData().length];
+                    for (int i = 0; i < levels.length; i++) {
+                        levels[i] = (ByteBuffer) data.getMipmapData()[i];
+                    }
+                } else {
+                    levels = new ByteBuffer[] { (ByteBuffer) data.getBuffer() };
+                }
+                for (int i = 0; i < levels.length; i++) {
+                    if( null == levels[i] ) {
+                        throw new IOException("Pixel storage buffer of level "+i+" is null");
+                    }
+                    levels[i] = levels[i].duplicate();
+                    levels[i].rewind();
+                }
+                final KTX2Image image = KTX2Image.createFromData(vkFormat, data.getWidth(), data.getHeight(), 0 /* depth */,
+                                                                 0 /* layers */, 1 /* faces */, levels,
+                                                                 !data.getMustFlipVertically() /* yFlipped */);
+                image.write(file);
+                return true;
+            }
+            return false;
+        }
+    }
+
     //----------------------------------------------------------------------
     // Helper routines
     //
@@ -0,0 +1,600 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util.texture;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.jogamp.common.util.InterruptSource;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2ES3;
+import com.jogamp.opengl.GL3ES3;
+import com.jogamp.opengl.GL4;
+import com.jogamp.opengl.GLBufferStorage;
+import com.jogamp.opengl.GLException;
+import com.jogamp.opengl.GLProfile;
+import com.jogamp.opengl.util.GLBuffers;
+import com.jogamp.opengl.util.GLPixelStorageModes;
+
+import jogamp.opengl.Debug;
+
+/**
+ * Asynchronous texture streaming service, decoding {@link TextureData}
+ * on a pool of worker threads and uploading it time-sliced on the GL thread.
+ * <p>
+ * Requests are queued via {@link #load(File, boolean, String, Listener) load(..)}.
+ * Decoding via {@link TextureIO#newTextureData(GLProfile, File, boolean, String) TextureIO}
+ * happens off the GL thread. Each frame the GL thread shall call {@link #upload(GL)},
+ * which transfers at most {@link #getBytesPerFrame()} of pixel data, row band by row band.
+ * Once the last band of a texture has been transferred, the ready {@link Texture}
+ * is delivered to the request's {@link Listener} on the GL thread.
+ * </p>
+ * <p>
+ * Row bands are staged through a ring of pixel-unpack buffer segments:
+ * <ul>
+ *   <li>With {@link GL4#glBufferStorage(int, long, Buffer, int) buffer storage} available,
+ *       the ring is a single persistently and coherently mapped {@link GLBufferStorage},
+ *       where each segment is guarded by a {@link GL3ES3#glFenceSync(int, int) fence}.
+ *       A segment still in use by the GPU ends the frame's upload slice instead of stalling.</li>
+ *   <li>On {@link GL#isGL2ES3() GL2ES3} w/o buffer storage, a single segment buffer
+ *       is orphaned and {@link GL#mapBufferRange(int, long, long, int) mapped} per band.</li>
+ *   <li>Otherwise bands are uploaded from client memory.</li>
+ * </ul>
+ * </p>
+ * <p>
+ * Only uncompressed {@link TextureData} w/o {@link TextureData#getMipmapData() mipmap data}
+ * and a {@link ByteBuffer} backing is streamed.
+ * Requested mipmaps are generated after the last band via {@link GL#glGenerateMipmap(int)}.
+ * All other {@link TextureData} is uploaded at once via {@link Texture#Texture(GL, TextureData)},
+ * still accounted against the frame budget.
+ * </p>
+ */
+public class TextureStreamer {
+    private static final boolean DEBUG = Debug.debug("TextureStreamer");
+
+    /** Receives completed or failed requests on the GL thread, i.e. within {@link TextureStreamer#upload(GL)}. */
+    public static interface Listener {
+        /**
+         * The texture has been fully uploaded.
+         * @param gl the current GL
+         * @param texture the ready {@link Texture}, owned by the receiver
+         * @param data the source {@link TextureData}, may be {@link TextureData#flush() flushed} by the receiver
+         */
+        void textureReady(GL gl, Texture texture, TextureData data);
+
+        /**
+         * Decoding or uploading the texture failed.
+         * @param gl the current GL
+         * @param cause the failure cause
+         */
+        void textureFailed(GL gl, Throwable cause);
+    }
+
+    /** Decodes the {@link TextureData} of a request on a worker thread. */
+    private static interface Decoder {
+        TextureData decode() throws IOException;
+    }
+
+    private static final class Job {
+        final Decoder decoder;
+        final Listener listener;
+        TextureData data;
+        Throwable error;
+
+        // upload state, GL thread only
+        Texture texture;
+        ByteBuffer pixels;
+        int rowBytes, stride, nextRow;
+        /** Unpacked stride if rows must be repacked w/o {@link GL2ES3#GL_UNPACK_ROW_LENGTH}, otherwise 0. */
+        int repackStride;
+
+        Job(final Decoder decoder, final Listener listener) {
+            this.decoder = decoder;
+            this.listener = listener;
+        }
+    }
+
+    private static final Job END = new Job(null, null);
+
+    private final GLProfile glp;
+    private final LinkedBlockingQueue<Job> decodeQueue = new LinkedBlockingQueue<Job>();
+    private final ConcurrentLinkedQueue<Job> readyQueue = new ConcurrentLinkedQueue<Job>();
+    private final AtomicInteger pending = new AtomicInteger(0);
+    private final Worker[] workers;
+    private final int segmentCount;
+    private final int segmentSize;
+    private volatile int bytesPerFrame;
+
+    // GL thread only
+    private Job current = null;
+    private boolean glInitialized = false;
+    private int pboName = 0;
+    private GLBufferStorage persistentStorage = null;
+    private long[] fences = null;
+    private int nextSegment = 0;
+    private ByteBuffer repackBuffer = null;
+    // metrics, written on the GL thread only
+    private volatile long uploadedBytes = 0;
+    private volatile int uploadedTextures = 0;
+    private volatile int stalledFrames = 0;
+    private volatile boolean destroyed = false;
+
+    /**
+     * Creates a new instance with {@code workerCount} decoding threads.
+     * @param glp the {@link GLProfile} used to decode {@link TextureData}
+     * @param workerCount number of decoding worker threads, minimum 1
+     * @param segmentCount number of ring segments used with persistently mapped buffer storage, minimum 2
+     * @param segmentSize size of one ring segment in bytes, i.e. the maximum row band size
+     * @param megaBytesPerFrame upload budget per {@link #upload(GL)} call in megabytes
+     */
+    public TextureStreamer(final GLProfile glp, final int workerCount, final int segmentCount, final int segmentSize, final float megaBytesPerFrame) {
+        if( 0 >= segmentSize ) {
+            throw new IllegalArgumentException("Invalid segmentSize "+segmentSize);
+        }
+        this.glp = glp;
+        this.segmentCount = Math.max(2, segmentCount);
+        this.segmentSize = segmentSize;
+        setMegaBytesPerFrame(megaBytesPerFrame);
+        workers = new Worker[Math.max(1, workerCount)];
+        for(int i=0; i<workers.length; i++) {
+            workers[i] = new Worker(i);
+            workers[i].start();
+        }
+    }
+
+    /** Sets the upload budget per {@link #upload(GL)} call in megabytes, at least one row band is always uploaded. */
+    public final void setMegaBytesPerFrame(final float megaBytesPerFrame) {
+        bytesPerFrame = Math.max(1, (int)(megaBytesPerFrame * 1024f * 1024f));
+    }
+    /** Returns the upload budget per {@link #upload(GL)} call in bytes. */
+    public final int getBytesPerFrame() { return bytesPerFrame; }
+
+    /** Returns the number of requests not yet delivered to their {@link Listener}. */
+    public final int getPendingCount() { return pending.get(); }
+    /** Returns the total number of uploaded pixel bytes. */
+    public final long getUploadedBytes() { return uploadedBytes; }
+    /** Returns the total number of delivered textures. */
+    public final int getUploadedTextures() { return uploadedTextures; }
+    /** Returns the number of {@link #upload(GL)} calls ended early due to a ring segment still in use by the GPU. */
+    public final int getStalledFrames() { return stalledFrames; }
+    /** Returns true if staging uses a persistently mapped buffer ring. Only valid after the first {@link #upload(GL)}. */
+    public final boolean usesPersistentMapping() { return null != persistentStorage; }
+
+    /** Queues decoding and uploading the given file, see {@link TextureIO#newTextureData(GLProfile, File, boolean, String)}. */
+    public final void load(final File file, final boolean mipmap, final String fileSuffix, final Listener listener) {
+        enqueue(new Decoder() {
+            @Override
+            public TextureData decode() throws IOException {
+                return TextureIO.newTextureData(glp, file, mipmap, fileSuffix);
+            } }, listener);
+    }
+
+    /** Queues decoding and uploading the given URL, see {@link TextureIO#newTextureData(GLProfile, URL, boolean, String)}. */
+    public final void load(final URL url, final boolean mipmap, final String fileSuffix, final Listener listener) {
+        enqueue(new Decoder() {
+            @Override
+            public TextureData decode() throws IOException {
+                return TextureIO.newTextureData(glp, url, mipmap, fileSuffix);
+            } }, listener);
+    }
+
+    /**
+     * Queues decoding and uploading the given stream, see {@link TextureIO#newTextureData(GLProfile, InputStream, boolean, String)}.
+     * The stream is closed by the worker thread after decoding.
+     */
+    public final void load(final InputStream stream, final boolean mipmap, final String fileSuffix, final Listener listener) {
+        enqueue(new Decoder() {
+            @Override
+            public TextureData decode() throws IOException {
+                try {
+                    return TextureIO.newTextureData(glp, stream, mipmap, fileSuffix);
+                } finally {
+                    stream.close();
+                }
+            } }, listener);
+    }
+
+    /** Queues uploading the given already decoded {@link TextureData}. */
+    public final void load(final TextureData data, final Listener listener) {
+        if( destroyed ) {
+            throw new IllegalStateException("TextureStreamer destroyed");
+        }
+        final Job job = new Job(null, listener);
+        job.data = data;
+        pending.incrementAndGet();
+        readyQueue.add(job);
+    }
+
+    private void enqueue(final Decoder decoder, final Listener listener) {
+        if( destroyed ) {
+            throw new IllegalStateException("TextureStreamer destroyed");
+        }
+        pending.incrementAndGet();
+        decodeQueue.add(new Job(decoder, listener));
+    }
+
+    private final class Worker extends InterruptSource.Thread {
+        Worker(final int id) {
+            super(null, null, "TextureStreamer-Worker-"+id);
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while( !destroyed ) {
+                final Job job;
+                try {
+                    job = decodeQueue.take();
+                } catch (final InterruptedException e) {
+                    break;
+                }
+                if( END == job ) {
+                    break;
+                }
+                try {
+                    job.data = job.decoder.decode();
+                    if( null == job.data ) {
+                        job.error = new IOException("Unsupported texture format");
+                    }
+                } catch (final Throwable t) {
+                    job.error = t;
+                }
+                readyQueue.add(job);
+            }
+        }
+    }
+
+    /**
+     * Uploads pending row bands within the {@link #getBytesPerFrame() frame budget}
+     * and delivers completed textures to their {@link Listener}.
+     * <p>
+     * Must be called on the GL thread with a current context, e.g. at the beginning of {@code display(..)}.
+     * </p>
+     * @return the number of uploaded bytes
+     */
+    public int upload(final GL gl) throws GLException {
+        if( destroyed ) {
+            return 0;
+        }
+        if( !glInitialized ) {
+            initGL(gl);
+        }
+        int budget = bytesPerFrame;
+        int uploaded = 0;
+        GLPixelStorageModes psm = null;
+        try {
+            while( budget > 0 ) {
+                if( null == current ) {
+                    current = readyQueue.poll();
+                    if( null == current ) {
+                        break;
+                    }
+                    if( null != psm ) {
+                        psm.restore(gl); // previous TextureData pixel storage
+                        psm = null;
+                    }
+                    if( null != current.error ) {
+                        deliver(gl, current);
+                        continue;
+                    }
+                    try {
+                        if( !begin(gl, current) ) {
+                            // uploaded at once
+                            final int size = current.data.getEstimatedMemorySize();
+                            budget -= size;
+                            uploaded += size;
+                            deliver(gl, current);
+                            continue;
+                        }
+                    } catch (final Throwable t) {
+                        current.error = t;
+                        deliver(gl, current);
+                        continue;
+                    }
+                }
+                if( null == psm ) {
+                    psm = new GLPixelStorageModes();
+                    setUnpackModes(gl, psm, current.data);
+                }
+                final int bytes = uploadBand(gl, current, budget);
+                if( 0 > bytes ) {
+                    stalledFrames++;
+                    break;
+                }
+                budget -= bytes;
+                uploaded += bytes;
+                if( current.nextRow >= current.data.getHeight() ) {
+                    finish(gl, current);
+                    deliver(gl, current);
+                }
+            }
+        } finally {
+            if( null != psm ) {
+                psm.restore(gl);
+            }
+        }
+        uploadedBytes += uploaded;
+        return uploaded;
+    }
+
+    private void initGL(final GL gl) {
+        glInitialized = true;
+        if( !gl.isGL2ES3() ) {
+            return; // client memory uploads
+        }
+        final int[] tmp = { 0 };
+        gl.glGenBuffers(1, tmp, 0);
+        pboName = tmp[0];
+        gl.glBindBuffer(GL2ES3.GL_PIXEL_UNPACK_BUFFER, pboName);
+        try {
+            if( gl.isGL4() && gl.isGL3ES3() && gl.isFunctionAvailable("glBufferStorage") ) {
+                final long size = (long)segmentCount * segmentSize;
+                final int flags = GL.GL_MAP_WRITE_BIT | GL4.GL_MAP_PERSISTENT_BIT | GL4.GL_MAP_COHERENT_BIT;
+                gl.getGL4().glBufferStorage(GL2ES3.GL_PIXEL_UNPACK_BUFFER, size, null, flags);
+                persistentStorage = gl.mapBufferRange(GL2ES3.GL_PIXEL_UNPACK_BUFFER, 0, size, flags);
+                fences = new long[segmentCount];
+            } else {
+                gl.glBufferData(GL2ES3.GL_PIXEL_UNPACK_BUFFER, segmentSize, null, GL2ES3.GL_STREAM_DRAW);
+            }
+        } finally {
+            gl.glBindBuffer(GL2ES3.GL_PIXEL_UNPACK_BUFFER, 0);
+        }
+        if( DEBUG ) {
+            System.err.println("TextureStreamer: PBO "+pboName+", persistent "+(null != persistentStorage)+
+                               ", segments "+(null != persistentStorage ? segmentCount : 1)+" x "+segmentSize+" bytes");
+        }
+    }
+
+    private static boolean isStreamable(final TextureData data) {
+        return !data.isDataCompressed() && null == data.getMipmapData() &&
+               data.getBuffer() instanceof ByteBuffer && 0 == data.getBorder();
+    }
+
+    /**
+     * Allocates the texture storage of the job.
+     * @return true if the job shall be streamed by row bands, false if it has been uploaded at once
+     */
+    private boolean begin(final GL gl, final Job job) {
+        final TextureData data = job.data;
+        if( !isStreamable(data) ) {
+            job.texture = new Texture(gl, data);
+            return false;
+        }
+        final int rowPixels = 0 < data.getRowLength() ? data.getRowLength() : data.getWidth();
+        final int bpp = GLBuffers.bytesPerPixel(data.getPixelFormat(), data.getPixelType());
+        final int alignment = Math.max(1, data.getAlignment());
+        job.rowBytes = data.getWidth() * bpp;
+        job.stride = ( ( rowPixels * bpp + alignment - 1 ) / alignment ) * alignment;
+        final int packedStride = ( ( job.rowBytes + alignment - 1 ) / alignment ) * alignment;
+        // w/o GL_UNPACK_ROW_LENGTH, a band of a wider source row length must be repacked
+        job.repackStride = job.stride != packedStride && !gl.isGL2ES3() ? packedStride : 0;
+        job.pixels = (ByteBuffer) data.getBuffer();
+        job.nextRow = 0;
+
+        // Allocate storage only, w/o pixels and w/o mipmap generation
+        final boolean mipmap = data.getMipmap();
+        data.setBuffer(null);
+        data.setMipmap(false);
+        try {
+            job.texture = new Texture(GL.GL_TEXTURE_2D);
+            job.texture.updateImage(gl, data);
+        } finally {
+            data.setBuffer(job.pixels);
+            data.setMipmap(mipmap);
+        }
+        return true;
+    }
+
+    private static void setUnpackModes(final GL gl, final GLPixelStorageModes psm, final TextureData data) {
+        psm.setUnpackAlignment(gl, Math.max(1, data.getAlignment()));
+        // w/o GL2ES3 rows are repacked, see begin(..)
+        if( 0 < data.getRowLength() && gl.isGL2ES3() ) {
+            psm.setUnpackRowLength(gl.getGL2ES3(), data.getRowLength());
+        }
+    }
+
+    /**
+     * Uploads the next row band of the job.
+     * @return number of uploaded bytes, or -1 if the next ring segment is still in use by the GPU
+     */
+    private int uploadBand(final GL gl, final Job job, final int budget) {
+        final TextureData data = job.data;
+        final int rowsLeft = data.getHeight() - job.nextRow;
+        final boolean staged = 0 != pboName && job.stride <= segmentSize;
+        final int maxBytes = staged ? Math.min(budget, segmentSize) : budget;
+        final int rows = Math.min(rowsLeft, Math.max(1, maxBytes / job.stride));
+        final int bytes = ( rows - 1 ) * job.stride + job.rowBytes;
+        final int srcPos = job.pixels.position() + job.nextRow * job.stride;
+
+        final ByteBuffer src;
+        if( 0 < job.repackStride ) {
+            src = repack(job, srcPos, rows);
+        } else {
+            src = job.pixels.duplicate();
+            src.limit(srcPos + bytes).position(srcPos);
+        }
+
+        job.texture.bind(gl);
+        if( !staged ) {
+            gl.glTexSubImage2D(job.texture.getTarget(), 0, 0, job.nextRow, data.getWidth(), rows,
+                               data.getPixelFormat(), data.getPixelType(), src);
+        } else if( null != persistentStorage ) {
+            final int segment = nextSegment;
+            if( !waitFence(gl, segment) ) {
+                return -1;
+            }
+            final long offset = (long)segment * segmentSize;
+            final ByteBuffer dst = persistentStorage.getMappedBuffer().duplicate();
+            dst.position((int)offset);
+            dst.put(src);
+            gl.glBindBuffer(GL2ES3.GL_PIXEL_UNPACK_BUFFER, pboName);
+            gl.glTexSubImage2D(job.texture.getTarget(), 0, 0, job.nextRow, data.getWidth(), rows,
+                               data.getPixelFormat(), data.getPixelType(), offset);
+            gl.glBindBuffer(GL2ES3.GL_PIXEL_UNPACK_BUFFER, 0);
+            fences[segment] = gl.getGL3ES3().glFenceSync(GL3ES3.GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+            nextSegment = ( segment + 1 ) % segmentCount;
+        } else {
+            gl.glBindBuffer(GL2ES3.GL_PIXEL_UNPACK_BUFFER, pboName);
+            // orphan previous storage, avoiding to sync w/ the previous band's transfer
+            gl.glBufferData(GL2ES3.GL_PIXEL_UNPACK_BUFFER, segmentSize, null, GL2ES3.GL_STREAM_DRAW);
+            final GLBufferStorage storage = gl.mapBufferRange(GL2ES3.GL_PIXEL_UNPACK_BUFFER, 0, bytes,
+                                                              GL.GL_MAP_WRITE_BIT | GL.GL_MAP_INVALIDATE_BUFFER_BIT);
+            storage.getMappedBuffer().put(src);
+            gl.glUnmapBuffer(GL2ES3.GL_PIXEL_UNPACK_BUFFER);
+            gl.glTexSubImage2D(job.texture.getTarget(), 0, 0, job.nextRow, data.getWidth(), rows,
+                               data.getPixelFormat(), data.getPixelType(), 0L);
+            gl.glBindBuffer(GL2ES3.GL_PIXEL_UNPACK_BUFFER, 0);
+        }
+        job.nextRow += rows;
+        return bytes;
+    }
+
+    /** Copies {@code rows} rows starting at {@code srcPos} into {@link #repackBuffer} using the job's packed stride. */
+    private ByteBuffer repack(final Job job, final int srcPos, final int rows) {
+        final int size = ( rows - 1 ) * job.repackStride + job.rowBytes;
+        if( null == repackBuffer || repackBuffer.capacity() < size ) {
+            repackBuffer = GLBuffers.newDirectByteBuffer(size);
+        }
+        final ByteBuffer dst = repackBuffer;
+        dst.clear();
+        final ByteBuffer row = job.pixels.duplicate();
+        for(int i=0; i<rows; i++) {
+            final int pos = srcPos + i * job.stride;
+            row.limit(pos + job.rowBytes).position(pos);
+            dst.position(i * job.repackStride);
+            dst.put(row);
+        }
+        dst.position(0).limit(size);
+        return dst;
+    }
+
+    /** Returns true if the segment is free for writing, otherwise false w/o blocking. */
+    private boolean waitFence(final GL gl, final int segment) {
+        final long sync = fences[segment];
+        if( 0 == sync ) {
+            return true;
+        }
+        final GL3ES3 gl3 = gl.getGL3ES3();
+        final int res = gl3.glClientWaitSync(sync, GL3ES3.GL_SYNC_FLUSH_COMMANDS_BIT, 0);
+        if( GL3ES3.GL_TIMEOUT_EXPIRED == res ) {
+            return false;
+        }
+        gl3.glDeleteSync(sync);
+        fences[segment] = 0;
+        return true;
+    }
+
+    private void finish(final GL gl, final Job job) {
+        final Texture texture = job.texture;
+        if( job.data.getMipmap() && GL.GL_TEXTURE_2D == texture.getTarget() && gl.hasBasicFBOSupport() ) {
+            texture.bind(gl);
+            gl.glGenerateMipmap(GL.GL_TEXTURE_2D);
+            gl.glTexParameteri(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_MIN_FILTER, GL.GL_LINEAR_MIPMAP_LINEAR);
+        }
+        job.pixels = null;
+    }
+
+    private void deliver(final GL gl, final Job job) {
+        current = null;
+        pending.decrementAndGet();
+        if( null == job.error ) {
+            uploadedTextures++;
+        } else if( DEBUG ) {
+            System.err.println("TextureStreamer: Failed: "+job.error.getMessage());
+            job.error.printStackTrace();
+        }
+        if( null != job.listener ) {
+            if( null == job.error ) {
+                job.listener.textureReady(gl, job.texture, job.data);
+            } else {
+                if( null != job.texture ) {
+                    job.texture.destroy(gl);
+                    job.texture = null;
+                }
+                job.listener.textureFailed(gl, job.error);
+            }
+        }
+    }
+
+    /**
+     * Stops all worker threads and releases all GL resources.
+     * <p>
+     * Pending requests are dropped w/o notification, a partially uploaded texture is destroyed.
+     * Must be called on the GL thread with a current context if {@link #upload(GL)} has been called before.
+     * </p>
+     */
+    public void destroy(final GL gl) {
+        destroyed = true;
+        decodeQueue.clear();
+        for(int i=0; i<workers.length; i++) {
+            decodeQueue.add(END);
+        }
+        readyQueue.clear();
+        pending.set(0);
+        if( null != current ) {
+            if( null != current.texture && null != gl ) {
+                current.texture.destroy(gl);
+            }
+            current = null;
+        }
+        repackBuffer = null;
+        if( null != gl && 0 != pboName ) {
+            if( null != fences ) {
+                final GL3ES3 gl3 = gl.getGL3ES3();
+                for(int i=0; i<fences.length; i++) {
+                    if( 0 != fences[i] ) {
+                        gl3.glDeleteSync(fences[i]);
+                        fences[i] = 0;
+                    }
+                }
+            }
+            if( null != persistentStorage ) {
+                gl.glBindBuffer(GL2ES3.GL_PIXEL_UNPACK_BUFFER, pboName);
+                gl.glUnmapBuffer(GL2ES3.GL_PIXEL_UNPACK_BUFFER);
+                gl.glBindBuffer(GL2ES3.GL_PIXEL_UNPACK_BUFFER, 0);
+                persistentStorage = null;
+            }
+            gl.glDeleteBuffers(1, new int[] { pboName }, 0);
+            pboName = 0;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TextureStreamer[workers "+workers.length+", pending "+pending.get()+", budget "+bytesPerFrame+
+               " bytes/frame, segments "+segmentCount+" x "+segmentSize+", persistent "+(null != persistentStorage)+
+               ", uploaded "+uploadedTextures+" textures / "+uploadedBytes+" bytes, stalled frames "+stalledFrames+"]";
+    }
+}
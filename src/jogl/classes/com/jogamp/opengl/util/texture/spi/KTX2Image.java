@@ -0,0 +1,834 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util.texture.spi;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2ES3;
+import com.jogamp.common.util.IOUtil;
+
+/**
+ * A reader and writer for Khronos KTX 2.0 (.ktx2) texture container files.
+ * <p>
+ * Only the supercompression-free layout is supported, i.e. {@link #getSupercompressionScheme()}
+ * must be {@link #SUPERCOMPRESSION_NONE}. Block compressed payloads (e.g. BCn) are handed out as-is.
+ * </p>
+ * <p>
+ * Files are read via {@link FileChannel#map(java.nio.channels.FileChannel.MapMode, long, long) memory mapping}
+ * and all level and image data is returned as zero-copy {@link ByteBuffer#slice() slices}
+ * of the mapped file, hence load time is bound by page faults rather than by parsing.
+ * The layout of one mipmap level as returned by {@link #getLevel(int)} is
+ * <pre>
+ *   for each layer in max(1, layerCount)
+ *     for each face in faceCount
+ *       for each z_slice in max(1, pixelDepth)
+ *         image rows
+ * </pre>
+ * which is the layout expected by {@code glTexImage3D} and {@code glCompressedTexImage3D}
+ * for array, cube-map array and 3D textures.
+ * A single image of one layer and face is returned by {@link #getImage(int, int, int)},
+ * e.g. to upload a cube-map face via {@code glTexImage2D}.
+ * </p>
+ * <ul>
+ *   <li>{@code https://registry.khronos.org/KTX/specs/2.0/ktxspec.v2.html}</li>
+ * </ul>
+ */
+public class KTX2Image {
+
+    /** KTX 2.0 file identifier, {@code «KTX 20»\r\n\x1A\n}. */
+    public static final byte[] IDENTIFIER = new byte[] {
+        (byte)0xAB, (byte)0x4B, (byte)0x54, (byte)0x58, (byte)0x20, (byte)0x32,
+        (byte)0x30, (byte)0xBB, (byte)0x0D, (byte)0x0A, (byte)0x1A, (byte)0x0A };
+
+    // Supercompression schemes
+    public static final int SUPERCOMPRESSION_NONE    = 0;
+    public static final int SUPERCOMPRESSION_BASISLZ = 1;
+    public static final int SUPERCOMPRESSION_ZSTD    = 2;
+    public static final int SUPERCOMPRESSION_ZLIB    = 3;
+
+    // Known vkFormat values, see VkFormat of the Vulkan specification
+    public static final int VK_FORMAT_UNDEFINED           =   0;
+    public static final int VK_FORMAT_R8_UNORM            =   9;
+    public static final int VK_FORMAT_R8G8_UNORM          =  16;
+    public static final int VK_FORMAT_R8G8B8_UNORM        =  23;
+    public static final int VK_FORMAT_R8G8B8_SRGB         =  29;
+    public static final int VK_FORMAT_B8G8R8_UNORM        =  30;
+    public static final int VK_FORMAT_R8G8B8A8_UNORM      =  37;
+    public static final int VK_FORMAT_R8G8B8A8_SRGB       =  43;
+    public static final int VK_FORMAT_B8G8R8A8_UNORM      =  44;
+    public static final int VK_FORMAT_R16_SFLOAT          =  76;
+    public static final int VK_FORMAT_R16G16B16A16_SFLOAT =  97;
+    public static final int VK_FORMAT_R32_SFLOAT          = 100;
+    public static final int VK_FORMAT_R32G32B32A32_SFLOAT = 109;
+    public static final int VK_FORMAT_BC1_RGB_UNORM_BLOCK = 131;
+    public static final int VK_FORMAT_BC1_RGBA_UNORM_BLOCK= 133;
+    public static final int VK_FORMAT_BC2_UNORM_BLOCK     = 135;
+    public static final int VK_FORMAT_BC3_UNORM_BLOCK     = 137;
+
+    /** Key of the orientation key/value entry, {@value}. */
+    public static final String KEY_ORIENTATION = "KTXorientation";
+
+    private FileInputStream fis;
+    private FileChannel     chan;
+    private ByteBuffer buf;
+
+    private int vkFormat;
+    private int typeSize;
+    private int pixelWidth;
+    private int pixelHeight;
+    private int pixelDepth;
+    private int layerCount;
+    private int faceCount;
+    private int levelCount;
+    private int supercompressionScheme;
+    private long[] levelOffsets;
+    private long[] levelLengths;
+    private String orientation;
+
+    /** Reads a KTX2 texture from the specified file name,
+        returning the resulting KTX2Image.
+
+        @param filename File name
+        @return KTX2 image object
+        @throws java.io.IOException if an I/O exception occurred
+    */
+    public static KTX2Image read(final String filename) throws IOException {
+        return read(new File(filename));
+    }
+
+    /** Reads a KTX2 texture from the specified file via memory mapping,
+        returning the resulting KTX2Image.
+
+        @param file File object
+        @return KTX2 image object
+        @throws java.io.IOException if an I/O exception occurred
+    */
+    public static KTX2Image read(final File file) throws IOException {
+        final KTX2Image image = new KTX2Image();
+        try {
+            image.readFromFile(file);
+        } catch (final IOException ioe) {
+            image.close();
+            throw ioe;
+        }
+        return image;
+    }
+
+    /** Reads a KTX2 texture from the specified ByteBuffer, returning
+        the resulting KTX2Image. The returned level and image data
+        are slices of the given buffer.
+
+        @param buf Input data
+        @return KTX2 image object
+        @throws java.io.IOException if an I/O exception occurred
+    */
+    public static KTX2Image read(final ByteBuffer buf) throws IOException {
+        final KTX2Image image = new KTX2Image();
+        image.readFromBuffer(buf);
+        return image;
+    }
+
+    /**
+     * Returns {@code true} if the given buffer starts with the KTX2 {@link #IDENTIFIER},
+     * otherwise {@code false}. The buffer's position is not modified.
+     */
+    public static boolean isKTX2(final ByteBuffer buf) {
+        if( buf.remaining() < IDENTIFIER.length ) {
+            return false;
+        }
+        final int p = buf.position();
+        for(int i=0; i<IDENTIFIER.length; i++) {
+            if( buf.get(p+i) != IDENTIFIER[i] ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Closes open files and resources associated with the open
+        KTX2Image. No other methods may be called on this object once
+        this is called. */
+    public void close() {
+        try {
+            if (chan != null) {
+                chan.close();
+                chan = null;
+            }
+            if (fis != null) {
+                fis.close();
+                fis = null;
+            }
+            buf = null;
+        } catch (final IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Creates a new KTX2Image from data supplied by the user. The
+     * resulting KTX2Image can be written to disk using the write()
+     * method.
+     *
+     * @param vkFormat one of the known VK_FORMAT_ constants describing the data,
+     *                 see {@link #isFormatSupported(int)}
+     * @param width  the width in pixels of the topmost mipmap level
+     * @param height the height in pixels of the topmost mipmap level
+     * @param depth  the depth in pixels of the topmost mipmap level of a 3D texture, otherwise 0
+     * @param layerCount number of array layers of an array texture, otherwise 0
+     * @param faceCount number of faces, 6 for cube-maps, otherwise 1
+     * @param levelData the data for each mipmap level laid out as described in {@link #getLevel(int)},
+     *                  either only one mipmap level should be specified, or they all must be
+     * @param yFlipped {@code true} if the data is stored bottom-up, i.e. in OpenGL orientation,
+     *                 otherwise {@code false} for the KTX2 default top-down orientation.
+     * @throws IllegalArgumentException if the data does not match the specified arguments
+     * @return KTX2 image object
+     */
+    public static KTX2Image createFromData(final int vkFormat,
+                                           final int width, final int height, final int depth,
+                                           final int layerCount, final int faceCount,
+                                           final ByteBuffer[] levelData,
+                                           final boolean yFlipped) throws IllegalArgumentException {
+        final KTX2Image image = new KTX2Image();
+        image.initFromData(vkFormat, width, height, depth, layerCount, faceCount, levelData, yFlipped);
+        return image;
+    }
+
+    /**
+     * Writes this KTX2Image to the specified file name.
+     * @param filename File name to write to
+     * @throws java.io.IOException if an I/O exception occurred
+     */
+    public void write(final String filename) throws IOException {
+        write(new File(filename));
+    }
+
+    /**
+     * Writes this KTX2Image to the specified file.
+     * <p>
+     * Mipmap levels are written from the smallest to the largest,
+     * each aligned as required by the specification.
+     * </p>
+     * @param file File object to write to
+     * @throws java.io.IOException if an I/O exception occurred
+     */
+    public void write(final File file) throws IOException {
+        final Format fmt = Format.get(vkFormat);
+        if( null == fmt ) {
+            throw new IOException("Unsupported vkFormat "+vkFormat+" for writing");
+        }
+        final int numLevels = getNumLevels();
+        final ByteBuffer dfd = fmt.createDFD(isSRGB());
+        final ByteBuffer kvd = createKVD(KEY_ORIENTATION, orientation);
+        final int alignment = lcm4(fmt.blockBytes);
+
+        final int levelIndexOffset = HEADER_SIZE;
+        final int dfdOffset = levelIndexOffset + numLevels * LEVEL_INDEX_ENTRY_SIZE;
+        final int kvdOffset = dfdOffset + dfd.remaining();
+        long offset = kvdOffset + kvd.remaining();
+        final long[] offsets = new long[numLevels];
+        for(int i=numLevels-1; i>=0; --i) {
+            offset = alignUp(offset, alignment);
+            offsets[i] = offset;
+            offset += levelLengths[i];
+        }
+
+        final ByteBuffer hdr = ByteBuffer.allocate(dfdOffset);
+        hdr.order(ByteOrder.LITTLE_ENDIAN);
+        hdr.put(IDENTIFIER);
+        hdr.putInt(vkFormat);
+        hdr.putInt(typeSize);
+        hdr.putInt(pixelWidth);
+        hdr.putInt(pixelHeight);
+        hdr.putInt(pixelDepth);
+        hdr.putInt(layerCount);
+        hdr.putInt(faceCount);
+        hdr.putInt(levelCount);
+        hdr.putInt(SUPERCOMPRESSION_NONE);
+        hdr.putInt(dfdOffset);
+        hdr.putInt(dfd.remaining());
+        hdr.putInt(kvdOffset);
+        hdr.putInt(kvd.remaining());
+        hdr.putLong(0); // sgdByteOffset
+        hdr.putLong(0); // sgdByteLength
+        for(int i=0; i<numLevels; i++) {
+            hdr.putLong(offsets[i]);
+            hdr.putLong(levelLengths[i]);
+            hdr.putLong(levelLengths[i]); // uncompressedByteLength
+        }
+        hdr.flip();
+
+        final FileOutputStream stream = IOUtil.getFileOutputStream(file, true);
+        final FileChannel chan = stream.getChannel();
+        try {
+            chan.write(hdr);
+            chan.write(dfd);
+            chan.write(kvd);
+            long pos = kvdOffset + kvd.capacity();
+            final ByteBuffer pad = ByteBuffer.allocate(alignment);
+            for(int i=numLevels-1; i>=0; --i) {
+                if( pos < offsets[i] ) {
+                    pad.clear();
+                    pad.limit((int)(offsets[i] - pos));
+                    chan.write(pad);
+                }
+                final ByteBuffer level = getLevel(i);
+                while( level.hasRemaining() ) {
+                    chan.write(level);
+                }
+                pos = offsets[i] + levelLengths[i];
+            }
+            chan.force(true);
+        } finally {
+            chan.close();
+            stream.close();
+        }
+    }
+
+    /** Returns the vkFormat of this texture, {@link #VK_FORMAT_UNDEFINED} if unknown or supercompressed. */
+    public int getVkFormat() { return vkFormat; }
+
+    /** Returns the size of the data type in bytes used to upload the data, 1 for block compressed formats. */
+    public int getTypeSize() { return typeSize; }
+
+    /** Width of the texture (or the top-most mipmap if mipmaps are present) */
+    public int getWidth() { return pixelWidth; }
+
+    /** Height of the texture (or the top-most mipmap if mipmaps are present), 0 for 1D textures. */
+    public int getHeight() { return pixelHeight; }
+
+    /** Depth of a 3D texture (or the top-most mipmap if mipmaps are present), otherwise 0. */
+    public int getDepth() { return pixelDepth; }
+
+    /** Number of array layers of an array texture, otherwise 0. */
+    public int getLayerCount() { return layerCount; }
+
+    /** Number of faces, 6 for a cube-map, otherwise 1. */
+    public int getFaceCount() { return faceCount; }
+
+    /** Returns the supercompression scheme, currently always {@link #SUPERCOMPRESSION_NONE} for a successfully read file. */
+    public int getSupercompressionScheme() { return supercompressionScheme; }
+
+    /**
+     * Number of mipmap levels in the file, at least 1.
+     * <p>
+     * A file's levelCount of 0 requests mipmap generation, see {@link #isMipmapGenerationRequested()}.
+     * </p>
+     */
+    public int getNumLevels() { return Math.max(1, levelCount); }
+
+    /** Returns {@code true} if the file's levelCount is zero, requesting the loader to generate mipmaps. */
+    public boolean isMipmapGenerationRequested() { return 0 == levelCount; }
+
+    /** Indicates whether this texture is a cube-map (array). */
+    public boolean isCubemap() { return 6 == faceCount; }
+
+    /** Indicates whether this texture is an array texture. */
+    public boolean isArray() { return 0 < layerCount; }
+
+    /** Indicates whether this texture is a 3D texture. */
+    public boolean is3D() { return 0 < pixelDepth; }
+
+    /** Indicates whether this texture's data is in a block compressed format. */
+    public boolean isCompressed() {
+        final Format fmt = Format.get(vkFormat);
+        return null != fmt && fmt.compressed;
+    }
+
+    /** Indicates whether this texture's data is sRGB encoded. */
+    public boolean isSRGB() {
+        return VK_FORMAT_R8G8B8_SRGB == vkFormat || VK_FORMAT_R8G8B8A8_SRGB == vkFormat;
+    }
+
+    /**
+     * Returns {@code true} if the image rows are stored bottom-up, i.e. OpenGL orientation,
+     * otherwise {@code false} for the KTX2 default top-down orientation.
+     * <p>
+     * Determined via the optional {@link #KEY_ORIENTATION} key/value entry.
+     * </p>
+     */
+    public boolean isGLOriented() {
+        return null != orientation && orientation.length() > 1 && 'u' == orientation.charAt(1);
+    }
+
+    /** Returns the width in pixels of the given mipmap level. */
+    public int getLevelWidth(final int level) { return Math.max(1, pixelWidth >> level); }
+
+    /** Returns the height in pixels of the given mipmap level. */
+    public int getLevelHeight(final int level) { return Math.max(1, pixelHeight >> level); }
+
+    /** Returns the depth in pixels of the given mipmap level of a 3D texture, otherwise 1. */
+    public int getLevelDepth(final int level) { return Math.max(1, pixelDepth >> level); }
+
+    /**
+     * Returns the zero-copy data of the given mipmap level, containing all layers, faces and z-slices
+     * as described in this class's documentation.
+     * @param level mipmap level [0..{@link #getNumLevels()}-1]
+     */
+    public ByteBuffer getLevel(final int level) {
+        checkLevel(level);
+        return slice(levelOffsets[level], levelLengths[level]);
+    }
+
+    /**
+     * Returns the zero-copy data of one image of the given mipmap level, layer and face.
+     * For 3D textures the image contains all z-slices of the level.
+     * @param level mipmap level [0..{@link #getNumLevels()}-1]
+     * @param layer array layer [0..max(1, {@link #getLayerCount()})-1]
+     * @param face cube-map face [0..{@link #getFaceCount()}-1] in the order +X, -X, +Y, -Y, +Z, -Z
+     */
+    public ByteBuffer getImage(final int level, final int layer, final int face) {
+        checkLevel(level);
+        if( 0 > layer || layer >= Math.max(1, layerCount) ) {
+            throw new IndexOutOfBoundsException("Illegal layer "+layer+" (0.."+(Math.max(1, layerCount)-1)+")");
+        }
+        if( 0 > face || face >= faceCount ) {
+            throw new IndexOutOfBoundsException("Illegal face "+face+" (0.."+(faceCount-1)+")");
+        }
+        final long imageSize = getImageSizeInBytes(level);
+        return slice(levelOffsets[level] + ( layer * faceCount + face ) * imageSize, imageSize);
+    }
+
+    /**
+     * Returns the zero-copy data of all mipmap levels of the given layer and face,
+     * suitable to be passed as mipmap data of a {@link com.jogamp.opengl.util.texture.TextureData}.
+     * @see #getImage(int, int, int)
+     */
+    public ByteBuffer[] getMipMaps(final int layer, final int face) {
+        final int numLevels = getNumLevels();
+        final ByteBuffer[] res = new ByteBuffer[numLevels];
+        for(int i=0; i<numLevels; i++) {
+            res[i] = getImage(i, layer, face);
+        }
+        return res;
+    }
+
+    /** Returns the size in bytes of one image of one layer and face of the given mipmap level. */
+    public long getImageSizeInBytes(final int level) {
+        checkLevel(level);
+        return levelLengths[level] / ( Math.max(1, layerCount) * faceCount );
+    }
+
+    /**
+     * Returns the OpenGL internal format matching {@link #getVkFormat()},
+     * e.g. {@link GL#GL_RGBA8} or {@link GL#GL_COMPRESSED_RGBA_S3TC_DXT5_EXT},
+     * or 0 if not supported.
+     */
+    public int getGLInternalFormat() {
+        final Format fmt = Format.get(vkFormat);
+        return null != fmt ? fmt.glInternalFormat : 0;
+    }
+
+    /** Returns the OpenGL pixel format matching {@link #getVkFormat()}, or 0 if not supported. */
+    public int getGLPixelFormat() {
+        final Format fmt = Format.get(vkFormat);
+        return null != fmt ? fmt.glFormat : 0;
+    }
+
+    /** Returns the OpenGL pixel type matching {@link #getVkFormat()}, or 0 if not supported. */
+    public int getGLPixelType() {
+        final Format fmt = Format.get(vkFormat);
+        return null != fmt ? fmt.glType : 0;
+    }
+
+    /** Returns {@code true} if the given vkFormat is supported for OpenGL mapping and writing. */
+    public static boolean isFormatSupported(final int vkFormat) {
+        return null != Format.get(vkFormat);
+    }
+
+    /**
+     * Returns the vkFormat matching the given OpenGL internal format, pixel format and type,
+     * or {@link #VK_FORMAT_UNDEFINED} if not supported.
+     * <p>
+     * Unsized internal formats are matched by pixel format and type only.
+     * </p>
+     */
+    public static int toVkFormat(final int glInternalFormat, final int glFormat, final int glType) {
+        for(final Format f : Format.formats) {
+            if( f.compressed ) {
+                if( f.glInternalFormat == glInternalFormat ) {
+                    return f.vkFormat;
+                }
+            } else if( f.glFormat == glFormat && f.glType == glType &&
+                       ( f.glInternalFormat == glInternalFormat || glInternalFormat == glFormat ) ) {
+                return f.vkFormat;
+            }
+        }
+        return VK_FORMAT_UNDEFINED;
+    }
+
+    public void debugPrint() {
+        final PrintStream tty = System.err;
+        tty.println("vkFormat: "+vkFormat+", typeSize "+typeSize+", supercompression "+supercompressionScheme);
+        tty.println("Size: "+pixelWidth+"x"+pixelHeight+"x"+pixelDepth+", layers "+layerCount+", faces "+faceCount+
+                    ", levels "+levelCount+", orientation "+orientation);
+        tty.println("GL: internal 0x"+Integer.toHexString(getGLInternalFormat())+", format 0x"+Integer.toHexString(getGLPixelFormat())+
+                    ", type 0x"+Integer.toHexString(getGLPixelType())+", compressed "+isCompressed());
+        for(int i=0; i<getNumLevels(); i++) {
+            tty.println("Level "+i+": offset "+levelOffsets[i]+", length "+levelLengths[i]+", "+
+                        getLevelWidth(i)+"x"+getLevelHeight(i)+"x"+getLevelDepth(i));
+        }
+    }
+
+    //----------------------------------------------------------------------
+    // Internals only below this point
+    //
+
+    private static final int HEADER_SIZE = 80;
+    private static final int LEVEL_INDEX_ENTRY_SIZE = 24;
+
+    private KTX2Image() {
+    }
+
+    private void readFromFile(final File file) throws IOException {
+        fis = new FileInputStream(file);
+        chan = fis.getChannel();
+        final ByteBuffer buf = chan.map(FileChannel.MapMode.READ_ONLY,
+                                        0, chan.size());
+        readFromBuffer(buf);
+    }
+
+    private void readFromBuffer(final ByteBuffer buf) throws IOException {
+        this.buf = buf.slice();
+        final ByteBuffer b = this.buf;
+        b.order(ByteOrder.LITTLE_ENDIAN);
+        if( !isKTX2(b) ) {
+            throw new IOException("Incorrect KTX2 identifier");
+        }
+        if( b.remaining() < HEADER_SIZE ) {
+            throw new IOException("Truncated KTX2 header, size "+b.remaining());
+        }
+        b.position(IDENTIFIER.length);
+        vkFormat               = b.getInt();
+        typeSize               = b.getInt();
+        pixelWidth             = b.getInt();
+        pixelHeight            = b.getInt();
+        pixelDepth             = b.getInt();
+        layerCount             = b.getInt();
+        faceCount              = b.getInt();
+        levelCount             = b.getInt();
+        supercompressionScheme = b.getInt();
+        /* final int dfdByteOffset = */ b.getInt();
+        /* final int dfdByteLength = */ b.getInt();
+        final int kvdByteOffset = b.getInt();
+        final int kvdByteLength = b.getInt();
+        /* final long sgdByteOffset = */ b.getLong();
+        /* final long sgdByteLength = */ b.getLong();
+
+        if( SUPERCOMPRESSION_NONE != supercompressionScheme ) {
+            throw new IOException("Unsupported KTX2 supercompression scheme "+supercompressionScheme);
+        }
+        if( 0 >= pixelWidth || ( 6 != faceCount && 1 != faceCount ) ) {
+            throw new IOException("Invalid KTX2 header: width "+pixelWidth+", faces "+faceCount);
+        }
+        final int numLevels = getNumLevels();
+        if( b.remaining() < numLevels * LEVEL_INDEX_ENTRY_SIZE ) {
+            throw new IOException("Truncated KTX2 level index, levels "+numLevels);
+        }
+        levelOffsets = new long[numLevels];
+        levelLengths = new long[numLevels];
+        for(int i=0; i<numLevels; i++) {
+            levelOffsets[i] = b.getLong();
+            levelLengths[i] = b.getLong();
+            /* final long uncompressedByteLength = */ b.getLong();
+            if( 0 > levelOffsets[i] || 0 > levelLengths[i] || levelOffsets[i] + levelLengths[i] > b.capacity() ) {
+                throw new IOException("KTX2 level "+i+" exceeds file: offset "+levelOffsets[i]+", length "+levelLengths[i]+
+                                      ", file size "+b.capacity());
+            }
+        }
+        if( 0 < kvdByteLength && kvdByteOffset + kvdByteLength <= b.capacity() ) {
+            orientation = readKeyValue(b, kvdByteOffset, kvdByteLength, KEY_ORIENTATION);
+        }
+        b.clear();
+    }
+
+    private void initFromData(final int vkFormat,
+                              final int width, final int height, final int depth,
+                              final int layerCount, final int faceCount,
+                              final ByteBuffer[] levelData,
+                              final boolean yFlipped) throws IllegalArgumentException {
+        final Format fmt = Format.get(vkFormat);
+        if( null == fmt ) {
+            throw new IllegalArgumentException("vkFormat "+vkFormat+" must be one of the known formats");
+        }
+        if( 6 != faceCount && 1 != faceCount ) {
+            throw new IllegalArgumentException("faceCount must be 1 or 6, has "+faceCount);
+        }
+        this.vkFormat = vkFormat;
+        this.typeSize = fmt.typeSize;
+        this.pixelWidth = width;
+        this.pixelHeight = height;
+        this.pixelDepth = depth;
+        this.layerCount = layerCount;
+        this.faceCount = faceCount;
+        this.levelCount = levelData.length;
+        this.supercompressionScheme = SUPERCOMPRESSION_NONE;
+        this.orientation = yFlipped ? "ru" : "rd";
+
+        // Check size of each level against format and dimension
+        final int imageCount = Math.max(1, layerCount) * faceCount;
+        long totalSize = 0;
+        levelOffsets = new long[levelData.length];
+        levelLengths = new long[levelData.length];
+        for (int i = 0; i < levelData.length; i++) {
+            final long expSize = (long)imageCount * getLevelDepth(i) *
+                                 fmt.imageSize(getLevelWidth(i), getLevelHeight(i));
+            if (levelData[i].remaining() != expSize) {
+                throw new IllegalArgumentException("Mipmap level " + i +
+                                                   " didn't match expected data size (expected " + expSize + ", got " +
+                                                   levelData[i].remaining() + ")");
+            }
+            levelOffsets[i] = totalSize;
+            levelLengths[i] = expSize;
+            totalSize += expSize;
+        }
+        if( totalSize > Integer.MAX_VALUE ) {
+            throw new IllegalArgumentException("Total data size "+totalSize+" exceeds 2GB");
+        }
+
+        // OK, create one large ByteBuffer to hold all of the level data
+        final ByteBuffer buf = ByteBuffer.allocate((int)totalSize);
+        for (int i = 0; i < levelData.length; i++) {
+            buf.put(levelData[i].duplicate());
+        }
+        buf.clear();
+        this.buf = buf;
+    }
+
+    private void checkLevel(final int level) {
+        if( 0 > level || level >= getNumLevels() ) {
+            throw new IndexOutOfBoundsException("Illegal mipmap level " + level + " (0.." + (getNumLevels() - 1) + ")");
+        }
+    }
+
+    private ByteBuffer slice(final long offset, final long length) {
+        final ByteBuffer b = buf.duplicate();
+        b.limit((int)(offset + length));
+        b.position((int)offset);
+        return b.slice();
+    }
+
+    private static String readKeyValue(final ByteBuffer b, final int offset, final int length, final String key) {
+        final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int p = offset;
+        final int end = offset + length;
+        while( p + 4 <= end ) {
+            final int kvLen = b.getInt(p);
+            final int kvStart = p + 4;
+            if( 0 > kvLen || kvStart + kvLen > end ) {
+                break;
+            }
+            if( kvLen > keyBytes.length && 0 == b.get(kvStart + keyBytes.length) ) {
+                boolean match = true;
+                for(int i=0; match && i<keyBytes.length; i++) {
+                    match = b.get(kvStart + i) == keyBytes[i];
+                }
+                if( match ) {
+                    final int vStart = kvStart + keyBytes.length + 1;
+                    int vEnd = kvStart + kvLen;
+                    while( vEnd > vStart && 0 == b.get(vEnd-1) ) {
+                        vEnd--;
+                    }
+                    final byte[] v = new byte[vEnd - vStart];
+                    for(int i=0; i<v.length; i++) {
+                        v[i] = b.get(vStart + i);
+                    }
+                    return new String(v, StandardCharsets.UTF_8);
+                }
+            }
+            p = (int) alignUp(kvStart + kvLen, 4);
+        }
+        return null;
+    }
+
+    private static ByteBuffer createKVD(final String key, final String value) {
+        final byte[] k = key.getBytes(StandardCharsets.UTF_8);
+        final byte[] v = value.getBytes(StandardCharsets.UTF_8);
+        final int kvLen = k.length + 1 + v.length + 1;
+        final ByteBuffer b = ByteBuffer.allocate((int)alignUp(4 + kvLen, 4));
+        b.order(ByteOrder.LITTLE_ENDIAN);
+        b.putInt(kvLen);
+        b.put(k).put((byte)0);
+        b.put(v).put((byte)0);
+        b.clear();
+        return b;
+    }
+
+    private static long alignUp(final long v, final int alignment) {
+        final long r = v % alignment;
+        return 0 == r ? v : v + alignment - r;
+    }
+
+    /** Returns the least common multiple of the given texel block size and 4. */
+    private static int lcm4(final int blockBytes) {
+        int a = blockBytes, b = 4;
+        while( 0 != b ) {
+            final int t = a % b;
+            a = b;
+            b = t;
+        }
+        return blockBytes / a * 4;
+    }
+
+    /** Supported vkFormat and its OpenGL and data format descriptor mapping. */
+    private static class Format {
+        // Data format descriptor (DFD) constants, see Khronos Data Format Specification
+        private static final int KHR_DF_MODEL_RGBSDA = 1;
+        private static final int KHR_DF_MODEL_BC1A = 128;
+        private static final int KHR_DF_MODEL_BC2 = 129;
+        private static final int KHR_DF_MODEL_BC3 = 130;
+        private static final int KHR_DF_PRIMARIES_BT709 = 1;
+        private static final int KHR_DF_TRANSFER_LINEAR = 1;
+        private static final int KHR_DF_TRANSFER_SRGB = 2;
+        private static final int KHR_DF_SAMPLE_DATATYPE_LINEAR = 0x10;
+        private static final int KHR_DF_SAMPLE_DATATYPE_SIGNED = 0x40;
+        private static final int KHR_DF_SAMPLE_DATATYPE_FLOAT = 0x80;
+        private static final int CH_R = 0, CH_G = 1, CH_B = 2, CH_A = 15;
+        private static final int CH_BC_COLOR = 0, CH_BC1_ALPHAPRESENT = 1, CH_BC_ALPHA = 15;
+
+        final int vkFormat;
+        final int glInternalFormat;
+        final int glFormat;
+        final int glType;
+        final int typeSize;
+        final int blockBytes;
+        final boolean compressed;
+        final int colorModel;
+        /** uncompressed: channel ids per component, compressed: channel ids per 64bit block part */
+        final int[] channels;
+
+        Format(final int vkFormat, final int glInternalFormat, final int glFormat, final int glType,
+               final int typeSize, final int blockBytes, final boolean compressed, final int colorModel, final int... channels) {
+            this.vkFormat = vkFormat;
+            this.glInternalFormat = glInternalFormat;
+            this.glFormat = glFormat;
+            this.glType = glType;
+            this.typeSize = typeSize;
+            this.blockBytes = blockBytes;
+            this.compressed = compressed;
+            this.colorModel = colorModel;
+            this.channels = channels;
+        }
+
+        /** Returns the size in bytes of one 2D image of the given dimension. */
+        long imageSize(final int width, final int height) {
+            if( compressed ) {
+                return (long)((width + 3) / 4) * ((height + 3) / 4) * blockBytes;
+            } else {
+                return (long)width * height * blockBytes;
+            }
+        }
+
+        /** Returns a basic data format descriptor including its leading total size. */
+        ByteBuffer createDFD(final boolean srgb) {
+            final int numSamples = channels.length;
+            final int blockSize = 24 + 16 * numSamples;
+            final ByteBuffer b = ByteBuffer.allocate(4 + blockSize);
+            b.order(ByteOrder.LITTLE_ENDIAN);
+            b.putInt(4 + blockSize);
+            b.putInt(0); // vendorId KHRONOS, descriptorType BASICFORMAT
+            b.putShort((short)2); // versionNumber 1.3
+            b.putShort((short)blockSize);
+            b.put((byte)colorModel);
+            b.put((byte)KHR_DF_PRIMARIES_BT709);
+            b.put((byte)(srgb ? KHR_DF_TRANSFER_SRGB : KHR_DF_TRANSFER_LINEAR));
+            b.put((byte)0); // flags, alpha straight
+            b.put((byte)(compressed ? 3 : 0)); // texelBlockDimension0..3
+            b.put((byte)(compressed ? 3 : 0));
+            b.put((byte)0);
+            b.put((byte)0);
+            b.put((byte)blockBytes); // bytesPlane0..7
+            for(int i=0; i<7; i++) {
+                b.put((byte)0);
+            }
+            final int bits = compressed ? 64 : ( blockBytes * 8 ) / numSamples;
+            final boolean isFloat = !compressed && GL.GL_UNSIGNED_BYTE != glType;
+            for(int i=0; i<numSamples; i++) {
+                int channelType = channels[i];
+                if( isFloat ) {
+                    channelType |= KHR_DF_SAMPLE_DATATYPE_FLOAT | KHR_DF_SAMPLE_DATATYPE_SIGNED;
+                }
+                if( srgb && CH_A == channels[i] ) {
+                    channelType |= KHR_DF_SAMPLE_DATATYPE_LINEAR;
+                }
+                b.putShort((short)(i * bits)); // bitOffset
+                b.put((byte)(bits - 1)); // bitLength
+                b.put((byte)channelType);
+                b.putInt(0); // samplePosition0..3
+                if( isFloat ) {
+                    b.putInt(Float.floatToIntBits(-1f)); // sampleLower
+                    b.putInt(Float.floatToIntBits( 1f)); // sampleUpper
+                } else if( compressed ) {
+                    b.putInt(0);
+                    b.putInt(0xFFFFFFFF);
+                } else {
+                    b.putInt(0);
+                    b.putInt((1 << bits) - 1);
+                }
+            }
+            b.clear();
+            return b;
+        }
+
+        static Format get(final int vkFormat) {
+            for(final Format f : formats) {
+                if( f.vkFormat == vkFormat ) {
+                    return f;
+                }
+            }
+            return null;
+        }
+
+        static final Format[] formats = new Format[] {
+            new Format(VK_FORMAT_R8_UNORM, GL2ES3.GL_R8, GL2ES3.GL_RED, GL.GL_UNSIGNED_BYTE, 1, 1, false, KHR_DF_MODEL_RGBSDA, CH_R),
+            new Format(VK_FORMAT_R8G8_UNORM, GL2ES3.GL_RG8, GL2ES3.GL_RG, GL.GL_UNSIGNED_BYTE, 1, 2, false, KHR_DF_MODEL_RGBSDA, CH_R, CH_G),
+            new Format(VK_FORMAT_R8G8B8_UNORM, GL.GL_RGB8, GL.GL_RGB, GL.GL_UNSIGNED_BYTE, 1, 3, false, KHR_DF_MODEL_RGBSDA, CH_R, CH_G, CH_B),
+            new Format(VK_FORMAT_R8G8B8_SRGB, GL2ES3.GL_SRGB8, GL.GL_RGB, GL.GL_UNSIGNED_BYTE, 1, 3, false, KHR_DF_MODEL_RGBSDA, CH_R, CH_G, CH_B),
+            new Format(VK_FORMAT_B8G8R8_UNORM, GL.GL_RGB8, GL.GL_BGR, GL.GL_UNSIGNED_BYTE, 1, 3, false, KHR_DF_MODEL_RGBSDA, CH_B, CH_G, CH_R),
+            new Format(VK_FORMAT_R8G8B8A8_UNORM, GL.GL_RGBA8, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE, 1, 4, false, KHR_DF_MODEL_RGBSDA, CH_R, CH_G, CH_B, CH_A),
+            new Format(VK_FORMAT_R8G8B8A8_SRGB, GL2ES3.GL_SRGB8_ALPHA8, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE, 1, 4, false, KHR_DF_MODEL_RGBSDA, CH_R, CH_G, CH_B, CH_A),
+            new Format(VK_FORMAT_B8G8R8A8_UNORM, GL.GL_RGBA8, GL.GL_BGRA, GL.GL_UNSIGNED_BYTE, 1, 4, false, KHR_DF_MODEL_RGBSDA, CH_B, CH_G, CH_R, CH_A),
+            new Format(VK_FORMAT_R16_SFLOAT, GL2ES3.GL_R16F, GL2ES3.GL_RED, GL.GL_HALF_FLOAT, 2, 2, false, KHR_DF_MODEL_RGBSDA, CH_R),
+            new Format(VK_FORMAT_R16G16B16A16_SFLOAT, GL2ES3.GL_RGBA16F, GL.GL_RGBA, GL.GL_HALF_FLOAT, 2, 8, false, KHR_DF_MODEL_RGBSDA, CH_R, CH_G, CH_B, CH_A),
+            new Format(VK_FORMAT_R32_SFLOAT, GL2ES3.GL_R32F, GL2ES3.GL_RED, GL.GL_FLOAT, 4, 4, false, KHR_DF_MODEL_RGBSDA, CH_R),
+            new Format(VK_FORMAT_R32G32B32A32_SFLOAT, GL2ES3.GL_RGBA32F, GL.GL_RGBA, GL.GL_FLOAT, 4, 16, false, KHR_DF_MODEL_RGBSDA, CH_R, CH_G, CH_B, CH_A),
+            new Format(VK_FORMAT_BC1_RGB_UNORM_BLOCK, GL.GL_COMPRESSED_RGB_S3TC_DXT1_EXT, GL.GL_RGB, GL.GL_UNSIGNED_BYTE, 1, 8, true, KHR_DF_MODEL_BC1A, CH_BC_COLOR),
+            new Format(VK_FORMAT_BC1_RGBA_UNORM_BLOCK, GL.GL_COMPRESSED_RGBA_S3TC_DXT1_EXT, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE, 1, 8, true, KHR_DF_MODEL_BC1A, CH_BC1_ALPHAPRESENT),
+            new Format(VK_FORMAT_BC2_UNORM_BLOCK, GL.GL_COMPRESSED_RGBA_S3TC_DXT3_EXT, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE, 1, 16, true, KHR_DF_MODEL_BC2, CH_BC_ALPHA, CH_BC_COLOR),
+            new Format(VK_FORMAT_BC3_UNORM_BLOCK, GL.GL_COMPRESSED_RGBA_S3TC_DXT5_EXT, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE, 1, 16, true, KHR_DF_MODEL_BC3, CH_BC_ALPHA, CH_BC_COLOR),
+        };
+    }
+}
@@ -40,6 +40,11 @@
 package com.jogamp.opengl.util.texture.spi;
 
 import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
 
 import com.jogamp.opengl.*;
 import com.jogamp.opengl.util.texture.ImageType;
@@ -61,9 +66,6 @@ public class SGIImage {
     // Used for decoding RLE-compressed images
     private int[]  rowStart;
     private int[]  rowSize;
-    private int    rleEnd;
-    private byte[] tmpData;
-    private byte[] tmpRead;
 
     private static final int MAGIC = 474;
 
@@ -106,25 +108,24 @@ public class SGIImage {
             magic = MAGIC;
         }
 
-        Header(final DataInputStream in) throws IOException {
-            magic      = in.readShort();
-            storage    = in.readByte();
-            bpc        = in.readByte();
-            dimension  = in.readShort();
-            xsize      = in.readShort();
-            ysize      = in.readShort();
-            zsize      = in.readShort();
-            pixmin     = in.readInt();
-            pixmax     = in.readInt();
-            dummy      = in.readInt();
+        Header(final ByteBuffer in) throws IOException {
+            magic      = in.getShort();
+            storage    = in.get();
+            bpc        = in.get();
+            dimension  = in.getShort();
+            xsize      = in.getShort();
+            ysize      = in.getShort();
+            zsize      = in.getShort();
+            pixmin     = in.getInt();
+            pixmax     = in.getInt();
+            dummy      = in.getInt();
             final byte[] tmpname = new byte[80];
-            in.read(tmpname);
+            in.get(tmpname);
             int numChars = 0;
             while (tmpname[numChars++] != 0);
             imagename  = new String(tmpname, 0, numChars);
-            colormap   = in.readInt();
-            final byte[] tmp = new byte[404];
-            in.read(tmp);
+            colormap   = in.getInt();
+            in.position(in.position() + 404);
         }
 
         @Override
@@ -149,17 +150,47 @@ public class SGIImage {
 
     /** Reads an SGI image from the specified file. */
     public static SGIImage read(final String filename) throws IOException {
-        return read(new FileInputStream(filename));
+        return read(new File(filename));
+    }
+
+    /**
+     * Reads an SGI image from the specified file,
+     * which is memory mapped for decoding.
+     */
+    public static SGIImage read(final File file) throws IOException {
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            final FileChannel chan = raf.getChannel();
+            return read(chan.map(FileChannel.MapMode.READ_ONLY, 0, chan.size()));
+        } finally {
+            raf.close();
+        }
     }
 
     /** Reads an SGI image from the specified InputStream. */
     public static SGIImage read(final InputStream in) throws IOException {
-        final DataInputStream dIn = new DataInputStream(new BufferedInputStream(in));
+        return read(ByteBuffer.wrap(IOUtil.copyStream2ByteArray(new BufferedInputStream(in))));
+    }
 
-        final Header header = new Header(dIn);
-        final SGIImage res = new SGIImage(header);
-        res.decodeImage(dIn);
-        return res;
+    /**
+     * Reads an SGI image from the specified ByteBuffer,
+     * starting at its current position.
+     * <p>
+     * The buffer's position and byte order are not modified.
+     * </p>
+     */
+    public static SGIImage read(final ByteBuffer buf) throws IOException {
+        final ByteBuffer in = buf.slice().order(ByteOrder.BIG_ENDIAN);
+        try {
+            final Header header = new Header(in);
+            final SGIImage res = new SGIImage(header);
+            res.decodeImage(in);
+            return res;
+        } catch (final BufferUnderflowException bue) {
+            throw new IOException("SGIImage: Truncated image data", bue);
+        } catch (final IndexOutOfBoundsException ioobe) {
+            throw new IOException("SGIImage: Corrupt image data", ioobe);
+        }
     }
 
     /** Writes this SGIImage to the specified file name. If
@@ -219,22 +250,19 @@ public class SGIImage {
     // Internals only below this point
     //
 
-    private void decodeImage(final DataInputStream in) throws IOException {
+    /**
+     * Decodes all channel rows from the given buffer, positioned after the header,
+     * directly into the interleaved RGBA destination.
+     * Row offsets are absolute within the buffer, i.e. the buffer starts with the header.
+     */
+    private void decodeImage(final ByteBuffer in) throws IOException {
         if (header.storage == 1) {
             // Read RLE compression data; row starts and sizes
             final int x = header.ysize * header.zsize;
             rowStart = new int[x];
             rowSize  = new int[x];
-            rleEnd   = 4 * 2 * x + 512;
-            for (int i = 0; i < x; i++) {
-                rowStart[i] = in.readInt();
-            }
-            for (int i = 0; i < x; i++) {
-                rowSize[i] = in.readInt();
-            }
-            tmpRead = new byte[header.xsize * 256];
+            in.asIntBuffer().get(rowStart).get(rowSize);
         }
-        tmpData = readAll(in);
 
         final int xsize = header.xsize;
         final int ysize = header.ysize;
@@ -248,60 +276,74 @@ public class SGIImage {
         final byte[] abuf = new byte[xsize];
         for (int y = 0; y < ysize; y++) {
             if (zsize >= 4) {
-                getRow(rbuf, y, 0);
-                getRow(gbuf, y, 1);
-                getRow(bbuf, y, 2);
-                getRow(abuf, y, 3);
+                getRow(in, rbuf, y, 0);
+                getRow(in, gbuf, y, 1);
+                getRow(in, bbuf, y, 2);
+                getRow(in, abuf, y, 3);
                 rgbatorgba(rbuf, gbuf, bbuf, abuf, data, lptr);
             } else if (zsize == 3) {
-                getRow(rbuf, y, 0);
-                getRow(gbuf, y, 1);
-                getRow(bbuf, y, 2);
+                getRow(in, rbuf, y, 0);
+                getRow(in, gbuf, y, 1);
+                getRow(in, bbuf, y, 2);
                 rgbtorgba(rbuf, gbuf, bbuf, data, lptr);
             } else if (zsize == 2) {
-                getRow(rbuf, y, 0);
-                getRow(abuf, y, 1);
+                getRow(in, rbuf, y, 0);
+                getRow(in, abuf, y, 1);
                 latorgba(rbuf, abuf, data, lptr);
             } else {
-                getRow(rbuf, y, 0);
+                getRow(in, rbuf, y, 0);
                 bwtorgba(rbuf, data, lptr);
             }
             lptr += 4 * xsize;
         }
         rowStart = null;
         rowSize  = null;
-        tmpData  = null;
-        tmpRead  = null;
         format   = GL.GL_RGBA;
         header.zsize = 4;
     }
 
-    private void getRow(final byte[] buf, final int y, final int z) {
+    /**
+     * Reads row {@code y} of channel {@code z} into {@code buf},
+     * expanding run-length packets via array fills and copying literal packets via bulk copies.
+     * RLE packets are read directly from the buffer, i.e. a direct or mapped buffer is not copied to the heap.
+     */
+    private void getRow(final ByteBuffer in, final byte[] buf, final int y, final int z) throws IOException {
         if (header.storage == 1) {
-            final int offs = rowStart[y + z * header.ysize] - rleEnd;
-            System.arraycopy(tmpData, offs, tmpRead, 0, rowSize[y + z * header.ysize]);
-            int iPtr = 0;
+            final int idx = y + z * header.ysize;
+            int iPtr = rowStart[idx];
+            final int iEnd = iPtr + rowSize[idx];
+            if (0 > iPtr || iEnd > in.limit() || iEnd < iPtr) {
+                throw new IOException("SGIImage: Corrupt RLE row offset, row "+y+", channel "+z);
+            }
             int oPtr = 0;
-            for (;;) {
-                byte pixel = tmpRead[iPtr++];
-                int count = pixel & 0x7F;
+            while (iPtr < iEnd) {
+                final int pixel = in.get(iPtr++);
+                final int count = pixel & 0x7F;
                 if (count == 0) {
                     return;
                 }
+                if (oPtr + count > buf.length) {
+                    throw new IOException("SGIImage: Corrupt RLE row "+y+", channel "+z);
+                }
                 if ((pixel & 0x80) != 0) {
-                    while ((count--) > 0) {
-                        buf[oPtr++] = tmpRead[iPtr++];
+                    if (iPtr + count > iEnd) {
+                        throw new IOException("SGIImage: Corrupt RLE row "+y+", channel "+z);
                     }
+                    in.position(iPtr);
+                    in.get(buf, oPtr, count);
+                    iPtr += count;
                 } else {
-                    pixel = tmpRead[iPtr++];
-                    while ((count--) > 0) {
-                        buf[oPtr++] = pixel;
+                    if (iPtr >= iEnd) {
+                        throw new IOException("SGIImage: Corrupt RLE row "+y+", channel "+z);
                     }
+                    Arrays.fill(buf, oPtr, oPtr + count, in.get(iPtr++));
                 }
+                oPtr += count;
             }
         } else {
-            final int offs = (y * header.xsize) + (z * header.xsize * header.ysize);
-            System.arraycopy(tmpData, offs, buf, 0, header.xsize);
+            final int offs = 512 + (y * header.xsize) + (z * header.xsize * header.ysize);
+            in.position(offs);
+            in.get(buf, 0, header.xsize);
         }
     }
 
@@ -585,38 +627,6 @@ public class SGIImage {
         stream.close();
     }
 
-    private byte[] readAll(final DataInputStream in) throws IOException {
-        byte[] dest = new byte[16384];
-        int pos = 0;
-        int numRead = 0;
-
-        boolean done = false;
-
-        do {
-            numRead = in.read(dest, pos, dest.length - pos);
-            if (pos == dest.length) {
-                // Resize destination buffer
-                final byte[] newDest = new byte[2 * dest.length];
-                System.arraycopy(dest, 0, newDest, 0, pos);
-                dest = newDest;
-            }
-            if (numRead > 0) {
-                pos += numRead;
-            }
-
-            done = ((numRead == -1) || (in.available() == 0));
-        } while (!done);
-
-        // Trim destination buffer
-        if (pos != dest.length) {
-            final byte[] finalDest = new byte[pos];
-            System.arraycopy(dest, 0, finalDest, 0, pos);
-            dest = finalDest;
-        }
-
-        return dest;
-    }
-
     // Test case
     /*
       import java.awt.image.*;
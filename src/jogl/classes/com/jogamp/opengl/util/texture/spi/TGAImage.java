@@ -142,30 +142,30 @@ public class TGAImage {
             tgaType = TYPE_OLD; // dont try and get footer.
         }
 
-        Header(final LEDataInputStream in) throws IOException {
+        Header(final ByteBuffer in) throws IOException {
             tgaType = TYPE_OLD; // dont try and get footer.
 
             // initial header fields
-            idLength = in.readUnsignedByte();
-            colorMapType = in.readUnsignedByte();
-            imageType = in.readUnsignedByte();
+            idLength = in.get() & 0xff;
+            colorMapType = in.get() & 0xff;
+            imageType = in.get() & 0xff;
 
             // color map header fields
-            firstEntryIndex = in.readUnsignedShort();
-            colorMapLength = in.readUnsignedShort();
-            colorMapEntrySize = in.readByte();
+            firstEntryIndex = in.getShort() & 0xffff;
+            colorMapLength = in.getShort() & 0xffff;
+            colorMapEntrySize = in.get();
 
             // TGA image specification fields
-            xOrigin = in.readUnsignedShort();
-            yOrigin = in.readUnsignedShort();
-            width = in.readUnsignedShort();
-            height = in.readUnsignedShort();
-            pixelDepth = in.readByte();
-            imageDescriptor = in.readByte();
+            xOrigin = in.getShort() & 0xffff;
+            yOrigin = in.getShort() & 0xffff;
+            width = in.getShort() & 0xffff;
+            height = in.getShort() & 0xffff;
+            pixelDepth = in.get();
+            imageDescriptor = in.get();
 
             if (idLength > 0) {
                 imageIDbuf = new byte[idLength];
-                in.read(imageIDbuf, 0, idLength);
+                in.get(imageIDbuf, 0, idLength);
                 imageID = new String(imageIDbuf, "US-ASCII");
             }
         }
@@ -250,7 +250,7 @@ public class TGAImage {
      * it into the JimiImage structure. This was taken from the
      * prototype and modified for the new Jimi structure
      */
-    private void decodeImage(final GLProfile glp, final LEDataInputStream dIn) throws IOException {
+    private void decodeImage(final GLProfile glp, final ByteBuffer in) throws IOException {
         switch (header.imageType()) {
         case Header.UCOLORMAPPED:
             throw new IOException("TGADecoder Uncompressed Colormapped images not supported");
@@ -262,7 +262,7 @@ public class TGAImage {
 
             case 24:
             case 32:
-                decodeRGBImageU24_32(glp, dIn);
+                decodeRGBImageU24_32(glp, in);
                 break;
             }
             break;
@@ -280,7 +280,7 @@ public class TGAImage {
 
             case 24:
             case 32:
-                decodeRGBImageRLE24_32(glp, dIn);
+                decodeRGBImageRLE24_32(glp, in);
                 break;
             }
             break;
@@ -294,60 +294,97 @@ public class TGAImage {
      * This assumes that the body is for a 24 bit or 32 bit for a
      * RGB or ARGB image respectively.
      */
-    private void decodeRGBImageU24_32(final GLProfile glp, final LEDataInputStream dIn) throws IOException {
+    private void decodeRGBImageU24_32(final GLProfile glp, final ByteBuffer in) throws IOException {
         setupImage24_32(glp);
 
-        int i;    // row index
-        int y;    // output row index
+        final int height = header.height();
         final int rawWidth = header.width() * bpp;
-        final byte[] rawBuf = new byte[rawWidth];
-        final byte[] tmpData = new byte[rawWidth * header.height()];
+        final byte[] tmpData = new byte[rawWidth * height];
 
-        for (i = 0; i < header.height(); ++i) {
-            dIn.readFully(rawBuf, 0, rawWidth);
-
-            if (header.topToBottom())
-                y = header.height - i - 1; // range 0 to (header.height - 1)
-            else
-                y = i;
-
-            System.arraycopy(rawBuf, 0, tmpData, y * rawWidth, rawBuf.length);
+        // bulk read each row directly into its bottom-to-top position
+        for (int i = 0; i < height; ++i) {
+            final int y = header.topToBottom() ? height - i - 1 : i;
+            in.get(tmpData, y * rawWidth, rawWidth);
         }
 
         if(format == GL.GL_RGB || format == GL.GL_RGBA)
-            swapBGR(tmpData, rawWidth, header.height(), bpp);
+            swapBGR(tmpData, 0, tmpData.length, bpp);
         data = ByteBuffer.wrap(tmpData);
     }
 
     /**
      * This assumes that the body is for a 24 bit or 32 bit for a
      * RGB or ARGB image respectively.
+     * <p>
+     * Packets are expanded row by row directly into their bottom-to-top position,
+     * run-length packets via array fills and raw packets via bulk copies.
+     * Packets are read directly from the buffer, i.e. a direct or mapped buffer is not copied to the heap.
+     * </p>
      */
-    private void decodeRGBImageRLE24_32(final GLProfile glp, final LEDataInputStream dIn) throws IOException {
+    private void decodeRGBImageRLE24_32(final GLProfile glp, final ByteBuffer in) throws IOException {
         setupImage24_32(glp);
 
+        int iPtr = in.position();
+        final boolean swap = format == GL.GL_RGB || format == GL.GL_RGBA;
+        final int width = header.width();
+        final int height = header.height();
+        final int rawWidth = width * bpp;
+        final byte[] tmpData = new byte[rawWidth * height];
         final byte[] pixel = new byte[bpp];
-        final int rawWidth = header.width() * bpp;
-        final byte[] tmpData = new byte[rawWidth * header.height()];
-        int i = 0, j;
-        int packet, len;
-        while (i < tmpData.length) {
-            packet = dIn.readUnsignedByte();
-            len = (packet & 0x7F) + 1;
-            if ((packet & 0x80) != 0) {
-                dIn.read(pixel);
-                for (j = 0; j < len; ++j)
-                    System.arraycopy(pixel, 0, tmpData, i + j * bpp, bpp);
-            } else
-                dIn.read(tmpData, i, len * bpp);
-            i += bpp * len;
+        int row = 0, col = 0;
+        try {
+            while (row < height) {
+                final int packet = in.get(iPtr++) & 0xff;
+                int len = (packet & 0x7F) + 1;
+                final boolean run = (packet & 0x80) != 0;
+                if (run) {
+                    in.position(iPtr);
+                    in.get(pixel, 0, bpp);
+                    iPtr += bpp;
+                    if (swap)
+                        swapBGR(pixel, 0, bpp, bpp);
+                }
+                // packets may span rows
+                while (len > 0 && row < height) {
+                    final int n = Math.min(len, width - col);
+                    final int y = header.topToBottom() ? height - row - 1 : row;
+                    final int off = y * rawWidth + col * bpp;
+                    if (run) {
+                        fill(tmpData, off, n * bpp, pixel);
+                    } else {
+                        in.position(iPtr);
+                        in.get(tmpData, off, n * bpp);
+                        iPtr += n * bpp;
+                        if (swap)
+                            swapBGR(tmpData, off, n * bpp, bpp);
+                    }
+                    len -= n;
+                    col += n;
+                    if (col == width) {
+                        col = 0;
+                        ++row;
+                    }
+                }
+            }
+        } catch (final IndexOutOfBoundsException ioobe) {
+            throw new IOException("TGADecoder Truncated RLE image data", ioobe);
+        } catch (final BufferUnderflowException bue) {
+            throw new IOException("TGADecoder Truncated RLE image data", bue);
         }
-
-        if(format == GL.GL_RGB || format == GL.GL_RGBA)
-            swapBGR(tmpData, rawWidth, header.height(), bpp);
         data = ByteBuffer.wrap(tmpData);
     }
 
+    /** Fills {@code len} bytes of {@code dst} at {@code off} with the repeated {@code pixel} by doubling array copies. */
+    private static void fill(final byte[] dst, final int off, final int len, final byte[] pixel) {
+        System.arraycopy(pixel, 0, dst, off, pixel.length);
+        int filled = pixel.length;
+        while (filled < len) {
+            final int n = Math.min(filled, len - filled);
+            System.arraycopy(dst, off, dst, off + filled, n);
+            filled += n;
+        }
+    }
+
     private void setupImage24_32(final GLProfile glp) {
         bpp = header.pixelDepth / 8;
         switch (header.pixelDepth) {
@@ -367,17 +404,14 @@ public class TGAImage {
         }
     }
 
-    private static void swapBGR(final byte[] data, final int bWidth, final int height, final int bpp) {
+    private static void swapBGR(final byte[] data, final int off, final int len, final int bpp) {
         byte r,b;
-        int k;
-        for(int i=0; i<height; ++i) {
-            for(int j=0; j<bWidth; j+=bpp) {
-                k=i*bWidth+j;
-                b=data[k+0];
-                r=data[k+2];
-                data[k+0]=r;
-                data[k+2]=b;
-            }
+        final int end = off + len;
+        for(int k=off; k<end; k+=bpp) {
+            b=data[k+0];
+            r=data[k+2];
+            data[k+0]=r;
+            data[k+2]=b;
         }
     }
 
@@ -399,17 +433,45 @@ public class TGAImage {
 
     /** Reads a Targa image from the specified file. */
     public static TGAImage read(final GLProfile glp, final String filename) throws IOException {
-        return read(glp, new FileInputStream(filename));
+        return read(glp, new File(filename));
+    }
+
+    /**
+     * Reads a Targa image from the specified file,
+     * which is memory mapped for decoding.
+     */
+    public static TGAImage read(final GLProfile glp, final File file) throws IOException {
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            final FileChannel chan = raf.getChannel();
+            return read(glp, chan.map(FileChannel.MapMode.READ_ONLY, 0, chan.size()));
+        } finally {
+            raf.close();
+        }
     }
 
     /** Reads a Targa image from the specified InputStream. */
     public static TGAImage read(final GLProfile glp, final InputStream in) throws IOException {
-        final LEDataInputStream dIn = new LEDataInputStream(new BufferedInputStream(in));
+        return read(glp, ByteBuffer.wrap(IOUtil.copyStream2ByteArray(new BufferedInputStream(in))));
+    }
 
-        final Header header = new Header(dIn);
-        final TGAImage res = new TGAImage(header);
-        res.decodeImage(glp, dIn);
-        return res;
+    /**
+     * Reads a Targa image from the specified ByteBuffer,
+     * starting at its current position.
+     * <p>
+     * The buffer's position and byte order are not modified.
+     * </p>
+     */
+    public static TGAImage read(final GLProfile glp, final ByteBuffer buf) throws IOException {
+        final ByteBuffer in = buf.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            final Header header = new Header(in);
+            final TGAImage res = new TGAImage(header);
+            res.decodeImage(glp, in);
+            return res;
+        } catch (final BufferUnderflowException bue) {
+            throw new IOException("TGADecoder Truncated image data", bue);
+        }
     }
 
     /** Writes the image in Targa format to the specified file name. */
@@ -40,12 +40,14 @@
 
 package com.jogamp.opengl.util.texture.spi;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 
 import com.jogamp.opengl.GLProfile;
 import com.jogamp.opengl.util.texture.ImageType;
 import com.jogamp.opengl.util.texture.TextureData;
+import com.jogamp.opengl.util.texture.TextureIO;
 
 
 /** Plug-in interface to TextureIO to support reading OpenGL textures
@@ -68,6 +70,34 @@ public interface TextureProvider {
         ImageType[] getImageTypes();
     }
 
+    /**
+     * Optional additional interface for {@link TextureProvider} implementation
+     * reading {@link TextureData} directly from a {@link File}.
+     * <p>
+     * Use case: Memory mapping the file and handing out zero-copy
+     * slices instead of streaming and copying its content.
+     * </p>
+     * <p>
+     * {@link TextureIO} consults all {@link TextureProvider}s implementing this interface
+     * before falling back to {@link TextureProvider#newTextureData(GLProfile, InputStream, int, int, boolean, String)}.
+     * </p>
+     */
+    public static interface SupportsFile {
+        /**
+         * Produces a TextureData object from a file, or returns null if
+         * the file format was not supported by this TextureProvider.
+         * <p>
+         * Parameter semantics are equal to {@link TextureProvider#newTextureData(GLProfile, InputStream, int, int, boolean, String)}.
+         * </p>
+         * @throws IOException if an error occurred while reading the file
+         */
+        TextureData newTextureData(GLProfile glp, File file,
+                                   int internalFormat,
+                                   int pixelFormat,
+                                   boolean mipmap,
+                                   String fileSuffix) throws IOException;
+    }
+
     /**
      * Returns the known supported {@link ImageType}s, or {@code null} if unknown.
      * <p>
@@ -0,0 +1,122 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.opengl;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Copy-on-write hash map for read-mostly caches shared by all contexts,
+ * e.g. the {@link GLContextImpl} ProcAddressTable and {@link ExtensionAvailabilityCache} mappings.
+ * <p>
+ * Readers access the current immutable snapshot w/o locking.
+ * Writers are serialized, copy the snapshot and publish the new one via a volatile store,
+ * hence values become visible to readers fully constructed.
+ * </p>
+ */
+public final class CopyOnWriteHashMap<K, V> {
+    private final Object writeLock = new Object();
+    private volatile Map<K, V> snapshot = Collections.emptyMap();
+
+    public CopyOnWriteHashMap() { }
+
+    /** Returns the value mapped to the given key or {@code null}, lock-free. */
+    public V get(final K key) {
+        return snapshot.get(key);
+    }
+
+    /** Returns the current number of mappings, lock-free. */
+    public int size() {
+        return snapshot.size();
+    }
+
+    /** Returns the current immutable snapshot, lock-free. */
+    public Map<K, V> getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Maps the given value to the key, replacing a previous mapping.
+     * @return the previous value or {@code null}
+     */
+    public V put(final K key, final V value) {
+        synchronized( writeLock ) {
+            final Map<K, V> s = snapshot;
+            final HashMap<K, V> n = new HashMap<K, V>(s);
+            final V pre = n.put(key, value);
+            snapshot = Collections.unmodifiableMap(n);
+            return pre;
+        }
+    }
+
+    /**
+     * Maps the given value to the key, if not yet mapped.
+     * <p>
+     * Allows racing creators to agree on one shared instance.
+     * </p>
+     * @return the previous value, which stays mapped, or {@code null} if {@code value} has been mapped
+     */
+    public V putIfAbsent(final K key, final V value) {
+        synchronized( writeLock ) {
+            final Map<K, V> s = snapshot;
+            final V pre = s.get(key);
+            if( null != pre ) {
+                return pre;
+            }
+            final HashMap<K, V> n = new HashMap<K, V>(s);
+            n.put(key, value);
+            snapshot = Collections.unmodifiableMap(n);
+            return null;
+        }
+    }
+
+    /**
+     * Removes the mapping of the given key.
+     * @return the removed value or {@code null}
+     */
+    public V remove(final K key) {
+        synchronized( writeLock ) {
+            final Map<K, V> s = snapshot;
+            if( !s.containsKey(key) ) {
+                return null;
+            }
+            final HashMap<K, V> n = new HashMap<K, V>(s);
+            final V pre = n.remove(key);
+            snapshot = Collections.unmodifiableMap(n);
+            return pre;
+        }
+    }
+
+    /** Removes all mappings. */
+    public void clear() {
+        synchronized( writeLock ) {
+            snapshot = Collections.emptyMap();
+        }
+    }
+}
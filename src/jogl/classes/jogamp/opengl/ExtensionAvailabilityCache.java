@@ -40,12 +40,17 @@
 
 package jogamp.opengl;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.StringTokenizer;
 
 import com.jogamp.opengl.GL;
 import com.jogamp.opengl.GL2ES3;
 import com.jogamp.opengl.GLContext;
+import com.jogamp.opengl.GLExtensions;
 import com.jogamp.common.ExceptionUtils;
 import com.jogamp.common.util.VersionNumber;
 
@@ -53,10 +58,64 @@ import com.jogamp.common.util.VersionNumber;
  * A utility object intended to be used by implementations to act as a cache
  * of which OpenGL extensions are currently available on both the host machine
  * and display.
+ * <p>
+ * Extension names are mapped to process wide integer IDs, see {@link #getExtensionID(String)},
+ * and each cache holds a bitset of its available IDs.
+ * Once {@link #reset(GLContextImpl) initialized} and published, an instance is immutable
+ * and shared by all contexts of the same type w/o locking.
+ * </p>
  */
 final class ExtensionAvailabilityCache {
   protected static final boolean DEBUG = GLContextImpl.DEBUG;
 
+  /** Serializes {@link #extensionIDs} updates. */
+  private static final Object extensionIDLock = new Object();
+  /** Immutable snapshot of extension name to ID, replaced on registration of new names. */
+  private static volatile Map<String, Integer> extensionIDs = Collections.emptyMap();
+
+  /**
+   * Returns the process wide ID of the given extension name,
+   * or {@code -1} if no context has seen it yet. Lock-free.
+   */
+  static int getExtensionID(final String glExtensionName) {
+      final Integer id = extensionIDs.get(glExtensionName);
+      return null != id ? id.intValue() : -1;
+  }
+
+  /** Registers all given names w/ a single copy of the ID map, returns their IDs in iteration order. */
+  private static int[] registerExtensionIDs(final Collection<String> names) {
+      final int[] ids = new int[names.size()];
+      synchronized( extensionIDLock ) {
+          final Map<String, Integer> s = extensionIDs;
+          HashMap<String, Integer> n = null;
+          int i = 0;
+          for(final String name : names) {
+              Integer id = null != n ? n.get(name) : s.get(name);
+              if( null == id ) {
+                  if( null == n ) {
+                      n = new HashMap<String, Integer>(s);
+                  }
+                  id = Integer.valueOf(n.size());
+                  n.put(name, id);
+              }
+              ids[i++] = id.intValue();
+          }
+          if( null != n ) {
+              extensionIDs = Collections.unmodifiableMap(n);
+          }
+      }
+      return ids;
+  }
+  private static int registerExtensionID(final String name) {
+      return registerExtensionIDs(Collections.singleton(name))[0];
+  }
+
+  /** Pre-registered IDs of internally queried extensions. */
+  static final int ID_ARB_ES2_compatibility = registerExtensionID(GLExtensions.ARB_ES2_compatibility);
+  static final int ID_ARB_framebuffer_object = registerExtensionID(GLExtensions.ARB_framebuffer_object);
+  static final int ID_EXT_framebuffer_object = registerExtensionID(GLExtensions.EXT_framebuffer_object);
+  static final int ID_OES_framebuffer_object = registerExtensionID(GLExtensions.OES_framebuffer_object);
+
   ExtensionAvailabilityCache() {
       flush();
   }
@@ -71,7 +130,8 @@ final class ExtensionAvailabilityCache {
     glExtensionCount = 0;
     glXExtensions = null;
     glXExtensionCount = 0;
-    availableExtensionCache.clear();
+    availableExtensionIDs = EMPTY_IDS;
+    availableExtensionCount = 0;
   }
 
   /**
@@ -88,12 +148,26 @@ final class ExtensionAvailabilityCache {
 
   final int getTotalExtensionCount() {
     validateInitialization();
-    return availableExtensionCache.size();
+    return availableExtensionCount;
   }
 
   final boolean isExtensionAvailable(final String glExtensionName) {
     validateInitialization();
-    return null != availableExtensionCache.get(glExtensionName);
+    return isExtensionAvailableImpl(getExtensionID(glExtensionName));
+  }
+
+  /**
+   * Returns true if the extension w/ the given ID is available.
+   * @param glExtensionID ID as returned by {@link #getExtensionID(String)}, {@code -1} is never available.
+   */
+  final boolean isExtensionAvailable(final int glExtensionID) {
+    validateInitialization();
+    return isExtensionAvailableImpl(glExtensionID);
+  }
+  private final boolean isExtensionAvailableImpl(final int id) {
+    final long[] bits = availableExtensionIDs;
+    final int w = id >>> 6;
+    return 0 <= id && w < bits.length && 0 != ( bits[w] & ( 1L << id ) );
   }
 
   final int getPlatformExtensionCount() {
@@ -131,6 +205,7 @@ final class ExtensionAvailabilityCache {
       if (isInitialized()) {
           throw new InternalError("ExtensionAvailabilityCache already initialized!");
       }
+      final LinkedHashSet<String> availableExtensionCache = new LinkedHashSet<String>(512);
       if (DEBUG) {
           System.err.println(getThreadName() + ":ExtensionAvailabilityCache: Pre-caching init "+gl+", OpenGL "+context.getGLVersion());
       }
@@ -165,7 +240,7 @@ final class ExtensionAvailabilityCache {
           try {
               for (int i = 0; i < count; i++) {
                   final String ext = context.glGetStringiInt(GL.GL_EXTENSIONS, i);
-                  if( null == availableExtensionCache.put(ext, ext) ) {
+                  if( availableExtensionCache.add(ext) ) {
                       // new one
                       if( 0 < i ) {
                           sb.append(" ");
@@ -191,7 +266,7 @@ final class ExtensionAvailabilityCache {
               int count = 0;
               while (tok.hasMoreTokens()) {
                   final String ext = tok.nextToken().trim();
-                  if( null == availableExtensionCache.put(ext, ext) ) {
+                  if( availableExtensionCache.add(ext) ) {
                       count++;
                   }
               }
@@ -211,7 +286,7 @@ final class ExtensionAvailabilityCache {
           int count = 0;
           while (tok.hasMoreTokens()) {
               final String ext = tok.nextToken().trim();
-              if( null == availableExtensionCache.put(ext, ext) ) {
+              if( availableExtensionCache.add(ext) ) {
                   // new one
                   if( 0 < count ) {
                       sb.append(" ");
@@ -236,7 +311,7 @@ final class ExtensionAvailabilityCache {
       final int minor[] = new int[] { version.getMinor() };
       do{
           final String GL_XX_VERSION = ( context.isGLES() ? "GL_ES_VERSION_" : "GL_VERSION_" ) + major[0] + "_" + minor[0];
-          availableExtensionCache.put(GL_XX_VERSION, GL_XX_VERSION);
+          availableExtensionCache.add(GL_XX_VERSION);
           if (DEBUG) {
               System.err.println(getThreadName() + ":ExtensionAvailabilityCache: Added "+GL_XX_VERSION+" to known extensions");
           }
@@ -244,7 +319,19 @@ final class ExtensionAvailabilityCache {
 
       // put a dummy var in here so that the cache is no longer empty even if
       // no extensions are in the GL_EXTENSIONS string
-      availableExtensionCache.put("<INTERNAL_DUMMY_PLACEHOLDER>", "<INTERNAL_DUMMY_PLACEHOLDER>");
+      availableExtensionCache.add("<INTERNAL_DUMMY_PLACEHOLDER>");
+
+      final int[] ids = registerExtensionIDs(availableExtensionCache);
+      int maxID = -1;
+      for(int i=0; i<ids.length; i++) {
+          maxID = Math.max(maxID, ids[i]);
+      }
+      final long[] bits = new long[ ( maxID >>> 6 ) + 1 ];
+      for(int i=0; i<ids.length; i++) {
+          bits[ids[i] >>> 6] |= 1L << ids[i];
+      }
+      availableExtensionIDs = bits;
+      availableExtensionCount = ids.length;
 
       initialized = true;
   }
@@ -258,7 +345,10 @@ final class ExtensionAvailabilityCache {
   private int glExtensionCount = 0;
   private String glXExtensions = null;
   private int glXExtensionCount = 0;
-  private final HashMap<String, String> availableExtensionCache = new HashMap<String, String>(100);
+  private static final long[] EMPTY_IDS = new long[0];
+  /** Bitset of available extension IDs. */
+  private long[] availableExtensionIDs = EMPTY_IDS;
+  private int availableExtensionCount = 0;
 
   static String getThreadName() { return Thread.currentThread().getName(); }
 
@@ -56,6 +56,7 @@ import com.jogamp.common.util.locks.RecursiveLock;
 import com.jogamp.opengl.GLAutoDrawableDelegate;
 import com.jogamp.opengl.GLEventListenerState;
 import com.jogamp.opengl.GLStateKeeper;
+import com.jogamp.opengl.util.GLFrameTiming;
 
 
 /**
@@ -663,6 +664,16 @@ public abstract class GLAutoDrawableBase implements GLAutoDrawable, GLStateKeepe
         return helper.getAutoSwapBufferMode();
     }
 
+    @Override
+    public final GLFrameTiming setFrameTiming(final GLFrameTiming frameTiming) {
+        return helper.setFrameTiming(frameTiming);
+    }
+
+    @Override
+    public final GLFrameTiming getFrameTiming() {
+        return helper.getFrameTiming();
+    }
+
     @Override
     public final void setContextCreationFlags(final int flags) {
         additionalCtxCreationFlags = flags;
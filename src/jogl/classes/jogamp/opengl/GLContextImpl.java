@@ -166,19 +166,27 @@ public abstract class GLContextImpl extends GLContext {
 
   protected GL gl;
 
-  protected static final Object mappedContextTypeObjectLock;
-  protected static final HashMap<String, ExtensionAvailabilityCache> mappedExtensionAvailabilityCache;
-  protected static final HashMap<String, ProcAddressTable> mappedGLProcAddress;
-  protected static final HashMap<String, ProcAddressTable> mappedGLXProcAddress;
+  /**
+   * Context type mappings shared by all contexts, keyed by {@link #getContextFQN(AbstractGraphicsDevice, int, int, int)}
+   * or platform device key for {@link #mappedGLXProcAddress}.
+   * <p>
+   * Mapped instances are immutable once published, readers look them up lock-free.
+   * </p>
+   */
+  protected static final CopyOnWriteHashMap<String, ExtensionAvailabilityCache> mappedExtensionAvailabilityCache;
+  protected static final CopyOnWriteHashMap<String, ProcAddressTable> mappedGLProcAddress;
+  protected static final CopyOnWriteHashMap<String, ProcAddressTable> mappedGLXProcAddress;
 
   static {
-      mappedContextTypeObjectLock = new Object();
-      mappedExtensionAvailabilityCache = new HashMap<String, ExtensionAvailabilityCache>();
-      mappedGLProcAddress = new HashMap<String, ProcAddressTable>();
-      mappedGLXProcAddress = new HashMap<String, ProcAddressTable>();
+      mappedExtensionAvailabilityCache = new CopyOnWriteHashMap<String, ExtensionAvailabilityCache>();
+      mappedGLProcAddress = new CopyOnWriteHashMap<String, ProcAddressTable>();
+      mappedGLXProcAddress = new CopyOnWriteHashMap<String, ProcAddressTable>();
   }
 
   public static void shutdownImpl() {
+      synchronized (GLContext.deviceVersionAvailable) {
+          glVersionCachePending.clear();
+      }
       mappedExtensionAvailabilityCache.clear();
       mappedGLProcAddress.clear();
       mappedGLXProcAddress.clear();
@@ -990,7 +998,7 @@ public abstract class GLContextImpl extends GLContext {
                GLContext.getAvailableGLVersionsSet(device));
     }
     if ( !GLContext.getAvailableGLVersionsSet(device) ) {
-        if( !mapGLVersions(device) ) {
+        if( !mapGLVersionsFromCache(device) && !mapGLVersions(device) ) {
             // none of the ARB context creation calls was successful, bail out
             return 0;
         }
@@ -1018,10 +1026,209 @@ public abstract class GLContextImpl extends GLContext {
                 throw new InternalError("setGLFunctionAvailability !strictMatch failed");
             }
         }
+        if( !validateGLVersionCache(device, 0 != _ctx) ) {
+            // cached mapping is stale, re-probe and retry once w/ the fresh mapping
+            if( 0 != _ctx ) {
+                destroyContextARBImpl(_ctx);
+                resetStates(false);
+            }
+            if( !mapGLVersions(device) ) {
+                return 0;
+            }
+            return createContextARB(share, direct);
+        }
     }
     return _ctx;
   }
 
+  /**
+   * Device unique ID -> {@link Boolean#TRUE} if the mapping was loaded from {@link GLVersionMappingCache}
+   * and awaits validation, {@link Boolean#FALSE} if probed and awaits storing, both w/ the first real context.
+   * Guarded by {@link GLContext#deviceVersionAvailable}.
+   */
+  private static final Map<String, Boolean> glVersionCachePending = new HashMap<String, Boolean>();
+
+  /**
+   * {@link #getDeviceVersionAvailableKey(AbstractGraphicsDevice, int, int) Mapping key} -> {@link GLRendererQuirks} bitmask
+   * of the mapped version, recorded for the {@link GLVersionMappingCache} only.
+   * Guarded by {@link GLContext#deviceVersionAvailable}.
+   */
+  private static final Map<String, Integer> glVersionCacheQuirks = new HashMap<String, Integer>();
+
+  /**
+   * Maps the available GL versions from {@link GLVersionMappingCache}, if enabled and cached.
+   * <p>
+   * Like {@link #mapGLVersions(AbstractGraphicsDevice)}, the device's sticky quirks are set
+   * and each mapped version incl. its {@link GLRendererQuirks} is passed to the {@link MappedGLVersionListener}.
+   * </p>
+   * @return true if mapped from cache, otherwise false and caller shall probe via {@link #mapGLVersions(AbstractGraphicsDevice)}.
+   */
+  private final boolean mapGLVersionsFromCache(final AbstractGraphicsDevice device) {
+    final GLVersionMappingCache cache = GLVersionMappingCache.getSingleton();
+    if( null == cache ) {
+        return false;
+    }
+    final long t0 = ( DEBUG ) ? Clock.currentNanos() : 0;
+    final String cacheKey = GLVersionMappingCache.getDeviceKey(device);
+    // cache file I/O outside of the global lock
+    GLVersionMappingCache.Entry e = cache.get(cacheKey);
+    if( null != e && !isValidGLVersionMapping(e.mapping) ) {
+        if(DEBUG) {
+            System.err.println(getThreadName() + ": createContextARB-MapGLVersions CACHE invalid "+cacheKey+": "+e);
+        }
+        cache.remove(cacheKey);
+        e = null;
+    }
+    synchronized (GLContext.deviceVersionAvailable) {
+        if( null == e ) {
+            glVersionCachePending.put(device.getUniqueID(), Boolean.FALSE);
+            if(DEBUG) {
+                System.err.println(getThreadName() + ": createContextARB-MapGLVersions CACHE miss "+cacheKey+" in "+cache.getFile());
+            }
+            return false;
+        }
+        // sticky quirks first, as set while probing and impacting the mapping, e.g. NoFBOSupport
+        for(int i=0; i<GLRendererQuirks.getCount(); i++) {
+            if( 0 != ( e.stickyQuirks & ( 1 << i ) ) ) {
+                GLRendererQuirks.addStickyDeviceQuirk(device, i);
+            }
+        }
+        final int[] ctp = { 0 };
+        for(int i=0; i<e.mapping.length; i+=3) {
+            final VersionNumber version = decomposeBits(e.mapping[i+2], ctp);
+            mapAvailableGLVersion(device, e.mapping[i], e.mapping[i+1], version, ctp[0], GLVersionMappingCache.getQuirks(e.quirks[i/3]));
+        }
+        glVersionCachePending.put(device.getUniqueID(), Boolean.TRUE);
+        GLContext.setAvailableGLVersionsSet(device, true);
+    }
+    if(DEBUG) {
+        final long t1 = Clock.currentNanos();
+        System.err.println(getThreadName() + ": createContextARB-MapGLVersions CACHE hit "+cacheKey+": "+e+", total "+(t1-t0)/1e6 +"ms");
+    }
+    return true;
+  }
+
+  /** Returns true if all profile bits of the given {@link GLVersionMappingCache.Entry#mapping} are valid. */
+  private static boolean isValidGLVersionMapping(final int[] mapping) {
+    final int[] ctp = { 0 };
+    try {
+        for(int i=0; i<mapping.length; i+=3) {
+            validateProfileBits(mapping[i+1], "profile");
+            decomposeBits(mapping[i+2], ctp);
+            validateProfileBits(ctp[0], "resCtp");
+        }
+    } catch (final GLException gle) {
+        return false;
+    }
+    return true;
+  }
+
+  /**
+   * Validates a cached mapping against this first real context or stores a probed mapping,
+   * see {@link #mapGLVersionsFromCache(AbstractGraphicsDevice)}.
+   * <p>
+   * Returns false if the cached mapping has been dropped, i.e. context creation failed or
+   * the driver identity does not match. The device's mapping is cleared in this case and
+   * the caller shall probe again.
+   * </p>
+   */
+  private final boolean validateGLVersionCache(final AbstractGraphicsDevice device, final boolean created) {
+    final GLVersionMappingCache cache = GLVersionMappingCache.getSingleton();
+    if( null == cache ) {
+        return true;
+    }
+    final String cacheKey = GLVersionMappingCache.getDeviceKey(device);
+    final String vendorVersion = ctxVendorVersion.toString();
+    final GLVersionMappingCache.Entry probed;
+    synchronized (GLContext.deviceVersionAvailable) {
+        final Boolean pending = glVersionCachePending.get(device.getUniqueID());
+        if( null == pending ) {
+            return true;
+        }
+        if( !pending.booleanValue() ) {
+            if( !created ) {
+                return true;
+            }
+            glVersionCachePending.remove(device.getUniqueID());
+            probed = newGLVersionCacheEntry(device, glVendor, glRenderer, vendorVersion);
+        } else {
+            probed = null;
+        }
+    }
+    // cache file I/O outside of the global lock
+    if( null != probed ) {
+        cache.put(cacheKey, probed);
+        if(DEBUG) {
+            System.err.println(getThreadName() + ": createContextARB-MapGLVersions CACHE store "+cacheKey+": "+probed+" in "+cache.getFile());
+        }
+        return true;
+    }
+    final GLVersionMappingCache.Entry e = cache.get(cacheKey);
+    if( created && null != e && e.matches(glVendor, glRenderer, vendorVersion) ) {
+        synchronized (GLContext.deviceVersionAvailable) {
+            glVersionCachePending.remove(device.getUniqueID());
+        }
+        return true;
+    }
+    if(DEBUG) {
+        System.err.println(getThreadName() + ": createContextARB-MapGLVersions CACHE stale "+cacheKey+": "+e+
+                           ", created "+created+", have [vendor "+glVendor+", renderer "+glRenderer+", vendorVersion "+vendorVersion+"]");
+    }
+    synchronized (GLContext.deviceVersionAvailable) {
+        glVersionCachePending.put(device.getUniqueID(), Boolean.FALSE);
+        clearAvailableGLVersions(device);
+        GLContext.setAvailableGLVersionsSet(device, false);
+    }
+    cache.remove(cacheKey);
+    return false;
+  }
+
+  private static final int[] MAPPED_GL_PROFILES = { CTX_PROFILE_COMPAT, CTX_PROFILE_CORE, CTX_PROFILE_ES };
+
+  /**
+   * Returns a new {@link GLVersionMappingCache.Entry} of the device's GL version mapping,
+   * the recorded {@link GLRendererQuirks} of each mapped version and the device's sticky quirks.
+   * <p>
+   * Caller holds the {@link GLContext#deviceVersionAvailable} lock.
+   * </p>
+   */
+  private static GLVersionMappingCache.Entry newGLVersionCacheEntry(final AbstractGraphicsDevice device,
+                                                                   final String vendor, final String renderer, final String vendorVersion) {
+    final int[] tmp = new int[4*MAPPED_GL_PROFILES.length*3];
+    final int[] tmpQuirks = new int[4*MAPPED_GL_PROFILES.length];
+    int n = 0;
+    for(int reqMajor=1; reqMajor<=4; reqMajor++) {
+        for(final int reqProfile : MAPPED_GL_PROFILES) {
+            final Integer valI = GLContext.getAvailableGLVersion(device, reqMajor, reqProfile);
+            if( null != valI ) {
+                final Integer quirksI = glVersionCacheQuirks.get(getDeviceVersionAvailableKey(device, reqMajor, reqProfile));
+                tmpQuirks[n/3] = null != quirksI ? quirksI.intValue() : 0;
+                tmp[n++] = reqMajor;
+                tmp[n++] = reqProfile;
+                tmp[n++] = valI.intValue();
+            }
+        }
+    }
+    final int[] mapping = new int[n];
+    System.arraycopy(tmp, 0, mapping, 0, n);
+    final int[] quirks = new int[n/3];
+    System.arraycopy(tmpQuirks, 0, quirks, 0, n/3);
+    final int stickyQuirks = GLVersionMappingCache.getQuirksBitmask(GLRendererQuirks.getStickyDeviceQuirks(device));
+    return new GLVersionMappingCache.Entry(mapping, quirks, stickyQuirks, vendor, renderer, vendorVersion);
+  }
+
+  private static void clearAvailableGLVersions(final AbstractGraphicsDevice device) {
+    synchronized (GLContext.deviceVersionAvailable) {
+        for(int reqMajor=1; reqMajor<=4; reqMajor++) {
+            for(final int reqProfile : MAPPED_GL_PROFILES) {
+                final String key = getDeviceVersionAvailableKey(device, reqMajor, reqProfile);
+                GLContext.deviceVersionAvailable.remove(key);
+                glVersionCacheQuirks.remove(key);
+            }
+        }
+    }
+  }
+
   //----------------------------------------------------------------------
   //
 
@@ -1098,6 +1305,12 @@ public abstract class GLContextImpl extends GLContext {
       final int[] preCtp = { 0 };
       final VersionNumber preVersion = null != preVal ? decomposeBits(preVal.intValue(), preCtp) : null;
       final MappedGLVersion res = new MappedGLVersion(device, reqMajor, profile, resVersion, resCtp, resQuirks, preVersion, preCtp[0]);
+      if( null != GLVersionMappingCache.getSingleton() ) {
+          final Integer quirksI = Integer.valueOf(GLVersionMappingCache.getQuirksBitmask(resQuirks));
+          synchronized(deviceVersionAvailable) {
+              glVersionCacheQuirks.put(getDeviceVersionAvailableKey(device, reqMajor, profile), quirksI);
+          }
+      }
       if( null != mapGLVersionListener ) {
           mapGLVersionListener.glVersionMapped(res);
       }
@@ -2094,21 +2307,18 @@ public abstract class GLContextImpl extends GLContext {
     {
         final GLProfile glp = drawable.getGLProfile(); // !withinGLVersionsMapping
 
-        ProcAddressTable table = null;
-        synchronized(mappedContextTypeObjectLock) {
-            table = mappedGLProcAddress.get( contextFQN );
-            if(null != table) {
-                if( !verifyInstance(adevice, hasMajor, hasMinor, hasCtxProfileBits, "ProcAddressTable", table) ) {
-                    throw new GLException("GLContext GL ProcAddressTable mapped key("+contextFQN+" - " +
-                                          GLContext.getGLVersion(hasMajor, hasMinor, hasCtxProfileBits, null)+
-                                          ") -> "+ toHexString(table.hashCode()) +" not matching "+table.getClass().getName());
-                }
-                if( !withinGLVersionsMapping && !verifyInstance(glp, "ProcAddressTable", table) ) {
-                    throw new GLException("GLContext GL ProcAddressTable mapped key("+contextFQN+" - " +
-                                          GLContext.getGLVersion(hasMajor, hasMinor, hasCtxProfileBits, null)+
-                                          ") -> "+ toHexString(table.hashCode()) +": "+table.getClass().getName()+
-                                          " not matching "+glp.getGLImplBaseClassName()+"/"+glp);
-                }
+        final ProcAddressTable table = mappedGLProcAddress.get( contextFQN ); // lock-free
+        if(null != table) {
+            if( !verifyInstance(adevice, hasMajor, hasMinor, hasCtxProfileBits, "ProcAddressTable", table) ) {
+                throw new GLException("GLContext GL ProcAddressTable mapped key("+contextFQN+" - " +
+                                      GLContext.getGLVersion(hasMajor, hasMinor, hasCtxProfileBits, null)+
+                                      ") -> "+ toHexString(table.hashCode()) +" not matching "+table.getClass().getName());
+            }
+            if( !withinGLVersionsMapping && !verifyInstance(glp, "ProcAddressTable", table) ) {
+                throw new GLException("GLContext GL ProcAddressTable mapped key("+contextFQN+" - " +
+                                      GLContext.getGLVersion(hasMajor, hasMinor, hasCtxProfileBits, null)+
+                                      ") -> "+ toHexString(table.hashCode()) +": "+table.getClass().getName()+
+                                      " not matching "+glp.getGLImplBaseClassName()+"/"+glp);
             }
         }
         if(null != table) {
@@ -2125,23 +2335,23 @@ public abstract class GLContextImpl extends GLContext {
                 }
             }
         } else {
-            glProcAddressTable = (ProcAddressTable) createInstance(adevice, hasMajor, hasMinor, hasCtxProfileBits, false,
+            final ProcAddressTable newTable = (ProcAddressTable) createInstance(adevice, hasMajor, hasMinor, hasCtxProfileBits, false,
                                                                    new Object[] { new GLProcAddressResolver() } );
-            resetProcAddressTable(glProcAddressTable, dynamicLookup);
+            resetProcAddressTable(newTable, dynamicLookup);
 
-            synchronized(mappedContextTypeObjectLock) {
-                mappedGLProcAddress.put(contextFQN, glProcAddressTable);
-                if(DEBUG) {
-                    if( withinGLVersionsMapping ) {
-                        System.err.println(getThreadName() + ": GLContext GL ProcAddressTable mapping key("+contextFQN+" - " +
-                                           GLContext.getGLVersion(hasMajor, hasMinor, hasCtxProfileBits, null)+
-                                           ") -> "+toHexString(glProcAddressTable.hashCode()) +": "+glProcAddressTable.getClass().getName());
-                    } else {
-                        System.err.println(getThreadName() + ": GLContext GL ProcAddressTable mapping key("+contextFQN+" - " +
-                                           GLContext.getGLVersion(hasMajor, hasMinor, hasCtxProfileBits, null)+
-                                           ") -> "+toHexString(glProcAddressTable.hashCode()) +": "+glProcAddressTable.getClass().getName()+
-                                           " -> "+glp.getGLImplBaseClassName());
-                    }
+            // publish fully initialized table, a concurrently mapped one wins
+            final ProcAddressTable preTable = mappedGLProcAddress.putIfAbsent(contextFQN, newTable);
+            glProcAddressTable = null != preTable ? preTable : newTable;
+            if(DEBUG) {
+                if( withinGLVersionsMapping ) {
+                    System.err.println(getThreadName() + ": GLContext GL ProcAddressTable mapping key("+contextFQN+" - " +
+                                       GLContext.getGLVersion(hasMajor, hasMinor, hasCtxProfileBits, null)+
+                                       ") -> "+toHexString(glProcAddressTable.hashCode()) +": "+glProcAddressTable.getClass().getName());
+                } else {
+                    System.err.println(getThreadName() + ": GLContext GL ProcAddressTable mapping key("+contextFQN+" - " +
+                                       GLContext.getGLVersion(hasMajor, hasMinor, hasCtxProfileBits, null)+
+                                       ") -> "+toHexString(glProcAddressTable.hashCode()) +": "+glProcAddressTable.getClass().getName()+
+                                       " -> "+glp.getGLImplBaseClassName());
                 }
             }
         }
@@ -2159,10 +2369,7 @@ public abstract class GLContextImpl extends GLContext {
     // Update ExtensionAvailabilityCache
     //
     {
-        ExtensionAvailabilityCache eCache;
-        synchronized(mappedContextTypeObjectLock) {
-            eCache = mappedExtensionAvailabilityCache.get( contextFQN );
-        }
+        final ExtensionAvailabilityCache eCache = mappedExtensionAvailabilityCache.get( contextFQN ); // lock-free
         if(null !=  eCache) {
             extensionAvailability = eCache;
             if(DEBUG) {
@@ -2170,15 +2377,15 @@ public abstract class GLContextImpl extends GLContext {
                                    toHexString(eCache.hashCode()) + " - entries: "+eCache.getTotalExtensionCount());
             }
         } else {
-            extensionAvailability = new ExtensionAvailabilityCache();
+            final ExtensionAvailabilityCache newCache = new ExtensionAvailabilityCache();
             setContextVersion(hasMajor, hasMinor, hasCtxProfileBits, vendorVersion, false); // pre-set of GL version, required for extension cache usage
-            extensionAvailability.reset(this);
-            synchronized(mappedContextTypeObjectLock) {
-                mappedExtensionAvailabilityCache.put(contextFQN, extensionAvailability);
-                if(DEBUG) {
-                    System.err.println(getThreadName() + ": GLContext GL ExtensionAvailabilityCache mapping key("+contextFQN+") -> "+
-                                       toHexString(extensionAvailability.hashCode()) + " - entries: "+extensionAvailability.getTotalExtensionCount());
-                }
+            newCache.reset(this);
+            // publish fully initialized cache, a concurrently mapped one wins
+            final ExtensionAvailabilityCache preCache = mappedExtensionAvailabilityCache.putIfAbsent(contextFQN, newCache);
+            extensionAvailability = null != preCache ? preCache : newCache;
+            if(DEBUG) {
+                System.err.println(getThreadName() + ": GLContext GL ExtensionAvailabilityCache mapping key("+contextFQN+") -> "+
+                                   toHexString(extensionAvailability.hashCode()) + " - entries: "+extensionAvailability.getTotalExtensionCount());
             }
         }
     }
@@ -2607,13 +2814,13 @@ public abstract class GLContextImpl extends GLContext {
 
            ( null != extCache &&
              (
-               extCache.isExtensionAvailable(GLExtensions.ARB_ES2_compatibility)  ||  // ES 2.0 compatible
+               extCache.isExtensionAvailable(ExtensionAvailabilityCache.ID_ARB_ES2_compatibility)  ||  // ES 2.0 compatible
 
-               extCache.isExtensionAvailable(GLExtensions.ARB_framebuffer_object) ||  // ARB_framebuffer_object
+               extCache.isExtensionAvailable(ExtensionAvailabilityCache.ID_ARB_framebuffer_object) ||  // ARB_framebuffer_object
 
-               extCache.isExtensionAvailable(GLExtensions.EXT_framebuffer_object) ||  // EXT_framebuffer_object
+               extCache.isExtensionAvailable(ExtensionAvailabilityCache.ID_EXT_framebuffer_object) ||  // EXT_framebuffer_object
 
-               extCache.isExtensionAvailable(GLExtensions.OES_framebuffer_object)     // OES_framebuffer_object
+               extCache.isExtensionAvailable(ExtensionAvailabilityCache.ID_OES_framebuffer_object)     // OES_framebuffer_object
              ) );
   }
 
@@ -2629,7 +2836,7 @@ public abstract class GLContextImpl extends GLContext {
       System.err.println(getThreadName() + ": RM Context FQN: "+contextFQN+" - "+GLContext.getGLVersion(major, minor, ctxProfileBits, null));
     }
 
-    synchronized(mappedContextTypeObjectLock) {
+    {
         final ProcAddressTable table = mappedGLProcAddress.remove( contextFQN );
         if(DEBUG) {
             final int hc = null != table ? table.hashCode() : 0;
@@ -2637,7 +2844,7 @@ public abstract class GLContextImpl extends GLContext {
         }
     }
 
-    synchronized(mappedContextTypeObjectLock) {
+    {
         final ExtensionAvailabilityCache  eCache = mappedExtensionAvailabilityCache.remove( contextFQN );
         if(DEBUG) {
             final int hc = null != eCache ? eCache.hashCode() : 0;
@@ -59,8 +59,10 @@ import com.jogamp.opengl.GLEventListener;
 import com.jogamp.opengl.GLException;
 import com.jogamp.opengl.GLFBODrawable;
 import com.jogamp.opengl.GLRunnable;
+import com.jogamp.opengl.util.GLFrameTiming;
 
 import com.jogamp.common.ExceptionUtils;
+import com.jogamp.common.os.Clock;
 import com.jogamp.common.util.InterruptedRuntimeException;
 import com.jogamp.common.util.PropertyAccess;
 
@@ -89,6 +91,8 @@ public class GLDrawableHelper {
   /** -1 release, 0 nop, 1 claim */
   private volatile int exclusiveContextSwitch;
   private GLAnimatorControl animatorCtrl;
+  /** Optional frame timing, kept across {@link #reset()}. */
+  private volatile GLFrameTiming frameTiming;
   private static Runnable nop = new Runnable() { @Override public void run() {} };
 
   private GLContext sharedContext;
@@ -671,13 +675,29 @@ public class GLDrawableHelper {
   }
 
   public final void display(final GLAutoDrawable drawable) {
+    final GLFrameTiming ft = frameTiming;
+    if( null != ft ) {
+        displayTimed(drawable, ft);
+        return;
+    }
     displayImpl(drawable);
     // runForAllGLEventListener(drawable, displayAction);
-    if( glRunnableCount > 0 && !execGLRunnables(drawable) ) { // glRunnableCount volatile OK; execGL.. only executed if size > 0
+    if( glRunnableCount > 0 && !execGLRunnables(drawable, null) ) { // glRunnableCount volatile OK; execGL.. only executed if size > 0
         displayImpl(drawable);
         // runForAllGLEventListener(drawable, displayAction);
     }
   }
+  private final void displayTimed(final GLAutoDrawable drawable, final GLFrameTiming ft) {
+    displayImplTimed(drawable, ft);
+    if( glRunnableCount > 0 ) {
+        final long t0 = Clock.currentNanos();
+        final boolean res = execGLRunnables(drawable, ft);
+        ft.getRunnableHistogram().record(Clock.currentNanos() - t0);
+        if( !res ) {
+            displayImplTimed(drawable, ft);
+        }
+    }
+  }
   private final void displayImpl(final GLAutoDrawable drawable) {
       synchronized(listenersLock) {
           final ArrayList<GLEventListener> _listeners = listeners;
@@ -693,6 +713,23 @@ public class GLDrawableHelper {
           }
       }
   }
+  private final void displayImplTimed(final GLAutoDrawable drawable, final GLFrameTiming ft) {
+      final long t0 = Clock.currentNanos();
+      synchronized(listenersLock) {
+          final ArrayList<GLEventListener> _listeners = listeners;
+          final int listenerCount = _listeners.size();
+          for (int i=0; i < listenerCount; i++) {
+            final GLEventListener listener = _listeners.get(i) ;
+            if( listenersToBeInit.remove(listener) ) {
+                init( listener, drawable, true /* sendReshape */ );
+            }
+            final long tl = Clock.currentNanos();
+            listener.display(drawable);
+            ft.getListenerHistogram(listener).record(Clock.currentNanos() - tl);
+          }
+      }
+      ft.getDisplayHistogram().record(Clock.currentNanos() - t0);
+  }
 
   public static interface GLEventListenerAction {
       public void run(final GLAutoDrawable drawable, final GLEventListener listener);
@@ -753,7 +790,7 @@ public class GLDrawableHelper {
     }
   }
 
-  private final boolean execGLRunnables(final GLAutoDrawable drawable) { // glRunnables.size()>0
+  private final boolean execGLRunnables(final GLAutoDrawable drawable, final GLFrameTiming ft) { // glRunnables.size()>0
     // swap one-shot list asap
     final ArrayList<GLRunnableTask> _glRunnables;
     synchronized(glRunnablesLock) {
@@ -766,6 +803,15 @@ public class GLDrawableHelper {
         }
     }
     boolean res = true;
+    if( null != ft ) {
+        final long now = Clock.currentNanos();
+        for (int i=0; i < _glRunnables.size(); i++) {
+            final long t = _glRunnables.get(i).enqueueNanos;
+            if( 0 != t ) {
+                ft.getRunnableWaitHistogram().record(now - t);
+            }
+        }
+    }
     for (int i=0; i < _glRunnables.size(); i++) {
         res = _glRunnables.get(i).run(drawable) && res;
     }
@@ -905,6 +951,9 @@ public class GLDrawableHelper {
             rTask = new GLRunnableTask(glRunnable,
                                        wait ? rTaskLock : null,
                                        wait  /* catch Exceptions if waiting for result */);
+            if( null != frameTiming ) {
+                rTask.enqueueNanos = Clock.currentNanos();
+            }
             glRunnableCount++;
             glRunnables.add(rTask);
         }
@@ -968,13 +1017,17 @@ public class GLDrawableHelper {
                 }
                 wait = false; // don't wait if exec immediately
             }
+            final long enqueueNanos = null != frameTiming ? Clock.currentNanos() : 0;
             for(int i=0; i<count-1; i++) {
+                final GLRunnableTask t = new GLRunnableTask(newGLRunnables.get(i), null, false);
+                t.enqueueNanos = enqueueNanos;
                 glRunnableCount++;
-                glRunnables.add( new GLRunnableTask(newGLRunnables.get(i), null, false) );
+                glRunnables.add( t );
             }
             rTask = new GLRunnableTask(newGLRunnables.get(count-1),
                                        wait ? rTaskLock : null,
                                        wait  /* catch Exceptions if waiting for result */);
+            rTask.enqueueNanos = enqueueNanos;
             glRunnableCount++;
             glRunnables.add(rTask);
         }
@@ -1002,8 +1055,12 @@ public class GLDrawableHelper {
         return;
     }
     synchronized(glRunnablesLock) {
+        final GLRunnableTask rTask = new GLRunnableTask(glRunnable, null, false);
+        if( null != frameTiming ) {
+            rTask.enqueueNanos = Clock.currentNanos();
+        }
         glRunnableCount++;
-        glRunnables.add( new GLRunnableTask(glRunnable, null, false) );
+        glRunnables.add( rTask );
     }
   }
 
@@ -1015,6 +1072,22 @@ public class GLDrawableHelper {
     return autoSwapBufferMode;
   }
 
+  /**
+   * Attaches the given {@link GLFrameTiming} or detaches the current one if {@code null}.
+   * @return the previously attached {@link GLFrameTiming} or {@code null}
+   * @see GLAutoDrawable#setFrameTiming(GLFrameTiming)
+   */
+  public final GLFrameTiming setFrameTiming(final GLFrameTiming ft) {
+    final GLFrameTiming pre = frameTiming;
+    frameTiming = ft;
+    return pre;
+  }
+
+  /** Returns the attached {@link GLFrameTiming} or {@code null}. */
+  public final GLFrameTiming getFrameTiming() {
+    return frameTiming;
+  }
+
   private final String getExclusiveContextSwitchString() {
       return 0 == exclusiveContextSwitch ? "nop" : ( 0 > exclusiveContextSwitch ? "released" : "claimed" ) ;
   }
@@ -1259,6 +1332,8 @@ public class GLDrawableHelper {
 
       // Support for recursive makeCurrent() calls as well as calling
       // other drawables' display() methods from within another one's
+      final GLFrameTiming ft = frameTiming;
+      final long tf0 = null != ft ? Clock.currentNanos() : 0;
       int res = GLContext.CONTEXT_NOT_CURRENT;
       GLContext lastContext = GLContext.getCurrent();
       Runnable  lastInitAction = null;
@@ -1276,7 +1351,13 @@ public class GLDrawableHelper {
       try {
           final boolean releaseContext;
           if( GLContext.CONTEXT_NOT_CURRENT == res ) {
-              res = context.makeCurrent();
+              if( null != ft ) {
+                  final long t0 = Clock.currentNanos();
+                  res = context.makeCurrent();
+                  ft.getMakeCurrentHistogram().record(Clock.currentNanos() - t0);
+              } else {
+                  res = context.makeCurrent();
+              }
               releaseContext = !_isExclusiveThread;
           } else {
               releaseContext = _releaseExclusiveThread;
@@ -1292,7 +1373,13 @@ public class GLDrawableHelper {
                   }
                   runnable.run();
                   if ( autoSwapBufferMode ) {
-                      drawable.swapBuffers();
+                      if( null != ft ) {
+                          final long t0 = Clock.currentNanos();
+                          drawable.swapBuffers();
+                          ft.getSwapHistogram().record(Clock.currentNanos() - t0);
+                      } else {
+                          drawable.swapBuffers();
+                      }
                   }
               } catch (final Throwable t) {
                   glEventListenerCaught = t;
@@ -1319,6 +1406,9 @@ public class GLDrawableHelper {
                   lastInitAction.run();
               }
           }
+          if( null != ft ) {
+              ft.getFrameHistogram().record(Clock.currentNanos() - tf0);
+          }
           if( null != glEventListenerCaught ) {
               flushGLRunnables();
               if( null != contextReleaseCaught ) {
@@ -1363,6 +1453,8 @@ public class GLDrawableHelper {
 
       // Support for recursive makeCurrent() calls as well as calling
       // other drawables' display() methods from within another one's
+      final GLFrameTiming ft = frameTiming;
+      final long tf0 = null != ft ? Clock.currentNanos() : 0;
       int res = GLContext.CONTEXT_NOT_CURRENT;
       GLContext lastContext = GLContext.getCurrent();
       Runnable  lastInitAction = null;
@@ -1388,7 +1480,13 @@ public class GLDrawableHelper {
       try {
           final boolean releaseContext;
           if( GLContext.CONTEXT_NOT_CURRENT == res ) {
-              res = context.makeCurrent();
+              if( null != ft ) {
+                  final long tc0 = Clock.currentNanos();
+                  res = context.makeCurrent();
+                  ft.getMakeCurrentHistogram().record(Clock.currentNanos() - tc0);
+              } else {
+                  res = context.makeCurrent();
+              }
               releaseContext = !_isExclusiveThread;
               ctxClaimed = true;
           } else {
@@ -1409,7 +1507,13 @@ public class GLDrawableHelper {
                   tdS = System.currentTimeMillis();
                   tdR = tdS - tdR; // render time
                   if ( autoSwapBufferMode ) {
-                      drawable.swapBuffers();
+                      if( null != ft ) {
+                          final long ts0 = Clock.currentNanos();
+                          drawable.swapBuffers();
+                          ft.getSwapHistogram().record(Clock.currentNanos() - ts0);
+                      } else {
+                          drawable.swapBuffers();
+                      }
                       tdX = System.currentTimeMillis();
                       tdS = tdX - tdS; // swapBuffers
                   }
@@ -1441,6 +1545,9 @@ public class GLDrawableHelper {
                   lastInitAction.run();
               }
           }
+          if( null != ft ) {
+              ft.getFrameHistogram().record(Clock.currentNanos() - tf0);
+          }
           if( null != glEventListenerCaught ) {
               flushGLRunnables();
               if( null != contextReleaseCaught ) {
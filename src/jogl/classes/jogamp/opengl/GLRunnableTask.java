@@ -42,6 +42,8 @@ public class GLRunnableTask implements GLRunnable {
     boolean catchExceptions;
     volatile boolean isExecuted;
     volatile boolean isFlushed;
+    /** Enqueue time in nanoseconds if {@link com.jogamp.opengl.util.GLFrameTiming} is attached, otherwise zero. */
+    long enqueueNanos;
 
     Throwable runnableException;
 
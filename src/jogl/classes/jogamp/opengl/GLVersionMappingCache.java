@@ -0,0 +1,431 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.opengl;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.PrivilegedAction;
+import java.util.Properties;
+
+import com.jogamp.common.util.SecurityUtil;
+import com.jogamp.nativewindow.AbstractGraphicsDevice;
+import com.jogamp.opengl.GLContext;
+import com.jogamp.opengl.GLProfile;
+import com.jogamp.opengl.GLRendererQuirks;
+import com.jogamp.opengl.JoglVersion;
+
+/**
+ * Persistent cache of the per device GL version mapping,
+ * as probed by {@link GLContextImpl}'s {@code createContextARB(..)} via multiple temporary contexts.
+ * <p>
+ * Probing all ES, core and compatibility profiles is the dominant cost of {@link GLProfile#initSingleton()}
+ * on many drivers. With the cache enabled, a warm start restores the mapping from a local properties file
+ * and only creates the requested context. The first real context created from a cached mapping
+ * validates the driver identity, i.e. {@code GL_VENDOR}, {@code GL_RENDERER} and the vendor version.
+ * On mismatch or context creation failure the entry is dropped and the mapping probed again.
+ * </p>
+ * <p>
+ * Entries are keyed by device type, connection and unit as well as the
+ * {@link GLProfile} disable/enable flags and the {@link GLRendererQuirks.Override quirk overrides}. The whole file is discarded if written by a different JOGL build.
+ * </p>
+ * <p>
+ * Besides the version mapping, the {@link GLRendererQuirks} of each mapped version and the
+ * device's {@link GLRendererQuirks#getStickyDeviceQuirks(AbstractGraphicsDevice) sticky quirks}
+ * are cached, as both are determined while probing. Function addresses and extension availability
+ * are process specific and are always queried from the live context.
+ * </p>
+ * <p>
+ * The cache is disabled by default. Property {@code jogl.glversion.cache} enables it,
+ * using either the given file path or <code>${user.home}/.jogamp/jogl/glversion-cache.properties</code>
+ * if set to {@code true}.
+ * </p>
+ */
+public final class GLVersionMappingCache {
+    private static final String CACHE_PROPERTY = "jogl.glversion.cache";
+    private static final String BUILD_KEY = "jogl.build";
+    private static final String MAP_SUFFIX = ".map";
+    private static final String VENDOR_SUFFIX = ".vendor";
+    private static final String RENDERER_SUFFIX = ".renderer";
+    private static final String VENDOR_VERSION_SUFFIX = ".vendorVersion";
+    private static final String QUIRKS_SUFFIX = ".quirks";
+    private static final String STICKY_QUIRKS_SUFFIX = ".stickyQuirks";
+
+    /** A cached device entry, see {@link GLVersionMappingCache#get(String)}. */
+    public static final class Entry {
+        /** Mapping triplets {@code reqMajor, reqProfile, composed-version-bits}. */
+        public final int[] mapping;
+        /** {@link GLRendererQuirks} bitmask per {@link #mapping} triplet, see {@link GLVersionMappingCache#getQuirksBitmask(GLRendererQuirks)}. */
+        public final int[] quirks;
+        /** {@link GLRendererQuirks#getStickyDeviceQuirks(AbstractGraphicsDevice) Sticky device quirks} bitmask. */
+        public final int stickyQuirks;
+        public final String glVendor;
+        public final String glRenderer;
+        public final String glVendorVersion;
+
+        /** Entry w/o any {@link GLRendererQuirks}. */
+        public Entry(final int[] mapping, final String glVendor, final String glRenderer, final String glVendorVersion) {
+            this(mapping, new int[mapping.length/3], 0, glVendor, glRenderer, glVendorVersion);
+        }
+
+        public Entry(final int[] mapping, final int[] quirks, final int stickyQuirks,
+                     final String glVendor, final String glRenderer, final String glVendorVersion) {
+            if( 0 != mapping.length % 3 ) {
+                throw new IllegalArgumentException("mapping length not multiple of 3: "+mapping.length);
+            }
+            if( mapping.length / 3 != quirks.length ) {
+                throw new IllegalArgumentException("quirks length "+quirks.length+" != mappings "+mapping.length/3);
+            }
+            this.mapping = mapping;
+            this.quirks = quirks;
+            this.stickyQuirks = stickyQuirks;
+            this.glVendor = glVendor;
+            this.glRenderer = glRenderer;
+            this.glVendorVersion = glVendorVersion;
+        }
+
+        /** Returns true if the given driver identity matches this entry. */
+        public boolean matches(final String vendor, final String renderer, final String vendorVersion) {
+            return glVendor.equals(vendor) && glRenderer.equals(renderer) && glVendorVersion.equals(vendorVersion);
+        }
+
+        @Override
+        public String toString() {
+            return "Entry[vendor "+glVendor+", renderer "+glRenderer+", vendorVersion "+glVendorVersion+", mappings "+mapping.length/3+
+                   ", stickyQuirks 0x"+Integer.toHexString(stickyQuirks)+"]";
+        }
+    }
+
+    private static volatile boolean singletonInit = false;
+    private static GLVersionMappingCache singleton = null;
+
+    /**
+     * Returns the cache instance if enabled via property {@code jogl.glversion.cache}, otherwise {@code null}.
+     */
+    public static GLVersionMappingCache getSingleton() {
+        if( !singletonInit ) { // volatile dbl-checked-locking OK
+            synchronized( GLVersionMappingCache.class ) {
+                if( !singletonInit ) {
+                    singleton = createSingleton();
+                    singletonInit = true;
+                }
+            }
+        }
+        return singleton;
+    }
+    private static GLVersionMappingCache createSingleton() {
+        final String value = Debug.getProperty(CACHE_PROPERTY, true);
+        if( null == value || 0 == value.length() || "false".equalsIgnoreCase(value) ) {
+            return null;
+        }
+        final File file;
+        if( "true".equalsIgnoreCase(value) ) {
+            final String home = SecurityUtil.doPrivileged(new PrivilegedAction<String>() {
+                @Override
+                public String run() {
+                    return System.getProperty("user.home");
+                } } );
+            if( null == home ) {
+                return null;
+            }
+            file = new File(home, ".jogamp"+File.separator+"jogl"+File.separator+"glversion-cache.properties");
+        } else {
+            file = new File(value);
+        }
+        final JoglVersion v = JoglVersion.getInstance();
+        return new GLVersionMappingCache(file, v.getImplementationVersion()+"-"+v.getImplementationCommit());
+    }
+
+    /**
+     * Returns the cache key for the given device,
+     * including all {@link GLProfile} flags and {@link GLRendererQuirks.Override quirk overrides} impacting the probed mapping.
+     */
+    public static String getDeviceKey(final AbstractGraphicsDevice device) {
+        return getDeviceKey(device.getType(), device.getConnection(), device.getUnitID());
+    }
+    public static String getDeviceKey(final String type, final String connection, final int unitID) {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(type).append('_').append(connection).append('_').append(unitID).append('_');
+        sb.append(GLProfile.disableOpenGLCore ? 'c' : 'C');
+        sb.append(GLProfile.disableOpenGLARBContext ? 'a' : 'A');
+        sb.append(GLProfile.disableOpenGLES ? 'e' : 'E');
+        sb.append(GLProfile.disableOpenGLDesktop ? 'd' : 'D');
+        sb.append(GLProfile.disableSurfacelessContext ? 's' : 'S');
+        sb.append(GLProfile.enableANGLE ? 'G' : 'g');
+        for(int i=0; i<GLRendererQuirks.getCount(); i++) {
+            switch( GLRendererQuirks.getOverride(i) ) {
+                case FORCE:  sb.append('_').append('f').append(i); break;
+                case IGNORE: sb.append('_').append('i').append(i); break;
+                default: break;
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns the bitmask of the given quirks or zero if {@code null}.
+     * <p>
+     * {@link GLRendererQuirks.Override#FORCE Forced} quirks are excluded,
+     * as they are part of the {@link #getDeviceKey(AbstractGraphicsDevice) key} and always applied.
+     * </p>
+     */
+    public static int getQuirksBitmask(final GLRendererQuirks quirks) {
+        int mask = 0;
+        if( null != quirks ) {
+            for(int i=0; i<GLRendererQuirks.getCount(); i++) {
+                if( GLRendererQuirks.Override.FORCE != GLRendererQuirks.getOverride(i) && quirks.exist(i) ) {
+                    mask |= 1 << i;
+                }
+            }
+        }
+        return mask;
+    }
+
+    /** Returns a new {@link GLRendererQuirks} instance of the given bitmask, see {@link #getQuirksBitmask(GLRendererQuirks)}. */
+    public static GLRendererQuirks getQuirks(final int mask) {
+        final GLRendererQuirks quirks = new GLRendererQuirks();
+        for(int i=0; i<GLRendererQuirks.getCount(); i++) {
+            if( 0 != ( mask & ( 1 << i ) ) ) {
+                quirks.addQuirk(i);
+            }
+        }
+        return quirks;
+    }
+
+    private final File file;
+    private final String buildID;
+    private final Properties props = new Properties();
+    private boolean loaded = false;
+
+    public GLVersionMappingCache(final File file, final String buildID) {
+        this.file = file;
+        this.buildID = buildID;
+    }
+
+    /** Returns the backing cache file. */
+    public File getFile() { return file; }
+
+    /**
+     * Returns the cached entry for the given device key or {@code null} if not cached or invalid.
+     * @see #getDeviceKey(AbstractGraphicsDevice)
+     */
+    public synchronized Entry get(final String deviceKey) {
+        load();
+        final String map = props.getProperty(deviceKey+MAP_SUFFIX);
+        final String vendor = props.getProperty(deviceKey+VENDOR_SUFFIX);
+        final String renderer = props.getProperty(deviceKey+RENDERER_SUFFIX);
+        final String vendorVersion = props.getProperty(deviceKey+VENDOR_VERSION_SUFFIX);
+        final String quirksS = props.getProperty(deviceKey+QUIRKS_SUFFIX);
+        final String stickyS = props.getProperty(deviceKey+STICKY_QUIRKS_SUFFIX);
+        if( null == map || null == vendor || null == renderer || null == vendorVersion || null == quirksS || null == stickyS ) {
+            return null;
+        }
+        final int[] mapping = parseMapping(map);
+        final int[] quirks = parseQuirks(quirksS);
+        final int[] sticky = parseQuirks(stickyS);
+        if( null == mapping || null == quirks || mapping.length / 3 != quirks.length || null == sticky || 1 != sticky.length ) {
+            if( GLContext.DEBUG ) {
+                System.err.println("GLVersionMappingCache: Dropping invalid mapping for "+deviceKey+": "+map+", quirks "+quirksS+", sticky "+stickyS);
+            }
+            removeImpl(deviceKey);
+            return null;
+        }
+        return new Entry(mapping, quirks, sticky[0], vendor, renderer, vendorVersion);
+    }
+
+    /** Stores the given entry for the device key and writes the cache file. */
+    public synchronized void put(final String deviceKey, final Entry e) {
+        load();
+        props.setProperty(deviceKey+MAP_SUFFIX, toString(e.mapping));
+        props.setProperty(deviceKey+VENDOR_SUFFIX, e.glVendor);
+        props.setProperty(deviceKey+RENDERER_SUFFIX, e.glRenderer);
+        props.setProperty(deviceKey+VENDOR_VERSION_SUFFIX, e.glVendorVersion);
+        props.setProperty(deviceKey+QUIRKS_SUFFIX, toHexString(e.quirks));
+        props.setProperty(deviceKey+STICKY_QUIRKS_SUFFIX, Integer.toHexString(e.stickyQuirks));
+        store();
+    }
+
+    /** Removes the entry for the device key and writes the cache file, if existing. */
+    public synchronized void remove(final String deviceKey) {
+        load();
+        if( removeImpl(deviceKey) ) {
+            store();
+        }
+    }
+    private boolean removeImpl(final String deviceKey) {
+        boolean res = null != props.remove(deviceKey+MAP_SUFFIX);
+        res |= null != props.remove(deviceKey+VENDOR_SUFFIX);
+        res |= null != props.remove(deviceKey+RENDERER_SUFFIX);
+        res |= null != props.remove(deviceKey+VENDOR_VERSION_SUFFIX);
+        res |= null != props.remove(deviceKey+QUIRKS_SUFFIX);
+        res |= null != props.remove(deviceKey+STICKY_QUIRKS_SUFFIX);
+        return res;
+    }
+
+    private void load() {
+        if( loaded ) {
+            return;
+        }
+        loaded = true;
+        SecurityUtil.doPrivileged(new PrivilegedAction<Object>() {
+            @Override
+            public Object run() {
+                if( file.isFile() ) {
+                    InputStream in = null;
+                    try {
+                        in = new FileInputStream(file);
+                        props.load(in);
+                    } catch (final IOException | IllegalArgumentException e) {
+                        props.clear();
+                        if( GLContext.DEBUG ) {
+                            System.err.println("GLVersionMappingCache: Failed to read "+file+": "+e.getMessage());
+                        }
+                    } finally {
+                        close(in);
+                    }
+                }
+                return null;
+            } } );
+        if( !buildID.equals(props.getProperty(BUILD_KEY)) ) {
+            if( GLContext.DEBUG && !props.isEmpty() ) {
+                System.err.println("GLVersionMappingCache: Discarding "+file+" of build "+props.getProperty(BUILD_KEY)+", current "+buildID);
+            }
+            props.clear();
+            props.setProperty(BUILD_KEY, buildID);
+        }
+    }
+
+    private void store() {
+        SecurityUtil.doPrivileged(new PrivilegedAction<Object>() {
+            @Override
+            public Object run() {
+                final File dir = file.getAbsoluteFile().getParentFile();
+                final File tmp = new File(dir, file.getName()+".tmp");
+                OutputStream out = null;
+                try {
+                    if( !dir.isDirectory() && !dir.mkdirs() ) {
+                        throw new IOException("Could not create directory "+dir);
+                    }
+                    out = new FileOutputStream(tmp);
+                    props.store(out, "JOGL GL version mapping cache");
+                    out.close();
+                    out = null;
+                    // replace in one step, so concurrent readers never see a partial file
+                    if( !tmp.renameTo(file) ) {
+                        file.delete();
+                        if( !tmp.renameTo(file) ) {
+                            throw new IOException("Could not rename "+tmp+" to "+file);
+                        }
+                    }
+                } catch (final IOException e) {
+                    tmp.delete();
+                    if( GLContext.DEBUG ) {
+                        System.err.println("GLVersionMappingCache: Failed to write "+file+": "+e.getMessage());
+                    }
+                } finally {
+                    close(out);
+                }
+                return null;
+            } } );
+    }
+
+    private static void close(final java.io.Closeable c) {
+        if( null != c ) {
+            try {
+                c.close();
+            } catch (final IOException e) { }
+        }
+    }
+
+    static String toString(final int[] mapping) {
+        final StringBuilder sb = new StringBuilder();
+        for(int i=0; i<mapping.length; i+=3) {
+            if( 0 < i ) {
+                sb.append(',');
+            }
+            sb.append(mapping[i]).append(':')
+              .append(Integer.toHexString(mapping[i+1])).append(':')
+              .append(Integer.toHexString(mapping[i+2]));
+        }
+        return sb.toString();
+    }
+
+    static String toHexString(final int[] values) {
+        final StringBuilder sb = new StringBuilder();
+        for(int i=0; i<values.length; i++) {
+            if( 0 < i ) {
+                sb.append(',');
+            }
+            sb.append(Integer.toHexString(values[i]));
+        }
+        return sb.toString();
+    }
+
+    /** Returns the parsed quirk bitmasks, an empty array for an empty string, or {@code null} if malformed. */
+    static int[] parseQuirks(final String s) {
+        if( 0 == s.length() ) {
+            return new int[0];
+        }
+        final String[] items = s.split(",");
+        final int[] quirks = new int[items.length];
+        try {
+            for(int i=0; i<items.length; i++) {
+                quirks[i] = (int) Long.parseLong(items[i], 16);
+            }
+        } catch (final NumberFormatException e) {
+            return null;
+        }
+        return quirks;
+    }
+
+    /** Returns the parsed mapping triplets or {@code null} if malformed. */
+    static int[] parseMapping(final String s) {
+        if( 0 == s.length() ) {
+            return null;
+        }
+        final String[] items = s.split(",");
+        final int[] mapping = new int[items.length*3];
+        try {
+            for(int i=0; i<items.length; i++) {
+                final String[] parts = items[i].split(":");
+                if( 3 != parts.length ) {
+                    return null;
+                }
+                mapping[i*3+0] = Integer.parseInt(parts[0]);
+                mapping[i*3+1] = Integer.parseInt(parts[1], 16);
+                mapping[i*3+2] = (int) Long.parseLong(parts[2], 16);
+            }
+        } catch (final NumberFormatException e) {
+            return null;
+        }
+        return mapping;
+    }
+}
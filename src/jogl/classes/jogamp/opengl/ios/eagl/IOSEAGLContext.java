@@ -280,23 +280,20 @@ public class IOSEAGLContext extends GLContextImpl
     if (DEBUG) {
       System.err.println(getThreadName() + ": Initializing EAGL extension address table: "+key);
     }
-    ProcAddressTable table = null;
-    synchronized(mappedContextTypeObjectLock) {
-        table = mappedGLXProcAddress.get( key );
-    }
+    final ProcAddressTable table = mappedGLXProcAddress.get( key ); // lock-free
     if(null != table) {
         cglExtProcAddressTable = (DummyGLExtProcAddressTable) table;
         if(DEBUG) {
             System.err.println(getThreadName() + ": GLContext CGL ProcAddressTable reusing key("+key+") -> "+toHexString(table.hashCode()));
         }
     } else {
-        cglExtProcAddressTable = new DummyGLExtProcAddressTable(new GLProcAddressResolver());
-        resetProcAddressTable(getCGLExtProcAddressTable(), dlh);
-        synchronized(mappedContextTypeObjectLock) {
-            mappedGLXProcAddress.put(key, getCGLExtProcAddressTable());
-            if(DEBUG) {
-                System.err.println(getThreadName() + ": GLContext CGL ProcAddressTable mapping key("+key+") -> "+toHexString(getCGLExtProcAddressTable().hashCode()));
-            }
+        final DummyGLExtProcAddressTable newTable = new DummyGLExtProcAddressTable(new GLProcAddressResolver());
+        resetProcAddressTable(newTable, dlh);
+        // publish fully initialized table, a concurrently mapped one wins
+        final ProcAddressTable preTable = mappedGLXProcAddress.putIfAbsent(key, newTable);
+        cglExtProcAddressTable = null != preTable ? (DummyGLExtProcAddressTable) preTable : newTable;
+        if(DEBUG) {
+            System.err.println(getThreadName() + ": GLContext CGL ProcAddressTable mapping key("+key+") -> "+toHexString(getCGLExtProcAddressTable().hashCode()));
         }
     }
   }
@@ -487,23 +487,20 @@ public class WindowsWGLContext extends GLContextImpl {
     wglGLReadDrawableAvailableSet=false;
     wglGLReadDrawableAvailable=false;
 
-    ProcAddressTable table = null;
-    synchronized(mappedContextTypeObjectLock) {
-        table = mappedGLXProcAddress.get( key );
-    }
+    final ProcAddressTable table = mappedGLXProcAddress.get( key ); // lock-free
     if(null != table) {
         wglExtProcAddressTable = (WGLExtProcAddressTable) table;
         if(DEBUG) {
             System.err.println(getThreadName() + ": GLContext WGL ProcAddressTable reusing key("+key+") -> "+toHexString(table.hashCode()));
         }
     } else {
-        wglExtProcAddressTable = new WGLExtProcAddressTable(new GLProcAddressResolver());
-        resetProcAddressTable(wglExtProcAddressTable, dlh);
-        synchronized(mappedContextTypeObjectLock) {
-            mappedGLXProcAddress.put(key, getWGLExtProcAddressTable());
-            if(DEBUG) {
-                System.err.println(getThreadName() + ": GLContext WGL ProcAddressTable mapping key("+key+") -> "+toHexString(getWGLExtProcAddressTable().hashCode()));
-            }
+        final WGLExtProcAddressTable newTable = new WGLExtProcAddressTable(new GLProcAddressResolver());
+        resetProcAddressTable(newTable, dlh);
+        // publish fully initialized table, a concurrently mapped one wins
+        final ProcAddressTable preTable = mappedGLXProcAddress.putIfAbsent(key, newTable);
+        wglExtProcAddressTable = null != preTable ? (WGLExtProcAddressTable) preTable : newTable;
+        if(DEBUG) {
+            System.err.println(getThreadName() + ": GLContext WGL ProcAddressTable mapping key("+key+") -> "+toHexString(getWGLExtProcAddressTable().hashCode()));
         }
     }
   }
@@ -522,23 +522,20 @@ public class X11GLXContext extends GLContextImpl {
     if (DEBUG) {
       System.err.println(getThreadName() + ": Initializing GLX extension address table: "+key);
     }
-    ProcAddressTable table = null;
-    synchronized(mappedContextTypeObjectLock) {
-        table = mappedGLXProcAddress.get( key );
-    }
+    final ProcAddressTable table = mappedGLXProcAddress.get( key ); // lock-free
     if(null != table) {
         glXExtProcAddressTable = (GLXExtProcAddressTable) table;
         if(DEBUG) {
             System.err.println(getThreadName() + ": GLContext GLX ProcAddressTable reusing key("+key+") -> "+toHexString(table.hashCode()));
         }
     } else {
-        glXExtProcAddressTable = new GLXExtProcAddressTable(new GLProcAddressResolver());
-        resetProcAddressTable(getGLXExtProcAddressTable(), dlh);
-        synchronized(mappedContextTypeObjectLock) {
-            mappedGLXProcAddress.put(key, getGLXExtProcAddressTable());
-            if(DEBUG) {
-                System.err.println(getThreadName() + ": GLContext GLX ProcAddressTable mapping key("+key+") -> "+toHexString(getGLXExtProcAddressTable().hashCode()));
-            }
+        final GLXExtProcAddressTable newTable = new GLXExtProcAddressTable(new GLProcAddressResolver());
+        resetProcAddressTable(newTable, dlh);
+        // publish fully initialized table, a concurrently mapped one wins
+        final ProcAddressTable preTable = mappedGLXProcAddress.putIfAbsent(key, newTable);
+        glXExtProcAddressTable = null != preTable ? (GLXExtProcAddressTable) preTable : newTable;
+        if(DEBUG) {
+            System.err.println(getThreadName() + ": GLContext GLX ProcAddressTable mapping key("+key+") -> "+toHexString(getGLXExtProcAddressTable().hashCode()));
         }
     }
   }
@@ -29,7 +29,11 @@ package com.jogamp.nativewindow.util;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import com.jogamp.common.nio.Buffers;
 import com.jogamp.common.util.Bitstream;
@@ -414,8 +418,28 @@ public class PixelFormatUtil {
      */
     public static void convert(final int width, final int height,
                                final ByteBuffer src_bb, final PixelFormat src_fmt, final boolean src_glOriented, int src_lineStride,
-                               final ByteBuffer dst_bb, final PixelFormat dst_fmt, final boolean dst_glOriented, int dst_lineStride
+                               final ByteBuffer dst_bb, final PixelFormat dst_fmt, final boolean dst_glOriented, final int dst_lineStride
                               ) throws IllegalStateException, IllegalArgumentException {
+        convert(width, height, src_bb, src_fmt, src_glOriented, src_lineStride,
+                dst_bb, dst_fmt, dst_glOriented, dst_lineStride, false /* parallel */);
+    }
+
+    /**
+     * Same as {@link #convert(int, int, ByteBuffer, PixelFormat, boolean, int, ByteBuffer, PixelFormat, boolean, int)},
+     * however, optionally converting row bands concurrently.
+     * <p>
+     * If {@code parallel} is {@code true}, the conversion is {@link #isBulkSupported(PixelFormat, PixelFormat) bulk supported}
+     * and {@code width * height} &ge; {@link #BULK_PARALLEL_THRESHOLD},
+     * row bands are converted concurrently using the {@link ForkJoinPool#commonPool() common pool}.
+     * </p>
+     * @param parallel if {@code true}, allow converting row bands concurrently
+     * @throws IllegalStateException
+     * @throws IllegalArgumentException if {@code src_lineStride} or {@code dst_lineStride} is invalid
+     */
+    public static void convert(final int width, final int height,
+                               final ByteBuffer src_bb, final PixelFormat src_fmt, final boolean src_glOriented, int src_lineStride,
+                               final ByteBuffer dst_bb, final PixelFormat dst_fmt, final boolean dst_glOriented, int dst_lineStride,
+                               final boolean parallel) throws IllegalStateException, IllegalArgumentException {
         final PixelFormat.Composition src_comp = src_fmt.comp;
         final PixelFormat.Composition dst_comp = dst_fmt.comp;
         final int src_bpp = src_comp.bytesPerPixel();
@@ -448,6 +472,12 @@ public class PixelFormatUtil {
             System.err.println("XXX: DST fmt "+dst_fmt+", "+dst_comp+", stride "+dst_lineStride+", isGLOrient "+dst_glOriented);
         }
 
+        if( !fast_copy && isBulkSupported(src_fmt, dst_fmt) ) {
+            convertBulk(width, height, src_bb, src_fmt, src_glOriented, src_lineStride,
+                        dst_bb, dst_fmt, dst_glOriented, dst_lineStride, parallel && width * height >= BULK_PARALLEL_THRESHOLD);
+            return;
+        }
+
         if( fast_copy ) {
             // Fast copy
             for(int y=0; y<height; y++) {
@@ -508,6 +538,201 @@ public class PixelFormatUtil {
         }
     }
 
+    /**
+     * Minimum pixel count of a {@code parallel} {@link #convert(int, int, ByteBuffer, PixelFormat, boolean, int, ByteBuffer, PixelFormat, boolean, int, boolean) conversion}
+     * to use row-band parallelism of {@link #convertBulk(int, int, ByteBuffer, PixelFormat, boolean, int, ByteBuffer, PixelFormat, boolean, int, boolean) convertBulk(..)}.
+     */
+    public static final int BULK_PARALLEL_THRESHOLD = 1024 * 1024;
+
+    /** Minimum number of rows per parallel row band. */
+    private static final int BULK_MIN_BAND_ROWS = 64;
+
+    private static final int BULK_NONE      = 0;
+    /** RGBA8888 <-> BGRA8888, swap 1st and 3rd byte */
+    private static final int BULK_SWAP_RB4  = 1;
+    /** RGB888 -> RGBA8888 or BGR888 -> BGRA8888, opaque alpha */
+    private static final int BULK_EXPAND3   = 2;
+    /** RGB888 -> BGRA8888 or BGR888 -> RGBA8888, opaque alpha */
+    private static final int BULK_EXPAND3_SWAP_RB = 3;
+    /** LUMINANCE -> RGBA8888 or BGRA8888, opaque alpha */
+    private static final int BULK_LUMINANCE = 4;
+
+    private static int getBulkConversion(final PixelFormat src_fmt, final PixelFormat dst_fmt) {
+        switch( src_fmt ) {
+            case RGBA8888:
+                return PixelFormat.BGRA8888 == dst_fmt ? BULK_SWAP_RB4 : BULK_NONE;
+            case BGRA8888:
+                return PixelFormat.RGBA8888 == dst_fmt ? BULK_SWAP_RB4 : BULK_NONE;
+            case RGB888:
+                return PixelFormat.RGBA8888 == dst_fmt ? BULK_EXPAND3 :
+                       ( PixelFormat.BGRA8888 == dst_fmt ? BULK_EXPAND3_SWAP_RB : BULK_NONE );
+            case BGR888:
+                return PixelFormat.BGRA8888 == dst_fmt ? BULK_EXPAND3 :
+                       ( PixelFormat.RGBA8888 == dst_fmt ? BULK_EXPAND3_SWAP_RB : BULK_NONE );
+            case LUMINANCE:
+                return PixelFormat.RGBA8888 == dst_fmt || PixelFormat.BGRA8888 == dst_fmt ? BULK_LUMINANCE : BULK_NONE;
+            default:
+                return BULK_NONE;
+        }
+    }
+
+    /**
+     * Returns {@code true} if the given conversion is supported by
+     * {@link #convertBulk(int, int, ByteBuffer, PixelFormat, boolean, int, ByteBuffer, PixelFormat, boolean, int, boolean) convertBulk(..)},
+     * i.e. {@link PixelFormat#RGBA8888} &harr; {@link PixelFormat#BGRA8888},
+     * {@link PixelFormat#RGB888} or {@link PixelFormat#BGR888} &rarr; {@link PixelFormat#RGBA8888} or {@link PixelFormat#BGRA8888}
+     * and {@link PixelFormat#LUMINANCE} &rarr; {@link PixelFormat#RGBA8888} or {@link PixelFormat#BGRA8888}.
+     */
+    public static boolean isBulkSupported(final PixelFormat src_fmt, final PixelFormat dst_fmt) {
+        return BULK_NONE != getBulkConversion(src_fmt, dst_fmt);
+    }
+
+    /**
+     * Specialized bulk conversion for the common 8-bit per component pixel formats,
+     * see {@link #isBulkSupported(PixelFormat, PixelFormat)}.
+     * <p>
+     * Rows are converted at once via array bulk transfers instead of per pixel
+     * {@link Bitstream} component mapping. If {@code parallel} is {@code true} and the image has
+     * sufficient rows, row bands are converted concurrently using the {@link ForkJoinPool#commonPool() common pool}.
+     * </p>
+     * <p>
+     * Parameter semantics are equal to {@link #convert(int, int, ByteBuffer, PixelFormat, boolean, int, ByteBuffer, PixelFormat, boolean, int)},
+     * i.e. buffer offsets are absolute and buffer positions are not modified.
+     * </p>
+     * @param parallel if {@code true}, convert row bands concurrently
+     * @return {@code false} if the conversion is not supported, otherwise {@code true}
+     * @throws IllegalArgumentException if {@code src_lineStride} or {@code dst_lineStride} is invalid
+     */
+    public static boolean convertBulk(final int width, final int height,
+                                      final ByteBuffer src_bb, final PixelFormat src_fmt, final boolean src_glOriented, int src_lineStride,
+                                      final ByteBuffer dst_bb, final PixelFormat dst_fmt, final boolean dst_glOriented, int dst_lineStride,
+                                      final boolean parallel) throws IllegalArgumentException {
+        final int op = getBulkConversion(src_fmt, dst_fmt);
+        if( BULK_NONE == op ) {
+            return false;
+        }
+        final int src_bpp = src_fmt.comp.bytesPerPixel();
+        final int dst_bpp = dst_fmt.comp.bytesPerPixel();
+        if( 0 != src_lineStride ) {
+            if( src_lineStride < src_bpp * width ) {
+                throw new IllegalArgumentException(String.format("Invalid %s stride %d, must be greater than bytesPerPixel %d * width %d",
+                        "source", src_lineStride, src_bpp, width));
+            }
+        } else {
+            src_lineStride = src_bpp * width;
+        }
+        if( 0 != dst_lineStride ) {
+            if( dst_lineStride < dst_bpp * width ) {
+                throw new IllegalArgumentException(String.format("Invalid %s stride %d, must be greater than bytesPerPixel %d * width %d",
+                        "destination", dst_lineStride, dst_bpp, width));
+            }
+        } else {
+            dst_lineStride = dst_bpp * width;
+        }
+        final boolean vert_flip = src_glOriented != dst_glOriented;
+        final int bands = parallel ? Math.min(ForkJoinPool.getCommonPoolParallelism(), height / BULK_MIN_BAND_ROWS) : 1;
+        if( 1 >= bands ) {
+            convertBulkRows(op, width, height, 0, height, src_bb, src_lineStride, dst_bb, dst_lineStride, vert_flip);
+            return true;
+        }
+        final int sStride = src_lineStride, dStride = dst_lineStride;
+        final int bandRows = ( height + bands - 1 ) / bands;
+        final Future<?>[] tasks = new Future<?>[bands-1];
+        for(int i=1; i<bands; i++) {
+            final int y0 = i * bandRows;
+            final int y1 = Math.min(height, y0 + bandRows);
+            tasks[i-1] = ForkJoinPool.commonPool().submit(new Runnable() {
+                @Override
+                public void run() {
+                    convertBulkRows(op, width, height, y0, y1, src_bb, sStride, dst_bb, dStride, vert_flip);
+                } });
+        }
+        convertBulkRows(op, width, height, 0, Math.min(height, bandRows), src_bb, sStride, dst_bb, dStride, vert_flip);
+        for(int i=0; i<tasks.length; i++) {
+            try {
+                tasks[i].get();
+            } catch (final Exception e) {
+                throw new RuntimeException("Row band conversion failed", e);
+            }
+        }
+        return true;
+    }
+
+    /** Converts destination rows [{@code y0}..{@code y1}[ using buffer duplicates, safe for concurrent row bands. */
+    private static void convertBulkRows(final int op, final int width, final int height, final int y0, final int y1,
+                                        final ByteBuffer src_bb, final int src_lineStride,
+                                        final ByteBuffer dst_bb, final int dst_lineStride, final boolean vert_flip) {
+        final ByteBuffer src = src_bb.duplicate();
+        final ByteBuffer dst = dst_bb.duplicate();
+        src.clear();
+        dst.clear();
+        if( BULK_SWAP_RB4 == op && 0 == src_lineStride % 4 && 0 == dst_lineStride % 4 ) {
+            // Packed little-endian views: 0xAABBGGRR <-> 0xAARRGGBB, endian independent as swapped in memory order
+            final IntBuffer srcI = src.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            final IntBuffer dstI = dst.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            final int[] row = new int[width];
+            for(int y=y0; y<y1; y++) {
+                final int src_off = vert_flip ? ( height - 1 - y ) * src_lineStride : y * src_lineStride;
+                srcI.position(src_off / 4);
+                srcI.get(row, 0, width);
+                for(int x=0; x<width; x++) {
+                    final int p = row[x];
+                    row[x] = ( p & 0xFF00FF00 ) | ( ( p >>> 16 ) & 0x000000FF ) | ( ( p & 0x000000FF ) << 16 );
+                }
+                dstI.position(y * dst_lineStride / 4);
+                dstI.put(row, 0, width);
+            }
+            return;
+        }
+        final int src_bpp = BULK_LUMINANCE == op ? 1 : ( BULK_SWAP_RB4 == op ? 4 : 3 );
+        final byte[] srow = new byte[width * src_bpp];
+        final byte[] drow = new byte[width * 4];
+        for(int y=y0; y<y1; y++) {
+            final int src_off = vert_flip ? ( height - 1 - y ) * src_lineStride : y * src_lineStride;
+            src.position(src_off);
+            src.get(srow);
+            switch( op ) {
+                case BULK_SWAP_RB4:
+                    for(int s=0; s<srow.length; s+=4) {
+                        drow[s  ] = srow[s+2];
+                        drow[s+1] = srow[s+1];
+                        drow[s+2] = srow[s  ];
+                        drow[s+3] = srow[s+3];
+                    }
+                    break;
+                case BULK_EXPAND3:
+                    for(int s=0, d=0; s<srow.length; s+=3, d+=4) {
+                        drow[d  ] = srow[s  ];
+                        drow[d+1] = srow[s+1];
+                        drow[d+2] = srow[s+2];
+                        drow[d+3] = (byte)0xff;
+                    }
+                    break;
+                case BULK_EXPAND3_SWAP_RB:
+                    for(int s=0, d=0; s<srow.length; s+=3, d+=4) {
+                        drow[d  ] = srow[s+2];
+                        drow[d+1] = srow[s+1];
+                        drow[d+2] = srow[s  ];
+                        drow[d+3] = (byte)0xff;
+                    }
+                    break;
+                case BULK_LUMINANCE:
+                    for(int s=0, d=0; s<srow.length; s++, d+=4) {
+                        final byte l = srow[s];
+                        drow[d  ] = l;
+                        drow[d+1] = l;
+                        drow[d+2] = l;
+                        drow[d+3] = (byte)0xff;
+                    }
+                    break;
+                default:
+                    throw new InternalError("Unhandled bulk conversion "+op);
+            }
+            dst.position(y * dst_lineStride);
+            dst.put(drow);
+        }
+    }
+
     public static void convert(final ComponentMap cmap,
                                final PixelFormat.Composition dstComp,
                                final Bitstream<ByteBuffer> dstBitStream,
@@ -37,19 +37,31 @@
 
 package jogamp.newt;
 
-import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 
 import com.jogamp.nativewindow.NativeWindowException;
 
 import jogamp.common.util.locks.LockDebugUtil;
 
 import com.jogamp.common.ExceptionUtils;
+import com.jogamp.common.os.Clock;
 import com.jogamp.common.util.InterruptSource;
 import com.jogamp.common.util.InterruptedRuntimeException;
 import com.jogamp.common.util.RunnableTask;
 import com.jogamp.common.util.locks.Lock;
 import com.jogamp.newt.util.EDTUtil;
 
+/**
+ * Default {@link EDTUtil} implementation, running the NEWT event dispatch
+ * and all enqueued tasks on one dedicated thread.
+ * <p>
+ * Tasks are enqueued to a lock-free {@link TaskQueue} and the EDT is woken up via {@link LockSupport#unpark(java.lang.Thread)}.
+ * Each wake-up executes all pending tasks in FIFO order as one batch, followed by the event dispatch.
+ * W/o pending tasks the EDT parks for {@link #getPollPeriod()} at most, to dispatch native events.
+ * </p>
+ */
 public class DefaultEDTUtil implements EDTUtil {
     public static final boolean DEBUG = Debug.debug("EDT");
 
@@ -66,6 +78,13 @@ public class DefaultEDTUtil implements EDTUtil {
     private int start_iter=0;
     private static long pollPeriod = EDTUtil.defaultEDTPollPeriod;
 
+    // Metrics, only written by the EDT
+    private volatile long taskCount = 0;
+    private volatile long batchCount = 0;
+    private volatile int maxBatchSize = 0;
+    private volatile long taskLatencySum = 0;
+    private volatile long taskLatencyMax = 0;
+
     public DefaultEDTUtil(final ThreadGroup tg, final String name, final Runnable dispatchMessages) {
         this.threadGroup = tg;
         this.name=Thread.currentThread().getName()+"-"+name+"-EDT-";
@@ -84,6 +103,48 @@ public class DefaultEDTUtil implements EDTUtil {
         pollPeriod = ms; // writing to static field is intended
     }
 
+    /** Returns the number of tasks executed on the EDT since creation or {@link #resetMetrics()}. */
+    public final long getTaskCount() { return taskCount; }
+
+    /** Returns the number of task batches executed on the EDT since creation or {@link #resetMetrics()}. */
+    public final long getBatchCount() { return batchCount; }
+
+    /** Returns the maximum number of tasks executed within one batch since creation or {@link #resetMetrics()}. */
+    public final int getMaxBatchSize() { return maxBatchSize; }
+
+    /** Returns the mean duration in nanoseconds from enqueuing a task until its execution starts. */
+    public final long getMeanTaskLatency() {
+        final long n = taskCount;
+        return 0 < n ? taskLatencySum / n : 0;
+    }
+
+    /** Returns the maximum duration in nanoseconds from enqueuing a task until its execution starts. */
+    public final long getMaxTaskLatency() { return taskLatencyMax; }
+
+    /** Returns the number of enqueued tasks not yet executed. */
+    public final int getPendingTaskCount() {
+        final NEDT _edt;
+        synchronized(edtLock) {
+            _edt = edt;
+        }
+        return _edt.tasks.size();
+    }
+
+    /**
+     * Resets all metrics to zero.
+     * <p>
+     * Metrics are updated by the EDT after each batch,
+     * hence a concurrent reset may lose the currently executed batch.
+     * </p>
+     */
+    public final void resetMetrics() {
+        taskCount = 0;
+        batchCount = 0;
+        maxBatchSize = 0;
+        taskLatencySum = 0;
+        taskLatencyMax = 0;
+    }
+
     @Override
     public final void start() throws IllegalStateException {
         synchronized(edtLock) {
@@ -221,20 +282,18 @@ public class DefaultEDTUtil implements EDTUtil {
                     }
 
                     if(null != task) {
-                        synchronized(edt.tasks) {
-                            rTask = new RunnableTask(task,
-                                                     wait ? rTaskLock : null,
-                                                     true /* always catch and report Exceptions, don't disturb EDT */,
-                                                     wait ? null : System.err);
-                            if(stop) {
-                                rTask.setAttachment(TASK_ATTACHMENT_STOP); // mark final task, will imply shouldStop:=true
-                            } else if(provokeError) {
-                                rTask.setAttachment(TASK_ATTACHMENT_TEST_ERROR);
-                            }
-                            // append task ..
-                            edt.tasks.add(rTask);
-                            edt.tasks.notifyAll();
+                        rTask = new RunnableTask(task,
+                                                 wait ? rTaskLock : null,
+                                                 true /* always catch and report Exceptions, don't disturb EDT */,
+                                                 wait ? null : System.err);
+                        if(stop) {
+                            rTask.setAttachment(TASK_ATTACHMENT_STOP); // mark final task, will imply shouldStop:=true
+                        } else if(provokeError) {
+                            rTask.setAttachment(TASK_ATTACHMENT_TEST_ERROR);
                         }
+                        // append task ..
+                        edt.tasks.push(rTask);
+                        edt.wakeUp();
                     } else {
                         wait = false;
                         rTask = null;
@@ -275,14 +334,17 @@ public class DefaultEDTUtil implements EDTUtil {
         if(!_edt.isRunning || _edt == Thread.currentThread()) {
             return false;
         }
-        synchronized(_edt.tasks) {
+        synchronized(_edt.idleLock) {
+            _edt.idleWaiter++; // announce before checking the queue, see NEDT.notifyIdleWaiter()
             try {
                 while(_edt.isRunning && _edt.tasks.size()>0) {
-                    _edt.tasks.notifyAll();
-                    _edt.tasks.wait();
+                    _edt.wakeUp();
+                    _edt.idleLock.wait();
                 }
             } catch (final InterruptedException e) {
                 throw new InterruptedRuntimeException(e);
+            } finally {
+                _edt.idleWaiter--;
             }
             return true;
         }
@@ -306,10 +368,79 @@ public class DefaultEDTUtil implements EDTUtil {
         }
     }
 
+    /**
+     * Lock-free multiple producer single consumer task queue.
+     * <p>
+     * Producers push onto a LIFO stack via CAS, the consumer takes all pending tasks
+     * at once via {@link #takeAll()} in FIFO order.
+     * </p>
+     */
+    static final class TaskQueue {
+        static final class Node {
+            final RunnableTask task;
+            final long enqueueNanos;
+            Node next;
+
+            Node(final RunnableTask task) {
+                this.task = task;
+                this.enqueueNanos = Clock.currentNanos();
+            }
+        }
+        private final AtomicReference<Node> head = new AtomicReference<Node>();
+        /** Number of pushed tasks not yet {@link #taken()}. */
+        private final AtomicInteger size = new AtomicInteger();
+
+        /** Enqueues the given task, callable from any thread. */
+        final void push(final RunnableTask task) {
+            final Node n = new Node(task);
+            size.incrementAndGet(); // count before publishing, i.e. never below the queued tasks
+            Node h;
+            do {
+                h = head.get();
+                n.next = h;
+            } while( !head.compareAndSet(h, n) );
+        }
+
+        /** Takes all pending tasks, returning the first node of the FIFO ordered list or null if empty. Consumer only. */
+        final Node takeAll() {
+            Node n = head.getAndSet(null);
+            Node first = null;
+            while( null != n ) {
+                final Node next = n.next;
+                n.next = first;
+                first = n;
+                n = next;
+            }
+            return first;
+        }
+
+        /** Marks one task as taken for execution or flushing. Consumer only. */
+        final void taken() {
+            size.decrementAndGet();
+        }
+
+        final boolean isEmpty() {
+            return null == head.get();
+        }
+
+        /** Returns the number of pushed tasks not yet taken for execution. */
+        final int size() {
+            return size.get();
+        }
+    }
+
     class NEDT extends InterruptSource.Thread {
         volatile boolean shouldStop = false;
         volatile boolean isRunning = false;
-        final ArrayList<RunnableTask> tasks = new ArrayList<RunnableTask>(); // one shot tasks
+        final TaskQueue tasks = new TaskQueue(); // one shot tasks
+        /** True while parked waiting for tasks. */
+        private volatile boolean waiting = false;
+        /** Lock for {@link DefaultEDTUtil#waitUntilIdle()} waiter. */
+        final Object idleLock = new Object();
+        /** Number of {@link DefaultEDTUtil#waitUntilIdle()} waiter, modified while holding {@link #idleLock}. */
+        volatile int idleWaiter = 0;
+        /** Taken but not executed tasks, flushed at exit. */
+        private TaskQueue.Node pendingBatch = null;
 
         public NEDT(final ThreadGroup tg, final String name) {
             super(tg, null, name);
@@ -319,6 +450,21 @@ public class DefaultEDTUtil implements EDTUtil {
             return isRunning && !shouldStop;
         }
 
+        /** Wakes up this EDT if parked waiting for tasks. */
+        final void wakeUp() {
+            if( waiting ) {
+                LockSupport.unpark(this);
+            }
+        }
+
+        private final void notifyIdleWaiter() {
+            if( 0 < idleWaiter ) {
+                synchronized(idleLock) {
+                    idleLock.notifyAll();
+                }
+            }
+        }
+
         @Override
         final public void start() throws IllegalThreadStateException {
             isRunning = true;
@@ -351,41 +497,65 @@ public class DefaultEDTUtil implements EDTUtil {
                     if(!shouldStop) {
                         dispatchMessages.run();
                     }
-                    // wait and work on tasks
-                    RunnableTask task = null;
-                    synchronized(tasks) {
-                        // wait for tasks
-                        if( !shouldStop && tasks.size()==0 ) {
-                            try {
-                                tasks.wait(pollPeriod);
-                            } catch (final InterruptedException e) {
-                                throw new InterruptedRuntimeException(e);
+                    // wait for tasks, woken up by enqueue or after pollPeriod for event dispatch
+                    if( !shouldStop && tasks.isEmpty() ) {
+                        waiting = true;
+                        if( tasks.isEmpty() ) { // re-check after announcing waiting, see wakeUp()
+                            if( 0 < pollPeriod ) {
+                                LockSupport.parkNanos(this, pollPeriod * 1000000L);
+                            } else {
+                                LockSupport.park(this);
                             }
                         }
-                        // execute one task, if available
-                        if(tasks.size()>0) {
-                            task = tasks.remove(0);
-                            tasks.notifyAll();
-                            final Object attachment = task.getAttachment();
-                            if( TASK_ATTACHMENT_STOP == attachment ) {
-                                shouldStop = true;
-                            } else if( TASK_ATTACHMENT_TEST_ERROR == attachment ) {
-                                tasks.add(0, task);
-                                task = null;
-                                throw new RuntimeException("TASK_ATTACHMENT_TEST_ERROR");
-                            }
+                        waiting = false;
+                        if( java.lang.Thread.interrupted() ) {
+                            throw new InterruptedRuntimeException(new InterruptedException("Default-EDT interrupted"));
                         }
                     }
-                    if(null!=task) {
-                        task.run();
-                        if(Lock.DEBUG) {
-                            validateNoRecursiveLocksHold();
-                        }
-                        if(!task.hasWaiter() && null != task.getThrowable()) {
-                            // at least dump stack-trace in case nobody waits for result
-                            System.err.println("DefaultEDT.run(): Caught exception occured on thread "+java.lang.Thread.currentThread().getName()+": "+task.toString());
-                            task.getThrowable().printStackTrace();
+                    // execute all pending tasks as one batch
+                    TaskQueue.Node node = tasks.takeAll();
+                    if( null != node ) {
+                        int batchSize = 0;
+                        long latencySum = 0, latencyMax = 0;
+                        try {
+                            while( null != node ) {
+                                final RunnableTask task = node.task;
+                                final Object attachment = task.getAttachment();
+                                if( TASK_ATTACHMENT_TEST_ERROR == attachment ) {
+                                    pendingBatch = node;
+                                    throw new RuntimeException("TASK_ATTACHMENT_TEST_ERROR");
+                                }
+                                final long latency = Clock.currentNanos() - node.enqueueNanos;
+                                latencySum += latency;
+                                latencyMax = Math.max(latencyMax, latency);
+                                batchSize++;
+                                tasks.taken();
+                                node = node.next;
+                                // remaining tasks are flushed if stopped or if the following throws,
+                                // null after the batch's last task
+                                pendingBatch = node;
+                                if( TASK_ATTACHMENT_STOP == attachment ) {
+                                    shouldStop = true;
+                                    node = null;
+                                }
+                                task.run();
+                                if(Lock.DEBUG) {
+                                    validateNoRecursiveLocksHold();
+                                }
+                                if(!task.hasWaiter() && null != task.getThrowable()) {
+                                    // at least dump stack-trace in case nobody waits for result
+                                    System.err.println("DefaultEDT.run(): Caught exception occured on thread "+java.lang.Thread.currentThread().getName()+": "+task.toString());
+                                    task.getThrowable().printStackTrace();
+                                }
+                            }
+                        } finally {
+                            taskCount += batchSize;
+                            batchCount++;
+                            maxBatchSize = Math.max(maxBatchSize, batchSize);
+                            taskLatencySum += latencySum;
+                            taskLatencyMax = Math.max(taskLatencyMax, latencyMax);
                         }
+                        notifyIdleWaiter();
                     }
                 } while(!shouldStop) ;
             } catch (final Throwable t) {
@@ -403,19 +573,24 @@ public class DefaultEDTUtil implements EDTUtil {
                 }
                 synchronized(edtLock) {
                     int i = 0;
-                    while( tasks.size() > 0 ) {
-                        // notify all waiter
-                        final String msg2 = msg+", task #"+i;
-                        final Throwable t = null != error ? new Throwable(msg2, error) : new Throwable(msg2);
-                        final RunnableTask rt = tasks.remove(0);
-                        if( null != rt ) {
-                            rt.flush(t);
+                    TaskQueue.Node node = pendingBatch;
+                    pendingBatch = null;
+                    do {
+                        while( null != node ) {
+                            // notify all waiter
+                            final String msg2 = msg+", task #"+i;
+                            final Throwable t = null != error ? new Throwable(msg2, error) : new Throwable(msg2);
+                            node.task.flush(t);
+                            tasks.taken();
+                            node = node.next;
                             i++;
                         }
-                    }
+                        node = tasks.takeAll();
+                    } while( null != node );
                     isRunning = false;
                     edtLock.notifyAll();
                 }
+                notifyIdleWaiter();
                 if(DEBUG) {
                     System.err.println(msg+" EXIT, exception: "+error);
                 }
@@ -0,0 +1,222 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.graph;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.junit.util.JunitTracer;
+import com.jogamp.math.geom.AABBox;
+import com.jogamp.math.geom.plane.Path2F;
+import com.jogamp.math.geom.plane.PreparedPath2F;
+import com.jogamp.math.geom.plane.WindingRule;
+
+/**
+ * Validates {@link PreparedPath2F} point queries against {@link Path2F#contains(float, float)}
+ * and analytic shapes for both {@link WindingRule}s incl. the batch query, as well as comparing their performance.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestPreparedPath2F01NOUI extends JunitTracer {
+    static final float KAPPA = 0.5522848f;
+
+    static void addRect(final Path2F p, final float x0, final float y0, final float x1, final float y1, final boolean ccw) {
+        p.moveTo(x0, y0);
+        if( ccw ) {
+            p.lineTo(x1, y0); p.lineTo(x1, y1); p.lineTo(x0, y1);
+        } else {
+            p.lineTo(x0, y1); p.lineTo(x1, y1); p.lineTo(x1, y0);
+        }
+        p.closePath();
+    }
+
+    /** Circle of 4 cubic segments */
+    static void addCircle(final Path2F p, final float cx, final float cy, final float r, final boolean ccw) {
+        final float k = KAPPA * r, s = ccw ? 1f : -1f;
+        p.moveTo(cx + r, cy);
+        p.cubicTo(cx + r, cy + s*k, cx + k, cy + s*r, cx, cy + s*r);
+        p.cubicTo(cx - k, cy + s*r, cx - r, cy + s*k, cx - r, cy);
+        p.cubicTo(cx - r, cy - s*k, cx - k, cy - s*r, cx, cy - s*r);
+        p.cubicTo(cx + k, cy - s*r, cx + r, cy - s*k, cx + r, cy);
+        p.closePath();
+    }
+
+    @Test
+    public void test01RectHole() {
+        for(final WindingRule rule : WindingRule.values()) {
+            final Path2F path = new Path2F(rule);
+            addRect(path, 0f, 0f, 10f, 10f, true);
+            addRect(path, 3f, 3f, 7f, 7f, false);
+            final PreparedPath2F pp = new PreparedPath2F(path, 0.01f);
+            Assert.assertEquals(4, pp.getEdgeCount()); // horizontal edges dropped
+            Assert.assertTrue(pp.contains(1f, 1f));
+            Assert.assertTrue(pp.contains(9f, 5f));
+            Assert.assertFalse(pp.contains(5f, 5f));
+            Assert.assertFalse(pp.contains(11f, 5f));
+            Assert.assertFalse(pp.contains(-1f, 5f));
+            Assert.assertFalse(pp.contains(5f, 10.5f));
+            Assert.assertEquals(1, pp.winding(1f, 1f));
+            Assert.assertEquals(0, pp.winding(5f, 5f));
+        }
+        // same direction inner rect
+        final Path2F nz = new Path2F(WindingRule.NON_ZERO);
+        addRect(nz, 0f, 0f, 10f, 10f, true);
+        addRect(nz, 3f, 3f, 7f, 7f, true);
+        final Path2F eo = new Path2F(nz);
+        eo.setWindingRule(WindingRule.EVEN_ODD);
+        Assert.assertEquals(2, new PreparedPath2F(nz, 0.01f).winding(5f, 5f));
+        Assert.assertTrue(new PreparedPath2F(nz, 0.01f).contains(5f, 5f));
+        Assert.assertFalse(new PreparedPath2F(eo, 0.01f).contains(5f, 5f));
+    }
+
+    @Test
+    public void test02CurvesRandom() {
+        final Path2F path = new Path2F(WindingRule.NON_ZERO);
+        addCircle(path, 0f, 0f, 10f, true);
+        addCircle(path, 0f, 0f, 5f, false);
+        final PreparedPath2F pp = new PreparedPath2F(path, 0.001f);
+        final Random rnd = new Random(7);
+        int tested = 0;
+        for(int i=0; i<20000; i++) {
+            final float x = rnd.nextFloat() * 24f - 12f;
+            final float y = rnd.nextFloat() * 24f - 12f;
+            final float r = (float)Math.sqrt(x*x + y*y);
+            if( Math.abs(r - 10f) < 0.05f || Math.abs(r - 5f) < 0.05f ) {
+                continue; // cubic circle approximation and flattening tolerance
+            }
+            final boolean exp = 5f < r && r < 10f;
+            Assert.assertEquals(x+"/"+y, exp, pp.contains(x, y));
+            Assert.assertEquals(x+"/"+y, exp, path.contains(x, y));
+            ++tested;
+        }
+        Assert.assertTrue(tested > 19000);
+    }
+
+    @Test
+    public void test03Batch() {
+        final Path2F path = new Path2F(WindingRule.EVEN_ODD);
+        addCircle(path, 0f, 0f, 10f, true);
+        addRect(path, -3f, -3f, 3f, 3f, true);
+        final PreparedPath2F pp = new PreparedPath2F(path, 0.01f);
+        final int count = 1000;
+        final float[] xy = new float[3 + count*2];
+        final Random rnd = new Random(11);
+        for(int i=0; i<xy.length; i++) {
+            xy[i] = rnd.nextFloat() * 24f - 12f;
+        }
+        final long[] inside = new long[(count+63)/64];
+        int exp = 0;
+        for(int i=0; i<count; i++) {
+            if( pp.contains(xy[3+i*2], xy[3+i*2+1]) ) { ++exp; }
+        }
+        Assert.assertEquals(exp, pp.contains(xy, 3, count, inside));
+        for(int i=0; i<count; i++) {
+            Assert.assertEquals(pp.contains(xy[3+i*2], xy[3+i*2+1]), 0 != ( inside[i >>> 6] & ( 1L << i ) ));
+        }
+    }
+
+    @Test
+    public void test04Empty() {
+        final PreparedPath2F pp = new PreparedPath2F(new Path2F(), 0.1f);
+        Assert.assertEquals(0, pp.getEdgeCount());
+        Assert.assertFalse(pp.contains(0f, 0f));
+    }
+
+    @Test
+    public void test05BoundsFarFromOrigin() {
+        final Path2F path = new Path2F(WindingRule.EVEN_ODD);
+        path.moveTo(100f, 200f);
+        path.lineTo(110f, 200f);
+        path.lineTo(110f, 220f);
+        path.lineTo(100f, 220f);
+        path.closePath();
+        // open sub-path, implicitly closed
+        path.moveTo(120f, 200f);
+        path.lineTo(130f, 210f);
+        path.lineTo(120f, 210f);
+        final PreparedPath2F pp = new PreparedPath2F(path, 0.1f);
+        final AABBox box = pp.getBounds();
+        Assert.assertEquals(100f, box.getMinX(), 0f);
+        Assert.assertEquals(200f, box.getMinY(), 0f);
+        Assert.assertEquals(130f, box.getMaxX(), 0f);
+        Assert.assertEquals(220f, box.getMaxY(), 0f);
+        Assert.assertEquals(4, pp.getEdgeCount());
+        Assert.assertTrue(pp.contains(105f, 210f));
+        Assert.assertTrue(pp.contains(122f, 209f));
+        Assert.assertFalse(pp.contains(115f, 210f));
+        Assert.assertFalse(pp.contains(0f, 0f));
+        Assert.assertFalse(pp.contains(50f, 100f));
+    }
+
+    @Test
+    public void test06Perf01() {
+        final Path2F path = new Path2F(WindingRule.NON_ZERO);
+        // glyph-like: outer curved contour w/ two holes
+        addCircle(path, 0f, 0f, 10f, true);
+        addCircle(path, -4f, 0f, 3f, false);
+        addCircle(path, 4f, 0f, 3f, false);
+        final int count = 100000, loops = 10;
+        final float[] xy = new float[count*2];
+        final Random rnd = new Random(1);
+        for(int i=0; i<xy.length; i++) {
+            xy[i] = rnd.nextFloat() * 24f - 12f;
+        }
+        final long[] inside = new long[(count+63)/64];
+        long tPath = 0, tPrepare = 0, tPrepared = 0, tBatch = 0;
+        int sum = 0;
+        for(int l=0; l<loops*2; l++) {
+            final boolean measure = l >= loops;
+            long t0 = System.nanoTime();
+            for(int i=0; i<count; i++) {
+                if( path.contains(xy[i*2], xy[i*2+1]) ) { ++sum; }
+            }
+            long t1 = System.nanoTime();
+            final PreparedPath2F pp = new PreparedPath2F(path, 0.01f);
+            final long t2 = System.nanoTime();
+            for(int i=0; i<count; i++) {
+                if( pp.contains(xy[i*2], xy[i*2+1]) ) { ++sum; }
+            }
+            final long t3 = System.nanoTime();
+            sum += pp.contains(xy, 0, count, inside);
+            final long t4 = System.nanoTime();
+            if( measure ) {
+                tPath += t1 - t0; tPrepare += t2 - t1; tPrepared += t3 - t2; tBatch += t4 - t3;
+            }
+        }
+        System.err.printf("Perf contains %d points x %d: Path2F %.3f ms, prepare %.3f ms, prepared %.3f ms (%.1fx), batch %.3f ms (%.1fx), sum %d%n",
+                count, loops, tPath / 1e6 / loops, tPrepare / 1e6 / loops,
+                tPrepared / 1e6 / loops, (double)tPath / tPrepared, tBatch / 1e6 / loops, (double)tPath / tBatch, sum);
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestPreparedPath2F01NOUI.class.getName());
+    }
+}
@@ -0,0 +1,387 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.graph;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.graph.curve.OutlineShape;
+import com.jogamp.graph.curve.Region;
+import com.jogamp.graph.geom.Outline;
+import com.jogamp.graph.geom.Vertex;
+import com.jogamp.junit.util.JunitTracer;
+import com.jogamp.math.Vec3f;
+import com.jogamp.math.Vec4f;
+import com.jogamp.math.geom.AABBox;
+import com.jogamp.math.geom.plane.Path2F;
+import com.jogamp.math.geom.plane.Stroker2F;
+import com.jogamp.math.geom.plane.Stroker2F.Cap;
+import com.jogamp.math.geom.plane.Stroker2F.Join;
+import com.jogamp.math.geom.plane.Winding;
+import com.jogamp.math.geom.plane.WindingRule;
+
+/**
+ * Validates {@link Stroker2F} geometry of segments, joins, caps, curves and dashes
+ * via the coverage of the resulting {@link Path2F},
+ * the {@link Winding#CCW} of each emitted polygon, the hole-free triangulation through a {@link Region}
+ * as well as its throughput on large polylines.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestStroker2F01NOUI extends JunitTracer {
+
+    static Path2F stroke(final Stroker2F stroker, final float... xy) {
+        final Path2F dst = stroker.stroke(xy, 0, xy.length/2, false, new Path2F());
+        assertAllCCW(dst);
+        return dst;
+    }
+
+    /** Asserts each closed polygon of the given path being {@link Winding#CCW}, returns their count. */
+    static int assertAllCCW(final Path2F path) {
+        final Path2F.Iterator it = path.iterator(null);
+        final float[] p = it.points();
+        int count = 0;
+        float area = 0f, sx = 0f, sy = 0f, lx = 0f, ly = 0f;
+        while( it.hasNext() ) {
+            final int idx = it.index();
+            switch( it.next() ) {
+                case MOVETO:
+                    area = 0f; sx = lx = p[idx]; sy = ly = p[idx+1];
+                    break;
+                case LINETO:
+                    area += lx * p[idx+1] - p[idx] * ly;
+                    lx = p[idx]; ly = p[idx+1];
+                    break;
+                case CLOSE:
+                    area += lx * sy - sx * ly;
+                    Assert.assertTrue("polygon "+count+" area "+area, 0f < area);
+                    ++count;
+                    break;
+                default:
+                    Assert.fail("unexpected segment");
+            }
+        }
+        return count;
+    }
+
+    static void assertCovered(final Path2F path, final boolean exp, final float x, final float y) {
+        Assert.assertEquals("point "+x+"/"+y, exp, path.contains(x, y));
+    }
+
+    @Test
+    public void test01SegmentCaps() {
+        Path2F p = stroke(new Stroker2F(2f, Cap.BUTT, Join.MITER, 10f), 0f, 0f, 10f, 0f);
+        Assert.assertEquals(1, assertAllCCW(p));
+        AABBox box = p.getBounds2D();
+        Assert.assertEquals(0f, box.getMinX(), 1e-6f);
+        Assert.assertEquals(10f, box.getMaxX(), 1e-6f);
+        Assert.assertEquals(-1f, box.getMinY(), 1e-6f);
+        Assert.assertEquals(1f, box.getMaxY(), 1e-6f);
+
+        p = stroke(new Stroker2F(2f), 0f, 0f, 10f, 0f);
+        Assert.assertEquals(3, assertAllCCW(p));
+        box = p.getBounds2D();
+        Assert.assertEquals(-1f, box.getMinX(), 1e-6f);
+        Assert.assertEquals(11f, box.getMaxX(), 1e-6f);
+        assertCovered(p, true, -0.9f, 0.9f);
+
+        p = stroke(new Stroker2F(2f, Cap.ROUND, Join.MITER, 10f), 0f, 0f, 10f, 0f);
+        box = p.getBounds2D();
+        Assert.assertEquals(-1f, box.getMinX(), 1e-6f);
+        Assert.assertEquals(11f, box.getMaxX(), 1e-6f);
+        assertCovered(p, true, -0.6f, 0.6f);
+        assertCovered(p, false, -0.9f, 0.9f);
+    }
+
+    @Test
+    public void test02Joins() {
+        final float[] l = { 0f, 0f, 10f, 0f, 10f, 10f };
+        final Path2F miter = stroke(new Stroker2F(2f, Cap.BUTT, Join.MITER, 10f), l);
+        assertCovered(miter, true, 10.9f, -0.9f);
+        assertCovered(miter, false, 11.1f, -0.5f);
+
+        final Path2F bevel = stroke(new Stroker2F(2f, Cap.BUTT, Join.BEVEL, 10f), l);
+        assertCovered(bevel, true, 10.4f, -0.4f);
+        assertCovered(bevel, false, 10.9f, -0.9f);
+
+        final Path2F round = stroke(new Stroker2F(2f, Cap.BUTT, Join.ROUND, 10f), l);
+        assertCovered(round, true, 10.65f, -0.65f);
+        assertCovered(round, false, 10.9f, -0.9f);
+
+        // right turn, outer corner on the left side
+        final Path2F miterR = stroke(new Stroker2F(2f, Cap.BUTT, Join.MITER, 10f), 0f, 0f, 10f, 0f, 10f, -10f);
+        assertCovered(miterR, true, 10.9f, 0.9f);
+
+        // sharp turn exceeding the miter limit falls back to bevel
+        final float[] sharp = { 0f, 0f, 10f, 0f, 0f, 1f };
+        final Path2F m10 = stroke(new Stroker2F(2f, Cap.BUTT, Join.MITER, 30f), sharp);
+        final Path2F m2 = stroke(new Stroker2F(2f, Cap.BUTT, Join.MITER, 2f), sharp);
+        assertCovered(m10, true, 12f, -0.8f);
+        assertCovered(m2, false, 12f, -0.8f);
+    }
+
+    @Test
+    public void test03ClosedPath() {
+        final Path2F src = new Path2F();
+        src.moveTo(0f, 0f);
+        src.lineTo(10f, 0f);
+        src.lineTo(10f, 10f);
+        src.lineTo(0f, 10f);
+        src.closePath();
+        final Path2F p = new Stroker2F(2f).stroke(src, new Path2F());
+        Assert.assertEquals(4 + 4, assertAllCCW(p)); // segments + miter joins, no caps
+        assertCovered(p, true, -0.9f, -0.9f);
+        assertCovered(p, true, 10.9f, 10.9f);
+        assertCovered(p, false, 5f, 5f);
+        assertCovered(p, false, -1.1f, 5f);
+    }
+
+    @Test
+    public void test04Curves() {
+        final Path2F src = new Path2F();
+        src.moveTo(0f, 0f);
+        src.quadTo(50f, 100f, 100f, 0f);
+        src.cubicTo(120f, -50f, 150f, 50f, 200f, 0f);
+        final float w = 4f, tol = 0.1f;
+        final Stroker2F stroker = new Stroker2F(w, Cap.BUTT, Join.ROUND, 10f).setTolerance(tol);
+        final Path2F p = stroker.stroke(src, new Path2F());
+        assertAllCCW(p);
+        for(int i=1; i<100; i++) {
+            final float t = i / 100f, mt = 1f - t;
+            final float qx = 2f*mt*t*50f + t*t*100f, qy = 2f*mt*t*100f;
+            assertCovered(p, true, qx, qy);
+            // tangent normal of the quad
+            final float tx = 2f*mt*50f + 2f*t*50f, ty = 2f*mt*100f - 2f*t*100f;
+            final float tl = (float)Math.sqrt(tx*tx + ty*ty);
+            final float nx = -ty / tl, ny = tx / tl;
+            assertCovered(p, true, qx + nx * ( w/2f - 2f*tol ), qy + ny * ( w/2f - 2f*tol ));
+            assertCovered(p, false, qx + nx * ( w/2f + 2f*tol ), qy + ny * ( w/2f + 2f*tol ));
+
+            // cubic, off the flattened vertices
+            final float u = t + 0.003f, mu = 1f - u;
+            final float c0 = mu*mu*mu, c1 = 3f*mu*mu*u, c2 = 3f*mu*u*u, c3 = u*u*u;
+            assertCovered(p, true, c0*100f + c1*120f + c2*150f + c3*200f, c1*-50f + c2*50f);
+        }
+    }
+
+    @Test
+    public void test05Dash() {
+        final Stroker2F stroker = new Stroker2F(1f, Cap.BUTT, Join.MITER, 10f).setDash(new float[] { 2f, 1f }, 0f);
+        Path2F p = stroke(stroker, 0f, 0f, 5f, 0f, 5f, 5f);
+        assertCovered(p, true, 1f, 0f);
+        assertCovered(p, false, 2.5f, 0f);
+        assertCovered(p, true, 3.5f, 0f);
+        assertCovered(p, false, 5f, 0.5f);  // dash gap [5 .. 6] around the corner
+        assertCovered(p, true, 5f, 1.5f);
+        assertCovered(p, false, 5f, 3.5f);
+
+        stroker.setDash(new float[] { 2f, 1f }, 1f);
+        p = stroke(stroker, 0f, 0f, 5f, 0f);
+        assertCovered(p, true, 0.5f, 0f);
+        assertCovered(p, false, 1.5f, 0f);
+        assertCovered(p, true, 2.5f, 0f);
+
+        // zero length dashes w/ round caps produce dots
+        final Stroker2F dots = new Stroker2F(1f, Cap.ROUND, Join.ROUND, 10f).setDash(new float[] { 0f, 2f }, 0f);
+        p = stroke(dots, 0f, 0f, 9f, 0f);
+        Assert.assertEquals(4, assertAllCCW(p)); // 2, 4, 6, 8 (leading zero dash at phase 0 is skipped)
+        assertCovered(p, true, 2.3f, 0f);
+        assertCovered(p, false, 3f, 0f);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void test06InvalidDash() {
+        new Stroker2F(1f).setDash(new float[] { 0f, 0f }, 0f);
+    }
+
+    @Test
+    public void test07OutlineShape() {
+        final OutlineShape shape = new OutlineShape();
+        final Stroker2F stroker = new Stroker2F(2f, Cap.ROUND, Join.ROUND, 10f);
+        final float[] xy = { 0f, 0f, 10f, 0f, 10f, 10f };
+        final int pieces = assertAllCCW(stroker.stroke(xy, 0, 3, false, new Path2F()));
+        shape.addStroke(xy, 0, 3, false, stroker);
+        int closed = 0;
+        for(int i=0; i<shape.getOutlineCount(); i++) {
+            if( !shape.getOutline(i).isEmpty() ) {
+                Assert.assertTrue(shape.getOutline(i).isClosed());
+                Assert.assertEquals(Winding.CCW, shape.getOutline(i).getWinding());
+                ++closed;
+            }
+        }
+        Assert.assertEquals(pieces, closed);
+    }
+
+    /** {@link Region} recording pushed vertices and indices only. */
+    static class RecRegion extends Region {
+        final ArrayList<Vec3f> coords = new ArrayList<Vec3f>();
+        final ArrayList<Integer> indices = new ArrayList<Integer>();
+
+        RecRegion() { super(Region.NORM_RENDERING_BIT, true); }
+
+        @Override
+        public void printBufferStats(final PrintStream out) { }
+        @Override
+        public boolean growBuffer(final int verticesCount, final int indicesCount) { return false; }
+        @Override
+        public boolean setBufferCapacity(final int verticesCount, final int indicesCount) { return false; }
+        @Override
+        protected void pushVertex(final Vec3f coords, final Vec3f texParams, final Vec4f rgba) {
+            this.coords.add(new Vec3f(coords));
+        }
+        @Override
+        protected void pushVertices(final Vec3f coords1, final Vec3f coords2, final Vec3f coords3,
+                                    final Vec3f texParams1, final Vec3f texParams2, final Vec3f texParams3, final Vec4f rgba) {
+            pushVertex(coords1, texParams1, rgba);
+            pushVertex(coords2, texParams2, rgba);
+            pushVertex(coords3, texParams3, rgba);
+        }
+        @Override
+        protected void pushIndex(final int idx) { indices.add(idx); }
+        @Override
+        protected void pushIndices(final int idx1, final int idx2, final int idx3) {
+            indices.add(idx1); indices.add(idx2); indices.add(idx3);
+        }
+
+        /** Returns the sum of the absolute area of all pushed triangles. */
+        float triangleArea() {
+            float area = 0f;
+            for(int i=0; i+2<indices.size(); i+=3) {
+                final Vec3f a = coords.get(indices.get(i)), b = coords.get(indices.get(i+1)), c = coords.get(indices.get(i+2));
+                area += Math.abs( ( b.x() - a.x() ) * ( c.y() - a.y() ) - ( c.x() - a.x() ) * ( b.y() - a.y() ) ) / 2f;
+            }
+            return area;
+        }
+    }
+
+    /** Returns the sum of the area of all non-empty {@link Outline}s, each being convex and {@link Winding#CCW}. */
+    static float outlineArea(final OutlineShape shape) {
+        float area = 0f;
+        for(int i=0; i<shape.getOutlineCount(); i++) {
+            final ArrayList<Vertex> v = shape.getOutline(i).getVertices();
+            final int n = v.size();
+            for(int k=0, j=n-1; k<n; j=k++) {
+                area += v.get(j).x() * v.get(k).y() - v.get(k).x() * v.get(j).y();
+            }
+        }
+        return area / 2f;
+    }
+
+    @Test
+    public void test08RegionNoHoles() {
+        // overlapping pieces of joins, caps and a self-intersecting zig-zag would be holes of each other if classified
+        final float[] xy = { 0f, 0f, 10f, 0f, 10f, 10f, 0f, 2f, 12f, 5f, 3f, 8f };
+        final Stroker2F[] strokers = {
+                new Stroker2F(2f, Cap.ROUND, Join.ROUND, 10f),
+                new Stroker2F(2f, Cap.SQUARE, Join.MITER, 10f),
+                new Stroker2F(2f, Cap.BUTT, Join.BEVEL, 10f).setDash(new float[] { 3f, 1f }, 0f) };
+        for(final Stroker2F stroker : strokers) {
+            final OutlineShape shape = new OutlineShape();
+            // an enclosing fill must neither take the stroke pieces as holes
+            shape.moveTo(-5f, -5f, 0f);
+            shape.lineTo(20f, -5f, 0f);
+            shape.lineTo(20f, 20f, 0f);
+            shape.lineTo(-5f, 20f, 0f);
+            shape.closePath();
+            Assert.assertFalse(shape.getOutline(0).isSolid());
+            shape.addStroke(xy, 0, xy.length/2, false, stroker);
+            int solid = 0;
+            for(int i=1; i<shape.getOutlineCount(); i++) {
+                if( !shape.getOutline(i).isEmpty() ) {
+                    Assert.assertTrue(shape.getOutline(i).isSolid());
+                    ++solid;
+                }
+            }
+            final RecRegion region = new RecRegion();
+            region.addOutlineShape(shape, null, null);
+            final float expArea = outlineArea(shape);
+            final float hasArea = region.triangleArea();
+            System.err.printf("Region %s: %d pieces, %d triangles, area %f / %f%n", stroker, solid, region.indices.size()/3, hasArea, expArea);
+            Assert.assertTrue(25f * 25f < expArea);
+            Assert.assertEquals(expArea, hasArea, expArea * 1e-4f);
+        }
+    }
+
+    @Test
+    public void test09Perf01() {
+        final int segments = 100000, loops = 20;
+        final float[] xy = new float[(segments+1)*2];
+        for(int i=0; i<=segments; i++) {
+            xy[i*2] = i * 0.01f;
+            xy[i*2+1] = (float)Math.sin(i * 0.05) * 10f;
+        }
+        final Stroker2F[] strokers = {
+                new Stroker2F(0.2f, Cap.BUTT, Join.BEVEL, 10f),
+                new Stroker2F(0.2f, Cap.BUTT, Join.MITER, 10f),
+                new Stroker2F(0.2f, Cap.ROUND, Join.ROUND, 10f),
+                new Stroker2F(0.2f, Cap.BUTT, Join.MITER, 10f).setDash(new float[] { 0.5f, 0.25f }, 0f) };
+        final Path2F dst = new Path2F(WindingRule.NON_ZERO, 1024);
+        for(final Stroker2F stroker : strokers) {
+            long tSum = 0;
+            int polys = 0;
+            for(int l=0; l<loops*2; l++) {
+                dst.reset();
+                final long t0 = System.nanoTime();
+                stroker.stroke(xy, 0, segments+1, false, dst);
+                if( l >= loops ) {
+                    tSum += System.nanoTime() - t0;
+                }
+                polys = dst.size();
+            }
+            System.err.printf("Perf stroke %d segments x %d, %s: %.3f ms, %.1f M segments/s, %d path segments%n",
+                    segments, loops, stroker, tSum / 1e6 / loops, (double)segments * loops / tSum * 1e3, polys);
+        }
+        // incl. triangulation through a Region
+        final int triSegments = segments / 10, triLoops = loops / 4;
+        for(final Stroker2F stroker : strokers) {
+            long tSum = 0;
+            int tris = 0;
+            for(int l=0; l<triLoops*2; l++) {
+                final long t0 = System.nanoTime();
+                final OutlineShape shape = new OutlineShape();
+                shape.addStroke(xy, 0, triSegments+1, false, stroker);
+                final RecRegion region = new RecRegion();
+                region.addOutlineShape(shape, null, null);
+                if( l >= triLoops ) {
+                    tSum += System.nanoTime() - t0;
+                }
+                tris = region.indices.size() / 3;
+            }
+            System.err.printf("Perf stroke+triangulation %d segments x %d, %s: %.3f ms, %.2f M segments/s, %d triangles%n",
+                    triSegments, triLoops, stroker, tSum / 1e6 / triLoops, (double)triSegments * triLoops / tSum * 1e3, tris);
+        }
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestStroker2F01NOUI.class.getName());
+    }
+}
@@ -0,0 +1,207 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore;
+
+import java.util.HashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import jogamp.opengl.CopyOnWriteHashMap;
+
+import com.jogamp.junit.util.JunitTracer;
+
+/**
+ * Tests {@link CopyOnWriteHashMap} as used for the shared context type mappings,
+ * i.e. ProcAddressTable and extension cache lookup by context FQN,
+ * and stresses it against the former global lock w/ many concurrent context creations.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestCopyOnWriteHashMap00NOUI extends JunitTracer {
+    static final int KEY_COUNT = 16;
+    static final String[] keys = new String[KEY_COUNT];
+    static {
+        for(int i=0; i<KEY_COUNT; i++) {
+            keys[i] = ".x11-:0.0-0x"+Integer.toHexString(0x04060000 | i)+"-"+i;
+        }
+    }
+
+    @Test
+    public void test01Basics() {
+        final CopyOnWriteHashMap<String, Object> map = new CopyOnWriteHashMap<String, Object>();
+        final Object a = new Object(), b = new Object();
+        Assert.assertNull(map.get(keys[0]));
+        Assert.assertNull(map.putIfAbsent(keys[0], a));
+        Assert.assertSame(a, map.putIfAbsent(keys[0], b));
+        Assert.assertSame(a, map.get(keys[0]));
+        Assert.assertSame(a, map.put(keys[0], b));
+        Assert.assertSame(b, map.get(keys[0]));
+        Assert.assertEquals(1, map.size());
+
+        final java.util.Map<String, Object> snapshot = map.getSnapshot();
+        map.put(keys[1], a);
+        Assert.assertEquals(1, snapshot.size()); // snapshots are immutable
+        Assert.assertEquals(2, map.size());
+        try {
+            snapshot.put(keys[2], a);
+            Assert.fail("snapshot must be unmodifiable");
+        } catch (final UnsupportedOperationException e) { }
+
+        Assert.assertSame(b, map.remove(keys[0]));
+        Assert.assertNull(map.remove(keys[0]));
+        map.clear();
+        Assert.assertEquals(0, map.size());
+    }
+
+    /** Racing creators of the same key agree on exactly one published instance. */
+    @Test
+    public void test02PutIfAbsentRace() throws InterruptedException {
+        final int threadCount = 8;
+        final CopyOnWriteHashMap<String, Object> map = new CopyOnWriteHashMap<String, Object>();
+        final Object[][] seen = new Object[threadCount][KEY_COUNT];
+        final AtomicInteger winners = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final Thread[] threads = new Thread[threadCount];
+        for(int t=0; t<threadCount; t++) {
+            final int tid = t;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try { start.await(); } catch (final InterruptedException e) { return; }
+                    for(int i=0; i<KEY_COUNT; i++) {
+                        Object v = map.get(keys[i]);
+                        if( null == v ) {
+                            final Object n = new Object();
+                            final Object pre = map.putIfAbsent(keys[i], n);
+                            if( null == pre ) {
+                                winners.incrementAndGet();
+                                v = n;
+                            } else {
+                                v = pre;
+                            }
+                        }
+                        seen[tid][i] = v;
+                    }
+                } }, "Creator-"+t);
+            threads[t].start();
+        }
+        start.countDown();
+        for(int t=0; t<threadCount; t++) {
+            threads[t].join();
+        }
+        Assert.assertEquals(KEY_COUNT, winners.get());
+        for(int t=0; t<threadCount; t++) {
+            for(int i=0; i<KEY_COUNT; i++) {
+                Assert.assertSame(map.get(keys[i]), seen[t][i]);
+            }
+        }
+    }
+
+    interface Lookup {
+        Object get(String key);
+        void put(String key, Object value);
+        void remove(String key);
+    }
+
+    static long stress(final Lookup lookup, final int threadCount, final int loops) throws InterruptedException {
+        final CountDownLatch start = new CountDownLatch(1);
+        final Thread[] threads = new Thread[threadCount];
+        for(int t=0; t<threadCount; t++) {
+            final int tid = t;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try { start.await(); } catch (final InterruptedException e) { return; }
+                    for(int i=0; i<loops; i++) {
+                        // one context creation: 2 lookups by FQN, rare destruction / re-mapping
+                        final String key = keys[(i + tid) % KEY_COUNT];
+                        if( null == lookup.get(key) ) {
+                            lookup.put(key, key);
+                        }
+                        lookup.get(key);
+                        if( 0 == ( i & 4095 ) ) {
+                            lookup.remove(key);
+                        }
+                    }
+                } }, "Stress-"+t);
+            threads[t].start();
+        }
+        final long t0 = System.nanoTime();
+        start.countDown();
+        for(int t=0; t<threadCount; t++) {
+            threads[t].join();
+        }
+        return System.nanoTime() - t0;
+    }
+
+    @Test
+    public void test10PerfStress() throws InterruptedException {
+        final int threadCount = Math.max(4, Runtime.getRuntime().availableProcessors());
+        final int loops = 500000;
+
+        final CopyOnWriteHashMap<String, Object> cow = new CopyOnWriteHashMap<String, Object>();
+        final Lookup cowLookup = new Lookup() {
+            @Override
+            public Object get(final String key) { return cow.get(key); }
+            @Override
+            public void put(final String key, final Object value) { cow.putIfAbsent(key, value); }
+            @Override
+            public void remove(final String key) { cow.remove(key); }
+        };
+        final Object lock = new Object();
+        final HashMap<String, Object> locked = new HashMap<String, Object>();
+        final Lookup lockedLookup = new Lookup() {
+            @Override
+            public Object get(final String key) { synchronized(lock) { return locked.get(key); } }
+            @Override
+            public void put(final String key, final Object value) { synchronized(lock) { locked.put(key, value); } }
+            @Override
+            public void remove(final String key) { synchronized(lock) { locked.remove(key); } }
+        };
+        // warm-up
+        stress(cowLookup, threadCount, loops/10);
+        stress(lockedLookup, threadCount, loops/10);
+
+        final long tLocked = stress(lockedLookup, threadCount, loops);
+        final long tCOW = stress(cowLookup, threadCount, loops);
+        System.err.printf("Context type lookup, %d threads x %d: global lock %.2f ms, copy-on-write %.2f ms, speedup %.2fx%n",
+                          threadCount, loops, tLocked/1e6, tCOW/1e6, (double)tLocked/tCOW);
+        for(int i=0; i<KEY_COUNT; i++) {
+            final Object v = cow.get(keys[i]);
+            Assert.assertTrue(null == v || keys[i] == v);
+        }
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestCopyOnWriteHashMap00NOUI.class.getName());
+    }
+}
@@ -0,0 +1,176 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore;
+
+import java.util.List;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL4bc;
+import com.jogamp.opengl.GLCallProfiler;
+import com.jogamp.opengl.GLPipelineFactory;
+import com.jogamp.opengl.ProfileGL4bc;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.junit.util.JunitTracer;
+import com.jogamp.opengl.test.junit.jogl.acore.TestGLStateCache00NOUI.RecordingGL;
+
+/**
+ * Tests {@link GLCallProfiler} call counting, time sampling and top-N reports
+ * via the {@link ProfileGL4bc} pipeline on top of a recording mock {@link GL4bc}.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestGLCallProfiler00NOUI extends JunitTracer {
+
+    static GL4bc createPipeline(final RecordingGL mock, final GLCallProfiler profiler) {
+        final GL gl = GLPipelineFactory.create(GLCallProfiler.PIPELINE_BASE_NAME, null, mock.gl, new Object[] { profiler });
+        Assert.assertTrue(gl instanceof ProfileGL4bc);
+        Assert.assertSame(profiler, ((ProfileGL4bc)gl).getProfiler());
+        Assert.assertSame(mock.gl, gl.getDownstreamGL());
+        return (GL4bc)gl;
+    }
+
+    static void render(final GL4bc gl, final int frames) {
+        final float[] v = new float[16];
+        for(int f=0; f<frames; f++) {
+            gl.glUseProgram(1);
+            for(int i=0; i<10; i++) {
+                gl.glUniform4fv(0, 1, v, 0);
+                gl.glUniform1i(1, i);
+                gl.glUniformMatrix4fv(2, 1, false, v, 0);
+                gl.glBindTexture(GL.GL_TEXTURE_2D, i);
+                gl.glDrawArrays(GL.GL_TRIANGLES, 0, 3);
+            }
+            gl.glUniform4fv(0, 1, v, 0);
+        }
+    }
+
+    @Test
+    public void test01CallCounts() {
+        final RecordingGL mock = new RecordingGL();
+        final GLCallProfiler profiler = new GLCallProfiler();
+        final GL4bc gl = createPipeline(mock, profiler);
+        render(gl, 10);
+
+        // all calls are passed through
+        Assert.assertEquals(10, mock.count("glUseProgram"));
+        Assert.assertEquals(110, mock.count("glUniform4fv"));
+        Assert.assertEquals(100, mock.count("glDrawArrays"));
+
+        Assert.assertEquals(10, profiler.getCallCount("glUseProgram"));
+        Assert.assertEquals(110, profiler.getCallCount("glUniform4fv"));
+        Assert.assertEquals(100, profiler.getCallCount("glUniform1i"));
+        Assert.assertEquals(0, profiler.getCallCount("glClear"));
+        Assert.assertEquals(10+110+100+100+100+100, profiler.getCallCount());
+
+        final List<GLCallProfiler.Entry> top = profiler.getTopCalls(2);
+        Assert.assertEquals(2, top.size());
+        Assert.assertEquals("glUniform4fv", top.get(0).name);
+        Assert.assertEquals(110, top.get(0).calls);
+        Assert.assertEquals(100, top.get(1).calls);
+        Assert.assertEquals(6, profiler.getTopCalls(100).size());
+
+        // w/o sampling families are ordered by call count
+        final List<GLCallProfiler.Entry> families = profiler.getTopFamilies(10);
+        Assert.assertEquals(5, families.size());
+        Assert.assertEquals("glUniform", families.get(0).name);
+        Assert.assertEquals(210, families.get(0).calls);
+        Assert.assertEquals(0, families.get(0).getEstimatedNanos());
+        System.err.println(profiler.getReport(5));
+
+        profiler.reset();
+        Assert.assertEquals(0, profiler.getCallCount());
+        Assert.assertEquals(0, profiler.getTopCalls(10).size());
+    }
+
+    @Test
+    public void test02FamilyNames() {
+        Assert.assertEquals("glUniform", GLCallProfiler.getFamilyName("glUniform4fv"));
+        Assert.assertEquals("glUniform", GLCallProfiler.getFamilyName("glUniform1i"));
+        Assert.assertEquals("glUniformMatrix", GLCallProfiler.getFamilyName("glUniformMatrix4fv"));
+        Assert.assertEquals("glUniformMatrix", GLCallProfiler.getFamilyName("glUniformMatrix2x3fv"));
+        Assert.assertEquals("glVertexAttrib", GLCallProfiler.getFamilyName("glVertexAttrib4Nub"));
+        Assert.assertEquals("glVertexAttribI", GLCallProfiler.getFamilyName("glVertexAttribI4ui"));
+        Assert.assertEquals("glColor", GLCallProfiler.getFamilyName("glColor4ub"));
+        Assert.assertEquals("glDrawArrays", GLCallProfiler.getFamilyName("glDrawArrays"));
+        Assert.assertEquals("glTexImage2D", GLCallProfiler.getFamilyName("glTexImage2D"));
+        Assert.assertEquals("glGetBufferParameteri64v", GLCallProfiler.getFamilyName("glGetBufferParameteri64v"));
+    }
+
+    @Test
+    public void test03Sampling() {
+        final RecordingGL mock = new RecordingGL();
+        final GLCallProfiler profiler = new GLCallProfiler(4);
+        Assert.assertEquals(4, profiler.getSampleInterval());
+        final GL4bc gl = createPipeline(mock, profiler);
+        render(gl, 8);
+
+        final List<GLCallProfiler.Entry> calls = profiler.getTopCalls(1);
+        Assert.assertEquals("glUniform4fv", calls.get(0).name);
+        Assert.assertEquals(88, calls.get(0).calls);
+        Assert.assertEquals(22, calls.get(0).sampledCalls);
+
+        for(final GLCallProfiler.Entry e : profiler.getTopFamilies(10)) {
+            Assert.assertEquals(e.calls / 4, e.sampledCalls);
+            Assert.assertTrue(e.getEstimatedNanos() >= e.sampledNanos);
+        }
+        System.err.println(profiler.getReport(3));
+
+        profiler.setSampleInterval(0);
+        Assert.assertEquals(0, profiler.getSampleInterval());
+        render(gl, 8);
+        Assert.assertEquals(22, profiler.getTopCalls(1).get(0).sampledCalls);
+
+        try {
+            profiler.setSampleInterval(3);
+            Assert.fail("non power of two sample interval must be rejected");
+        } catch (final IllegalArgumentException e) { }
+    }
+
+    @Test
+    public void test04PipelineType() {
+        final RecordingGL mock = new RecordingGL();
+        final GLCallProfiler profiler = new GLCallProfiler();
+        final GL4bc gl0 = createPipeline(mock, profiler);
+        final GL4bc gl1 = createPipeline(mock, profiler); // same pipeline type, shared counters
+        gl0.glUseProgram(1);
+        gl1.glUseProgram(1);
+        Assert.assertEquals(2, profiler.getCallCount("glUseProgram"));
+        try {
+            profiler.attach(new String[] { "glUseProgram" });
+            Assert.fail("different pipeline type must be rejected");
+        } catch (final IllegalStateException e) { }
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestGLCallProfiler00NOUI.class.getName());
+    }
+}
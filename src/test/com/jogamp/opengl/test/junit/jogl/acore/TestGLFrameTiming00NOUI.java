@@ -0,0 +1,191 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.junit.util.JunitTracer;
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLEventListener;
+import com.jogamp.opengl.GLRunnable;
+import com.jogamp.opengl.util.GLFrameTiming;
+import com.jogamp.opengl.util.TimeHistogram;
+
+import jogamp.opengl.GLDrawableHelper;
+
+/**
+ * {@link GLFrameTiming} per listener breakdown recorded by {@link GLDrawableHelper#display(GLAutoDrawable)},
+ * using a fake {@link GLAutoDrawable}, no GPU required.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestGLFrameTiming00NOUI extends JunitTracer {
+    static final long MS = 1000000L;
+
+    static final GLAutoDrawable fakeDrawable = (GLAutoDrawable) Proxy.newProxyInstance(GLAutoDrawable.class.getClassLoader(),
+            new Class<?>[] { GLAutoDrawable.class }, new InvocationHandler() {
+                @Override
+                public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                    final String name = method.getName();
+                    if( "hashCode".equals(name) ) {
+                        return Integer.valueOf(System.identityHashCode(proxy));
+                    } else if( "equals".equals(name) ) {
+                        return Boolean.valueOf(proxy == args[0]);
+                    } else if( "toString".equals(name) ) {
+                        return "FakeDrawable";
+                    }
+                    final Class<?> rt = method.getReturnType();
+                    if( boolean.class == rt ) {
+                        return Boolean.FALSE;
+                    } else if( rt.isPrimitive() && void.class != rt ) {
+                        return Integer.valueOf(0);
+                    }
+                    return null;
+                } });
+
+    /** Listener busy for a given duration per display. */
+    static class BusyListener implements GLEventListener {
+        final long displayNanos;
+        int displayCount = 0;
+        BusyListener(final long displayNanos) { this.displayNanos = displayNanos; }
+        @Override
+        public void init(final GLAutoDrawable drawable) { }
+        @Override
+        public void dispose(final GLAutoDrawable drawable) { }
+        @Override
+        public void display(final GLAutoDrawable drawable) {
+            displayCount++;
+            final long t0 = System.nanoTime();
+            while( System.nanoTime() - t0 < displayNanos ) { }
+        }
+        @Override
+        public void reshape(final GLAutoDrawable drawable, final int x, final int y, final int width, final int height) { }
+    }
+
+    @Test
+    public void test01PerListener() {
+        final GLDrawableHelper helper = new GLDrawableHelper();
+        final BusyListener cheap = new BusyListener(0);
+        final BusyListener costly = new BusyListener(2*MS);
+        helper.addGLEventListener(cheap);
+        helper.addGLEventListener(costly);
+        helper.setGLEventListenerInitState(cheap, true);
+        helper.setGLEventListenerInitState(costly, true);
+
+        helper.display(fakeDrawable); // not attached
+        Assert.assertNull(helper.getFrameTiming());
+
+        final GLFrameTiming ft = new GLFrameTiming();
+        Assert.assertNull(helper.setFrameTiming(ft));
+        Assert.assertSame(ft, helper.getFrameTiming());
+        for(int i=0; i<10; i++) {
+            helper.display(fakeDrawable);
+        }
+        System.err.println(ft);
+        Assert.assertEquals(11, costly.displayCount);
+        Assert.assertEquals(10, ft.getDisplayHistogram().getCount());
+        Assert.assertEquals(2, ft.getListenerHistograms().size());
+        final TimeHistogram hCheap = ft.getListenerHistogram(cheap);
+        final TimeHistogram hCostly = ft.getListenerHistogram(costly);
+        Assert.assertEquals(10, hCheap.getCount());
+        Assert.assertEquals(10, hCostly.getCount());
+        Assert.assertTrue(hCostly.getMin() >= 2*MS);
+        Assert.assertTrue(hCheap.getMax() < hCostly.getMin());
+        Assert.assertTrue(ft.getDisplayHistogram().getSum() >= hCheap.getSum() + hCostly.getSum());
+        Assert.assertEquals(0, ft.getRunnableHistogram().getCount());
+
+        Assert.assertSame(ft, helper.setFrameTiming(null));
+        helper.display(fakeDrawable);
+        Assert.assertEquals(10, hCostly.getCount());
+
+        ft.reset();
+        Assert.assertEquals(0, ft.getDisplayHistogram().getCount());
+        Assert.assertEquals(0, hCostly.getCount());
+        Assert.assertSame(hCostly, ft.getListenerHistogram(costly));
+        ft.removeListener(costly);
+        Assert.assertEquals(1, ft.getListenerHistograms().size());
+    }
+
+    @Test
+    public void test02RunnableWait() throws InterruptedException {
+        final GLDrawableHelper helper = new GLDrawableHelper();
+        final GLFrameTiming ft = new GLFrameTiming();
+        helper.setFrameTiming(ft);
+        final int[] runs = { 0 };
+        final GLRunnable r = new GLRunnable() {
+            @Override
+            public boolean run(final GLAutoDrawable drawable) {
+                runs[0]++;
+                return true;
+            } };
+        helper.enqueue(r);
+        helper.enqueue(r);
+        Thread.sleep(5);
+        helper.display(fakeDrawable);
+        Assert.assertEquals(2, runs[0]);
+        Assert.assertEquals(1, ft.getRunnableHistogram().getCount());
+        Assert.assertEquals(2, ft.getRunnableWaitHistogram().getCount());
+        Assert.assertTrue(ft.getRunnableWaitHistogram().getMin() >= 5*MS);
+
+        helper.display(fakeDrawable); // empty queue
+        Assert.assertEquals(1, ft.getRunnableHistogram().getCount());
+    }
+
+    @Test
+    public void test03Export() {
+        final GLFrameTiming ft = new GLFrameTiming();
+        final BusyListener l = new BusyListener(0);
+        ft.getListenerHistogram(l).record(3*MS);
+        ft.getSwapHistogram().record(1*MS);
+        final String csv = ft.toCSV(null).toString();
+        System.err.print(csv);
+        final String[] lines = csv.split(System.lineSeparator());
+        Assert.assertEquals("phase,count,sum,min,mean,p50,p90,p99,max", lines[0]);
+        Assert.assertEquals(1+7, lines.length);
+        boolean foundListener = false;
+        for(final String line : lines) {
+            Assert.assertEquals(9, line.split(",").length);
+            if( line.startsWith("listener:"+BusyListener.class.getName()) ) {
+                foundListener = true;
+                Assert.assertTrue(line, line.endsWith(",1,3000000,3000000,3000000,3000000,3000000,3000000,3000000"));
+            }
+        }
+        Assert.assertTrue(foundListener);
+        Assert.assertTrue(lines[7].startsWith("swap,1,1000000,"));
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestGLFrameTiming00NOUI.class.getName());
+    }
+}
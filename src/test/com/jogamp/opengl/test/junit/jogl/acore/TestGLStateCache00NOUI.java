@@ -0,0 +1,314 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2;
+import com.jogamp.opengl.GL2ES3;
+import com.jogamp.opengl.GL4bc;
+import com.jogamp.opengl.GLES2;
+import com.jogamp.opengl.GLES3;
+import com.jogamp.opengl.GLException;
+import com.jogamp.opengl.GLPipelineFactory;
+import com.jogamp.opengl.GLStateCache;
+import com.jogamp.opengl.StateCacheGL4bc;
+import com.jogamp.opengl.StateCacheGLES3;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.junit.util.JunitTracer;
+
+/**
+ * Tests {@link GLStateCache} redundant call elimination
+ * via the {@link StateCacheGL4bc} and {@link StateCacheGLES3} pipelines on top of recording mock {@link GL} instances.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestGLStateCache00NOUI extends JunitTracer {
+
+    /**
+     * Records all <code>gl*</code> calls, answers <code>isGL*</code> with true and <code>getGL*</code> with itself.
+     * <p>
+     * With an ES2 identity, only {@link GL#isGLES2()} and its super profiles are true
+     * and <code>getGL*</code> of other profiles throws a {@link GLException} like GLES3Impl of an ES2 context.
+     * </p>
+     */
+    static class RecordingGL implements InvocationHandler {
+        private static final List<String> es2Profiles = Arrays.asList("GL", "GLES", "GLES2", "GL2ES2", "GLES2Compatible");
+        final List<String> calls = new ArrayList<String>();
+        final GL gl;
+        final boolean es2;
+
+        RecordingGL() {
+            this(GL4bc.class, false);
+        }
+        RecordingGL(final Class<? extends GL> iface, final boolean es2) {
+            this.gl = (GL) Proxy.newProxyInstance(RecordingGL.class.getClassLoader(), new Class<?>[] { iface }, this);
+            this.es2 = es2;
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method m, final Object[] args) {
+            final String name = m.getName();
+            if( name.startsWith("isGL") ) {
+                return Boolean.valueOf( !es2 || es2Profiles.contains(name.substring(2)) );
+            } else if( name.startsWith("getGL") ) {
+                if( es2 && !es2Profiles.contains(name.substring(3)) ) {
+                    throw new GLException("Not a "+name.substring(3)+" implementation");
+                }
+                return gl;
+            } else if( name.equals("hashCode") ) {
+                return Integer.valueOf(System.identityHashCode(proxy));
+            } else if( name.equals("equals") ) {
+                return Boolean.valueOf(proxy == args[0]);
+            } else if( name.equals("toString") ) {
+                return "RecordingGL";
+            }
+            if( name.startsWith("gl") ) {
+                final StringBuilder sb = new StringBuilder(name);
+                for(int i=0; null != args && i<args.length; i++) {
+                    sb.append(0==i ? "(" : ", ").append(args[i] instanceof Integer ? "0x"+Integer.toHexString(((Integer)args[i]).intValue()) : String.valueOf(args[i]));
+                }
+                calls.add(sb.append(null != args ? ")" : "()").toString());
+                if( name.equals("glGetIntegerv") && GL.GL_ACTIVE_TEXTURE == ((Integer)args[0]).intValue() ) {
+                    ((int[])args[1])[((Integer)args[2]).intValue()] = GL.GL_TEXTURE0;
+                }
+            }
+            final Class<?> rt = m.getReturnType();
+            if( rt == Boolean.TYPE ) {
+                return Boolean.FALSE;
+            } else if( rt == Integer.TYPE ) {
+                return Integer.valueOf(0);
+            } else if( rt == Long.TYPE ) {
+                return Long.valueOf(0);
+            } else if( rt == Float.TYPE ) {
+                return Float.valueOf(0);
+            } else if( rt == Double.TYPE ) {
+                return Double.valueOf(0);
+            } else if( rt == Short.TYPE ) {
+                return Short.valueOf((short)0);
+            } else if( rt == Byte.TYPE ) {
+                return Byte.valueOf((byte)0);
+            }
+            return null;
+        }
+        int count(final String prefix) {
+            int n = 0;
+            for(final String c : calls) {
+                if( c.startsWith(prefix) ) { n++; }
+            }
+            return n;
+        }
+    }
+
+    static GL4bc createPipeline(final RecordingGL mock, final GLStateCache cache) {
+        final GL gl = GLPipelineFactory.create("com.jogamp.opengl.StateCache", null, mock.gl, new Object[] { cache });
+        Assert.assertTrue(gl instanceof StateCacheGL4bc);
+        Assert.assertSame(mock.gl, gl.getDownstreamGL());
+        return (GL4bc)gl;
+    }
+
+    @Test
+    public void test01ProgramAndCapabilities() {
+        final RecordingGL mock = new RecordingGL();
+        final GLStateCache cache = new GLStateCache(mock.gl);
+        final GL4bc gl = createPipeline(mock, cache);
+
+        for(int i=0; i<10; i++) {
+            gl.glUseProgram(3);
+            gl.glEnable(GL.GL_BLEND);
+            gl.glBlendFunc(GL.GL_SRC_ALPHA, GL.GL_ONE_MINUS_SRC_ALPHA);
+            gl.glDisable(GL.GL_DEPTH_TEST);
+            gl.glDepthMask(false);
+        }
+        Assert.assertEquals(1, mock.count("glUseProgram"));
+        Assert.assertEquals(1, mock.count("glEnable"));
+        Assert.assertEquals(1, mock.count("glBlendFunc"));
+        Assert.assertEquals(1, mock.count("glDisable"));
+        Assert.assertEquals(1, mock.count("glDepthMask"));
+        Assert.assertEquals(9, cache.getDroppedCount(GLStateCache.PROGRAM));
+        Assert.assertEquals(18, cache.getDroppedCount(GLStateCache.CAPABILITY));
+        Assert.assertEquals(9, cache.getDroppedCount(GLStateCache.BLEND));
+        Assert.assertEquals(9, cache.getDroppedCount(GLStateCache.DEPTH));
+        Assert.assertEquals(45, cache.getDroppedCount());
+        Assert.assertEquals(5, cache.getIssuedCount());
+
+        // state changes are always issued
+        gl.glUseProgram(0);
+        gl.glDisable(GL.GL_BLEND);
+        gl.glEnable(GL.GL_BLEND);
+        gl.glBlendFuncSeparate(GL.GL_SRC_ALPHA, GL.GL_ONE_MINUS_SRC_ALPHA, GL.GL_SRC_ALPHA, GL.GL_ONE_MINUS_SRC_ALPHA);
+        gl.glBlendFunc(GL.GL_ONE, GL.GL_ONE);
+        Assert.assertEquals(2, mock.count("glUseProgram"));
+        Assert.assertEquals(2, mock.count("glEnable"));
+        Assert.assertEquals(2, mock.count("glDisable"));
+        Assert.assertEquals(2, mock.count("glBlendFunc("));
+        Assert.assertEquals(0, mock.count("glBlendFuncSeparate")); // equal to glBlendFunc state
+        Assert.assertEquals(46, cache.getDroppedCount());
+
+        // per texture unit fixed function enables are passed through
+        gl.glEnable(GL.GL_TEXTURE_2D);
+        gl.glEnable(GL.GL_TEXTURE_2D);
+        Assert.assertEquals(4, mock.count("glEnable"));
+
+        // other calls are passed through
+        gl.glDrawArrays(GL.GL_TRIANGLES, 0, 3);
+        gl.glDrawArrays(GL.GL_TRIANGLES, 0, 3);
+        Assert.assertEquals(2, mock.count("glDrawArrays"));
+        System.err.println(cache);
+    }
+
+    @Test
+    public void test02TexturesAndBuffers() {
+        final RecordingGL mock = new RecordingGL();
+        final GLStateCache cache = new GLStateCache(mock.gl);
+        final GL4bc gl = createPipeline(mock, cache);
+
+        gl.glBindTexture(GL.GL_TEXTURE_2D, 1);
+        gl.glBindTexture(GL.GL_TEXTURE_2D, 1);
+        gl.glActiveTexture(GL.GL_TEXTURE1);
+        gl.glBindTexture(GL.GL_TEXTURE_2D, 1); // other unit
+        gl.glBindTexture(GL.GL_TEXTURE_2D, 1);
+        gl.glActiveTexture(GL.GL_TEXTURE1);
+        gl.glActiveTexture(GL.GL_TEXTURE0);
+        gl.glBindTexture(GL.GL_TEXTURE_2D, 1);
+        gl.glBindTexture(GL.GL_TEXTURE_CUBE_MAP, 1); // other target
+        Assert.assertEquals(3, mock.count("glBindTexture"));
+        Assert.assertEquals(2, mock.count("glActiveTexture"));
+        Assert.assertEquals(1, mock.count("glGetIntegerv")); // initial active texture unit query only
+        Assert.assertEquals(4, cache.getDroppedCount(GLStateCache.TEXTURE));
+
+        // deletion reverts bindings to zero, a re-generated name must be bound again
+        gl.glDeleteTextures(1, new int[] { 1 }, 0);
+        gl.glBindTexture(GL.GL_TEXTURE_2D, 1);
+        Assert.assertEquals(4, mock.count("glBindTexture"));
+
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 5);
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 5);
+        gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, 6);
+        gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, 6);
+        Assert.assertEquals(2, mock.count("glBindBuffer("));
+        Assert.assertEquals(2, cache.getDroppedCount(GLStateCache.BUFFER));
+
+        // element array binding is part of the vertex array state
+        gl.glBindVertexArray(2);
+        gl.glBindVertexArray(2);
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 5);
+        gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, 6);
+        Assert.assertEquals(1, mock.count("glBindVertexArray"));
+        Assert.assertEquals(3, mock.count("glBindBuffer("));
+        Assert.assertEquals(4, cache.getDroppedCount(GLStateCache.BUFFER));
+
+        gl.glDeleteBuffers(1, new int[] { 5 }, 0);
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 5);
+        Assert.assertEquals(4, mock.count("glBindBuffer("));
+    }
+
+    @Test
+    public void test03InvalidateAndDisable() {
+        final RecordingGL mock = new RecordingGL();
+        final GLStateCache cache = new GLStateCache(mock.gl);
+        final GL4bc gl = createPipeline(mock, cache);
+
+        gl.glUseProgram(3);
+        gl.glEnable(GL.GL_CULL_FACE);
+        gl.glPushAttrib(GL2.GL_ENABLE_BIT);
+        gl.glDisable(GL.GL_CULL_FACE);
+        gl.glPopAttrib();
+        gl.glDisable(GL.GL_CULL_FACE); // state unknown after pop
+        Assert.assertEquals(2, mock.count("glDisable"));
+
+        cache.invalidate();
+        gl.glUseProgram(3);
+        Assert.assertEquals(2, mock.count("glUseProgram"));
+
+        cache.setEnabled(false);
+        Assert.assertFalse(cache.isEnabled());
+        gl.glUseProgram(3);
+        gl.glUseProgram(3);
+        Assert.assertEquals(4, mock.count("glUseProgram"));
+
+        cache.setEnabled(true);
+        gl.glUseProgram(3);
+        gl.glUseProgram(3);
+        Assert.assertEquals(5, mock.count("glUseProgram"));
+
+        cache.resetCounter();
+        Assert.assertEquals(0, cache.getDroppedCount());
+        Assert.assertEquals(0, cache.getIssuedCount());
+    }
+
+    @Test
+    public void test04ES2VertexArrays() {
+        final RecordingGL mock = new RecordingGL(GLES3.class, true);
+        Assert.assertTrue(mock.gl.isGLES2());
+        Assert.assertFalse(mock.gl.isGL2ES3());
+        final GLStateCache cache = new GLStateCache(mock.gl);
+        final GL gl = GLPipelineFactory.create("com.jogamp.opengl.StateCache", null, mock.gl, new Object[] { cache });
+        Assert.assertTrue(gl instanceof StateCacheGLES3);
+        Assert.assertSame(mock.gl, gl.getDownstreamGL());
+        final GLES3 gles = (GLES3)gl;
+
+        // ES2 w/ OES_vertex_array_object, dispatched by GLES3Impl
+        gles.glBindVertexArray(2);
+        gles.glBindVertexArray(2);
+        gles.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, 6);
+        gles.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, 6);
+        Assert.assertEquals(1, mock.count("glBindVertexArray"));
+        Assert.assertEquals(1, mock.count("glBindBuffer("));
+        Assert.assertEquals(2, cache.getDroppedCount(GLStateCache.BUFFER));
+
+        gles.glDeleteVertexArrays(1, new int[] { 2 }, 0);
+        gles.glBindVertexArray(2);
+        Assert.assertEquals(1, mock.count("glDeleteVertexArrays"));
+        Assert.assertEquals(2, mock.count("glBindVertexArray"));
+
+        gles.glBindBufferBase(GL2ES3.GL_UNIFORM_BUFFER, 0, 7);
+        Assert.assertEquals(1, mock.count("glBindBufferBase"));
+
+        gles.glUseProgram(3);
+        gles.glUseProgram(3);
+        gles.glBindTexture(GLES2.GL_TEXTURE_EXTERNAL_OES, 1);
+        gles.glBindTexture(GLES2.GL_TEXTURE_EXTERNAL_OES, 1);
+        Assert.assertEquals(1, mock.count("glUseProgram"));
+        Assert.assertEquals(1, mock.count("glBindTexture"));
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestGLStateCache00NOUI.class.getName());
+    }
+}
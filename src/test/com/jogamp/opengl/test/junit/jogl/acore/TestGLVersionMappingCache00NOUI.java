@@ -0,0 +1,190 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Properties;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import jogamp.opengl.GLVersionMappingCache;
+
+import com.jogamp.junit.util.JunitTracer;
+import com.jogamp.opengl.GLRendererQuirks;
+
+/**
+ * Tests the persistent {@link GLVersionMappingCache} w/o a GL context:
+ * round trip incl. {@link GLRendererQuirks}, build invalidation, removal and malformed entries.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestGLVersionMappingCache00NOUI extends JunitTracer {
+    static final String BUILD = "2.5.0-test";
+    static final String VENDOR = "JogAmp Test Vendor";
+    static final String RENDERER = "Test Renderer 1.0";
+    static final String VENDOR_VERSION = "23.1.0";
+    static final int[] MAPPING = {
+        4, 0x4, 0x04060000 | 0x0004,   // GL4 core -> 4.6 core
+        4, 0x2, 0x04060000 | 0x0002,   // GL4 compat -> 4.6 compat
+        2, 0x8, 0x03020000 | 0x0008 }; // ES2 -> ES 3.2
+
+    static File createTempFile() throws IOException {
+        final File f = File.createTempFile("glversion-cache", ".properties");
+        f.delete();
+        f.deleteOnExit();
+        return f;
+    }
+
+    @Test
+    public void test01RoundTrip() throws IOException {
+        final File f = createTempFile();
+        final String key = GLVersionMappingCache.getDeviceKey(".x11", ":0.0", 0);
+        {
+            final GLVersionMappingCache c = new GLVersionMappingCache(f, BUILD);
+            Assert.assertNull(c.get(key));
+            c.put(key, new GLVersionMappingCache.Entry(MAPPING, VENDOR, RENDERER, VENDOR_VERSION));
+        }
+        Assert.assertTrue(f.isFile());
+        Assert.assertFalse(new File(f.getPath()+".tmp").exists());
+
+        final GLVersionMappingCache c = new GLVersionMappingCache(f, BUILD);
+        final GLVersionMappingCache.Entry e = c.get(key);
+        Assert.assertNotNull(e);
+        Assert.assertArrayEquals(MAPPING, e.mapping);
+        Assert.assertTrue(e.matches(VENDOR, RENDERER, VENDOR_VERSION));
+        Assert.assertFalse(e.matches(VENDOR, RENDERER, "23.1.1"));
+        Assert.assertFalse(e.matches(VENDOR, "Other Renderer", VENDOR_VERSION));
+
+        // other device connection is a separate entry
+        Assert.assertNull(c.get(GLVersionMappingCache.getDeviceKey(".x11", ":1.0", 0)));
+        Assert.assertNull(c.get(GLVersionMappingCache.getDeviceKey(".egl", ":0.0", 0)));
+        f.delete();
+    }
+
+    @Test
+    public void test02BuildInvalidation() throws IOException {
+        final File f = createTempFile();
+        final String key = GLVersionMappingCache.getDeviceKey(".x11", ":0.0", 0);
+        new GLVersionMappingCache(f, BUILD).put(key, new GLVersionMappingCache.Entry(MAPPING, VENDOR, RENDERER, VENDOR_VERSION));
+        Assert.assertNotNull(new GLVersionMappingCache(f, BUILD).get(key));
+        Assert.assertNull(new GLVersionMappingCache(f, BUILD+"-other").get(key));
+        f.delete();
+    }
+
+    @Test
+    public void test03Remove() throws IOException {
+        final File f = createTempFile();
+        final String key0 = GLVersionMappingCache.getDeviceKey(".x11", ":0.0", 0);
+        final String key1 = GLVersionMappingCache.getDeviceKey(".x11", ":1.0", 0);
+        {
+            final GLVersionMappingCache c = new GLVersionMappingCache(f, BUILD);
+            c.put(key0, new GLVersionMappingCache.Entry(MAPPING, VENDOR, RENDERER, VENDOR_VERSION));
+            c.put(key1, new GLVersionMappingCache.Entry(MAPPING, VENDOR, RENDERER, VENDOR_VERSION));
+            c.remove(key0);
+            Assert.assertNull(c.get(key0));
+        }
+        final GLVersionMappingCache c = new GLVersionMappingCache(f, BUILD);
+        Assert.assertNull(c.get(key0));
+        Assert.assertNotNull(c.get(key1));
+        f.delete();
+    }
+
+    @Test
+    public void test04Malformed() throws IOException {
+        final File f = createTempFile();
+        final String key = GLVersionMappingCache.getDeviceKey(".x11", ":0.0", 0);
+        final Properties p = new Properties();
+        p.setProperty("jogl.build", BUILD);
+        p.setProperty(key+".map", "4:4:zz,2");
+        p.setProperty(key+".vendor", VENDOR);
+        p.setProperty(key+".renderer", RENDERER);
+        p.setProperty(key+".vendorVersion", VENDOR_VERSION);
+        final FileOutputStream out = new FileOutputStream(f);
+        try {
+            p.store(out, null);
+        } finally {
+            out.close();
+        }
+        Assert.assertNull(new GLVersionMappingCache(f, BUILD).get(key));
+
+        // missing file is an empty cache
+        Assert.assertNull(new GLVersionMappingCache(new File(f.getPath()+".none"), BUILD).get(key));
+        f.delete();
+    }
+
+    @Test
+    public void test05Quirks() throws IOException {
+        final File f = createTempFile();
+        final String key = GLVersionMappingCache.getDeviceKey(".x11", ":0.0", 0);
+        final int[] quirks = { 1 << GLRendererQuirks.NoDoubleBufferedPBuffer, 0,
+                               ( 1 << GLRendererQuirks.GLES3ViaEGLES2Config ) | ( 1 << GLRendererQuirks.NoSurfacelessCtx ) };
+        final int sticky = ( 1 << GLRendererQuirks.NoARBCreateContext ) | ( 1 << GLRendererQuirks.NoFBOSupport );
+        new GLVersionMappingCache(f, BUILD).put(key, new GLVersionMappingCache.Entry(MAPPING, quirks, sticky, VENDOR, RENDERER, VENDOR_VERSION));
+
+        final GLVersionMappingCache.Entry e = new GLVersionMappingCache(f, BUILD).get(key);
+        Assert.assertNotNull(e);
+        Assert.assertArrayEquals(MAPPING, e.mapping);
+        Assert.assertArrayEquals(quirks, e.quirks);
+        Assert.assertEquals(sticky, e.stickyQuirks);
+
+        // bitmask <-> GLRendererQuirks
+        final GLRendererQuirks q = GLVersionMappingCache.getQuirks(quirks[2]);
+        Assert.assertTrue(q.exist(GLRendererQuirks.GLES3ViaEGLES2Config));
+        Assert.assertTrue(q.exist(GLRendererQuirks.NoSurfacelessCtx));
+        Assert.assertFalse(q.exist(GLRendererQuirks.NoDoubleBufferedPBuffer));
+        Assert.assertEquals(quirks[2], GLVersionMappingCache.getQuirksBitmask(q));
+        Assert.assertEquals(0, GLVersionMappingCache.getQuirksBitmask(null));
+
+        // quirks not matching the mappings
+        final Properties p = new Properties();
+        final FileInputStream in = new FileInputStream(f);
+        try {
+            p.load(in);
+        } finally {
+            in.close();
+        }
+        p.setProperty(key+".quirks", "1,0");
+        final FileOutputStream out = new FileOutputStream(f);
+        try {
+            p.store(out, null);
+        } finally {
+            out.close();
+        }
+        Assert.assertNull(new GLVersionMappingCache(f, BUILD).get(key));
+        f.delete();
+    }
+
+    public static void main(final String args[]) throws IOException {
+        org.junit.runner.JUnitCore.main(TestGLVersionMappingCache00NOUI.class.getName());
+    }
+}
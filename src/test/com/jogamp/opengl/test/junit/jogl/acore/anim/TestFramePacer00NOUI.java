@@ -0,0 +1,169 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore.anim;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.junit.util.JunitTracer;
+import com.jogamp.opengl.util.FramePacer;
+import com.jogamp.opengl.util.TimeHistogram;
+
+/**
+ * Deterministic {@link FramePacer} and {@link TimeHistogram} tests on a synthetic clock.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestFramePacer00NOUI extends JunitTracer {
+    static final long MS = 1000000L;
+    static final long PERIOD = 10*MS;
+
+    @Test
+    public void test01Histogram() {
+        final TimeHistogram h = new TimeHistogram();
+        Assert.assertEquals(0, h.getPercentile(0.5f));
+        Assert.assertEquals(0, TimeHistogram.getBucketIndex(999));
+        Assert.assertEquals(1, TimeHistogram.getBucketIndex(1000));
+        Assert.assertEquals(2, TimeHistogram.getBucketIndex(2000));
+        Assert.assertEquals(2, TimeHistogram.getBucketIndex(3999));
+        Assert.assertEquals(TimeHistogram.BUCKET_COUNT-1, TimeHistogram.getBucketIndex(Long.MAX_VALUE));
+        for(int i=0; i<90; i++) {
+            h.record(100*1000);    // 100us
+        }
+        for(int i=0; i<10; i++) {
+            h.record(5*MS);
+        }
+        h.record(-1); // clamped to zero
+        Assert.assertEquals(101, h.getCount());
+        Assert.assertEquals(0, h.getMin());
+        Assert.assertEquals(5*MS, h.getMax());
+        Assert.assertEquals((90*100*1000L + 10*5*MS)/101, h.getMean());
+        Assert.assertTrue(h.getPercentile(0.5f) >= 100*1000 && h.getPercentile(0.5f) < 2*100*1000);
+        Assert.assertEquals(5*MS, h.getPercentile(0.99f));
+        h.reset();
+        Assert.assertEquals(0, h.getCount());
+        Assert.assertEquals(0, h.getMax());
+    }
+
+    /** Wake-up latency and display cost must not accumulate into drift. */
+    @Test
+    public void test02DriftFree() {
+        final FramePacer p = new FramePacer(PERIOD, FramePacer.Policy.SKIP_FRAMES);
+        long now = 0;
+        p.reset(now);
+        for(int i=0; i<1000; i++) {
+            Assert.assertEquals(i*PERIOD, p.getDeadline());
+            now = p.getDeadline() + 300*1000; // 0.3ms late wake-up
+            Assert.assertEquals(0, p.beginFrame(now));
+            now += 4*MS; // display
+            p.endFrame(now);
+        }
+        Assert.assertEquals(1000*PERIOD, p.getDeadline());
+        Assert.assertEquals(1000, p.getFrameCount());
+        Assert.assertEquals(0, p.getSkippedFrameCount());
+        Assert.assertEquals(4*MS, p.getAverageDisplayNanos());
+        Assert.assertEquals(300*1000, p.getJitterHistogram().getMax());
+        Assert.assertEquals(4*MS, p.getLatencyHistogram().getMean());
+    }
+
+    @Test
+    public void test03SkipFrames() {
+        final FramePacer p = new FramePacer(PERIOD, FramePacer.Policy.SKIP_FRAMES);
+        p.reset(0);
+        p.beginFrame(0);
+        p.endFrame(35*MS); // stall over 3 periods
+        // due at 10ms, now 35ms: slots 10, 20 dropped, render for slot 30
+        Assert.assertEquals(2, p.beginFrame(35*MS));
+        Assert.assertEquals(30*MS, p.getDeadline());
+        p.endFrame(36*MS);
+        Assert.assertEquals(40*MS, p.getDeadline()); // grid phase kept
+        Assert.assertEquals(2, p.getSkippedFrameCount());
+        Assert.assertEquals(2, p.getFrameCount());
+    }
+
+    @Test
+    public void test04CatchUp() {
+        final FramePacer p = new FramePacer(PERIOD, FramePacer.Policy.CATCH_UP);
+        p.setMaxCatchUpFrames(4);
+        p.reset(0);
+        p.beginFrame(0);
+        p.endFrame(1*MS);
+        // stall: slot 10ms rendered at 35ms, slots 20ms and 30ms caught up back-to-back
+        long now = 35*MS;
+        Assert.assertEquals(0, p.beginFrame(now));
+        p.endFrame(now += MS);
+        int burst = 0;
+        while( p.getWaitNanos(now) <= 0 ) {
+            Assert.assertEquals(0, p.beginFrame(now));
+            p.endFrame(now += MS);
+            burst++;
+        }
+        Assert.assertEquals(2, burst); // slots 20 and 30
+        Assert.assertEquals(40*MS, p.getDeadline());
+        Assert.assertEquals(4, p.getFrameCount());
+        Assert.assertEquals(0, p.getSkippedFrameCount());
+
+        // backlog beyond max catch-up frames re-syncs the grid
+        now = p.getDeadline() + 10*PERIOD;
+        Assert.assertEquals(10, p.beginFrame(now));
+        Assert.assertEquals(now, p.getDeadline());
+        p.endFrame(now + MS);
+        Assert.assertEquals(now + PERIOD, p.getDeadline());
+        Assert.assertEquals(1, p.getResyncCount());
+    }
+
+    /** Catching up is pointless if a frame costs more than the period: re-sync instead. */
+    @Test
+    public void test05CatchUpSlowDisplay() {
+        final FramePacer p = new FramePacer(PERIOD, FramePacer.Policy.CATCH_UP);
+        long now = 0;
+        p.reset(now);
+        for(int i=0; i<8; i++) {
+            now = Math.max(now, p.getDeadline());
+            p.beginFrame(now);
+            p.endFrame(now += 25*MS);
+        }
+        Assert.assertTrue(p.getAverageDisplayNanos() >= PERIOD);
+        Assert.assertTrue(p.getResyncCount() > 0);
+        Assert.assertTrue(p.getWaitNanos(now) > -2*PERIOD); // backlog bounded by one frame
+    }
+
+    @Test
+    public void test06Period() {
+        Assert.assertEquals(16666667, FramePacer.getPeriod(60f));
+        try {
+            FramePacer.getPeriod(0f);
+            Assert.fail();
+        } catch (final IllegalArgumentException e) { }
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestFramePacer00NOUI.class.getName());
+    }
+}
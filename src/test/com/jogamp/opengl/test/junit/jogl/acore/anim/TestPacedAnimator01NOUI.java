@@ -0,0 +1,189 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore.anim;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.junit.util.JunitTracer;
+import com.jogamp.opengl.GLAnimatorControl;
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.util.FramePacer;
+import com.jogamp.opengl.util.PacedAnimator;
+
+/**
+ * {@link PacedAnimator} frame pacing w/ a fake {@link GLAutoDrawable}, no GPU required.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestPacedAnimator01NOUI extends JunitTracer {
+    static final long MS = 1000000L;
+
+    /** Fake drawable recording display() start times, optionally busy for a given duration. */
+    static class FakeDrawable implements InvocationHandler {
+        final long[] displayTimes;
+        volatile int displayCount = 0;
+        volatile long displayNanos = 0;
+        volatile Thread ect = null;
+        volatile GLAnimatorControl animator = null;
+        final GLAutoDrawable drawable;
+
+        FakeDrawable(final int maxFrames) {
+            displayTimes = new long[maxFrames];
+            drawable = (GLAutoDrawable) Proxy.newProxyInstance(GLAutoDrawable.class.getClassLoader(),
+                                                               new Class<?>[] { GLAutoDrawable.class }, this);
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            final String name = method.getName();
+            if( "display".equals(name) ) {
+                final long t0 = System.nanoTime();
+                if( displayCount < displayTimes.length ) {
+                    displayTimes[displayCount] = t0;
+                }
+                displayCount++;
+                final long d = displayNanos;
+                while( System.nanoTime() - t0 < d ) { } // simulated render cost
+                return null;
+            } else if( "setExclusiveContextThread".equals(name) ) {
+                final Thread old = ect;
+                ect = (Thread) args[0];
+                return old;
+            } else if( "getExclusiveContextThread".equals(name) ) {
+                return ect;
+            } else if( "setAnimator".equals(name) ) {
+                animator = (GLAnimatorControl) args[0];
+                return null;
+            } else if( "getAnimator".equals(name) ) {
+                return animator;
+            } else if( "hashCode".equals(name) ) {
+                return Integer.valueOf(System.identityHashCode(proxy));
+            } else if( "equals".equals(name) ) {
+                return Boolean.valueOf(proxy == args[0]);
+            } else if( "toString".equals(name) ) {
+                return "FakeDrawable[frames "+displayCount+"]";
+            }
+            final Class<?> rt = method.getReturnType();
+            if( boolean.class == rt ) {
+                return Boolean.FALSE;
+            } else if( rt.isPrimitive() && void.class != rt ) {
+                return Integer.valueOf(0);
+            }
+            return null;
+        }
+    }
+
+    /** Frame starts follow the virtual grid w/o drift. */
+    @Test
+    public void test01Pacing() throws InterruptedException {
+        final float fps = 100f;
+        final FakeDrawable fd = new FakeDrawable(1000);
+        final PacedAnimator anim = new PacedAnimator(0, fd.drawable, fps, FramePacer.Policy.SKIP_FRAMES);
+        anim.getFramePacer().resetStats();
+        Assert.assertTrue(anim.start());
+        Thread.sleep(1000);
+        Assert.assertTrue(anim.stop());
+        final FramePacer p = anim.getFramePacer();
+        System.err.println("Pacing "+fps+" fps: "+p);
+        System.err.println("  park overshoot "+anim.getAverageParkOvershoot()/1e3+" us");
+
+        final int frames = Math.min(fd.displayCount, fd.displayTimes.length);
+        Assert.assertTrue("frames "+frames, frames >= 90 && frames <= 102);
+        // drift: mean frame start interval equals the period
+        final double meanInterval = (fd.displayTimes[frames-1] - fd.displayTimes[0]) / (double)(frames - 1 + p.getSkippedFrameCount());
+        Assert.assertEquals(p.getPeriod(), meanInterval, 0.02*p.getPeriod());
+    }
+
+    /** A display cost exceeding the period drops frames, but keeps the grid. */
+    @Test
+    public void test02SkipFramesSlowDisplay() throws InterruptedException {
+        final FakeDrawable fd = new FakeDrawable(1000);
+        fd.displayNanos = 15*MS;
+        final PacedAnimator anim = new PacedAnimator(0, fd.drawable, 100f, FramePacer.Policy.SKIP_FRAMES);
+        Assert.assertTrue(anim.start());
+        Thread.sleep(500);
+        Assert.assertTrue(anim.stop());
+        final FramePacer p = anim.getFramePacer();
+        System.err.println("SkipFrames slow display: "+p);
+        Assert.assertTrue(p.getSkippedFrameCount() > 0);
+        Assert.assertTrue(p.getAverageDisplayNanos() >= 15*MS);
+        final int frames = Math.min(fd.displayCount, fd.displayTimes.length);
+        for(int i=1; i<frames; i++) {
+            // 2 slots per frame, aligned to the 10ms grid
+            final long dt = fd.displayTimes[i] - fd.displayTimes[i-1];
+            Assert.assertTrue("dt "+dt/1e6, dt >= 15*MS);
+        }
+    }
+
+    /** Pause and stop wake up a parked animation thread immediately, even at a very low frame rate. */
+    @Test
+    public void test03PauseStopLowRate() throws InterruptedException {
+        final FakeDrawable fd = new FakeDrawable(16);
+        final PacedAnimator anim = new PacedAnimator(0, fd.drawable, 0.5f, FramePacer.Policy.CATCH_UP);
+        Assert.assertTrue(anim.start());
+        Thread.sleep(100); // parked for ~2s now
+        long t0 = System.nanoTime();
+        Assert.assertTrue(anim.pause());
+        Assert.assertTrue(anim.isPaused());
+        final long tPause = System.nanoTime() - t0;
+        Assert.assertTrue(anim.resume());
+        Thread.sleep(50);
+        t0 = System.nanoTime();
+        Assert.assertTrue(anim.stop());
+        final long tStop = System.nanoTime() - t0;
+        System.err.printf("Low rate pause %.3f ms, stop %.3f ms, frames %d%n", tPause/1e6, tStop/1e6, fd.displayCount);
+        Assert.assertFalse(anim.isStarted());
+        Assert.assertTrue(tPause < 500*MS);
+        Assert.assertTrue(tStop < 500*MS);
+        Assert.assertEquals(2, fd.displayCount); // 1st frame after start and resume, each due immediately
+    }
+
+    @Test
+    public void test04Config() {
+        final FakeDrawable fd = new FakeDrawable(16);
+        final PacedAnimator anim = new PacedAnimator(0, null, 60f, FramePacer.Policy.SKIP_FRAMES);
+        anim.setFPS(30f);
+        Assert.assertEquals(30f, anim.getFPS(), 0.001f);
+        anim.setPolicy(FramePacer.Policy.CATCH_UP);
+        Assert.assertEquals(FramePacer.Policy.CATCH_UP, anim.getFramePacer().getPolicy());
+        anim.add(fd.drawable);
+        Assert.assertSame(anim, fd.animator);
+        anim.remove(fd.drawable);
+        Assert.assertNull(fd.animator);
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestPacedAnimator01NOUI.class.getName());
+    }
+}
@@ -0,0 +1,297 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore.anim;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.junit.util.JunitTracer;
+import com.jogamp.opengl.GLAnimatorControl;
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.util.ParallelAnimator;
+
+/**
+ * {@link ParallelAnimator} concurrent display w/ fake {@link GLAutoDrawable}s, no GPU required.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestParallelAnimator01NOUI extends JunitTracer {
+    static final long MS = 1000000L;
+
+    /** Fake drawable sleeping for a given duration per display, verifying the exclusive context thread. */
+    static class FakeDrawable implements InvocationHandler {
+        volatile int displayCount = 0;
+        volatile long displaySleepMS = 0;
+        volatile boolean fail = false;
+        volatile Thread ect = null;
+        volatile Thread lastDisplayThread = null;
+        volatile int ectMismatches = 0;
+        volatile GLAnimatorControl animator = null;
+        /** Invoked once within the next display, if not null. */
+        volatile Runnable onDisplay = null;
+        final GLAutoDrawable drawable;
+
+        FakeDrawable(final long displaySleepMS) {
+            this.displaySleepMS = displaySleepMS;
+            drawable = (GLAutoDrawable) Proxy.newProxyInstance(GLAutoDrawable.class.getClassLoader(),
+                                                               new Class<?>[] { GLAutoDrawable.class }, this);
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            final String name = method.getName();
+            if( "display".equals(name) ) {
+                final Thread ct = Thread.currentThread();
+                if( null != ect && ect != ct ) {
+                    ectMismatches++;
+                }
+                lastDisplayThread = ct;
+                if( fail ) {
+                    throw new RuntimeException("Fake display failure");
+                }
+                displayCount++;
+                final Runnable r = onDisplay;
+                if( null != r ) {
+                    onDisplay = null;
+                    r.run();
+                }
+                if( 0 < displaySleepMS ) {
+                    Thread.sleep(displaySleepMS); // simulated GPU wait
+                }
+                return null;
+            } else if( "setExclusiveContextThread".equals(name) ) {
+                final Thread old = ect;
+                ect = (Thread) args[0];
+                return old;
+            } else if( "getExclusiveContextThread".equals(name) ) {
+                return ect;
+            } else if( "setAnimator".equals(name) ) {
+                animator = (GLAnimatorControl) args[0];
+                return null;
+            } else if( "getAnimator".equals(name) ) {
+                return animator;
+            } else if( "hashCode".equals(name) ) {
+                return Integer.valueOf(System.identityHashCode(proxy));
+            } else if( "equals".equals(name) ) {
+                return Boolean.valueOf(proxy == args[0]);
+            } else if( "toString".equals(name) ) {
+                return "FakeDrawable[frames "+displayCount+"]";
+            }
+            final Class<?> rt = method.getReturnType();
+            if( boolean.class == rt ) {
+                return Boolean.FALSE;
+            } else if( rt.isPrimitive() && void.class != rt ) {
+                return Integer.valueOf(0);
+            }
+            return null;
+        }
+    }
+
+    /** Four drawables displayed concurrently take about the time of one per tick. */
+    @Test
+    public void test01Concurrent() throws InterruptedException {
+        final FakeDrawable[] fds = new FakeDrawable[4];
+        final ParallelAnimator anim = new ParallelAnimator();
+        for(int i=0; i<fds.length; i++) {
+            fds[i] = new FakeDrawable(10);
+            anim.add(fds[i].drawable);
+            Assert.assertSame(anim, fds[i].animator);
+        }
+        Assert.assertTrue(anim.start());
+        Thread.sleep(1000);
+        final Thread[] ects = new Thread[fds.length];
+        for(int i=0; i<fds.length; i++) {
+            ects[i] = fds[i].ect;
+            Assert.assertNotNull(ects[i]);
+            for(int j=0; j<i; j++) {
+                Assert.assertTrue(ects[i] != ects[j]);
+            }
+        }
+        Assert.assertTrue(anim.stop());
+        System.err.printf("Concurrent: ticks %s%n", anim.getTickHistogram());
+        System.err.printf("Concurrent: display %s%n", anim.getDisplayHistogram());
+        System.err.printf("Concurrent: parallelism %.2f%n", anim.getParallelism());
+        final int ticks = (int) anim.getTickHistogram().getCount();
+        for(int i=0; i<fds.length; i++) {
+            Assert.assertNull(fds[i].ect); // released on stop
+            Assert.assertEquals(0, fds[i].ectMismatches);
+            // all drawables displayed each tick, plus the releasing display
+            Assert.assertEquals(ticks + 1, fds[i].displayCount);
+        }
+        Assert.assertEquals(ticks * fds.length, anim.getDisplayHistogram().getCount());
+        // sequential would be 40ms per tick, i.e. <= 25 ticks
+        Assert.assertTrue("ticks "+ticks, ticks > 40);
+        Assert.assertTrue(anim.getParallelism() > 2f);
+    }
+
+    /** Drawables can be added and removed while animating, a removed drawable is released. */
+    @Test
+    public void test02AddRemove() throws InterruptedException {
+        final FakeDrawable fd1 = new FakeDrawable(2);
+        final FakeDrawable fd2 = new FakeDrawable(2);
+        final ParallelAnimator anim = new ParallelAnimator();
+        anim.add(fd1.drawable);
+        Assert.assertTrue(anim.start());
+        Thread.sleep(100);
+        anim.add(fd2.drawable);
+        Thread.sleep(100);
+        Assert.assertTrue(fd2.displayCount > 0);
+        Assert.assertNotNull(anim.getDisplayHistogram(fd2.drawable));
+        Assert.assertTrue(fd1.ect != fd2.ect);
+        anim.remove(fd1.drawable);
+        Assert.assertNull(fd1.ect);
+        Assert.assertNull(fd1.animator);
+        final int count1 = fd1.displayCount;
+        Thread.sleep(100);
+        Assert.assertEquals(count1, fd1.displayCount);
+        Assert.assertNull(anim.getDisplayHistogram(fd1.drawable));
+        Assert.assertTrue(anim.pause());
+        Assert.assertNull(fd2.ect); // released while paused
+        Assert.assertTrue(anim.resume());
+        anim.remove(fd2.drawable);
+        Assert.assertFalse(anim.isAnimating());
+        Assert.assertTrue(anim.stop());
+        Assert.assertNull(fd2.ect);
+        Assert.assertEquals(0, fd1.ectMismatches + fd2.ectMismatches);
+    }
+
+    /** Without exclusive context, display runs on the worker threads w/o claiming the drawables. */
+    @Test
+    public void test03NoExclusiveContext() throws InterruptedException {
+        final FakeDrawable fd = new FakeDrawable(1);
+        final ParallelAnimator anim = new ParallelAnimator(null, false);
+        anim.add(fd.drawable);
+        Assert.assertTrue(anim.start());
+        Thread.sleep(100);
+        Assert.assertTrue(anim.stop());
+        Assert.assertTrue(fd.displayCount > 0);
+        Assert.assertNull(fd.ect);
+        Assert.assertNotNull(fd.lastDisplayThread);
+        Assert.assertEquals(fd.displayCount, anim.getDisplayHistogram().getCount());
+    }
+
+    /** An exception thrown by one drawable stops the animator and reaches the handler. */
+    @Test
+    public void test04Exception() throws InterruptedException {
+        final FakeDrawable fd1 = new FakeDrawable(1);
+        final FakeDrawable fd2 = new FakeDrawable(1);
+        final ParallelAnimator anim = new ParallelAnimator();
+        final GLAutoDrawable[] failedDrawable = { null };
+        final Throwable[] failedCause = { null };
+        anim.setUncaughtExceptionHandler(new GLAnimatorControl.UncaughtExceptionHandler() {
+            @Override
+            public void uncaughtException(final GLAnimatorControl animator, final GLAutoDrawable drawable, final Throwable cause) {
+                failedDrawable[0] = drawable;
+                failedCause[0] = cause;
+            } });
+        anim.add(fd1.drawable);
+        anim.add(fd2.drawable);
+        Assert.assertTrue(anim.start());
+        Thread.sleep(50);
+        fd2.fail = true;
+        for(int i=0; i<100 && anim.isStarted(); i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertFalse(anim.isStarted());
+        Assert.assertSame(fd2.drawable, failedDrawable[0]);
+        Assert.assertNotNull(failedCause[0]);
+        Assert.assertNull(fd1.ect);
+    }
+
+    /** Stopping the animator within display doesn't wait for the animation thread, which waits for the caller. */
+    @Test
+    public void test05StopFromDisplay() throws InterruptedException {
+        final FakeDrawable fd1 = new FakeDrawable(1);
+        final FakeDrawable fd2 = new FakeDrawable(1);
+        final ParallelAnimator anim = new ParallelAnimator();
+        anim.add(fd1.drawable);
+        anim.add(fd2.drawable);
+        Assert.assertTrue(anim.start());
+        Thread.sleep(50);
+        final long[] stopDuration = { -1 };
+        final boolean[] stopResult = { false };
+        fd2.onDisplay = () -> {
+            final long t0 = System.nanoTime();
+            stopResult[0] = anim.stop();
+            stopDuration[0] = System.nanoTime() - t0;
+        };
+        for(int i=0; i<100 && anim.isStarted(); i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertFalse(anim.isStarted());
+        Assert.assertTrue(stopResult[0]);
+        Assert.assertTrue("stop took "+stopDuration[0]/MS+"ms", stopDuration[0] < 100*MS);
+        Assert.assertNull(fd1.ect);
+        Assert.assertNull(fd2.ect);
+        Assert.assertEquals(0, fd1.ectMismatches + fd2.ectMismatches);
+    }
+
+    /** A drawable removing itself within display is retired, while the others keep animating. */
+    @Test
+    public void test06RemoveFromDisplay() throws InterruptedException {
+        final FakeDrawable fd1 = new FakeDrawable(1);
+        final FakeDrawable fd2 = new FakeDrawable(1);
+        final ParallelAnimator anim = new ParallelAnimator();
+        anim.add(fd1.drawable);
+        anim.add(fd2.drawable);
+        Assert.assertTrue(anim.start());
+        Thread.sleep(50);
+        final long[] removeDuration = { -1 };
+        fd2.onDisplay = () -> {
+            final long t0 = System.nanoTime();
+            anim.remove(fd2.drawable);
+            removeDuration[0] = System.nanoTime() - t0;
+        };
+        for(int i=0; i<100 && null != fd2.animator; i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertNull(fd2.animator);
+        Thread.sleep(50);
+        Assert.assertTrue("remove took "+removeDuration[0]/MS+"ms", 0 <= removeDuration[0] && removeDuration[0] < 100*MS);
+        final int count1 = fd1.displayCount;
+        final int count2 = fd2.displayCount;
+        Thread.sleep(100);
+        Assert.assertTrue(anim.isAnimating());
+        Assert.assertTrue(fd1.displayCount > count1);
+        Assert.assertEquals(count2, fd2.displayCount);
+        Assert.assertNull(fd2.ect);
+        Assert.assertNull(anim.getDisplayHistogram(fd2.drawable));
+        Assert.assertTrue(anim.stop());
+        Assert.assertNull(fd1.ect);
+        Assert.assertEquals(0, fd1.ectMismatches + fd2.ectMismatches);
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestParallelAnimator01NOUI.class.getName());
+    }
+}
@@ -0,0 +1,384 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.perf;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2ES2;
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLCapabilities;
+import com.jogamp.opengl.GLDrawableFactory;
+import com.jogamp.opengl.GLEventListener;
+import com.jogamp.opengl.GLOffscreenAutoDrawable;
+import com.jogamp.opengl.GLProfile;
+import com.jogamp.opengl.GLUniformData;
+import com.jogamp.opengl.fixedfunc.GLMatrixFunc;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.test.junit.util.MiscUtils;
+import com.jogamp.opengl.test.junit.util.UITestCase;
+import com.jogamp.opengl.util.GLArrayDataServer;
+import com.jogamp.opengl.util.GLStreamingBuffer;
+import com.jogamp.opengl.util.ImmModeSink;
+import com.jogamp.opengl.util.PMVMatrix;
+import com.jogamp.opengl.util.glsl.ShaderCode;
+import com.jogamp.opengl.util.glsl.ShaderProgram;
+import com.jogamp.opengl.util.glsl.ShaderState;
+
+/**
+ * Throughput of dynamic per-frame vertex data in vertices/sec,
+ * uploaded via {@link ImmModeSink} and {@link GLArrayDataServer}
+ * either re-specifying their VBO or streaming through a {@link GLStreamingBuffer}
+ * in orphaning or persistently mapped mode.
+ * <p>
+ * The streamed arrays are validated by reading back the rendered colors
+ * of multiple arrays sharing a small ring, which wraps around and grows.
+ * </p>
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestPerf002StreamingVerticesES2Offscreen extends UITestCase {
+    static final int width = 256, height = 256;
+    static int frames = 200;
+    static int batches = 50;
+    static int batchVertices = 1000;
+
+    @BeforeClass
+    public static void initClass() {
+        GLProfile.initSingleton();
+    }
+
+    /** Upload modes */
+    static final int RESPECIFY = 0, STREAM_ORPHAN = 1, STREAM_PERSISTENT = 2;
+    static final String[] modeNames = { "re-specify", "stream-orphan", "stream-persistent" };
+
+    static abstract class Bench implements GLEventListener {
+        final int mode;
+        final PMVMatrix pmvMatrix = new PMVMatrix();
+        ShaderState st;
+        GLUniformData pmvMatrixUniform;
+        GLStreamingBuffer streamingBuffer;
+        int segmentSize = 256*1024, segmentCount = 3;
+        long vertices = 0;
+        float phase = 0f;
+
+        Bench(final int mode) { this.mode = mode; }
+
+        abstract void initArrays(GL2ES2 gl);
+        abstract void drawBatch(GL2ES2 gl, int batch);
+        abstract void destroyArrays(GL2ES2 gl);
+
+        @Override
+        public void init(final GLAutoDrawable glad) {
+            final GL2ES2 gl = glad.getGL().getGL2ES2();
+            final ShaderCode vp0 = ShaderCode.create(gl, GL2ES2.GL_VERTEX_SHADER, TestPerf002StreamingVerticesES2Offscreen.class,
+                    "../demos/es2/shader", "../demos/es2/shader/bin", "mgl_default_xxx", true);
+            final ShaderCode fp0 = ShaderCode.create(gl, GL2ES2.GL_FRAGMENT_SHADER, TestPerf002StreamingVerticesES2Offscreen.class,
+                    "../demos/es2/shader", "../demos/es2/shader/bin", "mgl_default_xxx", true);
+            vp0.defaultShaderCustomization(gl, true, true);
+            fp0.defaultShaderCustomization(gl, true, true);
+            final ShaderProgram sp = new ShaderProgram();
+            sp.add(gl, vp0, System.err);
+            sp.add(gl, fp0, System.err);
+            st = new ShaderState();
+            st.attachShaderProgram(gl, sp, true);
+            pmvMatrix.glMatrixMode(GLMatrixFunc.GL_PROJECTION);
+            pmvMatrix.glLoadIdentity();
+            pmvMatrix.glOrthof(-1f, 1f, -1f, 1f, -1f, 1f);
+            pmvMatrix.glMatrixMode(GLMatrixFunc.GL_MODELVIEW);
+            pmvMatrix.glLoadIdentity();
+            pmvMatrixUniform = new GLUniformData("mgl_PMVMatrix", 4, 4, pmvMatrix.getSyncPMv().getSyncFloats());
+            st.ownUniform(pmvMatrixUniform);
+            st.uniform(gl, pmvMatrixUniform);
+            if( RESPECIFY != mode ) {
+                streamingBuffer = new GLStreamingBuffer(GL.GL_ARRAY_BUFFER, segmentSize, segmentCount, STREAM_PERSISTENT == mode);
+            }
+            initArrays(gl);
+            st.useProgram(gl, false);
+        }
+
+        @Override
+        public void dispose(final GLAutoDrawable glad) {
+            final GL2ES2 gl = glad.getGL().getGL2ES2();
+            destroyArrays(gl);
+            if( null != streamingBuffer ) {
+                System.err.println(streamingBuffer);
+                streamingBuffer.destroy(gl);
+            }
+            st.destroy(gl);
+        }
+
+        @Override
+        public void display(final GLAutoDrawable glad) {
+            final GL2ES2 gl = glad.getGL().getGL2ES2();
+            gl.glClear(GL.GL_COLOR_BUFFER_BIT);
+            st.useProgram(gl, true);
+            for(int b=0; b<batches; b++) {
+                drawBatch(gl, b);
+                vertices += batchVertices;
+            }
+            st.useProgram(gl, false);
+            phase += 0.01f;
+        }
+
+        @Override
+        public void reshape(final GLAutoDrawable glad, final int x, final int y, final int width, final int height) { }
+
+        float x(final int b, final int i) { return (float)Math.sin(phase + b * 0.1f + i * 0.013f); }
+        float y(final int b, final int i) { return (float)Math.cos(phase * 0.7f + b * 0.05f + i * 0.017f); }
+    }
+
+    /** Debug lines via {@link ImmModeSink} immediate mode. */
+    static class ImmModeBench extends Bench {
+        ImmModeSink ims;
+        ImmModeBench(final int mode) { super(mode); }
+
+        @Override
+        void initArrays(final GL2ES2 gl) {
+            ims = ImmModeSink.createGLSL(batchVertices, 3, GL.GL_FLOAT, 4, GL.GL_FLOAT, 0, GL.GL_FLOAT, 0, GL.GL_FLOAT,
+                                         GL2ES2.GL_STREAM_DRAW, st);
+            ims.setStreamingBuffer(streamingBuffer);
+        }
+        @Override
+        void drawBatch(final GL2ES2 gl, final int b) {
+            ims.glBegin(GL.GL_LINES);
+            for(int i=0; i<batchVertices; i++) {
+                ims.glVertex3f(x(b, i), y(b, i), 0f);
+                ims.glColor4f(1f, 1f, 1f, 1f);
+            }
+            ims.glEnd(gl);
+        }
+        @Override
+        void destroyArrays(final GL2ES2 gl) {
+            ims.destroy(gl);
+        }
+    }
+
+    /** Particles via a re-sealed {@link GLArrayDataServer} per batch. */
+    static class ArrayDataBench extends Bench {
+        GLArrayDataServer vertices;
+        ArrayDataBench(final int mode) { super(mode); }
+
+        @Override
+        void initArrays(final GL2ES2 gl) {
+            vertices = GLArrayDataServer.createGLSL("mgl_Vertex", 3, GL.GL_FLOAT, false, batchVertices, GL2ES2.GL_STREAM_DRAW);
+            vertices.setStreamingBuffer(streamingBuffer);
+            st.ownAttribute(vertices, true);
+            st.vertexAttribPointer(gl, vertices);
+            gl.glVertexAttrib4f(st.getAttribLocation(gl, "mgl_Color"), 1f, 1f, 1f, 1f);
+        }
+        @Override
+        void drawBatch(final GL2ES2 gl, final int b) {
+            vertices.seal(gl, false);
+            vertices.rewind();
+            final FloatBuffer fb = (FloatBuffer) vertices.getBuffer();
+            for(int i=0; i<batchVertices; i++) {
+                fb.put(x(b, i)).put(y(b, i)).put(0f);
+            }
+            vertices.seal(gl, true);
+            gl.glDrawArrays(GL.GL_POINTS, 0, batchVertices);
+        }
+        @Override
+        void destroyArrays(final GL2ES2 gl) {
+            vertices.seal(gl, false);
+            vertices.destroy(gl);
+        }
+    }
+
+    /**
+     * Horizontal strips of distinct colors, each drawn from a vertex and a color array sharing the streaming buffer.
+     * <p>
+     * Each strip repeats its quad once more than the previous strip, hence the small ring grows while drawing the first frame
+     * and wraps around within each frame.
+     * </p>
+     */
+    static class MultiArrayBench extends Bench {
+        static final int strips = 8;
+        GLArrayDataServer vertexArray, colorArray;
+        int frame = 0, mismatches = 0;
+        MultiArrayBench(final int mode) {
+            super(mode);
+            segmentSize = 160; // < one quad's 6 vertices * ( 3 + 4 ) floats
+            segmentCount = 2;
+        }
+
+        @Override
+        void initArrays(final GL2ES2 gl) {
+            vertexArray = GLArrayDataServer.createGLSL("mgl_Vertex", 3, GL.GL_FLOAT, false, 6*strips, GL2ES2.GL_STREAM_DRAW);
+            colorArray = GLArrayDataServer.createGLSL("mgl_Color", 4, GL.GL_FLOAT, false, 6*strips, GL2ES2.GL_STREAM_DRAW);
+            vertexArray.setStreamingBuffer(streamingBuffer);
+            colorArray.setStreamingBuffer(streamingBuffer);
+            st.ownAttribute(vertexArray, true);
+            st.ownAttribute(colorArray, true);
+        }
+        static float red(final int s, final int frame) { return ( ( s * 29 + frame * 7 ) % 256 ) / 255f; }
+        static float green(final int s) { return ( s * 255 / ( strips - 1 ) ) / 255f; }
+        @Override
+        void drawBatch(final GL2ES2 gl, final int s) {
+            vertexArray.seal(gl, false);
+            colorArray.seal(gl, false);
+            vertexArray.rewind();
+            colorArray.rewind();
+            final float y0 = -1f + 2f * s / strips, y1 = -1f + 2f * ( s + 1 ) / strips;
+            final FloatBuffer vb = (FloatBuffer) vertexArray.getBuffer();
+            final FloatBuffer cb = (FloatBuffer) colorArray.getBuffer();
+            final int quads = s + 1;
+            for(int q=0; q<quads; q++) {
+                vb.put(-1f).put(y0).put(0f).put( 1f).put(y0).put(0f).put( 1f).put(y1).put(0f);
+                vb.put(-1f).put(y0).put(0f).put( 1f).put(y1).put(0f).put(-1f).put(y1).put(0f);
+                for(int i=0; i<6; i++) {
+                    cb.put(red(s, frame)).put(green(s)).put(1f).put(1f);
+                }
+            }
+            vertexArray.seal(true);
+            colorArray.seal(true);
+            GLArrayDataServer.reserveStreaming(gl, vertexArray, colorArray);
+            vertexArray.enableBuffer(gl, true);
+            colorArray.enableBuffer(gl, true);
+            gl.glDrawArrays(GL.GL_TRIANGLES, 0, 6*quads);
+        }
+        @Override
+        public void display(final GLAutoDrawable glad) {
+            final GL2ES2 gl = glad.getGL().getGL2ES2();
+            gl.glClear(GL.GL_COLOR_BUFFER_BIT);
+            st.useProgram(gl, true);
+            for(int s=0; s<strips; s++) {
+                drawBatch(gl, s);
+            }
+            st.useProgram(gl, false);
+            final ByteBuffer pixel = Buffers.newDirectByteBuffer(4);
+            for(int s=0; s<strips; s++) {
+                gl.glReadPixels(width/2, ( 2 * s + 1 ) * height / ( 2 * strips ), 1, 1, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE, pixel);
+                final int r = pixel.get(0) & 0xff, g = pixel.get(1) & 0xff, b = pixel.get(2) & 0xff;
+                if( Math.abs(r - Math.round(red(s, frame)*255f)) > 1 || Math.abs(g - Math.round(green(s)*255f)) > 1 || 255 != b ) {
+                    System.err.println("Mismatch frame "+frame+", strip "+s+": rgb "+r+"/"+g+"/"+b);
+                    mismatches++;
+                }
+            }
+            frame++;
+        }
+        @Override
+        void destroyArrays(final GL2ES2 gl) {
+            vertexArray.seal(gl, false);
+            colorArray.seal(gl, false);
+            vertexArray.destroy(gl);
+            colorArray.destroy(gl);
+        }
+    }
+
+    private void runReadback(final MultiArrayBench bench) {
+        final GLProfile glp = GLProfile.getGL2ES2();
+        final GLCapabilities caps = new GLCapabilities(glp);
+        caps.setFBO(true);
+        final GLOffscreenAutoDrawable glad = GLDrawableFactory.getFactory(glp).createOffscreenAutoDrawable(null, caps, null, width, height);
+        glad.addGLEventListener(bench);
+        try {
+            for(int i=0; i<10; i++) {
+                glad.display();
+            }
+            final GLStreamingBuffer sb = bench.streamingBuffer;
+            System.err.println(modeNames[bench.mode]+": "+sb);
+            Assert.assertEquals(0, bench.mismatches);
+            Assert.assertTrue(0 < sb.getGrowCount());
+            Assert.assertTrue(sb.getStreamedBytes() > (long)sb.getSegmentCount() * sb.getSegmentSize()); // wrapped around
+            if( !sb.isPersistent() ) {
+                Assert.assertTrue(0 < sb.getOrphanCount());
+            }
+        } finally {
+            glad.destroy();
+        }
+    }
+
+    private double run(final Bench bench) {
+        final GLProfile glp = GLProfile.getGL2ES2();
+        final GLCapabilities caps = new GLCapabilities(glp);
+        caps.setFBO(true);
+        final GLOffscreenAutoDrawable glad = GLDrawableFactory.getFactory(glp).createOffscreenAutoDrawable(null, caps, null, width, height);
+        glad.addGLEventListener(bench);
+        try {
+            glad.display(); // init and warm-up
+            bench.vertices = 0;
+            final long t0 = System.nanoTime();
+            for(int i=0; i<frames; i++) {
+                glad.display();
+            }
+            glad.invoke(true, (final GLAutoDrawable drawable) -> { drawable.getGL().glFinish(); return true; });
+            final long t1 = System.nanoTime();
+            final double vps = bench.vertices * 1e9 / ( t1 - t0 );
+            System.err.printf("%-14s %-17s %,14.0f vertices/s, %d frames x %d batches x %d vertices, persistent %b%n",
+                              bench.getClass().getSimpleName(), modeNames[bench.mode], vps, frames, batches, batchVertices,
+                              null != bench.streamingBuffer && bench.streamingBuffer.isPersistent());
+            if( null != bench.streamingBuffer ) {
+                Assert.assertTrue(0 < bench.streamingBuffer.getStreamedBytes());
+            }
+            return vps;
+        } finally {
+            glad.destroy();
+        }
+    }
+
+    @Test
+    public void test01ImmModeSink() {
+        for(int mode=RESPECIFY; mode<=STREAM_PERSISTENT; mode++) {
+            run(new ImmModeBench(mode));
+        }
+    }
+
+    @Test
+    public void test02GLArrayDataServer() {
+        for(int mode=RESPECIFY; mode<=STREAM_PERSISTENT; mode++) {
+            run(new ArrayDataBench(mode));
+        }
+    }
+
+    @Test
+    public void test03GLArrayDataServerReadback() {
+        runReadback(new MultiArrayBench(STREAM_ORPHAN));
+        runReadback(new MultiArrayBench(STREAM_PERSISTENT));
+    }
+
+    public static void main(final String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-frames")) {
+                frames = MiscUtils.atoi(args[++i], frames);
+            } else if(args[i].equals("-batches")) {
+                batches = MiscUtils.atoi(args[++i], batches);
+            } else if(args[i].equals("-vertices")) {
+                batchVertices = MiscUtils.atoi(args[++i], batchVertices);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestPerf002StreamingVerticesES2Offscreen.class.getName());
+    }
+}
@@ -0,0 +1,188 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLCapabilities;
+import com.jogamp.opengl.GLDrawableFactory;
+import com.jogamp.opengl.GLEventListener;
+import com.jogamp.opengl.GLOffscreenAutoDrawable;
+import com.jogamp.opengl.GLProfile;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.opengl.test.junit.util.UITestCase;
+import com.jogamp.opengl.util.AsyncGLReadBufferUtil;
+import com.jogamp.opengl.util.GLPixelBuffer;
+import com.jogamp.opengl.util.texture.TextureData;
+
+/**
+ * {@link AsyncGLReadBufferUtil} delivers each frame's pixels in order,
+ * flipped either by the worker thread or via {@link TextureData}.
+ * <p>
+ * Each frame is cleared to a gray level encoding the frame number,
+ * the bottom half is marked white to validate the row order.
+ * </p>
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestAsyncGLReadBufferUtil01Offscreen extends UITestCase {
+    static final int width = 64, height = 32, frameCount = 40, ringSize = 3;
+
+    static int grayOf(final long frame) { return (int) ( ( frame * 5 ) % 250 ); }
+
+    static class Capture {
+        final long frame;
+        final int firstRowValue, lastRowValue;
+        final boolean mustFlipVertically;
+        final String thread;
+        Capture(final long frame, final GLPixelBuffer pixels, final TextureData data) {
+            this.frame = frame;
+            final ByteBuffer bb = (ByteBuffer) pixels.buffer;
+            final int bpp = data.getPixelAttributes().pfmt.comp.bytesPerPixel();
+            final int stride = bb.limit() / height;
+            firstRowValue = bb.get(bb.position()) & 0xff;
+            lastRowValue = bb.get(bb.position() + ( height - 1 ) * stride + bpp) & 0xff;
+            mustFlipVertically = data.getMustFlipVertically();
+            thread = Thread.currentThread().getName();
+        }
+    }
+
+    private void testImpl(final boolean useWorker, final long listenerSleepMS) throws InterruptedException {
+        final GLProfile glp = GLProfile.getGL2ES2();
+        final GLCapabilities caps = new GLCapabilities(glp);
+        caps.setAlphaBits(1);
+        caps.setFBO(true);
+        final GLOffscreenAutoDrawable drawable = GLDrawableFactory.getFactory(glp).createOffscreenAutoDrawable(null, caps, null, width, height);
+        final List<Capture> captures = Collections.synchronizedList(new ArrayList<Capture>());
+        final Set<GLPixelBuffer> pixelBuffers = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<GLPixelBuffer, Boolean>()));
+        final AsyncGLReadBufferUtil readBuffer = new AsyncGLReadBufferUtil(true, ringSize, useWorker, new AsyncGLReadBufferUtil.Listener() {
+            @Override
+            public void pixelsRead(final long frame, final GLPixelBuffer pixels, final TextureData data) {
+                captures.add(new Capture(frame, pixels, data));
+                pixelBuffers.add(pixels);
+                if( 0 < listenerSleepMS ) {
+                    try {
+                        Thread.sleep(listenerSleepMS); // slow consumer, e.g. an encoder
+                    } catch (final InterruptedException e) { }
+                }
+            } });
+        drawable.addGLEventListener(new GLEventListener() {
+            long frame = 0;
+            @Override
+            public void init(final GLAutoDrawable drawable) { }
+            @Override
+            public void dispose(final GLAutoDrawable drawable) {
+                final GL gl = drawable.getGL();
+                readBuffer.flush(gl);
+                readBuffer.dispose(gl);
+            }
+            @Override
+            public void display(final GLAutoDrawable drawable) {
+                final GL gl = drawable.getGL();
+                final float v = grayOf(frame++) / 255f;
+                gl.glClearColor(v, v, v, 1f);
+                gl.glClear(GL.GL_COLOR_BUFFER_BIT);
+                gl.glEnable(GL.GL_SCISSOR_TEST);
+                gl.glScissor(0, 0, width, height/2);
+                gl.glClearColor(1f, 1f, 1f, 1f);
+                gl.glClear(GL.GL_COLOR_BUFFER_BIT);
+                gl.glDisable(GL.GL_SCISSOR_TEST);
+                Assert.assertTrue(readBuffer.readPixelsAsync(gl, true /* top-down */));
+            }
+            @Override
+            public void reshape(final GLAutoDrawable drawable, final int x, final int y, final int width, final int height) { }
+        });
+        drawable.display(); // realize
+        for(int i=1; i<frameCount; i++) {
+            drawable.display();
+        }
+        System.err.println("In flight after "+frameCount+" frames: "+readBuffer);
+        drawable.destroy(); // flush and dispose
+        for(int i=0; i<100 + frameCount * listenerSleepMS / 10 && captures.size() < frameCount; i++) {
+            Thread.sleep(10);
+        }
+        System.err.println(readBuffer+", captures "+captures.size()+" on "+(captures.isEmpty() ? "n/a" : captures.get(0).thread)+
+                           ", pixel buffers "+pixelBuffers.size());
+
+        Assert.assertEquals(frameCount, readBuffer.getIssuedCount());
+        Assert.assertEquals(frameCount, captures.size());
+        for(int i=0; i<frameCount; i++) {
+            final Capture c = captures.get(i);
+            Assert.assertEquals(i, c.frame);
+            final int top, bottom;
+            if( c.mustFlipVertically ) {
+                top = c.lastRowValue; bottom = c.firstRowValue;
+            } else {
+                top = c.firstRowValue; bottom = c.lastRowValue;
+            }
+            Assert.assertEquals("frame "+i, grayOf(i), top, 1);
+            Assert.assertEquals("frame "+i, 255, bottom);
+            if( useWorker && readBuffer.isAsync() ) {
+                Assert.assertFalse(c.mustFlipVertically); // flipped by worker
+            }
+        }
+        if( useWorker && readBuffer.isAsync() ) {
+            // queued captures plus one taken by the worker and one waiting to be queued
+            Assert.assertTrue("pixel buffers "+pixelBuffers.size(), pixelBuffers.size() <= ringSize + 2);
+            if( 0 < listenerSleepMS ) {
+                Assert.assertTrue(readBuffer.getStalledCount() > 0); // backpressure
+            }
+        }
+    }
+
+    @Test
+    public void test01WorkerThread() throws InterruptedException {
+        testImpl(true, 0);
+    }
+
+    @Test
+    public void test02GLThread() throws InterruptedException {
+        testImpl(false, 0);
+    }
+
+    /** A slow {@link AsyncGLReadBufferUtil.Listener} on the worker thread throttles the GL thread. */
+    @Test
+    public void test03SlowWorkerThread() throws InterruptedException {
+        testImpl(true, 10);
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestAsyncGLReadBufferUtil01Offscreen.class.getName());
+    }
+}
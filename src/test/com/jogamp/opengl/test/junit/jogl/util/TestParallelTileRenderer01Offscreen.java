@@ -0,0 +1,197 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.jogamp.nativewindow.util.PixelFormat;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLCapabilities;
+import com.jogamp.opengl.GLEventListener;
+import com.jogamp.opengl.GLException;
+import com.jogamp.opengl.GLProfile;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.opengl.test.junit.util.UITestCase;
+import com.jogamp.opengl.util.PNGPixelRect;
+import com.jogamp.opengl.util.ParallelTileRenderer;
+import com.jogamp.opengl.util.TileRendererBase;
+
+/**
+ * {@link ParallelTileRenderer} assembles the tiles rendered on several shared-context offscreen drawables
+ * into one PNG image.
+ * <p>
+ * Each tile is cleared to a color encoding its position, its bottom row is marked blue
+ * to validate the row order within each band.
+ * </p>
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestParallelTileRenderer01Offscreen extends UITestCase {
+    static final int imageWidth = 200, imageHeight = 150, tileWidth = 64, tileHeight = 48;
+
+    static class TileListener implements GLEventListener, TileRendererBase.TileRendererListener {
+        final Set<String> threads;
+        int tileX, tileY, tileW, tileH;
+        TileListener(final Set<String> threads) { this.threads = threads; }
+
+        @Override
+        public void addTileRendererNotify(final TileRendererBase tr) { }
+        @Override
+        public void removeTileRendererNotify(final TileRendererBase tr) { }
+        @Override
+        public void reshapeTile(final TileRendererBase tr, final int tileX, final int tileY, final int tileWidth, final int tileHeight,
+                                final int imageWidth, final int imageHeight) {
+            this.tileX = tileX; this.tileY = tileY; this.tileW = tileWidth; this.tileH = tileHeight;
+        }
+        @Override
+        public void startTileRendering(final TileRendererBase tr) { }
+        @Override
+        public void endTileRendering(final TileRendererBase tr) { }
+
+        @Override
+        public void init(final GLAutoDrawable drawable) { }
+        @Override
+        public void dispose(final GLAutoDrawable drawable) { }
+        @Override
+        public void display(final GLAutoDrawable drawable) {
+            threads.add(Thread.currentThread().getName());
+            final GL gl = drawable.getGL();
+            gl.glClearColor(redOf(tileX), greenOf(tileY), 0.5f, 1f);
+            gl.glClear(GL.GL_COLOR_BUFFER_BIT);
+            gl.glEnable(GL.GL_SCISSOR_TEST);
+            gl.glScissor(0, 0, tileW, 1);
+            gl.glClearColor(redOf(tileX), greenOf(tileY), 1f, 1f);
+            gl.glClear(GL.GL_COLOR_BUFFER_BIT);
+            gl.glDisable(GL.GL_SCISSOR_TEST);
+        }
+        @Override
+        public void reshape(final GLAutoDrawable drawable, final int x, final int y, final int width, final int height) { }
+    }
+    static float redOf(final int tileX) { return ( tileX / 4 ) / 255f; }
+    static float greenOf(final int tileY) { return ( tileY / 4 ) / 255f; }
+
+    private void testImpl(final int workerCount, final boolean alpha) throws IOException, InterruptedException {
+        final GLProfile glp = GLProfile.getGL2ES2();
+        final GLCapabilities caps = new GLCapabilities(glp);
+        caps.setAlphaBits(1);
+        caps.setFBO(true);
+        final Set<String> threads = Collections.synchronizedSet(new HashSet<String>());
+        final ParallelTileRenderer renderer = new ParallelTileRenderer(caps, workerCount, tileWidth, tileHeight,
+                new ParallelTileRenderer.ListenerFactory() {
+                    @Override
+                    public GLEventListener createListener(final int index) {
+                        return new TileListener(threads);
+                    } });
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            renderer.render(imageWidth, imageHeight, alpha, out);
+            for(int i=0; i<workerCount; i++) {
+                Assert.assertTrue(renderer.getAutoDrawable(i).getContext().isShared());
+            }
+        } finally {
+            renderer.destroy();
+        }
+        System.err.println(renderer+", PNG "+out.size()+" bytes, threads "+threads);
+        Assert.assertTrue(threads.size() <= workerCount);
+
+        final PixelFormat fmt = alpha ? PixelFormat.RGBA8888 : PixelFormat.RGB888;
+        final PNGPixelRect image = PNGPixelRect.read(new ByteArrayInputStream(out.toByteArray()), fmt, false, 0, false /* top-down */);
+        Assert.assertEquals(imageWidth, image.getSize().getWidth());
+        Assert.assertEquals(imageHeight, image.getSize().getHeight());
+        final ByteBuffer pixels = image.getPixels();
+        final int bpp = fmt.comp.bytesPerPixel();
+        for(int row=0; row<imageHeight; row++) {
+            final int band = row / tileHeight;
+            final int bandEnd = Math.min(( band + 1 ) * tileHeight, imageHeight);
+            final int tileY = imageHeight - bandEnd;
+            final int blue = bandEnd - 1 == row ? 255 : 128; // bottom row of a tile
+            for(int x=0; x<imageWidth; x++) {
+                final int tileX = ( x / tileWidth ) * tileWidth;
+                final int off = row * image.getStride() + x * bpp;
+                final String msg = "pixel "+x+"/"+row;
+                Assert.assertEquals(msg, tileX / 4, pixels.get(off) & 0xff, 1);
+                Assert.assertEquals(msg, tileY / 4, pixels.get(off+1) & 0xff, 1);
+                Assert.assertEquals(msg, blue, pixels.get(off+2) & 0xff, 1);
+                if( alpha ) {
+                    Assert.assertEquals(msg, 255, pixels.get(off+3) & 0xff);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test01ThreeWorkersRGB() throws IOException, InterruptedException {
+        testImpl(3, false);
+    }
+
+    @Test
+    public void test02OneWorkerRGBA() throws IOException, InterruptedException {
+        testImpl(1, true);
+    }
+
+    /** A worker w/o a usable context fails rendering instead of blocking it. */
+    @Test(timeout=30000)
+    public void test03ContextUnavailable() throws IOException, InterruptedException {
+        final GLProfile glp = GLProfile.getGL2ES2();
+        final GLCapabilities caps = new GLCapabilities(glp);
+        caps.setFBO(true);
+        final Set<String> threads = Collections.synchronizedSet(new HashSet<String>());
+        final ParallelTileRenderer renderer = new ParallelTileRenderer(caps, 1, tileWidth, tileHeight,
+                new ParallelTileRenderer.ListenerFactory() {
+                    @Override
+                    public GLEventListener createListener(final int index) {
+                        return new TileListener(threads);
+                    } });
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            renderer.getAutoDrawable(0).setContext(null, true);
+            renderer.render(imageWidth, imageHeight, false, out);
+            Assert.fail("GLException expected");
+        } catch (final GLException gle) {
+            System.err.println("Expected: "+gle.getMessage());
+        } finally {
+            renderer.destroy();
+        }
+        Assert.assertTrue(threads.isEmpty());
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestParallelTileRenderer01Offscreen.class.getName());
+    }
+}
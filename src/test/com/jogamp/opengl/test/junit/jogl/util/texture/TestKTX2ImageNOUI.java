@@ -0,0 +1,216 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.junit.util.JunitTracer;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GLProfile;
+import com.jogamp.opengl.util.texture.ImageType;
+import com.jogamp.opengl.util.texture.TextureData;
+import com.jogamp.opengl.util.texture.TextureIO;
+import com.jogamp.opengl.util.texture.spi.KTX2Image;
+
+/**
+ * Writes and memory-maps KTX2 files via {@link KTX2Image},
+ * validating the zero-copy level and image slices.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestKTX2ImageNOUI extends JunitTracer {
+
+    private static ByteBuffer[] createLevels(final int width, final int height, final int images, final int bpp, final int levelCount) {
+        final ByteBuffer[] levels = new ByteBuffer[levelCount];
+        for(int l=0; l<levelCount; l++) {
+            final int w = Math.max(1, width >> l);
+            final int h = Math.max(1, height >> l);
+            levels[l] = ByteBuffer.allocate(images * w * h * bpp);
+            for(int i=0; i<levels[l].capacity(); i++) {
+                levels[l].put(i, (byte)(l * 31 + i));
+            }
+        }
+        return levels;
+    }
+
+    private static KTX2Image writeAndRead(final KTX2Image image) throws IOException {
+        final File file = File.createTempFile("TestKTX2ImageNOUI", "."+ImageType.T_KTX2);
+        file.deleteOnExit();
+        image.write(file);
+        return KTX2Image.read(file);
+    }
+
+    @Test
+    public void test01Texture2DMipmaps() throws IOException {
+        final ByteBuffer[] levels = createLevels(64, 32, 1, 4, 7);
+        final KTX2Image image = writeAndRead(KTX2Image.createFromData(KTX2Image.VK_FORMAT_R8G8B8A8_UNORM, 64, 32, 0, 0, 1, levels, false));
+        try {
+            Assert.assertEquals(KTX2Image.VK_FORMAT_R8G8B8A8_UNORM, image.getVkFormat());
+            Assert.assertEquals(GL.GL_RGBA8, image.getGLInternalFormat());
+            Assert.assertEquals(GL.GL_RGBA, image.getGLPixelFormat());
+            Assert.assertEquals(GL.GL_UNSIGNED_BYTE, image.getGLPixelType());
+            Assert.assertEquals(7, image.getNumLevels());
+            Assert.assertFalse(image.isGLOriented());
+            Assert.assertFalse(image.isCubemap());
+            final ByteBuffer[] mipmaps = image.getMipMaps(0, 0);
+            for(int l=0; l<levels.length; l++) {
+                Assert.assertEquals(levels[l].capacity(), mipmaps[l].remaining());
+                Assert.assertTrue(mipmaps[l].isDirect()); // memory mapped
+                Assert.assertEquals(0, levels[l].compareTo(mipmaps[l]));
+            }
+        } finally {
+            image.close();
+        }
+    }
+
+    @Test
+    public void test02CubemapFaces() throws IOException {
+        final ByteBuffer[] levels = createLevels(16, 16, 6, 3, 5);
+        final KTX2Image image = writeAndRead(KTX2Image.createFromData(KTX2Image.VK_FORMAT_R8G8B8_UNORM, 16, 16, 0, 0, 6, levels, true));
+        try {
+            Assert.assertTrue(image.isCubemap());
+            Assert.assertTrue(image.isGLOriented());
+            for(int l=0; l<levels.length; l++) {
+                final long imageSize = image.getImageSizeInBytes(l);
+                Assert.assertEquals(Math.max(1, 16 >> l) * Math.max(1, 16 >> l) * 3, imageSize);
+                for(int f=0; f<6; f++) {
+                    final ByteBuffer face = image.getImage(l, 0, f);
+                    final ByteBuffer exp = levels[l].duplicate();
+                    exp.position((int)(f * imageSize));
+                    exp.limit((int)((f+1) * imageSize));
+                    Assert.assertEquals(0, exp.compareTo(face));
+                }
+            }
+        } finally {
+            image.close();
+        }
+    }
+
+    @Test
+    public void test03ArrayAnd3D() throws IOException {
+        final ByteBuffer[] arrayLevels = createLevels(8, 4, 3, 1, 1);
+        final KTX2Image array = writeAndRead(KTX2Image.createFromData(KTX2Image.VK_FORMAT_R8_UNORM, 8, 4, 0, 3, 1, arrayLevels, false));
+        try {
+            Assert.assertTrue(array.isArray());
+            Assert.assertEquals(3, array.getLayerCount());
+            Assert.assertEquals(0, arrayLevels[0].compareTo(array.getLevel(0)));
+            Assert.assertEquals(8*4, array.getImage(0, 2, 0).remaining());
+        } finally {
+            array.close();
+        }
+        final ByteBuffer volume = ByteBuffer.allocate(4*4*4*4);
+        final KTX2Image vol = writeAndRead(KTX2Image.createFromData(KTX2Image.VK_FORMAT_R8G8B8A8_UNORM, 4, 4, 4, 0, 1, new ByteBuffer[] { volume }, false));
+        try {
+            Assert.assertTrue(vol.is3D());
+            Assert.assertEquals(4, vol.getLevelDepth(0));
+            Assert.assertEquals(volume.capacity(), vol.getImage(0, 0, 0).remaining());
+        } finally {
+            vol.close();
+        }
+    }
+
+    @Test
+    public void test04Compressed() throws IOException {
+        // DXT5: 16 bytes per 4x4 block, 8x8 -> 4x4 -> 2x2 -> 1x1
+        final ByteBuffer[] levels = new ByteBuffer[] { ByteBuffer.allocate(4*16), ByteBuffer.allocate(16), ByteBuffer.allocate(16), ByteBuffer.allocate(16) };
+        final KTX2Image image = writeAndRead(KTX2Image.createFromData(KTX2Image.VK_FORMAT_BC3_UNORM_BLOCK, 8, 8, 0, 0, 1, levels, false));
+        try {
+            Assert.assertTrue(image.isCompressed());
+            Assert.assertEquals(GL.GL_COMPRESSED_RGBA_S3TC_DXT5_EXT, image.getGLInternalFormat());
+            Assert.assertEquals(4, image.getNumLevels());
+            Assert.assertEquals(KTX2Image.VK_FORMAT_BC3_UNORM_BLOCK,
+                                KTX2Image.toVkFormat(GL.GL_COMPRESSED_RGBA_S3TC_DXT5_EXT, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE));
+        } finally {
+            image.close();
+        }
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void test05SizeMismatch() {
+        KTX2Image.createFromData(KTX2Image.VK_FORMAT_R8G8B8A8_UNORM, 4, 4, 0, 0, 1, new ByteBuffer[] { ByteBuffer.allocate(4*4*3) }, false);
+    }
+
+    private static byte[] toBytes(final KTX2Image image) throws IOException {
+        final File file = File.createTempFile("TestKTX2ImageNOUI", "."+ImageType.T_KTX2);
+        file.deleteOnExit();
+        image.write(file);
+        return Files.readAllBytes(file.toPath());
+    }
+
+    @Test
+    public void test06TextureIOMipmapGenerationRequested() throws IOException {
+        final byte[] bytes = toBytes(KTX2Image.createFromData(KTX2Image.VK_FORMAT_R8G8B8A8_UNORM, 16, 16, 0, 0, 1,
+                                                             createLevels(16, 16, 1, 4, 1), false));
+        final GLProfile glp = GLProfile.getDefault();
+        {
+            final TextureData data = TextureIO.newTextureData(glp, new ByteArrayInputStream(bytes), false /* mipmap */, TextureIO.KTX2);
+            Assert.assertNotNull(data);
+            Assert.assertFalse(data.getMipmap());
+            data.destroy();
+        }
+        // levelCount of zero requests mipmap generation by the loader
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(40, 0);
+        Assert.assertTrue(KTX2Image.read(ByteBuffer.wrap(bytes)).isMipmapGenerationRequested());
+        {
+            final TextureData data = TextureIO.newTextureData(glp, new ByteArrayInputStream(bytes), false /* mipmap */, TextureIO.KTX2);
+            Assert.assertNotNull(data);
+            Assert.assertTrue(data.getMipmap());
+            data.destroy();
+        }
+    }
+
+    @Test
+    public void test07TextureIORejectsCubemapAndArray() throws IOException {
+        final GLProfile glp = GLProfile.getDefault();
+        final byte[] cube = toBytes(KTX2Image.createFromData(KTX2Image.VK_FORMAT_R8G8B8_UNORM, 8, 8, 0, 0, 6,
+                                                            createLevels(8, 8, 6, 3, 1), false));
+        final byte[] array = toBytes(KTX2Image.createFromData(KTX2Image.VK_FORMAT_R8_UNORM, 8, 4, 0, 3, 1,
+                                                             createLevels(8, 4, 3, 1, 1), false));
+        for(final byte[] bytes : new byte[][] { cube, array }) {
+            try {
+                TextureIO.newTextureData(glp, new ByteArrayInputStream(bytes), false /* mipmap */, TextureIO.KTX2);
+                Assert.fail("Expected IOException");
+            } catch (final IOException ioe) {
+                System.err.println("Expected: "+ioe.getMessage());
+            }
+        }
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestKTX2ImageNOUI.class.getName());
+    }
+}
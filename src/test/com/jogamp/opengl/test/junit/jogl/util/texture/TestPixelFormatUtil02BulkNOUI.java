@@ -0,0 +1,190 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.junit.util.JunitTracer;
+import com.jogamp.nativewindow.util.PixelFormat;
+import com.jogamp.nativewindow.util.PixelFormatUtil;
+
+/**
+ * Validates {@link PixelFormatUtil#convertBulk(int, int, ByteBuffer, PixelFormat, boolean, int, ByteBuffer, PixelFormat, boolean, int, boolean)}
+ * against the per pixel {@link PixelFormatUtil#convertToInt32(PixelFormat, PixelFormat, ByteBuffer, int)} path
+ * incl. strides, vertical flip and row-band parallelism, as well as comparing their performance.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestPixelFormatUtil02BulkNOUI extends JunitTracer {
+    static final PixelFormat[][] pairs = {
+            { PixelFormat.RGBA8888,  PixelFormat.BGRA8888 },
+            { PixelFormat.BGRA8888,  PixelFormat.RGBA8888 },
+            { PixelFormat.RGB888,    PixelFormat.RGBA8888 },
+            { PixelFormat.RGB888,    PixelFormat.BGRA8888 },
+            { PixelFormat.BGR888,    PixelFormat.RGBA8888 },
+            { PixelFormat.BGR888,    PixelFormat.BGRA8888 },
+            { PixelFormat.LUMINANCE, PixelFormat.RGBA8888 },
+            { PixelFormat.LUMINANCE, PixelFormat.BGRA8888 } };
+
+    static ByteBuffer createSource(final int size) {
+        final ByteBuffer src = Buffers.newDirectByteBuffer(size);
+        for(int i=0; i<size; i++) {
+            src.put(i, (byte)(i * 7 + 3));
+        }
+        return src;
+    }
+
+    /** Generic per pixel conversion via {@link PixelFormatUtil#convertToInt32(PixelFormat, PixelFormat, ByteBuffer, int)}. */
+    static void convertPerPixel(final int width, final int height,
+                                final ByteBuffer src, final PixelFormat srcFmt, final int srcStride,
+                                final ByteBuffer dst, final PixelFormat dstFmt, final int dstStride, final boolean flip) {
+        final int srcBpp = srcFmt.comp.bytesPerPixel();
+        for(int y=0; y<height; y++) {
+            final int srcY = flip ? height - 1 - y : y;
+            for(int x=0; x<width; x++) {
+                final int p = PixelFormatUtil.convertToInt32(dstFmt, srcFmt, src, srcY * srcStride + x * srcBpp);
+                final int o = y * dstStride + x * 4;
+                dst.put(o  , (byte)( p        ));
+                dst.put(o+1, (byte)( p >>>  8 ));
+                dst.put(o+2, (byte)( p >>> 16 ));
+                dst.put(o+3, (byte)( p >>> 24 ));
+            }
+        }
+    }
+
+    private void testPair(final PixelFormat srcFmt, final PixelFormat dstFmt, final int width, final int height,
+                          final int srcPad, final int dstPad, final boolean flip, final boolean parallel) {
+        final int srcStride = width * srcFmt.comp.bytesPerPixel() + srcPad;
+        final int dstStride = width * 4 + dstPad;
+        final ByteBuffer src = createSource(srcStride * height);
+        final ByteBuffer exp = Buffers.newDirectByteBuffer(dstStride * height);
+        final ByteBuffer has = Buffers.newDirectByteBuffer(dstStride * height);
+        convertPerPixel(width, height, src, srcFmt, srcStride, exp, dstFmt, dstStride, flip);
+
+        Assert.assertTrue(PixelFormatUtil.isBulkSupported(srcFmt, dstFmt));
+        Assert.assertTrue(PixelFormatUtil.convertBulk(width, height, src, srcFmt, false, srcStride,
+                                                      has, dstFmt, flip, dstStride, parallel));
+        Assert.assertEquals(0, src.position());
+        Assert.assertEquals(0, has.position());
+        for(int y=0; y<height; y++) {
+            for(int x=0; x<width*4; x++) {
+                final int o = y * dstStride + x;
+                if( exp.get(o) != has.get(o) ) {
+                    Assert.assertEquals(srcFmt+" -> "+dstFmt+" @ "+x/4+"/"+y+", flip "+flip+", parallel "+parallel,
+                                        exp.get(o), has.get(o));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test01Pairs() {
+        for(final PixelFormat[] p : pairs) {
+            testPair(p[0], p[1], 37, 11, 0, 0, false, false);
+            testPair(p[0], p[1], 37, 11, 0, 0, true, false);
+        }
+    }
+
+    @Test
+    public void test02PairsStride() {
+        for(final PixelFormat[] p : pairs) {
+            testPair(p[0], p[1], 37, 11, 3, 8, false, false);
+            testPair(p[0], p[1], 37, 11, 4, 4, true, false);
+        }
+    }
+
+    @Test
+    public void test03PairsParallel() {
+        for(final PixelFormat[] p : pairs) {
+            testPair(p[0], p[1], 301, 517, 0, 0, false, true);
+            testPair(p[0], p[1], 301, 517, 1, 4, true, true);
+        }
+        // convert(..) is sequential unless parallel is requested explicitly, both with equal results
+        final int width = 1024, height = PixelFormatUtil.BULK_PARALLEL_THRESHOLD / width;
+        final ByteBuffer src = createSource(width * 4 * height);
+        final ByteBuffer seq = Buffers.newDirectByteBuffer(width * 4 * height);
+        final ByteBuffer par = Buffers.newDirectByteBuffer(width * 4 * height);
+        PixelFormatUtil.convert(width, height, src, PixelFormat.RGBA8888, false, 0, seq, PixelFormat.BGRA8888, true, 0);
+        PixelFormatUtil.convert(width, height, src, PixelFormat.RGBA8888, false, 0, par, PixelFormat.BGRA8888, true, 0, true /* parallel */);
+        Assert.assertEquals(0, seq.compareTo(par));
+    }
+
+    @Test
+    public void test04Unsupported() {
+        Assert.assertFalse(PixelFormatUtil.isBulkSupported(PixelFormat.RGBA8888, PixelFormat.LUMINANCE));
+        Assert.assertFalse(PixelFormatUtil.isBulkSupported(PixelFormat.RGB565, PixelFormat.RGBA8888));
+        Assert.assertFalse(PixelFormatUtil.convertBulk(1, 1, ByteBuffer.allocate(2), PixelFormat.RGB565, false, 0,
+                                                       ByteBuffer.allocate(4), PixelFormat.RGBA8888, false, 0, false));
+    }
+
+    @Test
+    public void test05Perf01() {
+        final int width = 2048, height = 2048, loops = 5;
+        for(final PixelFormat[] p : new PixelFormat[][] { pairs[0], pairs[2], pairs[6] }) {
+            final PixelFormat srcFmt = p[0], dstFmt = p[1];
+            final int srcStride = width * srcFmt.comp.bytesPerPixel();
+            final int dstStride = width * 4;
+            final ByteBuffer src = createSource(srcStride * height);
+            final ByteBuffer dst = Buffers.newDirectByteBuffer(dstStride * height);
+
+            // warm-up
+            convertPerPixel(width, height, src, srcFmt, srcStride, dst, dstFmt, dstStride, false);
+            PixelFormatUtil.convertBulk(width, height, src, srcFmt, false, 0, dst, dstFmt, false, 0, false);
+            PixelFormatUtil.convertBulk(width, height, src, srcFmt, false, 0, dst, dstFmt, false, 0, true);
+
+            long t0 = System.nanoTime();
+            for(int i=0; i<loops; i++) {
+                convertPerPixel(width, height, src, srcFmt, srcStride, dst, dstFmt, dstStride, false);
+            }
+            final long tGeneric = System.nanoTime() - t0;
+            t0 = System.nanoTime();
+            for(int i=0; i<loops; i++) {
+                PixelFormatUtil.convertBulk(width, height, src, srcFmt, false, 0, dst, dstFmt, false, 0, false);
+            }
+            final long tBulk = System.nanoTime() - t0;
+            t0 = System.nanoTime();
+            for(int i=0; i<loops; i++) {
+                PixelFormatUtil.convertBulk(width, height, src, srcFmt, false, 0, dst, dstFmt, false, 0, true);
+            }
+            final long tBulkParallel = System.nanoTime() - t0;
+            System.err.printf("Perf %s -> %s, %dx%d x %d: per-pixel %.2f ms, bulk %.2f ms (%.1fx), bulk-parallel %.2f ms (%.1fx)%n",
+                    srcFmt, dstFmt, width, height, loops,
+                    tGeneric / 1e6 / loops, tBulk / 1e6 / loops, (double)tGeneric / tBulk,
+                    tBulkParallel / 1e6 / loops, (double)tGeneric / tBulkParallel);
+        }
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestPixelFormatUtil02BulkNOUI.class.getName());
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.junit.util.JunitTracer;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.util.texture.spi.SGIImage;
+
+/**
+ * Round-trips RLE encoded SGI images through {@link SGIImage}
+ * and validates the memory mapped {@link File}, {@link InputStream} and {@link ByteBuffer} decoders.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestSGIImage01NOUI extends JunitTracer {
+
+    private static byte[] createRGBA(final int width, final int height, final int bpp) {
+        final byte[] data = new byte[width * height * bpp];
+        for(int i=0; i<data.length; i++) {
+            // runs of equal pixels as well as literal sequences
+            final int x = ( i / bpp ) % width;
+            data[i] = x < width / 2 ? (byte)( ( x / 8 ) * 17 + i % bpp ) : (byte)( i * 31 );
+        }
+        return data;
+    }
+
+    private static void assertRGBA(final byte[] exp, final int bpp, final SGIImage image) {
+        Assert.assertEquals(GL.GL_RGBA, image.getFormat());
+        final byte[] has = image.getData();
+        final int pixels = exp.length / bpp;
+        Assert.assertEquals(pixels * 4, has.length);
+        for(int p=0; p<pixels; p++) {
+            for(int c=0; c<3; c++) {
+                Assert.assertEquals(exp[p*bpp+c], has[p*4+c]);
+            }
+            Assert.assertEquals(4 == bpp ? exp[p*bpp+3] : (byte)0xff, has[p*4+3]);
+        }
+    }
+
+    private void testRoundTrip(final int width, final int height, final boolean hasAlpha) throws IOException {
+        final int bpp = hasAlpha ? 4 : 3;
+        final byte[] data = createRGBA(width, height, bpp);
+        final File file = File.createTempFile("TestSGIImage01NOUI", ".sgi");
+        file.deleteOnExit();
+        SGIImage.createFromData(width, height, hasAlpha, data.clone()).write(file, false);
+
+        final SGIImage mapped = SGIImage.read(file);
+        Assert.assertEquals(width, mapped.getWidth());
+        Assert.assertEquals(height, mapped.getHeight());
+        assertRGBA(data, bpp, mapped);
+
+        final InputStream in = new FileInputStream(file);
+        try {
+            final SGIImage streamed = SGIImage.read(in);
+            Assert.assertArrayEquals(mapped.getData(), streamed.getData());
+        } finally {
+            in.close();
+        }
+
+        final byte[] fileBytes = new byte[(int)file.length()];
+        final InputStream in2 = new FileInputStream(file);
+        try {
+            int pos = 0;
+            while( pos < fileBytes.length ) {
+                pos += in2.read(fileBytes, pos, fileBytes.length - pos);
+            }
+        } finally {
+            in2.close();
+        }
+        // offset within a direct buffer
+        final ByteBuffer direct = ByteBuffer.allocateDirect(fileBytes.length + 3);
+        direct.position(3);
+        direct.put(fileBytes);
+        direct.position(3);
+        Assert.assertArrayEquals(mapped.getData(), SGIImage.read(direct).getData());
+        Assert.assertEquals(3, direct.position());
+    }
+
+    @Test
+    public void test01RGBA() throws IOException {
+        testRoundTrip(129, 67, true);
+    }
+
+    @Test
+    public void test02RGB() throws IOException {
+        testRoundTrip(300, 40, false);
+    }
+
+    @Test(expected=IOException.class)
+    public void test03Truncated() throws IOException {
+        SGIImage.read(ByteBuffer.allocate(100));
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestSGIImage01NOUI.class.getName());
+    }
+}
@@ -0,0 +1,225 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.common.util.IOUtil;
+import com.jogamp.junit.util.JunitTracer;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GLProfile;
+import com.jogamp.opengl.util.texture.spi.TGAImage;
+
+/**
+ * Validates decoded {@link TGAImage} pixels of the test images against their baseline
+ * and of synthetic RLE images with packets spanning row ends, stored bottom-to-top and top-to-bottom.
+ * <p>
+ * Decoded pixels are compared as bottom-to-top RGBA, independent of the chosen BGR(A) or RGB(A) format.
+ * </p>
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestTGAImage01NOUI extends JunitTracer {
+
+    /** Returns the decoded pixels of the given image as RGBA. */
+    private static byte[] toRGBA(final TGAImage image) {
+        final int bpp = image.getBytesPerPixel();
+        final int format = image.getGLFormat();
+        final boolean bgr = GL.GL_BGR == format || GL.GL_BGRA == format;
+        final ByteBuffer data = image.getData().duplicate();
+        final int pixels = image.getWidth() * image.getHeight();
+        Assert.assertEquals(pixels * bpp, data.remaining());
+        final byte[] rgba = new byte[pixels * 4];
+        final byte[] pixel = new byte[bpp];
+        for(int p=0; p<pixels; p++) {
+            data.get(pixel);
+            rgba[p*4+0] = pixel[bgr ? 2 : 0];
+            rgba[p*4+1] = pixel[1];
+            rgba[p*4+2] = pixel[bgr ? 0 : 2];
+            rgba[p*4+3] = 4 == bpp ? pixel[3] : (byte)0xff;
+        }
+        return rgba;
+    }
+
+    private static long crc32(final byte[] data) {
+        final CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length);
+        return crc.getValue();
+    }
+
+    /**
+     * @param expCRC baseline CRC32 of the bottom-to-top RGBA pixels, as decoded by the former stream based decoder
+     */
+    private void testFile(final String name, final int width, final int height, final long expCRC) throws IOException {
+        final GLProfile glp = GLProfile.getDefault();
+        final URLConnection conn = IOUtil.getResource(name, this.getClass().getClassLoader(), this.getClass());
+        Assert.assertNotNull(conn);
+        final InputStream in = conn.getInputStream();
+        final byte[] fileBytes;
+        try {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buf = new byte[4096];
+            int n;
+            while( 0 < ( n = in.read(buf) ) ) {
+                out.write(buf, 0, n);
+            }
+            fileBytes = out.toByteArray();
+        } finally {
+            in.close();
+        }
+        final TGAImage image = TGAImage.read(glp, ByteBuffer.wrap(fileBytes));
+        Assert.assertEquals(width, image.getWidth());
+        Assert.assertEquals(height, image.getHeight());
+        Assert.assertEquals(4, image.getBytesPerPixel());
+        final byte[] rgba = toRGBA(image);
+        Assert.assertEquals(name, expCRC, crc32(rgba));
+
+        // memory mapped decoding
+        final File file = File.createTempFile("TestTGAImage01NOUI", ".tga");
+        file.deleteOnExit();
+        final FileOutputStream fout = new FileOutputStream(file);
+        try {
+            fout.write(fileBytes);
+        } finally {
+            fout.close();
+        }
+        Assert.assertArrayEquals(rgba, toRGBA(TGAImage.read(glp, file)));
+    }
+
+    /**
+     * Creates a run-length encoded true color TGA image, 7 pixels per packet, alternating run and raw packets.
+     * Hence packets span row ends, as well as the first and last row in case of an odd number of packets per row.
+     * @param expRGBA returns the expected bottom-to-top RGBA pixels
+     */
+    private static byte[] createRLE(final int width, final int height, final int bpp, final boolean topToBottom, final byte[] expRGBA) {
+        final int packetSize = 7;
+        final int pixels = width * height;
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(0); // id length
+        out.write(0); // color map type
+        out.write(TGAImage.Header.TRUECOLOR);
+        for(int i=0; i<9; i++) {
+            out.write(0); // color map specification, x- and y-origin
+        }
+        out.write(width & 0xff); out.write(width >>> 8);
+        out.write(height & 0xff); out.write(height >>> 8);
+        out.write(bpp * 8);
+        out.write( ( 4 == bpp ? 8 : 0 ) | ( topToBottom ? TGAImage.Header.ID_TOPTOBOTTOM : 0 ) );
+
+        for(int k=0; k<pixels; k+=packetSize) {
+            final int len = Math.min(packetSize, pixels - k);
+            final boolean run = 0 == ( k / packetSize ) % 2;
+            out.write( ( run ? 0x80 : 0 ) | ( len - 1 ) );
+            for(int j=0; j<len; j++) {
+                // file pixel stream index k+j, pixel value equal within a run packet
+                final int v = run ? k : k + j;
+                final byte r = (byte)( v * 3 ), g = (byte)( v * 5 + 1 ), b = (byte)( v * 7 + 2 ), a = (byte)( 255 - v );
+                if( !run || 0 == j ) {
+                    out.write(b); out.write(g); out.write(r);
+                    if( 4 == bpp ) {
+                        out.write(a);
+                    }
+                }
+                final int fileRow = ( k + j ) / width;
+                final int col = ( k + j ) % width;
+                final int y = topToBottom ? height - fileRow - 1 : fileRow;
+                final int p = ( y * width + col ) * 4;
+                expRGBA[p+0] = r; expRGBA[p+1] = g; expRGBA[p+2] = b; expRGBA[p+3] = 4 == bpp ? a : (byte)0xff;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private void testRLE(final int width, final int height, final int bpp, final boolean topToBottom) throws IOException {
+        final byte[] expRGBA = new byte[width * height * 4];
+        final byte[] tga = createRLE(width, height, bpp, topToBottom, expRGBA);
+        final TGAImage image = TGAImage.read(GLProfile.getDefault(), ByteBuffer.wrap(tga));
+        Assert.assertEquals(width, image.getWidth());
+        Assert.assertEquals(height, image.getHeight());
+        Assert.assertEquals(bpp, image.getBytesPerPixel());
+        Assert.assertArrayEquals(expRGBA, toRGBA(image));
+
+        // offset within a direct buffer
+        final ByteBuffer direct = ByteBuffer.allocateDirect(tga.length + 3);
+        direct.position(3);
+        direct.put(tga);
+        direct.position(3);
+        Assert.assertArrayEquals(expRGBA, toRGBA(TGAImage.read(GLProfile.getDefault(), direct)));
+        Assert.assertEquals(3, direct.position());
+    }
+
+    @Test
+    public void test01RLE32File() throws IOException {
+        testFile("bug744-rle32.tga", 256, 256, 0x98664a67L);
+    }
+
+    @Test
+    public void test02RLE32File() throws IOException {
+        testFile("bug982.rle32.256x256.tga", 256, 256, 0xc76398edL);
+    }
+
+    @Test
+    public void test03U32File() throws IOException {
+        testFile("test-u32.tga", 128, 128, 0x66c739d8L);
+    }
+
+    @Test
+    public void test04RLEBottomToTop() throws IOException {
+        testRLE(5, 4, 4, false);
+        testRLE(13, 9, 3, false);
+    }
+
+    @Test
+    public void test05RLETopToBottom() throws IOException {
+        testRLE(5, 4, 4, true);
+        testRLE(13, 9, 3, true);
+    }
+
+    @Test(expected=IOException.class)
+    public void test06RLETruncated() throws IOException {
+        final int width = 13, height = 9;
+        final byte[] tga = createRLE(width, height, 4, false, new byte[width * height * 4]);
+        final ByteBuffer truncated = ByteBuffer.wrap(tga, 0, tga.length - 5).slice();
+        TGAImage.read(GLProfile.getDefault(), truncated);
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestTGAImage01NOUI.class.getName());
+    }
+}
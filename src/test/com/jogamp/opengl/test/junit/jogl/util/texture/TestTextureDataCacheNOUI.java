@@ -0,0 +1,162 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.common.util.IOUtil;
+import com.jogamp.junit.util.JunitTracer;
+import com.jogamp.opengl.util.texture.TextureData;
+import com.jogamp.opengl.util.texture.TextureDataCache;
+import com.jogamp.opengl.util.texture.TextureIO;
+
+/**
+ * Validates {@link TextureDataCache} hits, decode option keys,
+ * LRU eviction within the byte budget and disk spilling.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestTextureDataCacheNOUI extends JunitTracer {
+    static final String DDS_UNCOMPRESSED = "test-64x32_uncompressed.dds";
+    static final String DDS_DXT1 = "test-64x32_DXT1.dds";
+
+    private TextureData get(final TextureDataCache cache, final String name, final boolean mipmap) throws IOException {
+        final URLConnection con = IOUtil.getResource(name, getClass().getClassLoader(), getClass());
+        Assert.assertNotNull(con);
+        final InputStream stream = con.getInputStream();
+        try {
+            final TextureData data = cache.get(null, stream, 0, 0, mipmap, TextureIO.DDS);
+            Assert.assertNotNull(data);
+            return data;
+        } finally {
+            stream.close();
+        }
+    }
+
+    private static void assertSameContent(final TextureData exp, final TextureData has) {
+        Assert.assertNotSame(exp, has);
+        Assert.assertEquals(exp.getWidth(), has.getWidth());
+        Assert.assertEquals(exp.getHeight(), has.getHeight());
+        Assert.assertEquals(exp.getInternalFormat(), has.getInternalFormat());
+        Assert.assertEquals(exp.getPixelFormat(), has.getPixelFormat());
+        Assert.assertEquals(exp.getMustFlipVertically(), has.getMustFlipVertically());
+        Assert.assertEquals(exp.isDataCompressed(), has.isDataCompressed());
+        Assert.assertEquals(exp.getEstimatedMemorySize(), has.getEstimatedMemorySize());
+        if( null != exp.getMipmapData() ) {
+            Assert.assertEquals(exp.getMipmapData().length, has.getMipmapData().length);
+            for(int i=0; i<exp.getMipmapData().length; i++) {
+                Assert.assertEquals(0, ((ByteBuffer)exp.getMipmapData()[i]).compareTo((ByteBuffer)has.getMipmapData()[i]));
+            }
+        } else {
+            Assert.assertEquals(0, ((ByteBuffer)exp.getBuffer()).compareTo((ByteBuffer)has.getBuffer()));
+        }
+    }
+
+    @Test
+    public void test01Hit() throws IOException {
+        final TextureDataCache cache = new TextureDataCache(1024*1024, null);
+        final TextureData d0 = get(cache, DDS_UNCOMPRESSED, true);
+        Assert.assertEquals(1, cache.getMissCount());
+        final TextureData d1 = get(cache, DDS_UNCOMPRESSED, true);
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(1, cache.getEntryCount());
+        Assert.assertEquals(0.5f, cache.getHitRate(), 0.0001f);
+        assertSameContent(d0, d1);
+
+        d1.flush(); // must not release cached data
+        assertSameContent(d0, get(cache, DDS_UNCOMPRESSED, true));
+        Assert.assertEquals(2, cache.getHitCount());
+    }
+
+    @Test
+    public void test02DecodeOptionsKey() throws IOException {
+        final TextureDataCache cache = new TextureDataCache(1024*1024, null);
+        get(cache, DDS_UNCOMPRESSED, true);
+        get(cache, DDS_UNCOMPRESSED, false);
+        Assert.assertEquals(2, cache.getMissCount());
+        Assert.assertEquals(0, cache.getHitCount());
+        Assert.assertEquals(2, cache.getEntryCount());
+    }
+
+    @Test
+    public void test03EvictAndSpill() throws IOException {
+        final File spillDir = new File(System.getProperty("java.io.tmpdir"), "TestTextureDataCacheNOUI-"+System.nanoTime());
+        final TextureDataCache probe = new TextureDataCache(Long.MAX_VALUE, null);
+        final long size0 = get(probe, DDS_UNCOMPRESSED, false).getEstimatedMemorySize();
+        final long size1 = get(probe, DDS_DXT1, false).getEstimatedMemorySize();
+
+        final TextureDataCache cache = new TextureDataCache(Math.max(size0, size1), spillDir);
+        try {
+            final TextureData d0 = get(cache, DDS_UNCOMPRESSED, false);
+            get(cache, DDS_DXT1, false);
+            Assert.assertEquals(1, cache.getEvictionCount());
+            Assert.assertEquals(1, cache.getSpillCount());
+            Assert.assertEquals(1, cache.getEntryCount());
+            Assert.assertTrue(cache.getUsedBytes() <= cache.getByteBudget());
+
+            final TextureData d0s = get(cache, DDS_UNCOMPRESSED, false);
+            Assert.assertEquals(1, cache.getSpillHitCount());
+            Assert.assertEquals(2, cache.getMissCount());
+            Assert.assertTrue(d0s.getBuffer().isDirect()); // memory mapped spill file
+            assertSameContent(d0, d0s);
+
+            // evicting the spill-mapped entry keeps its spill file untouched
+            final File[] spillFiles = spillDir.listFiles();
+            final long[] spillModified = new long[spillFiles.length];
+            for(int i=0; i<spillFiles.length; i++) {
+                spillModified[i] = spillFiles[i].lastModified();
+            }
+            Assert.assertEquals(2, cache.getSpillCount()); // DXT1 evicted by d0s
+            get(cache, DDS_DXT1, false);
+            Assert.assertEquals(2, cache.getSpillHitCount());
+            Assert.assertEquals(3, cache.getEvictionCount());
+            Assert.assertEquals(2, cache.getSpillCount());
+            for(int i=0; i<spillFiles.length; i++) {
+                Assert.assertEquals(spillModified[i], spillFiles[i].lastModified());
+            }
+            assertSameContent(d0, d0s); // still mapped
+            assertSameContent(d0, get(cache, DDS_UNCOMPRESSED, false));
+            Assert.assertEquals(3, cache.getSpillHitCount());
+        } finally {
+            cache.clear();
+            spillDir.delete();
+        }
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestTextureDataCacheNOUI.class.getName());
+    }
+}
@@ -0,0 +1,233 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLCapabilities;
+import com.jogamp.opengl.GLDrawableFactory;
+import com.jogamp.opengl.GLOffscreenAutoDrawable;
+import com.jogamp.opengl.GLProfile;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.opengl.test.junit.util.UITestCase;
+import com.jogamp.opengl.util.GLBuffers;
+import com.jogamp.opengl.util.texture.Texture;
+import com.jogamp.opengl.util.texture.TextureData;
+import com.jogamp.opengl.util.texture.TextureStreamer;
+
+/**
+ * Streams {@link TextureData} via {@link TextureStreamer} row band by row band
+ * through its PBO ring on an offscreen drawable, validating the uploaded texels via FBO readback.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestTextureStreamer01Offscreen extends UITestCase {
+    static final int texSize = 64;
+    static final int segmentSize = 1024; // 4 RGBA rows of 64 pixels per band
+
+    @BeforeClass
+    public static void initClass() {
+        GLProfile.initSingleton();
+    }
+
+    static byte texel(final int id, final int x, final int y, final int c) {
+        return (byte)( x * 7 + y * 13 + c * 17 + id * 31 );
+    }
+
+    /** Creates RGBA data with the given row length in pixels, padding filled with garbage. */
+    static TextureData createData(final GLProfile glp, final int id, final int rowLength) {
+        final int rowPixels = 0 < rowLength ? rowLength : texSize;
+        final ByteBuffer pixels = GLBuffers.newDirectByteBuffer(rowPixels * texSize * 4);
+        for(int y=0; y<texSize; y++) {
+            for(int x=0; x<rowPixels; x++) {
+                for(int c=0; c<4; c++) {
+                    pixels.put( x < texSize ? texel(id, x, y, c) : (byte)0xEE );
+                }
+            }
+        }
+        pixels.rewind();
+        final TextureData data = new TextureData(glp, GL.GL_RGBA, texSize, texSize, 0, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE,
+                                                 false /* mipmap */, false /* compressed */, false /* flip */, pixels, null);
+        data.setAlignment(4);
+        data.setRowLength(rowLength);
+        return data;
+    }
+
+    /** Reads back the texture's level 0 via an FBO and compares it with the expected texels. */
+    static void validate(final GL gl, final int id, final Texture texture) {
+        final int[] fbo = { 0 };
+        gl.glGenFramebuffers(1, fbo, 0);
+        gl.glBindFramebuffer(GL.GL_FRAMEBUFFER, fbo[0]);
+        gl.glFramebufferTexture2D(GL.GL_FRAMEBUFFER, GL.GL_COLOR_ATTACHMENT0, texture.getTarget(), texture.getTextureObject(), 0);
+        Assert.assertEquals(GL.GL_FRAMEBUFFER_COMPLETE, gl.glCheckFramebufferStatus(GL.GL_FRAMEBUFFER));
+        final ByteBuffer readback = GLBuffers.newDirectByteBuffer(texSize * texSize * 4);
+        gl.glPixelStorei(GL.GL_PACK_ALIGNMENT, 4);
+        gl.glReadPixels(0, 0, texSize, texSize, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE, readback);
+        gl.glBindFramebuffer(GL.GL_FRAMEBUFFER, 0);
+        gl.glDeleteFramebuffers(1, fbo, 0);
+        Assert.assertEquals(GL.GL_NO_ERROR, gl.glGetError());
+        for(int y=0; y<texSize; y++) {
+            for(int x=0; x<texSize; x++) {
+                for(int c=0; c<4; c++) {
+                    final int i = ( y * texSize + x ) * 4 + c;
+                    if( texel(id, x, y, c) != readback.get(i) ) {
+                        Assert.fail("Texture "+id+": texel mismatch at "+x+"/"+y+"["+c+"]: expected "+
+                                    (texel(id, x, y, c) & 0xff)+", has "+(readback.get(i) & 0xff));
+                    }
+                }
+            }
+        }
+    }
+
+    static class Result implements TextureStreamer.Listener {
+        final int id;
+        boolean ready = false;
+        Throwable error = null;
+
+        Result(final int id) { this.id = id; }
+
+        @Override
+        public void textureReady(final GL gl, final Texture texture, final TextureData data) {
+            try {
+                validate(gl, id, texture);
+                ready = true;
+            } catch (final Throwable t) {
+                error = t;
+            } finally {
+                texture.destroy(gl);
+            }
+        }
+
+        @Override
+        public void textureFailed(final GL gl, final Throwable cause) {
+            error = cause;
+        }
+    }
+
+    static GLOffscreenAutoDrawable createDrawable() {
+        final GLProfile glp = GLProfile.getGL2ES2();
+        final GLCapabilities caps = new GLCapabilities(glp);
+        caps.setFBO(true);
+        final GLOffscreenAutoDrawable glad = GLDrawableFactory.getFactory(glp).createOffscreenAutoDrawable(null, caps, null, 64, 64);
+        glad.display();
+        return glad;
+    }
+
+    @Test
+    public void test01BandUploadRing() {
+        final GLOffscreenAutoDrawable glad = createDrawable();
+        final GLProfile glp = glad.getGLProfile();
+        final TextureStreamer streamer = new TextureStreamer(glp, 1, 2 /* segments */, segmentSize, 0f);
+        streamer.setMegaBytesPerFrame(2f * segmentSize / ( 1024f * 1024f )); // two bands per frame
+        try {
+            final List<Result> results = new ArrayList<Result>();
+            for(int i=0; i<4; i++) {
+                final Result r = new Result(i);
+                results.add(r);
+                // every other texture w/ wider source rows, repacked w/o GL_UNPACK_ROW_LENGTH
+                streamer.load(createData(glp, i, 0 == i % 2 ? 0 : texSize + 16), r);
+            }
+            Assert.assertEquals(4, streamer.getPendingCount());
+            final int[] frames = { 0 };
+            while( 0 < streamer.getPendingCount() && frames[0] < 10000 ) {
+                glad.invoke(true, (final GLAutoDrawable drawable) -> {
+                    final int bytes = streamer.upload(drawable.getGL());
+                    Assert.assertTrue(bytes <= streamer.getBytesPerFrame());
+                    frames[0]++;
+                    return true;
+                });
+            }
+            System.err.println(streamer+", frames "+frames[0]);
+            Assert.assertEquals(0, streamer.getPendingCount());
+            for(final Result r : results) {
+                Assert.assertNull("Texture "+r.id+": "+r.error, r.error);
+                Assert.assertTrue("Texture "+r.id+" not ready", r.ready);
+            }
+            Assert.assertEquals(4, streamer.getUploadedTextures());
+            Assert.assertEquals(4L * ( texSize * texSize * 4 ), streamer.getUploadedBytes());
+            // 4 textures of 16 bands each, at most 2 bands per frame
+            Assert.assertTrue("frames "+frames[0], 32 <= frames[0]);
+        } finally {
+            glad.invoke(true, (final GLAutoDrawable drawable) -> { streamer.destroy(drawable.getGL()); return true; });
+            glad.destroy();
+        }
+    }
+
+    @Test
+    public void test02Destroy() {
+        final GLOffscreenAutoDrawable glad = createDrawable();
+        final GLProfile glp = glad.getGLProfile();
+        final TextureStreamer streamer = new TextureStreamer(glp, 2, 2 /* segments */, segmentSize, 0f);
+        streamer.setMegaBytesPerFrame(segmentSize / ( 1024f * 1024f )); // one band per frame
+        try {
+            final Result r0 = new Result(0);
+            final Result r1 = new Result(1);
+            streamer.load(createData(glp, 0, 0), r0);
+            streamer.load(createData(glp, 1, 0), r1);
+            // partially upload the first texture, then destroy
+            glad.invoke(true, (final GLAutoDrawable drawable) -> {
+                streamer.upload(drawable.getGL());
+                streamer.destroy(drawable.getGL());
+                Assert.assertEquals(GL.GL_NO_ERROR, drawable.getGL().glGetError());
+                Assert.assertEquals(0, streamer.upload(drawable.getGL()));
+                return true;
+            });
+            Assert.assertEquals(0, streamer.getPendingCount());
+            Assert.assertFalse(r0.ready);
+            Assert.assertFalse(r1.ready);
+            Assert.assertNull(r0.error);
+            Assert.assertNull(r1.error);
+            try {
+                streamer.load(createData(glp, 2, 0), new Result(2));
+                Assert.fail("Expected IllegalStateException");
+            } catch (final IllegalStateException ise) { }
+            try {
+                streamer.load(new File("nonexistent.png"), false, null, new Result(3));
+                Assert.fail("Expected IllegalStateException");
+            } catch (final IllegalStateException ise) { }
+            Assert.assertEquals(0, streamer.getPendingCount());
+        } finally {
+            glad.destroy();
+        }
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestTextureStreamer01Offscreen.class.getName());
+    }
+}
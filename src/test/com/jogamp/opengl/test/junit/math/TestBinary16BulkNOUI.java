@@ -0,0 +1,269 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.math;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.junit.util.JunitTracer;
+import com.jogamp.math.Binary16;
+import com.jogamp.math.FixedPoint;
+
+/**
+ * Validates the rounding {@link Binary16} and {@link FixedPoint} conversions,
+ * their bulk array and buffer variants incl. parallel execution, as well as comparing their performance.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestBinary16BulkNOUI extends JunitTracer {
+
+    /** Exact value of the given half via double arithmetic. */
+    private static double halfValue(final int h) {
+        final int e = ( h >>> 10 ) & 0x1F;
+        final int m = h & 0x3FF;
+        final double v;
+        if( 0x1F == e ) {
+            v = 0 == m ? Double.POSITIVE_INFINITY : Double.NaN;
+        } else if( 0 == e ) {
+            v = m * Math.pow(2, -24);
+        } else {
+            v = ( 1 + m / 1024.0 ) * Math.pow(2, e - 15);
+        }
+        return 0 != ( h & 0x8000 ) ? -v : v;
+    }
+
+    private static short[] newHalfs(final int count, final long seed) {
+        final Random rnd = new Random(seed);
+        final short[] a = new short[count];
+        for(int i=0; i<count; i++) {
+            a[i] = (short)rnd.nextInt(0x10000);
+        }
+        return a;
+    }
+
+    private static float[] newFloats(final int count, final long seed) {
+        final Random rnd = new Random(seed);
+        final float[] a = new float[count];
+        for(int i=0; i<count; i++) {
+            a[i] = ( rnd.nextFloat() - 0.5f ) * (float)Math.pow(2, rnd.nextInt(40) - 28);
+        }
+        return a;
+    }
+
+    @Test
+    public void test01UnpackExhaustive() {
+        for(int h=0; h<0x10000; h++) {
+            final float f = Binary16.unpackFloatExact((char)h);
+            final double exp = halfValue(h);
+            if( Double.isNaN(exp) ) {
+                Assert.assertTrue(Float.isNaN(f));
+            } else {
+                Assert.assertEquals("half 0x"+Integer.toHexString(h), Double.doubleToLongBits(exp), Double.doubleToLongBits(f));
+                // round trip
+                Assert.assertEquals("half 0x"+Integer.toHexString(h), h, Binary16.packFloatRounded(f));
+            }
+        }
+    }
+
+    @Test
+    public void test02PackRoundToNearestEven() {
+        final float[] src = newFloats(200000, 1);
+        for(final float f : src) {
+            final char h = Binary16.packFloatRounded(f);
+            final int m = h & 0x7FFF;
+            final double d = Math.abs((double)f);
+            final double err = Math.abs(d - halfValue(m));
+            if( 0x7C00 == m ) {
+                Assert.assertTrue("overflow "+f, d >= 65520.0);
+                continue;
+            }
+            Assert.assertEquals("sign "+f, f < 0 || 0 == f && 1f/f < 0, 0 != ( h & 0x8000 ));
+            if( 0 < m ) {
+                Assert.assertTrue("below "+f, err <= Math.abs(d - halfValue(m - 1)));
+            }
+            final double errUp = Math.abs(d - halfValue(m + 1));
+            Assert.assertTrue("above "+f, err <= errUp);
+            if( err == errUp ) {
+                Assert.assertEquals("tie to even "+f, 0, m & 1);
+            }
+        }
+        // ties and boundaries
+        Assert.assertEquals(0x3C00, Binary16.packFloatRounded(1f + 0x1p-11f));               // tie, even down
+        Assert.assertEquals(0x3C02, Binary16.packFloatRounded(1f + 3 * 0x1p-11f));           // tie, even up
+        Assert.assertEquals(0x0000, Binary16.packFloatRounded(0x1p-25f));                    // tie, even zero
+        Assert.assertEquals(0x0001, Binary16.packFloatRounded(Math.nextUp(0x1p-25f)));
+        Assert.assertEquals(0x0400, Binary16.packFloatRounded(0x1p-14f - 0x1p-25f));          // subnormal tie rounds up to min normal
+        Assert.assertEquals(0x7BFF, Binary16.packFloatRounded(65519.99f));
+        Assert.assertEquals(0x7C00, Binary16.packFloatRounded(65520f));
+        Assert.assertEquals(0xFC00, Binary16.packFloatRounded(Float.NEGATIVE_INFINITY));
+        Assert.assertEquals(0x7E00, Binary16.packFloatRounded(Float.NaN));
+        Assert.assertEquals(0x8000, Binary16.packFloatRounded(-0f));
+    }
+
+    @Test
+    public void test03BulkHalf() {
+        final int count = 300000 + 17;
+        final float[] src = newFloats(count, 2);
+        final short[] exp = new short[count];
+        for(int i=0; i<count; i++) {
+            exp[i] = (short)Binary16.packFloatRounded(src[i]);
+        }
+        for(final boolean parallel : new boolean[] { false, true }) {
+            final short[] dst = new short[count + 3];
+            Binary16.packFloats(src, 0, dst, 3, count, parallel);
+            for(int i=0; i<count; i++) {
+                Assert.assertEquals(exp[i], dst[i+3]);
+            }
+            final float[] back = new float[count];
+            Binary16.unpackFloats(dst, 3, back, 0, count, parallel);
+            for(int i=0; i<count; i++) {
+                Assert.assertEquals(Float.floatToIntBits(Binary16.unpackFloatExact((char)exp[i])), Float.floatToIntBits(back[i]));
+            }
+            // direct buffers, staged
+            final FloatBuffer fb = ByteBuffer.allocateDirect(4*(count+1)).order(ByteOrder.nativeOrder()).asFloatBuffer();
+            final ShortBuffer sb = ByteBuffer.allocateDirect(2*(count+2)).order(ByteOrder.nativeOrder()).asShortBuffer();
+            for(int i=0; i<count; i++) {
+                fb.put(i+1, src[i]);
+            }
+            Binary16.packFloats(fb, 1, sb, 2, count, parallel);
+            Assert.assertEquals(0, fb.position());
+            Assert.assertEquals(0, sb.position());
+            for(int i=0; i<count; i++) {
+                Assert.assertEquals(exp[i], sb.get(i+2));
+            }
+            Binary16.unpackFloats(sb, 2, fb, 1, count, parallel);
+            for(int i=0; i<count; i++) {
+                Assert.assertEquals(Float.floatToIntBits(back[i]), Float.floatToIntBits(fb.get(i+1)));
+            }
+        }
+        try {
+            Binary16.packFloats(src, 1, new short[count], 0, count, false);
+            Assert.fail("Expected IndexOutOfBoundsException");
+        } catch(final IndexOutOfBoundsException e) { }
+    }
+
+    @Test
+    public void test04BulkFixed() {
+        Assert.assertEquals(0x00010000, FixedPoint.toFixedRounded(1f));
+        Assert.assertEquals(0, FixedPoint.toFixedRounded(0x1p-17f));                        // tie, even zero
+        Assert.assertEquals(2, FixedPoint.toFixedRounded(3 * 0x1p-17f));                    // tie, even up
+        Assert.assertEquals(-1, FixedPoint.toFixedRounded(-0x1p-16f * 0.75f));
+        Assert.assertEquals(Integer.MAX_VALUE, FixedPoint.toFixedRounded(40000f));
+        Assert.assertEquals(Integer.MIN_VALUE, FixedPoint.toFixedRounded(Float.NEGATIVE_INFINITY));
+        Assert.assertEquals(0, FixedPoint.toFixedRounded(Float.NaN));
+
+        final int count = 300000 + 5;
+        final float[] src = newFloats(count, 3);
+        for(final boolean parallel : new boolean[] { false, true }) {
+            final int[] dst = new int[count];
+            FixedPoint.toFixed(src, 0, dst, 0, count, parallel);
+            final float[] back = new float[count];
+            FixedPoint.toFloat(dst, 0, back, 0, count, parallel);
+            final IntBuffer ib = ByteBuffer.allocateDirect(4*count).order(ByteOrder.nativeOrder()).asIntBuffer();
+            final FloatBuffer fb = ByteBuffer.allocateDirect(4*count).order(ByteOrder.nativeOrder()).asFloatBuffer();
+            fb.put(src).rewind();
+            FixedPoint.toFixed(fb, 0, ib, 0, count, parallel);
+            for(int i=0; i<count; i++) {
+                Assert.assertEquals(FixedPoint.toFixedRounded(src[i]), dst[i]);
+                Assert.assertEquals(dst[i], ib.get(i));
+                Assert.assertEquals(FixedPoint.toFloat(dst[i]), back[i], 0f);
+                if( Math.abs(src[i]) < 32767f ) {
+                    Assert.assertEquals(src[i], back[i], 0x1p-17f);
+                }
+            }
+            FixedPoint.toFloat(ib, 0, fb, 0, count, parallel);
+            for(int i=0; i<count; i++) {
+                Assert.assertEquals(back[i], fb.get(i), 0f);
+            }
+        }
+    }
+
+    @Test
+    public void test05Perf01() {
+        final int count = 4*1024*1024, loops = 5;
+        final Random rnd = new Random(4);
+        final float[] src = new float[count]; // vertex like data
+        for(int i=0; i<count; i++) {
+            src[i] = ( rnd.nextFloat() - 0.5f ) * 200f;
+        }
+        final short[] dst = new short[count];
+        final float[] back = new float[count];
+
+        for(int w=0; w<2; w++) {
+            final boolean measure = 1 == w;
+            long t0 = System.nanoTime();
+            for(int l=0; l<loops; l++) {
+                for(int i=0; i<count; i++) {
+                    dst[i] = (short)Binary16.packFloatRounded(src[i]);
+                }
+            }
+            final long tScalar = System.nanoTime() - t0;
+            t0 = System.nanoTime();
+            for(int l=0; l<loops; l++) {
+                Binary16.packFloats(src, 0, dst, 0, count, false);
+            }
+            final long tBulk = System.nanoTime() - t0;
+            t0 = System.nanoTime();
+            for(int l=0; l<loops; l++) {
+                Binary16.packFloats(src, 0, dst, 0, count, true);
+            }
+            final long tBulkParallel = System.nanoTime() - t0;
+            t0 = System.nanoTime();
+            for(int l=0; l<loops; l++) {
+                for(int i=0; i<count; i++) {
+                    back[i] = Binary16.unpackFloatExact((char)dst[i]);
+                }
+            }
+            final long tUScalar = System.nanoTime() - t0;
+            t0 = System.nanoTime();
+            for(int l=0; l<loops; l++) {
+                Binary16.unpackFloats(dst, 0, back, 0, count, true);
+            }
+            final long tUBulk = System.nanoTime() - t0;
+            if( measure ) {
+                System.err.printf("Perf pack %d x %d: packFloatRounded %.2f ms, packFloats %.2f ms (%.1fx), parallel %.2f ms (%.1fx)%n",
+                        count, loops, tScalar / 1e6 / loops, tBulk / 1e6 / loops, (double)tScalar / tBulk,
+                        tBulkParallel / 1e6 / loops, (double)tScalar / tBulkParallel);
+                System.err.printf("Perf unpack %d x %d: unpackFloatExact %.2f ms, unpackFloats parallel %.2f ms (%.1fx)%n",
+                        count, loops, tUScalar / 1e6 / loops, tUBulk / 1e6 / loops, (double)tUScalar / tUBulk);
+            }
+        }
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestBinary16BulkNOUI.class.getName());
+    }
+}
@@ -0,0 +1,221 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.math;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.junit.util.JunitTracer;
+import com.jogamp.math.FloatUtil;
+import com.jogamp.math.Matrix4f;
+import com.jogamp.math.geom.AABBox;
+import com.jogamp.math.geom.AABBoxArray;
+import com.jogamp.math.geom.Frustum;
+
+/**
+ * Validates the {@link Frustum} batch culling
+ * {@link Frustum#cull(AABBoxArray, int, int, long[], byte[], boolean)}
+ * against the per box {@link Frustum#isOutside(AABBox)},
+ * incl. packed arrays, plane cache, partial ranges and parallel chunks, as well as comparing their performance.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestFrustum01CullNOUI extends JunitTracer {
+
+    static Frustum createFrustum(final float angle) {
+        final Matrix4f p = new Matrix4f().setToPerspective(FloatUtil.QUARTER_PI, 1.5f, 1f, 100f);
+        final Matrix4f mv = new Matrix4f().setToRotationAxis(angle, 0f, 1f, 0f);
+        return new Frustum().setFromMat(new Matrix4f().mul(p, mv));
+    }
+
+    static AABBoxArray createBoxes(final int count, final long seed) {
+        final Random rnd = new Random(seed);
+        final AABBoxArray boxes = new AABBoxArray(count);
+        for(int i=0; i<count; i++) {
+            final float x = rnd.nextFloat() * 200f - 100f;
+            final float y = rnd.nextFloat() * 200f - 100f;
+            final float z = rnd.nextFloat() * 200f - 100f;
+            final float s = rnd.nextFloat() * 4f;
+            boxes.set(i, x, y, z, x + s, y + s * 0.5f, z + s * 2f);
+        }
+        return boxes;
+    }
+
+    static void pack(final AABBoxArray boxes, final float[] low, final float[] high) {
+        for(int i=0; i<boxes.size(); i++) {
+            low[i*3] = boxes.loX[i]; low[i*3+1] = boxes.loY[i]; low[i*3+2] = boxes.loZ[i];
+            high[i*3] = boxes.hiX[i]; high[i*3+1] = boxes.hiY[i]; high[i*3+2] = boxes.hiZ[i];
+        }
+    }
+
+    static int cullPerBox(final Frustum f, final AABBoxArray boxes, final boolean[] visible) {
+        final AABBox box = new AABBox();
+        int res = 0;
+        for(int i=0; i<boxes.size(); i++) {
+            visible[i] = !f.isOutside(boxes.get(i, box));
+            if( visible[i] ) {
+                ++res;
+            }
+        }
+        return res;
+    }
+
+    static void assertBits(final boolean[] exp, final long[] has, final int first, final int count) {
+        for(int i=first; i<first+count; i++) {
+            final boolean v = 0 != ( has[i >>> 6] & ( 1L << i ) );
+            if( exp[i] != v ) {
+                Assert.assertEquals("box "+i, exp[i], v);
+            }
+        }
+    }
+
+    private void testCull(final int count, final boolean parallel) {
+        final AABBoxArray boxes = createBoxes(count, 4711);
+        final float[] low = new float[count*3];
+        final float[] high = new float[count*3];
+        pack(boxes, low, high);
+        final long[] visible = new long[(count+63)/64];
+        final byte[] cache = new byte[count];
+        java.util.Arrays.fill(cache, (byte)-1);
+        final boolean[] exp = new boolean[count];
+
+        for(int a=0; a<4; a++) {
+            final Frustum f = createFrustum(a * FloatUtil.QUARTER_PI * 0.5f);
+            final int expCount = cullPerBox(f, boxes, exp);
+            Assert.assertTrue(0 < expCount && expCount < count);
+
+            Assert.assertEquals(expCount, f.cull(boxes, 0, count, visible, null, parallel));
+            assertBits(exp, visible, 0, count);
+
+            java.util.Arrays.fill(visible, 0);
+            Assert.assertEquals(expCount, f.cull(low, high, 0, count, visible, null, parallel));
+            assertBits(exp, visible, 0, count);
+
+            // the cache of the previous angle is reused, i.e. partially stale
+            java.util.Arrays.fill(visible, -1L);
+            Assert.assertEquals(expCount, f.cull(boxes, 0, count, visible, cache, parallel));
+            assertBits(exp, visible, 0, count);
+            for(int i=0; i<count; i++) {
+                if( !exp[i] ) {
+                    final int c = cache[i];
+                    Assert.assertTrue(0 <= c && c < 6);
+                    Assert.assertTrue(0 >= f.getPlanes()[c].distanceTo(
+                            f.getPlanes()[c].n.x() > 0 ? boxes.hiX[i] : boxes.loX[i],
+                            f.getPlanes()[c].n.y() > 0 ? boxes.hiY[i] : boxes.loY[i],
+                            f.getPlanes()[c].n.z() > 0 ? boxes.hiZ[i] : boxes.loZ[i]));
+                }
+            }
+            Assert.assertEquals(expCount, f.cull(low, high, 0, count, visible, cache, parallel));
+            assertBits(exp, visible, 0, count);
+        }
+    }
+
+    @Test
+    public void test01Cull() {
+        testCull(1000, false);
+        testCull(64, false);
+        testCull(65, false);
+    }
+
+    @Test
+    public void test02CullParallel() {
+        testCull(Frustum.CULL_PARALLEL_THRESHOLD * 2 + 17, true);
+    }
+
+    @Test
+    public void test03PartialRange() {
+        final int count = 300;
+        final AABBoxArray boxes = createBoxes(count, 13);
+        final Frustum f = createFrustum(0f);
+        final boolean[] exp = new boolean[count];
+        cullPerBox(f, boxes, exp);
+        final long[] visible = new long[(count+63)/64];
+        java.util.Arrays.fill(visible, 0x5555555555555555L);
+        final int first = 37, n = 150;
+        int expCount = 0;
+        for(int i=first; i<first+n; i++) {
+            if( exp[i] ) { ++expCount; }
+        }
+        Assert.assertEquals(expCount, f.cull(boxes, first, n, visible, null, false));
+        assertBits(exp, visible, first, n);
+        for(int i=0; i<count; i++) {
+            if( i < first || i >= first + n ) {
+                Assert.assertEquals("untouched bit "+i, 0 == ( i & 1 ), 0 != ( visible[i >>> 6] & ( 1L << i ) ));
+            }
+        }
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void test04RangeExceedsBitset() {
+        createFrustum(0f).cull(createBoxes(129, 1), 0, 129, new long[2], null, false);
+    }
+
+    @Test
+    public void test05Perf01() {
+        final int count = 100000, loops = 200;
+        final AABBoxArray boxes = createBoxes(count, 1);
+        final AABBox[] boxes0 = new AABBox[count];
+        for(int i=0; i<count; i++) {
+            boxes0[i] = boxes.get(i, new AABBox());
+        }
+        final long[] visible = new long[(count+63)/64];
+        final byte[] cache = new byte[count];
+        final boolean[] visible0 = new boolean[count];
+        final Frustum f = createFrustum(0.3f);
+        long tSingle = 0, tBatch = 0, tCached = 0, tParallel = 0;
+        int sum = 0;
+        for(int l=0; l<loops*2; l++) {
+            final boolean measure = l >= loops;
+            final long t0 = System.nanoTime();
+            for(int i=0; i<count; i++) {
+                visible0[i] = !f.isOutside(boxes0[i]);
+            }
+            final long t1 = System.nanoTime();
+            sum += f.cull(boxes, 0, count, visible, null, false);
+            final long t2 = System.nanoTime();
+            sum += f.cull(boxes, 0, count, visible, cache, false);
+            final long t3 = System.nanoTime();
+            sum += f.cull(boxes, 0, count, visible, null, true);
+            final long t4 = System.nanoTime();
+            if( measure ) {
+                tSingle += t1 - t0; tBatch += t2 - t1; tCached += t3 - t2; tParallel += t4 - t3;
+            }
+        }
+        System.err.printf("Perf cull %d boxes x %d: per-box %.3f ms, batch %.3f ms (%.1fx), batch-cached %.3f ms (%.1fx), batch-parallel %.3f ms (%.1fx), sum %d%n",
+                count, loops, tSingle / 1e6 / loops, tBatch / 1e6 / loops, (double)tSingle / tBatch,
+                tCached / 1e6 / loops, (double)tSingle / tCached,
+                tParallel / 1e6 / loops, (double)tSingle / tParallel, sum);
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestFrustum01CullNOUI.class.getName());
+    }
+}
@@ -0,0 +1,234 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package com.jogamp.opengl.test.junit.math;
+
+
+import java.nio.FloatBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.FixMethodOrder;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.junit.util.JunitTracer;
+import com.jogamp.math.Matrix4f;
+import com.jogamp.math.Vec3f;
+import com.jogamp.math.Vec4f;
+
+/**
+ * Validates the {@link Matrix4f} bulk vector transformations against
+ * {@link Matrix4f#mulVec3f(Vec3f, Vec3f)} and {@link Matrix4f#mulVec4f(Vec4f, Vec4f)},
+ * incl. strides, in-place operation, {@link FloatBuffer}s and parallel chunks,
+ * as well as comparing their performance.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestMatrix4f04BulkNOUI extends JunitTracer {
+    static final float EPSILON = 0f; // identical operation order
+
+    static Matrix4f createMatrix() {
+        final Matrix4f m = new Matrix4f();
+        m.setToTranslation(1f, -2f, 3f);
+        final Matrix4f t = new Matrix4f();
+        m.mul(t.setToRotationEuler(0.3f, 1.1f, -0.7f));
+        m.mul(t.setToScale(2f, 0.5f, 1.5f));
+        return m;
+    }
+
+    static float[] createData(final int count, final int stride) {
+        final float[] data = new float[count * stride];
+        for(int i=0; i<data.length; i++) {
+            data[i] = ( i % 97 ) * 0.25f - 11f;
+        }
+        return data;
+    }
+
+    static void transformPerVector(final Matrix4f m, final int kind, final float[] src, final int srcStride,
+                                   final float[] dst, final int dstStride, final int count) {
+        final Vec3f v3 = new Vec3f();
+        final Vec4f v4 = new Vec4f();
+        for(int i=0; i<count; i++) {
+            final int s = i * srcStride, d = i * dstStride;
+            switch( kind ) {
+                case 0:
+                    m.mulVec3f(v3.set(src[s], src[s+1], src[s+2]));
+                    dst[d] = v3.x(); dst[d+1] = v3.y(); dst[d+2] = v3.z();
+                    break;
+                case 1:
+                    m.mulVec4f(v4.set(src[s], src[s+1], src[s+2], 0f));
+                    dst[d] = v4.x(); dst[d+1] = v4.y(); dst[d+2] = v4.z();
+                    break;
+                default:
+                    m.mulVec4f(v4.set(src[s], src[s+1], src[s+2], src[s+3]));
+                    dst[d] = v4.x(); dst[d+1] = v4.y(); dst[d+2] = v4.z(); dst[d+3] = v4.w();
+                    break;
+            }
+        }
+    }
+
+    static void transformBulk(final Matrix4f m, final int kind, final float[] src, final int srcStride,
+                              final float[] dst, final int dstStride, final int count, final boolean parallel) {
+        switch( kind ) {
+            case 0: m.mulVec3f(src, 0, srcStride, dst, 0, dstStride, count, parallel); break;
+            case 1: m.mulVec3fDir(src, 0, srcStride, dst, 0, dstStride, count, parallel); break;
+            default: m.mulVec4f(src, 0, srcStride, dst, 0, dstStride, count, parallel); break;
+        }
+    }
+
+    private void testKind(final int kind, final int count, final int srcStride, final int dstStride, final boolean parallel) {
+        final Matrix4f m = createMatrix();
+        final float[] src = createData(count, srcStride);
+        final float[] exp = new float[count * dstStride];
+        final float[] has = new float[count * dstStride];
+        transformPerVector(m, kind, src, srcStride, exp, dstStride, count);
+        transformBulk(m, kind, src, srcStride, has, dstStride, count, parallel);
+        Assert.assertArrayEquals(exp, has, EPSILON);
+
+        // in-place
+        if( srcStride == dstStride ) {
+            final float[] inout = src.clone();
+            transformBulk(m, kind, inout, srcStride, inout, srcStride, count, parallel);
+            final int components = 2 == kind ? 4 : 3;
+            for(int i=0; i<count; i++) {
+                for(int c=0; c<components; c++) {
+                    Assert.assertEquals(exp[i*dstStride+c], inout[i*srcStride+c], EPSILON);
+                }
+                for(int c=components; c<srcStride; c++) {
+                    Assert.assertEquals(src[i*srcStride+c], inout[i*srcStride+c], EPSILON); // untouched
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test01Points() {
+        testKind(0, 100, 3, 3, false);
+        testKind(0, 100, 8, 3, false);
+        testKind(0, 100, 5, 5, false);
+    }
+
+    @Test
+    public void test02Directions() {
+        testKind(1, 100, 3, 3, false);
+        testKind(1, 100, 6, 4, false);
+    }
+
+    @Test
+    public void test03Vec4() {
+        testKind(2, 100, 4, 4, false);
+        testKind(2, 100, 7, 4, false);
+    }
+
+    @Test
+    public void test04Parallel() {
+        final int count = Matrix4f.BULK_PARALLEL_THRESHOLD * 2 + 17;
+        testKind(0, count, 3, 3, true);
+        testKind(1, count, 4, 4, true);
+        testKind(2, count, 4, 4, true);
+    }
+
+    @Test
+    public void test05FloatBuffer() {
+        final Matrix4f m = createMatrix();
+        final int count = 100, stride = 5;
+        final float[] src = createData(count, stride);
+        final float[] exp = new float[count * 3];
+        transformPerVector(m, 0, src, stride, exp, 3, count);
+
+        final FloatBuffer srcDirect = Buffers.newDirectFloatBuffer(src.length + 2);
+        srcDirect.position(2);
+        srcDirect.put(src);
+        srcDirect.position(1);
+        final FloatBuffer dstDirect = Buffers.newDirectFloatBuffer(exp.length);
+        m.mulVec3f(srcDirect, 2, stride, dstDirect, 0, 3, count, false);
+        Assert.assertEquals(1, srcDirect.position());
+        Assert.assertEquals(0, dstDirect.position());
+        final float[] has = new float[exp.length];
+        dstDirect.get(has);
+        Assert.assertArrayEquals(exp, has, EPSILON);
+
+        final FloatBuffer srcHeap = FloatBuffer.wrap(src);
+        final FloatBuffer dstHeap = FloatBuffer.allocate(exp.length);
+        m.mulVec3f(srcHeap, 0, stride, dstHeap, 0, 3, count, false);
+        Assert.assertArrayEquals(exp, dstHeap.array(), EPSILON);
+    }
+
+    @Test
+    public void test06Range() {
+        final Matrix4f m = new Matrix4f();
+        final float[] a = new float[12];
+        m.mulVec3f(a, 0, 3, a, 0, 3, 4, false);
+        m.mulVec3f(a, 0, 3, a, 0, 3, 0, false);
+        try {
+            m.mulVec3f(a, 1, 3, a, 0, 3, 4, false);
+            Assert.fail("IndexOutOfBoundsException expected");
+        } catch (final IndexOutOfBoundsException e) { }
+        try {
+            m.mulVec4f(a, 0, 3, a, 0, 4, 2, false);
+            Assert.fail("IllegalArgumentException expected");
+        } catch (final IllegalArgumentException e) { }
+    }
+
+    @Test
+    public void test07Perf01() {
+        final Matrix4f m = createMatrix();
+        final int count = 1024 * 1024, loops = 10;
+        final float[] src = createData(count, 3);
+        final float[] dst = new float[count * 3];
+
+        // warm-up
+        for(int i=0; i<3; i++) {
+            transformPerVector(m, 0, src, 3, dst, 3, count);
+            transformBulk(m, 0, src, 3, dst, 3, count, false);
+            transformBulk(m, 0, src, 3, dst, 3, count, true);
+        }
+        long t0 = System.nanoTime();
+        for(int i=0; i<loops; i++) {
+            transformPerVector(m, 0, src, 3, dst, 3, count);
+        }
+        final long tPerVector = System.nanoTime() - t0;
+        t0 = System.nanoTime();
+        for(int i=0; i<loops; i++) {
+            transformBulk(m, 0, src, 3, dst, 3, count, false);
+        }
+        final long tBulk = System.nanoTime() - t0;
+        t0 = System.nanoTime();
+        for(int i=0; i<loops; i++) {
+            transformBulk(m, 0, src, 3, dst, 3, count, true);
+        }
+        final long tBulkParallel = System.nanoTime() - t0;
+        System.err.printf("Perf mulVec3f %d points x %d: per-vector %.2f ms, bulk %.2f ms (%.1fx), bulk-parallel %.2f ms (%.1fx)%n",
+                count, loops, tPerVector / 1e6 / loops, tBulk / 1e6 / loops, (double)tPerVector / tBulk,
+                tBulkParallel / 1e6 / loops, (double)tPerVector / tBulkParallel);
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestMatrix4f04BulkNOUI.class.getName());
+    }
+}
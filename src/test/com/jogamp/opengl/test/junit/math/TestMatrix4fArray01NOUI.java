@@ -0,0 +1,223 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package com.jogamp.opengl.test.junit.math;
+
+
+import java.nio.FloatBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.FixMethodOrder;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.junit.util.JunitTracer;
+import com.jogamp.math.Matrix4f;
+import com.jogamp.math.Quaternion;
+import com.jogamp.math.util.Matrix4fArray;
+
+/**
+ * Validates {@link Matrix4fArray} composition, parent multiplication and hierarchy resolution
+ * against {@link Matrix4f} for direct and array backed storage, as well as comparing their performance.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestMatrix4fArray01NOUI extends JunitTracer {
+    static final float EPSILON = 1e-5f;
+
+    static float[] createTranslations(final int n) {
+        final float[] t = new float[n * 3];
+        for(int i=0; i<t.length; i++) {
+            t[i] = ( i % 13 ) - 6f;
+        }
+        return t;
+    }
+    static float[] createRotations(final int n) {
+        final float[] q = new float[n * 4];
+        final Quaternion tmp = new Quaternion();
+        for(int i=0; i<n; i++) {
+            tmp.setFromEuler(i * 0.1f, i * 0.07f, -i * 0.03f);
+            q[i*4] = tmp.x(); q[i*4+1] = tmp.y(); q[i*4+2] = tmp.z(); q[i*4+3] = tmp.w();
+        }
+        return q;
+    }
+    static float[] createScales(final int n) {
+        final float[] s = new float[n * 3];
+        for(int i=0; i<s.length; i++) {
+            s[i] = 0.5f + ( i % 5 ) * 0.25f;
+        }
+        return s;
+    }
+
+    static Matrix4f composeTRS(final float[] t, final float[] q, final float[] s, final int i) {
+        final Matrix4f m = new Matrix4f();
+        final Matrix4f tmp = new Matrix4f();
+        m.setToTranslation(t[i*3], t[i*3+1], t[i*3+2]);
+        m.rotate(new Quaternion(q[i*4], q[i*4+1], q[i*4+2], q[i*4+3]), tmp);
+        m.scale(s[i*3], s[i*3+1], s[i*3+2], tmp);
+        return m;
+    }
+
+    static void assertMatrix(final Matrix4f exp, final Matrix4f has) {
+        Assert.assertArrayEquals(exp.get(new float[16]), has.get(new float[16]), EPSILON);
+    }
+
+    private void testTRS(final Matrix4fArray ma) {
+        final int n = ma.size();
+        final float[] t = createTranslations(n), q = createRotations(n), s = createScales(n);
+        ma.setToTRS(0, n, t, 0, q, 0, s, 0);
+        final Matrix4f has = new Matrix4f();
+        for(int i=0; i<n; i++) {
+            assertMatrix(composeTRS(t, q, s, i), ma.get(i, has));
+        }
+        // partial components
+        ma.setToTRS(1, 1, t, 0, null, 0, null, 0);
+        assertMatrix(new Matrix4f().setToTranslation(t[0], t[1], t[2]), ma.get(1, has));
+    }
+
+    @Test
+    public void test01ComposeTRS() {
+        testTRS(new Matrix4fArray(64));
+        testTRS(new Matrix4fArray(FloatBuffer.allocate(64 * 16)));
+    }
+
+    @Test
+    public void test02MulParent() {
+        final int n = 32;
+        final float[] t = createTranslations(n), q = createRotations(n), s = createScales(n);
+        final Matrix4f parent = composeTRS(t, q, s, 7);
+        final Matrix4fArray local = new Matrix4fArray(n).setToTRS(0, n, t, 0, q, 0, s, 0);
+        final Matrix4fArray world = new Matrix4fArray(FloatBuffer.allocate(n * 16));
+        world.mul(parent, local, 0, 0, n);
+        local.mul(parent, 0, n); // in-place
+        final Matrix4f exp = new Matrix4f(), has = new Matrix4f();
+        for(int i=0; i<n; i++) {
+            exp.mul(parent, composeTRS(t, q, s, i));
+            assertMatrix(exp, world.get(i, has));
+            assertMatrix(exp, local.get(i, has));
+        }
+    }
+
+    @Test
+    public void test03Hierarchy() {
+        final int n = 40;
+        final float[] t = createTranslations(n), q = createRotations(n), s = createScales(n);
+        final int[] parents = new int[n];
+        for(int i=0; i<n; i++) {
+            parents[i] = 0 == i % 8 ? -1 : i / 2;
+        }
+        final Matrix4fArray local = new Matrix4fArray(n).setToTRS(0, n, t, 0, q, 0, s, 0);
+        final Matrix4fArray world = new Matrix4fArray(n).mulHierarchy(local, parents, 0, n);
+        final Matrix4f[] exp = new Matrix4f[n];
+        final Matrix4f has = new Matrix4f();
+        for(int i=0; i<n; i++) {
+            exp[i] = 0 > parents[i] ? composeTRS(t, q, s, i) : new Matrix4f().mul(exp[parents[i]], composeTRS(t, q, s, i));
+            assertMatrix(exp[i], world.get(i, has));
+        }
+        local.mulHierarchy(local, parents, 0, n); // in-place
+        for(int i=0; i<n; i++) {
+            assertMatrix(exp[i], local.get(i, has));
+        }
+        parents[3] = 5;
+        try {
+            world.mulHierarchy(local, parents, 0, n);
+            Assert.fail("IllegalArgumentException expected");
+        } catch (final IllegalArgumentException e) { }
+    }
+
+    @Test
+    public void test04Buffer() {
+        final Matrix4fArray ma = new Matrix4fArray(8);
+        final FloatBuffer b = ma.getBuffer();
+        Assert.assertTrue(b.isDirect());
+        Assert.assertEquals(0, b.position());
+        Assert.assertEquals(8 * 16, b.limit());
+        Assert.assertEquals(1f, b.get(7 * 16 + 15), 0f);
+        ma.set(7, new Matrix4f().setToTranslation(1, 2, 3));
+        Assert.assertEquals(3f, b.get(7 * 16 + 14), 0f);
+        try {
+            ma.get(8, new Matrix4f());
+            Assert.fail("IndexOutOfBoundsException expected");
+        } catch (final IndexOutOfBoundsException e) { }
+
+        // user buffer's position and limit are kept, content is shared
+        final FloatBuffer user = FloatBuffer.allocate(4 * 16 + 5);
+        user.position(3).limit(20);
+        final Matrix4fArray mu = new Matrix4fArray(user);
+        Assert.assertEquals(4, mu.size());
+        Assert.assertEquals(3, user.position());
+        Assert.assertEquals(20, user.limit());
+        Assert.assertEquals(0, mu.getBuffer().position());
+        Assert.assertEquals(4 * 16, mu.getBuffer().limit());
+        mu.set(2, new Matrix4f().setToTranslation(1, 2, 3));
+        Assert.assertEquals(3f, user.array()[2 * 16 + 14], 0f);
+    }
+
+    @Test
+    public void test05Perf01() {
+        final int n = 10000, loops = 100;
+        final float[] t = createTranslations(n), q = createRotations(n), s = createScales(n);
+        final Matrix4f parent = composeTRS(t, q, s, 3);
+        final Matrix4f[] mats = new Matrix4f[n];
+        for(int i=0; i<n; i++) {
+            mats[i] = new Matrix4f();
+        }
+        final Matrix4f tmp = new Matrix4f();
+        final Quaternion rot = new Quaternion();
+        final Matrix4fArray direct = new Matrix4fArray(n);
+        final Matrix4fArray heap = new Matrix4fArray(FloatBuffer.allocate(n * 16));
+
+        long tObjects = 0, tDirect = 0, tHeap = 0;
+        for(int l=0; l<loops*2; l++) {
+            final boolean measure = l >= loops; // 1st half warm-up
+            long t0 = System.nanoTime();
+            for(int i=0; i<n; i++) {
+                final Matrix4f m = mats[i];
+                m.setToTranslation(t[i*3], t[i*3+1], t[i*3+2]);
+                m.rotate(rot.set(q[i*4], q[i*4+1], q[i*4+2], q[i*4+3]), tmp);
+                m.scale(s[i*3], s[i*3+1], s[i*3+2], tmp);
+                tmp.load(m);
+                m.mul(parent, tmp);
+            }
+            final long t1 = System.nanoTime();
+            direct.setToTRS(0, n, t, 0, q, 0, s, 0).mul(parent, 0, n);
+            final long t2 = System.nanoTime();
+            heap.setToTRS(0, n, t, 0, q, 0, s, 0).mul(parent, 0, n);
+            final long t3 = System.nanoTime();
+            if( measure ) {
+                tObjects += t1 - t0; tDirect += t2 - t1; tHeap += t3 - t2;
+            }
+        }
+        System.err.printf("Perf TRS+parent %d matrices x %d: Matrix4f[] %.3f ms, packed direct %.3f ms (%.1fx), packed array %.3f ms (%.1fx)%n",
+                n, loops, tObjects / 1e6 / loops, tDirect / 1e6 / loops, (double)tObjects / tDirect,
+                tHeap / 1e6 / loops, (double)tObjects / tHeap);
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestMatrix4fArray01NOUI.class.getName());
+    }
+}
@@ -0,0 +1,266 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package com.jogamp.opengl.test.junit.math;
+
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.FixMethodOrder;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.junit.util.JunitTracer;
+import com.jogamp.math.FloatUtil;
+import com.jogamp.math.Matrix4f;
+import com.jogamp.math.Quaternion;
+import com.jogamp.math.util.PMVMatrix4f;
+
+/**
+ * Validates {@link PMVMatrix4f}'s derived matrices using the rigid-body and affine inversion,
+ * incrementally fused translations and the preallocated Mv stack against general {@link Matrix4f} operations,
+ * as well as comparing their performance.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestPMVMatrix04DerivedNOUI extends JunitTracer {
+    static final float EPSILON = 1e-4f;
+
+    static void assertMatrix(final String msg, final Matrix4f exp, final Matrix4f has) {
+        final float[] e = exp.get(new float[16]), h = has.get(new float[16]);
+        for(int i=0; i<16; i++) {
+            if( Math.abs(e[i] - h[i]) > EPSILON * Math.max(1f, Math.abs(e[i])) ) {
+                Assert.assertEquals(msg+" @ "+i+"\n"+exp+"\n"+has, e[i], h[i], 0f);
+            }
+        }
+    }
+
+    /** Asserts all derived matrices of {@code pmv} against general computation from its P and Mv. */
+    static void assertDerived(final String msg, final PMVMatrix4f pmv) {
+        final Matrix4f mvi = new Matrix4f(), pmvExp = new Matrix4f(), pmvi = new Matrix4f();
+        Assert.assertTrue(mvi.invert(pmv.getMv()));
+        pmvExp.mul(pmv.getP(), pmv.getMv());
+        Assert.assertTrue(pmvi.invert(pmvExp));
+        pmv.update();
+        assertMatrix(msg+": Mvi", mvi, pmv.getMvi());
+        assertMatrix(msg+": Mvit", new Matrix4f().transpose(mvi), pmv.getMvit());
+        assertMatrix(msg+": PMv", pmvExp, pmv.getPMv());
+        assertMatrix(msg+": PMvi", pmvi, pmv.getPMvi());
+    }
+
+    @Test
+    public void test01Inversion() {
+        final Matrix4f tmp = new Matrix4f();
+        final Matrix4f rigid = new Matrix4f().setToTranslation(1f, -2f, 3f);
+        rigid.rotate(new Quaternion().setFromEuler(0.3f, -1.2f, 0.7f), tmp);
+        final Matrix4f affine = new Matrix4f(rigid).scale(2f, 0.5f, -3f, tmp);
+        final Matrix4f exp = new Matrix4f();
+
+        Assert.assertTrue(rigid.isAffine());
+        Assert.assertTrue(exp.invert(rigid));
+        assertMatrix("rigid", exp, new Matrix4f().invertOrthonormal(rigid));
+        assertMatrix("rigid in-place", exp, new Matrix4f(rigid).invertOrthonormal(new Matrix4f(rigid)));
+
+        Assert.assertTrue(affine.isAffine());
+        Assert.assertTrue(exp.invert(affine));
+        final Matrix4f has = new Matrix4f(affine);
+        Assert.assertTrue(has.invertAffine(has));
+        assertMatrix("affine", exp, has);
+
+        Assert.assertFalse(new Matrix4f().setToPerspective(1f, 1f, 1f, 10f).isAffine());
+        Assert.assertFalse(new Matrix4f().invertAffine(new Matrix4f().setToScale(1f, 0f, 1f)));
+
+        final Matrix4f t = new Matrix4f(affine);
+        assertMatrix("translate", new Matrix4f(affine).translate(4f, 5f, 6f, tmp), t.translate(4f, 5f, 6f));
+    }
+
+    @Test
+    public void test02RigidAndFused() {
+        final PMVMatrix4f pmv = new PMVMatrix4f(PMVMatrix4f.INVERSE_TRANSPOSED_MODELVIEW);
+        pmv.perspectiveP(FloatUtil.QUARTER_PI, 1.5f, 0.1f, 100f);
+        Assert.assertTrue(pmv.isMvRigid());
+        pmv.translateMv(0f, 0f, -10f);
+        pmv.rotateMv(new Quaternion().setFromEuler(0.2f, 0.4f, -0.1f));
+        pmv.rotateMv(0.5f, 1f, 1f, 0f);
+        Assert.assertTrue(pmv.isMvRigid());
+        assertDerived("rigid", pmv);
+
+        // fused translation on valid derived matrices
+        pmv.translateMv(1f, 2f, 3f);
+        Assert.assertEquals(0, pmv.getDirtyBits() & ( PMVMatrix4f.INVERSE_MODELVIEW | PMVMatrix4f.INVERSE_TRANSPOSED_MODELVIEW |
+                                                      PMVMatrix4f.PREMUL_PMV | PMVMatrix4f.PREMUL_PMVI ));
+        Assert.assertNotEquals(0, pmv.getDirtyBits() & PMVMatrix4f.FRUSTUM);
+        Assert.assertNotEquals(0, pmv.getModifiedBits(false) & PMVMatrix4f.MODIFIED_MODELVIEW);
+        assertDerived("fused", pmv);
+
+        for(int i=0; i<100; i++) {
+            pmv.translateMv(0.1f, -0.05f, 0.02f);
+        }
+        assertDerived("fused x100", pmv);
+
+        pmv.scaleMv(1f, -1f, 1f);
+        Assert.assertTrue(pmv.isMvRigid());
+        pmv.scaleMv(2f, 2f, 2f);
+        Assert.assertFalse(pmv.isMvRigid());
+        assertDerived("affine", pmv);
+        pmv.translateMv(-1f, 0.5f, 0.25f);
+        assertDerived("affine fused", pmv);
+
+        pmv.loadMvIdentity();
+        Assert.assertTrue(pmv.isMvRigid());
+        pmv.getMv().setToScale(3f, 3f, 3f);
+        pmv.setModelviewDirty();
+        Assert.assertFalse(pmv.isMvRigid());
+        assertDerived("external", pmv);
+    }
+
+    @Test
+    public void test03Stack() {
+        final PMVMatrix4f pmv = new PMVMatrix4f(PMVMatrix4f.INVERSE_TRANSPOSED_MODELVIEW);
+        final Matrix4f[] exp = new Matrix4f[40];
+        for(int i=0; i<exp.length; i++) {
+            exp[i] = new Matrix4f(pmv.getMv());
+            final boolean rigid = pmv.isMvRigid();
+            pmv.pushMv();
+            Assert.assertEquals(rigid, pmv.isMvRigid());
+            if( 10 == i ) {
+                pmv.scaleMv(1.5f, 1.5f, 1.5f);
+            } else {
+                pmv.translateMv(i, 0f, 0f).rotateMv(0.1f, 0f, 0f, 1f);
+            }
+        }
+        for(int i=exp.length-1; i>=0; i--) {
+            pmv.popMv();
+            Assert.assertEquals(i <= 10, pmv.isMvRigid());
+            assertMatrix("pop "+i, exp[i], pmv.getMv());
+            assertDerived("pop "+i, pmv);
+        }
+        try {
+            pmv.popMv();
+            Assert.fail("IndexOutOfBoundsException expected");
+        } catch (final IndexOutOfBoundsException e) { }
+    }
+
+    private static float[] createTranslations(final int n) {
+        final float[] t = new float[n*3];
+        for(int i=0; i<t.length; i++) {
+            t[i] = ( i % 17 ) * 0.5f - 4f;
+        }
+        return t;
+    }
+
+    @Test
+    public void test04Perf01() {
+        final int shapes = 10000, loops = 50;
+        final float[] t = createTranslations(shapes);
+        final Quaternion rot = new Quaternion().setFromEuler(0.1f, 0.2f, 0.3f);
+
+        // Per shape: push, translate, rotate, sync Mvi/Mvit and PMv, translate (fused), sync, pop
+        final PMVMatrix4f pmv = new PMVMatrix4f(PMVMatrix4f.INVERSE_TRANSPOSED_MODELVIEW);
+        pmv.perspectiveP(FloatUtil.QUARTER_PI, 1.5f, 0.1f, 100f);
+        pmv.translateMv(0f, 0f, -20f);
+
+        // General reference workload w/ Matrix4f stack, full multiplication and inversion
+        final Matrix4f p = new Matrix4f(pmv.getP()), mv = new Matrix4f(pmv.getMv());
+        final Matrix4f mvi = new Matrix4f(), mvit = new Matrix4f(), pmvRef = new Matrix4f(), tmp = new Matrix4f();
+
+        float sink = 0;
+        long tGeneral = 0, tPMV = 0;
+        for(int l=0; l<loops*2; l++) {
+            final boolean measure = l >= loops; // 1st half warm-up
+            long t0 = System.nanoTime();
+            for(int i=0; i<shapes; i++) {
+                mv.push();
+                mv.mul(tmp.setToTranslation(t[i*3], t[i*3+1], t[i*3+2]));
+                mv.mul(tmp.setToRotation(rot));
+                mvi.invert(mv); mvit.transpose(mvi); pmvRef.mul(p, mv);
+                sink += mvit.get(3) + pmvRef.get(12);
+                mv.mul(tmp.setToTranslation(1f, 0f, 0f));
+                mvi.invert(mv); mvit.transpose(mvi); pmvRef.mul(p, mv);
+                sink += mvit.get(3) + pmvRef.get(12);
+                mv.pop();
+            }
+            final long t1 = System.nanoTime();
+            for(int i=0; i<shapes; i++) {
+                pmv.pushMv();
+                pmv.translateMv(t[i*3], t[i*3+1], t[i*3+2]);
+                pmv.rotateMv(rot);
+                pmv.update();
+                sink += pmv.getMvit().get(3) + pmv.getPMv().get(12);
+                pmv.translateMv(1f, 0f, 0f);
+                pmv.update();
+                sink += pmv.getMvit().get(3) + pmv.getPMv().get(12);
+                pmv.popMv();
+            }
+            final long t2 = System.nanoTime();
+            if( measure ) {
+                tGeneral += t1 - t0; tPMV += t2 - t1;
+            }
+        }
+        System.err.printf("Perf %d shapes x %d: general %.3f ms, PMVMatrix4f %.3f ms (%.1fx), sink %f%n",
+                shapes, loops, tGeneral / 1e6 / loops, tPMV / 1e6 / loops, (double)tGeneral / tPMV, sink);
+    }
+
+    @Test
+    public void test05Perf02Inversion() {
+        final int count = 100000;
+        final Matrix4f tmp = new Matrix4f();
+        final Matrix4f src = new Matrix4f().setToTranslation(1f, -2f, 3f);
+        src.rotate(new Quaternion().setFromEuler(0.3f, -1.2f, 0.7f), tmp);
+        final Matrix4f dst = new Matrix4f();
+        float sink = 0;
+        long tInvert = 0, tAffine = 0, tRigid = 0;
+        for(int l=0; l<10; l++) {
+            final boolean measure = l >= 5; // 1st half warm-up
+            long t0 = System.nanoTime();
+            for(int i=0; i<count; i++) {
+                dst.invert(src);
+                sink += dst.get(12);
+            }
+            final long t1 = System.nanoTime();
+            for(int i=0; i<count; i++) {
+                dst.invertAffine(src);
+                sink += dst.get(12);
+            }
+            final long t2 = System.nanoTime();
+            for(int i=0; i<count; i++) {
+                dst.invertOrthonormal(src);
+                sink += dst.get(12);
+            }
+            final long t3 = System.nanoTime();
+            if( measure ) {
+                tInvert += t1 - t0; tAffine += t2 - t1; tRigid += t3 - t2;
+            }
+        }
+        System.err.printf("Perf inversion %d x 5: invert %.3f ms, invertAffine %.3f ms (%.1fx), invertOrthonormal %.3f ms (%.1fx), sink %f%n",
+                count, tInvert / 1e6 / 5, tAffine / 1e6 / 5, (double)tInvert / tAffine,
+                tRigid / 1e6 / 5, (double)tInvert / tRigid, sink);
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestPMVMatrix04DerivedNOUI.class.getName());
+    }
+}
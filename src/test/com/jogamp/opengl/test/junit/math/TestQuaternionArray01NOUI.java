@@ -0,0 +1,242 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.math;
+
+import java.nio.FloatBuffer;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.junit.util.JunitTracer;
+import com.jogamp.math.Matrix4f;
+import com.jogamp.math.Quaternion;
+import com.jogamp.math.Vec3f;
+import com.jogamp.math.util.Matrix4fArray;
+import com.jogamp.math.util.QuaternionArray;
+
+/**
+ * Validates {@link QuaternionArray} normalization, interpolation, vector rotation
+ * and TRS composition via {@link Matrix4fArray} against the per {@link Quaternion} path,
+ * as well as comparing the performance of a keyframe blend and compose pass.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestQuaternionArray01NOUI extends JunitTracer {
+    static final float EPSILON = 1e-5f;
+
+    static QuaternionArray createRotations(final int n, final float phase) {
+        final QuaternionArray qa = new QuaternionArray(n);
+        final Quaternion tmp = new Quaternion();
+        for(int i=0; i<n; i++) {
+            tmp.setFromEuler(i * 0.1f + phase, i * 0.07f - phase, -i * 0.03f);
+            qa.set(i, tmp);
+        }
+        return qa;
+    }
+
+    static void assertQuaternion(final String msg, final Quaternion exp, final Quaternion has) {
+        Assert.assertEquals(msg, exp.x(), has.x(), EPSILON);
+        Assert.assertEquals(msg, exp.y(), has.y(), EPSILON);
+        Assert.assertEquals(msg, exp.z(), has.z(), EPSILON);
+        Assert.assertEquals(msg, exp.w(), has.w(), EPSILON);
+    }
+
+    @Test
+    public void test01SetGetNormalize() {
+        final QuaternionArray qa = new QuaternionArray(4);
+        final Quaternion has = new Quaternion();
+        Assert.assertTrue(qa.get(2, has).isIdentity());
+        qa.set(0, 1f, 2f, 3f, 4f).set(1, 0f, 0f, 0f, 0f).set(2, 0f, 0f, 0f, 1f).set(3, -2f, 0f, 0f, 0f);
+        final Quaternion[] exp = { new Quaternion(1f, 2f, 3f, 4f), new Quaternion(0f, 0f, 0f, 0f),
+                                   new Quaternion(0f, 0f, 0f, 1f), new Quaternion(-2f, 0f, 0f, 0f) };
+        qa.normalize(0, 4);
+        for(int i=0; i<4; i++) {
+            assertQuaternion("normalize "+i, exp[i].normalize(), qa.get(i, has));
+        }
+        final float[] xyzw = qa.get(0, 4, new float[17], 1);
+        final QuaternionArray qb = new QuaternionArray(4).set(0, 4, xyzw, 1);
+        for(int i=0; i<4; i++) {
+            assertQuaternion("packed "+i, qa.get(i, new Quaternion()), qb.get(i, has));
+        }
+    }
+
+    @Test
+    public void test02Slerp() {
+        final int n = 200;
+        final QuaternionArray a = createRotations(n, 0f);
+        final QuaternionArray b = createRotations(n, 1.3f);
+        // include the close and opposite special cases
+        b.set(1, a.x[1], a.y[1], a.z[1], a.w[1]);
+        b.set(2, -a.x[2], -a.y[2], -a.z[2], -a.w[2]);
+        final float[] ts = new float[n];
+        for(int i=0; i<n; i++) {
+            ts[i] = ( i % 11 ) / 10f;
+        }
+        final QuaternionArray r = new QuaternionArray(n);
+        final Quaternion qa = new Quaternion(), qb = new Quaternion(), exp = new Quaternion(), has = new Quaternion();
+        for(final float t : new float[] { 0f, 0.25f, 0.5f, 1f }) {
+            r.setSlerp(0, n, a, b, t);
+            for(int i=0; i<n; i++) {
+                exp.setSlerp(a.get(i, qa), b.get(i, qb), t);
+                assertQuaternion("slerp "+i+", t "+t, exp, r.get(i, has));
+            }
+        }
+        r.setSlerp(0, n, a, b, ts, 0);
+        for(int i=0; i<n; i++) {
+            exp.setSlerp(a.get(i, qa), b.get(i, qb), ts[i]);
+            assertQuaternion("slerp "+i+", t "+ts[i], exp, r.get(i, has));
+        }
+        // in place
+        final QuaternionArray c = createRotations(n, 0f);
+        c.setSlerp(0, n, c, b, 0.5f);
+        r.setSlerp(0, n, a, b, 0.5f);
+        for(int i=0; i<n; i++) {
+            assertQuaternion("in-place "+i, r.get(i, exp), c.get(i, has));
+        }
+    }
+
+    @Test
+    public void test03Nlerp() {
+        final int n = 200;
+        final QuaternionArray a = createRotations(n, 0f);
+        final QuaternionArray b = createRotations(n, 0.7f);
+        final QuaternionArray r = new QuaternionArray(n);
+        final Quaternion qa = new Quaternion(), qb = new Quaternion(), has = new Quaternion();
+        r.setNlerp(0, n, a, b, 0f);
+        for(int i=0; i<n; i++) {
+            assertQuaternion("nlerp 0, "+i, a.get(i, qa), r.get(i, has));
+        }
+        r.setNlerp(0, n, a, b, 1f);
+        for(int i=0; i<n; i++) {
+            assertQuaternion("nlerp 1, "+i, b.get(i, qb), r.get(i, has));
+        }
+        r.setNlerp(0, n, a, b, 0.5f);
+        for(int i=0; i<n; i++) {
+            // unit length, halfway angle: equal to normalized slerp at 0.5,
+            // the latter linearly interpolates close quaternions w/o normalization
+            final Quaternion exp = new Quaternion().setSlerp(a.get(i, qa), b.get(i, qb), 0.5f).normalize();
+            Assert.assertEquals(1f, r.get(i, has).magnitude(), EPSILON);
+            Assert.assertEquals("nlerp 0.5, "+i, 1f, Math.abs(exp.dot(has)), 1e-4f);
+        }
+        // shortest path
+        final QuaternionArray nb = new QuaternionArray(1).set(0, -b.x[5], -b.y[5], -b.z[5], -b.w[5]);
+        final QuaternionArray na = new QuaternionArray(1).set(0, a.x[5], a.y[5], a.z[5], a.w[5]);
+        final QuaternionArray pb = new QuaternionArray(1).set(0, b.x[5], b.y[5], b.z[5], b.w[5]);
+        final QuaternionArray r0 = new QuaternionArray(1).setNlerp(0, 1, na, nb, 0.3f);
+        final QuaternionArray r1 = new QuaternionArray(1).setNlerp(0, 1, na, pb, 0.3f);
+        assertQuaternion("shortest", r1.get(0, qa), r0.get(0, has));
+    }
+
+    @Test
+    public void test04RotateVectors() {
+        final int n = 100;
+        final QuaternionArray qa = createRotations(n, 0.2f);
+        final float[] v = new float[n*3];
+        for(int i=0; i<v.length; i++) {
+            v[i] = ( i % 7 ) - 3f;
+        }
+        final float[] d = qa.rotateVectors(0, n, v, 0, new float[n*3+2], 2);
+        final Quaternion q = new Quaternion();
+        final Vec3f exp = new Vec3f();
+        for(int i=0; i<n; i++) {
+            qa.get(i, q).rotateVector(new Vec3f(v[i*3], v[i*3+1], v[i*3+2]), exp);
+            Assert.assertEquals(exp.x(), d[2+i*3  ], EPSILON*10);
+            Assert.assertEquals(exp.y(), d[2+i*3+1], EPSILON*10);
+            Assert.assertEquals(exp.z(), d[2+i*3+2], EPSILON*10);
+        }
+    }
+
+    @Test
+    public void test05ComposeTRS() {
+        final int n = 150;
+        final QuaternionArray qa = createRotations(n, 0.4f);
+        final float[] q = qa.get(0, n, new float[n*4], 0);
+        final float[] t = TestMatrix4fArray01NOUI.createTranslations(n+1);
+        final float[] s = TestMatrix4fArray01NOUI.createScales(n+1);
+        for(final Matrix4fArray ma : new Matrix4fArray[] { new Matrix4fArray(n), new Matrix4fArray(FloatBuffer.allocate(n*16)) }) {
+            final Matrix4fArray exp = new Matrix4fArray(n).setToTRS(0, n-2, t, 3, q, 8, s, 3);
+            ma.setToTRS(qa, 2, 0, n-2, t, 3, s, 3);
+            final Matrix4f me = new Matrix4f(), mh = new Matrix4f();
+            for(int i=0; i<n-2; i++) {
+                Assert.assertArrayEquals(exp.get(i, me).get(new float[16]), ma.get(i, mh).get(new float[16]), 0f);
+            }
+        }
+        try {
+            new Matrix4fArray(n).setToTRS(qa, 1, 0, n, t, 0, s, 0);
+            Assert.fail("Expected IndexOutOfBoundsException");
+        } catch(final IndexOutOfBoundsException e) { }
+    }
+
+    @Test
+    public void test06Perf01() {
+        final int n = 10000, loops = 100;
+        final QuaternionArray a = createRotations(n, 0f), b = createRotations(n, 0.9f), r = new QuaternionArray(n);
+        final float[] t = TestMatrix4fArray01NOUI.createTranslations(n);
+        final float[] s = TestMatrix4fArray01NOUI.createScales(n);
+        final Quaternion[] qa = new Quaternion[n], qb = new Quaternion[n], qr = new Quaternion[n];
+        final Matrix4f[] mats = new Matrix4f[n];
+        for(int i=0; i<n; i++) {
+            qa[i] = a.get(i, new Quaternion());
+            qb[i] = b.get(i, new Quaternion());
+            qr[i] = new Quaternion();
+            mats[i] = new Matrix4f();
+        }
+        final Matrix4f tmp = new Matrix4f();
+        final Matrix4fArray ma = new Matrix4fArray(n);
+
+        long tObjects = 0, tSlerp = 0, tNlerp = 0;
+        for(int l=0; l<loops*2; l++) {
+            final boolean measure = l >= loops; // 1st half warm-up
+            final float f = ( l % 10 ) / 10f + 0.05f;
+            long t0 = System.nanoTime();
+            for(int i=0; i<n; i++) {
+                final Matrix4f m = mats[i];
+                qr[i].setSlerp(qa[i], qb[i], f);
+                m.setToTranslation(t[i*3], t[i*3+1], t[i*3+2]);
+                m.rotate(qr[i], tmp);
+                m.scale(s[i*3], s[i*3+1], s[i*3+2], tmp);
+            }
+            final long t1 = System.nanoTime();
+            ma.setToTRS(r.setSlerp(0, n, a, b, f), 0, 0, n, t, 0, s, 0);
+            final long t2 = System.nanoTime();
+            ma.setToTRS(r.setNlerp(0, n, a, b, f), 0, 0, n, t, 0, s, 0);
+            final long t3 = System.nanoTime();
+            if( measure ) {
+                tObjects += t1 - t0; tSlerp += t2 - t1; tNlerp += t3 - t2;
+            }
+        }
+        System.err.printf("Perf blend+TRS %d joints x %d: per Quaternion/Matrix4f %.3f ms, slerp batch %.3f ms (%.1fx), nlerp batch %.3f ms (%.1fx)%n",
+                n, loops, tObjects / 1e6 / loops, tSlerp / 1e6 / loops, (double)tObjects / tSlerp,
+                tNlerp / 1e6 / loops, (double)tObjects / tNlerp);
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestQuaternionArray01NOUI.class.getName());
+    }
+}
@@ -0,0 +1,320 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.math;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.junit.util.JunitTracer;
+import com.jogamp.math.Ray;
+import com.jogamp.math.Vec3f;
+import com.jogamp.math.geom.AABBox;
+import com.jogamp.math.geom.TriangleBVH;
+
+/**
+ * Validates {@link TriangleBVH} nearest ray hits incl. barycentrics against brute force
+ * for sequential and parallel builds, refit and buffer input, as well as measuring
+ * build, refit and query performance on a generated mesh of 1M triangles.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestTriangleBVH01NOUI extends JunitTracer {
+    static final float EPSILON = 1e-4f;
+
+    /** Height field grid of {@code n x n} quads, 2 triangles each, with 3 floats per vertex. */
+    static int[] createGridIndices(final int n) {
+        final int[] idx = new int[n * n * 6];
+        for(int z=0, k=0; z<n; z++) {
+            for(int x=0; x<n; x++) {
+                final int v = z * ( n + 1 ) + x;
+                idx[k++] = v; idx[k++] = v + n + 1; idx[k++] = v + 1;
+                idx[k++] = v + 1; idx[k++] = v + n + 1; idx[k++] = v + n + 2;
+            }
+        }
+        return idx;
+    }
+    static float[] createGridVertices(final int n, final float phase) {
+        final float[] v = new float[( n + 1 ) * ( n + 1 ) * 3];
+        for(int z=0, k=0; z<=n; z++) {
+            for(int x=0; x<=n; x++) {
+                final float fx = (float)x / n, fz = (float)z / n;
+                v[k++] = fx * 10f - 5f;
+                v[k++] = (float)( Math.sin(fx * 17 + phase) * Math.cos(fz * 13 - phase) );
+                v[k++] = fz * 10f - 5f;
+            }
+        }
+        return v;
+    }
+
+    /** Random triangle soup, each triangle with its own vertices. */
+    static float[] createSoupVertices(final int triCount, final long seed) {
+        final Random rnd = new Random(seed);
+        final float[] v = new float[triCount * 9];
+        for(int t=0; t<triCount; t++) {
+            final float cx = rnd.nextFloat() * 10f - 5f, cy = rnd.nextFloat() * 10f - 5f, cz = rnd.nextFloat() * 10f - 5f;
+            for(int j=0; j<9; j++) {
+                v[t*9+j] = ( 0 == j % 3 ? cx : ( 1 == j % 3 ? cy : cz ) ) + rnd.nextFloat() - 0.5f;
+            }
+        }
+        return v;
+    }
+    static int[] createSoupIndices(final int triCount) {
+        final int[] idx = new int[triCount * 3];
+        for(int i=0; i<idx.length; i++) {
+            idx[i] = i;
+        }
+        return idx;
+    }
+
+    static Ray createRay(final Random rnd, final Ray ray) {
+        ray.orig.set(rnd.nextFloat() * 16f - 8f, rnd.nextFloat() * 16f - 8f, rnd.nextFloat() * 16f - 8f);
+        final Vec3f target = new Vec3f(rnd.nextFloat() * 8f - 4f, rnd.nextFloat() * 2f - 1f, rnd.nextFloat() * 8f - 4f);
+        ray.dir.set(target).sub(ray.orig).normalize();
+        return ray;
+    }
+
+    /** Brute force nearest hit parameter, or {@code -1} if none. */
+    static float bruteForce(final float[] v, final int vStride, final int[] idx, final int triCount, final Ray ray) {
+        float best = Float.POSITIVE_INFINITY;
+        for(int t=0; t<triCount; t++) {
+            final int a = idx[t*3] * vStride, b = idx[t*3+1] * vStride, c = idx[t*3+2] * vStride;
+            final Vec3f e1 = new Vec3f(v[b] - v[a], v[b+1] - v[a+1], v[b+2] - v[a+2]);
+            final Vec3f e2 = new Vec3f(v[c] - v[a], v[c+1] - v[a+1], v[c+2] - v[a+2]);
+            final Vec3f p = new Vec3f().cross(ray.dir, e2);
+            final float det = e1.dot(p);
+            if( 0f == det ) {
+                continue;
+            }
+            final Vec3f s = new Vec3f(ray.orig.x() - v[a], ray.orig.y() - v[a+1], ray.orig.z() - v[a+2]);
+            final float u = s.dot(p) / det;
+            final Vec3f q = new Vec3f().cross(s, e1);
+            final float w = ray.dir.dot(q) / det;
+            final float d = e2.dot(q) / det;
+            if( 0f <= u && 0f <= w && u + w <= 1f && 0f < d && d < best ) {
+                best = d;
+            }
+        }
+        return Float.isInfinite(best) ? -1f : best;
+    }
+
+    static void assertHit(final String msg, final float[] v, final int vStride, final int[] idx, final int triCount,
+                          final TriangleBVH bvh, final Ray ray, final TriangleBVH.Hit hit) {
+        final float exp = bruteForce(v, vStride, idx, triCount, ray);
+        final boolean has = bvh.intersect(ray, Float.POSITIVE_INFINITY, hit);
+        Assert.assertEquals(msg+", hit", 0f <= exp, has);
+        if( has ) {
+            Assert.assertEquals(msg+", t", exp, hit.t, EPSILON);
+            // barycentrics reproduce the hit position
+            final int t = hit.triangle;
+            final int a = idx[t*3] * vStride, b = idx[t*3+1] * vStride, c = idx[t*3+2] * vStride;
+            final float w0 = 1f - hit.u - hit.v;
+            final Vec3f pos = hit.getPosition(ray, new Vec3f());
+            Assert.assertEquals(msg+", x", pos.x(), w0 * v[a  ] + hit.u * v[b  ] + hit.v * v[c  ], EPSILON);
+            Assert.assertEquals(msg+", y", pos.y(), w0 * v[a+1] + hit.u * v[b+1] + hit.v * v[c+1], EPSILON);
+            Assert.assertEquals(msg+", z", pos.z(), w0 * v[a+2] + hit.u * v[b+2] + hit.v * v[c+2], EPSILON);
+        } else {
+            Assert.assertEquals(-1, hit.triangle);
+        }
+    }
+
+    @Test
+    public void test01SoupVsBruteForce() {
+        final int triCount = 2000;
+        final float[] v = createSoupVertices(triCount, 1);
+        final int[] idx = createSoupIndices(triCount);
+        final TriangleBVH bvh = TriangleBVH.build(v, 0, 3, idx, 0, triCount, false);
+        Assert.assertEquals(triCount, bvh.getTriangleCount());
+        Assert.assertTrue(bvh.getNodeCount() < 2 * triCount);
+        Assert.assertTrue(bvh.getDepth() < 40);
+        final AABBox box = bvh.getBounds(new AABBox());
+        Assert.assertTrue(box.getLow().x() >= -6f && box.getHigh().x() <= 6f);
+
+        final Random rnd = new Random(2);
+        final Ray ray = new Ray();
+        final TriangleBVH.Hit hit = new TriangleBVH.Hit();
+        int hits = 0;
+        for(int i=0; i<500; i++) {
+            assertHit("ray "+i, v, 3, idx, triCount, bvh, createRay(rnd, ray), hit);
+            hits += 0 <= hit.triangle ? 1 : 0;
+        }
+        Assert.assertTrue(hits > 100);
+        // tMax limits the hit distance
+        createRay(rnd, ray);
+        while( !bvh.intersect(ray, Float.POSITIVE_INFINITY, hit) ) {
+            createRay(rnd, ray);
+        }
+        Assert.assertFalse(bvh.intersect(ray, hit.t * 0.99f, hit));
+    }
+
+    @Test
+    public void test02GridParallelBuild() {
+        final int n = 200; // 80000 triangles
+        final int[] idx = createGridIndices(n);
+        final float[] v = createGridVertices(n, 0f);
+        final int triCount = idx.length / 3;
+        Assert.assertTrue(triCount >= TriangleBVH.PARALLEL_THRESHOLD);
+        final TriangleBVH seq = TriangleBVH.build(v, 0, 3, idx, 0, triCount, false);
+        final TriangleBVH par = TriangleBVH.build(v, 0, 3, idx, 0, triCount, true);
+        Assert.assertEquals(seq.getNodeCount(), par.getNodeCount());
+        final Random rnd = new Random(3);
+        final Ray ray = new Ray();
+        final TriangleBVH.Hit h0 = new TriangleBVH.Hit(), h1 = new TriangleBVH.Hit();
+        for(int i=0; i<200; i++) {
+            createRay(rnd, ray);
+            Assert.assertEquals(seq.intersect(ray, Float.POSITIVE_INFINITY, h0), par.intersect(ray, Float.POSITIVE_INFINITY, h1));
+            Assert.assertEquals(h0.triangle, h1.triangle);
+            Assert.assertEquals(h0.t, h1.t, 0f);
+        }
+        for(int i=0; i<20; i++) {
+            assertHit("ray "+i, v, 3, idx, triCount, par, createRay(rnd, ray), h1);
+        }
+    }
+
+    @Test
+    public void test03Refit() {
+        final int n = 40;
+        final int[] idx = createGridIndices(n);
+        final float[] v = createGridVertices(n, 0f);
+        final int triCount = idx.length / 3;
+        final TriangleBVH bvh = TriangleBVH.build(v, 0, 3, idx, 0, triCount, false);
+        System.arraycopy(createGridVertices(n, 2.1f), 0, v, 0, v.length); // deform in place
+        bvh.refit(false);
+        final Random rnd = new Random(4);
+        final Ray ray = new Ray();
+        final TriangleBVH.Hit hit = new TriangleBVH.Hit();
+        for(int i=0; i<300; i++) {
+            assertHit("ray "+i, v, 3, idx, triCount, bvh, createRay(rnd, ray), hit);
+        }
+
+        // buffer input, copied
+        final FloatBuffer vb = FloatBuffer.allocate(v.length + 2);
+        final IntBuffer ib = IntBuffer.allocate(idx.length + 1);
+        vb.position(2); vb.put(v); vb.rewind();
+        ib.position(1); ib.put(idx); ib.rewind();
+        final float[] v2 = createGridVertices(n, -0.7f);
+        final TriangleBVH bvhB = TriangleBVH.build(vb, 2, 3, ib, 1, triCount, false);
+        vb.position(2); vb.put(v2); vb.rewind();
+        bvhB.refit(vb, 2, false);
+        Assert.assertEquals(0, vb.position());
+        for(int i=0; i<300; i++) {
+            assertHit("buffer ray "+i, v2, 3, idx, triCount, bvhB, createRay(rnd, ray), hit);
+        }
+    }
+
+    @Test
+    public void test04Degenerate() {
+        final TriangleBVH.Hit hit = new TriangleBVH.Hit();
+        final Ray ray = new Ray();
+        ray.orig.set(0, 0, -5); ray.dir.set(0, 0, 1);
+        // empty
+        final TriangleBVH empty = TriangleBVH.build(new float[0], 0, 3, new int[0], 0, 0, false);
+        Assert.assertFalse(empty.intersect(ray, Float.POSITIVE_INFINITY, hit));
+        Assert.assertTrue(empty.getBounds(new AABBox()).getLow().x() > empty.getBounds(new AABBox()).getHigh().x());
+
+        // coincident triangles, interleaved vertices w/ stride 6
+        final float[] v = { -1, -1, 0,  9, 9, 9,
+                             1, -1, 0,  9, 9, 9,
+                             0,  1, 0,  9, 9, 9 };
+        final int count = 100;
+        final int[] idx = new int[count * 3];
+        for(int i=0; i<idx.length; i++) {
+            idx[i] = i % 3;
+        }
+        final TriangleBVH same = TriangleBVH.build(v, 0, 6, idx, 0, count, false);
+        Assert.assertTrue(same.intersect(ray, Float.POSITIVE_INFINITY, hit));
+        Assert.assertEquals(5f, hit.t, EPSILON);
+        Assert.assertEquals(0.25f, hit.u, EPSILON);
+        Assert.assertEquals(0.5f, hit.v, EPSILON);
+        // parallel to the triangle plane and touching its bounds
+        ray.orig.set(-5, 0, 0); ray.dir.set(1, 0, 0);
+        Assert.assertFalse(same.intersect(ray, Float.POSITIVE_INFINITY, hit));
+
+        try {
+            TriangleBVH.build(v, 0, 6, new int[] { 0, 1, 3 }, 0, 1, false);
+            Assert.fail("Expected IndexOutOfBoundsException");
+        } catch(final IndexOutOfBoundsException e) { }
+        try {
+            TriangleBVH.build(v, 0, 2, idx, 0, 1, false);
+            Assert.fail("Expected IllegalArgumentException");
+        } catch(final IllegalArgumentException e) { }
+    }
+
+    @Test
+    public void test05Perf01() {
+        final int n = 708; // 1002528 triangles
+        final int[] idx = createGridIndices(n);
+        final float[] v = createGridVertices(n, 0f);
+        final int triCount = idx.length / 3;
+        final int rays = 100000, bruteRays = 10;
+        final Ray[] rs = new Ray[rays];
+        final Random rnd = new Random(5);
+        for(int i=0; i<rays; i++) {
+            rs[i] = createRay(rnd, new Ray());
+        }
+        final TriangleBVH.Hit hit = new TriangleBVH.Hit();
+        long tSeq = 0, tPar = 0, tRefit = 0, tQuery = 0, tBrute = 0;
+        int hits = 0;
+        TriangleBVH bvh = null;
+        for(int w=0; w<2; w++) {
+            final boolean measure = 1 == w; // 1st run warm-up
+            long t0 = System.nanoTime();
+            bvh = TriangleBVH.build(v, 0, 3, idx, 0, triCount, false);
+            final long t1 = System.nanoTime();
+            bvh = TriangleBVH.build(v, 0, 3, idx, 0, triCount, true);
+            final long t2 = System.nanoTime();
+            bvh.refit(true);
+            final long t3 = System.nanoTime();
+            hits = 0;
+            for(int i=0; i<rays; i++) {
+                hits += bvh.intersect(rs[i], Float.POSITIVE_INFINITY, hit) ? 1 : 0;
+            }
+            final long t4 = System.nanoTime();
+            for(int i=0; i<bruteRays; i++) {
+                bruteForce(v, 3, idx, triCount, rs[i]);
+            }
+            final long t5 = System.nanoTime();
+            if( measure ) {
+                tSeq = t1 - t0; tPar = t2 - t1; tRefit = t3 - t2; tQuery = t4 - t3; tBrute = t5 - t4;
+            }
+        }
+        final double usQuery = tQuery / 1e3 / rays, usBrute = tBrute / 1e3 / bruteRays;
+        System.err.printf("Perf BVH %d triangles, %d nodes, depth %d: build %.1f ms, parallel %.1f ms, refit %.1f ms%n",
+                triCount, bvh.getNodeCount(), bvh.getDepth(), tSeq / 1e6, tPar / 1e6, tRefit / 1e6);
+        System.err.printf("Perf BVH %d rays, %d hits: %.2f us/ray, brute force %.0f us/ray (%.0fx)%n",
+                rays, hits, usQuery, usBrute, usBrute / usQuery);
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestTriangleBVH01NOUI.class.getName());
+    }
+}
@@ -0,0 +1,224 @@
+/**
+ * Copyright 2024 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package com.jogamp.opengl.test.junit.newt;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.nativewindow.Capabilities;
+import com.jogamp.nativewindow.NativeWindowFactory;
+import com.jogamp.newt.Display;
+import com.jogamp.newt.NewtFactory;
+import com.jogamp.newt.Window;
+import com.jogamp.newt.util.EDTUtil;
+import com.jogamp.opengl.test.junit.util.MiscUtils;
+import com.jogamp.opengl.test.junit.util.UITestCase;
+
+import jogamp.newt.DefaultEDTUtil;
+
+/**
+ * Stress test of {@link DefaultEDTUtil}'s task queue,
+ * using an offscreen NEWT window to keep the EDT busy w/o native onscreen resources.
+ * <p>
+ * Multiple producer threads enqueue tasks concurrently,
+ * validating that all tasks are executed in per-producer FIFO order.
+ * Throughput, batch and latency metrics are reported.
+ * </p>
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestDefaultEDTUtil01StressNEWT extends UITestCase {
+    static int producerCount = 8;
+    static int taskCount = 20000;
+
+    @BeforeClass
+    public static void initClass() {
+        NativeWindowFactory.initSingleton();
+    }
+
+    static Window createOffscreenWindow() {
+        final Capabilities caps = new Capabilities();
+        caps.setOnscreen(false);
+        final Window window = NewtFactory.createWindow(caps);
+        Assert.assertNotNull(window);
+        window.setSize(64, 64);
+        window.setVisible(true);
+        Assert.assertEquals(true, window.isNativeValid());
+        return window;
+    }
+
+    static DefaultEDTUtil getDefaultEDTUtil(final Window window) {
+        final EDTUtil edtUtil = window.getScreen().getDisplay().getEDTUtil();
+        Assume.assumeTrue("Not a DefaultEDTUtil: "+edtUtil, edtUtil instanceof DefaultEDTUtil);
+        Assert.assertEquals(true, edtUtil.isRunning());
+        return (DefaultEDTUtil)edtUtil;
+    }
+
+    static void dumpMetrics(final String pre, final DefaultEDTUtil edt, final long tasks, final long durationNanos) {
+        System.err.println(pre+": "+tasks+" tasks in "+(durationNanos/1000000)+" ms, "+(long)(tasks*1e9/durationNanos)+" tasks/s"+
+                           ", batches "+edt.getBatchCount()+", max batch "+edt.getMaxBatchSize()+
+                           ", latency mean "+(edt.getMeanTaskLatency()/1000)+" us, max "+(edt.getMaxTaskLatency()/1000)+" us");
+    }
+
+    void stress(final boolean waitSome) throws InterruptedException {
+        final Window window = createOffscreenWindow();
+        try {
+            final DefaultEDTUtil edt = getDefaultEDTUtil(window);
+            edt.waitUntilIdle();
+            edt.resetMetrics();
+
+            final int[] nextSeq = new int[producerCount];
+            final AtomicInteger executed = new AtomicInteger();
+            final AtomicBoolean orderError = new AtomicBoolean(false);
+            final AtomicInteger dropped = new AtomicInteger();
+            final Thread[] producer = new Thread[producerCount];
+            for(int p=0; p<producerCount; p++) {
+                final int pid = p;
+                producer[p] = new Thread("Producer-"+p) {
+                    @Override
+                    public void run() {
+                        for(int i=0; i<taskCount; i++) {
+                            final int seq = i;
+                            final boolean wait = waitSome && 0 == i % 100;
+                            final boolean enqueued = edt.invoke(wait, () -> {
+                                // only touched on the EDT
+                                if( nextSeq[pid] != seq ) {
+                                    orderError.set(true);
+                                }
+                                nextSeq[pid] = seq + 1;
+                                executed.incrementAndGet();
+                            });
+                            if( !enqueued ) {
+                                dropped.incrementAndGet();
+                            }
+                        }
+                    }
+                };
+            }
+            final long t0 = System.nanoTime();
+            for(int p=0; p<producerCount; p++) {
+                producer[p].start();
+            }
+            for(int p=0; p<producerCount; p++) {
+                producer[p].join();
+            }
+            Assert.assertTrue(edt.waitUntilIdle());
+            final long t1 = System.nanoTime();
+
+            final int total = producerCount * taskCount;
+            dumpMetrics(getSimpleTestName("."), edt, total, t1 - t0);
+            Assert.assertEquals(0, dropped.get());
+            Assert.assertEquals(total, executed.get());
+            Assert.assertFalse("Per producer FIFO order violated", orderError.get());
+            Assert.assertEquals(0, edt.getPendingTaskCount());
+            Assert.assertEquals(total, edt.getTaskCount());
+            Assert.assertTrue(edt.getBatchCount() <= total);
+        } finally {
+            window.destroy();
+        }
+    }
+
+    @Test
+    public void test01NoWait() throws InterruptedException {
+        stress(false);
+    }
+
+    @Test
+    public void test02WaitSome() throws InterruptedException {
+        stress(true);
+    }
+
+    @Test
+    public void test03IdleWakeUpLatency() throws InterruptedException {
+        final Window window = createOffscreenWindow();
+        try {
+            final DefaultEDTUtil edt = getDefaultEDTUtil(window);
+            final long pollNanos = edt.getPollPeriod() * 1000000L;
+            edt.waitUntilIdle();
+            edt.resetMetrics();
+            final int loops = 100;
+            final long t0 = System.nanoTime();
+            for(int i=0; i<loops; i++) {
+                Thread.sleep(2); // let the EDT park
+                Assert.assertTrue(edt.invoke(true, () -> { }));
+            }
+            final long t1 = System.nanoTime();
+            dumpMetrics(getSimpleTestName("."), edt, loops, t1 - t0);
+            Assert.assertEquals(loops, edt.getTaskCount());
+            // wake-up on enqueue, not on next poll period
+            Assert.assertTrue("Mean latency "+edt.getMeanTaskLatency()+" >= poll period "+pollNanos, edt.getMeanTaskLatency() < pollNanos);
+        } finally {
+            window.destroy();
+        }
+    }
+
+    @Test
+    public void test04StopFlushesQueue() throws InterruptedException {
+        final Display display = NewtFactory.createDisplay(null, false);
+        display.createNative();
+        try {
+            Assume.assumeTrue(display.getEDTUtil() instanceof DefaultEDTUtil);
+            final DefaultEDTUtil edt = (DefaultEDTUtil)display.getEDTUtil();
+            Assert.assertTrue(edt.isRunning());
+            final AtomicInteger executed = new AtomicInteger();
+            final int tasks = 1000;
+            for(int i=0; i<tasks; i++) {
+                edt.invoke(false, () -> { executed.incrementAndGet(); });
+            }
+            final AtomicBoolean finalTaskRun = new AtomicBoolean(false);
+            Assert.assertTrue(edt.invokeStop(true, () -> { finalTaskRun.set(true); }));
+            Assert.assertTrue(finalTaskRun.get());
+            Assert.assertEquals(tasks, executed.get());
+            Assert.assertFalse(edt.isRunning());
+            Assert.assertFalse(edt.invoke(false, () -> { }));
+            Assert.assertEquals(0, edt.getPendingTaskCount());
+            edt.start();
+            Assert.assertTrue(edt.isRunning());
+        } finally {
+            display.destroy();
+        }
+    }
+
+    public static void main(final String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-producer")) {
+                producerCount = MiscUtils.atoi(args[++i], producerCount);
+            } else if(args[i].equals("-tasks")) {
+                taskCount = MiscUtils.atoi(args[++i], taskCount);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestDefaultEDTUtil01StressNEWT.class.getName());
+    }
+}